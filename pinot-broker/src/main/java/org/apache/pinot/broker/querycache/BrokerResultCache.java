@@ -0,0 +1,444 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.routing.ServerRouteInfo;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.TableRouteInfo;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.DataSizeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Size bounded cache of the single-stage query results on the broker.
+ * <p>Entries are keyed on the compiled queries (the original query and the queries sent to the OFFLINE and REALTIME
+ * tables, with the query options that cannot affect the results removed), and the routing of the queried tables (the
+ * routing version and a fingerprint of the selected segments). The routing version changes whenever the segment
+ * assignment or the segment metadata of the table changes, and the entries of a table are also invalidated eagerly when
+ * the routing manager reports a routing change for the table.
+ * <p>Queries on real-time tables always query consuming segments whose results change over time, so they are only
+ * served from the cache when the query option {@link QueryOptionKey#RESULT_CACHE_MAX_STALENESS_MS} is set, and only
+ * with results computed within the allowed staleness.
+ * <p>Only successful responses (no exception, no partial result) are cached.
+ */
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Do not cache a single entry which takes more than this fraction of the cache capacity
+  private static final int MAX_ENTRY_SIZE_DIVISOR = 10;
+  // Rough estimation of the object header and reference overhead
+  private static final int OBJECT_OVERHEAD_BYTES = 16;
+
+  private final Cache<CacheKey, CachedResponse> _cache;
+  // Table name with type to the cached keys, used to invalidate all the entries for a table
+  private final Map<String, Set<CacheKey>> _tableKeys = new ConcurrentHashMap<>();
+  private final long _maxEntrySizeBytes;
+  private final BrokerMetrics _brokerMetrics;
+
+  @VisibleForTesting
+  BrokerResultCache(long maxSizeBytes, BrokerMetrics brokerMetrics) {
+    _maxEntrySizeBytes = maxSizeBytes / MAX_ENTRY_SIZE_DIVISOR;
+    _brokerMetrics = brokerMetrics;
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .weigher((CacheKey key, CachedResponse value) -> (int) getSizeInBytes(key, value))
+        .removalListener(this::onRemoval)
+        .build();
+  }
+
+  /**
+   * Creates the result cache from the broker config, or returns {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static BrokerResultCache create(PinotConfiguration brokerConfig, BrokerMetrics brokerMetrics) {
+    if (!brokerConfig.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_ENABLED,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_ENABLED)) {
+      return null;
+    }
+    long maxSizeBytes = DataSizeUtils.toBytes(brokerConfig.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE));
+    LOGGER.info("Initializing broker result cache with max size: {} bytes", maxSizeBytes);
+    return new BrokerResultCache(maxSizeBytes, brokerMetrics);
+  }
+
+  /**
+   * Returns the cache key for the given query and the calculated routing, or {@code null} if the query is not
+   * cacheable. The routing versions should be read before calculating the routing so that the results are never
+   * associated with a newer routing than the one used to compute them.
+   */
+  @Nullable
+  public static CacheKey getCacheKey(String rawTableName, PinotQuery pinotQuery, TableRouteInfo routeInfo,
+      long offlineRoutingVersion, long realtimeRoutingVersion) {
+    Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+    // Traced queries are not cached because the trace info is part of the response
+    if (pinotQuery.isExplain() || QueryOptionsUtils.isSkipResultCache(queryOptions) || Boolean.parseBoolean(
+        queryOptions.get(Broker.Request.TRACE))) {
+      return null;
+    }
+    BrokerRequest offlineBrokerRequest = routeInfo.getOfflineBrokerRequest();
+    BrokerRequest realtimeBrokerRequest = routeInfo.getRealtimeBrokerRequest();
+    long maxStalenessMs = -1;
+    if (realtimeBrokerRequest != null) {
+      Long maxStalenessMsOption = QueryOptionsUtils.getResultCacheMaxStalenessMs(queryOptions);
+      if (maxStalenessMsOption == null) {
+        return null;
+      }
+      maxStalenessMs = maxStalenessMsOption;
+    }
+    StringBuilder keyBuilder = new StringBuilder();
+    keyBuilder.append("query:").append(normalize(pinotQuery));
+    if (offlineBrokerRequest != null) {
+      keyBuilder.append(",offline:").append(routeInfo.getOfflineTableName()).append('@').append(offlineRoutingVersion)
+          .append(',');
+      appendRouting(keyBuilder, offlineBrokerRequest, routeInfo.getOfflineRoutingTable());
+    }
+    if (realtimeBrokerRequest != null) {
+      keyBuilder.append(",realtime:").append(routeInfo.getRealtimeTableName()).append('@')
+          .append(realtimeRoutingVersion).append(',');
+      appendRouting(keyBuilder, realtimeBrokerRequest, routeInfo.getRealtimeRoutingTable());
+    }
+    return new CacheKey(rawTableName, offlineBrokerRequest != null ? routeInfo.getOfflineTableName() : null,
+        realtimeBrokerRequest != null ? routeInfo.getRealtimeTableName() : null, keyBuilder.toString(),
+        maxStalenessMs);
+  }
+
+  /**
+   * Returns the query string with the query options that cannot affect the results removed, and the remaining query
+   * options sorted to get a stable key.
+   */
+  private static String normalize(PinotQuery pinotQuery) {
+    PinotQuery normalizedQuery = pinotQuery.deepCopy();
+    Map<String, String> queryOptions = normalizedQuery.getQueryOptions();
+    if (queryOptions != null) {
+      Map<String, String> sortedQueryOptions = new TreeMap<>(queryOptions);
+      sortedQueryOptions.keySet().removeIf(BrokerResultCache::isIrrelevantQueryOption);
+      normalizedQuery.setQueryOptions(sortedQueryOptions);
+    }
+    return normalizedQuery.toString();
+  }
+
+  private static boolean isIrrelevantQueryOption(String key) {
+    switch (key) {
+      case QueryOptionKey.TIMEOUT_MS:
+      case QueryOptionKey.EXTRA_PASSIVE_TIMEOUT_MS:
+      case QueryOptionKey.CLIENT_QUERY_ID:
+      case QueryOptionKey.APPLICATION_NAME:
+      case QueryOptionKey.WORKLOAD_NAME:
+      case QueryOptionKey.MAX_EXECUTION_THREADS:
+      case QueryOptionKey.MAX_SERVER_RESPONSE_SIZE_BYTES:
+      case QueryOptionKey.MAX_QUERY_RESPONSE_SIZE_BYTES:
+      case QueryOptionKey.SERVER_RETURN_FINAL_RESULT:
+      case QueryOptionKey.SKIP_SEGMENT_RESULTS_CACHE:
+      case QueryOptionKey.RESULT_CACHE_MAX_STALENESS_MS:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Appends the server query and an order independent fingerprint of the selected segments.
+   */
+  private static void appendRouting(StringBuilder keyBuilder, BrokerRequest brokerRequest,
+      @Nullable Map<ServerInstance, ServerRouteInfo> routingTable) {
+    keyBuilder.append(normalize(brokerRequest.getPinotQuery()));
+    int numSegments = 0;
+    long segmentsHash = 0;
+    if (routingTable != null) {
+      for (ServerRouteInfo serverRouteInfo : routingTable.values()) {
+        for (String segment : serverRouteInfo.getSegments()) {
+          numSegments++;
+          segmentsHash += mix(segment.hashCode());
+        }
+        List<String> optionalSegments = serverRouteInfo.getOptionalSegments();
+        if (optionalSegments != null) {
+          for (String segment : optionalSegments) {
+            numSegments++;
+            segmentsHash += mix(segment.hashCode());
+          }
+        }
+      }
+    }
+    keyBuilder.append(",segments:").append(numSegments).append('#').append(Long.toHexString(segmentsHash));
+  }
+
+  private static long mix(int hash) {
+    long h = hash * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 32);
+  }
+
+  /**
+   * Returns a new broker response for the cached results of the given key, or {@code null} if the results are not
+   * cached or are staler than allowed by the query. Records the hit/miss.
+   */
+  @Nullable
+  public BrokerResponseNative get(CacheKey key) {
+    CachedResponse cachedResponse = _cache.getIfPresent(key);
+    if (cachedResponse != null && key._maxStalenessMs >= 0
+        && System.currentTimeMillis() - cachedResponse._creationTimeMs > key._maxStalenessMs) {
+      cachedResponse = null;
+    }
+    if (cachedResponse == null) {
+      _brokerMetrics.addMeteredTableValue(key._rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+      return null;
+    }
+    _brokerMetrics.addMeteredTableValue(key._rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+    return cachedResponse.toBrokerResponse();
+  }
+
+  /**
+   * Puts the broker response into the cache if it is successful and not too large compared to the cache capacity.
+   */
+  public void put(CacheKey key, BrokerResponseNative brokerResponse) {
+    ResultTable resultTable = brokerResponse.getResultTable();
+    if (resultTable == null || brokerResponse.isPartialResult()
+        || brokerResponse.getNumServersResponded() < brokerResponse.getNumServersQueried()) {
+      return;
+    }
+    CachedResponse cachedResponse = new CachedResponse(brokerResponse);
+    if (getSizeInBytes(key, cachedResponse) > _maxEntrySizeBytes) {
+      return;
+    }
+    if (key._offlineTableName != null) {
+      _tableKeys.computeIfAbsent(key._offlineTableName, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    if (key._realtimeTableName != null) {
+      _tableKeys.computeIfAbsent(key._realtimeTableName, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    _cache.put(key, cachedResponse);
+  }
+
+  /**
+   * Invalidates all the cached results for the given table. Should be invoked when the routing of the table changes.
+   */
+  public void invalidateTable(String tableNameWithType) {
+    Set<CacheKey> keys = _tableKeys.remove(tableNameWithType);
+    if (keys != null) {
+      _cache.invalidateAll(keys);
+    }
+  }
+
+  @VisibleForTesting
+  long size() {
+    _cache.cleanUp();
+    return _cache.size();
+  }
+
+  private void onRemoval(RemovalNotification<CacheKey, CachedResponse> notification) {
+    CacheKey key = notification.getKey();
+    if (key != null && notification.getCause() != RemovalCause.REPLACED) {
+      if (key._offlineTableName != null) {
+        removeTableKey(key._offlineTableName, key);
+      }
+      if (key._realtimeTableName != null) {
+        removeTableKey(key._realtimeTableName, key);
+      }
+    }
+    if (notification.getCause() == RemovalCause.SIZE) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, 1);
+    }
+  }
+
+  private void removeTableKey(String tableNameWithType, CacheKey key) {
+    _tableKeys.computeIfPresent(tableNameWithType, (k, v) -> {
+      v.remove(key);
+      return v.isEmpty() ? null : v;
+    });
+  }
+
+  private static long getSizeInBytes(CacheKey key, CachedResponse value) {
+    return Math.min(Integer.MAX_VALUE, key.getSizeInBytes() + value._sizeInBytes);
+  }
+
+  /**
+   * Key of the cached results. The raw table name and the allowed staleness are carried along for the lookup, and are
+   * not part of the key identity (the raw table name is already part of the query).
+   */
+  public static final class CacheKey {
+    final String _rawTableName;
+    final String _offlineTableName;
+    final String _realtimeTableName;
+    final String _key;
+    final long _maxStalenessMs;
+    final int _hashCode;
+
+    CacheKey(String rawTableName, @Nullable String offlineTableName, @Nullable String realtimeTableName, String key,
+        long maxStalenessMs) {
+      _rawTableName = rawTableName;
+      _offlineTableName = offlineTableName;
+      _realtimeTableName = realtimeTableName;
+      _key = key;
+      _maxStalenessMs = maxStalenessMs;
+      _hashCode = Objects.hash(offlineTableName, realtimeTableName, key);
+    }
+
+    long getSizeInBytes() {
+      return 2L * _key.length() + 64;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _hashCode == that._hashCode && Objects.equals(_offlineTableName, that._offlineTableName)
+          && Objects.equals(_realtimeTableName, that._realtimeTableName) && _key.equals(that._key);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  /**
+   * Immutable snapshot of the results and the stats describing the queried data. The execution stats (entries scanned,
+   * servers queried, execution time etc.) are not kept because nothing is executed when the results are served from the
+   * cache.
+   */
+  private static final class CachedResponse {
+    final String[] _columnNames;
+    final DataSchema.ColumnDataType[] _columnDataTypes;
+    final List<Object[]> _rows;
+    final boolean _groupsTrimmed;
+    final boolean _numGroupsLimitReached;
+    final boolean _numGroupsWarningLimitReached;
+    final long _numDocsScanned;
+    final long _totalDocs;
+    final long _numSegmentsQueried;
+    final long _numSegmentsProcessed;
+    final long _numSegmentsMatched;
+    final long _numConsumingSegmentsQueried;
+    final long _numConsumingSegmentsProcessed;
+    final long _numConsumingSegmentsMatched;
+    final long _minConsumingFreshnessTimeMs;
+    final long _creationTimeMs;
+    final long _sizeInBytes;
+
+    CachedResponse(BrokerResponseNative brokerResponse) {
+      ResultTable resultTable = brokerResponse.getResultTable();
+      assert resultTable != null;
+      DataSchema dataSchema = resultTable.getDataSchema();
+      // The column data types can be modified in place when filling the schema for empty results, so keep a copy
+      _columnNames = dataSchema.getColumnNames().clone();
+      _columnDataTypes = dataSchema.getColumnDataTypes().clone();
+      _rows = List.copyOf(resultTable.getRows());
+      _groupsTrimmed = brokerResponse.isGroupsTrimmed();
+      _numGroupsLimitReached = brokerResponse.isNumGroupsLimitReached();
+      _numGroupsWarningLimitReached = brokerResponse.isNumGroupsWarningLimitReached();
+      _numDocsScanned = brokerResponse.getNumDocsScanned();
+      _totalDocs = brokerResponse.getTotalDocs();
+      _numSegmentsQueried = brokerResponse.getNumSegmentsQueried();
+      _numSegmentsProcessed = brokerResponse.getNumSegmentsProcessed();
+      _numSegmentsMatched = brokerResponse.getNumSegmentsMatched();
+      _numConsumingSegmentsQueried = brokerResponse.getNumConsumingSegmentsQueried();
+      _numConsumingSegmentsProcessed = brokerResponse.getNumConsumingSegmentsProcessed();
+      _numConsumingSegmentsMatched = brokerResponse.getNumConsumingSegmentsMatched();
+      _minConsumingFreshnessTimeMs = brokerResponse.getMinConsumingFreshnessTimeMs();
+      _creationTimeMs = System.currentTimeMillis();
+      _sizeInBytes = estimateSizeInBytes(_columnNames, _rows);
+    }
+
+    BrokerResponseNative toBrokerResponse() {
+      BrokerResponseNative brokerResponse = new BrokerResponseNative();
+      brokerResponse.setResultTable(
+          new ResultTable(new DataSchema(_columnNames.clone(), _columnDataTypes.clone()), _rows));
+      brokerResponse.setGroupsTrimmed(_groupsTrimmed);
+      brokerResponse.setNumGroupsLimitReached(_numGroupsLimitReached);
+      brokerResponse.setNumGroupsWarningLimitReached(_numGroupsWarningLimitReached);
+      brokerResponse.setNumDocsScanned(_numDocsScanned);
+      brokerResponse.setTotalDocs(_totalDocs);
+      brokerResponse.setNumSegmentsQueried(_numSegmentsQueried);
+      brokerResponse.setNumSegmentsProcessed(_numSegmentsProcessed);
+      brokerResponse.setNumSegmentsMatched(_numSegmentsMatched);
+      brokerResponse.setNumConsumingSegmentsQueried(_numConsumingSegmentsQueried);
+      brokerResponse.setNumConsumingSegmentsProcessed(_numConsumingSegmentsProcessed);
+      brokerResponse.setNumConsumingSegmentsMatched(_numConsumingSegmentsMatched);
+      brokerResponse.setMinConsumingFreshnessTimeMs(_minConsumingFreshnessTimeMs);
+      return brokerResponse;
+    }
+
+    private static long estimateSizeInBytes(String[] columnNames, List<Object[]> rows) {
+      long sizeInBytes = 256;
+      for (String columnName : columnNames) {
+        sizeInBytes += estimateSizeInBytes(columnName);
+      }
+      for (Object[] row : rows) {
+        sizeInBytes += estimateSizeInBytes(row);
+      }
+      return sizeInBytes;
+    }
+
+    private static long estimateSizeInBytes(@Nullable Object value) {
+      if (value == null) {
+        return 0;
+      }
+      if (value instanceof String) {
+        return 2 * OBJECT_OVERHEAD_BYTES + 2L * ((String) value).length();
+      }
+      if (value instanceof Object[]) {
+        Object[] values = (Object[]) value;
+        long sizeInBytes = OBJECT_OVERHEAD_BYTES + 8L * values.length;
+        for (Object element : values) {
+          sizeInBytes += estimateSizeInBytes(element);
+        }
+        return sizeInBytes;
+      }
+      if (value instanceof int[] || value instanceof float[]) {
+        return OBJECT_OVERHEAD_BYTES + 4L * Array.getLength(value);
+      }
+      if (value instanceof long[] || value instanceof double[]) {
+        return OBJECT_OVERHEAD_BYTES + 8L * Array.getLength(value);
+      }
+      if (value instanceof byte[]) {
+        return OBJECT_OVERHEAD_BYTES + ((byte[]) value).length;
+      }
+      return OBJECT_OVERHEAD_BYTES + 8;
+    }
+  }
+}
@@ -55,6 +55,7 @@ import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.querycache.BrokerResultCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -166,6 +167,9 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
   protected BlockingQueue<Pair<String, String>> _multistageCompileQueryQueue;
   protected ImplicitHybridTableRouteProvider _implicitHybridTableRouteProvider;
   protected LogicalTableRouteProvider _logicalTableRouteProvider;
+  // Broker side result cache, null when not enabled
+  @Nullable
+  protected final BrokerResultCache _resultCache;
 
   public BaseSingleStageBrokerRequestHandler(PinotConfiguration config, String brokerId,
       BrokerRoutingManager routingManager, AccessControlFactory accessControlFactory,
@@ -203,6 +207,11 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     _implicitHybridTableRouteProvider = new ImplicitHybridTableRouteProvider();
     _logicalTableRouteProvider = new LogicalTableRouteProvider();
 
+    _resultCache = BrokerResultCache.create(_config, _brokerMetrics);
+    if (_resultCache != null) {
+      _routingManager.registerRoutingChangeListener(_resultCache::invalidateTable);
+    }
+
     LOGGER.info("Initialized {} with broker id: {}, timeout: {}ms, query response limit: {}, "
             + "default query limit {}, query log max length: {}, query log max rate: {}, query cancellation "
             + "enabled: {}", getClass().getSimpleName(), _brokerId, _brokerTimeoutMs, _queryResponseLimit,
@@ -612,6 +621,19 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
       realtimeBrokerRequest.getPinotQuery().setFilterExpression(null);
     }
 
+    // Read the routing versions before calculating the routing so that the cached results are never associated with a
+    // newer routing than the one used to compute them
+    long offlineRoutingVersion = -1;
+    long realtimeRoutingVersion = -1;
+    if (_resultCache != null && logicalTableConfig == null) {
+      if (offlineBrokerRequest != null) {
+        offlineRoutingVersion = _routingManager.getRoutingVersion(offlineTableName);
+      }
+      if (realtimeBrokerRequest != null) {
+        realtimeRoutingVersion = _routingManager.getRoutingVersion(realtimeTableName);
+      }
+    }
+
     // Calculate routing table for the query
     // TODO: Modify RoutingManager interface to directly take PinotQuery
     long routingStartTimeNs = System.nanoTime();
@@ -767,8 +789,22 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
         realtimeExecutionServers = null;
       }
     }
-    BrokerResponseNative brokerResponse;
-    if (isQueryCancellationEnabled()) {
+    // Serve the query from the result cache when possible. Only queries on physical tables without any broker side
+    // error are cached.
+    BrokerResultCache.CacheKey resultCacheKey = null;
+    BrokerResponseNative brokerResponse = null;
+    if (_resultCache != null && logicalTableConfig == null && errorMsgs.isEmpty()
+        && !requestContext.isSampledRequest()) {
+      resultCacheKey = BrokerResultCache.getCacheKey(rawTableName, pinotQuery, routeInfo, offlineRoutingVersion,
+          realtimeRoutingVersion);
+      if (resultCacheKey != null) {
+        brokerResponse = _resultCache.get(resultCacheKey);
+      }
+    }
+    boolean servedFromResultCache = brokerResponse != null;
+    if (servedFromResultCache) {
+      LOGGER.debug("Served request {} from the result cache", requestId);
+    } else if (isQueryCancellationEnabled()) {
       // Start to track the running query for cancellation just before sending it out to servers to avoid any
       // potential failures that could happen before sending it out, like failures to calculate the routing table etc.
       // TODO: Even tracking the query as late as here, a potential race condition between calling cancel API and
@@ -792,6 +828,9 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
       brokerResponse = processBrokerRequest(requestId, brokerRequest, serverBrokerRequest, routeInfo,
           remainingTimeMs, serverStats, requestContext);
     }
+    if (resultCacheKey != null && !servedFromResultCache) {
+      _resultCache.put(resultCacheKey, brokerResponse);
+    }
     brokerResponse.setTablesQueried(Set.of(rawTableName));
     brokerResponse.setPools(Stream.concat(
             offlineExecutionServers != null ? offlineExecutionServers.stream() : Stream.empty(),
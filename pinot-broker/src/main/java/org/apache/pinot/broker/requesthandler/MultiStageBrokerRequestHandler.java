@@ -406,6 +406,12 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
     String defaultHashFunction = _config.getProperty(
         CommonConstants.Broker.CONFIG_OF_BROKER_DEFAULT_HASH_FUNCTION,
         CommonConstants.Broker.DEFAULT_BROKER_DEFAULT_HASH_FUNCTION);
+    long defaultJoinBroadcastRowCountThreshold = _config.getProperty(
+        CommonConstants.Broker.CONFIG_OF_JOIN_BROADCAST_ROW_COUNT_THRESHOLD,
+        CommonConstants.Broker.DEFAULT_JOIN_BROADCAST_ROW_COUNT_THRESHOLD);
+    long defaultJoinRuntimeFilterRowCountThreshold = _config.getProperty(
+        CommonConstants.Broker.CONFIG_OF_JOIN_RUNTIME_FILTER_ROW_COUNT_THRESHOLD,
+        CommonConstants.Broker.DEFAULT_JOIN_RUNTIME_FILTER_ROW_COUNT_THRESHOLD);
     boolean caseSensitive = !_config.getProperty(
         CommonConstants.Helix.ENABLE_CASE_INSENSITIVE_KEY,
         CommonConstants.Helix.DEFAULT_ENABLE_CASE_INSENSITIVE
@@ -427,6 +433,8 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
         .defaultUseBrokerPruning(defaultUseBrokerPruning)
         .defaultLiteModeServerStageLimit(defaultLiteModeServerStageLimit)
         .defaultHashFunction(defaultHashFunction)
+        .defaultJoinBroadcastRowCountThreshold(defaultJoinBroadcastRowCountThreshold)
+        .defaultJoinRuntimeFilterRowCountThreshold(defaultJoinRuntimeFilterRowCountThreshold)
         .build();
   }
 
@@ -27,6 +27,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.AccessOption;
@@ -53,6 +56,7 @@ import org.apache.pinot.broker.routing.segmentpruner.SegmentPruner;
 import org.apache.pinot.broker.routing.segmentpruner.SegmentPrunerFactory;
 import org.apache.pinot.broker.routing.segmentselector.SegmentSelector;
 import org.apache.pinot.broker.routing.segmentselector.SegmentSelectorFactory;
+import org.apache.pinot.broker.routing.tablestats.TableStatisticsManager;
 import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryManager;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -64,6 +68,7 @@ import org.apache.pinot.core.routing.RoutingTable;
 import org.apache.pinot.core.routing.ServerRouteInfo;
 import org.apache.pinot.core.routing.TablePartitionInfo;
 import org.apache.pinot.core.routing.TablePartitionReplicatedServersInfo;
+import org.apache.pinot.core.routing.TableStatistics;
 import org.apache.pinot.core.routing.TimeBoundaryInfo;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.server.routing.stats.ServerRoutingStatsManager;
@@ -98,6 +103,8 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest, long)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #getRoutingVersion(String)}: Returns the version of the routing for a table, which changes whenever the
+ *   segments or the segment metadata used for routing change</li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -114,6 +121,10 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
   private final PinotConfiguration _pinotConfig;
   private final boolean _enablePartitionMetadataManager;
+  private final boolean _enableTableStatistics;
+  // Used to generate the routing versions, which are unique across tables and routing rebuilds
+  private final AtomicLong _routingVersionGenerator = new AtomicLong();
+  private final List<Consumer<String>> _routingChangeListeners = new CopyOnWriteArrayList<>();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -131,6 +142,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     _enablePartitionMetadataManager =
         pinotConfig.getProperty(CommonConstants.Broker.CONFIG_OF_ENABLE_PARTITION_METADATA_MANAGER,
             CommonConstants.Broker.DEFAULT_ENABLE_PARTITION_METADATA_MANAGER);
+    _enableTableStatistics = pinotConfig.getProperty(CommonConstants.Broker.CONFIG_OF_ENABLE_TABLE_STATISTICS,
+        CommonConstants.Broker.DEFAULT_ENABLE_TABLE_STATISTICS);
   }
 
   @Override
@@ -201,6 +214,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
               continue;
             }
             routingEntry.onAssignmentChange(idealState, externalView);
+            routingEntry.setRoutingVersion(_routingVersionGenerator.incrementAndGet());
+            notifyRoutingChange(tableNameWithType);
           } catch (Exception e) {
             LOGGER.error(
                 "Caught unexpected exception while updating routing entry on segment assignment change for table: {}",
@@ -605,17 +620,25 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     if (partitionMetadataManager != null) {
       segmentZkMetadataFetcher.register(partitionMetadataManager);
     }
+    TableStatisticsManager tableStatisticsManager = null;
+    if (_enableTableStatistics) {
+      tableStatisticsManager = new TableStatisticsManager(tableConfig);
+      segmentZkMetadataFetcher.register(tableStatisticsManager);
+    }
     segmentZkMetadataFetcher.init(idealState, externalView, preSelectedOnlineSegments);
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, idealStatePath, externalViewPath, segmentPreSelector, segmentSelector,
             segmentPruners, instanceSelector, idealStateVersion, externalViewVersion, segmentZkMetadataFetcher,
-            timeBoundaryManager, partitionMetadataManager, queryTimeoutMs, !idealState.isEnabled());
+            timeBoundaryManager, partitionMetadataManager, tableStatisticsManager, queryTimeoutMs,
+            !idealState.isEnabled());
+    routingEntry.setRoutingVersion(_routingVersionGenerator.incrementAndGet());
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
       LOGGER.info("Rebuilt routing for table: {}", tableNameWithType);
     }
+    notifyRoutingChange(tableNameWithType);
   }
 
   /**
@@ -641,6 +664,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     LOGGER.info("Removing routing for table: {}", tableNameWithType);
     if (_routingEntryMap.remove(tableNameWithType) != null) {
       LOGGER.info("Removed routing for table: {}", tableNameWithType);
+      notifyRoutingChange(tableNameWithType);
 
       // Remove time boundary manager for the offline part routing if the removed routing is the real-time part of a
       // hybrid table
@@ -704,12 +728,42 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
       routingEntry.refreshSegment(segment);
+      routingEntry.setRoutingVersion(_routingVersionGenerator.incrementAndGet());
+      notifyRoutingChange(tableNameWithType);
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
     }
   }
 
+  /**
+   * Registers a listener which is invoked with the table name with type whenever the routing of the table is built,
+   * updated or removed.
+   */
+  public void registerRoutingChangeListener(Consumer<String> listener) {
+    _routingChangeListeners.add(listener);
+  }
+
+  private void notifyRoutingChange(String tableNameWithType) {
+    for (Consumer<String> listener : _routingChangeListeners) {
+      try {
+        listener.accept(tableNameWithType);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while notifying routing change for table: {}", tableNameWithType, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the version of the routing for the given table, or -1 if the routing does not exist. The version changes
+   * whenever the routing is rebuilt, the segment assignment changes or a segment is refreshed, and can be used to
+   * detect stale results computed with a previous routing.
+   */
+  public long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : -1;
+  }
+
   /**
    * Returns {@code true} if the routing exists for the given table.
    */
@@ -846,6 +900,17 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return partitionMetadataManager != null ? partitionMetadataManager.getTablePartitionReplicatedServersInfo() : null;
   }
 
+  @Nullable
+  @Override
+  public TableStatistics getTableStatistics(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null) {
+      return null;
+    }
+    TableStatisticsManager tableStatisticsManager = routingEntry.getTableStatisticsManager();
+    return tableStatisticsManager != null ? tableStatisticsManager.getTableStatistics() : null;
+  }
+
   @Nullable
   @Override
   public Set<String> getServingInstances(String tableNameWithType) {
@@ -874,6 +939,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     final SegmentSelector _segmentSelector;
     final List<SegmentPruner> _segmentPruners;
     final SegmentPartitionMetadataManager _partitionMetadataManager;
+    final TableStatisticsManager _tableStatisticsManager;
     final InstanceSelector _instanceSelector;
     final Long _queryTimeoutMs;
     final SegmentZkMetadataFetcher _segmentZkMetadataFetcher;
@@ -886,12 +952,14 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
 
     transient boolean _disabled;
 
+    transient volatile long _routingVersion;
+
     RoutingEntry(String tableNameWithType, String idealStatePath, String externalViewPath,
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
         InstanceSelector instanceSelector, int lastUpdateIdealStateVersion, int lastUpdateExternalViewVersion,
         SegmentZkMetadataFetcher segmentZkMetadataFetcher, @Nullable TimeBoundaryManager timeBoundaryManager,
-        @Nullable SegmentPartitionMetadataManager partitionMetadataManager, @Nullable Long queryTimeoutMs,
-        boolean disabled) {
+        @Nullable SegmentPartitionMetadataManager partitionMetadataManager,
+        @Nullable TableStatisticsManager tableStatisticsManager, @Nullable Long queryTimeoutMs, boolean disabled) {
       _tableNameWithType = tableNameWithType;
       _idealStatePath = idealStatePath;
       _externalViewPath = externalViewPath;
@@ -903,6 +971,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _partitionMetadataManager = partitionMetadataManager;
+      _tableStatisticsManager = tableStatisticsManager;
       _queryTimeoutMs = queryTimeoutMs;
       _segmentZkMetadataFetcher = segmentZkMetadataFetcher;
       _disabled = disabled;
@@ -934,6 +1003,11 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _partitionMetadataManager;
     }
 
+    @Nullable
+    TableStatisticsManager getTableStatisticsManager() {
+      return _tableStatisticsManager;
+    }
+
     Long getQueryTimeoutMs() {
       return _queryTimeoutMs;
     }
@@ -942,6 +1016,14 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _disabled;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
+    void setRoutingVersion(long routingVersion) {
+      _routingVersion = routingVersion;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
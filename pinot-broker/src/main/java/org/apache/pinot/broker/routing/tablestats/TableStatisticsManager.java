@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.tablestats;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.broker.routing.segmentmetadata.SegmentZkMetadataFetchListener;
+import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.core.routing.TableStatistics;
+import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+
+
+/**
+ * The {@code TableStatisticsManager} aggregates the segment ZK metadata of the online segments of a table into the
+ * {@link TableStatistics} used by the multi-stage query planner. The statistics are recomputed whenever the online
+ * segments or the segment ZK metadata change.
+ *
+ * <p>The number of documents of the consuming segments is not available in the ZK metadata, and is estimated as the
+ * average number of documents of the completed segments. The statistics are not available until at least one segment
+ * has its number of documents in the ZK metadata.
+ */
+public class TableStatisticsManager implements SegmentZkMetadataFetchListener {
+  private static final long UNKNOWN = -1L;
+
+  private final String _tableNameWithType;
+  private final boolean _primaryKeyUnique;
+  private final Map<String, Integer> _partitionColumns = new HashMap<>();
+  private final Map<String, SegmentStatistics> _segmentStatisticsMap = new HashMap<>();
+
+  private volatile TableStatistics _tableStatistics;
+
+  public TableStatisticsManager(TableConfig tableConfig) {
+    _tableNameWithType = tableConfig.getTableName();
+    _primaryKeyUnique = tableConfig.isDimTable() || tableConfig.getUpsertMode() != UpsertConfig.Mode.NONE;
+    SegmentPartitionConfig segmentPartitionConfig = tableConfig.getIndexingConfig().getSegmentPartitionConfig();
+    if (segmentPartitionConfig != null) {
+      segmentPartitionConfig.getColumnPartitionMap()
+          .forEach((column, columnPartitionConfig) -> _partitionColumns.put(column,
+              columnPartitionConfig.getNumPartitions()));
+    }
+  }
+
+  @Override
+  public synchronized void init(IdealState idealState, ExternalView externalView, List<String> onlineSegments,
+      List<ZNRecord> znRecords) {
+    int numSegments = onlineSegments.size();
+    for (int i = 0; i < numSegments; i++) {
+      _segmentStatisticsMap.put(onlineSegments.get(i), getSegmentStatistics(znRecords.get(i)));
+    }
+    computeTableStatistics();
+  }
+
+  @Override
+  public synchronized void onAssignmentChange(IdealState idealState, ExternalView externalView,
+      Set<String> onlineSegments, List<String> pulledSegments, List<ZNRecord> znRecords) {
+    int numSegments = pulledSegments.size();
+    for (int i = 0; i < numSegments; i++) {
+      _segmentStatisticsMap.put(pulledSegments.get(i), getSegmentStatistics(znRecords.get(i)));
+    }
+    _segmentStatisticsMap.keySet().retainAll(onlineSegments);
+    computeTableStatistics();
+  }
+
+  @Override
+  public synchronized void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
+    _segmentStatisticsMap.put(segment, getSegmentStatistics(znRecord));
+    computeTableStatistics();
+  }
+
+  /**
+   * Returns the table statistics, or {@code null} if the number of rows of the table cannot be estimated.
+   */
+  @Nullable
+  public TableStatistics getTableStatistics() {
+    return _tableStatistics;
+  }
+
+  private SegmentStatistics getSegmentStatistics(@Nullable ZNRecord znRecord) {
+    if (znRecord == null) {
+      return new SegmentStatistics(UNKNOWN, UNKNOWN, UNKNOWN, Map.of());
+    }
+    SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(znRecord);
+    Map<String, Integer> numPartitionsMap = Map.of();
+    if (!_partitionColumns.isEmpty()) {
+      SegmentPartitionMetadata segmentPartitionMetadata = segmentZKMetadata.getPartitionMetadata();
+      if (segmentPartitionMetadata != null) {
+        numPartitionsMap = new HashMap<>();
+        for (Map.Entry<String, ColumnPartitionMetadata> entry : segmentPartitionMetadata.getColumnPartitionMap()
+            .entrySet()) {
+          numPartitionsMap.put(entry.getKey(), entry.getValue().getNumPartitions());
+        }
+      }
+    }
+    return new SegmentStatistics(segmentZKMetadata.getTotalDocs(), segmentZKMetadata.getStartTimeMs(),
+        segmentZKMetadata.getEndTimeMs(), numPartitionsMap);
+  }
+
+  private void computeTableStatistics() {
+    long numKnownRows = 0;
+    int numSegmentsWithKnownRows = 0;
+    long minTimeMs = Long.MAX_VALUE;
+    long maxTimeMs = UNKNOWN;
+    // Only keep the partition columns that all the segments are partitioned on with the configured number of partitions
+    Map<String, Integer> numPartitionsMap = new HashMap<>(_partitionColumns);
+    for (SegmentStatistics segmentStatistics : _segmentStatisticsMap.values()) {
+      if (segmentStatistics._numDocs >= 0) {
+        numKnownRows += segmentStatistics._numDocs;
+        numSegmentsWithKnownRows++;
+      }
+      if (segmentStatistics._startTimeMs >= 0) {
+        minTimeMs = Math.min(minTimeMs, segmentStatistics._startTimeMs);
+      }
+      maxTimeMs = Math.max(maxTimeMs, segmentStatistics._endTimeMs);
+      numPartitionsMap.entrySet()
+          .removeIf(entry -> !entry.getValue().equals(segmentStatistics._numPartitionsMap.get(entry.getKey())));
+    }
+    int numSegments = _segmentStatisticsMap.size();
+    if (numSegmentsWithKnownRows == 0 && numSegments > 0) {
+      _tableStatistics = null;
+      return;
+    }
+    long numRows = numKnownRows;
+    int numSegmentsWithUnknownRows = numSegments - numSegmentsWithKnownRows;
+    if (numSegmentsWithUnknownRows > 0) {
+      numRows += numKnownRows / numSegmentsWithKnownRows * numSegmentsWithUnknownRows;
+    }
+    _tableStatistics = new TableStatistics(_tableNameWithType, numRows, numSegments, _primaryKeyUnique,
+        minTimeMs != Long.MAX_VALUE ? minTimeMs : UNKNOWN, maxTimeMs, numPartitionsMap);
+  }
+
+  private static class SegmentStatistics {
+    final long _numDocs;
+    final long _startTimeMs;
+    final long _endTimeMs;
+    final Map<String, Integer> _numPartitionsMap;
+
+    SegmentStatistics(long numDocs, long startTimeMs, long endTimeMs, Map<String, Integer> numPartitionsMap) {
+      _numDocs = numDocs;
+      _startTimeMs = startTimeMs;
+      _endTimeMs = endTimeMs;
+      _numPartitionsMap = numPartitionsMap;
+    }
+  }
+}
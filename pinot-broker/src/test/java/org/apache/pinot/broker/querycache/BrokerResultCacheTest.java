@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.routing.ServerRouteInfo;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.TableRouteInfo;
+import org.apache.pinot.spi.exception.QueryErrorCode;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class BrokerResultCacheTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String REALTIME_TABLE_NAME = "testTable_REALTIME";
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable";
+
+  @Test
+  public void testOfflineQuery() {
+    BrokerResultCache cache = new BrokerResultCache(1024 * 1024, mock(BrokerMetrics.class));
+    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery(QUERY);
+    TableRouteInfo routeInfo = getRouteInfo(pinotQuery, true, false, List.of("s1", "s2"));
+
+    BrokerResultCache.CacheKey key = BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery, routeInfo, 1, -1);
+    assertNotNull(key);
+    assertNull(cache.get(key));
+
+    cache.put(key, getBrokerResponse(10L));
+    BrokerResponseNative cachedResponse = cache.get(key);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getResultTable().getRows().get(0)[0], 10L);
+    assertEquals(cachedResponse.getNumDocsScanned(), 10L);
+    assertEquals(cachedResponse.getNumEntriesScannedInFilter(), 0L);
+    assertEquals(cachedResponse.getNumServersQueried(), 0);
+
+    // Modifying the returned response should not affect the cached results
+    cachedResponse.setResultTable(null);
+    assertNotNull(cache.get(key).getResultTable());
+
+    // Query options that cannot affect the results are not part of the key
+    PinotQuery queryWithTimeout = CalciteSqlParser.compileToPinotQuery("SET timeoutMs = 1000; " + QUERY);
+    assertEquals(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, queryWithTimeout,
+        getRouteInfo(queryWithTimeout, true, false, List.of("s2", "s1")), 1, -1), key);
+
+    // Different routing version
+    assertNotEquals(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery, routeInfo, 2, -1), key);
+
+    // Different segments
+    assertNotEquals(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, false, List.of("s1", "s3")), 1, -1), key);
+
+    // Different query
+    PinotQuery otherQuery = CalciteSqlParser.compileToPinotQuery(QUERY + " WHERE col > 1");
+    assertNotEquals(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, otherQuery,
+        getRouteInfo(otherQuery, true, false, List.of("s1", "s2")), 1, -1), key);
+
+    // Invalidated on routing change
+    cache.invalidateTable(REALTIME_TABLE_NAME);
+    assertNotNull(cache.get(key));
+    cache.invalidateTable(OFFLINE_TABLE_NAME);
+    assertNull(cache.get(key));
+    assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void testNotCacheable() {
+    BrokerResultCache cache = new BrokerResultCache(1024 * 1024, mock(BrokerMetrics.class));
+
+    // Explicitly skipped
+    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery("SET skipResultCache = true; " + QUERY);
+    assertNull(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, false, List.of("s1")), 1, -1));
+
+    // Real-time table without staleness tolerance
+    pinotQuery = CalciteSqlParser.compileToPinotQuery(QUERY);
+    assertNull(BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, true, List.of("s1")), 1, 1));
+
+    // Responses with exceptions are not cached
+    BrokerResultCache.CacheKey key = BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, false, List.of("s1")), 1, -1);
+    assertNotNull(key);
+    BrokerResponseNative brokerResponse = getBrokerResponse(10L);
+    brokerResponse.addException(new QueryProcessingException(QueryErrorCode.SERVER_NOT_RESPONDING, "error"));
+    cache.put(key, brokerResponse);
+    assertNull(cache.get(key));
+
+    // Responses with partial server responses are not cached
+    brokerResponse = getBrokerResponse(10L);
+    brokerResponse.setNumServersQueried(2);
+    cache.put(key, brokerResponse);
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testRealtimeQueryWithStaleness()
+      throws Exception {
+    BrokerResultCache cache = new BrokerResultCache(1024 * 1024, mock(BrokerMetrics.class));
+    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery(
+        "SET " + QueryOptionKey.RESULT_CACHE_MAX_STALENESS_MS + " = 100000; " + QUERY);
+    BrokerResultCache.CacheKey key = BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, true, List.of("s1")), 1, 1);
+    assertNotNull(key);
+    cache.put(key, getBrokerResponse(10L));
+    assertNotNull(cache.get(key));
+
+    // The allowed staleness is not part of the key, but is checked on lookup
+    pinotQuery = CalciteSqlParser.compileToPinotQuery(
+        "SET " + QueryOptionKey.RESULT_CACHE_MAX_STALENESS_MS + " = 0; " + QUERY);
+    BrokerResultCache.CacheKey strictKey = BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, true, List.of("s1")), 1, 1);
+    assertEquals(strictKey, key);
+    Thread.sleep(10);
+    assertNull(cache.get(strictKey));
+
+    // Invalidated on routing change of either table
+    assertNotNull(cache.get(key));
+    cache.invalidateTable(REALTIME_TABLE_NAME);
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testSizeLimit() {
+    BrokerResultCache cache = new BrokerResultCache(10 * 1024, mock(BrokerMetrics.class));
+    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery(QUERY);
+    BrokerResultCache.CacheKey key = BrokerResultCache.getCacheKey(RAW_TABLE_NAME, pinotQuery,
+        getRouteInfo(pinotQuery, true, false, List.of("s1")), 1, -1);
+    assertNotNull(key);
+
+    // Entry larger than 1/10 of the capacity is not cached
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new Object[]{(long) i});
+    }
+    BrokerResponseNative brokerResponse = getBrokerResponse(10L);
+    brokerResponse.setResultTable(
+        new ResultTable(new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG}), rows));
+    cache.put(key, brokerResponse);
+    assertNull(cache.get(key));
+  }
+
+  private static TableRouteInfo getRouteInfo(PinotQuery pinotQuery, boolean hasOffline, boolean hasRealtime,
+      List<String> segments) {
+    TableRouteInfo routeInfo = mock(TableRouteInfo.class);
+    Map<ServerInstance, ServerRouteInfo> routingTable =
+        Map.of(mock(ServerInstance.class), new ServerRouteInfo(segments, List.of()));
+    if (hasOffline) {
+      PinotQuery offlineQuery = pinotQuery.deepCopy();
+      offlineQuery.getDataSource().setTableName(OFFLINE_TABLE_NAME);
+      BrokerRequest offlineBrokerRequest = CalciteSqlCompiler.convertToBrokerRequest(offlineQuery);
+      when(routeInfo.getOfflineTableName()).thenReturn(OFFLINE_TABLE_NAME);
+      when(routeInfo.getOfflineBrokerRequest()).thenReturn(offlineBrokerRequest);
+      when(routeInfo.getOfflineRoutingTable()).thenReturn(routingTable);
+    }
+    if (hasRealtime) {
+      PinotQuery realtimeQuery = pinotQuery.deepCopy();
+      realtimeQuery.getDataSource().setTableName(REALTIME_TABLE_NAME);
+      BrokerRequest realtimeBrokerRequest = CalciteSqlCompiler.convertToBrokerRequest(realtimeQuery);
+      when(routeInfo.getRealtimeTableName()).thenReturn(REALTIME_TABLE_NAME);
+      when(routeInfo.getRealtimeBrokerRequest()).thenReturn(realtimeBrokerRequest);
+      when(routeInfo.getRealtimeRoutingTable()).thenReturn(routingTable);
+    }
+    return routeInfo;
+  }
+
+  private static BrokerResponseNative getBrokerResponse(long count) {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{count});
+    brokerResponse.setResultTable(
+        new ResultTable(new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG}), rows));
+    brokerResponse.setNumDocsScanned(count);
+    brokerResponse.setTotalDocs(count);
+    brokerResponse.setNumEntriesScannedInFilter(count);
+    brokerResponse.setNumServersQueried(1);
+    brokerResponse.setNumServersResponded(1);
+    return brokerResponse;
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.tablestats;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.core.routing.TableStatistics;
+import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
+import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class TableStatisticsManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String PARTITION_COLUMN = "memberId";
+  private static final int NUM_PARTITIONS = 4;
+
+  @Test
+  public void testTableStatistics() {
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setSegmentPartitionConfig(new SegmentPartitionConfig(
+            Map.of(PARTITION_COLUMN, new ColumnPartitionConfig("Murmur", NUM_PARTITIONS))))
+        .build();
+    TableStatisticsManager tableStatisticsManager = new TableStatisticsManager(tableConfig);
+    IdealState idealState = new IdealState(tableConfig.getTableName());
+    ExternalView externalView = new ExternalView(tableConfig.getTableName());
+
+    // No segment
+    tableStatisticsManager.init(idealState, externalView, List.of(), List.of());
+    TableStatistics tableStatistics = tableStatisticsManager.getTableStatistics();
+    assertNotNull(tableStatistics);
+    assertEquals(tableStatistics.getNumRows(), 0);
+    assertEquals(tableStatistics.getNumSegments(), 0);
+    assertFalse(tableStatistics.isPrimaryKeyUnique());
+
+    // Add 2 partitioned segments
+    tableStatisticsManager.onAssignmentChange(idealState, externalView, Set.of("seg0", "seg1"),
+        List.of("seg0", "seg1"), Arrays.asList(getZNRecord("seg0", 100, 1000, 2000, true),
+            getZNRecord("seg1", 300, 1500, 3000, true)));
+    tableStatistics = tableStatisticsManager.getTableStatistics();
+    assertNotNull(tableStatistics);
+    assertEquals(tableStatistics.getNumRows(), 400);
+    assertEquals(tableStatistics.getNumSegments(), 2);
+    assertEquals(tableStatistics.getMinTimeMs(), 1000);
+    assertEquals(tableStatistics.getMaxTimeMs(), 3000);
+    assertEquals(tableStatistics.getNumPartitionsMap(), Map.of(PARTITION_COLUMN, NUM_PARTITIONS));
+
+    // Add a segment without number of documents and partition metadata, which is estimated as the average segment
+    tableStatisticsManager.onAssignmentChange(idealState, externalView, Set.of("seg0", "seg1", "seg2"),
+        List.of("seg2"), Arrays.asList(getZNRecord("seg2", -1, -1, -1, false)));
+    tableStatistics = tableStatisticsManager.getTableStatistics();
+    assertNotNull(tableStatistics);
+    assertEquals(tableStatistics.getNumRows(), 600);
+    assertEquals(tableStatistics.getNumSegments(), 3);
+    assertEquals(tableStatistics.getMinTimeMs(), 1000);
+    assertEquals(tableStatistics.getMaxTimeMs(), 3000);
+    assertTrue(tableStatistics.getNumPartitionsMap().isEmpty());
+
+    // Refresh a segment
+    tableStatisticsManager.refreshSegment("seg1", getZNRecord("seg1", 500, 1500, 4000, true));
+    tableStatistics = tableStatisticsManager.getTableStatistics();
+    assertNotNull(tableStatistics);
+    assertEquals(tableStatistics.getNumRows(), 900);
+    assertEquals(tableStatistics.getMaxTimeMs(), 4000);
+
+    // Remove the segments with number of documents, statistics are not available
+    tableStatisticsManager.onAssignmentChange(idealState, externalView, Set.of("seg2"), List.of(), List.of());
+    assertNull(tableStatisticsManager.getTableStatistics());
+  }
+
+  @Test
+  public void testDimensionTable() {
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setIsDimTable(true).build();
+    TableStatisticsManager tableStatisticsManager = new TableStatisticsManager(tableConfig);
+    tableStatisticsManager.init(new IdealState(tableConfig.getTableName()),
+        new ExternalView(tableConfig.getTableName()), List.of("seg0"),
+        Arrays.asList(getZNRecord("seg0", 100, -1, -1, false)));
+    TableStatistics tableStatistics = tableStatisticsManager.getTableStatistics();
+    assertNotNull(tableStatistics);
+    assertEquals(tableStatistics.getNumRows(), 100);
+    assertTrue(tableStatistics.isPrimaryKeyUnique());
+    assertEquals(tableStatistics.getMinTimeMs(), -1);
+    assertEquals(tableStatistics.getMaxTimeMs(), -1);
+  }
+
+  @Test
+  public void testMergeHybridTableStatistics() {
+    TableStatistics offlineTableStatistics =
+        new TableStatistics("testTable_OFFLINE", 1000, 10, false, 1000, 2000, Map.of(PARTITION_COLUMN, 4));
+    TableStatistics realtimeTableStatistics =
+        new TableStatistics("testTable_REALTIME", 200, 2, false, -1, 3000, Map.of(PARTITION_COLUMN, 8));
+    TableStatistics tableStatistics =
+        TableStatistics.merge(RAW_TABLE_NAME, offlineTableStatistics, realtimeTableStatistics);
+    assertEquals(tableStatistics.getTableNameWithType(), RAW_TABLE_NAME);
+    assertEquals(tableStatistics.getNumRows(), 1200);
+    assertEquals(tableStatistics.getNumSegments(), 12);
+    assertEquals(tableStatistics.getMinTimeMs(), 1000);
+    assertEquals(tableStatistics.getMaxTimeMs(), 3000);
+    assertTrue(tableStatistics.getNumPartitionsMap().isEmpty());
+  }
+
+  private static ZNRecord getZNRecord(String segmentName, long totalDocs, long startTimeMs, long endTimeMs,
+      boolean partitioned) {
+    SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segmentName);
+    if (totalDocs >= 0) {
+      segmentZKMetadata.setTotalDocs(totalDocs);
+    }
+    if (startTimeMs >= 0) {
+      segmentZKMetadata.setStartTime(startTimeMs);
+      segmentZKMetadata.setEndTime(endTimeMs);
+      segmentZKMetadata.setTimeUnit(TimeUnit.MILLISECONDS);
+    }
+    if (partitioned) {
+      segmentZKMetadata.setPartitionMetadata(new SegmentPartitionMetadata(Map.of(PARTITION_COLUMN,
+          new ColumnPartitionMetadata("Murmur", NUM_PARTITIONS, Set.of(0), null))));
+    }
+    return segmentZKMetadata.toZNRecord();
+  }
+}
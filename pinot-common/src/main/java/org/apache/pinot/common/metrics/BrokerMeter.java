@@ -262,6 +262,11 @@ public class BrokerMeter implements AbstractMetrics.Meter {
 
   public static final BrokerMeter RLS_FILTERS_APPLIED = create("RLS_FILTERS_APPLIED", "queries", false);
 
+  // Broker side result cache metrics
+  public static final BrokerMeter RESULT_CACHE_HITS = create("RESULT_CACHE_HITS", "queries", false);
+  public static final BrokerMeter RESULT_CACHE_MISSES = create("RESULT_CACHE_MISSES", "queries", false);
+  public static final BrokerMeter RESULT_CACHE_EVICTIONS = create("RESULT_CACHE_EVICTIONS", "entries", true);
+
   private static final Map<QueryErrorCode, BrokerMeter> QUERY_ERROR_CODE_METER_MAP;
 
   // Iterate through all query error codes from QueryErrorCode.getAllValues() and create a metric for each
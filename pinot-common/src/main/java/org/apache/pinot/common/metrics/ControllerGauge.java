@@ -179,6 +179,12 @@ public enum ControllerGauge implements AbstractMetrics.Gauge {
   // Added to preserve backwards compatibility of the above metric
   COMMITTING_SEGMENT_SIZE_WITH_TOPIC("committingSegmentSizeWithTopic", false),
 
+  // Inputs of the segment size based threshold computer, reported for the committing segments of each topic: the
+  // ingestion rate while consuming, the off-heap memory used while consuming, and the time taken to build the segment.
+  COMMITTING_SEGMENT_INGESTION_RATE_WITH_TOPIC("committingSegmentIngestionRateWithTopic", false),
+  COMMITTING_SEGMENT_MEMORY_USED_WITH_TOPIC("committingSegmentMemoryUsedWithTopic", false),
+  COMMITTING_SEGMENT_BUILD_TIME_MS_WITH_TOPIC("committingSegmentBuildTimeMsWithTopic", false),
+
   TABLE_REBALANCE_IN_PROGRESS("tableRebalanceInProgress", false),
 
   TABLE_REBALANCE_IN_PROGRESS_GLOBAL("jobs", true),
@@ -70,6 +70,9 @@ public enum ControllerMeter implements AbstractMetrics.Meter {
   IDEAL_STATE_UPDATE_RETRY("IdealStateUpdateRetry", false),
   IDEAL_STATE_UPDATE_SUCCESS("IdealStateUpdateSuccess", false),
   SEGMENT_SIZE_AUTO_REDUCTION("SegmentSizeAutoReduction", false),
+  // Number of rows threshold decisions for new consuming segments, keyed by the reason of the decision (e.g. segment
+  // size, time threshold, memory limit, build time limit)
+  NUM_ROWS_THRESHOLD_DECISION("NumRowsThresholdDecision", false),
   // Total Bytes read from deep store
   DEEP_STORE_READ_BYTES_COMPLETED("deepStoreReadBytesCompleted", true),
   // Total Bytes written to deep store
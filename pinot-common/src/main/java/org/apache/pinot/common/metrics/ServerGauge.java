@@ -43,8 +43,13 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true),
   // Gauge to reflect whether pauseless is enabled or not
   PAUSELESS_CONSUMPTION_ENABLED("pauselessConsumptionEnabled", false),
+  // Number of messages of the current batch not yet handed to the indexer when decoding is pipelined
+  REALTIME_DECODE_QUEUE_DEPTH("messages", false),
   // Upsert metrics
   UPSERT_PRIMARY_KEYS_COUNT("upsertPrimaryKeysCount", false),
+  // Progress and throughput of the parallel bootstrap of the upsert metadata when the server starts
+  UPSERT_BOOTSTRAP_PROGRESS_PERCENT("percent", false),
+  UPSERT_BOOTSTRAP_DOCS_PER_SECOND("docs", false),
   // Dedup metrics
   DEDUP_PRIMARY_KEYS_COUNT("dedupPrimaryKeysCount", false),
   CONSUMPTION_QUOTA_UTILIZATION("ratio", false),
@@ -121,6 +126,15 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   MAILBOX_SERVER_THREADLOCALCACHE("bytes", true),
   MAILBOX_SERVER_CHUNK_SIZE("bytes", true),
 
+  // Estimated size of the segment results cache
+  SEGMENT_RESULTS_CACHE_SIZE_BYTES("bytes", true),
+
+  // Multi-stage opchains registered in the scheduler and not finished yet
+  MULTI_STAGE_REGISTERED_OPCHAINS("opchains", true),
+  // Multi-stage mailbox consumers (across all the opchains) blocked while waiting for data from their receiving
+  // mailboxes
+  MULTI_STAGE_BLOCKED_MAILBOX_CONSUMERS("consumers", true),
+
   // how many message are there in the server's message queue in helix
   HELIX_MESSAGES_COUNT("count", true),
   STARTUP_STATUS_CHECK_IN_PROGRESS("state", true,
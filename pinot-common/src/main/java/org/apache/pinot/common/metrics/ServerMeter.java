@@ -150,6 +150,10 @@ public enum ServerMeter implements AbstractMetrics.Meter {
    * But if a single query has 2 different join operators and each one reaches the limit, this will be increased by 2.
    */
   HASH_JOIN_TIMES_MAX_ROWS_REACHED("times", true),
+  /**
+   * Number of bytes spilled to disk by hash join operators whose right table exceeded the spill threshold.
+   */
+  HASH_JOIN_SPILLED_BYTES("bytes", true),
   /**
    * Number of times group by results were trimmed.
    * It is increased in one by each worker that reaches the limit within the stage.
@@ -206,6 +210,11 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   PREDOWNLOAD_SUCCEED("predownloadSucceed", true),
   PREDOWNLOAD_FAILED("predownloadFailed", true),
 
+  // Segment results cache metrics
+  SEGMENT_RESULTS_CACHE_HITS("segments", true),
+  SEGMENT_RESULTS_CACHE_MISSES("segments", true),
+  SEGMENT_RESULTS_CACHE_EVICTIONS("entries", true),
+
   // reingestion metrics
   SEGMENT_REINGESTION_FAILURE("segments", false),
 
@@ -69,6 +69,15 @@ public enum ServerTimer implements AbstractMetrics.Timer {
   PREV_SEGMENT_WAIT_TIME_MS("milliseconds", false,
       "Time spent while waiting on previous segment to be registered."),
 
+  REALTIME_DECODE_TRANSFORM_TIME_MS("milliseconds", false,
+      "Time spent decoding and transforming a chunk of stream messages when decoding is pipelined."),
+  REALTIME_DECODE_WAIT_TIME_MS("milliseconds", false,
+      "Time the partition consumer thread spent waiting for decoded messages when decoding is pipelined."),
+  REALTIME_INDEX_TIME_MS("milliseconds", false,
+      "Time spent indexing a batch of decoded messages when decoding is pipelined."),
+  REALTIME_SEGMENT_INDEX_BUILD_TIME_MS("milliseconds", false,
+      "Time spent building each index type when converting a consuming segment into an immutable segment."),
+
   // Multi-stage
   /**
    * Time spent building the hash table for the join.
@@ -97,6 +106,11 @@ public enum ServerTimer implements AbstractMetrics.Timer {
    * reading from. This is the sum of all time waiting.
    */
   RECEIVE_UPSTREAM_WAIT_CPU_TIME_MS("millis", true),
+  /**
+   * Time between the registration of a multi-stage opchain and the start of its execution, which grows when the
+   * executor runs out of threads.
+   */
+  MULTI_STAGE_OPCHAIN_SCHEDULING_DELAY_MS("millis", true),
   // How long it took the server to start.
   STARTUP_SUCCESS_DURATION_MS("millis", true),
   STARTUP_FAILURE_DURATION_MS("millis", true),
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils;
+
+import com.google.auto.service.AutoService;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.apache.pinot.spi.executor.ExecutorServicePlugin;
+import org.apache.pinot.spi.executor.ExecutorServiceProvider;
+
+
+/**
+ * This is the plugin for the virtual thread executor service.
+ *
+ * The provider included in this plugin creates an executor that starts a new virtual thread for each task, so the
+ * number of concurrent tasks is not bounded by a thread pool. It is recommended for tasks that spend most of their
+ * time blocked waiting for data (e.g. multi-stage opchains waiting on their mailboxes), as a blocked virtual thread
+ * releases its carrier thread. The number of carrier threads defaults to the number of available processors and can be
+ * changed with the {@code jdk.virtualThreadScheduler.parallelism} system property.
+ *
+ * Virtual threads require Java 21 or above. As Pinot is compiled for an older Java version, the virtual thread APIs
+ * are accessed through reflection, and creating the executor fails on older Java versions.
+ *
+ * @see org.apache.pinot.spi.executor.ExecutorServiceUtils
+ */
+@AutoService(ExecutorServicePlugin.class)
+public class VirtualExecutorServicePlugin implements ExecutorServicePlugin {
+  @Override
+  public String id() {
+    return "virtual";
+  }
+
+  @Override
+  public ExecutorServiceProvider provider() {
+    return (conf, confPrefix, baseName) -> newVirtualThreadPerTaskExecutor(baseName);
+  }
+
+  /**
+   * Returns an executor which starts a new virtual thread named {@code <baseName>-<N>} for each task.
+   *
+   * @throws IllegalStateException if virtual threads are not supported by the running JVM
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor(String baseName) {
+    try {
+      // Equivalent to: Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(baseName + "-", 0).factory())
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      builder = ofVirtualClass.getMethod("name", String.class, long.class).invoke(builder, baseName + "-", 0L);
+      ThreadFactory threadFactory =
+          (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+      Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(
+          "Virtual threads are not supported by Java version: " + System.getProperty("java.version"), e);
+    }
+  }
+}
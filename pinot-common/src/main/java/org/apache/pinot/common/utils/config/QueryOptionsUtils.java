@@ -134,6 +134,10 @@ public class QueryOptionsUtils {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.AND_SCAN_REORDERING));
   }
 
+  public static boolean isAdaptiveFilterReorder(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ADAPTIVE_FILTER_REORDER));
+  }
+
   public static boolean isSkipUpsert(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_UPSERT));
   }
@@ -151,6 +155,20 @@ public class QueryOptionsUtils {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SCAN_STAR_TREE_NODES));
   }
 
+  public static boolean isSkipSegmentResultsCache(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_SEGMENT_RESULTS_CACHE));
+  }
+
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_RESULT_CACHE));
+  }
+
+  @Nullable
+  public static Long getResultCacheMaxStalenessMs(Map<String, String> queryOptions) {
+    String maxStalenessMsString = queryOptions.get(QueryOptionKey.RESULT_CACHE_MAX_STALENESS_MS);
+    return checkedParseLong(QueryOptionKey.RESULT_CACHE_MAX_STALENESS_MS, maxStalenessMsString, 0);
+  }
+
   public static boolean isSkipStarTree(Map<String, String> queryOptions) {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_STAR_TREE));
   }
@@ -407,6 +425,22 @@ public class QueryOptionsUtils {
     return joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
   }
 
+  @Nullable
+  public static Long getJoinSpillThresholdBytes(Map<String, String> queryOptions) {
+    String joinSpillThresholdBytes = queryOptions.get(QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES);
+    return checkedParseLongPositive(QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES, joinSpillThresholdBytes);
+  }
+
+  @Nullable
+  public static Long getSortSpillThresholdBytes(Map<String, String> queryOptions) {
+    String sortSpillThresholdBytes = queryOptions.get(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES);
+    return checkedParseLongPositive(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, sortSpillThresholdBytes);
+  }
+
+  public static boolean isUseColumnarDataBlocks(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.USE_COLUMNAR_DATA_BLOCKS));
+  }
+
   @Nullable
   public static Integer getMaxRowsInWindow(Map<String, String> queryOptions) {
     String maxRowsInWindow = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_WINDOW);
@@ -50,14 +50,15 @@ public abstract class ServerPrometheusMetricsTest extends PinotPrometheusMetrics
           ServerGauge.LAST_REALTIME_SEGMENT_CREATION_WAIT_TIME_SECONDS,
           ServerGauge.LAST_REALTIME_SEGMENT_INITIAL_CONSUMPTION_DURATION_SECONDS,
           ServerGauge.LAST_REALTIME_SEGMENT_CATCHUP_DURATION_SECONDS,
-          ServerGauge.LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS);
+          ServerGauge.LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS, ServerGauge.REALTIME_DECODE_QUEUE_DEPTH);
 
   private static final List<ServerGauge> GAUGES_ACCEPTING_PARTITION =
       List.of(ServerGauge.UPSERT_VALID_DOC_ID_SNAPSHOT_COUNT, ServerGauge.UPSERT_PRIMARY_KEYS_IN_SNAPSHOT_COUNT,
           ServerGauge.REALTIME_INGESTION_OFFSET_LAG, ServerGauge.REALTIME_INGESTION_DELAY_MS,
           ServerGauge.UPSERT_PRIMARY_KEYS_COUNT, ServerGauge.END_TO_END_REALTIME_INGESTION_DELAY_MS,
           ServerGauge.DEDUP_PRIMARY_KEYS_COUNT, ServerGauge.REALTIME_INGESTION_UPSTREAM_OFFSET,
-          ServerGauge.REALTIME_INGESTION_CONSUMING_OFFSET);
+          ServerGauge.REALTIME_INGESTION_CONSUMING_OFFSET, ServerGauge.UPSERT_BOOTSTRAP_PROGRESS_PERCENT,
+          ServerGauge.UPSERT_BOOTSTRAP_DOCS_PER_SECOND);
 
   private static final List<ServerGauge> GAUGES_ACCEPTING_RAW_TABLE_NAME =
       List.of(ServerGauge.REALTIME_OFFHEAP_MEMORY_USED, ServerGauge.REALTIME_SEGMENT_NUM_PARTITIONS,
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class VirtualExecutorServicePluginTest {
+
+  @Test
+  public void testBlockedTasksDoNotBoundConcurrency()
+      throws Exception {
+    if (Runtime.version().feature() < 21) {
+      expectThrows(IllegalStateException.class,
+          () -> new VirtualExecutorServicePlugin().provider().create(new PinotConfiguration(), "prefix", "test"));
+      throw new SkipException("Virtual threads require Java 21 or above");
+    }
+    ExecutorService executorService =
+        new VirtualExecutorServicePlugin().provider().create(new PinotConfiguration(), "prefix", "test");
+    try {
+      // Many more blocked tasks than carrier threads should all be running at the same time
+      int numTasks = Runtime.getRuntime().availableProcessors() * 100;
+      CountDownLatch started = new CountDownLatch(numTasks);
+      CountDownLatch release = new CountDownLatch(1);
+      for (int i = 0; i < numTasks; i++) {
+        executorService.submit(() -> {
+          assertTrue(Thread.currentThread().getName().startsWith("test-"));
+          started.countDown();
+          release.await();
+          return null;
+        });
+      }
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      assertEquals(started.getCount(), 0);
+      release.countDown();
+    } finally {
+      executorService.shutdown();
+      assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testThreadResourceUsageOnVirtualThreads()
+      throws Exception {
+    if (Runtime.version().feature() < 21) {
+      assertFalse(ThreadResourceUsageProvider.isCurrentThreadVirtual());
+      throw new SkipException("Virtual threads require Java 21 or above");
+    }
+    boolean cpuTimeMeasurementEnabled = ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled();
+    boolean memoryMeasurementEnabled = ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled();
+    ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(true);
+    ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(true);
+    ExecutorService executorService =
+        new VirtualExecutorServicePlugin().provider().create(new PinotConfiguration(), "prefix", "test");
+    try {
+      assertFalse(ThreadResourceUsageProvider.isCurrentThreadVirtual());
+      // The JVM does not measure the resource usage of virtual threads, which should be reported as 0 instead of -1
+      executorService.submit(() -> {
+        assertTrue(ThreadResourceUsageProvider.isCurrentThreadVirtual());
+        assertEquals(ThreadResourceUsageProvider.getCurrentThreadCpuTime(), 0);
+        assertEquals(ThreadResourceUsageProvider.getCurrentThreadAllocatedBytes(), 0);
+        return null;
+      }).get(10, TimeUnit.SECONDS);
+    } finally {
+      executorService.shutdown();
+      ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(cpuTimeMeasurementEnabled);
+      ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(memoryMeasurementEnabled);
+    }
+  }
+}
@@ -32,6 +32,8 @@ public class CommittingSegmentDescriptor {
   private String _nextOffset;
   private SegmentMetadataImpl _segmentMetadata;
   private String _stopReason;
+  private long _buildTimeMillis = -1;
+  private long _memoryUsedBytes = -1;
 
   public static CommittingSegmentDescriptor fromSegmentCompletionReqParams(
       SegmentCompletionProtocol.Request.Params reqParams) {
@@ -40,6 +42,8 @@ public class CommittingSegmentDescriptor {
             reqParams.getSegmentSizeBytes());
     committingSegmentDescriptor.setSegmentLocation(reqParams.getSegmentLocation());
     committingSegmentDescriptor.setStopReason(reqParams.getReason());
+    committingSegmentDescriptor.setBuildTimeMillis(reqParams.getBuildTimeMillis());
+    committingSegmentDescriptor.setMemoryUsedBytes(reqParams.getMemoryUsedBytes());
     return committingSegmentDescriptor;
   }
 
@@ -105,4 +109,26 @@ public class CommittingSegmentDescriptor {
   public void setStopReason(String stopReason) {
     _stopReason = stopReason;
   }
+
+  /**
+   * Returns the time (in milliseconds) taken by the server to build the committing segment, or -1 if not available.
+   */
+  public long getBuildTimeMillis() {
+    return _buildTimeMillis;
+  }
+
+  public void setBuildTimeMillis(long buildTimeMillis) {
+    _buildTimeMillis = buildTimeMillis;
+  }
+
+  /**
+   * Returns the off-heap memory (in bytes) used by the committing segment while consuming, or -1 if not available.
+   */
+  public long getMemoryUsedBytes() {
+    return _memoryUsedBytes;
+  }
+
+  public void setMemoryUsedBytes(long memoryUsedBytes) {
+    _memoryUsedBytes = memoryUsedBytes;
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.pinot.controller.helix.core.realtime.segment;
 
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.common.metrics.ControllerGauge;
+import org.apache.pinot.common.metrics.ControllerMeter;
 import org.apache.pinot.common.metrics.ControllerMetrics;
 import org.apache.pinot.spi.stream.StreamConfig;
 
@@ -31,6 +32,10 @@ import org.apache.pinot.spi.stream.StreamConfig;
  * targetNumRows = ideal_segment_size * (a * current_rows_to_size_ratio + b * previous_rows_to_size_ratio)
  * where a = 0.1, b = 0.9, prev ratio= ratio collected over all previous segment completions
  * This ensures that we take into account the history of the segment size and number rows
+ * When the max memory or max build time is configured, the target number of rows is capped based on the rows to
+ * memory and rows to build time ratios reported by the servers on segment commit. When the min segment time is
+ * configured, the target number of rows is raised to cover it at the observed ingestion rate, which bounds the
+ * per-segment query overhead. The inputs and the reason of each decision are exported as metrics.
  */
 public class SegmentSizeBasedFlushThresholdUpdater implements FlushThresholdUpdater {
   private final SizeBasedSegmentFlushThresholdComputer _flushThresholdComputer;
@@ -54,16 +59,34 @@ public class SegmentSizeBasedFlushThresholdUpdater implements FlushThresholdUpda
         ControllerGauge.COMMITTING_SEGMENT_SIZE_WITH_TOPIC, segmentSize);
 
     _flushThresholdComputer.onSegmentCommit(committingSegmentDescriptor, committingSegmentZKMetadata);
+
+    _controllerMetrics.setOrUpdateTableGauge(_realtimeTableName, _topicName,
+        ControllerGauge.COMMITTING_SEGMENT_INGESTION_RATE_WITH_TOPIC,
+        (long) _flushThresholdComputer.getIngestionRateForLastSegment());
+    long memoryUsedBytes = committingSegmentDescriptor.getMemoryUsedBytes();
+    if (memoryUsedBytes > 0) {
+      _controllerMetrics.setOrUpdateTableGauge(_realtimeTableName, _topicName,
+          ControllerGauge.COMMITTING_SEGMENT_MEMORY_USED_WITH_TOPIC, memoryUsedBytes);
+    }
+    long buildTimeMs = committingSegmentDescriptor.getBuildTimeMillis();
+    if (buildTimeMs > 0) {
+      _controllerMetrics.setOrUpdateTableGauge(_realtimeTableName, _topicName,
+          ControllerGauge.COMMITTING_SEGMENT_BUILD_TIME_MS_WITH_TOPIC, buildTimeMs);
+    }
   }
 
   @Override
   public void updateFlushThreshold(StreamConfig streamConfig, SegmentZKMetadata newSegmentZKMetadata,
       int maxNumPartitionsPerInstance) {
-    int threshold = _flushThresholdComputer.computeThreshold(streamConfig, newSegmentZKMetadata.getSegmentName());
+    SizeBasedSegmentFlushThresholdComputer.ThresholdDecision decision =
+        _flushThresholdComputer.computeThresholdDecision(streamConfig, newSegmentZKMetadata.getSegmentName());
+    int threshold = decision.getThreshold();
     newSegmentZKMetadata.setSizeThresholdToFlushSegment(threshold);
 
     _controllerMetrics.setOrUpdateTableGauge(_realtimeTableName, ControllerGauge.NUM_ROWS_THRESHOLD, threshold);
     _controllerMetrics.setOrUpdateTableGauge(_realtimeTableName, _topicName,
         ControllerGauge.NUM_ROWS_THRESHOLD_WITH_TOPIC, threshold);
+    _controllerMetrics.addMeteredTableValue(_realtimeTableName, decision.getReason().name(),
+        ControllerMeter.NUM_ROWS_THRESHOLD_DECISION, 1L);
   }
 }
@@ -48,6 +48,11 @@ class SizeBasedSegmentFlushThresholdComputer {
   private long _sizeForLastSegment;
   private int _rowsThresholdForLastSegment;
   private double _segmentRowsToSizeRatio;
+  // Ratios of the rows consumed to the off-heap memory used while consuming, and to the time taken to build the
+  // segment, used to cap the rows threshold when the max memory or max build time is configured
+  private double _segmentRowsToMemoryRatio;
+  private double _segmentRowsToBuildTimeRatio;
+  private double _ingestionRateForLastSegment;
 
   SizeBasedSegmentFlushThresholdComputer() {
     this(Clock.systemUTC());
@@ -73,6 +78,23 @@ class SizeBasedSegmentFlushThresholdComputer {
     return _segmentRowsToSizeRatio;
   }
 
+  @VisibleForTesting
+  synchronized double getSegmentRowsToMemoryRatio() {
+    return _segmentRowsToMemoryRatio;
+  }
+
+  @VisibleForTesting
+  synchronized double getSegmentRowsToBuildTimeRatio() {
+    return _segmentRowsToBuildTimeRatio;
+  }
+
+  /**
+   * Returns the ingestion rate (rows per second) of the last committed segment, or 0 if not available.
+   */
+  synchronized double getIngestionRateForLastSegment() {
+    return _ingestionRateForLastSegment;
+  }
+
   synchronized void onSegmentCommit(CommittingSegmentDescriptor committingSegmentDescriptor,
       SegmentZKMetadata committingSegmentZKMetadata) {
     String segmentName = committingSegmentZKMetadata.getSegmentName();
@@ -103,31 +125,55 @@ class SizeBasedSegmentFlushThresholdComputer {
     _rowsConsumedForLastSegment = rowsConsumed;
     _sizeForLastSegment = sizeInBytes;
     _rowsThresholdForLastSegment = rowsThreshold;
+    _ingestionRateForLastSegment = timeConsumed > 0 ? rowsConsumed * 1000.0 / timeConsumed : 0;
     double segmentRatio = (double) rowsConsumed / sizeInBytes;
     double currentRatio = _segmentRowsToSizeRatio;
-    if (currentRatio > 0) {
-      _segmentRowsToSizeRatio =
-          CURRENT_SEGMENT_RATIO_WEIGHT * segmentRatio + PREVIOUS_SEGMENT_RATIO_WEIGHT * currentRatio;
-    } else {
-      _segmentRowsToSizeRatio = segmentRatio;
-    }
+    _segmentRowsToSizeRatio = updateRatio(currentRatio, segmentRatio);
     LOGGER.info("Updated with segment: {}, time: {}, rows: {}, size: {}, ratio: {}, threshold: {}. "
             + "Segment rows to size ratio got updated from: {} to: {}", segmentName,
         TimeUtils.convertMillisToPeriod(timeConsumed), rowsConsumed, sizeInBytes, segmentRatio, rowsThreshold,
         currentRatio, _segmentRowsToSizeRatio);
+
+    // Memory used and build time are reported by the server on segment commit, and might not be available
+    long memoryUsedBytes = committingSegmentDescriptor.getMemoryUsedBytes();
+    if (memoryUsedBytes > 0) {
+      _segmentRowsToMemoryRatio = updateRatio(_segmentRowsToMemoryRatio, (double) rowsConsumed / memoryUsedBytes);
+    }
+    long buildTimeMs = committingSegmentDescriptor.getBuildTimeMillis();
+    if (buildTimeMs > 0) {
+      _segmentRowsToBuildTimeRatio = updateRatio(_segmentRowsToBuildTimeRatio, (double) rowsConsumed / buildTimeMs);
+    }
+    LOGGER.info("Updated with segment: {}, memory used: {}, build time: {}, ingestion rate: {} rows/s. Segment rows to "
+            + "memory ratio: {}, segment rows to build time ratio: {}", segmentName, memoryUsedBytes, buildTimeMs,
+        _ingestionRateForLastSegment, _segmentRowsToMemoryRatio, _segmentRowsToBuildTimeRatio);
+  }
+
+  private static double updateRatio(double currentRatio, double segmentRatio) {
+    if (currentRatio > 0) {
+      return CURRENT_SEGMENT_RATIO_WEIGHT * segmentRatio + PREVIOUS_SEGMENT_RATIO_WEIGHT * currentRatio;
+    } else {
+      return segmentRatio;
+    }
   }
 
   synchronized int computeThreshold(StreamConfig streamConfig, String segmentName) {
+    return computeThresholdDecision(streamConfig, segmentName).getThreshold();
+  }
+
+  /**
+   * Computes the rows threshold for the new consuming segment, along with the reason of the decision.
+   */
+  synchronized ThresholdDecision computeThresholdDecision(StreamConfig streamConfig, String segmentName) {
     if (_segmentRowsToSizeRatio == 0) {
       if (_rowsThresholdForLastSegment > 0) {
         LOGGER.info("Segment rows to size ratio is not available, using rows threshold: {} from previous segment for "
             + "new segment: {}", _rowsThresholdForLastSegment, segmentName);
-        return _rowsThresholdForLastSegment;
+        return new ThresholdDecision(_rowsThresholdForLastSegment, DecisionReason.PREVIOUS_THRESHOLD);
       } else {
         int initialRows = streamConfig.getFlushAutotuneInitialRows();
         LOGGER.info("This is the first segment, using initial rows threshold: {} for segment: {}", initialRows,
             segmentName);
-        return initialRows;
+        return new ThresholdDecision(initialRows, DecisionReason.INITIAL_ROWS);
       }
     }
 
@@ -161,13 +207,14 @@ class SizeBasedSegmentFlushThresholdComputer {
         logStringBuilder.append("Detected lower time threshold, adjusting numRowsConsumed to: ").append(rowsConsumed)
             .append(". ");
       }
-      int threshold = getThreshold((long) (rowsConsumed * ROWS_MULTIPLIER_WHEN_TIME_THRESHOLD_HIT));
+      ThresholdDecision decision = applyLimits(streamConfig, segmentName,
+          (long) (rowsConsumed * ROWS_MULTIPLIER_WHEN_TIME_THRESHOLD_HIT), DecisionReason.TIME_THRESHOLD);
       logStringBuilder.append("Setting segment size threshold for: ")
           .append(segmentName)
           .append(" to: ")
-          .append(threshold);
+          .append(decision.getThreshold());
       LOGGER.info(logStringBuilder.toString());
-      return threshold;
+      return decision;
     }
 
     long optimalSegmentSizeBytesMin = desiredSegmentSizeBytes / 2;
@@ -186,9 +233,57 @@ class SizeBasedSegmentFlushThresholdComputer {
       double variation = (1 - variance) + 2 * variance * RANDOM.nextDouble();
       targetRows = (long) (targetRows * variation);
     }
-    int threshold = getThreshold(targetRows);
-    LOGGER.info("Setting segment size threshold for: {} to: {}", segmentName, threshold);
-    return threshold;
+    ThresholdDecision decision = applyLimits(streamConfig, segmentName, targetRows, DecisionReason.SEGMENT_SIZE);
+    LOGGER.info("Setting segment size threshold for: {} to: {} ({})", segmentName, decision.getThreshold(),
+        decision.getReason());
+    return decision;
+  }
+
+  /**
+   * Adjusts the target rows with the configured limits:
+   * <ul>
+   *   <li>Raises the target rows to at least the rows ingested in the configured min segment time at the ingestion
+   *   rate of the previous segment, which bounds the number of segments per partition and thus the per-segment query
+   *   overhead</li>
+   *   <li>Caps the target rows so that the new consuming segment does not exceed the configured max off-heap memory
+   *   and max build time, based on the rows to memory and rows to build time ratios observed on the previous
+   *   segments. The caps take precedence over the min segment time.</li>
+   * </ul>
+   * The minimum rows threshold always applies.
+   */
+  private ThresholdDecision applyLimits(StreamConfig streamConfig, String segmentName, long targetRows,
+      DecisionReason reason) {
+    long minSegmentTimeMs = streamConfig.getFlushAutotuneMinSegmentTimeMillis();
+    if (minSegmentTimeMs > 0 && _ingestionRateForLastSegment > 0) {
+      long minRows = (long) (_ingestionRateForLastSegment * minSegmentTimeMs / 1000);
+      if (targetRows < minRows) {
+        LOGGER.info("Raising target rows: {} to: {} for segment: {} to cover min segment time: {}ms at ingestion rate: "
+            + "{} rows/s", targetRows, minRows, segmentName, minSegmentTimeMs, _ingestionRateForLastSegment);
+        targetRows = minRows;
+        reason = DecisionReason.MIN_SEGMENT_TIME;
+      }
+    }
+    long maxMemoryBytes = streamConfig.getFlushAutotuneMaxMemoryBytes();
+    if (maxMemoryBytes > 0 && _segmentRowsToMemoryRatio > 0) {
+      long maxRows = (long) (maxMemoryBytes * _segmentRowsToMemoryRatio);
+      if (targetRows > maxRows) {
+        LOGGER.info("Capping target rows: {} to: {} for segment: {} to fit max memory: {} bytes", targetRows, maxRows,
+            segmentName, maxMemoryBytes);
+        targetRows = maxRows;
+        reason = DecisionReason.MEMORY_LIMIT;
+      }
+    }
+    long maxBuildTimeMs = streamConfig.getFlushAutotuneMaxBuildTimeMillis();
+    if (maxBuildTimeMs > 0 && _segmentRowsToBuildTimeRatio > 0) {
+      long maxRows = (long) (maxBuildTimeMs * _segmentRowsToBuildTimeRatio);
+      if (targetRows > maxRows) {
+        LOGGER.info("Capping target rows: {} to: {} for segment: {} to fit max build time: {}ms", targetRows, maxRows,
+            segmentName, maxBuildTimeMs);
+        targetRows = maxRows;
+        reason = DecisionReason.BUILD_TIME_LIMIT;
+      }
+    }
+    return new ThresholdDecision(getThreshold(targetRows), reason);
   }
 
   private int getThreshold(long targetRows) {
@@ -200,4 +295,42 @@ class SizeBasedSegmentFlushThresholdComputer {
     }
     return Math.max((int) targetRows, MINIMUM_NUM_ROWS_THRESHOLD);
   }
+
+  /**
+   * What drove the rows threshold of a new consuming segment.
+   */
+  enum DecisionReason {
+    // No previous segment, use the initial rows
+    INITIAL_ROWS,
+    // Segment rows to size ratio not available yet, use the threshold of the previous segment
+    PREVIOUS_THRESHOLD,
+    // Previous segment hit the time threshold, bump the rows consumed
+    TIME_THRESHOLD,
+    // Target the desired segment size
+    SEGMENT_SIZE,
+    // Raised to cover the min segment time at the observed ingestion rate, to bound the per-segment query overhead
+    MIN_SEGMENT_TIME,
+    // Capped by the max off-heap memory
+    MEMORY_LIMIT,
+    // Capped by the max segment build time
+    BUILD_TIME_LIMIT
+  }
+
+  static class ThresholdDecision {
+    private final int _threshold;
+    private final DecisionReason _reason;
+
+    ThresholdDecision(int threshold, DecisionReason reason) {
+      _threshold = threshold;
+      _reason = reason;
+    }
+
+    int getThreshold() {
+      return _threshold;
+    }
+
+    DecisionReason getReason() {
+      return _reason;
+    }
+  }
 }
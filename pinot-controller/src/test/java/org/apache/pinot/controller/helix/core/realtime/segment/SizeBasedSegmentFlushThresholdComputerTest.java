@@ -248,6 +248,127 @@ public class SizeBasedSegmentFlushThresholdComputerTest {
     assertEquals(threshold, 36_000);
   }
 
+  @Test
+  public void testSegmentSizeCappedByMaxMemory() {
+    SizeBasedSegmentFlushThresholdComputer computer = new SizeBasedSegmentFlushThresholdComputer();
+
+    StreamConfig streamConfig = mock(StreamConfig.class);
+    when(streamConfig.getFlushThresholdSegmentSizeBytes()).thenReturn(300_0000L);
+    when(streamConfig.getFlushAutotuneMaxMemoryBytes()).thenReturn(100_000L);
+
+    CommittingSegmentDescriptor committingSegmentDescriptor = mock(CommittingSegmentDescriptor.class);
+    when(committingSegmentDescriptor.getSegmentSizeBytes()).thenReturn(250_0000L);
+    when(committingSegmentDescriptor.getMemoryUsedBytes()).thenReturn(150_000L);
+    when(committingSegmentDescriptor.getBuildTimeMillis()).thenReturn(-1L);
+
+    SegmentZKMetadata committingSegmentZKMetadata = mock(SegmentZKMetadata.class);
+    when(committingSegmentZKMetadata.getTotalDocs()).thenReturn(30_000L);
+    when(committingSegmentZKMetadata.getSizeThresholdToFlushSegment()).thenReturn(20_000);
+
+    computer.onSegmentCommit(committingSegmentDescriptor, committingSegmentZKMetadata);
+    assertEquals(computer.getSegmentRowsToMemoryRatio(), 0.2);
+    assertEquals(computer.getSegmentRowsToBuildTimeRatio(), 0.0);
+    SizeBasedSegmentFlushThresholdComputer.ThresholdDecision decision =
+        computer.computeThresholdDecision(streamConfig, "newSegmentName");
+
+    // Size based target is 36000 rows, capped by maxMemory * (totalDocs / memoryUsed)
+    // 100000 * (30000 / 150000)
+    assertEquals(decision.getThreshold(), 20_000);
+    assertEquals(decision.getReason(), SizeBasedSegmentFlushThresholdComputer.DecisionReason.MEMORY_LIMIT);
+  }
+
+  @Test
+  public void testSegmentSizeCappedByMaxBuildTime() {
+    SizeBasedSegmentFlushThresholdComputer computer = new SizeBasedSegmentFlushThresholdComputer();
+
+    StreamConfig streamConfig = mock(StreamConfig.class);
+    when(streamConfig.getFlushThresholdSegmentSizeBytes()).thenReturn(300_0000L);
+    when(streamConfig.getFlushAutotuneMaxMemoryBytes()).thenReturn(1_000_000L);
+    when(streamConfig.getFlushAutotuneMaxBuildTimeMillis()).thenReturn(5_000L);
+
+    CommittingSegmentDescriptor committingSegmentDescriptor = mock(CommittingSegmentDescriptor.class);
+    when(committingSegmentDescriptor.getSegmentSizeBytes()).thenReturn(250_0000L);
+    when(committingSegmentDescriptor.getMemoryUsedBytes()).thenReturn(150_000L);
+    when(committingSegmentDescriptor.getBuildTimeMillis()).thenReturn(6_000L);
+
+    SegmentZKMetadata committingSegmentZKMetadata = mock(SegmentZKMetadata.class);
+    when(committingSegmentZKMetadata.getTotalDocs()).thenReturn(30_000L);
+    when(committingSegmentZKMetadata.getSizeThresholdToFlushSegment()).thenReturn(20_000);
+
+    computer.onSegmentCommit(committingSegmentDescriptor, committingSegmentZKMetadata);
+    SizeBasedSegmentFlushThresholdComputer.ThresholdDecision decision =
+        computer.computeThresholdDecision(streamConfig, "newSegmentName");
+
+    // Size based target is 36000 rows, not capped by max memory (200000 rows), but capped by
+    // maxBuildTime * (totalDocs / buildTime)
+    // 5000 * (30000 / 6000)
+    assertEquals(decision.getThreshold(), 25_000);
+    assertEquals(decision.getReason(), SizeBasedSegmentFlushThresholdComputer.DecisionReason.BUILD_TIME_LIMIT);
+  }
+
+  @Test
+  public void testSegmentSizeNotCappedWhenWithinLimits() {
+    SizeBasedSegmentFlushThresholdComputer computer = new SizeBasedSegmentFlushThresholdComputer();
+
+    StreamConfig streamConfig = mock(StreamConfig.class);
+    when(streamConfig.getFlushThresholdSegmentSizeBytes()).thenReturn(300_0000L);
+    when(streamConfig.getFlushAutotuneMaxMemoryBytes()).thenReturn(1_000_000L);
+    when(streamConfig.getFlushAutotuneMaxBuildTimeMillis()).thenReturn(60_000L);
+
+    CommittingSegmentDescriptor committingSegmentDescriptor = mock(CommittingSegmentDescriptor.class);
+    when(committingSegmentDescriptor.getSegmentSizeBytes()).thenReturn(250_0000L);
+    when(committingSegmentDescriptor.getMemoryUsedBytes()).thenReturn(150_000L);
+    when(committingSegmentDescriptor.getBuildTimeMillis()).thenReturn(6_000L);
+
+    SegmentZKMetadata committingSegmentZKMetadata = mock(SegmentZKMetadata.class);
+    when(committingSegmentZKMetadata.getTotalDocs()).thenReturn(30_000L);
+    when(committingSegmentZKMetadata.getSizeThresholdToFlushSegment()).thenReturn(20_000);
+
+    computer.onSegmentCommit(committingSegmentDescriptor, committingSegmentZKMetadata);
+    SizeBasedSegmentFlushThresholdComputer.ThresholdDecision decision =
+        computer.computeThresholdDecision(streamConfig, "newSegmentName");
+
+    assertEquals(decision.getThreshold(), 36_000);
+    assertEquals(decision.getReason(), SizeBasedSegmentFlushThresholdComputer.DecisionReason.SEGMENT_SIZE);
+  }
+
+  @Test
+  public void testSegmentSizeRaisedByMinSegmentTime() {
+    long currentTime = 1640216032391L;
+    Clock clock = Clock.fixed(java.time.Instant.ofEpochMilli(currentTime), ZoneId.of("UTC"));
+    SizeBasedSegmentFlushThresholdComputer computer = new SizeBasedSegmentFlushThresholdComputer(clock);
+
+    StreamConfig streamConfig = mock(StreamConfig.class);
+    when(streamConfig.getFlushThresholdSegmentSizeBytes()).thenReturn(300_0000L);
+    when(streamConfig.getFlushAutotuneMinSegmentTimeMillis()).thenReturn(TimeUnit.MINUTES.toMillis(2));
+
+    CommittingSegmentDescriptor committingSegmentDescriptor = mock(CommittingSegmentDescriptor.class);
+    when(committingSegmentDescriptor.getSegmentSizeBytes()).thenReturn(250_0000L);
+    when(committingSegmentDescriptor.getMemoryUsedBytes()).thenReturn(150_000L);
+
+    // 30000 rows consumed in 1 minute, i.e. 500 rows/s
+    SegmentZKMetadata committingSegmentZKMetadata = mock(SegmentZKMetadata.class);
+    when(committingSegmentZKMetadata.getTotalDocs()).thenReturn(30_000L);
+    when(committingSegmentZKMetadata.getSizeThresholdToFlushSegment()).thenReturn(20_000);
+    when(committingSegmentZKMetadata.getCreationTime()).thenReturn(currentTime - TimeUnit.MINUTES.toMillis(1));
+
+    computer.onSegmentCommit(committingSegmentDescriptor, committingSegmentZKMetadata);
+    assertEquals(computer.getIngestionRateForLastSegment(), 500.0);
+    SizeBasedSegmentFlushThresholdComputer.ThresholdDecision decision =
+        computer.computeThresholdDecision(streamConfig, "newSegmentName");
+
+    // Size based target is 36000 rows, raised to cover 2 minutes at 500 rows/s
+    assertEquals(decision.getThreshold(), 60_000);
+    assertEquals(decision.getReason(), SizeBasedSegmentFlushThresholdComputer.DecisionReason.MIN_SEGMENT_TIME);
+
+    // Max memory takes precedence over the min segment time
+    // 100000 * (30000 / 150000)
+    when(streamConfig.getFlushAutotuneMaxMemoryBytes()).thenReturn(100_000L);
+    decision = computer.computeThresholdDecision(streamConfig, "newSegmentName");
+    assertEquals(decision.getThreshold(), 20_000);
+    assertEquals(decision.getReason(), SizeBasedSegmentFlushThresholdComputer.DecisionReason.MEMORY_LIMIT);
+  }
+
   @Test
   public void testNoRows() {
     int autoTuneInitialRows = 1_000;
@@ -242,6 +242,77 @@ public class DataBlockBuilder {
     return buildColumnarBlock(numRows, dataSchema, getReverseDictionary(dictionary), fixedSize, varBufferBuilder);
   }
 
+  /**
+   * Builds a columnar data block from column vectors, without pivoting them into rows. Columns with INT, LONG, FLOAT or
+   * DOUBLE stored type must be provided as primitive arrays (the value for null rows is ignored), and other columns as
+   * {@code Object[]} with {@code null} for null values.
+   *
+   * @param columns column vectors
+   * @param nullBitmaps null bitmaps of the primitive columns, where {@code null} means no null value
+   */
+  public static ColumnarDataBlock buildFromColumnVectors(Object[] columns, RoaringBitmap[] nullBitmaps, int numRows,
+      DataSchema dataSchema)
+      throws IOException {
+    int fixedBytesPerRow = calculateBytesPerRow(dataSchema);
+    int numColumns = dataSchema.size();
+    int nullFixedBytes = numColumns * Integer.BYTES * 2;
+    ByteBuffer fixedSize = ByteBuffer.allocate(fixedBytesPerRow * numRows + nullFixedBytes);
+    CompoundDataBuffer.Builder varBufferBuilder = new CompoundDataBuffer.Builder(ByteOrder.BIG_ENDIAN, true);
+    Object2IntOpenHashMap<String> dictionary = new Object2IntOpenHashMap<>();
+    RoaringBitmap[] serializedNullBitmaps = new RoaringBitmap[numColumns];
+    List<Object[]> objectColumns = Arrays.asList(new Object[numColumns][]);
+
+    try (PagedPinotOutputStream varSize = new PagedPinotOutputStream(
+        PagedPinotOutputStream.HeapPageAllocator.createSmall())) {
+      for (int colId = 0; colId < numColumns; colId++) {
+        Object column = columns[colId];
+        RoaringBitmap nullBitmap = nullBitmaps[colId];
+        switch (dataSchema.getColumnDataType(colId).getStoredType()) {
+          case INT: {
+            int[] values = (int[]) column;
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              fixedSize.putInt(values[rowId]);
+            }
+            break;
+          }
+          case LONG: {
+            long[] values = (long[]) column;
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              fixedSize.putLong(values[rowId]);
+            }
+            break;
+          }
+          case FLOAT: {
+            float[] values = (float[]) column;
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              fixedSize.putFloat(values[rowId]);
+            }
+            break;
+          }
+          case DOUBLE: {
+            double[] values = (double[]) column;
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              fixedSize.putDouble(values[rowId]);
+            }
+            break;
+          }
+          default: {
+            nullBitmap = new RoaringBitmap();
+            objectColumns.set(colId, (Object[]) column);
+            serializeColumnData(objectColumns, dataSchema, colId, fixedSize, varSize, nullBitmap, dictionary, null);
+            objectColumns.set(colId, null);
+            break;
+          }
+        }
+        serializedNullBitmaps[colId] = nullBitmap;
+      }
+      varBufferBuilder.addPagedOutputStream(varSize);
+    }
+    // Write null bitmaps after writing data.
+    setNullRowIds(serializedNullBitmaps, fixedSize, varBufferBuilder);
+    return buildColumnarBlock(numRows, dataSchema, getReverseDictionary(dictionary), fixedSize, varBufferBuilder);
+  }
+
   private static void serializeColumnData(List<Object[]> columns, DataSchema dataSchema, int colId,
       ByteBuffer fixedSize, PagedPinotOutputStream varSize, RoaringBitmap nullBitmap,
       Object2IntOpenHashMap<String> dictionary, @Nullable AggregationFunction aggFunction)
@@ -64,6 +64,8 @@ import org.apache.pinot.common.utils.config.TierConfigUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
 import org.apache.pinot.core.data.manager.realtime.RealtimeSegmentDataManager;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
 import org.apache.pinot.core.util.PeerServerSegmentFinder;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.StaleSegment;
@@ -267,6 +269,8 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _logger.info("Shutting down table data manager");
     _shutDown = true;
     doShutdown();
+    // The server-wide filter selectivity statistics must not outlive the table
+    FilterSelectivityStats.getInstance().removeTable(_tableNameWithType);
     _logger.info("Shut down table data manager");
   }
 
@@ -895,6 +899,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
       oldSegmentDataManager = _segmentDataManagerMap.put(segmentName, segmentDataManager);
     }
     _recentlyDeletedSegments.invalidate(segmentName);
+    invalidateSegmentResultsCache(segmentName);
     return oldSegmentDataManager;
   }
 
@@ -908,8 +913,21 @@ public abstract class BaseTableDataManager implements TableDataManager {
   @Nullable
   protected SegmentDataManager unregisterSegment(String segmentName) {
     _recentlyDeletedSegments.put(segmentName, segmentName);
+    SegmentDataManager segmentDataManager;
     synchronized (_segmentDataManagerMap) {
-      return _segmentDataManagerMap.remove(segmentName);
+      segmentDataManager = _segmentDataManagerMap.remove(segmentName);
+    }
+    invalidateSegmentResultsCache(segmentName);
+    return segmentDataManager;
+  }
+
+  /**
+   * Invalidates the cached segment level results when the segment is replaced, reloaded or removed.
+   */
+  private void invalidateSegmentResultsCache(String segmentName) {
+    SegmentResultsCache segmentResultsCache = SegmentResultsCache.get();
+    if (segmentResultsCache != null) {
+      segmentResultsCache.invalidateSegment(_tableNameWithType, segmentName);
     }
   }
 
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
+import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamDataDecoder;
+import org.apache.pinot.spi.stream.StreamDataDecoderResult;
+
+
+/**
+ * Decodes and transforms the messages of a {@link MessageBatch} with a bounded pool of threads, so that the partition
+ * consumer thread only needs to index the rows.
+ * <p>The messages are split into chunks of consecutive messages, and each chunk is decoded and transformed by a worker
+ * with its own {@link StreamDataDecoder} and {@link TransformPipeline} because neither of them is thread safe. The
+ * decoded messages are handed back in offset order via {@link #getDecodedMessage(int)}, so indexing stays single
+ * writer and in order, and the consumer thread can index a chunk while the following chunks are being decoded.
+ * <p>This class is not thread safe: except for {@link #close()}, all the methods should be called from the partition
+ * consumer thread.
+ */
+class PipelinedStreamMessageDecoder implements Closeable {
+  private static final int MIN_CHUNK_SIZE = 100;
+  // Split each batch into multiple chunks per thread so that the consumer thread can start indexing early
+  private static final int NUM_CHUNKS_PER_THREAD = 4;
+
+  private final int _numThreads;
+  private final ExecutorService _executorService;
+  private final BlockingQueue<Worker> _workers;
+  private final List<TransformPipeline> _transformPipelines;
+  private final ServerMetrics _serverMetrics;
+  private final String _tableNameWithType;
+  private final String _clientId;
+
+  private final List<Future<DecodedMessage[]>> _chunks = new ArrayList<>();
+  private int _numMessages;
+  private int _chunkSize;
+  private int _currentChunkId;
+  private DecodedMessage[] _currentChunk;
+  private long _waitTimeNs;
+
+  PipelinedStreamMessageDecoder(int numThreads, Supplier<StreamDataDecoder> streamDataDecoderSupplier,
+      Supplier<TransformPipeline> transformPipelineSupplier, String threadNamePrefix, ServerMetrics serverMetrics,
+      String tableNameWithType, String clientId) {
+    Preconditions.checkArgument(numThreads > 0, "Number of decode threads must be positive, got: %s", numThreads);
+    _numThreads = numThreads;
+    _executorService = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setNameFormat(threadNamePrefix + "-decode-%d").setDaemon(true).build());
+    _workers = new ArrayBlockingQueue<>(numThreads);
+    _transformPipelines = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      TransformPipeline transformPipeline = transformPipelineSupplier.get();
+      _workers.add(new Worker(streamDataDecoderSupplier.get(), transformPipeline));
+      _transformPipelines.add(transformPipeline);
+    }
+    _serverMetrics = serverMetrics;
+    _tableNameWithType = tableNameWithType;
+    _clientId = clientId;
+  }
+
+  /**
+   * Starts decoding and transforming the messages of the given batch. The messages of the previous batch that are not
+   * retrieved yet are discarded.
+   */
+  void submit(MessageBatch messageBatch) {
+    cancelPendingChunks();
+    int numMessages = messageBatch.getMessageCount();
+    int numChunksPerBatch = _numThreads * NUM_CHUNKS_PER_THREAD;
+    _numMessages = numMessages;
+    _chunkSize = Math.max((numMessages + numChunksPerBatch - 1) / numChunksPerBatch, MIN_CHUNK_SIZE);
+    _currentChunkId = -1;
+    _currentChunk = null;
+    _waitTimeNs = 0;
+    for (int startIndex = 0; startIndex < numMessages; startIndex += _chunkSize) {
+      int from = startIndex;
+      int to = Math.min(startIndex + _chunkSize, numMessages);
+      _chunks.add(_executorService.submit(() -> decodeChunk(messageBatch, from, to)));
+    }
+    _serverMetrics.setValueOfTableGauge(_clientId, ServerGauge.REALTIME_DECODE_QUEUE_DEPTH, numMessages);
+  }
+
+  /**
+   * Returns the decoded message at the given index of the current batch, waiting for it to be decoded if necessary.
+   * The messages should be retrieved in index order.
+   */
+  DecodedMessage getDecodedMessage(int index) {
+    int chunkId = index / _chunkSize;
+    if (chunkId != _currentChunkId) {
+      long startTimeNs = System.nanoTime();
+      try {
+        _currentChunk = _chunks.get(chunkId).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for the decoded messages", e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Caught exception while decoding the messages", e.getCause());
+      }
+      _waitTimeNs += System.nanoTime() - startTimeNs;
+      _chunks.set(chunkId, null);
+      _currentChunkId = chunkId;
+      _serverMetrics.setValueOfTableGauge(_clientId, ServerGauge.REALTIME_DECODE_QUEUE_DEPTH,
+          Math.max(_numMessages - (long) (chunkId + 1) * _chunkSize, 0));
+    }
+    return _currentChunk[index - chunkId * _chunkSize];
+  }
+
+  /**
+   * Finishes the current batch, discarding the messages not retrieved.
+   *
+   * @param processingTimeNs total time spent by the consumer thread on the batch, including the waiting time
+   */
+  void finishBatch(long processingTimeNs) {
+    cancelPendingChunks();
+    _currentChunk = null;
+    _serverMetrics.setValueOfTableGauge(_clientId, ServerGauge.REALTIME_DECODE_QUEUE_DEPTH, 0);
+    if (_waitTimeNs > 0) {
+      _serverMetrics.addTimedTableValue(_tableNameWithType, ServerTimer.REALTIME_DECODE_WAIT_TIME_MS, _waitTimeNs,
+          TimeUnit.NANOSECONDS);
+    }
+    _serverMetrics.addTimedTableValue(_tableNameWithType, ServerTimer.REALTIME_INDEX_TIME_MS,
+        Math.max(processingTimeNs - _waitTimeNs, 0), TimeUnit.NANOSECONDS);
+  }
+
+  private void cancelPendingChunks() {
+    for (Future<DecodedMessage[]> chunk : _chunks) {
+      if (chunk != null) {
+        // Do not interrupt the running chunks because the decoder might not handle the interruption gracefully
+        chunk.cancel(false);
+      }
+    }
+    _chunks.clear();
+  }
+
+  private DecodedMessage[] decodeChunk(MessageBatch messageBatch, int from, int to)
+      throws InterruptedException {
+    Worker worker = _workers.take();
+    long startTimeNs = System.nanoTime();
+    try {
+      DecodedMessage[] decodedMessages = new DecodedMessage[to - from];
+      for (int i = from; i < to; i++) {
+        decodedMessages[i - from] = worker.decode(messageBatch, i);
+      }
+      return decodedMessages;
+    } finally {
+      _workers.add(worker);
+      _serverMetrics.addTimedTableValue(_tableNameWithType, ServerTimer.REALTIME_DECODE_TRANSFORM_TIME_MS,
+          System.nanoTime() - startTimeNs, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Stops the decode threads and reports the stats of the transform pipelines. Unlike the other methods, this method
+   * can be called from a thread other than the partition consumer thread.
+   */
+  @Override
+  public void close() {
+    // Cancel the chunks not started yet so that the consumer thread does not wait for them forever
+    for (Runnable pendingChunk : _executorService.shutdownNow()) {
+      ((Future<?>) pendingChunk).cancel(false);
+    }
+    for (TransformPipeline transformPipeline : _transformPipelines) {
+      transformPipeline.reportStats();
+    }
+  }
+
+  private static class Worker {
+    final StreamDataDecoder _streamDataDecoder;
+    final TransformPipeline _transformPipeline;
+
+    Worker(StreamDataDecoder streamDataDecoder, TransformPipeline transformPipeline) {
+      _streamDataDecoder = streamDataDecoder;
+      _transformPipeline = transformPipeline;
+    }
+
+    DecodedMessage decode(MessageBatch messageBatch, int index) {
+      StreamDataDecoderResult decodedRow = _streamDataDecoder.decode(messageBatch.getStreamMessage(index));
+      if (decodedRow.getException() != null) {
+        return new DecodedMessage(decodedRow, null, null);
+      }
+      try {
+        return new DecodedMessage(decodedRow, _transformPipeline.processRow(decodedRow.getResult()), null);
+      } catch (Exception e) {
+        return new DecodedMessage(decodedRow, null, e);
+      }
+    }
+  }
+
+  /**
+   * Result of decoding and transforming a stream message.
+   */
+  static class DecodedMessage {
+    private final StreamDataDecoderResult _decodedRow;
+    private final TransformPipeline.Result _transformResult;
+    private final Exception _transformException;
+
+    DecodedMessage(StreamDataDecoderResult decodedRow, @Nullable TransformPipeline.Result transformResult,
+        @Nullable Exception transformException) {
+      _decodedRow = decodedRow;
+      _transformResult = transformResult;
+      _transformException = transformException;
+    }
+
+    StreamDataDecoderResult getDecodedRow() {
+      return _decodedRow;
+    }
+
+    /**
+     * Returns the transform result, or throws the exception caught while transforming the decoded row.
+     */
+    TransformPipeline.Result getTransformResult()
+        throws Exception {
+      if (_transformException != null) {
+        throw _transformException;
+      }
+      return _transformResult;
+    }
+  }
+}
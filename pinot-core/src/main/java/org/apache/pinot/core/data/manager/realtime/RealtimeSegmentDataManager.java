@@ -305,6 +305,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final PartitionGroupConsumptionStatus _partitionGroupConsumptionStatus;
   final String _clientId;
   private final TransformPipeline _transformPipeline;
+  // Decodes and transforms the messages with a pool of threads when decoding is pipelined, null otherwise
+  @Nullable
+  private final PipelinedStreamMessageDecoder _pipelinedDecoder;
   private PartitionGroupConsumer _partitionGroupConsumer = null;
   private StreamMetadataProvider _partitionMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -589,6 +592,12 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     boolean canTakeMore = true;
     boolean prematureExit = false;
 
+    long batchStartTimeNs = 0;
+    if (_pipelinedDecoder != null) {
+      batchStartTimeNs = System.nanoTime();
+      _pipelinedDecoder.submit(messageBatch);
+    }
+
     for (int index = 0; index < messageCount; index++) {
       prematureExit = _shouldStop || endCriteriaReached();
       if (prematureExit) {
@@ -621,7 +630,10 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
 
       // Decode message
       StreamMessage streamMessage = messageBatch.getStreamMessage(index);
-      StreamDataDecoderResult decodedRow = _streamDataDecoder.decode(streamMessage);
+      PipelinedStreamMessageDecoder.DecodedMessage decodedMessage =
+          _pipelinedDecoder != null ? _pipelinedDecoder.getDecodedMessage(index) : null;
+      StreamDataDecoderResult decodedRow =
+          decodedMessage != null ? decodedMessage.getDecodedRow() : _streamDataDecoder.decode(streamMessage);
       StreamMessageMetadata metadata = streamMessage.getMetadata();
       StreamPartitionMsgOffset offset = null;
       StreamPartitionMsgOffset nextOffset = null;
@@ -645,7 +657,8 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       } else {
         TransformPipeline.Result result = null;
         try {
-          result = _transformPipeline.processRow(decodedRow.getResult());
+          result = decodedMessage != null ? decodedMessage.getTransformResult()
+              : _transformPipeline.processRow(decodedRow.getResult());
         } catch (Exception e) {
           _numRowsErrored++;
           _numBytesDropped += rowSizeInBytes;
@@ -708,6 +721,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       _numRowsConsumed++;
       streamMessageCount++;
     }
+    if (_pipelinedDecoder != null) {
+      _pipelinedDecoder.finishBatch(System.nanoTime() - batchStartTimeNs);
+    }
 
     updateCurrentDocumentCountMetrics();
     if (messageBatch.getUnfilteredMessageCount() > 0) {
@@ -1331,6 +1347,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       closePartitionMetadataProvider();
       releaseConsumerSemaphore();
       _transformPipeline.reportStats();
+      if (_pipelinedDecoder != null) {
+        _pipelinedDecoder.close();
+      }
     }
   }
 
@@ -1372,6 +1391,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     _serverMetrics.removeTableGauge(_clientId, ServerGauge.LLC_PARTITION_CONSUMING);
     _serverMetrics.removeTableGauge(_clientId, ServerGauge.STREAM_DATA_LOSS);
     _serverMetrics.removeTableGauge(_clientId, ServerGauge.PAUSELESS_CONSUMPTION_ENABLED);
+    _serverMetrics.removeTableGauge(_clientId, ServerGauge.REALTIME_DECODE_QUEUE_DEPTH);
     _serverMetrics.removeTableMeter(_clientId, ServerMeter.SEGMENT_BUILD_FAILURE);
   }
 
@@ -1775,6 +1795,26 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       throw e;
     }
 
+    int decodeParallelism = ingestionConfig != null && ingestionConfig.getStreamIngestionConfig() != null
+        ? ingestionConfig.getStreamIngestionConfig().getDecodeParallelism() : 0;
+    if (decodeParallelism > 1) {
+      try {
+        // Each decode thread has its own decoder and transform pipeline. The decoded rows cannot be reused because
+        // they are held until being indexed.
+        _pipelinedDecoder = new PipelinedStreamMessageDecoder(decodeParallelism,
+            () -> new StreamDataDecoderImpl(createMessageDecoder(fieldsToRead), false),
+            () -> new TransformPipeline(tableConfig, schema), _segmentNameStr, _serverMetrics, _tableNameWithType,
+            _clientId);
+      } catch (Exception e) {
+        _realtimeTableDataManager.addSegmentError(_segmentNameStr,
+            new SegmentErrorInfo(now(), "Failed to initialize the pipelined decoder", e));
+        throw e;
+      }
+      _segmentLogger.info("Decoding and transforming the stream messages with {} threads", decodeParallelism);
+    } else {
+      _pipelinedDecoder = null;
+    }
+
     try {
       _startOffset = _partitionGroupConsumptionStatus.getStartOffset();
       _currentOffset = _streamPartitionMsgOffsetFactory.create(_startOffset);
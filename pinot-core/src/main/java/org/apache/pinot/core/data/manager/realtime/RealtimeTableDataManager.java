@@ -66,6 +66,7 @@ import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProvide
 import org.apache.pinot.segment.local.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.segment.local.upsert.TableUpsertMetadataManager;
 import org.apache.pinot.segment.local.upsert.TableUpsertMetadataManagerFactory;
+import org.apache.pinot.segment.local.upsert.UpsertContext;
 import org.apache.pinot.segment.local.utils.SchemaUtils;
 import org.apache.pinot.segment.local.utils.tablestate.TableStateUtils;
 import org.apache.pinot.segment.spi.ImmutableSegment;
@@ -420,7 +421,11 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
    * Handles upsert preload if the upsert preload is enabled.
    */
   private void handleUpsertPreload(SegmentZKMetadata zkMetadata, IndexLoadingConfig indexLoadingConfig) {
-    if (_tableUpsertMetadataManager == null || !_tableUpsertMetadataManager.getContext().isPreloadEnabled()) {
+    if (_tableUpsertMetadataManager == null) {
+      return;
+    }
+    UpsertContext upsertContext = _tableUpsertMetadataManager.getContext();
+    if (!upsertContext.isPreloadEnabled() && !upsertContext.isParallelBootstrapEnabled()) {
       return;
     }
     Integer partitionId = SegmentUtils.getSegmentPartitionId(zkMetadata, null);
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.data.table;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -30,15 +31,23 @@ import org.apache.pinot.core.query.request.context.QueryContext;
  * Thread safe {@link Table} implementation for aggregating Records based on combination of keys
  */
 public class ConcurrentIndexedTable extends IndexedTable {
-  private final AtomicBoolean _noMoreNewRecords = new AtomicBoolean();
-  private final ReentrantReadWriteLock _readWriteLock = new ReentrantReadWriteLock();
+  protected final AtomicBoolean _noMoreNewRecords = new AtomicBoolean();
+  protected final ReentrantReadWriteLock _readWriteLock = new ReentrantReadWriteLock();
 
   public ConcurrentIndexedTable(DataSchema dataSchema, boolean hasFinalInput, QueryContext queryContext, int resultSize,
       int trimSize, int trimThreshold, int initialCapacity, ExecutorService executorService) {
-    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
+    this(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
         new ConcurrentHashMap<>(initialCapacity), executorService);
   }
 
+  /**
+   * Constructor for the sub-classes that store the records in a different thread safe map.
+   */
+  protected ConcurrentIndexedTable(DataSchema dataSchema, boolean hasFinalInput, QueryContext queryContext,
+      int resultSize, int trimSize, int trimThreshold, Map<Key, Record> lookupMap, ExecutorService executorService) {
+    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold, lookupMap, executorService);
+  }
+
   /**
    * Thread safe implementation of upsert for inserting {@link Record} into {@link Table}
    */
@@ -34,4 +34,11 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * For records that are not going to be ordered (e.g. records directly merged into an indexed table).
+   */
+  public IntermediateRecord(Key key, Record record) {
+    this(key, record, null);
+  }
 }
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.data.table.PrimitiveKeyIndexedTable.KeyEncoder;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * Thread safe version of {@link PrimitiveKeyIndexedTable}, used when the group key can be encoded into a single
+ * primitive long (see {@link PrimitiveKeyIndexedTable#isSupported(DataSchema, QueryContext)}).
+ * <p>Upserts do not allocate nor hash a {@link Key}: the records are stored in a {@link ConcurrentHashMap} keyed by the
+ * encoded long. The locking follows {@link ConcurrentIndexedTable}, and the lock is skipped when trim is disabled like
+ * in {@link UnboundedConcurrentIndexedTable}.
+ * <p>Null keys are not supported, so this table should only be used when null handling is disabled.
+ */
+public class PrimitiveKeyConcurrentIndexedTable extends ConcurrentIndexedTable {
+  private final ConcurrentHashMap<Long, Record> _recordMap;
+  private final KeyEncoder _keyEncoder;
+
+  public PrimitiveKeyConcurrentIndexedTable(DataSchema dataSchema, boolean hasFinalInput, QueryContext queryContext,
+      int resultSize, int trimSize, int trimThreshold, int initialCapacity, ExecutorService executorService) {
+    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
+        new RecordMap(PrimitiveKeyIndexedTable.getKeyEncoder(dataSchema, queryContext),
+            queryContext.getGroupByExpressions().size(), initialCapacity), executorService);
+    RecordMap recordMap = (RecordMap) _lookupMap;
+    _recordMap = recordMap._map;
+    _keyEncoder = recordMap._keyEncoder;
+  }
+
+  @Override
+  public boolean upsert(Record record) {
+    return upsert(_keyEncoder.encode(record.getValues()), record);
+  }
+
+  @Override
+  public boolean upsert(Key key, Record record) {
+    return upsert(_keyEncoder.encode(key.getValues()), record);
+  }
+
+  private boolean upsert(long key, Record record) {
+    if (_hasOrderBy) {
+      if (_trimThreshold == Integer.MAX_VALUE) {
+        // Trim is disabled, no need to guard against concurrent resize
+        addOrUpdateRecord(key, record);
+        return true;
+      }
+      _readWriteLock.readLock().lock();
+      try {
+        addOrUpdateRecord(key, record);
+      } finally {
+        _readWriteLock.readLock().unlock();
+      }
+      if (_recordMap.size() >= _trimThreshold) {
+        _readWriteLock.writeLock().lock();
+        try {
+          if (_recordMap.size() >= _trimThreshold) {
+            resize();
+          }
+        } finally {
+          _readWriteLock.writeLock().unlock();
+        }
+      }
+    } else {
+      if (_noMoreNewRecords.get()) {
+        _recordMap.computeIfPresent(key, (k, v) -> updateRecord(v, record));
+      } else {
+        addOrUpdateRecord(key, record);
+        if (_recordMap.size() >= _resultSize) {
+          _noMoreNewRecords.set(true);
+        }
+      }
+    }
+    return true;
+  }
+
+  private void addOrUpdateRecord(long key, Record newRecord) {
+    _recordMap.compute(key, (k, v) -> v == null ? newRecord : updateRecord(v, newRecord));
+  }
+
+  /**
+   * {@link Map} view over the concurrent map so that the trimming logic in {@link TableResizer} and the final result
+   * extraction in {@link IndexedTable} can be shared. The {@link Key} of each entry is re-constructed from the leading
+   * values of the record.
+   */
+  private static class RecordMap extends AbstractMap<Key, Record> {
+    final KeyEncoder _keyEncoder;
+    final int _numKeyColumns;
+    final ConcurrentHashMap<Long, Record> _map;
+
+    RecordMap(KeyEncoder keyEncoder, int numKeyColumns, int initialCapacity) {
+      _keyEncoder = keyEncoder;
+      _numKeyColumns = numKeyColumns;
+      _map = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    @Override
+    public int size() {
+      return _map.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return _map.containsKey(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public Record get(Object key) {
+      return _map.get(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public Record put(Key key, Record value) {
+      return _map.put(_keyEncoder.encode(key.getValues()), value);
+    }
+
+    @Override
+    public Record remove(Object key) {
+      return _map.remove(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public void clear() {
+      _map.clear();
+    }
+
+    @Override
+    public Collection<Record> values() {
+      return _map.values();
+    }
+
+    @Override
+    public Set<Entry<Key, Record>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Key, Record>> iterator() {
+          Iterator<Record> iterator = _map.values().iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return iterator.hasNext();
+            }
+
+            @Override
+            public Entry<Key, Record> next() {
+              Record record = iterator.next();
+              return new SimpleImmutableEntry<>(new Key(Arrays.copyOf(record.getValues(), _numKeyColumns)), record);
+            }
+
+            @Override
+            public void remove() {
+              iterator.remove();
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return _map.size();
+        }
+      };
+    }
+  }
+}
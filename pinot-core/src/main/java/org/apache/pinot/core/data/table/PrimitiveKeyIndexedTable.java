@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * {@link Table} implementation for aggregating TableRecords when the group key can be encoded into a single primitive
+ * long, i.e. a single INT/LONG/FLOAT/DOUBLE key or a pair of INT keys.
+ * <p>The records are stored in an open-addressing primitive map, which avoids allocating and hashing a {@link Key} for
+ * each upsert and reduces the per-group memory footprint compared to {@link SimpleIndexedTable}. The {@link Key} is
+ * only re-constructed from the record values when iterating the entries (e.g. when trimming the table).
+ * <p>Null keys are not supported, so this table should only be used when null handling is disabled.
+ */
+@NotThreadSafe
+public class PrimitiveKeyIndexedTable extends IndexedTable {
+  private final Long2ObjectOpenHashMap<Record> _recordMap;
+  private final KeyEncoder _keyEncoder;
+
+  public PrimitiveKeyIndexedTable(DataSchema dataSchema, boolean hasFinalInput, QueryContext queryContext,
+      int resultSize, int trimSize, int trimThreshold, int initialCapacity, ExecutorService executorService) {
+    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
+        new RecordMap(getKeyEncoder(dataSchema, queryContext), queryContext.getGroupByExpressions().size(),
+            initialCapacity), executorService);
+    RecordMap recordMap = (RecordMap) _lookupMap;
+    _recordMap = recordMap._map;
+    _keyEncoder = recordMap._keyEncoder;
+  }
+
+  /**
+   * Returns whether the group key of the given data schema and query can be stored in a
+   * {@link PrimitiveKeyIndexedTable}.
+   */
+  public static boolean isSupported(DataSchema dataSchema, QueryContext queryContext) {
+    return getKeyEncoderIfSupported(dataSchema, queryContext) != null;
+  }
+
+  @Override
+  public boolean upsert(Record record) {
+    return upsert(_keyEncoder.encode(record.getValues()), record);
+  }
+
+  @Override
+  public boolean upsert(Key key, Record record) {
+    return upsert(_keyEncoder.encode(key.getValues()), record);
+  }
+
+  private boolean upsert(long key, Record record) {
+    if (_hasOrderBy) {
+      addOrUpdateRecord(key, record);
+      if (_recordMap.size() >= _trimThreshold) {
+        resize();
+      }
+    } else {
+      if (_recordMap.size() < _resultSize) {
+        addOrUpdateRecord(key, record);
+      } else {
+        Record existingRecord = _recordMap.get(key);
+        if (existingRecord != null) {
+          updateRecord(existingRecord, record);
+        }
+      }
+    }
+    return true;
+  }
+
+  private void addOrUpdateRecord(long key, Record newRecord) {
+    Record existingRecord = _recordMap.putIfAbsent(key, newRecord);
+    if (existingRecord != null) {
+      updateRecord(existingRecord, newRecord);
+    }
+  }
+
+  static KeyEncoder getKeyEncoder(DataSchema dataSchema, QueryContext queryContext) {
+    KeyEncoder keyEncoder = getKeyEncoderIfSupported(dataSchema, queryContext);
+    if (keyEncoder == null) {
+      throw new IllegalStateException("Unsupported group key for PrimitiveKeyIndexedTable: " + dataSchema);
+    }
+    return keyEncoder;
+  }
+
+  @Nullable
+  static KeyEncoder getKeyEncoderIfSupported(DataSchema dataSchema, QueryContext queryContext) {
+    if (queryContext.isNullHandlingEnabled() || queryContext.getGroupByExpressions() == null) {
+      return null;
+    }
+    int numKeyColumns = queryContext.getGroupByExpressions().size();
+    ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    if (numKeyColumns == 1) {
+      switch (columnDataTypes[0].getStoredType()) {
+        case INT:
+        case LONG:
+          return values -> ((Number) values[0]).longValue();
+        case FLOAT:
+          return values -> Float.floatToIntBits((Float) values[0]);
+        case DOUBLE:
+          return values -> Double.doubleToLongBits((Double) values[0]);
+        default:
+          return null;
+      }
+    }
+    if (numKeyColumns == 2 && columnDataTypes[0].getStoredType() == ColumnDataType.INT
+        && columnDataTypes[1].getStoredType() == ColumnDataType.INT) {
+      return values -> ((long) ((Number) values[0]).intValue() << 32) | (((Number) values[1]).intValue()
+          & 0xFFFFFFFFL);
+    }
+    return null;
+  }
+
+  /**
+   * Encodes the leading key values of a record into a primitive long key. The encoding must be injective so that two
+   * keys are encoded into the same long if and only if they are equal.
+   */
+  interface KeyEncoder {
+    long encode(Object[] values);
+  }
+
+  /**
+   * {@link Map} view over the primitive map so that the trimming logic in {@link TableResizer} and the final result
+   * extraction in {@link IndexedTable} can be shared. The {@link Key} of each entry is re-constructed from the leading
+   * values of the record.
+   */
+  private static class RecordMap extends AbstractMap<Key, Record> {
+    final KeyEncoder _keyEncoder;
+    final int _numKeyColumns;
+    final Long2ObjectOpenHashMap<Record> _map;
+
+    RecordMap(KeyEncoder keyEncoder, int numKeyColumns, int initialCapacity) {
+      _keyEncoder = keyEncoder;
+      _numKeyColumns = numKeyColumns;
+      _map = new Long2ObjectOpenHashMap<>(initialCapacity);
+    }
+
+    @Override
+    public int size() {
+      return _map.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return _map.containsKey(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public Record get(Object key) {
+      return _map.get(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public Record put(Key key, Record value) {
+      return _map.put(_keyEncoder.encode(key.getValues()), value);
+    }
+
+    @Override
+    public Record remove(Object key) {
+      return _map.remove(_keyEncoder.encode(((Key) key).getValues()));
+    }
+
+    @Override
+    public void clear() {
+      _map.clear();
+    }
+
+    @Override
+    public Collection<Record> values() {
+      return _map.values();
+    }
+
+    @Override
+    public Set<Entry<Key, Record>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Key, Record>> iterator() {
+          ObjectIterator<Long2ObjectMap.Entry<Record>> iterator = Long2ObjectMaps.fastIterator(_map);
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return iterator.hasNext();
+            }
+
+            @Override
+            public Entry<Key, Record> next() {
+              Record record = iterator.next().getValue();
+              return new SimpleImmutableEntry<>(new Key(Arrays.copyOf(record.getValues(), _numKeyColumns)), record);
+            }
+
+            @Override
+            public void remove() {
+              iterator.remove();
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return _map.size();
+        }
+      };
+    }
+  }
+}
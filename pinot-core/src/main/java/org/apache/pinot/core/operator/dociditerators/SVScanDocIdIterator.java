@@ -19,10 +19,13 @@
 package org.apache.pinot.core.operator.dociditerators;
 
 import java.util.OptionalInt;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.PredicateStats;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
 import org.roaringbitmap.BatchIterator;
@@ -33,6 +36,8 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>When the column has a zone map index, the blocks of documents whose value range cannot match the predicate are
+ * skipped without reading the forward index.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
@@ -45,11 +50,26 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _firstMismatch;
   private int _cursor;
   private final int _cardinality;
+  @Nullable
+  private final ZoneMapBlockFilter _zoneMapBlockFilter;
+
+  // Collects the observed selectivity and cost when adaptive filter reordering is enabled, set to null once recorded
+  @Nullable
+  private PredicateStats _predicateStats;
 
   private int _nextDocId = 0;
   private long _numEntriesScanned = 0L;
+  private long _numDocsMatched = 0L;
+  private long _numDocsTimed = 0L;
+  private long _matchTimeNs = 0L;
 
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs, int batchSize) {
+    this(predicateEvaluator, dataSource, numDocs, batchSize, null);
+  }
+
+  public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs, int batchSize,
+      @Nullable PredicateStats predicateStats) {
+    _predicateStats = predicateStats;
     _batch = new int[batchSize];
     _predicateEvaluator = predicateEvaluator;
     _reader = dataSource.getForwardIndex();
@@ -57,6 +77,8 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _numDocs = numDocs;
     _valueMatcher = getValueMatcher();
     _cardinality = dataSource.getDataSourceMetadata().getCardinality();
+    _zoneMapBlockFilter =
+        ZoneMapBlockFilter.create(predicateEvaluator, dataSource.getIndex(StandardIndexes.zoneMap()), numDocs);
   }
 
   // for testing
@@ -68,6 +90,7 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _numDocs = numDocs;
     _valueMatcher = getValueMatcher();
     _cardinality = -1;
+    _zoneMapBlockFilter = null;
   }
 
   @Override
@@ -76,12 +99,17 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       int limit;
       int batchSize = 0;
       do {
-        limit = Math.min(_numDocs - _nextDocId, _batch.length);
+        if (_zoneMapBlockFilter != null) {
+          _nextDocId = _zoneMapBlockFilter.getNextCandidateDocId(_nextDocId);
+          limit = Math.min(_zoneMapBlockFilter.getCandidateRangeEnd(_nextDocId) - _nextDocId, _batch.length);
+        } else {
+          limit = Math.min(_numDocs - _nextDocId, _batch.length);
+        }
         if (limit > 0) {
           for (int i = 0; i < limit; i++) {
             _batch[i] = _nextDocId + i;
           }
-          batchSize = _valueMatcher.matchValues(limit, _batch);
+          batchSize = matchValues(limit, _batch);
           _nextDocId += limit;
           _numEntriesScanned += limit;
         }
@@ -101,9 +129,16 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _nextDocId = targetDocId;
     _firstMismatch = 0;
     while (_nextDocId < _numDocs) {
+      if (_zoneMapBlockFilter != null) {
+        _nextDocId = _zoneMapBlockFilter.getNextCandidateDocId(_nextDocId);
+        if (_nextDocId == _numDocs) {
+          break;
+        }
+      }
       int nextDocId = _nextDocId++;
       _numEntriesScanned++;
       if (_valueMatcher.doesValueMatch(nextDocId)) {
+        _numDocsMatched++;
         return nextDocId;
       }
     }
@@ -130,8 +165,11 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     int[] buffer = new int[_batch.length];
     while (docIdIterator.hasNext()) {
       int limit = docIdIterator.nextBatch(buffer);
+      if (_zoneMapBlockFilter != null) {
+        limit = _zoneMapBlockFilter.filter(limit, buffer);
+      }
       if (limit > 0) {
-        int firstMismatch = _valueMatcher.matchValues(limit, buffer);
+        int firstMismatch = matchValues(limit, buffer);
         for (int i = 0; i < firstMismatch; i++) {
           result.add(buffer[i]);
         }
@@ -142,6 +180,24 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return result.get();
   }
 
+  /**
+   * Matches the values in batch, and tracks the number of matching documents and the time spent when collecting the
+   * predicate statistics.
+   */
+  private int matchValues(int limit, int[] docIds) {
+    int numMatchingDocs;
+    if (_predicateStats != null) {
+      long startTimeNs = System.nanoTime();
+      numMatchingDocs = _valueMatcher.matchValues(limit, docIds);
+      _matchTimeNs += System.nanoTime() - startTimeNs;
+      _numDocsTimed += limit;
+    } else {
+      numMatchingDocs = _valueMatcher.matchValues(limit, docIds);
+    }
+    _numDocsMatched += numMatchingDocs;
+    return numMatchingDocs;
+  }
+
   @Override
   public long getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -320,5 +376,9 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_readerContext != null) {
       _readerContext.close();
     }
+    if (_predicateStats != null && _numEntriesScanned > 0) {
+      _predicateStats.record(_numEntriesScanned, _numDocsMatched, _numDocsTimed, _matchTimeNs);
+      _predicateStats = null;
+    }
   }
 }
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.BitSet;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.traits.DoubleRange;
+import org.apache.pinot.core.operator.filter.predicate.traits.DoubleValue;
+import org.apache.pinot.core.operator.filter.predicate.traits.FloatRange;
+import org.apache.pinot.core.operator.filter.predicate.traits.FloatValue;
+import org.apache.pinot.core.operator.filter.predicate.traits.IntRange;
+import org.apache.pinot.core.operator.filter.predicate.traits.IntValue;
+import org.apache.pinot.core.operator.filter.predicate.traits.LongRange;
+import org.apache.pinot.core.operator.filter.predicate.traits.LongValue;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+
+
+/**
+ * The {@code ZoneMapBlockFilter} uses the per block min/max values of a {@link ZoneMapIndexReader} to find the blocks
+ * of documents that may match a raw value based EQ or RANGE predicate, so that the scan based iterators can skip the
+ * other blocks without reading the forward index.
+ */
+public final class ZoneMapBlockFilter {
+  private final int _numDocs;
+  private final int _numDocsPerBlock;
+  private final BitSet _candidateBlocks;
+
+  private ZoneMapBlockFilter(int numDocs, int numDocsPerBlock, BitSet candidateBlocks) {
+    _numDocs = numDocs;
+    _numDocsPerBlock = numDocsPerBlock;
+    _candidateBlocks = candidateBlocks;
+  }
+
+  /**
+   * Returns the block filter for the given predicate, or {@code null} if the zone map does not exist, cannot be applied
+   * to the predicate, or cannot skip any block.
+   */
+  @Nullable
+  public static ZoneMapBlockFilter create(PredicateEvaluator predicateEvaluator, @Nullable ZoneMapIndexReader zoneMap,
+      int numDocs) {
+    if (zoneMap == null || predicateEvaluator.isDictionaryBased()) {
+      return null;
+    }
+    Predicate.Type predicateType = predicateEvaluator.getPredicateType();
+    if (predicateType != Predicate.Type.EQ && predicateType != Predicate.Type.RANGE) {
+      return null;
+    }
+    int numDocsPerBlock = zoneMap.getNumDocsPerBlock();
+    int numBlocks = (int) (((long) numDocs + numDocsPerBlock - 1) / numDocsPerBlock);
+    // Blocks not covered by the zone map are always candidates
+    int numZoneMapBlocks = Math.min(zoneMap.getNumBlocks(), numBlocks);
+    BitSet candidateBlocks = new BitSet(numBlocks);
+    candidateBlocks.set(numZoneMapBlocks, numBlocks);
+    switch (zoneMap.getStoredType()) {
+      case INT:
+      case LONG: {
+        long lowerBound;
+        long upperBound;
+        if (predicateEvaluator instanceof IntValue) {
+          lowerBound = ((IntValue) predicateEvaluator).getInt();
+          upperBound = lowerBound;
+        } else if (predicateEvaluator instanceof IntRange) {
+          lowerBound = ((IntRange) predicateEvaluator).getInclusiveLowerBound();
+          upperBound = ((IntRange) predicateEvaluator).getInclusiveUpperBound();
+        } else if (predicateEvaluator instanceof LongValue) {
+          lowerBound = ((LongValue) predicateEvaluator).getLong();
+          upperBound = lowerBound;
+        } else if (predicateEvaluator instanceof LongRange) {
+          lowerBound = ((LongRange) predicateEvaluator).getInclusiveLowerBound();
+          upperBound = ((LongRange) predicateEvaluator).getInclusiveUpperBound();
+        } else {
+          return null;
+        }
+        for (int i = 0; i < numZoneMapBlocks; i++) {
+          if (zoneMap.getMinLong(i) <= upperBound && zoneMap.getMaxLong(i) >= lowerBound) {
+            candidateBlocks.set(i);
+          }
+        }
+        break;
+      }
+      case FLOAT:
+      case DOUBLE: {
+        double lowerBound;
+        double upperBound;
+        if (predicateEvaluator instanceof FloatValue) {
+          lowerBound = ((FloatValue) predicateEvaluator).getFloat();
+          upperBound = lowerBound;
+        } else if (predicateEvaluator instanceof FloatRange) {
+          lowerBound = ((FloatRange) predicateEvaluator).getInclusiveLowerBound();
+          upperBound = ((FloatRange) predicateEvaluator).getInclusiveUpperBound();
+        } else if (predicateEvaluator instanceof DoubleValue) {
+          lowerBound = ((DoubleValue) predicateEvaluator).getDouble();
+          upperBound = lowerBound;
+        } else if (predicateEvaluator instanceof DoubleRange) {
+          lowerBound = ((DoubleRange) predicateEvaluator).getInclusiveLowerBound();
+          upperBound = ((DoubleRange) predicateEvaluator).getInclusiveUpperBound();
+        } else {
+          return null;
+        }
+        for (int i = 0; i < numZoneMapBlocks; i++) {
+          if (zoneMap.getMinDouble(i) <= upperBound && zoneMap.getMaxDouble(i) >= lowerBound) {
+            candidateBlocks.set(i);
+          }
+        }
+        break;
+      }
+      default:
+        return null;
+    }
+    if (candidateBlocks.cardinality() == numBlocks) {
+      return null;
+    }
+    return new ZoneMapBlockFilter(numDocs, numDocsPerBlock, candidateBlocks);
+  }
+
+  /**
+   * Returns the first document id no less than the given document id that is within a candidate block, or the number
+   * of documents if there is no such document.
+   */
+  public int getNextCandidateDocId(int docId) {
+    if (docId >= _numDocs) {
+      return _numDocs;
+    }
+    int blockId = docId / _numDocsPerBlock;
+    if (_candidateBlocks.get(blockId)) {
+      return docId;
+    }
+    int nextBlockId = _candidateBlocks.nextSetBit(blockId + 1);
+    return nextBlockId >= 0 ? nextBlockId * _numDocsPerBlock : _numDocs;
+  }
+
+  /**
+   * Returns the end (exclusive) of the consecutive candidate blocks starting from the block of the given candidate
+   * document id.
+   */
+  public int getCandidateRangeEnd(int docId) {
+    int endBlockId = _candidateBlocks.nextClearBit(docId / _numDocsPerBlock);
+    return (int) Math.min((long) endBlockId * _numDocsPerBlock, _numDocs);
+  }
+
+  /**
+   * Removes the document ids that are not within a candidate block, compacts the remaining ones in the start of the
+   * array and returns their count.
+   */
+  public int filter(int limit, int[] docIds) {
+    int numCandidates = 0;
+    for (int i = 0; i < limit; i++) {
+      int docId = docIds[i];
+      if (_candidateBlocks.get(docId / _numDocsPerBlock)) {
+        docIds[numCandidates++] = docId;
+      }
+    }
+    return numCandidates;
+  }
+}
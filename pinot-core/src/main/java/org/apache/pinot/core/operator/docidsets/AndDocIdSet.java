@@ -51,6 +51,11 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
  *   </li>
  *   <li>
+ *     When there is no index-based BlockDocIdIterator but the scan based BlockDocIdIterators are requested to be
+ *     intersected as bitmap (decided by the adaptive filter reordering when the leading scan is selective), start from
+ *     all the document ids and apply the ScanBasedDocIdIterators one after another in the same way as above.
+ *   </li>
+ *   <li>
  *     Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
  *   </li>
  * </ul>
@@ -59,13 +64,27 @@ public final class AndDocIdSet implements BlockDocIdSet {
   // Keep the scan based BlockDocIdSets to be accessed when collecting query execution stats
   private final AtomicReference<List<BlockDocIdSet>> _scanBasedDocIdSets = new AtomicReference<>();
   private final boolean _cardinalityBasedRankingForScan;
+  private final boolean _intersectScansAsBitmap;
+  private final int _numDocs;
   private List<BlockDocIdSet> _docIdSets;
   private volatile long _numEntriesScannedInFilter;
 
   public AndDocIdSet(List<BlockDocIdSet> docIdSets, @Nullable Map<String, String> queryOptions) {
+    this(docIdSets, queryOptions, false, 0);
+  }
+
+  /**
+   * @param intersectScansAsBitmap Whether to intersect the scan based BlockDocIdSets as bitmap even when there is no
+   *                               index-based BlockDocIdSet
+   * @param numDocs Number of documents in the segment, only used when intersecting the scans as bitmap
+   */
+  public AndDocIdSet(List<BlockDocIdSet> docIdSets, @Nullable Map<String, String> queryOptions,
+      boolean intersectScansAsBitmap, int numDocs) {
     _docIdSets = docIdSets;
     _cardinalityBasedRankingForScan =
         queryOptions != null && QueryOptionsUtils.isAndScanReorderingEnabled(queryOptions);
+    _intersectScansAsBitmap = intersectScansAsBitmap;
+    _numDocs = numDocs;
   }
 
   @Override
@@ -124,7 +143,10 @@ public final class AndDocIdSet implements BlockDocIdSet {
     int numScanBasedDocIdIterators = scanBasedDocIdIterators.size();
     int numRemainingDocIdIterators = remainingDocIdIterators.size();
     int numIndexBasedDocIdIterators = numSortedDocIdIterators + numBitmapBasedDocIdIterators;
-    if ((numIndexBasedDocIdIterators > 0 && numScanBasedDocIdIterators > 0) || numIndexBasedDocIdIterators > 1) {
+    boolean intersectScansFromAllDocs =
+        _intersectScansAsBitmap && numIndexBasedDocIdIterators == 0 && numScanBasedDocIdIterators > 0;
+    if ((numIndexBasedDocIdIterators > 0 && numScanBasedDocIdIterators > 0) || numIndexBasedDocIdIterators > 1
+        || intersectScansFromAllDocs) {
       // When there are at least one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator)
       // and at least one ScanBasedDocIdIterator, or more than one index-based BlockDocIdIterator, merge them and
       // construct a RangelessBitmapDocIdIterator from the merged document ids. If there is no remaining
@@ -132,7 +154,11 @@ public final class AndDocIdSet implements BlockDocIdSet {
       // an AndDocIdIterator with the merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
 
       ImmutableRoaringBitmap docIds;
-      if (numSortedDocIdIterators > 0) {
+      if (intersectScansFromAllDocs) {
+        MutableRoaringBitmap allDocIds = new MutableRoaringBitmap();
+        allDocIds.add(0L, _numDocs);
+        docIds = allDocIds;
+      } else if (numSortedDocIdIterators > 0) {
         List<IntPair> docIdRanges;
         if (numSortedDocIdIterators == 1) {
           docIdRanges = sortedDocIdIterators.get(0).getDocIdRanges();
@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.docvalsets;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ArrayCopyUtils;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.CommonConstants.NullValuePlaceHolder;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * A {@link BlockValSet} implementation backed by a column vector.
+ *
+ * The vector is an {@code int[]}, {@code long[]}, {@code float[]} or {@code double[]} for the columns with numeric
+ * stored type (where the null rows are tracked in the null bitmap), or an {@code Object[]} holding the stored values
+ * (where the null rows are represented as {@code null}) otherwise. Primitive vectors matching the requested type are
+ * returned without copy, so the returned arrays should not be modified.
+ *
+ * Conversions not covered by the vector are delegated to a {@link RowBasedBlockValSet} over the values.
+ */
+public class ColumnVectorBlockValSet implements BlockValSet {
+  private final ColumnDataType _columnDataType;
+  private final DataType _dataType;
+  private final DataType _storedType;
+  private final Object _vector;
+  private final int _numRows;
+  private final RoaringBitmap _nullBitmap;
+
+  private RowBasedBlockValSet _rowBasedBlockValSet;
+
+  public ColumnVectorBlockValSet(ColumnDataType columnDataType, Object vector, @Nullable RoaringBitmap nullBitmap,
+      int numRows) {
+    _columnDataType = columnDataType;
+    _dataType = columnDataType.toDataType();
+    _storedType = _dataType.getStoredType();
+    _vector = vector;
+    _numRows = numRows;
+    if (vector instanceof Object[]) {
+      _nullBitmap = getRowBasedBlockValSet().getNullBitmap();
+    } else {
+      _nullBitmap = nullBitmap != null && !nullBitmap.isEmpty() ? nullBitmap : null;
+    }
+  }
+
+  private RowBasedBlockValSet getRowBasedBlockValSet() {
+    if (_rowBasedBlockValSet == null) {
+      List<Object[]> rows = new AbstractList<Object[]>() {
+        @Override
+        public Object[] get(int index) {
+          return new Object[]{getValue(index)};
+        }
+
+        @Override
+        public int size() {
+          return _numRows;
+        }
+      };
+      _rowBasedBlockValSet = new RowBasedBlockValSet(_columnDataType, rows, 0, true);
+    }
+    return _rowBasedBlockValSet;
+  }
+
+  @Nullable
+  private Object getValue(int rowId) {
+    if (_vector instanceof Object[]) {
+      return ((Object[]) _vector)[rowId];
+    }
+    if (_nullBitmap != null && _nullBitmap.contains(rowId)) {
+      return null;
+    }
+    if (_vector instanceof int[]) {
+      return ((int[]) _vector)[rowId];
+    } else if (_vector instanceof long[]) {
+      return ((long[]) _vector)[rowId];
+    } else if (_vector instanceof float[]) {
+      return ((float[]) _vector)[rowId];
+    } else {
+      return ((double[]) _vector)[rowId];
+    }
+  }
+
+  @Nullable
+  @Override
+  public RoaringBitmap getNullBitmap() {
+    return _nullBitmap;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _dataType;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public Dictionary getDictionary() {
+    return null;
+  }
+
+  @Override
+  public int[] getDictionaryIdsSV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[] getIntValuesSV() {
+    if (_vector instanceof int[]) {
+      return (int[]) _vector;
+    }
+    int[] values = new int[_numRows];
+    if (_vector instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) _vector, values, _numRows);
+    } else if (_vector instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) _vector, values, _numRows);
+    } else if (_vector instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) _vector, values, _numRows);
+    } else {
+      return getRowBasedBlockValSet().getIntValuesSV();
+    }
+    return values;
+  }
+
+  @Override
+  public long[] getLongValuesSV() {
+    if (_vector instanceof long[]) {
+      return (long[]) _vector;
+    }
+    long[] values = new long[_numRows];
+    if (_vector instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) _vector, values, _numRows);
+    } else if (_vector instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) _vector, values, _numRows);
+    } else if (_vector instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) _vector, values, _numRows);
+    } else {
+      return getRowBasedBlockValSet().getLongValuesSV();
+    }
+    return values;
+  }
+
+  @Override
+  public float[] getFloatValuesSV() {
+    if (_vector instanceof float[]) {
+      return (float[]) _vector;
+    }
+    float[] values = new float[_numRows];
+    if (_vector instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) _vector, values, _numRows);
+    } else if (_vector instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) _vector, values, _numRows);
+    } else if (_vector instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) _vector, values, _numRows);
+    } else {
+      return getRowBasedBlockValSet().getFloatValuesSV();
+    }
+    return values;
+  }
+
+  @Override
+  public double[] getDoubleValuesSV() {
+    if (_vector instanceof double[]) {
+      return (double[]) _vector;
+    }
+    double[] values = new double[_numRows];
+    if (_vector instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) _vector, values, _numRows);
+    } else if (_vector instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) _vector, values, _numRows);
+    } else if (_vector instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) _vector, values, _numRows);
+    } else {
+      return getRowBasedBlockValSet().getDoubleValuesSV();
+    }
+    return values;
+  }
+
+  @Override
+  public BigDecimal[] getBigDecimalValuesSV() {
+    if (_storedType == DataType.BIG_DECIMAL) {
+      Object[] vector = (Object[]) _vector;
+      BigDecimal[] values = new BigDecimal[_numRows];
+      for (int i = 0; i < _numRows; i++) {
+        BigDecimal value = (BigDecimal) vector[i];
+        values[i] = value != null ? value : NullValuePlaceHolder.BIG_DECIMAL;
+      }
+      return values;
+    }
+    return getRowBasedBlockValSet().getBigDecimalValuesSV();
+  }
+
+  @Override
+  public String[] getStringValuesSV() {
+    if (_storedType == DataType.STRING) {
+      Object[] vector = (Object[]) _vector;
+      String[] values = new String[_numRows];
+      for (int i = 0; i < _numRows; i++) {
+        String value = (String) vector[i];
+        values[i] = value != null ? value : NullValuePlaceHolder.STRING;
+      }
+      return values;
+    }
+    return getRowBasedBlockValSet().getStringValuesSV();
+  }
+
+  @Override
+  public byte[][] getBytesValuesSV() {
+    if (_storedType == DataType.BYTES) {
+      Object[] vector = (Object[]) _vector;
+      byte[][] values = new byte[_numRows][];
+      for (int i = 0; i < _numRows; i++) {
+        ByteArray value = (ByteArray) vector[i];
+        values[i] = value != null ? value.getBytes() : NullValuePlaceHolder.BYTES;
+      }
+      return values;
+    }
+    return getRowBasedBlockValSet().getBytesValuesSV();
+  }
+
+  @Override
+  public int[][] getDictionaryIdsMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[][] getIntValuesMV() {
+    return getRowBasedBlockValSet().getIntValuesMV();
+  }
+
+  @Override
+  public long[][] getLongValuesMV() {
+    return getRowBasedBlockValSet().getLongValuesMV();
+  }
+
+  @Override
+  public float[][] getFloatValuesMV() {
+    return getRowBasedBlockValSet().getFloatValuesMV();
+  }
+
+  @Override
+  public double[][] getDoubleValuesMV() {
+    return getRowBasedBlockValSet().getDoubleValuesMV();
+  }
+
+  @Override
+  public String[][] getStringValuesMV() {
+    return getRowBasedBlockValSet().getStringValuesMV();
+  }
+
+  @Override
+  public byte[][][] getBytesValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[] getNumMVEntries() {
+    throw new UnsupportedOperationException();
+  }
+}
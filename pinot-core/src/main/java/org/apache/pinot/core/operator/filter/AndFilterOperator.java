@@ -25,6 +25,7 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.ExplainAttributeBuilder;
 import org.apache.pinot.core.operator.docidsets.AndDocIdSet;
 import org.apache.pinot.core.operator.docidsets.EmptyDocIdSet;
 import org.apache.pinot.core.operator.docidsets.MatchAllDocIdSet;
@@ -40,12 +41,23 @@ public class AndFilterOperator extends BaseFilterOperator {
 
   private final List<BaseFilterOperator> _filterOperators;
   private final Map<String, String> _queryOptions;
+  private final boolean _intersectScansAsBitmap;
 
   public AndFilterOperator(List<BaseFilterOperator> filterOperators, @Nullable Map<String, String> queryOptions,
       int numDocs, boolean nullHandlingEnabled) {
+    this(filterOperators, queryOptions, numDocs, nullHandlingEnabled, false);
+  }
+
+  /**
+   * @param intersectScansAsBitmap Whether to evaluate the scan based children one after another on bitmaps instead of
+   *                               iterating them together document by document, see {@link AndDocIdSet}
+   */
+  public AndFilterOperator(List<BaseFilterOperator> filterOperators, @Nullable Map<String, String> queryOptions,
+      int numDocs, boolean nullHandlingEnabled, boolean intersectScansAsBitmap) {
     super(numDocs, nullHandlingEnabled);
     _filterOperators = filterOperators;
     _queryOptions = queryOptions;
+    _intersectScansAsBitmap = intersectScansAsBitmap;
   }
 
   @Override
@@ -55,7 +67,7 @@ public class AndFilterOperator extends BaseFilterOperator {
     for (BaseFilterOperator filterOperator : _filterOperators) {
       blockDocIdSets.add(filterOperator.getTrues());
     }
-    return new AndDocIdSet(blockDocIdSets, _queryOptions);
+    return new AndDocIdSet(blockDocIdSets, _queryOptions, _intersectScansAsBitmap, _numDocs);
   }
 
   @Override
@@ -118,4 +130,12 @@ public class AndFilterOperator extends BaseFilterOperator {
   public String toExplainString() {
     return EXPLAIN_NAME;
   }
+
+  @Override
+  protected void explainAttributes(ExplainAttributeBuilder attributeBuilder) {
+    super.explainAttributes(attributeBuilder);
+    if (_intersectScansAsBitmap) {
+      attributeBuilder.putBool("intersectScansAsBitmap", true);
+    }
+  }
 }
@@ -19,11 +19,13 @@
 package org.apache.pinot.core.operator.filter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.OptionalInt;
 import org.apache.pinot.common.request.context.predicate.Predicate;
 import org.apache.pinot.common.request.context.predicate.RegexpLikePredicate;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.Estimate;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
@@ -33,6 +35,10 @@ import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
 public class FilterOperatorUtils {
+  // Maximum observed selectivity of the leading scan of an AND for the scans to be intersected as bitmap
+  public static final double BITMAP_INTERSECTION_MAX_SELECTIVITY = 0.1;
+  // Lower bound of the fraction of documents filtered out by a predicate when computing its rank
+  private static final double MIN_FILTERED_FRACTION = 1e-6;
 
   private static Implementation _instance = new DefaultImplementation();
 
@@ -169,7 +175,7 @@ public class FilterOperatorUtils {
         // Return the AND filter operator with re-ordered child filter operators
         reorderAndFilterChildOperators(queryContext, childFilterOperators);
         return new AndFilterOperator(childFilterOperators, queryContext.getQueryOptions(), numDocs,
-            queryContext.isNullHandlingEnabled());
+            queryContext.isNullHandlingEnabled(), shouldIntersectScansAsBitmap(queryContext, childFilterOperators));
       }
     }
 
@@ -264,6 +270,83 @@ public class FilterOperatorUtils {
           return PrioritizedFilterOperator.UNKNOWN_FILTER_PRIORITY;
         }
       });
+      if (queryContext.isAdaptiveFilterReorder()) {
+        reorderScanBasedFilterOperators(filterOperators);
+      }
+    }
+
+    /**
+     * Reorders the scan based filter operators among the positions they occupy based on the selectivity and cost
+     * observed from the previous queries (see {@link FilterSelectivityStats}), so that the predicate filtering out the
+     * most documents per unit of cost is evaluated first. The operators without estimate keep their relative order and
+     * are placed after the ones with estimate.
+     */
+    protected void reorderScanBasedFilterOperators(List<BaseFilterOperator> filterOperators) {
+      int numFilterOperators = filterOperators.size();
+      List<Integer> positions = new ArrayList<>();
+      List<ScanBasedFilterOperator> rankedOperators = new ArrayList<>();
+      List<Estimate> estimates = new ArrayList<>();
+      List<ScanBasedFilterOperator> unrankedOperators = new ArrayList<>();
+      boolean allCostsMeasured = true;
+      for (int i = 0; i < numFilterOperators; i++) {
+        BaseFilterOperator filterOperator = filterOperators.get(i);
+        if (filterOperator instanceof ScanBasedFilterOperator) {
+          positions.add(i);
+          ScanBasedFilterOperator scanBasedFilterOperator = (ScanBasedFilterOperator) filterOperator;
+          Estimate estimate = scanBasedFilterOperator.getEstimate();
+          if (estimate != null) {
+            rankedOperators.add(scanBasedFilterOperator);
+            estimates.add(estimate);
+            allCostsMeasured &= !Double.isNaN(estimate.getCostNsPerDoc());
+          } else {
+            unrankedOperators.add(scanBasedFilterOperator);
+          }
+        }
+      }
+      int numRankedOperators = rankedOperators.size();
+      if (numRankedOperators == 0) {
+        return;
+      }
+      // Rank is the cost per document divided by the fraction of documents filtered out, where the predicate with the
+      // lowest rank should be evaluated first. Fall back to rank only by selectivity when some costs are not measured.
+      double[] ranks = new double[numRankedOperators];
+      Integer[] order = new Integer[numRankedOperators];
+      for (int i = 0; i < numRankedOperators; i++) {
+        Estimate estimate = estimates.get(i);
+        double cost = allCostsMeasured ? estimate.getCostNsPerDoc() : 1.0;
+        ranks[i] = cost / Math.max(1.0 - estimate.getSelectivity(), MIN_FILTERED_FRACTION);
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingDouble(i -> ranks[i]));
+      int index = 0;
+      for (int i : order) {
+        filterOperators.set(positions.get(index++), rankedOperators.get(i));
+      }
+      for (ScanBasedFilterOperator unrankedOperator : unrankedOperators) {
+        filterOperators.set(positions.get(index++), unrankedOperator);
+      }
+    }
+
+    /**
+     * Returns whether the scan based children of the AND should be evaluated one after another on bitmaps instead of
+     * being iterated together document by document. This is decided based on the observed selectivity of the leading
+     * scan, and only applies when the query consumes all the matching documents because document by document iteration
+     * can stop early for selection queries without order-by.
+     */
+    protected boolean shouldIntersectScansAsBitmap(QueryContext queryContext,
+        List<BaseFilterOperator> filterOperators) {
+      if (!queryContext.isAdaptiveFilterReorder()) {
+        return false;
+      }
+      if (queryContext.getAggregationFunctions() == null && queryContext.getOrderByExpressions() == null) {
+        return false;
+      }
+      BaseFilterOperator leadingFilterOperator = filterOperators.get(0);
+      if (!(leadingFilterOperator instanceof ScanBasedFilterOperator)) {
+        return false;
+      }
+      Estimate estimate = ((ScanBasedFilterOperator) leadingFilterOperator).getEstimate();
+      return estimate != null && estimate.getSelectivity() <= BITMAP_INTERSECTION_MAX_SELECTIVITY;
     }
 
     public static int getScanBasedFilterPriority(QueryContext queryContext,
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+
+
+/**
+ * Server level registry of the observed selectivity and cost of the filter predicates, tracked per table and per
+ * (column, predicate type). The statistics are collected by the scan based filters and used to order the children of
+ * the AND filter when adaptive filter reordering is enabled for the query (see
+ * {@link FilterOperatorUtils.DefaultImplementation#reorderAndFilterChildOperators}).
+ * <p>Observations are decayed exponentially over time so that the estimates follow changes in the data and the query
+ * pattern. Selectivity observed for a predicate evaluated after other predicates in an AND is conditional on the
+ * previous predicates, which is the estimate that matters for ordering.
+ */
+public final class FilterSelectivityStats {
+  // Observations lose half of their weight every 10 minutes
+  public static final long DEFAULT_HALF_LIFE_MS = 10 * 60 * 1000L;
+
+  private static final FilterSelectivityStats INSTANCE =
+      new FilterSelectivityStats(DEFAULT_HALF_LIFE_MS, System::currentTimeMillis);
+
+  private final long _halfLifeMs;
+  private final LongSupplier _clock;
+  private final Map<String, Map<String, PredicateStats>> _tableStatsMap = new ConcurrentHashMap<>();
+
+  @VisibleForTesting
+  FilterSelectivityStats(long halfLifeMs, LongSupplier clock) {
+    _halfLifeMs = halfLifeMs;
+    _clock = clock;
+  }
+
+  public static FilterSelectivityStats getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the key of the predicate the statistics are tracked for. Predicates with different values on the same
+   * column and of the same type share the statistics.
+   */
+  public static String getPredicateKey(String column, PredicateEvaluator predicateEvaluator) {
+    return column + ':' + predicateEvaluator.getPredicateType() + ':'
+        + (predicateEvaluator.isDictionaryBased() ? "dict" : "raw");
+  }
+
+  /**
+   * Returns the statistics for the given predicate key of the given table, creating them if not exist.
+   */
+  public PredicateStats getPredicateStats(String tableName, String predicateKey) {
+    return _tableStatsMap.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(predicateKey, k -> new PredicateStats());
+  }
+
+  /**
+   * Removes all the statistics for the given table. Called when the table data manager is shut down, e.g. when the
+   * table is deleted or removed from the server.
+   */
+  public void removeTable(String tableName) {
+    _tableStatsMap.remove(tableName);
+  }
+
+  @VisibleForTesting
+  void clear() {
+    _tableStatsMap.clear();
+  }
+
+  /**
+   * Decayed statistics for a single predicate. All the methods are thread-safe.
+   */
+  public final class PredicateStats {
+    private long _lastUpdateTimeMs;
+    private double _numDocsEvaluated;
+    private double _numDocsMatched;
+    private double _numDocsTimed;
+    private double _timeNs;
+
+    private PredicateStats() {
+    }
+
+    /**
+     * Records an observation of the predicate.
+     *
+     * @param numDocsEvaluated Number of documents the predicate is evaluated on
+     * @param numDocsMatched Number of documents matching the predicate
+     * @param numDocsTimed Number of documents covered by the measured evaluation time
+     * @param timeNs Evaluation time in nanoseconds for the timed documents
+     */
+    public synchronized void record(long numDocsEvaluated, long numDocsMatched, long numDocsTimed, long timeNs) {
+      decay();
+      _numDocsEvaluated += numDocsEvaluated;
+      _numDocsMatched += numDocsMatched;
+      _numDocsTimed += numDocsTimed;
+      _timeNs += timeNs;
+    }
+
+    /**
+     * Returns the current estimate, or {@code null} if there is no observation yet.
+     */
+    @Nullable
+    public synchronized Estimate getEstimate() {
+      decay();
+      if (_numDocsEvaluated < 1) {
+        return null;
+      }
+      double selectivity = Math.min(_numDocsMatched / _numDocsEvaluated, 1.0);
+      double costNsPerDoc = _numDocsTimed >= 1 ? _timeNs / _numDocsTimed : Double.NaN;
+      return new Estimate(selectivity, costNsPerDoc);
+    }
+
+    private void decay() {
+      long currentTimeMs = _clock.getAsLong();
+      long elapsedTimeMs = currentTimeMs - _lastUpdateTimeMs;
+      if (elapsedTimeMs > 0 && _lastUpdateTimeMs > 0) {
+        double factor = Math.pow(0.5, (double) elapsedTimeMs / _halfLifeMs);
+        _numDocsEvaluated *= factor;
+        _numDocsMatched *= factor;
+        _numDocsTimed *= factor;
+        _timeNs *= factor;
+      }
+      _lastUpdateTimeMs = currentTimeMs;
+    }
+  }
+
+  /**
+   * Point in time estimate of the selectivity and cost of a predicate.
+   */
+  public static final class Estimate {
+    private final double _selectivity;
+    private final double _costNsPerDoc;
+
+    public Estimate(double selectivity, double costNsPerDoc) {
+      _selectivity = selectivity;
+      _costNsPerDoc = costNsPerDoc;
+    }
+
+    /**
+     * Returns the fraction of the evaluated documents matching the predicate.
+     */
+    public double getSelectivity() {
+      return _selectivity;
+    }
+
+    /**
+     * Returns the evaluation cost in nanoseconds per document, or {@code NaN} if not measured.
+     */
+    public double getCostNsPerDoc() {
+      return _costNsPerDoc;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("selectivity:%.4f,costNsPerDoc:%.1f", _selectivity, _costNsPerDoc);
+    }
+  }
+}
@@ -22,12 +22,15 @@ import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.ExplainAttributeBuilder;
 import org.apache.pinot.core.operator.docidsets.MVScanDocIdSet;
 import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.Estimate;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.PredicateStats;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
@@ -39,6 +42,9 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
 
   private final PredicateEvaluator _predicateEvaluator;
   private final int _batchSize;
+  // Only tracked for single-value columns when adaptive filter reordering is enabled
+  @Nullable
+  private final PredicateStats _predicateStats;
 
   public ScanBasedFilterOperator(QueryContext queryContext, PredicateEvaluator predicateEvaluator,
       DataSource dataSource, int numDocs) {
@@ -53,13 +59,21 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
         "Forward index disabled for column: %s, scan based filtering not supported!",
         _dataSource.getDataSourceMetadata().getFieldSpec().getName());
     _batchSize = batchSize;
+    DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
+    if (queryContext.isAdaptiveFilterReorder() && dataSourceMetadata.isSingleValue()) {
+      _predicateStats = FilterSelectivityStats.getInstance()
+          .getPredicateStats(queryContext.getTableName(),
+              FilterSelectivityStats.getPredicateKey(dataSourceMetadata.getFieldSpec().getName(), predicateEvaluator));
+    } else {
+      _predicateStats = null;
+    }
   }
 
   @Override
   protected BlockDocIdSet getNextBlockWithoutNullHandling() {
     DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
     if (dataSourceMetadata.isSingleValue()) {
-      return new SVScanDocIdSet(_predicateEvaluator, _dataSource, _numDocs, _batchSize);
+      return new SVScanDocIdSet(_predicateEvaluator, _dataSource, _numDocs, _batchSize, _predicateStats);
     } else {
       return new MVScanDocIdSet(_predicateEvaluator, _dataSource, _numDocs);
     }
@@ -76,6 +90,10 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
     StringBuilder stringBuilder =
         new StringBuilder(EXPLAIN_NAME).append("(operator:").append(_predicateEvaluator.getPredicateType());
     stringBuilder.append(",predicate:").append(_predicateEvaluator.getPredicate().toString());
+    Estimate estimate = getEstimate();
+    if (estimate != null) {
+      stringBuilder.append(',').append(estimate);
+    }
     return stringBuilder.append(')').toString();
   }
 
@@ -89,6 +107,20 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
     super.explainAttributes(attributeBuilder);
     attributeBuilder.putString("operator", _predicateEvaluator.getPredicateType().name());
     attributeBuilder.putString("predicate", _predicateEvaluator.getPredicate().toString());
+    Estimate estimate = getEstimate();
+    if (estimate != null) {
+      attributeBuilder.putString("estimatedSelectivity", String.format("%.4f", estimate.getSelectivity()));
+      attributeBuilder.putString("estimatedCostNsPerDoc", String.format("%.1f", estimate.getCostNsPerDoc()));
+    }
+  }
+
+  /**
+   * Returns the selectivity and cost estimate observed from the previous queries, or {@code null} if adaptive filter
+   * reordering is not enabled or there is no observation yet.
+   */
+  @Nullable
+  public Estimate getEstimate() {
+    return _predicateStats != null ? _predicateStats.getEstimate() : null;
   }
 
   /**
@@ -157,6 +157,8 @@ public class InPredicateEvaluatorFactory {
 
   private static final class DictionaryBasedInPredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
     final IntSet _matchingDictIdSet;
+    long[] _matchingDictIdBitSet;
+    boolean _matchingDictIdBitSetInitialized;
 
     DictionaryBasedInPredicateEvaluator(InPredicate inPredicate, Dictionary dictionary, DataType dataType,
         @Nullable QueryContext queryContext) {
@@ -189,6 +191,10 @@ public class InPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
+      long[] matchingDictIdBitSet = getMatchingDictIdBitSet();
+      if (matchingDictIdBitSet != null) {
+        return DictIdBatchUtils.applyBitSet(limit, docIds, values, matchingDictIdBitSet, false);
+      }
       // reimplemented here to ensure applySV can be inlined
       int matches = 0;
       for (int i = 0; i < limit; i++) {
@@ -199,6 +205,22 @@ public class InPredicateEvaluatorFactory {
       }
       return matches;
     }
+
+    /**
+     * Returns the bit set of the matching dictionary ids for batch evaluation, or {@code null} if the bit set cannot be
+     * used. The bit set is lazily created because it is only used when scanning the forward index. Only immutable
+     * (sorted) dictionaries are supported because mutable dictionaries can grow after the evaluator is created.
+     */
+    @Nullable
+    private long[] getMatchingDictIdBitSet() {
+      if (!_matchingDictIdBitSetInitialized) {
+        if (_dictionary.isSorted()) {
+          _matchingDictIdBitSet = DictIdBatchUtils.toBitSet(_matchingDictIdSet, _dictionary.length());
+        }
+        _matchingDictIdBitSetInitialized = true;
+      }
+      return _matchingDictIdBitSet;
+    }
   }
 
   public static abstract class InRawPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -120,15 +120,7 @@ public class NotEqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return DictIdBatchUtils.applyNotEquals(limit, docIds, values, _nonMatchingDictId);
     }
   }
 
@@ -157,6 +157,8 @@ public class NotInPredicateEvaluatorFactory {
 
   public static final class DictionaryBasedNotInPredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
     final IntSet _nonMatchingDictIdSet;
+    long[] _nonMatchingDictIdBitSet;
+    boolean _nonMatchingDictIdBitSetInitialized;
 
     DictionaryBasedNotInPredicateEvaluator(NotInPredicate notInPredicate, Dictionary dictionary, DataType dataType,
         @Nullable QueryContext queryContext) {
@@ -194,6 +196,10 @@ public class NotInPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
+      long[] nonMatchingDictIdBitSet = getNonMatchingDictIdBitSet();
+      if (nonMatchingDictIdBitSet != null) {
+        return DictIdBatchUtils.applyBitSet(limit, docIds, values, nonMatchingDictIdBitSet, true);
+      }
       // reimplemented here to ensure applySV can be inlined
       int matches = 0;
       for (int i = 0; i < limit; i++) {
@@ -204,6 +210,21 @@ public class NotInPredicateEvaluatorFactory {
       }
       return matches;
     }
+
+    /**
+     * Returns the bit set of the non-matching dictionary ids for batch evaluation, or {@code null} if the bit set
+     * cannot be used. See DictionaryBasedInPredicateEvaluator for details.
+     */
+    @Nullable
+    private long[] getNonMatchingDictIdBitSet() {
+      if (!_nonMatchingDictIdBitSetInitialized) {
+        if (_dictionary.isSorted()) {
+          _nonMatchingDictIdBitSet = DictIdBatchUtils.toBitSet(_nonMatchingDictIdSet, _dictionary.length());
+        }
+        _nonMatchingDictIdBitSetInitialized = true;
+      }
+      return _nonMatchingDictIdBitSet;
+    }
   }
 
   public static abstract class NotInRawPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -223,15 +223,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] dictIds) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int dictId = dictIds[i];
-        if (applySV(dictId)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return DictIdBatchUtils.applyRange(limit, docIds, dictIds, _startDictId, _endDictId);
     }
 
     @Override
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.query.cache.CachedSegmentResults;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * The <code>SegmentResultsCacheOperator</code> class serves the segment level results from the
+ * {@link SegmentResultsCache} when they are cached, or executes the underlying operator and puts its results into the
+ * cache otherwise.
+ */
+@SuppressWarnings("rawtypes")
+public class SegmentResultsCacheOperator extends BaseOperator<BaseResultsBlock> {
+  private static final String EXPLAIN_NAME = "SEGMENT_RESULTS_CACHE";
+
+  private final SegmentResultsCache _cache;
+  private final String _tableNameWithType;
+  private final IndexSegment _indexSegment;
+  private final String _query;
+  private final QueryContext _queryContext;
+  // Either the cached results (cache hit) or the child operator (cache miss) is set
+  @Nullable
+  private final CachedSegmentResults _cachedResults;
+  @Nullable
+  private final Operator<BaseResultsBlock> _childOperator;
+
+  public SegmentResultsCacheOperator(SegmentResultsCache cache, String tableNameWithType, IndexSegment indexSegment,
+      String query, QueryContext queryContext, @Nullable CachedSegmentResults cachedResults,
+      @Nullable Operator<BaseResultsBlock> childOperator) {
+    assert cachedResults != null || childOperator != null;
+    _cache = cache;
+    _tableNameWithType = tableNameWithType;
+    _indexSegment = indexSegment;
+    _query = query;
+    _queryContext = queryContext;
+    _cachedResults = cachedResults;
+    _childOperator = childOperator;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    if (_cachedResults != null) {
+      return _cachedResults.toResultsBlock(_queryContext);
+    }
+    BaseResultsBlock resultsBlock = _childOperator.nextBlock();
+    ExecutionStatistics executionStatistics = _childOperator.getExecutionStatistics();
+    CachedSegmentResults cachedResults =
+        CachedSegmentResults.fromResultsBlock(resultsBlock, executionStatistics.getNumDocsScanned(),
+            executionStatistics.getNumTotalDocs());
+    if (cachedResults != null) {
+      _cache.put(_tableNameWithType, _indexSegment, _query, cachedResults);
+    }
+    return resultsBlock;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return _childOperator != null ? Collections.singletonList(_childOperator) : Collections.emptyList();
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    if (_cachedResults != null) {
+      // Nothing is scanned when serving from the cache, but keep the number of docs scanned so that the segment is
+      // still counted as matched
+      return new ExecutionStatistics(_cachedResults.getNumDocsScanned(), 0, 0, _cachedResults.getNumTotalDocs());
+    }
+    return _childOperator.getExecutionStatistics();
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME + "(hit:" + (_cachedResults != null) + ')';
+  }
+}
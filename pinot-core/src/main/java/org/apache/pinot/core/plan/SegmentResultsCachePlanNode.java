@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.function.Supplier;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.query.SegmentResultsCacheOperator;
+import org.apache.pinot.core.query.cache.CachedSegmentResults;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * The <code>SegmentResultsCachePlanNode</code> class wraps the segment-level plan node when the segment results cache
+ * is enabled. The child plan node is only created and run on a cache miss, so that both planning and execution are
+ * skipped on a cache hit.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentResultsCachePlanNode implements PlanNode {
+  private final Supplier<PlanNode> _childPlanNodeSupplier;
+  private final SegmentResultsCache _cache;
+  private final SegmentContext _segmentContext;
+  private final QueryContext _queryContext;
+  private final String _query;
+
+  public SegmentResultsCachePlanNode(Supplier<PlanNode> childPlanNodeSupplier, SegmentResultsCache cache,
+      SegmentContext segmentContext, QueryContext queryContext, String query) {
+    _childPlanNodeSupplier = childPlanNodeSupplier;
+    _cache = cache;
+    _segmentContext = segmentContext;
+    _queryContext = queryContext;
+    _query = query;
+  }
+
+  @Override
+  public SegmentResultsCacheOperator run() {
+    IndexSegment indexSegment = _segmentContext.getIndexSegment();
+    String tableNameWithType = _queryContext.getTableName();
+    CachedSegmentResults cachedResults = _cache.lookup(tableNameWithType, indexSegment, _query);
+    if (cachedResults != null) {
+      return new SegmentResultsCacheOperator(_cache, tableNameWithType, indexSegment, _query, _queryContext,
+          cachedResults, null);
+    }
+    return new SegmentResultsCacheOperator(_cache, tableNameWithType, indexSegment, _query, _queryContext, null,
+        (Operator<BaseResultsBlock>) _childPlanNodeSupplier.get().run());
+  }
+}
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -43,10 +44,12 @@ import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultsCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
@@ -183,6 +186,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
       ExecutorService executorService, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
 
+    // Segment results cache is only applied to the cacheable queries on immutable segments
+    SegmentResultsCache segmentResultsCache = SegmentResultsCache.get();
+    String cacheableQuery = segmentResultsCache != null ? SegmentResultsCache.getCacheableQuery(queryContext) : null;
+
     int numSegments = segmentContexts.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
     List<FetchContext> fetchContexts;
@@ -192,14 +199,14 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
         FetchContext fetchContext =
             _fetchPlanner.planFetchForProcessing(segmentContext.getIndexSegment(), queryContext);
         fetchContexts.add(fetchContext);
-        planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(segmentContext, queryContext), segmentContext,
-                fetchContext));
+        planNodes.add(new AcquireReleaseColumnsSegmentPlanNode(
+            makeSegmentPlanNode(segmentContext, queryContext, segmentResultsCache, cacheableQuery), segmentContext,
+            fetchContext));
       }
     } else {
       fetchContexts = Collections.emptyList();
       for (SegmentContext segmentContext : segmentContexts) {
-        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext));
+        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext, segmentResultsCache, cacheableQuery));
       }
     }
 
@@ -224,6 +231,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     // Set skipScanFilterReorder
     queryContext.setSkipScanFilterReorder(QueryOptionsUtils.isSkipScanFilterReorder(queryOptions));
 
+    // Set adaptiveFilterReorder
+    queryContext.setAdaptiveFilterReorder(QueryOptionsUtils.isAdaptiveFilterReorder(queryOptions));
+
     queryContext.setSkipIndexes(QueryOptionsUtils.getSkipIndexes(queryOptions));
 
     // Set maxExecutionThreads
@@ -302,6 +312,18 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  private PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext,
+      @Nullable SegmentResultsCache segmentResultsCache, @Nullable String cacheableQuery) {
+    if (cacheableQuery != null && SegmentResultsCache.isCacheableSegment(segmentContext)) {
+      assert segmentResultsCache != null;
+      // Only build the segment plan node on cache miss. Cacheable queries do not have expression override hints, so
+      // building it does not modify the shared query context and can be done lazily from the combine threads.
+      return new SegmentResultsCachePlanNode(() -> makeSegmentPlanNode(segmentContext, queryContext),
+          segmentResultsCache, segmentContext, queryContext, cacheableQuery);
+    }
+    return makeSegmentPlanNode(segmentContext, queryContext);
+  }
+
   @Override
   public PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext) {
     rewriteQueryContextWithHints(queryContext, segmentContext.getIndexSegment());
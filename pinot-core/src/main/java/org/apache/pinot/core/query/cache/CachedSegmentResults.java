@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * Immutable snapshot of the segment level results for aggregation and group-by queries.
+ * <p>The combine operators merge the segment level results in place, so the snapshot only holds immutable values, and
+ * a new results block (with new value arrays) is created for each query served from the cache.
+ */
+public class CachedSegmentResults {
+  // Rough estimation of the object header and reference overhead
+  private static final int OBJECT_OVERHEAD_BYTES = 16;
+
+  // For aggregation: the intermediate results
+  // For group-by: the group keys followed by the intermediate results for each group
+  private final Object[][] _rows;
+  private final boolean _groupBy;
+  @Nullable
+  private final DataSchema _dataSchema;
+  private final long _numDocsScanned;
+  private final long _numTotalDocs;
+  private final boolean _groupsTrimmed;
+  private final boolean _numGroupsLimitReached;
+  private final boolean _numGroupsWarningLimitReached;
+  private final long _sizeInBytes;
+
+  private CachedSegmentResults(Object[][] rows, boolean groupBy, @Nullable DataSchema dataSchema, long numDocsScanned,
+      long numTotalDocs, boolean groupsTrimmed, boolean numGroupsLimitReached, boolean numGroupsWarningLimitReached,
+      long sizeInBytes) {
+    _rows = rows;
+    _groupBy = groupBy;
+    _dataSchema = dataSchema;
+    _numDocsScanned = numDocsScanned;
+    _numTotalDocs = numTotalDocs;
+    _groupsTrimmed = groupsTrimmed;
+    _numGroupsLimitReached = numGroupsLimitReached;
+    _numGroupsWarningLimitReached = numGroupsWarningLimitReached;
+    _sizeInBytes = sizeInBytes;
+  }
+
+  /**
+   * Creates a snapshot from the segment level results block, or returns {@code null} if the results cannot be cached
+   * (unsupported results block, processing exceptions, or mutable intermediate results).
+   */
+  @Nullable
+  public static CachedSegmentResults fromResultsBlock(BaseResultsBlock resultsBlock, long numDocsScanned,
+      long numTotalDocs) {
+    if (resultsBlock.getErrorMessages() != null && !resultsBlock.getErrorMessages().isEmpty()) {
+      return null;
+    }
+    if (resultsBlock instanceof AggregationResultsBlock) {
+      List<Object> results = ((AggregationResultsBlock) resultsBlock).getResults();
+      if (results == null) {
+        return null;
+      }
+      Object[] row = results.toArray();
+      long sizeInBytes = getSizeInBytes(row);
+      if (sizeInBytes < 0) {
+        return null;
+      }
+      return new CachedSegmentResults(new Object[][]{row}, false, null, numDocsScanned, numTotalDocs, false, false,
+          false, sizeInBytes);
+    }
+    if (resultsBlock instanceof GroupByResultsBlock) {
+      GroupByResultsBlock groupByResultsBlock = (GroupByResultsBlock) resultsBlock;
+      DataSchema dataSchema = groupByResultsBlock.getDataSchema();
+      int numColumns = dataSchema.size();
+      List<Object[]> rows = new ArrayList<>();
+      Collection<IntermediateRecord> intermediateRecords = groupByResultsBlock.getIntermediateRecords();
+      if (intermediateRecords != null) {
+        for (IntermediateRecord intermediateRecord : intermediateRecords) {
+          rows.add(intermediateRecord._record.getValues().clone());
+        }
+      } else {
+        AggregationGroupByResult aggregationGroupByResult = groupByResultsBlock.getAggregationGroupByResult();
+        if (aggregationGroupByResult == null) {
+          return null;
+        }
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object[] keys = groupKey._keys;
+          int numKeys = keys.length;
+          Object[] row = Arrays.copyOf(keys, numColumns);
+          for (int i = numKeys; i < numColumns; i++) {
+            row[i] = aggregationGroupByResult.getResultForGroupId(i - numKeys, groupKey._groupId);
+          }
+          rows.add(row);
+        }
+      }
+      long sizeInBytes = OBJECT_OVERHEAD_BYTES;
+      for (Object[] row : rows) {
+        long rowSizeInBytes = getSizeInBytes(row);
+        if (rowSizeInBytes < 0) {
+          return null;
+        }
+        sizeInBytes += rowSizeInBytes;
+      }
+      return new CachedSegmentResults(rows.toArray(new Object[0][]), true, dataSchema, numDocsScanned, numTotalDocs,
+          groupByResultsBlock.isGroupsTrimmed(), groupByResultsBlock.isNumGroupsLimitReached(),
+          groupByResultsBlock.isNumGroupsWarningLimitReached(), sizeInBytes);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the estimated size of the values, or -1 if any of the values is not immutable.
+   */
+  private static long getSizeInBytes(Object[] values) {
+    long sizeInBytes = OBJECT_OVERHEAD_BYTES + 8L * values.length;
+    for (Object value : values) {
+      if (value == null) {
+        continue;
+      }
+      if (value instanceof Integer || value instanceof Long || value instanceof Float || value instanceof Double
+          || value instanceof Boolean) {
+        sizeInBytes += OBJECT_OVERHEAD_BYTES + 8;
+      } else if (value instanceof String) {
+        sizeInBytes += 2 * OBJECT_OVERHEAD_BYTES + 2L * ((String) value).length();
+      } else if (value instanceof BigDecimal) {
+        sizeInBytes += 4 * OBJECT_OVERHEAD_BYTES + ((BigDecimal) value).unscaledValue().bitLength() / 8;
+      } else if (value instanceof ByteArray) {
+        sizeInBytes += 2 * OBJECT_OVERHEAD_BYTES + ((ByteArray) value).length();
+      } else {
+        return -1;
+      }
+    }
+    return sizeInBytes;
+  }
+
+  /**
+   * Creates a new results block for the given query. The returned block can be modified by the caller.
+   */
+  public BaseResultsBlock toResultsBlock(QueryContext queryContext) {
+    if (_groupBy) {
+      assert _dataSchema != null;
+      int numGroupByExpressions = queryContext.getGroupByExpressions().size();
+      List<IntermediateRecord> intermediateRecords = new ArrayList<>(_rows.length);
+      for (Object[] row : _rows) {
+        Object[] values = row.clone();
+        intermediateRecords.add(
+            new IntermediateRecord(new Key(Arrays.copyOf(values, numGroupByExpressions)), new Record(values)));
+      }
+      GroupByResultsBlock resultsBlock = new GroupByResultsBlock(_dataSchema, intermediateRecords, queryContext);
+      resultsBlock.setGroupsTrimmed(_groupsTrimmed);
+      resultsBlock.setNumGroupsLimitReached(_numGroupsLimitReached);
+      resultsBlock.setNumGroupsWarningLimitReached(_numGroupsWarningLimitReached);
+      return resultsBlock;
+    } else {
+      List<Object> results = new ArrayList<>(Arrays.asList(_rows[0]));
+      return new AggregationResultsBlock(queryContext.getAggregationFunctions(), results, queryContext);
+    }
+  }
+
+  public long getNumDocsScanned() {
+    return _numDocsScanned;
+  }
+
+  public long getNumTotalDocs() {
+    return _numTotalDocs;
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+}
@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.Server;
+import org.apache.pinot.spi.utils.DataSizeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Size bounded cache of the segment level results for immutable segments.
+ * <p>Entries are keyed on the table name, segment name, segment CRC and the normalized query (the part of the
+ * {@link QueryContext} that affects the segment level results), and store an immutable snapshot of the results block
+ * produced by the segment (see {@link CachedSegmentResults}).
+ * <p>Only aggregation and group-by queries are cached, and only when all the intermediate results are immutable values
+ * so that they can be safely shared across queries. Segments with valid doc ids (upsert/dedup) are never cached because
+ * their queryable docs change over time.
+ * <p>The cache is disabled by default, and is enabled through the query executor config. Entries are invalidated by the
+ * table data manager when a segment is added, replaced, reloaded or offloaded.
+ */
+public class SegmentResultsCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultsCache.class);
+
+  // Do not cache a single entry which takes more than this fraction of the cache capacity
+  private static final int MAX_ENTRY_SIZE_DIVISOR = 10;
+
+  private static volatile SegmentResultsCache _instance;
+
+  private final Cache<CacheKey, CachedSegmentResults> _cache;
+  // Segment (table name + segment name) to the cached keys, used to invalidate all the entries for a segment
+  private final Map<String, Set<CacheKey>> _segmentKeys = new ConcurrentHashMap<>();
+  private final AtomicLong _sizeBytes = new AtomicLong();
+  private final long _maxSizeBytes;
+  private final long _maxEntrySizeBytes;
+  private final ServerMetrics _serverMetrics;
+
+  @VisibleForTesting
+  SegmentResultsCache(long maxSizeBytes, ServerMetrics serverMetrics) {
+    _maxSizeBytes = maxSizeBytes;
+    _maxEntrySizeBytes = maxSizeBytes / MAX_ENTRY_SIZE_DIVISOR;
+    _serverMetrics = serverMetrics;
+    _cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .weigher((CacheKey key, CachedSegmentResults value) -> (int) getSizeInBytes(key, value))
+        .removalListener(this::onRemoval)
+        .build();
+  }
+
+  /**
+   * Initializes the cache from the query executor config. Should be invoked when the query executor is initialized.
+   */
+  public static void init(PinotConfiguration queryExecutorConfig, ServerMetrics serverMetrics) {
+    if (!queryExecutorConfig.getProperty(Server.SEGMENT_RESULTS_CACHE_ENABLED,
+        Server.DEFAULT_SEGMENT_RESULTS_CACHE_ENABLED)) {
+      _instance = null;
+      return;
+    }
+    long maxSizeBytes = DataSizeUtils.toBytes(queryExecutorConfig.getProperty(Server.SEGMENT_RESULTS_CACHE_MAX_SIZE,
+        Server.DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE));
+    LOGGER.info("Initializing segment results cache with max size: {} bytes", maxSizeBytes);
+    _instance = new SegmentResultsCache(maxSizeBytes, serverMetrics);
+  }
+
+  /**
+   * Returns the segment results cache, or {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static SegmentResultsCache get() {
+    return _instance;
+  }
+
+  /**
+   * Returns the normalized query string used as part of the cache key, or {@code null} if the query is not cacheable.
+   */
+  @Nullable
+  public static String getCacheableQuery(QueryContext queryContext) {
+    // Expression override hints are applied per segment, and are not part of the normalized query
+    if (queryContext.isExplain() || !QueryContextUtils.isAggregationQuery(queryContext)
+        || MapUtils.isNotEmpty(queryContext.getExpressionOverrideHints())) {
+      return null;
+    }
+    Map<String, String> queryOptions = queryContext.getQueryOptions();
+    if (QueryOptionsUtils.isSkipSegmentResultsCache(queryOptions)) {
+      return null;
+    }
+    // Only keep the query options that can affect the segment level results, and sort them to get a stable key
+    Map<String, String> sortedQueryOptions = new TreeMap<>(queryOptions);
+    sortedQueryOptions.keySet().removeIf(SegmentResultsCache::isIrrelevantQueryOption);
+    return "select:" + queryContext.getSelectExpressions() + ",filter:" + queryContext.getFilter() + ",groupBy:"
+        + queryContext.getGroupByExpressions() + ",having:" + queryContext.getHavingFilter() + ",orderBy:"
+        + queryContext.getOrderByExpressions() + ",limit:" + queryContext.getLimit() + ",offset:"
+        + queryContext.getOffset() + ",nullHandling:" + queryContext.isNullHandlingEnabled() + ",options:"
+        + sortedQueryOptions;
+  }
+
+  private static boolean isIrrelevantQueryOption(String key) {
+    switch (key) {
+      case QueryOptionKey.TIMEOUT_MS:
+      case QueryOptionKey.EXTRA_PASSIVE_TIMEOUT_MS:
+      case Broker.Request.TRACE:
+      case QueryOptionKey.CLIENT_QUERY_ID:
+      case QueryOptionKey.APPLICATION_NAME:
+      case QueryOptionKey.WORKLOAD_NAME:
+      case QueryOptionKey.MAX_EXECUTION_THREADS:
+      case QueryOptionKey.MAX_SERVER_RESPONSE_SIZE_BYTES:
+      case QueryOptionKey.MAX_QUERY_RESPONSE_SIZE_BYTES:
+      case QueryOptionKey.SKIP_SEGMENT_RESULTS_CACHE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns whether the results of the given segment can be cached. Only immutable segments without valid doc ids can
+   * be cached because the results of the other segments can change over time.
+   */
+  public static boolean isCacheableSegment(SegmentContext segmentContext) {
+    IndexSegment indexSegment = segmentContext.getIndexSegment();
+    return indexSegment instanceof ImmutableSegment && indexSegment.getValidDocIds() == null
+        && segmentContext.getQueryableDocIdsSnapshot() == null && indexSegment.getSegmentMetadata().getCrc() != null;
+  }
+
+  /**
+   * Looks up the cached results for the given segment and normalized query, and records the hit/miss.
+   */
+  @Nullable
+  public CachedSegmentResults lookup(String tableNameWithType, IndexSegment indexSegment, String query) {
+    CachedSegmentResults cachedResults = _cache.getIfPresent(getKey(tableNameWithType, indexSegment, query));
+    if (cachedResults != null) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULTS_CACHE_HITS, 1L);
+    } else {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULTS_CACHE_MISSES, 1L);
+    }
+    return cachedResults;
+  }
+
+  /**
+   * Puts the results for the given segment and normalized query into the cache. Results that are too large compared to
+   * the cache capacity are not cached.
+   */
+  public void put(String tableNameWithType, IndexSegment indexSegment, String query,
+      CachedSegmentResults cachedResults) {
+    CacheKey key = getKey(tableNameWithType, indexSegment, query);
+    long sizeBytes = getSizeInBytes(key, cachedResults);
+    if (sizeBytes > _maxEntrySizeBytes) {
+      return;
+    }
+    _segmentKeys.computeIfAbsent(key._segmentId, k -> ConcurrentHashMap.newKeySet()).add(key);
+    _sizeBytes.addAndGet(sizeBytes);
+    _cache.put(key, cachedResults);
+    updateSizeGauge();
+  }
+
+  /**
+   * Invalidates all the cached results for the given segment. Should be invoked when the segment is added, replaced,
+   * reloaded or removed.
+   */
+  public void invalidateSegment(String tableNameWithType, String segmentName) {
+    Set<CacheKey> keys = _segmentKeys.remove(getSegmentId(tableNameWithType, segmentName));
+    if (keys != null) {
+      _cache.invalidateAll(keys);
+      updateSizeGauge();
+    }
+  }
+
+  @VisibleForTesting
+  long size() {
+    _cache.cleanUp();
+    return _cache.size();
+  }
+
+  public long getMaxSizeBytes() {
+    return _maxSizeBytes;
+  }
+
+  @VisibleForTesting
+  long getSizeBytes() {
+    return _sizeBytes.get();
+  }
+
+  private void onRemoval(RemovalNotification<CacheKey, CachedSegmentResults> notification) {
+    CacheKey key = notification.getKey();
+    CachedSegmentResults value = notification.getValue();
+    if (key != null && value != null) {
+      _sizeBytes.addAndGet(-getSizeInBytes(key, value));
+    }
+    if (key != null && notification.getCause() != RemovalCause.REPLACED) {
+      _segmentKeys.computeIfPresent(key._segmentId, (k, v) -> {
+        v.remove(key);
+        return v.isEmpty() ? null : v;
+      });
+    }
+    if (notification.getCause() == RemovalCause.SIZE) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULTS_CACHE_EVICTIONS, 1L);
+    }
+  }
+
+  private void updateSizeGauge() {
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_RESULTS_CACHE_SIZE_BYTES, _sizeBytes.get());
+  }
+
+  private static long getSizeInBytes(CacheKey key, CachedSegmentResults value) {
+    return Math.min(Integer.MAX_VALUE, key.getSizeInBytes() + value.getSizeInBytes());
+  }
+
+  private static CacheKey getKey(String tableNameWithType, IndexSegment indexSegment, String query) {
+    return new CacheKey(getSegmentId(tableNameWithType, indexSegment.getSegmentName()),
+        indexSegment.getSegmentMetadata().getCrc(), query);
+  }
+
+  private static String getSegmentId(String tableNameWithType, String segmentName) {
+    return tableNameWithType + '/' + segmentName;
+  }
+
+  private static final class CacheKey {
+    final String _segmentId;
+    final String _crc;
+    final String _query;
+    final int _hashCode;
+
+    CacheKey(String segmentId, String crc, String query) {
+      _segmentId = segmentId;
+      _crc = crc;
+      _query = query;
+      _hashCode = Objects.hash(segmentId, crc, query);
+    }
+
+    long getSizeInBytes() {
+      return 2L * (_segmentId.length() + _crc.length() + _query.length()) + 64;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _hashCode == that._hashCode && _segmentId.equals(that._segmentId) && _crc.equals(that._crc)
+          && _query.equals(that._query);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -111,6 +111,8 @@ public class QueryContext {
   private boolean _skipStarTree;
   // Whether to skip reordering scan filters for the query
   private boolean _skipScanFilterReorder;
+  // Whether to reorder scan filters based on the observed selectivity and cost for the query
+  private boolean _adaptiveFilterReorder;
   // Maximum number of threads used to execute the query
   private int _maxExecutionThreads = Server.DEFAULT_QUERY_EXECUTOR_MAX_EXECUTION_THREADS;
   // The following properties apply to group-by queries
@@ -392,6 +394,14 @@ public class QueryContext {
     _skipScanFilterReorder = skipScanFilterReorder;
   }
 
+  public boolean isAdaptiveFilterReorder() {
+    return _adaptiveFilterReorder;
+  }
+
+  public void setAdaptiveFilterReorder(boolean adaptiveFilterReorder) {
+    _adaptiveFilterReorder = adaptiveFilterReorder;
+  }
+
   public int getMaxExecutionThreads() {
     return _maxExecutionThreads;
   }
@@ -116,4 +116,12 @@ public interface RoutingManager {
    */
   @Nullable
   Set<String> getServingInstances(String tableNameWithType);
+
+  /**
+   * Returns the {@link TableStatistics} for a given table, or {@code null} if the statistics are not available.
+   */
+  @Nullable
+  default TableStatistics getTableStatistics(String tableNameWithType) {
+    return null;
+  }
 }
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.routing;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * Table level statistics aggregated from the segment ZK metadata of a table (with type), used for cost-based query
+ * planning. The statistics are estimations: consuming segments do not have their number of documents in the ZK
+ * metadata, and upsert tables keep the outdated records in the segments.
+ */
+public class TableStatistics {
+  private final String _tableNameWithType;
+  private final long _numRows;
+  private final int _numSegments;
+  private final boolean _primaryKeyUnique;
+  private final long _minTimeMs;
+  private final long _maxTimeMs;
+  private final Map<String, Integer> _numPartitionsMap;
+
+  public TableStatistics(String tableNameWithType, long numRows, int numSegments, boolean primaryKeyUnique,
+      long minTimeMs, long maxTimeMs, Map<String, Integer> numPartitionsMap) {
+    _tableNameWithType = tableNameWithType;
+    _numRows = numRows;
+    _numSegments = numSegments;
+    _primaryKeyUnique = primaryKeyUnique;
+    _minTimeMs = minTimeMs;
+    _maxTimeMs = maxTimeMs;
+    _numPartitionsMap = numPartitionsMap;
+  }
+
+  public String getTableNameWithType() {
+    return _tableNameWithType;
+  }
+
+  /**
+   * Returns the estimated number of rows in the table.
+   */
+  public long getNumRows() {
+    return _numRows;
+  }
+
+  public int getNumSegments() {
+    return _numSegments;
+  }
+
+  /**
+   * Returns {@code true} if the primary key columns in the schema uniquely identify a row (dimension table or upsert
+   * table), {@code false} otherwise.
+   */
+  public boolean isPrimaryKeyUnique() {
+    return _primaryKeyUnique;
+  }
+
+  /**
+   * Returns the min value of the time column in milliseconds since epoch, or -1 if unknown.
+   */
+  public long getMinTimeMs() {
+    return _minTimeMs;
+  }
+
+  /**
+   * Returns the max value of the time column in milliseconds since epoch, or -1 if unknown.
+   */
+  public long getMaxTimeMs() {
+    return _maxTimeMs;
+  }
+
+  /**
+   * Returns the number of partitions for the columns that all the segments are partitioned on.
+   */
+  public Map<String, Integer> getNumPartitionsMap() {
+    return _numPartitionsMap;
+  }
+
+  @Nullable
+  public Integer getNumPartitions(String column) {
+    return _numPartitionsMap.get(column);
+  }
+
+  /**
+   * Merges the statistics of the OFFLINE and REALTIME part of a hybrid table. The number of rows is over-estimated
+   * because the time boundary is not applied.
+   */
+  public static TableStatistics merge(String tableName, TableStatistics offlineStatistics,
+      TableStatistics realtimeStatistics) {
+    Map<String, Integer> numPartitionsMap = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : offlineStatistics._numPartitionsMap.entrySet()) {
+      if (entry.getValue().equals(realtimeStatistics._numPartitionsMap.get(entry.getKey()))) {
+        numPartitionsMap.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return new TableStatistics(tableName, offlineStatistics._numRows + realtimeStatistics._numRows,
+        offlineStatistics._numSegments + realtimeStatistics._numSegments, false,
+        minTime(offlineStatistics._minTimeMs, realtimeStatistics._minTimeMs),
+        Math.max(offlineStatistics._maxTimeMs, realtimeStatistics._maxTimeMs), numPartitionsMap);
+  }
+
+  private static long minTime(long timeMs1, long timeMs2) {
+    if (timeMs1 < 0) {
+      return timeMs2;
+    }
+    if (timeMs2 < 0) {
+      return timeMs1;
+    }
+    return Math.min(timeMs1, timeMs2);
+  }
+
+  @Override
+  public String toString() {
+    return "TableStatistics{" + "_tableNameWithType='" + _tableNameWithType + '\'' + ", _numRows=" + _numRows
+        + ", _numSegments=" + _numSegments + ", _primaryKeyUnique=" + _primaryKeyUnique + ", _minTimeMs=" + _minTimeMs
+        + ", _maxTimeMs=" + _maxTimeMs + ", _numPartitionsMap=" + _numPartitionsMap + '}';
+  }
+}
@@ -26,6 +26,8 @@ import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.DeterministicConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.PrimitiveKeyConcurrentIndexedTable;
+import org.apache.pinot.core.data.table.PrimitiveKeyIndexedTable;
 import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
@@ -192,9 +194,17 @@ public final class GroupByUtils {
           Integer.MAX_VALUE, Integer.MAX_VALUE, initialCapacity, executorService);
     }
     if (numThreads == 1) {
+      if (PrimitiveKeyIndexedTable.isSupported(dataSchema, queryContext)) {
+        return new PrimitiveKeyIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, Integer.MAX_VALUE,
+            Integer.MAX_VALUE, initialCapacity, executorService);
+      }
       return new SimpleIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, Integer.MAX_VALUE,
           Integer.MAX_VALUE, initialCapacity, executorService);
     } else {
+      if (PrimitiveKeyIndexedTable.isSupported(dataSchema, queryContext)) {
+        return new PrimitiveKeyConcurrentIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, initialCapacity, executorService);
+      }
       return new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, initialCapacity,
           executorService);
     }
@@ -205,9 +215,17 @@ public final class GroupByUtils {
       ExecutorService executorService) {
     assert trimThreshold != Integer.MAX_VALUE;
     if (numThreads == 1) {
+      if (PrimitiveKeyIndexedTable.isSupported(dataSchema, queryContext)) {
+        return new PrimitiveKeyIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, trimSize,
+            trimThreshold, initialCapacity, executorService);
+      }
       return new SimpleIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
           initialCapacity, executorService);
     } else {
+      if (PrimitiveKeyIndexedTable.isSupported(dataSchema, queryContext)) {
+        return new PrimitiveKeyConcurrentIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, trimSize,
+            trimThreshold, initialCapacity, executorService);
+      }
       return new ConcurrentIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
           initialCapacity, executorService);
     }
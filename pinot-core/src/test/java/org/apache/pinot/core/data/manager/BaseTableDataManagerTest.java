@@ -38,6 +38,7 @@ import org.apache.pinot.common.utils.fetcher.BaseSegmentFetcher;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
 import org.apache.pinot.core.data.manager.offline.OfflineTableDataManager;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats;
 import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
@@ -639,6 +640,19 @@ public class BaseTableDataManagerTest {
     }
   }
 
+  @Test
+  public void testShutDownRemovesFilterSelectivityStats() {
+    BaseTableDataManager tableDataManager = createTableManager();
+    String predicateKey = STRING_COLUMN + ":EQ:dict";
+    FilterSelectivityStats filterSelectivityStats = FilterSelectivityStats.getInstance();
+    filterSelectivityStats.getPredicateStats(OFFLINE_TABLE_NAME, predicateKey).record(100, 10, 0, 0);
+    assertNotNull(filterSelectivityStats.getPredicateStats(OFFLINE_TABLE_NAME, predicateKey).getEstimate());
+
+    tableDataManager.shutDown();
+    assertNull(filterSelectivityStats.getPredicateStats(OFFLINE_TABLE_NAME, predicateKey).getEstimate());
+    filterSelectivityStats.removeTable(OFFLINE_TABLE_NAME);
+  }
+
   // Has to be public class for the class loader to work.
   public static class FakePinotCrypter implements PinotCrypter {
     private File _origFile;
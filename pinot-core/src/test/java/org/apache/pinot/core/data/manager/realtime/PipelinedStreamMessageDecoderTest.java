@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.data.manager.realtime.PipelinedStreamMessageDecoder.DecodedMessage;
+import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.recordtransformer.RecordTransformer;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamDataDecoder;
+import org.apache.pinot.spi.stream.StreamDataDecoderResult;
+import org.apache.pinot.spi.stream.StreamMessage;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.expectThrows;
+
+
+public class PipelinedStreamMessageDecoderTest {
+  private static final String TABLE_NAME = "testTable_REALTIME";
+  private static final String VALUE_COLUMN = "value";
+  private static final String DOUBLED_VALUE_COLUMN = "doubledValue";
+  // Messages with values ending with 7 fail to decode, and messages with values ending with 13 fail to transform
+  private static final StreamDataDecoder DECODER = message -> {
+    int value = Integer.parseInt(new String((byte[]) message.getValue(), StandardCharsets.UTF_8));
+    if (value % 100 == 7) {
+      return new StreamDataDecoderResult(null, new RuntimeException("Failed to decode: " + value));
+    }
+    GenericRow row = new GenericRow();
+    row.putValue(VALUE_COLUMN, value);
+    return new StreamDataDecoderResult(row, null);
+  };
+  private static final RecordTransformer TRANSFORMER = new RecordTransformer() {
+    @Override
+    public void transform(GenericRow record) {
+      int value = (int) record.getValue(VALUE_COLUMN);
+      if (value % 100 == 13) {
+        throw new IllegalStateException("Failed to transform: " + value);
+      }
+      record.putValue(DOUBLED_VALUE_COLUMN, value * 2);
+    }
+  };
+
+  @Test
+  public void testDecodeInOrder()
+      throws Exception {
+    try (PipelinedStreamMessageDecoder decoder = createDecoder(4)) {
+      for (int numMessages : new int[]{0, 1, 99, 100, 101, 1000, 12345}) {
+        decoder.submit(createMessageBatch(1000, numMessages));
+        for (int i = 0; i < numMessages; i++) {
+          int value = 1000 + i;
+          DecodedMessage decodedMessage = decoder.getDecodedMessage(i);
+          StreamDataDecoderResult decodedRow = decodedMessage.getDecodedRow();
+          if (value % 100 == 7) {
+            assertNotNull(decodedRow.getException());
+            assertNull(decodedRow.getResult());
+          } else if (value % 100 == 13) {
+            assertNull(decodedRow.getException());
+            assertEquals(expectThrows(IllegalStateException.class, decodedMessage::getTransformResult).getMessage(),
+                "Failed to transform: " + value);
+          } else {
+            List<GenericRow> transformedRows = decodedMessage.getTransformResult().getTransformedRows();
+            assertEquals(transformedRows.size(), 1);
+            GenericRow row = transformedRows.get(0);
+            assertEquals(row.getValue(VALUE_COLUMN), value);
+            assertEquals(row.getValue(DOUBLED_VALUE_COLUMN), value * 2);
+          }
+        }
+        decoder.finishBatch(0);
+      }
+    }
+  }
+
+  @Test
+  public void testDiscardPartiallyConsumedBatch()
+      throws Exception {
+    try (PipelinedStreamMessageDecoder decoder = createDecoder(2)) {
+      decoder.submit(createMessageBatch(0, 5000));
+      assertEquals(decoder.getDecodedMessage(0).getTransformResult().getTransformedRows().get(0).getValue(VALUE_COLUMN),
+          0);
+      decoder.finishBatch(0);
+
+      decoder.submit(createMessageBatch(5000, 500));
+      for (int i = 0; i < 500; i += 50) {
+        assertEquals(
+            decoder.getDecodedMessage(i).getTransformResult().getTransformedRows().get(0).getValue(VALUE_COLUMN),
+            5000 + i);
+      }
+      // Submit a new batch without finishing the previous one
+      decoder.submit(createMessageBatch(6000, 500));
+      assertEquals(
+          decoder.getDecodedMessage(0).getTransformResult().getTransformedRows().get(0).getValue(VALUE_COLUMN), 6000);
+    }
+  }
+
+  private static PipelinedStreamMessageDecoder createDecoder(int numThreads) {
+    return new PipelinedStreamMessageDecoder(numThreads, () -> DECODER,
+        () -> new TransformPipeline(TABLE_NAME, List.of(TRANSFORMER)), "testSegment", mock(ServerMetrics.class),
+        TABLE_NAME, TABLE_NAME + "-testTopic-0");
+  }
+
+  private static MessageBatch<byte[]> createMessageBatch(int startValue, int numMessages) {
+    List<StreamMessage<byte[]>> messages = new ArrayList<>(numMessages);
+    for (int i = 0; i < numMessages; i++) {
+      byte[] value = Integer.toString(startValue + i).getBytes(StandardCharsets.UTF_8);
+      messages.add(new StreamMessage<>(value, value.length, null));
+    }
+    return new MessageBatch<>() {
+      @Override
+      public int getMessageCount() {
+        return numMessages;
+      }
+
+      @Override
+      public StreamMessage<byte[]> getStreamMessage(int index) {
+        return messages.get(index);
+      }
+    };
+  }
+}
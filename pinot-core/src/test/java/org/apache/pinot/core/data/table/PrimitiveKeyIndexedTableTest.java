@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.util.GroupByUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class PrimitiveKeyIndexedTableTest {
+  private static final int NUM_RECORDS = 10000;
+  private static final int CARDINALITY = 1000;
+  private static final int INITIAL_CAPACITY = 128;
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private final ExecutorService _executorService = Executors.newCachedThreadPool();
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.LONG),
+        getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1")));
+    assertTrue(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.TIMESTAMP),
+        getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1")));
+    assertTrue(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.INT, ColumnDataType.BOOLEAN),
+        getQueryContext("SELECT d1, d2, SUM(m1) FROM testTable GROUP BY d1, d2")));
+    assertFalse(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.STRING),
+        getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1")));
+    assertFalse(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.INT, ColumnDataType.LONG),
+        getQueryContext("SELECT d1, d2, SUM(m1) FROM testTable GROUP BY d1, d2")));
+    assertFalse(PrimitiveKeyIndexedTable.isSupported(getDataSchema(ColumnDataType.LONG),
+        getQueryContext("SET enableNullHandling = true; SELECT d1, SUM(m1) FROM testTable GROUP BY d1")));
+
+    // Both single threaded and concurrent tables should be specialized
+    DataSchema dataSchema = getDataSchema(ColumnDataType.LONG);
+    QueryContext queryContext = getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1 ORDER BY d1 LIMIT 10");
+    GroupByResultsBlock resultsBlock = new GroupByResultsBlock(dataSchema, List.of(), queryContext);
+    assertTrue(GroupByUtils.createIndexedTableForCombineOperator(resultsBlock, queryContext, 1,
+        _executorService) instanceof PrimitiveKeyIndexedTable);
+    assertTrue(GroupByUtils.createIndexedTableForCombineOperator(resultsBlock, queryContext, 2,
+        _executorService) instanceof PrimitiveKeyConcurrentIndexedTable);
+    queryContext = getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1 LIMIT 10");
+    resultsBlock = new GroupByResultsBlock(dataSchema, List.of(), queryContext);
+    assertTrue(GroupByUtils.createIndexedTableForCombineOperator(resultsBlock, queryContext, 2,
+        _executorService) instanceof PrimitiveKeyConcurrentIndexedTable);
+  }
+
+  @Test(dataProvider = "keyTypes")
+  public void testAgainstSimpleIndexedTable(ColumnDataType[] keyTypes) {
+    String groupBy = keyTypes.length == 1 ? "d1" : "d1, d2";
+    DataSchema dataSchema = getDataSchema(keyTypes);
+
+    // With ORDER BY, the table is trimmed when exceeding the trim threshold
+    QueryContext queryContext = getQueryContext(
+        "SELECT " + groupBy + ", SUM(m1) FROM testTable GROUP BY " + groupBy + " ORDER BY SUM(m1) DESC, " + groupBy
+            + " LIMIT 10");
+    IndexedTable expectedTable =
+        new SimpleIndexedTable(dataSchema, false, queryContext, 10, 100, 200, INITIAL_CAPACITY, _executorService);
+    IndexedTable actualTable =
+        new PrimitiveKeyIndexedTable(dataSchema, false, queryContext, 10, 100, 200, INITIAL_CAPACITY,
+            _executorService);
+    IndexedTable actualConcurrentTable =
+        new PrimitiveKeyConcurrentIndexedTable(dataSchema, false, queryContext, 10, 100, 200, INITIAL_CAPACITY,
+            _executorService);
+    upsertRandomRecords(keyTypes, expectedTable, actualTable, actualConcurrentTable);
+    expectedTable.finish(true, true);
+    actualTable.finish(true, true);
+    actualConcurrentTable.finish(true, true);
+    assertTrue(actualTable.isTrimmed(), ERROR_MESSAGE);
+    assertTrue(actualConcurrentTable.isTrimmed(), ERROR_MESSAGE);
+    assertSameRecords(expectedTable, actualTable);
+    assertSameRecords(expectedTable, actualConcurrentTable);
+
+    // Without ORDER BY, no new group is added after reaching the result size
+    queryContext = getQueryContext("SELECT " + groupBy + ", SUM(m1) FROM testTable GROUP BY " + groupBy + " LIMIT 10");
+    expectedTable = new SimpleIndexedTable(dataSchema, false, queryContext, 10, Integer.MAX_VALUE, Integer.MAX_VALUE,
+        INITIAL_CAPACITY, _executorService);
+    actualTable = new PrimitiveKeyIndexedTable(dataSchema, false, queryContext, 10, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, INITIAL_CAPACITY, _executorService);
+    actualConcurrentTable = new PrimitiveKeyConcurrentIndexedTable(dataSchema, false, queryContext, 10,
+        Integer.MAX_VALUE, Integer.MAX_VALUE, INITIAL_CAPACITY, _executorService);
+    upsertRandomRecords(keyTypes, expectedTable, actualTable, actualConcurrentTable);
+    expectedTable.finish(false, true);
+    actualTable.finish(false, true);
+    actualConcurrentTable.finish(false, true);
+    assertEquals(actualTable.size(), 10, ERROR_MESSAGE);
+    assertEquals(actualConcurrentTable.size(), 10, ERROR_MESSAGE);
+    assertSameRecords(expectedTable, actualTable);
+    assertSameRecords(expectedTable, actualConcurrentTable);
+  }
+
+  @Test(dataProvider = "keyTypes")
+  public void testConcurrentUpsert(ColumnDataType[] keyTypes)
+      throws Exception {
+    String groupBy = keyTypes.length == 1 ? "d1" : "d1, d2";
+    DataSchema dataSchema = getDataSchema(keyTypes);
+    QueryContext queryContext = getQueryContext(
+        "SELECT " + groupBy + ", SUM(m1) FROM testTable GROUP BY " + groupBy + " ORDER BY SUM(m1) DESC, " + groupBy
+            + " LIMIT " + NUM_RECORDS);
+    IndexedTable expectedTable =
+        new SimpleIndexedTable(dataSchema, false, queryContext, NUM_RECORDS, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            INITIAL_CAPACITY, _executorService);
+    IndexedTable actualTable =
+        new PrimitiveKeyConcurrentIndexedTable(dataSchema, false, queryContext, NUM_RECORDS, Integer.MAX_VALUE,
+            Integer.MAX_VALUE, INITIAL_CAPACITY, _executorService);
+    List<Object[]> rows = getRandomRows(keyTypes);
+    for (Object[] row : rows) {
+      expectedTable.upsert(new Record(row.clone()));
+    }
+    int numThreads = 4;
+    List<Future<?>> futures = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      int threadId = i;
+      futures.add(_executorService.submit(() -> {
+        for (int j = threadId; j < NUM_RECORDS; j += numThreads) {
+          actualTable.upsert(new Record(rows.get(j).clone()));
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    expectedTable.finish(true, true);
+    actualTable.finish(true, true);
+    assertSameRecords(expectedTable, actualTable);
+  }
+
+  @DataProvider(name = "keyTypes")
+  public Object[][] keyTypes() {
+    return new Object[][]{
+        new Object[]{new ColumnDataType[]{ColumnDataType.INT}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.LONG}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.FLOAT}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.DOUBLE}},
+        new Object[]{new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.INT}}
+    };
+  }
+
+  private static void upsertRandomRecords(ColumnDataType[] keyTypes, IndexedTable... indexedTables) {
+    for (Object[] values : getRandomRows(keyTypes)) {
+      for (IndexedTable indexedTable : indexedTables) {
+        indexedTable.upsert(new Record(values.clone()));
+      }
+    }
+  }
+
+  private static List<Object[]> getRandomRows(ColumnDataType[] keyTypes) {
+    List<Object[]> rows = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Object[] values = new Object[keyTypes.length + 1];
+      for (int j = 0; j < keyTypes.length; j++) {
+        // Include negative values to cover the sign extension of the packed INT keys
+        int value = RANDOM.nextInt(CARDINALITY) - CARDINALITY / 2;
+        switch (keyTypes[j]) {
+          case INT:
+            values[j] = value;
+            break;
+          case LONG:
+            values[j] = (long) value << 32;
+            break;
+          case FLOAT:
+            values[j] = value + 0.5f;
+            break;
+          case DOUBLE:
+            values[j] = value + 0.5;
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+      values[keyTypes.length] = (double) RANDOM.nextInt(100);
+      rows.add(values);
+    }
+    return rows;
+  }
+
+  private static void assertSameRecords(IndexedTable expectedTable, IndexedTable actualTable) {
+    assertEquals(actualTable.size(), expectedTable.size(), ERROR_MESSAGE);
+    List<Record> expectedRecords = new ArrayList<>(expectedTable.size());
+    expectedTable.iterator().forEachRemaining(expectedRecords::add);
+    List<Record> actualRecords = new ArrayList<>(actualTable.size());
+    actualTable.iterator().forEachRemaining(actualRecords::add);
+    if (expectedTable._hasOrderBy) {
+      assertEquals(actualRecords, expectedRecords, ERROR_MESSAGE);
+    } else {
+      // Without ORDER BY, the selected groups depend on the insertion order, but the aggregated values should match
+      Iterator<Record> iterator = actualRecords.iterator();
+      while (iterator.hasNext()) {
+        Record record = iterator.next();
+        assertTrue(expectedRecords.contains(record), ERROR_MESSAGE);
+      }
+    }
+  }
+
+  private static QueryContext getQueryContext(String query) {
+    return QueryContextConverterUtils.getQueryContext(query);
+  }
+
+  private static DataSchema getDataSchema(ColumnDataType... keyTypes) {
+    int numKeyColumns = keyTypes.length;
+    String[] columnNames = new String[numKeyColumns + 1];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numKeyColumns + 1];
+    for (int i = 0; i < numKeyColumns; i++) {
+      columnNames[i] = "d" + (i + 1);
+      columnDataTypes[i] = keyTypes[i];
+    }
+    columnNames[numKeyColumns] = "sum(m1)";
+    columnDataTypes[numKeyColumns] = ColumnDataType.DOUBLE;
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.NotEqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class ZoneMapBlockFilterTest {
+  private static final ExpressionContext COLUMN = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS = 2500;
+  private static final int NUM_DOCS_PER_BLOCK = 1000;
+
+  // Values are 10 times the doc id, so block i contains values [i * 10000, i * 10000 + 9990]
+  private static ZoneMapIndexReader createZoneMap() {
+    ZoneMapIndexReader zoneMap = mock(ZoneMapIndexReader.class);
+    when(zoneMap.getStoredType()).thenReturn(DataType.LONG);
+    when(zoneMap.getNumDocsPerBlock()).thenReturn(NUM_DOCS_PER_BLOCK);
+    when(zoneMap.getNumBlocks()).thenReturn(3);
+    when(zoneMap.getMinLong(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) * 10000L);
+    when(zoneMap.getMaxLong(anyInt())).thenAnswer(
+        invocation -> Math.min(invocation.<Integer>getArgument(0) * 10000L + 9990L, (NUM_DOCS - 1) * 10L));
+    return zoneMap;
+  }
+
+  private static PredicateEvaluator rangeEvaluator(String lowerBound, String upperBound) {
+    RangePredicate rangePredicate = new RangePredicate(COLUMN, true, lowerBound, true, upperBound, DataType.LONG);
+    return RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(rangePredicate, DataType.LONG);
+  }
+
+  @Test
+  public void testCreate() {
+    ZoneMapIndexReader zoneMap = createZoneMap();
+    PredicateEvaluator rangeEvaluator = rangeEvaluator("10000", "14990");
+    assertNull(ZoneMapBlockFilter.create(rangeEvaluator, null, NUM_DOCS));
+    assertNotNull(ZoneMapBlockFilter.create(rangeEvaluator, zoneMap, NUM_DOCS));
+    // Not applicable to NOT_EQ
+    PredicateEvaluator notEqEvaluator = NotEqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(
+        new NotEqPredicate(COLUMN, "10000"), DataType.LONG);
+    assertNull(ZoneMapBlockFilter.create(notEqEvaluator, zoneMap, NUM_DOCS));
+    // No block can be skipped
+    assertNull(ZoneMapBlockFilter.create(rangeEvaluator("0", "24990"), zoneMap, NUM_DOCS));
+  }
+
+  @Test
+  public void testCandidateBlocks() {
+    ZoneMapIndexReader zoneMap = createZoneMap();
+
+    ZoneMapBlockFilter rangeFilter = ZoneMapBlockFilter.create(rangeEvaluator("10000", "14990"), zoneMap, NUM_DOCS);
+    assertNotNull(rangeFilter);
+    assertEquals(rangeFilter.getNextCandidateDocId(0), 1000);
+    assertEquals(rangeFilter.getNextCandidateDocId(1500), 1500);
+    assertEquals(rangeFilter.getCandidateRangeEnd(1000), 2000);
+    assertEquals(rangeFilter.getNextCandidateDocId(2000), NUM_DOCS);
+    int[] docIds = {5, 999, 1000, 1999, 2000, 2499};
+    assertEquals(rangeFilter.filter(docIds.length, docIds), 2);
+    assertEquals(docIds[0], 1000);
+    assertEquals(docIds[1], 1999);
+
+    EqPredicate eqPredicate = new EqPredicate(COLUMN, "20000");
+    ZoneMapBlockFilter eqFilter = ZoneMapBlockFilter.create(
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(eqPredicate, DataType.LONG), zoneMap, NUM_DOCS);
+    assertNotNull(eqFilter);
+    assertEquals(eqFilter.getNextCandidateDocId(0), 2000);
+    assertEquals(eqFilter.getCandidateRangeEnd(2000), NUM_DOCS);
+
+    // Blocks not covered by the zone map are candidates
+    ZoneMapBlockFilter partialFilter =
+        ZoneMapBlockFilter.create(rangeEvaluator("0", "100"), zoneMap, NUM_DOCS + NUM_DOCS_PER_BLOCK);
+    assertNotNull(partialFilter);
+    assertEquals(partialFilter.getNextCandidateDocId(1000), 3000);
+    assertEquals(partialFilter.getCandidateRangeEnd(3000), NUM_DOCS + NUM_DOCS_PER_BLOCK);
+  }
+
+  @Test
+  public void testSVScanDocIdIterator() {
+    PredicateEvaluator predicateEvaluator = rangeEvaluator("10000", "14990");
+
+    // next() only scans the candidate block
+    SVScanDocIdIterator iterator = new SVScanDocIdIterator(predicateEvaluator, createDataSource(), NUM_DOCS, 256);
+    for (int i = 1000; i < 1500; i++) {
+      assertEquals(iterator.next(), i);
+    }
+    assertEquals(iterator.next(), Constants.EOF);
+    assertEquals(iterator.getNumEntriesScanned(), NUM_DOCS_PER_BLOCK);
+
+    // advance() skips to the candidate block
+    iterator = new SVScanDocIdIterator(predicateEvaluator, createDataSource(), NUM_DOCS, 256);
+    assertEquals(iterator.advance(10), 1000);
+    assertEquals(iterator.advance(1499), 1499);
+    assertEquals(iterator.advance(1500), Constants.EOF);
+
+    // applyAnd() only scans the doc ids within the candidate block
+    iterator = new SVScanDocIdIterator(predicateEvaluator, createDataSource(), NUM_DOCS, 256);
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    docIds.add(0L, NUM_DOCS);
+    MutableRoaringBitmap result = iterator.applyAnd(docIds);
+    assertEquals(result.getCardinality(), 500);
+    assertEquals(result.first(), 1000);
+    assertEquals(result.last(), 1499);
+    assertEquals(iterator.getNumEntriesScanned(), NUM_DOCS_PER_BLOCK);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static DataSource createDataSource() {
+    ForwardIndexReader forwardIndex = mock(ForwardIndexReader.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+    doReturn(false).when(forwardIndex).isDictionaryEncoded();
+    doReturn(DataType.LONG).when(forwardIndex).getStoredType();
+    doReturn(null).when(forwardIndex).createContext();
+    doAnswer(invocation -> invocation.<Integer>getArgument(0) * 10L).when(forwardIndex).getLong(anyInt(), any());
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getCardinality()).thenReturn(-1);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getForwardIndex()).thenReturn(forwardIndex);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    ZoneMapIndexReader zoneMap = createZoneMap();
+    when(dataSource.getIndex(any(IndexType.class))).thenReturn(zoneMap);
+    return dataSource;
+  }
+}
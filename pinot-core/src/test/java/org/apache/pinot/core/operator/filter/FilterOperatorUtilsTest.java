@@ -26,13 +26,17 @@ import java.util.List;
 import java.util.OptionalInt;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.Estimate;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 
@@ -175,6 +179,69 @@ public class FilterOperatorUtilsTest {
         + " should have more priority than filter " + lowerPriorty);
   }
 
+  @Test
+  public void testAdaptiveScanReorder() {
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isAdaptiveFilterReorder()).thenReturn(true);
+    when(queryContext.getAggregationFunctions()).thenReturn(new AggregationFunction[0]);
+    BitmapBasedFilterOperator bitmap = mock(BitmapBasedFilterOperator.class);
+    ScanBasedFilterOperator unselective = mockScanBasedFilterOperator(new Estimate(0.9, 1.0));
+    ScanBasedFilterOperator selective = mockScanBasedFilterOperator(new Estimate(0.05, 1.0));
+    ScanBasedFilterOperator expensive = mockScanBasedFilterOperator(new Estimate(0.05, 100.0));
+    ScanBasedFilterOperator unknown = mockScanBasedFilterOperator(null);
+
+    // Index based filter stays first, scans are ordered by cost over filtered out fraction, unknown ones go last
+    BaseFilterOperator filterOperator = FilterOperatorUtils.getAndFilterOperator(queryContext,
+        Lists.newArrayList(unknown, expensive, unselective, bitmap, selective), NUM_DOCS);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(filterOperator.getChildOperators(), Arrays.asList(bitmap, selective, unselective, expensive, unknown));
+
+    // Without the query option, the original order of the scans is kept
+    filterOperator = FilterOperatorUtils.getAndFilterOperator(QUERY_CONTEXT,
+        Lists.newArrayList(unknown, expensive, unselective, bitmap, selective), NUM_DOCS);
+    assertEquals(filterOperator.getChildOperators(), Arrays.asList(bitmap, unknown, expensive, unselective, selective));
+
+    // Selectivity only when the cost is not measured for all the scans
+    ScanBasedFilterOperator unmeasured = mockScanBasedFilterOperator(new Estimate(0.01, Double.NaN));
+    filterOperator = FilterOperatorUtils.getAndFilterOperator(queryContext,
+        Lists.newArrayList(expensive, unselective, unmeasured), NUM_DOCS);
+    assertEquals(filterOperator.getChildOperators(), Arrays.asList(unmeasured, expensive, unselective));
+  }
+
+  @Test
+  public void testIntersectScansAsBitmap() {
+    FilterOperatorUtils.DefaultImplementation implementation = new FilterOperatorUtils.DefaultImplementation();
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isAdaptiveFilterReorder()).thenReturn(true);
+    when(queryContext.getAggregationFunctions()).thenReturn(new AggregationFunction[0]);
+    ScanBasedFilterOperator selective = mockScanBasedFilterOperator(new Estimate(0.01, 1.0));
+    ScanBasedFilterOperator unselective = mockScanBasedFilterOperator(new Estimate(0.5, 1.0));
+    ScanBasedFilterOperator unknown = mockScanBasedFilterOperator(null);
+    BitmapBasedFilterOperator bitmap = mock(BitmapBasedFilterOperator.class);
+
+    assertTrue(implementation.shouldIntersectScansAsBitmap(queryContext, Arrays.asList(selective, unselective)));
+    assertFalse(implementation.shouldIntersectScansAsBitmap(queryContext, Arrays.asList(unselective, selective)));
+    assertFalse(implementation.shouldIntersectScansAsBitmap(queryContext, Arrays.asList(unknown, selective)));
+    assertFalse(implementation.shouldIntersectScansAsBitmap(queryContext, Arrays.asList(bitmap, selective)));
+    assertFalse(implementation.shouldIntersectScansAsBitmap(QUERY_CONTEXT, Arrays.asList(selective, unselective)));
+
+    // Selection only queries can early terminate
+    QueryContext selectionQueryContext = mock(QueryContext.class);
+    when(selectionQueryContext.isAdaptiveFilterReorder()).thenReturn(true);
+    when(selectionQueryContext.getOrderByExpressions()).thenReturn(null);
+    assertFalse(
+        implementation.shouldIntersectScansAsBitmap(selectionQueryContext, Arrays.asList(selective, unselective)));
+  }
+
+  private static ScanBasedFilterOperator mockScanBasedFilterOperator(Estimate estimate) {
+    ScanBasedFilterOperator scanBasedFilterOperator = mock(ScanBasedFilterOperator.class);
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    when(scanBasedFilterOperator.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(scanBasedFilterOperator.getEstimate()).thenReturn(estimate);
+    return scanBasedFilterOperator;
+  }
+
   private void assertOrder(BaseFilterOperator first, BaseFilterOperator second) {
     BaseFilterOperator filterOperator =
         FilterOperatorUtils.getAndFilterOperator(QUERY_CONTEXT, Lists.newArrayList(second, first), NUM_DOCS);
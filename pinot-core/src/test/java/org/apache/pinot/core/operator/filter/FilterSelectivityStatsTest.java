@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.Estimate;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats.PredicateStats;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class FilterSelectivityStatsTest {
+  private static final long HALF_LIFE_MS = 1000L;
+
+  @Test
+  public void testEstimate() {
+    AtomicLong clock = new AtomicLong(1000L);
+    FilterSelectivityStats stats = new FilterSelectivityStats(HALF_LIFE_MS, clock::get);
+    PredicateStats predicateStats = stats.getPredicateStats("table", "col:EQ:dict");
+    assertSame(stats.getPredicateStats("table", "col:EQ:dict"), predicateStats);
+    assertNotSame(stats.getPredicateStats("otherTable", "col:EQ:dict"), predicateStats);
+    assertNull(predicateStats.getEstimate());
+
+    predicateStats.record(1000, 100, 1000, 5000);
+    Estimate estimate = predicateStats.getEstimate();
+    assertEquals(estimate.getSelectivity(), 0.1, 1e-9);
+    assertEquals(estimate.getCostNsPerDoc(), 5.0, 1e-9);
+
+    // Cost is not measured when no document is timed
+    predicateStats = stats.getPredicateStats("table", "col:RANGE:raw");
+    predicateStats.record(1000, 500, 0, 0);
+    estimate = predicateStats.getEstimate();
+    assertEquals(estimate.getSelectivity(), 0.5, 1e-9);
+    assertTrue(Double.isNaN(estimate.getCostNsPerDoc()));
+
+    stats.removeTable("table");
+    assertNull(stats.getPredicateStats("table", "col:EQ:dict").getEstimate());
+  }
+
+  @Test
+  public void testDecay() {
+    AtomicLong clock = new AtomicLong(1000L);
+    FilterSelectivityStats stats = new FilterSelectivityStats(HALF_LIFE_MS, clock::get);
+    PredicateStats predicateStats = stats.getPredicateStats("table", "col:EQ:dict");
+    predicateStats.record(1000, 1000, 1000, 1000);
+
+    // After one half-life, the old observation has the same weight as a new observation on half of the documents
+    clock.addAndGet(HALF_LIFE_MS);
+    predicateStats.record(500, 0, 500, 500);
+    assertEquals(predicateStats.getEstimate().getSelectivity(), 0.5, 1e-9);
+
+    // Old observations fade away
+    clock.addAndGet(100 * HALF_LIFE_MS);
+    predicateStats.record(1000, 10, 1000, 1000);
+    assertEquals(predicateStats.getEstimate().getSelectivity(), 0.01, 1e-6);
+
+    // All the observations fade away
+    clock.addAndGet(100 * HALF_LIFE_MS);
+    assertNull(predicateStats.getEstimate());
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter.predicate;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.InPredicate;
+import org.apache.pinot.common.request.context.predicate.NotInPredicate;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+public class DictIdBatchUtilsTest {
+  private static final int DICTIONARY_SIZE = 1000;
+  private static final int NUM_DOCS = 10_000;
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testApplyEqualsAndNotEquals() {
+    int[] dictIds = getRandomDictIds();
+    int dictId = RANDOM.nextInt(DICTIONARY_SIZE);
+    int[] docIds = getDocIds();
+    assertMatches(docIds, DictIdBatchUtils.applyEquals(NUM_DOCS, docIds, dictIds, dictId), dictIds,
+        value -> value == dictId);
+    docIds = getDocIds();
+    assertMatches(docIds, DictIdBatchUtils.applyNotEquals(NUM_DOCS, docIds, dictIds, dictId), dictIds,
+        value -> value != dictId);
+  }
+
+  @Test
+  public void testApplyRange() {
+    int[] dictIds = getRandomDictIds();
+    int[][] ranges = {{0, DICTIONARY_SIZE}, {0, 1}, {100, 500}, {999, 1000}, {500, 500}};
+    for (int[] range : ranges) {
+      int[] docIds = getDocIds();
+      assertMatches(docIds, DictIdBatchUtils.applyRange(NUM_DOCS, docIds, dictIds, range[0], range[1]), dictIds,
+          value -> value >= range[0] && value < range[1]);
+    }
+  }
+
+  @Test
+  public void testApplyBitSet() {
+    int[] dictIds = getRandomDictIds();
+    IntSet dictIdSet = new IntOpenHashSet();
+    for (int i = 0; i < 100; i++) {
+      dictIdSet.add(RANDOM.nextInt(DICTIONARY_SIZE));
+    }
+    long[] bitSet = DictIdBatchUtils.toBitSet(dictIdSet, DICTIONARY_SIZE);
+    int[] docIds = getDocIds();
+    assertMatches(docIds, DictIdBatchUtils.applyBitSet(NUM_DOCS, docIds, dictIds, bitSet, false), dictIds,
+        dictIdSet::contains);
+    docIds = getDocIds();
+    assertMatches(docIds, DictIdBatchUtils.applyBitSet(NUM_DOCS, docIds, dictIds, bitSet, true), dictIds,
+        value -> !dictIdSet.contains(value));
+    assertEquals(DictIdBatchUtils.toBitSet(dictIdSet, DictIdBatchUtils.MAX_DICTIONARY_SIZE_FOR_BIT_SET + 1), null);
+  }
+
+  @DataProvider
+  public Object[][] sortedDictionary() {
+    return new Object[][]{{true}, {false}};
+  }
+
+  @Test(dataProvider = "sortedDictionary")
+  public void testInAndNotInEvaluators(boolean sorted) {
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.length()).thenReturn(DICTIONARY_SIZE);
+    when(dictionary.isSorted()).thenReturn(sorted);
+    when(dictionary.indexOf(anyInt())).thenAnswer(invocation -> {
+      int value = invocation.getArgument(0);
+      return value < DICTIONARY_SIZE ? value : -1;
+    });
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      values.add(Integer.toString(RANDOM.nextInt(2 * DICTIONARY_SIZE)));
+    }
+    ExpressionContext lhs = ExpressionContext.forIdentifier("col");
+    PredicateEvaluator inEvaluator =
+        InPredicateEvaluatorFactory.newDictionaryBasedEvaluator(new InPredicate(lhs, values), dictionary, DataType.INT,
+            null);
+    PredicateEvaluator notInEvaluator =
+        NotInPredicateEvaluatorFactory.newDictionaryBasedEvaluator(new NotInPredicate(lhs, values), dictionary,
+            DataType.INT, null);
+
+    int[] dictIds = getRandomDictIds();
+    int[] docIds = getDocIds();
+    assertMatches(docIds, inEvaluator.applySV(NUM_DOCS, docIds, dictIds), dictIds, inEvaluator::applySV);
+    docIds = getDocIds();
+    assertMatches(docIds, notInEvaluator.applySV(NUM_DOCS, docIds, dictIds), dictIds, notInEvaluator::applySV);
+  }
+
+  private static int[] getRandomDictIds() {
+    int[] dictIds = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      dictIds[i] = RANDOM.nextInt(DICTIONARY_SIZE);
+    }
+    return dictIds;
+  }
+
+  private static int[] getDocIds() {
+    int[] docIds = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      docIds[i] = i;
+    }
+    return docIds;
+  }
+
+  private static void assertMatches(int[] docIds, int numMatches, int[] dictIds, IntPredicate predicate) {
+    int expectedNumMatches = 0;
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      if (predicate.test(dictIds[docId])) {
+        assertEquals(docIds[expectedNumMatches++], docId);
+      }
+    }
+    assertEquals(numMatches, expectedNumMatches);
+  }
+}
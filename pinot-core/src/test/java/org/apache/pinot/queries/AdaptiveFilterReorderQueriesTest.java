@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.filter.FilterSelectivityStats;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the adaptive filter reordering, where the scan based filters within AND are ordered based on the
+ * selectivity observed from the previous queries.
+ */
+public class AdaptiveFilterReorderQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "AdaptiveFilterReorderQueriesTest");
+  private static final String RAW_TABLE_NAME = "adaptiveFilterReorderTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 1000;
+  // Value i of the selective column is at doc (i * 143) % 1000 (143 is the modular inverse of 7), where values 0 to 9
+  // are at docs 0, 143, 286, 429, 572, 715, 858, 1, 144, 287, and 5 of them are even
+  private static final long EXPECTED_COUNT = 5L;
+
+  // Half of the values match the predicate
+  private static final String UNSELECTIVE_COLUMN = "unselectiveColumn";
+  // 1% of the values match the predicate, values are shuffled so that the zone map cannot prune the scan
+  private static final String SELECTIVE_COLUMN = "selectiveColumn";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(UNSELECTIVE_COLUMN, DataType.INT)
+      .addSingleValueDimension(SELECTIVE_COLUMN, DataType.INT)
+      .build();
+  private static final String QUERY = "SELECT COUNT(*) FROM " + RAW_TABLE_NAME + " WHERE " + UNSELECTIVE_COLUMN
+      + " = 0 AND " + SELECTIVE_COLUMN + " < 10";
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(UNSELECTIVE_COLUMN, i % 2);
+      record.putValue(SELECTIVE_COLUMN, (i * 7) % NUM_RECORDS);
+      records.add(record);
+    }
+
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setNoDictionaryColumns(List.of(SELECTIVE_COLUMN))
+        .build();
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME),
+        new IndexLoadingConfig(tableConfig, SCHEMA));
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  @Test
+  public void testAdaptiveFilterReorder() {
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME);
+
+    // First query runs with the static order and collects the statistics
+    assertEquals(getAdaptiveOperator().nextBlock().getResults().get(0), EXPECTED_COUNT);
+
+    // Second query evaluates the selective predicate first, and intersects the scans as bitmap: the selective predicate
+    // scans all the documents, then the unselective predicate only scans the 10 matching documents
+    BaseOperator<AggregationResultsBlock> operator = getAdaptiveOperator();
+    assertEquals(operator.nextBlock().getResults().get(0), EXPECTED_COUNT);
+    assertEquals(operator.getExecutionStatistics().getNumEntriesScannedInFilter(), NUM_RECORDS + 10);
+
+    // Without the query option, the static order is kept and more entries are scanned
+    operator = getOperator(QUERY);
+    assertEquals(operator.nextBlock().getResults().get(0), EXPECTED_COUNT);
+    assertTrue(operator.getExecutionStatistics().getNumEntriesScannedInFilter() > NUM_RECORDS + 10);
+
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME);
+  }
+
+  @Test
+  public void testQueryOption() {
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME + "_OFFLINE");
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME);
+    Map<String, String> queryOptions = Map.of(QueryOptionKey.ADAPTIVE_FILTER_REORDER, "true");
+    for (int i = 0; i < 3; i++) {
+      BrokerResponseNative brokerResponse = getBrokerResponse(QUERY, queryOptions);
+      assertEquals(brokerResponse.getResultTable().getRows().get(0)[0], 4 * EXPECTED_COUNT);
+      brokerResponse = getBrokerResponse(QUERY + " AND " + UNSELECTIVE_COLUMN + " <> 1", queryOptions);
+      assertEquals(brokerResponse.getResultTable().getRows().get(0)[0], 4 * EXPECTED_COUNT);
+    }
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME + "_OFFLINE");
+    FilterSelectivityStats.getInstance().removeTable(RAW_TABLE_NAME);
+  }
+
+  @SuppressWarnings("unchecked")
+  private BaseOperator<AggregationResultsBlock> getAdaptiveOperator() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(QUERY);
+    queryContext.setAdaptiveFilterReorder(true);
+    return (BaseOperator<AggregationResultsBlock>) PLAN_MAKER.makeSegmentPlanNode(new SegmentContext(_indexSegment),
+        queryContext).run();
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    _indexSegment.destroy();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+}
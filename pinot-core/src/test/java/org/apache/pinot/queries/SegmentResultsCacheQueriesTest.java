@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.Server;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultsCacheQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentResultsCacheQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final int NUM_RECORDS = 1000;
+  private static final int NUM_GROUPS = 10;
+  private static final String INT_COLUMN = "intColumn";
+  private static final String GROUP_COLUMN = "groupColumn";
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder()
+      .addSingleValueDimension(INT_COLUMN, DataType.INT)
+      .addSingleValueDimension(GROUP_COLUMN, DataType.STRING)
+      .build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(INT_COLUMN, i);
+      record.putValue(GROUP_COLUMN, "group" + i % NUM_GROUPS);
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+
+    SegmentResultsCache.init(new PinotConfiguration(Map.of(Server.SEGMENT_RESULTS_CACHE_ENABLED, "true")),
+        ServerMetrics.get());
+  }
+
+  @Test
+  public void testAggregation() {
+    String query = "SELECT COUNT(*), SUM(intColumn), MAX(intColumn) FROM testTable WHERE intColumn >= 500";
+    SegmentResultsCache.get().invalidateSegment(RAW_TABLE_NAME, SEGMENT_NAME);
+
+    // First query populates the cache
+    BrokerResponseNative firstResponse = getBrokerResponse(query);
+    assertTrue(firstResponse.getNumEntriesScannedPostFilter() > 0);
+
+    // Second query is served from the cache
+    BrokerResponseNative secondResponse = getBrokerResponse(query);
+    assertEquals(secondResponse.getNumEntriesScannedInFilter(), 0);
+    assertEquals(secondResponse.getNumEntriesScannedPostFilter(), 0);
+    assertEquals(secondResponse.getNumDocsScanned(), firstResponse.getNumDocsScanned());
+    assertEquals(secondResponse.getNumSegmentsMatched(), firstResponse.getNumSegmentsMatched());
+    assertEquals(secondResponse.getResultTable().getRows().get(0), firstResponse.getResultTable().getRows().get(0));
+    Object[] row = secondResponse.getResultTable().getRows().get(0);
+    assertEquals(((Number) row[0]).longValue(), 4 * 500L);
+
+    // Query served from the cache again should not be affected by the previous merge
+    assertEquals(getBrokerResponse(query).getResultTable().getRows().get(0), row);
+
+    // Invalidated segment should be re-executed
+    SegmentResultsCache.get().invalidateSegment(RAW_TABLE_NAME, SEGMENT_NAME);
+    assertTrue(getBrokerResponse(query).getNumEntriesScannedPostFilter() > 0);
+  }
+
+  @Test
+  public void testGroupBy() {
+    String query = "SELECT groupColumn, COUNT(*), SUM(intColumn) FROM testTable GROUP BY groupColumn "
+        + "ORDER BY groupColumn LIMIT 100";
+    SegmentResultsCache.get().invalidateSegment(RAW_TABLE_NAME, SEGMENT_NAME);
+
+    BrokerResponseNative firstResponse = getBrokerResponse(query);
+    assertTrue(firstResponse.getNumEntriesScannedPostFilter() > 0);
+    List<Object[]> expectedRows = firstResponse.getResultTable().getRows();
+    assertEquals(expectedRows.size(), NUM_GROUPS);
+
+    for (int i = 0; i < 2; i++) {
+      BrokerResponseNative response = getBrokerResponse(query);
+      assertEquals(response.getNumEntriesScannedPostFilter(), 0);
+      List<Object[]> rows = response.getResultTable().getRows();
+      assertEquals(rows.size(), NUM_GROUPS);
+      for (int j = 0; j < NUM_GROUPS; j++) {
+        assertEquals(rows.get(j), expectedRows.get(j));
+      }
+    }
+  }
+
+  @Test
+  public void testNotCached() {
+    SegmentResultsCache.get().invalidateSegment(RAW_TABLE_NAME, SEGMENT_NAME);
+
+    // AVG has mutable intermediate results
+    String query = "SELECT AVG(intColumn) FROM testTable";
+    getBrokerResponse(query);
+    assertTrue(getBrokerResponse(query).getNumEntriesScannedPostFilter() > 0);
+
+    // Selection query
+    query = "SELECT intColumn FROM testTable ORDER BY intColumn LIMIT 10";
+    getBrokerResponse(query);
+    assertTrue(getBrokerResponse(query).getNumEntriesScannedPostFilter() > 0);
+
+    // Cache explicitly skipped
+    query = "SELECT SUM(intColumn) FROM testTable";
+    Map<String, String> queryOptions = Map.of(QueryOptionKey.SKIP_SEGMENT_RESULTS_CACHE, "true");
+    getBrokerResponse(query, queryOptions);
+    BrokerResponseNative response = getBrokerResponse(query, queryOptions);
+    assertTrue(response.getNumEntriesScannedPostFilter() > 0);
+    assertNotNull(response.getResultTable());
+  }
+
+  @AfterClass
+  public void tearDown() {
+    SegmentResultsCache.init(new PinotConfiguration(), ServerMetrics.get());
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+/**
+ * Queries test for the zone map index, which allows the scan based filter to skip the blocks of documents that cannot
+ * match the predicate.
+ */
+public class ZoneMapIndexQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "ZoneMapIndexQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 1000;
+  private static final int NUM_DOCS_PER_BLOCK = 100;
+
+  private static final String TIME_COLUMN = "timeColumn";
+  private static final String DOUBLE_COLUMN = "doubleColumn";
+  // Same values as the time column, without zone map index
+  private static final String NO_ZONE_MAP_COLUMN = "noZoneMapColumn";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(TIME_COLUMN, DataType.LONG)
+      .addSingleValueDimension(DOUBLE_COLUMN, DataType.DOUBLE)
+      .addSingleValueDimension(NO_ZONE_MAP_COLUMN, DataType.LONG)
+      .build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(TIME_COLUMN, 1_000_000L + i);
+      record.putValue(DOUBLE_COLUMN, -i * 0.5);
+      record.putValue(NO_ZONE_MAP_COLUMN, 1_000_000L + i);
+      records.add(record);
+    }
+
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .addFieldConfig(getFieldConfig(TIME_COLUMN, true))
+        .addFieldConfig(getFieldConfig(DOUBLE_COLUMN, true))
+        .addFieldConfig(getFieldConfig(NO_ZONE_MAP_COLUMN, false))
+        .build();
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME),
+        new IndexLoadingConfig(tableConfig, SCHEMA));
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  private static FieldConfig getFieldConfig(String column, boolean enableZoneMap) {
+    return getFieldConfig(column, enableZoneMap ? NUM_DOCS_PER_BLOCK : 0);
+  }
+
+  /**
+   * Returns the field config with zone map index of the given block size, or without zone map index if the block size
+   * is 0.
+   */
+  private static FieldConfig getFieldConfig(String column, int numDocsPerBlock) {
+    FieldConfig.Builder builder = new FieldConfig.Builder(column).withEncodingType(FieldConfig.EncodingType.RAW);
+    if (numDocsPerBlock > 0) {
+      ObjectNode indexes = JsonUtils.newObjectNode();
+      indexes.set("zonemap", JsonUtils.newObjectNode().put("numDocsPerBlock", numDocsPerBlock));
+      builder.withIndexes(indexes);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testZoneMapIndex() {
+    assertNotNull(_indexSegment.getDataSource(TIME_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap()));
+    assertNotNull(_indexSegment.getDataSource(DOUBLE_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap()));
+    assertNull(_indexSegment.getDataSource(NO_ZONE_MAP_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap()));
+  }
+
+  @Test
+  public void testQueries() {
+    // Range across 2 blocks
+    testQuery(TIME_COLUMN + " BETWEEN 1000250 AND 1000349", 100, 2 * NUM_DOCS_PER_BLOCK);
+    testQuery(NO_ZONE_MAP_COLUMN + " BETWEEN 1000250 AND 1000349", 100, NUM_RECORDS);
+    // Range within a single block
+    testQuery(TIME_COLUMN + " >= 1000990", 10, NUM_DOCS_PER_BLOCK);
+    testQuery(TIME_COLUMN + " < 1000010", 10, NUM_DOCS_PER_BLOCK);
+    // Equality
+    testQuery(TIME_COLUMN + " = 1000500", 1, NUM_DOCS_PER_BLOCK);
+    testQuery(DOUBLE_COLUMN + " = -10.5", 1, NUM_DOCS_PER_BLOCK);
+    // Range on floating point values
+    testQuery(DOUBLE_COLUMN + " > -50", 100, NUM_DOCS_PER_BLOCK);
+    // No block matches
+    testQuery(TIME_COLUMN + " > 2000000", 0, 0);
+    // Zone map is not applied to NOT_EQ
+    testQuery(TIME_COLUMN + " <> 1000500", NUM_RECORDS - 1, NUM_RECORDS);
+    // Combined with another scan based filter
+    testQuery(TIME_COLUMN + " >= 1000900 AND " + DOUBLE_COLUMN + " < -450", 99, 2 * NUM_DOCS_PER_BLOCK);
+  }
+
+  @Test
+  public void testAddZoneMapIndexOnReload()
+      throws Exception {
+    File segmentDir = new File(INDEX_DIR, "reloadedSegment");
+    FileUtils.copyDirectory(new File(INDEX_DIR, SEGMENT_NAME), segmentDir);
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .addFieldConfig(getFieldConfig(TIME_COLUMN, false))
+        .addFieldConfig(getFieldConfig(DOUBLE_COLUMN, true))
+        .addFieldConfig(getFieldConfig(NO_ZONE_MAP_COLUMN, true))
+        .build();
+    ImmutableSegment reloadedSegment = ImmutableSegmentLoader.load(segmentDir, new IndexLoadingConfig(tableConfig,
+        SCHEMA));
+    try {
+      assertNull(reloadedSegment.getDataSource(TIME_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap()));
+      assertNotNull(reloadedSegment.getDataSource(DOUBLE_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap()));
+      ZoneMapIndexReader zoneMap =
+          reloadedSegment.getDataSource(NO_ZONE_MAP_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap());
+      assertNotNull(zoneMap);
+      assertEquals(zoneMap.getNumDocsPerBlock(), NUM_DOCS_PER_BLOCK);
+      assertEquals(zoneMap.getNumBlocks(), NUM_RECORDS / NUM_DOCS_PER_BLOCK);
+      for (int i = 0; i < zoneMap.getNumBlocks(); i++) {
+        assertEquals(zoneMap.getMinLong(i), 1_000_000L + i * NUM_DOCS_PER_BLOCK);
+        assertEquals(zoneMap.getMaxLong(i), 1_000_000L + (i + 1) * NUM_DOCS_PER_BLOCK - 1);
+      }
+    } finally {
+      reloadedSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testRebuildZoneMapIndexOnNumDocsPerBlockChange()
+      throws Exception {
+    File segmentDir = new File(INDEX_DIR, "rebuiltSegment");
+    FileUtils.copyDirectory(new File(INDEX_DIR, SEGMENT_NAME), segmentDir);
+    int newNumDocsPerBlock = 2 * NUM_DOCS_PER_BLOCK;
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .addFieldConfig(getFieldConfig(TIME_COLUMN, newNumDocsPerBlock))
+        .addFieldConfig(getFieldConfig(DOUBLE_COLUMN, true))
+        .addFieldConfig(getFieldConfig(NO_ZONE_MAP_COLUMN, false))
+        .build();
+    ImmutableSegment reloadedSegment = ImmutableSegmentLoader.load(segmentDir, new IndexLoadingConfig(tableConfig,
+        SCHEMA));
+    try {
+      ZoneMapIndexReader zoneMap =
+          reloadedSegment.getDataSource(TIME_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap());
+      assertNotNull(zoneMap);
+      assertEquals(zoneMap.getNumDocsPerBlock(), newNumDocsPerBlock);
+      assertEquals(zoneMap.getNumBlocks(), NUM_RECORDS / newNumDocsPerBlock);
+      for (int i = 0; i < zoneMap.getNumBlocks(); i++) {
+        assertEquals(zoneMap.getMinLong(i), 1_000_000L + i * newNumDocsPerBlock);
+        assertEquals(zoneMap.getMaxLong(i), 1_000_000L + (i + 1) * newNumDocsPerBlock - 1);
+      }
+      // Index with unchanged block size should be kept as is
+      zoneMap = reloadedSegment.getDataSource(DOUBLE_COLUMN, SCHEMA).getIndex(StandardIndexes.zoneMap());
+      assertNotNull(zoneMap);
+      assertEquals(zoneMap.getNumDocsPerBlock(), NUM_DOCS_PER_BLOCK);
+    } finally {
+      reloadedSegment.destroy();
+    }
+  }
+
+  private void testQuery(String filter, long expectedCount, long expectedNumEntriesScannedInFilter) {
+    String query = "SELECT COUNT(*) FROM testTable WHERE " + filter;
+    BaseOperator<AggregationResultsBlock> operator = getOperator(query);
+    AggregationResultsBlock resultsBlock = operator.nextBlock();
+    assertEquals((long) resultsBlock.getResults().get(0), expectedCount, filter);
+    assertEquals(operator.getExecutionStatistics().getNumEntriesScannedInFilter(), expectedNumEntriesScannedInFilter,
+        filter);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    _indexSegment.destroy();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.operator.filter.predicate.DictIdBatchUtils;
+import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the branch based per value evaluation of dictionary based predicates with the branch free batch kernels in
+ * {@link DictIdBatchUtils}, both on dictionary ids unpacked in batches from a {@link FixedBitSVForwardIndexReaderV2}
+ * like the scan based filter does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkDictIdScanFilter {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkDictIdScanFilter");
+  private static final int BATCH_SIZE = BlockDocIdIterator.OPTIMAL_ITERATOR_BATCH_SIZE;
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkDictIdScanFilter.class.getSimpleName());
+    new Runner(opt.build()).run();
+  }
+
+  @Param("10000000")
+  int _numDocs;
+
+  @Param({"100", "100000"})
+  int _cardinality;
+
+  // Percentage of the dictionary ids matched by the RANGE and IN predicates
+  @Param({"10", "50"})
+  int _selectivity;
+
+  private PinotDataBuffer _dataBuffer;
+  private FixedBitSVForwardIndexReaderV2 _reader;
+  private int _eqDictId;
+  private int _rangeEndDictId;
+  private IntSet _inDictIdSet;
+  private long[] _inDictIdBitSet;
+  private int[] _docIds;
+  private int[] _dictIds;
+
+  @Setup(Level.Trial)
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    File indexFile = new File(INDEX_DIR, "index-file");
+    Random random = new Random(42);
+    int numBits = 32 - Integer.numberOfLeadingZeros(_cardinality - 1);
+    try (FixedBitSVForwardIndexWriter indexWriter = new FixedBitSVForwardIndexWriter(indexFile, _numDocs, numBits)) {
+      for (int i = 0; i < _numDocs; i++) {
+        indexWriter.putDictId(random.nextInt(_cardinality));
+      }
+    }
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+    _reader = new FixedBitSVForwardIndexReaderV2(_dataBuffer, _numDocs, numBits);
+
+    _eqDictId = random.nextInt(_cardinality);
+    _rangeEndDictId = Math.max(_cardinality * _selectivity / 100, 1);
+    _inDictIdSet = new IntOpenHashSet();
+    while (_inDictIdSet.size() < _rangeEndDictId) {
+      _inDictIdSet.add(random.nextInt(_cardinality));
+    }
+    _inDictIdBitSet = DictIdBatchUtils.toBitSet(_inDictIdSet, _cardinality);
+    _docIds = new int[BATCH_SIZE];
+    _dictIds = new int[BATCH_SIZE];
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+      throws Exception {
+    _dataBuffer.close();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Benchmark
+  public int eqScalar() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      int matches = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_dictIds[i] == _eqDictId) {
+          _docIds[matches++] = _docIds[i];
+        }
+      }
+      numMatches += matches;
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int eqBatch() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      numMatches += DictIdBatchUtils.applyEquals(limit, _docIds, _dictIds, _eqDictId);
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int rangeScalar() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      int matches = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = _dictIds[i];
+        if (dictId >= 0 && dictId < _rangeEndDictId) {
+          _docIds[matches++] = _docIds[i];
+        }
+      }
+      numMatches += matches;
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int rangeBatch() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      numMatches += DictIdBatchUtils.applyRange(limit, _docIds, _dictIds, 0, _rangeEndDictId);
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int inScalar() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      int matches = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_inDictIdSet.contains(_dictIds[i])) {
+          _docIds[matches++] = _docIds[i];
+        }
+      }
+      numMatches += matches;
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int inBatch() {
+    int numMatches = 0;
+    for (int docId = 0; docId < _numDocs; docId += BATCH_SIZE) {
+      int limit = readBatch(docId);
+      numMatches += DictIdBatchUtils.applyBitSet(limit, _docIds, _dictIds, _inDictIdBitSet, false);
+    }
+    return numMatches;
+  }
+
+  private int readBatch(int firstDocId) {
+    int limit = Math.min(BATCH_SIZE, _numDocs - firstDocId);
+    for (int i = 0; i < limit; i++) {
+      _docIds[i] = firstDocId + i;
+    }
+    _reader.readDictIds(_docIds, limit, _dictIds, null);
+    return limit;
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.segment.local.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkCompressor;
+import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the numeric chunk codecs (frame of reference, delta and delta of delta) with the general purpose codecs on
+ * chunks of LONG values, for both random values and timestamp-like values. The compressed size of each chunk is
+ * printed on setup, so that the compression ratio can be compared alongside the throughput.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BenchmarkNoDictionaryLongNumericCompression {
+
+  // Default raw forward index chunk holds 1000 docs
+  @Param({"1000", "10000", "100000"})
+  private int _numValues;
+
+  @Param({"RANDOM", "TIMESTAMP", "SMALL_RANGE"})
+  private String _distribution;
+
+  @Param({"LZ4", "ZSTANDARD", "FRAME_OF_REFERENCE", "DELTA", "DELTADELTA"})
+  private ChunkCompressionType _compressionType;
+
+  private ByteBuffer _uncompressed;
+  private ByteBuffer _compressed;
+  private ByteBuffer _compressedOutput;
+  private ByteBuffer _decompressedOutput;
+  private ChunkCompressor _compressor;
+  private ChunkDecompressor _decompressor;
+
+  @Setup
+  public void setUp()
+      throws IOException {
+    Random random = new Random(42);
+    _uncompressed = ByteBuffer.allocateDirect(_numValues * Long.BYTES);
+    long timestamp = 1_700_000_000_000L;
+    for (int i = 0; i < _numValues; i++) {
+      switch (_distribution) {
+        case "RANDOM":
+          _uncompressed.putLong(random.nextLong());
+          break;
+        case "TIMESTAMP":
+          // Mostly regular intervals with occasional jitter
+          timestamp += random.nextInt(10) == 0 ? 1000 + random.nextInt(100) : 1000;
+          _uncompressed.putLong(timestamp);
+          break;
+        case "SMALL_RANGE":
+          _uncompressed.putLong(1_000_000L + random.nextInt(10_000));
+          break;
+        default:
+          throw new IllegalStateException("Unsupported distribution: " + _distribution);
+      }
+    }
+    _uncompressed.flip();
+
+    _compressor = ChunkCompressorFactory.getCompressor(_compressionType, true, Long.BYTES);
+    _decompressor = ChunkCompressorFactory.getDecompressor(_compressor.compressionType());
+    int maxCompressedSize = _compressor.maxCompressedSize(_uncompressed.limit());
+    _compressed = ByteBuffer.allocateDirect(maxCompressedSize);
+    _compressedOutput = ByteBuffer.allocateDirect(maxCompressedSize);
+    _decompressedOutput = ByteBuffer.allocateDirect(_uncompressed.limit());
+    int compressedSize = _compressor.compress(_uncompressed.slice(), _compressed);
+    System.out.printf("%s %s %d values: %d bytes compressed to %d bytes%n", _compressionType, _distribution,
+        _numValues, _uncompressed.limit(), compressedSize);
+  }
+
+  @TearDown
+  public void tearDown()
+      throws IOException {
+    _compressor.close();
+    _decompressor.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int compress()
+      throws IOException {
+    _compressedOutput.clear();
+    return _compressor.compress(_uncompressed.slice(), _compressedOutput);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int decompress()
+      throws IOException {
+    _decompressedOutput.clear();
+    return _decompressor.decompress(_compressed.slice(), _decompressedOutput);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkNoDictionaryLongNumericCompression.class.getSimpleName())
+        .build()).run();
+  }
+}
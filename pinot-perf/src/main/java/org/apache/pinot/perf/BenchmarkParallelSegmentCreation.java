@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks building an offline segment over a wide schema, sequentially and with multiple index creation threads.
+ * The schema mixes low/high cardinality dimensions, multi-value dimensions and metrics, with inverted indexes on some
+ * dictionary encoded columns and raw forward indexes on some high cardinality columns.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkParallelSegmentCreation {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "BenchmarkParallelSegmentCreation-" + UUID.randomUUID());
+  private static final int NUM_LOW_CARDINALITY_DIMENSIONS = 40;
+  private static final int NUM_HIGH_CARDINALITY_DIMENSIONS = 20;
+  private static final int NUM_MULTI_VALUE_DIMENSIONS = 10;
+  private static final int NUM_INT_METRICS = 15;
+  private static final int NUM_DOUBLE_METRICS = 15;
+
+  @Param({"1", "2", "4", "8"})
+  private int _numThreads;
+
+  @Param("500000")
+  private int _numRows;
+
+  private Schema _schema;
+  private TableConfig _tableConfig;
+  private List<GenericRow> _rows;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Schema.SchemaBuilder schemaBuilder = new Schema.SchemaBuilder().setSchemaName("wide");
+    List<String> invertedIndexColumns = new ArrayList<>();
+    List<String> noDictionaryColumns = new ArrayList<>();
+    for (int i = 0; i < NUM_LOW_CARDINALITY_DIMENSIONS; i++) {
+      schemaBuilder.addSingleValueDimension("lowCard" + i, DataType.STRING);
+      if (i % 4 == 0) {
+        invertedIndexColumns.add("lowCard" + i);
+      }
+    }
+    for (int i = 0; i < NUM_HIGH_CARDINALITY_DIMENSIONS; i++) {
+      schemaBuilder.addSingleValueDimension("highCard" + i, i % 2 == 0 ? DataType.STRING : DataType.LONG);
+      if (i % 2 == 0) {
+        noDictionaryColumns.add("highCard" + i);
+      }
+    }
+    for (int i = 0; i < NUM_MULTI_VALUE_DIMENSIONS; i++) {
+      schemaBuilder.addMultiValueDimension("mv" + i, DataType.STRING);
+    }
+    for (int i = 0; i < NUM_INT_METRICS; i++) {
+      schemaBuilder.addMetric("intMetric" + i, DataType.INT);
+    }
+    for (int i = 0; i < NUM_DOUBLE_METRICS; i++) {
+      schemaBuilder.addMetric("doubleMetric" + i, DataType.DOUBLE);
+      noDictionaryColumns.add("doubleMetric" + i);
+    }
+    _schema = schemaBuilder.build();
+    _tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("wide")
+        .setInvertedIndexColumns(invertedIndexColumns)
+        .setCreateInvertedIndexDuringSegmentGeneration(true)
+        .setNoDictionaryColumns(noDictionaryColumns)
+        .build();
+
+    SplittableRandom random = new SplittableRandom(42);
+    _rows = new ArrayList<>(_numRows);
+    for (int i = 0; i < _numRows; i++) {
+      GenericRow row = new GenericRow();
+      for (int j = 0; j < NUM_LOW_CARDINALITY_DIMENSIONS; j++) {
+        row.putValue("lowCard" + j, "value-" + random.nextInt(100));
+      }
+      for (int j = 0; j < NUM_HIGH_CARDINALITY_DIMENSIONS; j++) {
+        row.putValue("highCard" + j, j % 2 == 0 ? UUID.randomUUID().toString() : random.nextLong());
+      }
+      for (int j = 0; j < NUM_MULTI_VALUE_DIMENSIONS; j++) {
+        Object[] values = new Object[random.nextInt(1, 5)];
+        for (int k = 0; k < values.length; k++) {
+          values[k] = "tag-" + random.nextInt(1000);
+        }
+        row.putValue("mv" + j, values);
+      }
+      for (int j = 0; j < NUM_INT_METRICS; j++) {
+        row.putValue("intMetric" + j, random.nextInt(10_000));
+      }
+      for (int j = 0; j < NUM_DOUBLE_METRICS; j++) {
+        row.putValue("doubleMetric" + j, random.nextDouble());
+      }
+      _rows.add(row);
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void cleanUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Benchmark
+  public File buildSegment()
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    config.setOutDir(TEMP_DIR.getAbsolutePath());
+    config.setSegmentName("wideSegment");
+    config.setNumIndexCreationThreads(_numThreads);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(_rows));
+    driver.build();
+    return driver.getOutputDirectory();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkParallelSegmentCreation.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.PrimitiveKeyIndexedTable;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.SimpleIndexedTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Compares {@link SimpleIndexedTable} and {@link PrimitiveKeyIndexedTable} for high cardinality group-by on one LONG
+ * column or two INT columns.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkPrimitiveKeyIndexedTable {
+  private static final int NUM_RECORDS = 1_000_000;
+  private static final int INITIAL_CAPACITY = 128;
+  private static final Random RANDOM = new Random();
+
+  @Param({"1000", "100000", "1000000"})
+  private int _cardinality;
+
+  @Param({"LONG", "INT_PAIR"})
+  private String _keyType;
+
+  private QueryContext _queryContext;
+  private DataSchema _dataSchema;
+  private Object[][] _keys;
+  private ExecutorService _executorService;
+
+  @Setup
+  public void setup() {
+    if (_keyType.equals("LONG")) {
+      _queryContext = QueryContextConverterUtils.getQueryContext(
+          "SELECT d1, SUM(m1), MAX(m2) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC LIMIT 1000");
+      _dataSchema = new DataSchema(new String[]{"d1", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+          ColumnDataType.LONG, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+      });
+    } else {
+      _queryContext = QueryContextConverterUtils.getQueryContext(
+          "SELECT d1, d2, SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC LIMIT 1000");
+      _dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+          ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+      });
+    }
+
+    _keys = new Object[NUM_RECORDS][];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      int value = RANDOM.nextInt(_cardinality);
+      if (_keyType.equals("LONG")) {
+        _keys[i] = new Object[]{(long) value * 31};
+      } else {
+        _keys[i] = new Object[]{value % 1000, value / 1000};
+      }
+    }
+
+    _executorService = Executors.newSingleThreadExecutor();
+  }
+
+  @TearDown
+  public void destroy() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int simpleIndexedTable() {
+    return fillTable(new SimpleIndexedTable(_dataSchema, false, _queryContext, Integer.MAX_VALUE, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, INITIAL_CAPACITY, _executorService));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int primitiveKeyIndexedTable() {
+    return fillTable(new PrimitiveKeyIndexedTable(_dataSchema, false, _queryContext, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, Integer.MAX_VALUE, INITIAL_CAPACITY, _executorService));
+  }
+
+  private int fillTable(IndexedTable indexedTable) {
+    int numKeyColumns = _dataSchema.size() - 2;
+    for (Object[] key : _keys) {
+      Object[] values = new Object[numKeyColumns + 2];
+      System.arraycopy(key, 0, values, 0, numKeyColumns);
+      values[numKeyColumns] = 1.0;
+      values[numKeyColumns + 1] = 2.0;
+      indexedTable.upsert(new Record(values));
+    }
+    indexedTable.finish(false);
+    return indexedTable.size();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkPrimitiveKeyIndexedTable.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(1).measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -131,6 +131,17 @@ public class BenchmarkQueriesMSQE extends BaseClusterIntegrationTest {
       + ") \n"
       + "where regexp_like_var('.*a.*', RAW_STRING_COL )";
 
+  public static final String FILTER_TRANSFORM_GROUP_BY_QUERY = "select LOW_CARDINALITY_STRING_COL, \n"
+      + "  sum(RAW_INT_COL * 2), count(*) \n"
+      + "from \n"
+      + "(\n"
+      + "  select LOW_CARDINALITY_STRING_COL, RAW_INT_COL, INT_COL\n"
+      + "  from MyTable \n"
+      + "  limit 1000000\n"
+      + ") \n"
+      + "where INT_COL > RAW_INT_COL \n"
+      + "group by LOW_CARDINALITY_STRING_COL";
+
   private Distribution.DataSupplier _supplier;
 
   @Param("1500000")
@@ -140,10 +151,14 @@ public class BenchmarkQueriesMSQE extends BaseClusterIntegrationTest {
   String _scenario;
 
   @Param({
-      REGEXP_LIKE_CONST_QUERY, REGEXP_LIKE_VAR_QUERY
+      REGEXP_LIKE_CONST_QUERY, REGEXP_LIKE_VAR_QUERY, FILTER_TRANSFORM_GROUP_BY_QUERY
   })
   String _query;
 
+  // Whether the intermediate stage operators process the blocks column by column
+  @Param({"false", "true"})
+  String _useColumnarDataBlocks;
+
   @Setup
   public void setUp()
       throws Exception {
@@ -188,7 +203,8 @@ public class BenchmarkQueriesMSQE extends BaseClusterIntegrationTest {
   public JsonNode query()
       throws Exception {
     JsonNode result =
-        postQuery(_query, ClusterIntegrationTestUtils.getBrokerQueryApiUrl(getBrokerBaseApiUrl(), true), null,
+        postQuery("SET useColumnarDataBlocks=" + _useColumnarDataBlocks + "; " + _query,
+            ClusterIntegrationTestUtils.getBrokerQueryApiUrl(getBrokerBaseApiUrl(), true), null,
             getExtraQueryProperties());
     JsonNode exceptions = result.get("exceptions").get(0);
     if (exceptions != null) {
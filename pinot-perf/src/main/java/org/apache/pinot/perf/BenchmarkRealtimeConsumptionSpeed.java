@@ -20,6 +20,11 @@ package org.apache.pinot.perf;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.integration.tests.BaseClusterIntegrationTest;
 import org.apache.pinot.integration.tests.ClusterIntegrationTestUtils;
@@ -29,7 +34,8 @@ import org.apache.pinot.util.TestUtils;
 
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
- * them.
+ * them. It also reports the bytes allocated by the consuming threads per row and the number of garbage collections
+ * during the consumption, to track the allocation churn of fetching and decoding the messages.
  */
 public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
@@ -77,11 +83,15 @@ public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTes
 
     // Count how many seconds it takes for select count(*) to match with ROW_COUNT
     long startTime = System.currentTimeMillis();
+    long startGcCount = getGcCount();
+    // Allocated bytes of the consuming threads, sampled periodically because the threads exit when the segment commits
+    Map<Long, Long> consumingThreadAllocatedBytes = new HashMap<>();
 
     int pinotRecordCount = -1;
     long timeAfterTimeout = System.currentTimeMillis() + TIMEOUT_MILLIS;
     do {
       Thread.sleep(500L);
+      sampleConsumingThreadAllocatedBytes(consumingThreadAllocatedBytes);
 
       // Run the query
       try {
@@ -100,7 +110,41 @@ public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTes
 
     long endTime = System.currentTimeMillis();
 
+    sampleConsumingThreadAllocatedBytes(consumingThreadAllocatedBytes);
+    long allocatedBytes = consumingThreadAllocatedBytes.values().stream().mapToLong(Long::longValue).sum();
+
     System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
+    System.out.println("Consuming threads allocated " + allocatedBytes + " bytes (" + allocatedBytes / ROW_COUNT
+        + " bytes per row, " + allocatedBytes * 1000 / Math.max(endTime - startTime, 1) + " bytes per second)");
+    System.out.println("Garbage collections during consumption: " + (getGcCount() - startGcCount));
     FileUtils.deleteDirectory(_tempDir);
   }
+
+  /**
+   * Records the bytes allocated so far by each consuming thread, which is named after the consuming segment.
+   */
+  private void sampleConsumingThreadAllocatedBytes(Map<Long, Long> consumingThreadAllocatedBytes) {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      return;
+    }
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    String segmentNamePrefix = getTableName() + "__";
+    for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+      if (threadInfo != null && threadInfo.getThreadName().startsWith(segmentNamePrefix)) {
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadInfo.getThreadId());
+        if (allocatedBytes > 0) {
+          consumingThreadAllocatedBytes.put(threadInfo.getThreadId(), allocatedBytes);
+        }
+      }
+    }
+  }
+
+  private static long getGcCount() {
+    long gcCount = 0;
+    for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(garbageCollectorMXBean.getCollectionCount(), 0);
+    }
+    return gcCount;
+  }
 }
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeInvertedIndex;
+import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Benchmarks the realtime inverted index with one ingestion thread adding doc ids and concurrent query threads reading
+ * the posting lists, against the previous read-write lock based implementation. The write-heavy group has fewer reader
+ * threads than the read-heavy group.
+ */
+@State(Scope.Group)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkRealtimeInvertedIndex {
+  // Number of docs added before each iteration so that the readers start with non-trivial posting lists
+  private static final int NUM_INITIAL_DOCS = 100_000;
+
+  @Param({"lockFree", "readWriteLock"})
+  private String _implementation;
+
+  @Param({"10", "10000"})
+  private int _cardinality;
+
+  private MutableInvertedIndex _invertedIndex;
+  private int _nextDocId;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    _invertedIndex =
+        "lockFree".equals(_implementation) ? new RealtimeInvertedIndex() : new ReadWriteLockInvertedIndex();
+    _nextDocId = 0;
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < NUM_INITIAL_DOCS; i++) {
+      _invertedIndex.add(random.nextInt(_cardinality), _nextDocId++);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadRandom {
+    final SplittableRandom _random = new SplittableRandom();
+  }
+
+  @Benchmark
+  @Group("writeHeavy")
+  @GroupThreads(1)
+  public void writeHeavyAdd(ThreadRandom threadRandom) {
+    add(threadRandom);
+  }
+
+  @Benchmark
+  @Group("writeHeavy")
+  @GroupThreads(1)
+  public MutableRoaringBitmap writeHeavyGetDocIds(ThreadRandom threadRandom) {
+    return getDocIds(threadRandom);
+  }
+
+  @Benchmark
+  @Group("readHeavy")
+  @GroupThreads(1)
+  public void readHeavyAdd(ThreadRandom threadRandom) {
+    add(threadRandom);
+  }
+
+  @Benchmark
+  @Group("readHeavy")
+  @GroupThreads(4)
+  public MutableRoaringBitmap readHeavyGetDocIds(ThreadRandom threadRandom) {
+    return getDocIds(threadRandom);
+  }
+
+  private void add(ThreadRandom threadRandom) {
+    // NOTE: Only one thread adds doc ids within a group, as required by the inverted index
+    _invertedIndex.add(threadRandom._random.nextInt(_cardinality), _nextDocId++);
+  }
+
+  private MutableRoaringBitmap getDocIds(ThreadRandom threadRandom) {
+    return _invertedIndex.getDocIds(threadRandom._random.nextInt(_cardinality));
+  }
+
+  /**
+   * The previous implementation of the realtime inverted index, which guards the posting lists with a read-write lock
+   * and synchronizes on each posting list.
+   */
+  private static class ReadWriteLockInvertedIndex implements MutableInvertedIndex {
+    private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
+    private final ReentrantReadWriteLock.ReadLock _readLock;
+    private final ReentrantReadWriteLock.WriteLock _writeLock;
+
+    ReadWriteLockInvertedIndex() {
+      ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+      _readLock = readWriteLock.readLock();
+      _writeLock = readWriteLock.writeLock();
+    }
+
+    @Override
+    public void add(int dictId, int docId) {
+      if (_bitmaps.size() == dictId) {
+        ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
+        try {
+          _writeLock.lock();
+          _bitmaps.add(bitmap);
+        } finally {
+          _writeLock.unlock();
+        }
+      } else if (_bitmaps.size() > dictId) {
+        _bitmaps.get(dictId).add(docId);
+      } else {
+        // Random dictionary ids might skip some ids, add the missing bitmaps
+        try {
+          _writeLock.lock();
+          while (_bitmaps.size() < dictId) {
+            _bitmaps.add(new ThreadSafeMutableRoaringBitmap());
+          }
+          _bitmaps.add(new ThreadSafeMutableRoaringBitmap(docId));
+        } finally {
+          _writeLock.unlock();
+        }
+      }
+    }
+
+    @Override
+    public MutableRoaringBitmap getDocIds(int dictId) {
+      ThreadSafeMutableRoaringBitmap bitmap;
+      try {
+        _readLock.lock();
+        if (_bitmaps.size() <= dictId) {
+          return new MutableRoaringBitmap();
+        }
+        bitmap = _bitmaps.get(dictId);
+      } finally {
+        _readLock.unlock();
+      }
+      return bitmap.getMutableRoaringBitmap();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkRealtimeInvertedIndex.class.getSimpleName()).build()).run();
+  }
+}
@@ -31,7 +31,7 @@ import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordExtractor;
 import org.apache.pinot.spi.data.readers.RecordExtractorConfig;
 import org.apache.pinot.spi.plugin.PluginManager;
-import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.apache.pinot.spi.stream.ByteBufferMessageDecoder;
 
 
 /**
@@ -39,7 +39,7 @@ import org.apache.pinot.spi.stream.StreamMessageDecoder;
  * NOTE: Do not use schema in the implementation, as schema will be removed from the params
  */
 @NotThreadSafe
-public class SimpleAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
+public class SimpleAvroMessageDecoder implements ByteBufferMessageDecoder {
   private static final String SCHEMA = "schema";
 
   private org.apache.avro.Schema _avroSchema;
@@ -21,7 +21,9 @@ package org.apache.pinot.plugin.inputformat.orc;
 import com.google.common.base.Preconditions;
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,8 +45,11 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.TypeDescription;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 
@@ -65,8 +70,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  *   <li>LIST -> Object[] of the supported types</li> TODO: -> List?
  *   <li>MAP -> Map of the supported types</li>
  * </ul>
+ * <p>Records can also be read in {@link ColumnarBatch}es for primitive fields, and LIST of primitive fields for
+ * multi-value columns. The values are copied from the ORC column vectors into the stored type of the Pinot columns.
  */
-public class ORCRecordReader implements RecordReader {
+public class ORCRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "orc";
 
   private List<String> _orcFields;
@@ -380,6 +387,198 @@ public class ORCRecordReader implements RecordReader {
     }
   }
 
+  @Override
+  public boolean supportsColumnarBatch(Collection<FieldSpec> fieldSpecs) {
+    for (FieldSpec fieldSpec : fieldSpecs) {
+      int fieldId = getIncludedFieldId(fieldSpec.getName());
+      if (fieldId < 0) {
+        // Field not in the ORC file, read as null
+        continue;
+      }
+      TypeDescription fieldType = _orcFieldTypes.get(fieldId);
+      if (!fieldSpec.isSingleValueField()) {
+        if (fieldType.getCategory() != TypeDescription.Category.LIST) {
+          return false;
+        }
+        fieldType = fieldType.getChildren().get(0);
+      }
+      if (!canConvert(fieldType.getCategory(), fieldSpec.getDataType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if the values of the given ORC type can be converted to the given Pinot data type with the
+   * same result as the data type transformation of the extracted value, {@code false} otherwise.
+   */
+  private static boolean canConvert(TypeDescription.Category category, DataType dataType) {
+    switch (category) {
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case DATE:
+        return dataType == DataType.INT || dataType == DataType.LONG || dataType == DataType.FLOAT
+            || dataType == DataType.DOUBLE;
+      case TIMESTAMP:
+        return dataType == DataType.LONG || dataType == DataType.TIMESTAMP;
+      case BOOLEAN:
+        return dataType == DataType.BOOLEAN;
+      case FLOAT:
+      case DOUBLE:
+        return dataType == DataType.FLOAT || dataType == DataType.DOUBLE;
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+        return dataType == DataType.STRING;
+      case BINARY:
+        return dataType == DataType.BYTES;
+      case DECIMAL:
+        return dataType == DataType.BIG_DECIMAL;
+      default:
+        return false;
+    }
+  }
+
+  private int getIncludedFieldId(String field) {
+    int fieldId = _orcFields.indexOf(field);
+    return fieldId >= 0 && _includeOrcFields[fieldId] ? fieldId : -1;
+  }
+
+  @Override
+  public void nextBatch(ColumnarBatch batch)
+      throws IOException {
+    batch.reset();
+    Collection<org.apache.pinot.spi.data.readers.ColumnVector> pinotVectors = batch.getColumnVectors().values();
+    int[] fieldIds = new int[pinotVectors.size()];
+    int index = 0;
+    for (org.apache.pinot.spi.data.readers.ColumnVector pinotVector : pinotVectors) {
+      fieldIds[index++] = getIncludedFieldId(pinotVector.getName());
+    }
+    int capacity = batch.getCapacity();
+    int numRows = 0;
+    while (_hasNext && numRows < capacity) {
+      int numRowsToCopy = Math.min(_rowBatch.size - _nextRowId, capacity - numRows);
+      index = 0;
+      for (org.apache.pinot.spi.data.readers.ColumnVector pinotVector : pinotVectors) {
+        int fieldId = fieldIds[index++];
+        if (fieldId < 0) {
+          for (int i = 0; i < numRowsToCopy; i++) {
+            pinotVector.setNull(numRows + i);
+          }
+        } else {
+          copyValues(pinotVector, numRows, _rowBatch.cols[fieldId], _orcFieldTypes.get(fieldId), _nextRowId,
+              numRowsToCopy);
+        }
+      }
+      numRows += numRowsToCopy;
+      _nextRowId += numRowsToCopy;
+      if (_nextRowId == _rowBatch.size) {
+        _hasNext = _orcRecordReader.nextBatch(_rowBatch);
+        _nextRowId = 0;
+      }
+    }
+    batch.setNumRows(numRows);
+  }
+
+  /**
+   * Copies the values from the ORC column vector into the Pinot column vector. Primitive single values are copied
+   * without boxing.
+   */
+  private void copyValues(org.apache.pinot.spi.data.readers.ColumnVector pinotVector, int pinotRowId,
+      ColumnVector orcVector, TypeDescription fieldType, int orcRowId, int numRows) {
+    String field = pinotVector.getName();
+    DataType dataType = pinotVector.getFieldSpec().getDataType();
+    TypeDescription.Category category = fieldType.getCategory();
+    if (!pinotVector.isSingleValue()) {
+      Object[] pinotValues = pinotVector.getObjectValues();
+      for (int i = 0; i < numRows; i++) {
+        Object[] values = (Object[]) extractValue(field, orcVector, fieldType, orcRowId + i);
+        if (values != null) {
+          for (int j = 0; j < values.length; j++) {
+            values[j] = convertValue(values[j], dataType);
+          }
+          pinotValues[pinotRowId + i] = values;
+        } else {
+          pinotVector.setNull(pinotRowId + i);
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < numRows; i++) {
+      int rowId = orcVector.isRepeating ? 0 : orcRowId + i;
+      int destRowId = pinotRowId + i;
+      if (!orcVector.noNulls && orcVector.isNull[rowId]) {
+        pinotVector.setNull(destRowId);
+        continue;
+      }
+      switch (pinotVector.getStoredType()) {
+        case INT:
+          long intValue = ((LongColumnVector) orcVector).vector[rowId];
+          if (category == TypeDescription.Category.BOOLEAN) {
+            pinotVector.getIntValues()[destRowId] = intValue == 1 ? 1 : 0;
+          } else {
+            pinotVector.getIntValues()[destRowId] = (int) intValue;
+          }
+          break;
+        case LONG:
+          if (category == TypeDescription.Category.TIMESTAMP) {
+            pinotVector.getLongValues()[destRowId] = ((TimestampColumnVector) orcVector).time[rowId];
+          } else {
+            pinotVector.getLongValues()[destRowId] = ((LongColumnVector) orcVector).vector[rowId];
+          }
+          break;
+        case FLOAT:
+          if (orcVector instanceof DoubleColumnVector) {
+            pinotVector.getFloatValues()[destRowId] = (float) ((DoubleColumnVector) orcVector).vector[rowId];
+          } else {
+            pinotVector.getFloatValues()[destRowId] = (float) ((LongColumnVector) orcVector).vector[rowId];
+          }
+          break;
+        case DOUBLE:
+          if (category == TypeDescription.Category.FLOAT) {
+            // Keep the same value as reading the Float first
+            pinotVector.getDoubleValues()[destRowId] = (float) ((DoubleColumnVector) orcVector).vector[rowId];
+          } else if (orcVector instanceof DoubleColumnVector) {
+            pinotVector.getDoubleValues()[destRowId] = ((DoubleColumnVector) orcVector).vector[rowId];
+          } else {
+            pinotVector.getDoubleValues()[destRowId] = ((LongColumnVector) orcVector).vector[rowId];
+          }
+          break;
+        default:
+          pinotVector.getObjectValues()[destRowId] =
+              convertValue(extractSingleValue(field, orcVector, rowId, category), dataType);
+          break;
+      }
+    }
+  }
+
+  /**
+   * Converts the extracted value into the stored type of the given Pinot data type, which is checked with
+   * {@link #canConvert(TypeDescription.Category, DataType)}.
+   */
+  private static Object convertValue(Object value, DataType dataType) {
+    switch (dataType.getStoredType()) {
+      case INT:
+        if (dataType == DataType.BOOLEAN) {
+          return Boolean.parseBoolean((String) value) ? 1 : 0;
+        }
+        return ((Number) value).intValue();
+      case LONG:
+        return ((Number) value).longValue();
+      case FLOAT:
+        return ((Number) value).floatValue();
+      case DOUBLE:
+        return ((Number) value).doubleValue();
+      case BIG_DECIMAL:
+        return new BigDecimal((String) value);
+      default:
+        return value;
+    }
+  }
+
   @Override
   public void rewind()
       throws IOException {
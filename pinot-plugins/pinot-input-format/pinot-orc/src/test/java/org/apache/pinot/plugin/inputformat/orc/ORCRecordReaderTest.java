@@ -18,6 +18,7 @@ package org.apache.pinot.plugin.inputformat.orc;
  * under the License.
  */
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.apache.hadoop.conf.Configuration;
@@ -30,10 +31,16 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
 import org.apache.pinot.spi.data.readers.RecordReader;
+import org.testng.annotations.Test;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class ORCRecordReaderTest extends AbstractRecordReaderTest {
@@ -143,6 +150,22 @@ public class ORCRecordReaderTest extends AbstractRecordReaderTest {
     writer.close();
   }
 
+  @Test
+  public void testColumnarBatch()
+      throws Exception {
+    List<FieldSpec> fieldSpecs = new ArrayList<>(_pinotSchema.getAllFieldSpecs());
+    fieldSpecs.add(new MetricFieldSpec("column_not_in_source", DataType.INT));
+    ORCRecordReader recordReader = (ORCRecordReader) createRecordReader();
+    assertTrue(recordReader.supportsColumnarBatch(fieldSpecs));
+    // Batch size not aligned with the ORC row batch size
+    checkColumnarBatchValues(recordReader, fieldSpecs, _records, 1000);
+    recordReader.rewind();
+    checkColumnarBatchValues(recordReader, fieldSpecs, _records, 3000);
+    // Nested fields cannot be read in batches
+    assertFalse(recordReader.supportsColumnarBatch(List.of(new MetricFieldSpec("extra_field", DataType.INT))));
+    recordReader.close();
+  }
+
   @Override
   protected String getDataFileName() {
     return "data.orc";
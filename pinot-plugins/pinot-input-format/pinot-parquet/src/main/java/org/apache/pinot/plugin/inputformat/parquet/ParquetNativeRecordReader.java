@@ -20,11 +20,18 @@ package org.apache.pinot.plugin.inputformat.parquet;
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
 import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
@@ -33,17 +40,27 @@ import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.util.HadoopInputFile;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 
 
 /**
  * Record reader for Native Parquet file.
+ * <p>Records can also be read in {@link ColumnarBatch}es for top-level primitive fields that are not repeated. The
+ * values are read directly from the Parquet column readers into the stored type of the Pinot columns, without
+ * assembling the {@link Group}s.
  */
-public class ParquetNativeRecordReader implements RecordReader {
+public class ParquetNativeRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "parquet";
 
   private Path _dataFilePath;
@@ -57,6 +74,8 @@ public class ParquetNativeRecordReader implements RecordReader {
   private int _currentPageIdx;
   private Configuration _hadoopConf;
   private ParquetReadOptions _parquetReadOptions;
+  // Column readers for the current row group, created on the first batch read
+  private Map<String, ColumnReader> _columnReaders;
 
   @Override
   public void init(File dataFile, @Nullable Set<String> fieldsToRead, @Nullable RecordReaderConfig recordReaderConfig)
@@ -82,10 +101,11 @@ public class ParquetNativeRecordReader implements RecordReader {
     // If the parquet file is initially empty, then we cannot set up the _pageRecordReader.
     // It's expected a user would always call init() -> hasNext() -> next().
     // Without this, an empty parquet file will fail to init.
-    if (_pageReadStore != null) {
-      _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
-      _currentPageIdx = 0;
-    }
+    // NOTE: The record reader and the column readers are created lazily because they consume the pages of the row
+    //       group, so only one of them can be used for a row group.
+    _parquetRecordReader = null;
+    _columnReaders = null;
+    _currentPageIdx = 0;
   }
 
   @Override
@@ -99,12 +119,10 @@ public class ParquetNativeRecordReader implements RecordReader {
       return true;
     }
     try {
-      _pageReadStore = _parquetFileReader.readNextRowGroup();
-      _currentPageIdx = 0;
+      init();
       if (_pageReadStore == null) {
         return false;
       }
-      _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -114,12 +132,202 @@ public class ParquetNativeRecordReader implements RecordReader {
   @Override
   public GenericRow next(GenericRow reuse)
       throws IOException {
+    if (_parquetRecordReader == null) {
+      _parquetRecordReader = _columnIO.getRecordReader(_pageReadStore, new GroupRecordConverter(_schema));
+    }
     _nextRecord = _parquetRecordReader.read();
     _recordExtractor.extract(_nextRecord, reuse);
     _currentPageIdx++;
     return reuse;
   }
 
+  @Override
+  public boolean supportsColumnarBatch(Collection<FieldSpec> fieldSpecs) {
+    for (FieldSpec fieldSpec : fieldSpecs) {
+      String field = fieldSpec.getName();
+      if (!_schema.containsField(field)) {
+        // Field not in the Parquet file, read as null
+        continue;
+      }
+      Type fieldType = _schema.getType(field);
+      if (!fieldSpec.isSingleValueField() || !fieldType.isPrimitive() || fieldType.isRepetition(
+          Type.Repetition.REPEATED) || !canConvert(fieldType.asPrimitiveType(), fieldSpec.getDataType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if the values of the given Parquet type can be converted to the given Pinot data type with
+   * the same result as the data type transformation of the extracted value, {@code false} otherwise.
+   */
+  private static boolean canConvert(PrimitiveType primitiveType, DataType dataType) {
+    boolean isDecimal =
+        primitiveType.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+    switch (primitiveType.getPrimitiveTypeName()) {
+      case INT32:
+      case INT64:
+        if (isDecimal) {
+          return dataType == DataType.BIG_DECIMAL;
+        }
+        return dataType == DataType.INT || dataType == DataType.LONG || dataType == DataType.FLOAT
+            || dataType == DataType.DOUBLE;
+      case FLOAT:
+      case DOUBLE:
+        return dataType == DataType.FLOAT || dataType == DataType.DOUBLE;
+      case BOOLEAN:
+        return dataType == DataType.BOOLEAN;
+      case INT96:
+        return dataType == DataType.LONG || dataType == DataType.TIMESTAMP;
+      case BINARY:
+      case FIXED_LEN_BYTE_ARRAY:
+        if (isDecimal) {
+          return dataType == DataType.BIG_DECIMAL;
+        }
+        LogicalTypeAnnotation logicalTypeAnnotation = primitiveType.getLogicalTypeAnnotation();
+        if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation
+            || logicalTypeAnnotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation) {
+          return dataType == DataType.STRING;
+        }
+        return dataType == DataType.BYTES;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public void nextBatch(ColumnarBatch batch)
+      throws IOException {
+    batch.reset();
+    int capacity = batch.getCapacity();
+    int numRows = 0;
+    while (numRows < capacity && hasNext()) {
+      if (_columnReaders == null) {
+        ColumnReadStoreImpl columnReadStore =
+            new ColumnReadStoreImpl(_pageReadStore, new GroupRecordConverter(_schema).getRootConverter(), _schema,
+                _parquetFileReader.getFooter().getFileMetaData().getCreatedBy());
+        _columnReaders = new HashMap<>();
+        for (ColumnVector columnVector : batch.getColumnVectors().values()) {
+          String field = columnVector.getName();
+          if (_schema.containsField(field)) {
+            ColumnDescriptor descriptor = _schema.getColumnDescription(new String[]{field});
+            _columnReaders.put(field, columnReadStore.getColumnReader(descriptor));
+          }
+        }
+      }
+      int numRowsToRead = (int) Math.min(_pageReadStore.getRowCount() - _currentPageIdx, capacity - numRows);
+      for (ColumnVector columnVector : batch.getColumnVectors().values()) {
+        ColumnReader columnReader = _columnReaders.get(columnVector.getName());
+        if (columnReader == null) {
+          for (int i = 0; i < numRowsToRead; i++) {
+            columnVector.setNull(numRows + i);
+          }
+        } else {
+          readValues(columnReader, columnVector, numRows, numRowsToRead);
+        }
+      }
+      numRows += numRowsToRead;
+      _currentPageIdx += numRowsToRead;
+    }
+    batch.setNumRows(numRows);
+  }
+
+  /**
+   * Reads the values of a top-level non-repeated primitive column, where each row has exactly one (possibly null)
+   * value. Primitive values are read without boxing.
+   */
+  private void readValues(ColumnReader columnReader, ColumnVector columnVector, int startRowId, int numRows) {
+    ColumnDescriptor descriptor = columnReader.getDescriptor();
+    PrimitiveType primitiveType = descriptor.getPrimitiveType();
+    LogicalTypeAnnotation logicalTypeAnnotation = primitiveType.getLogicalTypeAnnotation();
+    PrimitiveType.PrimitiveTypeName primitiveTypeName = primitiveType.getPrimitiveTypeName();
+    int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+    for (int i = 0; i < numRows; i++) {
+      int rowId = startRowId + i;
+      if (columnReader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+        columnVector.setNull(rowId);
+        columnReader.consume();
+        continue;
+      }
+      switch (columnVector.getStoredType()) {
+        case INT:
+          if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.BOOLEAN) {
+            columnVector.getIntValues()[rowId] = columnReader.getBoolean() ? 1 : 0;
+          } else if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT32) {
+            columnVector.getIntValues()[rowId] = columnReader.getInteger();
+          } else {
+            columnVector.getIntValues()[rowId] = (int) columnReader.getLong();
+          }
+          break;
+        case LONG:
+          if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT96) {
+            columnVector.getLongValues()[rowId] =
+                ParquetNativeRecordExtractor.convertInt96ToLong(columnReader.getBinary().getBytes());
+          } else if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT32) {
+            columnVector.getLongValues()[rowId] = columnReader.getInteger();
+          } else {
+            columnVector.getLongValues()[rowId] = columnReader.getLong();
+          }
+          break;
+        case FLOAT:
+          if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT64) {
+            // NOTE: Do not convert long to float through double to avoid double rounding
+            columnVector.getFloatValues()[rowId] = (float) columnReader.getLong();
+          } else {
+            columnVector.getFloatValues()[rowId] = (float) readNumber(columnReader, primitiveTypeName);
+          }
+          break;
+        case DOUBLE:
+          columnVector.getDoubleValues()[rowId] = readNumber(columnReader, primitiveTypeName);
+          break;
+        case BIG_DECIMAL:
+          LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
+              (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
+          int scale = decimalLogicalTypeAnnotation.getScale();
+          BigDecimal bigDecimalValue;
+          if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT32) {
+            bigDecimalValue = BigDecimal.valueOf(columnReader.getInteger(), scale);
+          } else if (primitiveTypeName == PrimitiveType.PrimitiveTypeName.INT64) {
+            bigDecimalValue = BigDecimal.valueOf(columnReader.getLong(), scale);
+          } else {
+            bigDecimalValue = ParquetNativeRecordExtractor.binaryToDecimal(columnReader.getBinary(),
+                decimalLogicalTypeAnnotation.getPrecision(), scale);
+          }
+          columnVector.getObjectValues()[rowId] = bigDecimalValue;
+          break;
+        case STRING:
+          columnVector.getObjectValues()[rowId] = columnReader.getBinary().toStringUsingUTF8();
+          break;
+        case BYTES:
+          columnVector.getObjectValues()[rowId] = columnReader.getBinary().getBytes();
+          break;
+        default:
+          throw new IllegalStateException(
+              "Unsupported stored type: " + columnVector.getStoredType() + " for column: " + columnVector.getName());
+      }
+      columnReader.consume();
+    }
+  }
+
+  /**
+   * Reads a numeric value as double, with the same value as the boxed value extracted from the {@link Group}.
+   */
+  private static double readNumber(ColumnReader columnReader, PrimitiveType.PrimitiveTypeName primitiveTypeName) {
+    switch (primitiveTypeName) {
+      case INT32:
+        return columnReader.getInteger();
+      case INT64:
+        return columnReader.getLong();
+      case FLOAT:
+        return columnReader.getFloat();
+      case DOUBLE:
+        return columnReader.getDouble();
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + primitiveTypeName);
+    }
+  }
+
   @Override
   public void rewind()
       throws IOException {
@@ -20,9 +20,13 @@ package org.apache.pinot.plugin.inputformat.parquet;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.hadoop.fs.Path;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
@@ -32,8 +36,9 @@ import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 /**
  * Pinot Record reader for Parquet file.<p>
  * It has two implementations: {@link ParquetAvroRecordReader} (Default) and {@link ParquetNativeRecordReader}.
+ * Only {@link ParquetNativeRecordReader} supports reading {@link ColumnarBatch}es.
  */
-public class ParquetRecordReader implements RecordReader {
+public class ParquetRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "parquet";
 
   private RecordReader _internalParquetRecordReader;
@@ -72,6 +77,18 @@ public class ParquetRecordReader implements RecordReader {
     return _internalParquetRecordReader.next(reuse);
   }
 
+  @Override
+  public boolean supportsColumnarBatch(Collection<FieldSpec> fieldSpecs) {
+    return _internalParquetRecordReader instanceof ColumnarRecordReader
+        && ((ColumnarRecordReader) _internalParquetRecordReader).supportsColumnarBatch(fieldSpecs);
+  }
+
+  @Override
+  public void nextBatch(ColumnarBatch batch)
+      throws IOException {
+    ((ColumnarRecordReader) _internalParquetRecordReader).nextBatch(batch);
+  }
+
   @Override
   public void rewind()
       throws IOException {
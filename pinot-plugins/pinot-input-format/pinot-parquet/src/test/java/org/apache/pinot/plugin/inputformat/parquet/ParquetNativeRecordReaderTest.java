@@ -22,6 +22,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
@@ -29,8 +30,14 @@ import org.apache.hadoop.fs.Path;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.pinot.plugin.inputformat.avro.AvroUtils;
 import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
 import org.apache.pinot.spi.data.readers.RecordReader;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class ParquetNativeRecordReaderTest extends AbstractRecordReaderTest {
@@ -63,6 +70,23 @@ public class ParquetNativeRecordReaderTest extends AbstractRecordReaderTest {
     }
   }
 
+  @Test
+  public void testColumnarBatch()
+      throws Exception {
+    List<FieldSpec> fieldSpecs = _pinotSchema.getAllFieldSpecs().stream()
+        .filter(FieldSpec::isSingleValueField)
+        .collect(Collectors.toList());
+    fieldSpecs.add(new MetricFieldSpec("column_not_in_source", DataType.INT));
+    ParquetNativeRecordReader recordReader = (ParquetNativeRecordReader) createRecordReader();
+    assertTrue(recordReader.supportsColumnarBatch(fieldSpecs));
+    // Repeated fields cannot be read in batches
+    assertFalse(recordReader.supportsColumnarBatch(_pinotSchema.getAllFieldSpecs()));
+    checkColumnarBatchValues(recordReader, fieldSpecs, _records, 999);
+    recordReader.rewind();
+    checkColumnarBatchValues(recordReader, fieldSpecs, _records, 4096);
+    recordReader.close();
+  }
+
   @Override
   protected String getDataFileName() {
     return "data.parquet";
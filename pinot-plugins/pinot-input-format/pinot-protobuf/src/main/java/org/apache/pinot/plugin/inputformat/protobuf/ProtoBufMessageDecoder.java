@@ -20,20 +20,22 @@ package org.apache.pinot.plugin.inputformat.protobuf;
 
 import com.github.os72.protobuf.dynamic.DynamicSchema;
 import com.google.common.base.Preconditions;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.Message;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.apache.pinot.spi.stream.ByteBufferMessageDecoder;
 
 
 //TODO: Add support for Schema Registry
-public class ProtoBufMessageDecoder implements StreamMessageDecoder<byte[]> {
+public class ProtoBufMessageDecoder implements ByteBufferMessageDecoder {
   public static final String DESCRIPTOR_FILE_PATH = "descriptorFile";
   public static final String PROTO_CLASS_NAME = "protoClassName";
 
@@ -89,4 +91,20 @@ public class ProtoBufMessageDecoder implements StreamMessageDecoder<byte[]> {
     }
     return _recordExtractor.extract(message, destination);
   }
+
+  /**
+   * Reads the message from both heap and direct buffers without copying it.
+   */
+  @Override
+  public GenericRow decode(ByteBuffer payload, GenericRow destination) {
+    Message message;
+    try {
+      message = _builder.mergeFrom(CodedInputStream.newInstance(payload)).build();
+    } catch (Exception e) {
+      throw new RuntimeException("Caught exception while decoding protobuf message", e);
+    } finally {
+      _builder.clear();
+    }
+    return _recordExtractor.extract(message, destination);
+  }
 }
@@ -18,7 +18,7 @@
  */
 package org.apache.pinot.plugin.stream.kafka30;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +27,6 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
-import org.apache.kafka.common.utils.Bytes;
 import org.apache.pinot.plugin.stream.kafka.KafkaMessageBatch;
 import org.apache.pinot.plugin.stream.kafka.KafkaStreamConfigProperties;
 import org.apache.pinot.plugin.stream.kafka.KafkaStreamMessageMetadata;
@@ -65,8 +64,8 @@ public class KafkaPartitionLevelConsumer extends KafkaPartitionLevelConnectionHa
       _consumer.seek(_topicPartition, startOffset);
     }
 
-    ConsumerRecords<String, Bytes> consumerRecords = _consumer.poll(Duration.ofMillis(timeoutMs));
-    List<ConsumerRecord<String, Bytes>> records = consumerRecords.records(_topicPartition);
+    ConsumerRecords<byte[], ByteBuffer> consumerRecords = _consumer.poll(Duration.ofMillis(timeoutMs));
+    List<ConsumerRecord<byte[], ByteBuffer>> records = consumerRecords.records(_topicPartition);
     List<BytesStreamMessage> filteredRecords = new ArrayList<>(records.size());
     long firstOffset = -1;
     long offsetOfNextBatch = startOffset;
@@ -75,13 +74,12 @@ public class KafkaPartitionLevelConsumer extends KafkaPartitionLevelConnectionHa
       firstOffset = records.get(0).offset();
       _lastFetchedOffset = records.get(records.size() - 1).offset();
       offsetOfNextBatch = _lastFetchedOffset + 1;
-      for (ConsumerRecord<String, Bytes> record : records) {
+      for (ConsumerRecord<byte[], ByteBuffer> record : records) {
         StreamMessageMetadata messageMetadata = extractMessageMetadata(record);
-        Bytes message = record.value();
+        ByteBuffer message = record.value();
         if (message != null) {
-          String key = record.key();
-          byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
-          filteredRecords.add(new BytesStreamMessage(keyBytes, message.get(), messageMetadata));
+          // Hand off the value as a slice of the fetched records, which is only copied if the decoder requires a byte[]
+          filteredRecords.add(new BytesStreamMessage(record.key(), message, messageMetadata));
         } else if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("Tombstone message at offset: {}", record.offset());
         }
@@ -101,7 +99,7 @@ public class KafkaPartitionLevelConsumer extends KafkaPartitionLevelConnectionHa
         hasDataLoss);
   }
 
-  private StreamMessageMetadata extractMessageMetadata(ConsumerRecord<String, Bytes> record) {
+  private StreamMessageMetadata extractMessageMetadata(ConsumerRecord<byte[], ByteBuffer> record) {
     long timestamp = record.timestamp();
     long offset = record.offset();
 
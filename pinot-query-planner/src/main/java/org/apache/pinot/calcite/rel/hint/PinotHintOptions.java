@@ -103,6 +103,11 @@ public class PinotHintOptions {
      */
     public static final String JOIN_OVERFLOW_MODE = "join_overflow_mode";
 
+    /**
+     * Estimated size of the right table in bytes after which the hash join spills partitions to local disk.
+     */
+    public static final String JOIN_SPILL_THRESHOLD_BYTES = "join_spill_threshold_bytes";
+
     /**
      * Indicates that the join operator(s) within a certain selection scope are colocated
      */
@@ -113,6 +118,13 @@ public class PinotHintOptions {
      */
     public static final String APPEND_DISTINCT_TO_SEMI_JOIN_PROJECT = "append_distinct_to_semi_join_project";
 
+    /**
+     * Enables or disables the runtime filter of an INNER hash join, where the join keys of the right (build) side are
+     * sent to the left leaf stage to filter the scanned rows. When not set, the runtime filter is applied based on the
+     * table statistics.
+     */
+    public static final String RUNTIME_FILTER = "runtime_filter";
+
     @Nullable
     public static Map<String, String> getJoinHintOptions(Join join) {
       return PinotHintStrategyTable.getHintOptions(join.getHints(), JOIN_HINT_OPTIONS);
@@ -138,6 +150,12 @@ public class PinotHintOptions {
       return DistributionType.fromHint(joinHintOptions.get(RIGHT_DISTRIBUTION_TYPE));
     }
 
+    @Nullable
+    public static Boolean useRuntimeFilter(Join join) {
+      String hint = PinotHintStrategyTable.getHintOption(join.getHints(), JOIN_HINT_OPTIONS, RUNTIME_FILTER);
+      return hint != null ? Boolean.parseBoolean(hint) : null;
+    }
+
     @Nullable
     public static Boolean isColocatedByJoinKeys(Join join) {
       String hint = PinotHintStrategyTable.getHintOption(join.getHints(), JOIN_HINT_OPTIONS, IS_COLOCATED_BY_JOIN_KEYS);
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.calcite.rel.rules;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalAsofJoin;
+import org.apache.calcite.rel.rules.JoinCommuteRule;
+import org.apache.calcite.tools.RelBuilderFactory;
+
+
+/**
+ * Special rule for Pinot, this rule swaps the inputs of an INNER JOIN when the left side is estimated to be smaller
+ * than the right side, so that the smaller side is used to build the hash table (right side of the join). A project is
+ * added on top of the swapped join to keep the original column order.
+ *
+ * <p>The rule only applies when the row count of both sides can be estimated from the table statistics, and when the
+ * join has no hint, so that the join order written in the query is kept when the statistics are not available or when
+ * the join is explicitly tuned.
+ */
+public class PinotJoinBuildSideRule extends RelOptRule {
+  public static final PinotJoinBuildSideRule INSTANCE = new PinotJoinBuildSideRule(PinotRuleUtils.PINOT_REL_FACTORY);
+
+  public PinotJoinBuildSideRule(RelBuilderFactory factory) {
+    super(operand(Join.class, any()), factory, null);
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    if (join.getJoinType() != JoinRelType.INNER || join instanceof LogicalAsofJoin || !join.getHints().isEmpty()) {
+      return false;
+    }
+    if (PinotRuleUtils.isExchange(join.getLeft()) || PinotRuleUtils.isExchange(join.getRight())) {
+      return false;
+    }
+    Double leftRowCount = PinotRuleUtils.getEstimatedRowCount(join.getLeft());
+    if (leftRowCount == null) {
+      return false;
+    }
+    Double rightRowCount = PinotRuleUtils.getEstimatedRowCount(join.getRight());
+    return rightRowCount != null && leftRowCount < rightRowCount;
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    RelNode swapped = JoinCommuteRule.swap(join, false, call.builder());
+    if (swapped != null) {
+      call.transformTo(swapped);
+    }
+  }
+}
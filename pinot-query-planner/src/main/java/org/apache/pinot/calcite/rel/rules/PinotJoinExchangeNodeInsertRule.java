@@ -28,6 +28,7 @@ import org.apache.calcite.rel.RelDistributions;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.logical.LogicalAsofJoin;
 import org.apache.calcite.tools.RelBuilderFactory;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
@@ -36,13 +37,33 @@ import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
 
 /**
  * Special rule for Pinot, this rule is fixed to always insert exchange after JOIN node.
+ *
+ * <p>When no distribution type is provided with the join hints, both sides of a hash join are hash distributed by the
+ * join keys. If the broadcast row count threshold is configured and the right side is estimated (from the table
+ * statistics) to have no more rows than the threshold, the right side is broadcast instead so that the left side does
+ * not need to be shuffled by the join keys.
  */
 public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
   public static final PinotJoinExchangeNodeInsertRule INSTANCE =
       new PinotJoinExchangeNodeInsertRule(PinotRuleUtils.PINOT_REL_FACTORY);
 
+  private final long _broadcastRowCountThreshold;
+
   public PinotJoinExchangeNodeInsertRule(RelBuilderFactory factory) {
+    this(factory, -1L);
+  }
+
+  public PinotJoinExchangeNodeInsertRule(RelBuilderFactory factory, long broadcastRowCountThreshold) {
     super(operand(Join.class, any()), factory, null);
+    _broadcastRowCountThreshold = broadcastRowCountThreshold;
+  }
+
+  /**
+   * Returns a rule that broadcasts the right side of the hash joins without distribution hint when it is estimated to
+   * have no more rows than the given threshold. Non-positive threshold disables the broadcast.
+   */
+  public static PinotJoinExchangeNodeInsertRule withBroadcastRowCountThreshold(long broadcastRowCountThreshold) {
+    return new PinotJoinExchangeNodeInsertRule(PinotRuleUtils.PINOT_REL_FACTORY, broadcastRowCountThreshold);
   }
 
   @Override
@@ -83,6 +104,11 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
       // Force pre-partitioned exchange when colocated join hint is provided
       Boolean prePartitioned = PinotHintOptions.JoinHintOptions.isColocatedByJoinKeys(join);
       // TODO: Validate if the configured distribution types are valid
+      if (leftDistributionType == null && rightDistributionType == null && prePartitioned == null
+          && shouldBroadcastRight(join, joinInfo, right)) {
+        leftDistributionType = PinotHintOptions.DistributionType.RANDOM;
+        rightDistributionType = PinotHintOptions.DistributionType.BROADCAST;
+      }
       if (leftDistributionType == null) {
         // By default, hash distribute the left side if there are join keys, otherwise randomly distribute
         leftDistributionType = !joinInfo.leftKeys.isEmpty() ? PinotHintOptions.DistributionType.HASH
@@ -108,6 +134,22 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
     }
   }
 
+  /**
+   * Returns whether the right side of the join should be broadcast based on the estimated row count. Broadcasting the
+   * right side is only valid when the unmatched right rows are not emitted.
+   */
+  private boolean shouldBroadcastRight(Join join, JoinInfo joinInfo, RelNode right) {
+    if (_broadcastRowCountThreshold <= 0 || joinInfo.rightKeys.isEmpty() || join instanceof LogicalAsofJoin) {
+      return false;
+    }
+    JoinRelType joinType = join.getJoinType();
+    if (joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL) {
+      return false;
+    }
+    Double rightRowCount = PinotRuleUtils.getEstimatedRowCount(right);
+    return rightRowCount != null && rightRowCount <= _broadcastRowCountThreshold;
+  }
+
   private static PinotLogicalExchange createExchangeForLookupJoin(PinotHintOptions.DistributionType distributionType,
       List<Integer> keys, RelNode child) {
     switch (distributionType) {
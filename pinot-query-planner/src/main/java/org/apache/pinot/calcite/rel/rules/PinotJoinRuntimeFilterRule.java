@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.calcite.rel.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Exchange;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.hint.RelHint;
+import org.apache.calcite.rel.logical.LogicalAsofJoin;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.tools.RelBuilder;
+import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+
+
+/**
+ * Special rule for Pinot, this rule adds a runtime filter to the left (probe) side of an INNER hash join, where the
+ * join keys of the right (build) side are sent to the left leaf stage to filter the scanned rows.
+ *
+ * <p>Consider the following INNER JOIN plan
+ *
+ *                  ...                                          ...
+ *                   |                                            |
+ *             [ Inner Join ]                               [ Inner Join ]
+ *             /            \                               /            \
+ *        [xChange]      [xChange]                    [xChange]       [xChange]
+ *           /                \                          /                 \
+ *     [Proj/Filter]     [Proj/Filter]            [ Semi Join ]        [Proj/Filter] <---
+ *          |                  |                   /          \              |          \
+ *     [Table Scan ]     [Table Scan ]     [Proj/Filter]  [Dyn. Broadcast] [Table Scan ]  \
+ *                                               |             \                          |
+ *                                         [Table Scan ]    [ Project ] (join keys) ------|
+ *
+ * <p>The SEMI join is planned in the left leaf stage the same way as the dynamic broadcast SEMI join (see
+ * {@link PinotJoinToDynamicBroadcastRule}): the join keys of the right side are received through the pipeline breaker
+ * exchange, and injected as filter into the leaf stage query so that the segment pruning and the indexes apply to
+ * them. Because the INNER join is still performed with the full right side, the runtime filter does not need to be
+ * exact, and the SEMI join is marked with the {@link PinotHintOptions.JoinHintOptions#RUNTIME_FILTER} hint so that the
+ * leaf stage can fall back to a min/max range filter when the right side has too many distinct join keys.
+ *
+ * <p>The right side is computed twice (once for the join and once for the runtime filter), so the rule only applies
+ * when both sides are leaf stages (Project/Filter over TableScan), and when the right side is estimated (from the table
+ * statistics) to have no more rows than the threshold and less rows than the left side. The
+ * {@link PinotHintOptions.JoinHintOptions#RUNTIME_FILTER} join hint can be used to enable or disable the runtime filter
+ * regardless of the statistics.
+ */
+public class PinotJoinRuntimeFilterRule extends RelOptRule {
+  public static final PinotJoinRuntimeFilterRule INSTANCE =
+      new PinotJoinRuntimeFilterRule(PinotRuleUtils.PINOT_REL_FACTORY, -1L);
+
+  private static final RelHint RUNTIME_FILTER_HINT = RelHint.builder(PinotHintOptions.JOIN_HINT_OPTIONS)
+      .hintOption(PinotHintOptions.JoinHintOptions.RUNTIME_FILTER, "true").build();
+
+  private final long _buildRowCountThreshold;
+
+  public PinotJoinRuntimeFilterRule(RelBuilderFactory factory, long buildRowCountThreshold) {
+    super(operand(Join.class, any()), factory, null);
+    _buildRowCountThreshold = buildRowCountThreshold;
+  }
+
+  /**
+   * Returns a rule that applies the runtime filter to the hash joins without runtime filter hint when the right side is
+   * estimated to have no more rows than the given threshold. Non-positive threshold disables the runtime filter unless
+   * it is enabled with the join hint.
+   */
+  public static PinotJoinRuntimeFilterRule withBuildRowCountThreshold(long buildRowCountThreshold) {
+    return new PinotJoinRuntimeFilterRule(PinotRuleUtils.PINOT_REL_FACTORY, buildRowCountThreshold);
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    if (join.getJoinType() != JoinRelType.INNER || join instanceof LogicalAsofJoin) {
+      return false;
+    }
+    String joinStrategy = PinotHintOptions.JoinHintOptions.getJoinStrategyHint(join);
+    if (joinStrategy != null && !joinStrategy.equalsIgnoreCase(PinotHintOptions.JoinHintOptions.HASH_JOIN_STRATEGY)) {
+      return false;
+    }
+    if (join.analyzeCondition().leftKeys.isEmpty()) {
+      return false;
+    }
+    RelNode left = PinotRuleUtils.unboxRel(join.getLeft());
+    RelNode right = PinotRuleUtils.unboxRel(join.getRight());
+    if (!isLeafExchange(left) || !isLeafExchange(right)) {
+      return false;
+    }
+    Boolean useRuntimeFilter = PinotHintOptions.JoinHintOptions.useRuntimeFilter(join);
+    if (useRuntimeFilter != null) {
+      return useRuntimeFilter;
+    }
+    if (_buildRowCountThreshold <= 0) {
+      return false;
+    }
+    Double rightRowCount = PinotRuleUtils.getEstimatedRowCount(right.getInput(0));
+    if (rightRowCount == null || rightRowCount > _buildRowCountThreshold) {
+      return false;
+    }
+    Double leftRowCount = PinotRuleUtils.getEstimatedRowCount(left.getInput(0));
+    return leftRowCount != null && leftRowCount > rightRowCount;
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    Exchange left = (Exchange) PinotRuleUtils.unboxRel(join.getLeft());
+    Exchange right = (Exchange) PinotRuleUtils.unboxRel(join.getRight());
+    JoinInfo joinInfo = join.analyzeCondition();
+    RelBuilder relBuilder = call.builder();
+
+    // Only send the join keys of the right side to the left leaf stage
+    RelNode rightKeys = relBuilder.push(right.getInput()).project(relBuilder.fields(joinInfo.rightKeys)).build();
+    PinotLogicalExchange runtimeFilterExchange = PinotLogicalExchange.create(rightKeys,
+        RelDistributions.BROADCAST_DISTRIBUTED, PinotRelExchangeType.PIPELINE_BREAKER);
+
+    relBuilder.push(left.getInput()).push(runtimeFilterExchange);
+    int numKeys = joinInfo.leftKeys.size();
+    List<RexNode> conditions = new ArrayList<>(numKeys);
+    for (int i = 0; i < numKeys; i++) {
+      conditions.add(relBuilder.equals(relBuilder.field(2, 0, joinInfo.leftKeys.get(i)), relBuilder.field(2, 1, i)));
+    }
+    RelNode runtimeFilter = relBuilder.join(JoinRelType.SEMI, conditions).hints(RUNTIME_FILTER_HINT).build();
+
+    call.transformTo(join.copy(join.getTraitSet(), List.of(left.copy(left.getTraitSet(), List.of(runtimeFilter)),
+        join.getRight())));
+  }
+
+  /**
+   * Returns {@code true} if the given node is an exchange over a leaf stage with only Project/Filter over TableScan.
+   */
+  private static boolean isLeafExchange(RelNode relNode) {
+    if (!(relNode instanceof PinotLogicalExchange)
+        || ((PinotLogicalExchange) relNode).getExchangeType() == PinotRelExchangeType.PIPELINE_BREAKER) {
+      return false;
+    }
+    RelNode input = PinotRuleUtils.unboxRel(relNode.getInput(0));
+    while (input instanceof Project || input instanceof Filter) {
+      input = PinotRuleUtils.unboxRel(input.getInput(0));
+    }
+    return input instanceof TableScan;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.calcite.rel.rules;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalAsofJoin;
+import org.apache.calcite.rel.rules.JoinToMultiJoinRule;
+import org.apache.calcite.rel.rules.LoptOptimizeJoinRule;
+import org.apache.calcite.rel.rules.MultiJoin;
+
+
+/**
+ * Similar to {@link JoinToMultiJoinRule} but only flattens INNER joins without hint, and only when all the tables
+ * scanned by the join have statistics. The {@link MultiJoin} is then reordered by {@link LoptOptimizeJoinRule} based
+ * on the estimated cardinalities, so that the join order written in the query is kept when the statistics are not
+ * available or when the join is explicitly tuned.
+ *
+ * <p>The number of inputs of the {@link MultiJoin} is bounded by {@link #MAX_NUM_INPUTS} to bound the planning time of
+ * the join enumeration. Joins above the limit are not flattened further, and are kept in the query order.
+ */
+public class PinotJoinToMultiJoinRule extends JoinToMultiJoinRule {
+  public static final int MAX_NUM_INPUTS = 10;
+
+  public static final PinotJoinToMultiJoinRule INSTANCE = new PinotJoinToMultiJoinRule(Config.DEFAULT);
+
+  public static PinotJoinToMultiJoinRule instanceWithDescription(String description) {
+    return new PinotJoinToMultiJoinRule((Config) Config.DEFAULT.withDescription(description));
+  }
+
+  private PinotJoinToMultiJoinRule(Config config) {
+    super(config);
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    if (join.getJoinType() != JoinRelType.INNER || join instanceof LogicalAsofJoin || !join.getHints().isEmpty()) {
+      return false;
+    }
+    if (getNumInputs(call.rel(1)) + getNumInputs(call.rel(2)) > MAX_NUM_INPUTS) {
+      return false;
+    }
+    return PinotRuleUtils.hasTableStatistics(join) && super.matches(call);
+  }
+
+  private static int getNumInputs(RelNode relNode) {
+    return relNode instanceof MultiJoin ? relNode.getInputs().size() : 1;
+  }
+}
@@ -28,11 +28,14 @@ import org.apache.calcite.rel.rules.AggregateUnionAggregateRule;
 import org.apache.calcite.rel.rules.CoreRules;
 import org.apache.calcite.rel.rules.FilterAggregateTransposeRule;
 import org.apache.calcite.rel.rules.FilterMergeRule;
+import org.apache.calcite.rel.rules.FilterMultiJoinMergeRule;
 import org.apache.calcite.rel.rules.FilterProjectTransposeRule;
 import org.apache.calcite.rel.rules.FilterSetOpTransposeRule;
 import org.apache.calcite.rel.rules.JoinPushExpressionsRule;
+import org.apache.calcite.rel.rules.LoptOptimizeJoinRule;
 import org.apache.calcite.rel.rules.ProjectFilterTransposeRule;
 import org.apache.calcite.rel.rules.ProjectMergeRule;
+import org.apache.calcite.rel.rules.ProjectMultiJoinMergeRule;
 import org.apache.calcite.rel.rules.ProjectRemoveRule;
 import org.apache.calcite.rel.rules.ProjectSetOpTransposeRule;
 import org.apache.calcite.rel.rules.ProjectToWindowRule;
@@ -177,6 +180,23 @@ public class PinotQueryRuleSets {
           .withDescription(PlannerRuleNames.PROJECT_MERGE).toRule()
   );
 
+  // Join reorder rules flatten the joins into a MultiJoin bottom-up using a RuleCollection, then the MultiJoin is
+  // reordered by MULTI_JOIN_OPTIMIZE_RULE based on the estimated cardinalities. Joins are only flattened when all the
+  // scanned tables have statistics.
+  public static final List<RelOptRule> MULTI_JOIN_RULES = List.of(
+      PinotJoinToMultiJoinRule
+          .instanceWithDescription(PlannerRuleNames.JOIN_TO_MULTI_JOIN),
+      ProjectMultiJoinMergeRule.Config.DEFAULT
+          .withDescription(PlannerRuleNames.PROJECT_MULTI_JOIN_MERGE).toRule(),
+      FilterMultiJoinMergeRule.Config.DEFAULT
+          .withDescription(PlannerRuleNames.FILTER_MULTI_JOIN_MERGE).toRule()
+  );
+
+  // Greedy join enumeration over the MultiJoin, which also puts the smaller input on the right (hash join build side)
+  public static final RelOptRule MULTI_JOIN_OPTIMIZE_RULE =
+      LoptOptimizeJoinRule.Config.DEFAULT
+          .withDescription(PlannerRuleNames.MULTI_JOIN_OPTIMIZE).toRule();
+
   // The pruner rules run top-down to ensure Calcite restarts from root node after applying a transformation.
   public static final List<RelOptRule> PRUNE_RULES = List.of(
       AggregateProjectMergeRule.Config.DEFAULT
@@ -218,6 +238,8 @@ public class PinotQueryRuleSets {
       PinotSortExchangeCopyRule.SORT_EXCHANGE_COPY,
 
       PinotSingleValueAggregateRemoveRule.INSTANCE,
+      // pick the smaller side as the hash join build side based on the table statistics, before inserting exchanges
+      PinotJoinBuildSideRule.INSTANCE,
       PinotJoinExchangeNodeInsertRule.INSTANCE,
       PinotAggregateExchangeNodeInsertRule.SortProjectAggregate.INSTANCE,
       PinotAggregateExchangeNodeInsertRule.SortAggregate.INSTANCE,
@@ -226,6 +248,10 @@ public class PinotQueryRuleSets {
       PinotWindowExchangeNodeInsertRule.INSTANCE,
       PinotSetOpExchangeNodeInsertRule.INSTANCE,
 
+      // send the join keys of a small build side to the probe side leaf stage as runtime filter, after exchange is
+      // inserted
+      PinotJoinRuntimeFilterRule.INSTANCE,
+
       // apply dynamic broadcast rule after exchange is inserted/
       PinotJoinToDynamicBroadcastRule.INSTANCE,
 
@@ -41,6 +41,7 @@ import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexWindowBound;
 import org.apache.calcite.rex.RexWindowBounds;
+import org.apache.calcite.schema.Table;
 import org.apache.calcite.sql.SqlAggFunction;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql2rel.SqlToRelConverter;
@@ -93,6 +94,37 @@ public class PinotRuleUtils {
     return unboxRel(rel) instanceof Aggregate;
   }
 
+  /**
+   * Returns the estimated number of rows of the given relation, or {@code null} if any table scanned by the relation
+   * does not have statistics. Without table statistics, the estimation is based on the default row count of the tables
+   * and should not be used to make cost-based decisions.
+   */
+  @Nullable
+  public static Double getEstimatedRowCount(RelNode relNode) {
+    relNode = unboxRel(relNode);
+    if (!hasTableStatistics(relNode)) {
+      return null;
+    }
+    return relNode.getCluster().getMetadataQuery().getRowCount(relNode);
+  }
+
+  /**
+   * Returns {@code true} if all the tables scanned by the given relation have statistics, {@code false} otherwise.
+   */
+  public static boolean hasTableStatistics(RelNode relNode) {
+    relNode = unboxRel(relNode);
+    if (relNode instanceof TableScan) {
+      Table table = relNode.getTable().unwrap(Table.class);
+      return table != null && table.getStatistic().getRowCount() != null;
+    }
+    for (RelNode input : relNode.getInputs()) {
+      if (!hasTableStatistics(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * utility logic to determine if a JOIN can be pushed down to the leaf-stage execution and leverage the
    * segment-local info (indexing and others) to speed up the execution.
@@ -57,6 +57,8 @@ import org.apache.calcite.tools.RelBuilder;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.calcite.rel.rules.PinotImplicitTableHintRule;
+import org.apache.pinot.calcite.rel.rules.PinotJoinExchangeNodeInsertRule;
+import org.apache.pinot.calcite.rel.rules.PinotJoinRuntimeFilterRule;
 import org.apache.pinot.calcite.rel.rules.PinotJoinToDynamicBroadcastRule;
 import org.apache.pinot.calcite.rel.rules.PinotQueryRuleSets;
 import org.apache.pinot.calcite.rel.rules.PinotRelDistributionTraitRule;
@@ -91,6 +93,7 @@ import org.apache.pinot.query.validate.BytesCastVisitor;
 import org.apache.pinot.spi.exception.QueryErrorCode;
 import org.apache.pinot.spi.exception.QueryException;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.PlannerRuleNames;
 import org.apache.pinot.sql.parsers.CalciteSqlParser;
 import org.apache.pinot.sql.parsers.SqlNodeAndOptions;
 import org.apache.pinot.sql.parsers.parser.SqlPhysicalExplain;
@@ -144,7 +147,9 @@ public class QueryEnvironment {
   public QueryEnvironment(Config config) {
     _envConfig = config;
     String database = config.getDatabase();
-    _catalog = new PinotCatalog(config.getTableCache(), database);
+    WorkerManager workerManager = config.getWorkerManager();
+    _catalog = new PinotCatalog(config.getTableCache(), database,
+        workerManager != null ? workerManager.getRoutingManager() : null);
     CalciteSchema rootSchema = CalciteSchema.createRootSchema(false, false, database, _catalog);
     _config = Frameworks.newConfigBuilder().traitDefs().operatorTable(PinotOperatorTable.instance())
         .defaultSchema(rootSchema.plus()).sqlToRelConverterConfig(PinotRuleUtils.PINOT_SQL_TO_REL_CONFIG).build();
@@ -492,7 +497,9 @@ public class QueryEnvironment {
    * It performs several phases of rule application over the parsed decorrelated trimmed plan:
    * - In the first phase, it prunes the applies BASIC_RULES that are almost always helpful to simplify logical plan
    * - In the second phase, it performs predicate pushdown -> projection pushdown -> predicate pushdown.
-   * - In the third phase, the logical plan is prune with PRUNE_RULES.
+   * - In the third phase, the joins are reordered with MULTI_JOIN_RULES and MULTI_JOIN_OPTIMIZE_RULE based on the
+   *   table statistics.
+   * - In the fourth phase, the logical plan is prune with PRUNE_RULES.
    *
    * @param skipRuleSet parsed skipped rule name set from query options
    * @return HepProgram that performs logical transformations
@@ -529,6 +536,18 @@ public class QueryEnvironment {
     // Pushdown filters again since filter should be pushed down at the lowest level, after project pushdown.
     hepProgramBuilder.addRuleCollection(filterPushdownRules);
 
+    // ----
+    // Reorder joins after the filters are pushed into the join conditions. Both JoinToMultiJoin and MultiJoinOptimize
+    // must be enabled, otherwise the flattened MultiJoin cannot be converted back into joins.
+    if (!isRuleSkipped(PlannerRuleNames.JOIN_TO_MULTI_JOIN, skipRuleSet, useRuleSet)
+        && !isRuleSkipped(PlannerRuleNames.MULTI_JOIN_OPTIMIZE, skipRuleSet, useRuleSet)) {
+      hepProgramBuilder.addMatchOrder(HepMatchOrder.BOTTOM_UP);
+      hepProgramBuilder.addRuleCollection(
+          filterRuleList(PinotQueryRuleSets.MULTI_JOIN_RULES, skipRuleSet, useRuleSet));
+      hepProgramBuilder.addRuleInstance(PinotQueryRuleSets.MULTI_JOIN_OPTIMIZE_RULE);
+      hepProgramBuilder.addMatchOrder(HepMatchOrder.DEPTH_FIRST);
+    }
+
     // ----
     // Prune duplicate/unnecessary nodes using a single HepInstruction.
     // TODO: We can consider using HepMatchOrder.TOP_DOWN if we find cases where it would help.
@@ -587,6 +606,13 @@ public class QueryEnvironment {
     // Run pinot specific rules that should run after all other rules, using 1 HepInstruction per rule.
     if (!usePhysicalOptimizer) {
       for (RelOptRule relOptRule : PinotQueryRuleSets.PINOT_POST_RULES) {
+        if (relOptRule == PinotJoinExchangeNodeInsertRule.INSTANCE) {
+          relOptRule = PinotJoinExchangeNodeInsertRule.withBroadcastRowCountThreshold(
+              config.defaultJoinBroadcastRowCountThreshold());
+        } else if (relOptRule == PinotJoinRuntimeFilterRule.INSTANCE) {
+          relOptRule = PinotJoinRuntimeFilterRule.withBuildRowCountThreshold(
+              config.defaultJoinRuntimeFilterRowCountThreshold());
+        }
         if (isEligibleQueryPostRule(relOptRule, config)) {
           hepProgramBuilder.addRuleInstance(relOptRule);
         }
@@ -761,6 +787,27 @@ public class QueryEnvironment {
       return CommonConstants.Broker.DEFAULT_BROKER_DEFAULT_HASH_FUNCTION;
     }
 
+    /**
+     * Max estimated number of rows on the right side of a hash join without distribution hint to broadcast it instead
+     * of hash distributing both sides. Only applied when the table statistics are available from the routing manager.
+     *
+     * This is treated as the default value for the broker and it is expected to be obtained from a Pinot configuration.
+     */
+    @Value.Default
+    default long defaultJoinBroadcastRowCountThreshold() {
+      return CommonConstants.Broker.DEFAULT_JOIN_BROADCAST_ROW_COUNT_THRESHOLD;
+    }
+
+    /**
+     * Max estimated number of rows on the build side of a hash join to apply the runtime filter on the probe side.
+     *
+     * This is treated as the default value for the broker and it is expected to be obtained from a Pinot configuration.
+     */
+    @Value.Default
+    default long defaultJoinRuntimeFilterRowCountThreshold() {
+      return CommonConstants.Broker.DEFAULT_JOIN_RUNTIME_FILTER_ROW_COUNT_THRESHOLD;
+    }
+
     /**
      * Returns the worker manager.
      *
@@ -33,6 +33,8 @@ import org.apache.calcite.schema.Schemas;
 import org.apache.calcite.schema.Table;
 import org.apache.pinot.common.config.provider.TableCache;
 import org.apache.pinot.common.utils.DatabaseUtils;
+import org.apache.pinot.core.routing.RoutingManager;
+import org.apache.pinot.core.routing.TableStatistics;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 import static java.util.Objects.requireNonNull;
@@ -48,14 +50,24 @@ public class PinotCatalog implements Schema {
 
   private final TableCache _tableCache;
   private final String _databaseName;
+  private final RoutingManager _routingManager;
 
   /**
    * PinotCatalog needs have access to the actual {@link TableCache} object because TableCache hosts the actual
    * table available for query and processes table/segment metadata updates when cluster status changes.
    */
   public PinotCatalog(TableCache tableCache, String databaseName) {
+    this(tableCache, databaseName, null);
+  }
+
+  /**
+   * When the {@link RoutingManager} is provided, the {@link TableStatistics} it maintains are attached to the tables so
+   * that they can be used for cost-based planning.
+   */
+  public PinotCatalog(TableCache tableCache, String databaseName, @Nullable RoutingManager routingManager) {
     _tableCache = tableCache;
     _databaseName = databaseName;
+    _routingManager = routingManager;
   }
 
   /**
@@ -70,8 +82,10 @@ public class PinotCatalog implements Schema {
     String physicalTableName = DatabaseUtils.translateTableName(rawTableName, _databaseName);
     String tableName = _tableCache.getActualTableName(physicalTableName);
 
+    boolean logicalTable = false;
     if (tableName == null) {
       tableName = _tableCache.getActualLogicalTableName(physicalTableName);
+      logicalTable = true;
     }
 
     if (tableName == null) {
@@ -82,7 +96,36 @@ public class PinotCatalog implements Schema {
       return null;
     }
 
-    return new PinotTable(schema);
+    return new PinotTable(schema, logicalTable ? null : getTableStatistics(tableName));
+  }
+
+  /**
+   * Returns the statistics of the given physical table, merging the OFFLINE and REALTIME part for a hybrid table, or
+   * {@code null} if the statistics are not available for any part of the table.
+   */
+  @Nullable
+  private TableStatistics getTableStatistics(String tableName) {
+    if (_routingManager == null) {
+      return null;
+    }
+    if (TableNameBuilder.getTableTypeFromTableName(tableName) != null) {
+      return _routingManager.getTableStatistics(tableName);
+    }
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(tableName);
+    String realtimeTableName = TableNameBuilder.REALTIME.tableNameWithType(tableName);
+    boolean offlineTableExists = _routingManager.routingExists(offlineTableName);
+    boolean realtimeTableExists = _routingManager.routingExists(realtimeTableName);
+    TableStatistics offlineTableStatistics =
+        offlineTableExists ? _routingManager.getTableStatistics(offlineTableName) : null;
+    TableStatistics realtimeTableStatistics =
+        realtimeTableExists ? _routingManager.getTableStatistics(realtimeTableName) : null;
+    if (offlineTableExists && realtimeTableExists) {
+      if (offlineTableStatistics == null || realtimeTableStatistics == null) {
+        return null;
+      }
+      return TableStatistics.merge(tableName, offlineTableStatistics, realtimeTableStatistics);
+    }
+    return offlineTableExists ? offlineTableStatistics : realtimeTableStatistics;
   }
 
   /**
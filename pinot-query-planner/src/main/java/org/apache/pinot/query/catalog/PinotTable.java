@@ -18,12 +18,17 @@
  */
 package org.apache.pinot.query.catalog;
 
+import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.calcite.DataContext;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.impl.AbstractTable;
+import org.apache.pinot.core.routing.TableStatistics;
 import org.apache.pinot.query.type.TypeFactory;
 import org.apache.pinot.spi.data.Schema;
 
@@ -33,12 +38,30 @@ import org.apache.pinot.spi.data.Schema;
  *
  * <p>This construct is used to connect a Pinot table to Apache Calcite's relational planner by providing a
  * {@link RelDataType} of the table to the planner.
+ *
+ * <p>When the {@link TableStatistics} are available, they are provided to the planner as the {@link Statistic} of the
+ * table, which is used by the {@link org.apache.calcite.rel.metadata.RelMetadataQuery} to estimate the row count.
+ *
+ * <p>NOTE: The primary key is not published as a unique key even for dimension and upsert tables. The uniqueness only
+ * holds when the upsert semantics are applied at query time (e.g. it does not hold with the 'skipUpsert' query option),
+ * and the planner would use it to remove the aggregates and self-joins on the primary key.
  */
 public class PinotTable extends AbstractTable implements ScannableTable {
-  private Schema _schema;
+  private final Schema _schema;
+  private final TableStatistics _tableStatistics;
 
   public PinotTable(Schema schema) {
+    this(schema, null);
+  }
+
+  public PinotTable(Schema schema, @Nullable TableStatistics tableStatistics) {
     _schema = schema;
+    _tableStatistics = tableStatistics;
+  }
+
+  @Nullable
+  public TableStatistics getTableStatistics() {
+    return _tableStatistics;
   }
 
   @Override
@@ -52,6 +75,14 @@ public class PinotTable extends AbstractTable implements ScannableTable {
     return typeFactory.createRelDataTypeFromSchema(_schema);
   }
 
+  @Override
+  public Statistic getStatistic() {
+    if (_tableStatistics == null) {
+      return Statistics.UNKNOWN;
+    }
+    return Statistics.of(_tableStatistics.getNumRows(), List.of());
+  }
+
   @Override
   public boolean isRolledUp(String s) {
     return false;
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
 import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
@@ -125,6 +126,16 @@ public class PhysicalExplainPlanVisitor implements PlanNodeVisitor<StringBuilder
     return context._builder;
   }
 
+  /**
+   * Appends the estimated number of rows of the node based on the table statistics, if available.
+   */
+  private static StringBuilder appendEstimatedRowCount(@Nullable Double estimatedRowCount, Context context) {
+    if (estimatedRowCount != null) {
+      context._builder.append(" (estimatedRows=").append(Math.round(estimatedRowCount)).append(')');
+    }
+    return context._builder;
+  }
+
   private StringBuilder visitSimpleNode(PlanNode node, Context context) {
     appendInfo(node, context).append('\n');
     return node.getInputs().get(0).visit(this, context.next(false, context._host, context._workerId));
@@ -161,7 +172,9 @@ public class PhysicalExplainPlanVisitor implements PlanNodeVisitor<StringBuilder
 
   @Override
   public StringBuilder visitJoin(JoinNode node, Context context) {
-    appendInfo(node, context).append('\n');
+    appendInfo(node, context);
+    // The join order is reflected by the tree, where the right input is the hash join build side
+    appendEstimatedRowCount(node.getEstimatedRowCount(), context).append('\n');
     node.getInputs().get(0).visit(this, context.next(true, context._host, context._workerId));
     node.getInputs().get(1).visit(this, context.next(false, context._host, context._workerId));
     return context._builder;
@@ -246,7 +259,8 @@ public class PhysicalExplainPlanVisitor implements PlanNodeVisitor<StringBuilder
 
   @Override
   public StringBuilder visitTableScan(TableScanNode node, Context context) {
-    return appendInfo(node, context)
+    appendInfo(node, context);
+    return appendEstimatedRowCount(node.getEstimatedRowCount(), context)
         .append(' ')
         .append(_dispatchableSubPlan.getQueryStageMap()
             .get(node.getStageId())
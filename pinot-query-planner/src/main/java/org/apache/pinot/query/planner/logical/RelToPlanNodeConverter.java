@@ -312,7 +312,7 @@ public final class RelToPlanNodeConverter {
       columns.add(field.getName());
     }
     return new TableScanNode(DEFAULT_STAGE_ID, toDataSchema(node.getRowType()), NodeHint.fromRelHints(node.getHints()),
-        convertInputs(node.getInputs()), tableName, columns);
+        convertInputs(node.getInputs()), tableName, columns, PinotRuleUtils.getEstimatedRowCount(node));
   }
 
   private JoinNode convertLogicalJoin(LogicalJoin join) {
@@ -367,7 +367,7 @@ public final class RelToPlanNodeConverter {
 
     return new JoinNode(DEFAULT_STAGE_ID, dataSchema, NodeHint.fromRelHints(join.getHints()), inputs, joinType,
         joinInfo.leftKeys, joinInfo.rightKeys, RexExpressionUtils.fromRexNodes(joinInfo.nonEquiConditions),
-        joinStrategy);
+        joinStrategy, null, PinotRuleUtils.getEstimatedRowCount(join));
   }
 
   private JoinNode convertLogicalAsofJoin(LogicalAsofJoin join) {
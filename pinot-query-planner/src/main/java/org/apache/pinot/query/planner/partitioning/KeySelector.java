@@ -42,6 +42,15 @@ public interface KeySelector<T> {
    */
   int computeHash(Object[] input);
 
+  /**
+   * Returns the ids of the columns read by {@link #computeHash(Object[])}, or {@code null} if unknown, in which case
+   * all the columns of the input must be set.
+   */
+  @Nullable
+  default int[] getKeyIds() {
+    return null;
+  }
+
   /**
    * Returns the hash algorithm used to compute the hash.
    */
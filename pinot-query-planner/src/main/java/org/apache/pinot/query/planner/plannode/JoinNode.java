@@ -34,6 +34,9 @@ public class JoinNode extends BasePlanNode {
   private final JoinStrategy _joinStrategy;
   @Nullable
   private final RexExpression _matchCondition;
+  // Estimated number of output rows based on the table statistics, only used for explain and not serialized
+  @Nullable
+  private final Double _estimatedRowCount;
 
   public JoinNode(int stageId, DataSchema dataSchema, NodeHint nodeHint, List<PlanNode> inputs, JoinRelType joinType,
       List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
@@ -44,6 +47,13 @@ public class JoinNode extends BasePlanNode {
   public JoinNode(int stageId, DataSchema dataSchema, NodeHint nodeHint, List<PlanNode> inputs, JoinRelType joinType,
       List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
       JoinStrategy joinStrategy, RexExpression matchCondition) {
+    this(stageId, dataSchema, nodeHint, inputs, joinType, leftKeys, rightKeys, nonEquiConditions, joinStrategy,
+        matchCondition, null);
+  }
+
+  public JoinNode(int stageId, DataSchema dataSchema, NodeHint nodeHint, List<PlanNode> inputs, JoinRelType joinType,
+      List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
+      JoinStrategy joinStrategy, @Nullable RexExpression matchCondition, @Nullable Double estimatedRowCount) {
     super(stageId, dataSchema, nodeHint, inputs);
     _joinType = joinType;
     _leftKeys = leftKeys;
@@ -51,6 +61,7 @@ public class JoinNode extends BasePlanNode {
     _nonEquiConditions = nonEquiConditions;
     _joinStrategy = joinStrategy;
     _matchCondition = matchCondition;
+    _estimatedRowCount = estimatedRowCount;
   }
 
   public JoinRelType getJoinType() {
@@ -78,6 +89,11 @@ public class JoinNode extends BasePlanNode {
     return _matchCondition;
   }
 
+  @Nullable
+  public Double getEstimatedRowCount() {
+    return _estimatedRowCount;
+  }
+
   @Override
   public String explain() {
     return _joinStrategy == JoinStrategy.ASOF ? "ASOF JOIN" : "JOIN";
@@ -91,7 +107,7 @@ public class JoinNode extends BasePlanNode {
   @Override
   public PlanNode withInputs(List<PlanNode> inputs) {
     return new JoinNode(_stageId, _dataSchema, _nodeHint, inputs, _joinType, _leftKeys, _rightKeys, _nonEquiConditions,
-        _joinStrategy, _matchCondition);
+        _joinStrategy, _matchCondition, _estimatedRowCount);
   }
 
   @Override
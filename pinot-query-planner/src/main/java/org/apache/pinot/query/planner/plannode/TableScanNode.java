@@ -20,18 +20,28 @@ package org.apache.pinot.query.planner.plannode;
 
 import java.util.List;
 import java.util.Objects;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 
 
 public class TableScanNode extends BasePlanNode {
   private final String _tableName;
   private final List<String> _columns;
+  // Estimated number of rows based on the table statistics, only used for explain and not serialized
+  @Nullable
+  private final Double _estimatedRowCount;
 
   public TableScanNode(int stageId, DataSchema dataSchema, NodeHint nodeHint, List<PlanNode> inputs, String tableName,
       List<String> columns) {
+    this(stageId, dataSchema, nodeHint, inputs, tableName, columns, null);
+  }
+
+  public TableScanNode(int stageId, DataSchema dataSchema, NodeHint nodeHint, List<PlanNode> inputs, String tableName,
+      List<String> columns, @Nullable Double estimatedRowCount) {
     super(stageId, dataSchema, nodeHint, inputs);
     _tableName = tableName;
     _columns = columns;
+    _estimatedRowCount = estimatedRowCount;
   }
 
   public String getTableName() {
@@ -42,6 +52,11 @@ public class TableScanNode extends BasePlanNode {
     return _columns;
   }
 
+  @Nullable
+  public Double getEstimatedRowCount() {
+    return _estimatedRowCount;
+  }
+
   @Override
   public String explain() {
     return "TABLE SCAN (" + _tableName + ")";
@@ -54,7 +69,7 @@ public class TableScanNode extends BasePlanNode {
 
   @Override
   public PlanNode withInputs(List<PlanNode> inputs) {
-    return new TableScanNode(_stageId, _dataSchema, _nodeHint, inputs, _tableName, _columns);
+    return new TableScanNode(_stageId, _dataSchema, _nodeHint, inputs, _tableName, _columns, _estimatedRowCount);
   }
 
   @Override
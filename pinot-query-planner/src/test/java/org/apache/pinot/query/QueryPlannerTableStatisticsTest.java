@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.core.routing.RoutingManager;
+import org.apache.pinot.core.routing.TableStatistics;
+import org.apache.pinot.query.routing.WorkerManager;
+import org.apache.pinot.query.testutils.MockRoutingManagerFactory;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.PlannerRuleNames;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the join planning based on the table statistics provided by the routing manager. Table 'a' is a large fact
+ * table, 'b' is a small dimension table and 'c' is a medium table above the broadcast threshold. Tables 'd' and 'e' do
+ * not have statistics. Multi-way joins are reordered only when all the joined tables have statistics. Table 'u' is an
+ * upsert table with primary key 'col1'.
+ */
+public class QueryPlannerTableStatisticsTest {
+  private static final String SCAN_A = "PinotLogicalTableScan(table=[[default, a]])";
+  private static final String SCAN_B = "PinotLogicalTableScan(table=[[default, b]])";
+  private static final String SCAN_C = "PinotLogicalTableScan(table=[[default, c]])";
+  private static final String SCAN_D = "PinotLogicalTableScan(table=[[default, d]])";
+  private static final String AGGREGATE = "PinotLogicalAggregate(group=[{0}]";
+  private static final String BROADCAST_EXCHANGE = "PinotLogicalExchange(distribution=[broadcast])";
+  private static final String RUNTIME_FILTER_EXCHANGE =
+      "PinotLogicalExchange(distribution=[broadcast], relExchangeType=[PIPELINE_BREAKER])";
+  private static final String SEMI_JOIN = "joinType=[semi]";
+
+  private QueryEnvironment _queryEnvironment;
+
+  @BeforeClass
+  public void setUp() {
+    MockRoutingManagerFactory factory = new MockRoutingManagerFactory(1, 2);
+    for (Map.Entry<String, Schema> entry : QueryEnvironmentTestBase.TABLE_SCHEMAS.entrySet()) {
+      factory.registerTable(entry.getValue(), entry.getKey());
+    }
+    for (Map.Entry<String, List<String>> entry : QueryEnvironmentTestBase.SERVER1_SEGMENTS.entrySet()) {
+      for (String segment : entry.getValue()) {
+        factory.registerSegment(1, entry.getKey(), segment);
+      }
+    }
+    for (Map.Entry<String, List<String>> entry : QueryEnvironmentTestBase.SERVER2_SEGMENTS.entrySet()) {
+      for (String segment : entry.getValue()) {
+        factory.registerSegment(2, entry.getKey(), segment);
+      }
+    }
+    factory.registerTable(
+        QueryEnvironmentTestBase.getSchemaBuilder("u").setPrimaryKeyColumns(List.of("col1")).build(), "u_REALTIME");
+    factory.registerSegment(1, "u_REALTIME", "u1");
+    factory.registerTableStatistics(new TableStatistics("a_REALTIME", 10_000_000L, 100, false, -1L, -1L, Map.of()));
+    factory.registerTableStatistics(new TableStatistics("b_REALTIME", 1_000L, 1, false, -1L, -1L, Map.of()));
+    factory.registerTableStatistics(new TableStatistics("c_OFFLINE", 1_000_000L, 10, false, -1L, -1L, Map.of()));
+    factory.registerTableStatistics(new TableStatistics("u_REALTIME", 1_000L, 1, true, -1L, -1L, Map.of()));
+    RoutingManager routingManager = factory.buildRoutingManager(null);
+    _queryEnvironment = new QueryEnvironment(QueryEnvironment.configBuilder()
+        .requestId(-1L)
+        .database(CommonConstants.DEFAULT_DATABASE)
+        .tableCache(factory.buildTableCache())
+        .workerManager(new WorkerManager("Broker_localhost", "localhost", 3, routingManager))
+        .build());
+  }
+
+  private String explain(String query) {
+    return _queryEnvironment.explainQuery("EXPLAIN PLAN FOR " + query, -1L);
+  }
+
+  @Test
+  public void testSmallerSideIsBroadcastBuildSide() {
+    String plan = explain("SELECT b.col1, c.col3 FROM b JOIN c ON b.col1 = c.col1");
+    // The join inputs are swapped so that the smaller table 'b' is on the build side, and broadcast. Table 'b' is also
+    // scanned for the runtime filter on 'c'.
+    assertTrue(plan.indexOf(SCAN_C) < plan.indexOf(SCAN_B), plan);
+    assertTrue(plan.contains(BROADCAST_EXCHANGE), plan);
+    assertTrue(plan.indexOf(BROADCAST_EXCHANGE) < plan.lastIndexOf(SCAN_B), plan);
+    assertTrue(plan.indexOf(BROADCAST_EXCHANGE) > plan.indexOf(SCAN_C), plan);
+  }
+
+  @Test
+  public void testHashDistributionAboveBroadcastThreshold() {
+    String plan = explain("SELECT a.col1, c.col3 FROM a JOIN c ON a.col1 = c.col1");
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(SCAN_C), plan);
+    assertFalse(plan.contains(BROADCAST_EXCHANGE), plan);
+  }
+
+  @Test
+  public void testLargerSideIsSwappedToProbeSide() {
+    String plan = explain("SELECT a.col1, c.col3 FROM c JOIN a ON a.col1 = c.col1");
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(SCAN_C), plan);
+    assertFalse(plan.contains(BROADCAST_EXCHANGE), plan);
+  }
+
+  @Test
+  public void testNoStatistics() {
+    String plan = explain("SELECT b.col1, d.col3 FROM b JOIN d ON b.col1 = d.col1");
+    assertTrue(plan.indexOf(SCAN_B) < plan.indexOf(SCAN_D), plan);
+    assertFalse(plan.contains(BROADCAST_EXCHANGE), plan);
+  }
+
+  @Test
+  public void testJoinHintKeepsJoinOrder() {
+    String plan = explain("SELECT /*+ joinOptions(join_strategy = 'hash') */ b.col1, c.col3 FROM b JOIN c "
+        + "ON b.col1 = c.col1");
+    assertTrue(plan.indexOf(SCAN_B) < plan.indexOf(SCAN_C), plan);
+  }
+
+  @Test
+  public void testJoinReorder() {
+    // Joining 'a' with the small table 'b' first produces a much smaller intermediate result than joining 'a' with 'c'
+    String query = "SELECT a.col1, b.col3, c.col3 FROM a JOIN c ON a.col1 = c.col1 JOIN b ON a.col2 = b.col2";
+    String plan = explain(query);
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(SCAN_B), plan);
+    assertTrue(plan.indexOf(SCAN_B) < plan.indexOf(SCAN_C), plan);
+
+    // The join order written in the query is kept when the join reordering is disabled
+    plan = _queryEnvironment.explainQuery(
+        "SET skipPlannerRules='" + PlannerRuleNames.JOIN_TO_MULTI_JOIN + "'; EXPLAIN PLAN FOR " + query, -1L);
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(SCAN_C), plan);
+    assertTrue(plan.indexOf(SCAN_C) < plan.indexOf(SCAN_B), plan);
+  }
+
+  @Test
+  public void testNoJoinReorderWithoutStatistics() {
+    String plan = explain("SELECT a.col1, d.col3, b.col3 FROM a JOIN d ON a.col1 = d.col1 JOIN b ON a.col2 = b.col2");
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(SCAN_D), plan);
+    assertTrue(plan.indexOf(SCAN_D) < plan.indexOf(SCAN_B), plan);
+  }
+
+  @Test
+  public void testEstimatedRowsInImplementationPlan() {
+    String plan = _queryEnvironment.explainQuery(
+        "EXPLAIN IMPLEMENTATION PLAN FOR SELECT a.col1, b.col3 FROM a JOIN b ON a.col1 = b.col1", -1L);
+    assertTrue(plan.contains("TABLE SCAN (a) (estimatedRows=10000000)"), plan);
+    assertTrue(plan.contains("TABLE SCAN (b) (estimatedRows=1000)"), plan);
+    assertTrue(plan.contains("JOIN (estimatedRows="), plan);
+
+    plan = _queryEnvironment.explainQuery(
+        "EXPLAIN IMPLEMENTATION PLAN FOR SELECT b.col1, d.col3 FROM b JOIN d ON b.col1 = d.col1", -1L);
+    assertTrue(plan.contains("TABLE SCAN (b) (estimatedRows=1000)"), plan);
+    assertFalse(plan.contains("TABLE SCAN (d) (estimatedRows="), plan);
+    assertFalse(plan.contains("JOIN (estimatedRows="), plan);
+  }
+
+  @Test
+  public void testRuntimeFilter() {
+    // The join keys of the small table 'b' are sent to the leaf stage of 'a' through a pipeline breaker exchange
+    String plan = explain("SELECT a.col1, b.col3 FROM a JOIN b ON a.col1 = b.col1");
+    assertTrue(plan.contains(SEMI_JOIN), plan);
+    assertTrue(plan.contains(RUNTIME_FILTER_EXCHANGE), plan);
+    assertTrue(plan.indexOf(SCAN_A) < plan.indexOf(RUNTIME_FILTER_EXCHANGE), plan);
+    assertTrue(plan.indexOf(RUNTIME_FILTER_EXCHANGE) < plan.indexOf(SCAN_B), plan);
+
+    // Table 'c' is above the runtime filter threshold
+    plan = explain("SELECT a.col1, c.col3 FROM a JOIN c ON a.col1 = c.col1");
+    assertFalse(plan.contains(RUNTIME_FILTER_EXCHANGE), plan);
+
+    // The runtime filter can be disabled or enabled with the join hint
+    plan = explain("SELECT /*+ joinOptions(runtime_filter = 'false') */ a.col1, b.col3 FROM a JOIN b "
+        + "ON a.col1 = b.col1");
+    assertFalse(plan.contains(RUNTIME_FILTER_EXCHANGE), plan);
+    plan = explain("SELECT /*+ joinOptions(runtime_filter = 'true') */ d.col1, e.col3 FROM d JOIN e "
+        + "ON d.col1 = e.col1");
+    assertTrue(plan.contains(SEMI_JOIN), plan);
+    assertTrue(plan.contains(RUNTIME_FILTER_EXCHANGE), plan);
+  }
+
+  @Test
+  public void testNoBroadcastForRightJoin() {
+    String plan = explain("SELECT b.col1, c.col3 FROM c RIGHT JOIN b ON b.col1 = c.col1");
+    assertTrue(plan.indexOf(SCAN_C) < plan.indexOf(SCAN_B), plan);
+    assertFalse(plan.contains(BROADCAST_EXCHANGE), plan);
+  }
+
+  @Test
+  public void testGroupByPrimaryKeyIsKept() {
+    // The primary key is not unique when the upsert semantics are not applied, so the aggregate must not be removed
+    String plan = explain("SELECT col1, COUNT(*) FROM u GROUP BY col1");
+    assertTrue(plan.contains(AGGREGATE), plan);
+  }
+}
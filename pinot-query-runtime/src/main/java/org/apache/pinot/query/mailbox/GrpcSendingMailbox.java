@@ -33,8 +33,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.compression.CompressionFactory;
 import org.apache.pinot.common.datablock.DataBlock;
-import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.proto.Mailbox.MailboxContent;
@@ -42,6 +43,7 @@ import org.apache.pinot.common.proto.PinotMailboxGrpc;
 import org.apache.pinot.query.mailbox.channel.ChannelManager;
 import org.apache.pinot.query.mailbox.channel.ChannelUtils;
 import org.apache.pinot.query.mailbox.channel.MailboxStatusObserver;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
@@ -70,12 +72,21 @@ public class GrpcSendingMailbox implements SendingMailbox {
   private final StatMap<MailboxSendOperator.StatKey> _statMap;
   private final MailboxStatusObserver _statusObserver = new MailboxStatusObserver();
   private final Sender _sender;
+  private final MailboxCompressionPolicy _compressionPolicy;
 
   private StreamObserver<MailboxContent> _contentObserver;
 
   public GrpcSendingMailbox(
       PinotConfiguration config, String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
       StatMap<MailboxSendOperator.StatKey> statMap, int maxByteStringSize) {
+    this(config, id, channelManager, hostname, port, deadlineMs, statMap, maxByteStringSize,
+        MailboxCompressionPolicy.fromConfig(config));
+  }
+
+  public GrpcSendingMailbox(
+      PinotConfiguration config, String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
+      StatMap<MailboxSendOperator.StatKey> statMap, int maxByteStringSize,
+      MailboxCompressionPolicy compressionPolicy) {
     _id = id;
     _channelManager = channelManager;
     _hostname = hostname;
@@ -83,6 +94,7 @@ public class GrpcSendingMailbox implements SendingMailbox {
     _deadlineMs = deadlineMs;
     _statMap = statMap;
     _sender = maxByteStringSize > 0 ? new SplitSender(this, maxByteStringSize) : new NonSplitSender(this);
+    _compressionPolicy = compressionPolicy;
   }
 
   @Override
@@ -132,16 +144,57 @@ public class GrpcSendingMailbox implements SendingMailbox {
     long start = System.currentTimeMillis();
     try {
       DataBlock dataBlock = MseBlockSerializer.toDataBlock(block, serializedStats);
-      int sizeInBytes = _sender.processAndSend(dataBlock);
+      List<ByteBuffer> payload = dataBlock.serialize();
+      int sizeInBytes = getSizeInBytes(payload);
+      // Metadata blocks are never compressed, so the receiver can always process them eagerly
+      String compression = dataBlock.getDataBlockType() != DataBlock.Type.METADATA
+          ? _compressionPolicy.selectCompression(sizeInBytes) : null;
+      if (compression != null) {
+        byte[] compressed = compress(payload, sizeInBytes, compression);
+        if (_compressionPolicy.isWorthSending(sizeInBytes, compressed.length)) {
+          payload = List.of(ByteBuffer.wrap(compressed));
+          _statMap.merge(MailboxSendOperator.StatKey.COMPRESSED_MESSAGES, 1);
+        } else {
+          compression = null;
+        }
+      }
+      int sentBytes = _sender.processAndSend(payload, compression, sizeInBytes);
       if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Serialized block: {} to {} bytes", block, sizeInBytes);
+        LOGGER.debug("Serialized block: {} to {} bytes, sent {} bytes with compression: {}", block, sizeInBytes,
+            sentBytes, compression);
       }
       _statMap.merge(MailboxSendOperator.StatKey.SERIALIZED_BYTES, sizeInBytes);
+      _statMap.merge(MailboxSendOperator.StatKey.SENT_BYTES, sentBytes);
     } finally {
       _statMap.merge(MailboxSendOperator.StatKey.SERIALIZATION_TIME_MS, System.currentTimeMillis() - start);
     }
   }
 
+  private static int getSizeInBytes(List<ByteBuffer> byteBuffers) {
+    int sizeInBytes = 0;
+    for (ByteBuffer byteBuffer : byteBuffers) {
+      sizeInBytes += byteBuffer.remaining();
+    }
+    return sizeInBytes;
+  }
+
+  /// Compresses the given serialized data block. The given buffers are not modified.
+  static byte[] compress(List<ByteBuffer> byteBuffers, int sizeInBytes, String compression)
+      throws IOException {
+    byte[] bytes = new byte[sizeInBytes];
+    int offset = 0;
+    for (ByteBuffer byteBuffer : byteBuffers) {
+      int remaining = byteBuffer.remaining();
+      byteBuffer.duplicate().get(bytes, offset, remaining);
+      offset += remaining;
+    }
+    try {
+      return CompressionFactory.getCompressor(compression).compress(bytes);
+    } catch (Exception e) {
+      throw new IOException("Failed to compress data block with compression: " + compression, e);
+    }
+  }
+
   @Override
   public void complete() {
     if (isTerminated()) {
@@ -195,13 +248,21 @@ public class GrpcSendingMailbox implements SendingMailbox {
         .open(_statusObserver);
   }
 
-  protected void sendContent(ByteString byteString, boolean waitForMore) {
-    MailboxContent content = MailboxContent.newBuilder()
+  /// Sends a chunk of a serialized data block.
+  ///
+  /// When the block is compressed, the compression metadata is only attached to the last chunk, which is the one that
+  /// triggers the processing of the whole block on the receiver side.
+  protected void sendContent(ByteString byteString, boolean waitForMore, @Nullable String compression,
+      int uncompressedSizeInBytes) {
+    MailboxContent.Builder builder = MailboxContent.newBuilder()
         .setMailboxId(_id)
         .setPayload(byteString)
-        .setWaitForMore(waitForMore)
-        .build();
-    _contentObserver.onNext(content);
+        .setWaitForMore(waitForMore);
+    if (compression != null && !waitForMore) {
+      builder.putMetadata(ChannelUtils.MAILBOX_METADATA_COMPRESSION_KEY, compression)
+          .putMetadata(ChannelUtils.MAILBOX_METADATA_UNCOMPRESSED_SIZE_KEY, Integer.toString(uncompressedSizeInBytes));
+    }
+    _contentObserver.onNext(builder.build());
   }
 
   @Override
@@ -225,6 +286,16 @@ public class GrpcSendingMailbox implements SendingMailbox {
       return block.asSerialized().getDataBlock();
     }
 
+    @Override
+    public DataBlock visit(ColumnHeapDataBlock block, List<DataBuffer> serializedStats) {
+      // this is already guaranteed by the SendingMailbox.send(MseBlock.Data) signature, but just to be sure...
+      if (serializedStats != null && !serializedStats.isEmpty()) {
+        throw new UnsupportedOperationException("Cannot serialize stats with ColumnHeapDataBlock");
+      }
+      // Serialized as a columnar DataBlock without pivoting the columns into rows
+      return block.asSerialized().getDataBlock();
+    }
+
     @Override
     public DataBlock visit(SerializedDataBlock block, List<DataBuffer> serializedStats) {
       // this is already guaranteed by the SendingMailbox.send(MseBlock.Data) signature, but just to be sure...
@@ -314,8 +385,11 @@ public class GrpcSendingMailbox implements SendingMailbox {
       _mailbox = mailbox;
     }
 
-    protected abstract int processAndSend(DataBlock dataBlock)
-        throws IOException;
+    /// Sends the given payload and returns the number of bytes sent.
+    /// @param compression The compression used to build the payload, or null if the payload is not compressed.
+    /// @param uncompressedSizeInBytes The size of the serialized data block before compression.
+    protected abstract int processAndSend(List<ByteBuffer> payload, @Nullable String compression,
+        int uncompressedSizeInBytes);
   }
 
   private static class SplitSender extends Sender {
@@ -327,9 +401,9 @@ public class GrpcSendingMailbox implements SendingMailbox {
     }
 
     @Override
-    protected int processAndSend(DataBlock dataBlock)
-        throws IOException {
-      List<ByteString> byteStrings = toByteStrings(dataBlock, _maxByteStringSize);
+    protected int processAndSend(List<ByteBuffer> payload, @Nullable String compression,
+        int uncompressedSizeInBytes) {
+      List<ByteString> byteStrings = toByteStrings(payload, _maxByteStringSize);
       int sizeInBytes = 0;
       for (ByteString byteString : byteStrings) {
         sizeInBytes += byteString.size();
@@ -338,7 +412,7 @@ public class GrpcSendingMailbox implements SendingMailbox {
       while (byteStringIt.hasNext()) {
         ByteString byteString = byteStringIt.next();
         boolean waitForMore = byteStringIt.hasNext();
-        _mailbox.sendContent(byteString, waitForMore);
+        _mailbox.sendContent(byteString, waitForMore, compression, uncompressedSizeInBytes);
       }
       return sizeInBytes;
     }
@@ -350,11 +424,14 @@ public class GrpcSendingMailbox implements SendingMailbox {
     }
 
     @Override
-    protected int processAndSend(DataBlock dataBlock)
-        throws IOException {
-      ByteString byteString = DataBlockUtils.toByteString(dataBlock);
+    protected int processAndSend(List<ByteBuffer> payload, @Nullable String compression,
+        int uncompressedSizeInBytes) {
+      ByteString byteString = ByteString.EMPTY;
+      for (ByteBuffer byteBuffer : payload) {
+        byteString = byteString.concat(UnsafeByteOperations.unsafeWrap(byteBuffer));
+      }
       int sizeInBytes = byteString.size();
-      _mailbox.sendContent(byteString, false);
+      _mailbox.sendContent(byteString, false, compression, uncompressedSizeInBytes);
       return sizeInBytes;
     }
   }
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.mailbox;
+
+import java.util.Locale;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.compression.CompressionFactory;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner;
+
+
+/// Decides whether and how data blocks sent through a [GrpcSendingMailbox] are compressed.
+///
+/// Compression is chosen per block: blocks smaller than the configured minimum size are always sent raw, and when the
+/// policy is [adaptive][MultiStageQueryRunner#MAILBOX_COMPRESSION_ADAPTIVE] medium blocks use LZ4 (cheap, fast) while
+/// large ones use ZSTD (better ratio). Once compressed, the payload is only sent if it is
+/// [worth it][#isWorthSending(int, int)], so incompressible blocks do not pay the decompression cost on the receiver.
+public class MailboxCompressionPolicy {
+  public static final MailboxCompressionPolicy NONE =
+      new MailboxCompressionPolicy(MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION, Integer.MAX_VALUE,
+          Integer.MAX_VALUE, 0);
+
+  private static final String LZ4 = "LZ4";
+  private static final String ZSTD = "ZSTD";
+
+  @Nullable
+  private final String _compression;
+  private final boolean _adaptive;
+  private final int _minBlockSizeBytes;
+  private final int _zstdMinBlockSizeBytes;
+  private final double _maxRatio;
+
+  public MailboxCompressionPolicy(String compression, int minBlockSizeBytes, int zstdMinBlockSizeBytes,
+      double maxRatio) {
+    String upperCaseCompression = compression.toUpperCase(Locale.ROOT);
+    _adaptive = upperCaseCompression.equals(MultiStageQueryRunner.MAILBOX_COMPRESSION_ADAPTIVE);
+    if (_adaptive || upperCaseCompression.equals("NONE") || upperCaseCompression.equals("PASS_THROUGH")) {
+      _compression = null;
+    } else {
+      // Fail fast on unknown codecs instead of failing on the first sent block
+      CompressionFactory.getCompressor(upperCaseCompression);
+      _compression = upperCaseCompression;
+    }
+    _minBlockSizeBytes = minBlockSizeBytes;
+    _zstdMinBlockSizeBytes = zstdMinBlockSizeBytes;
+    _maxRatio = maxRatio;
+  }
+
+  public static MailboxCompressionPolicy fromConfig(PinotConfiguration config) {
+    String compression = config.getProperty(MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION,
+        MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION);
+    int minBlockSizeBytes = config.getProperty(MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_MIN_BLOCK_SIZE_BYTES,
+        MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION_MIN_BLOCK_SIZE_BYTES);
+    int zstdMinBlockSizeBytes = config.getProperty(
+        MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_ZSTD_MIN_BLOCK_SIZE_BYTES,
+        MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION_ZSTD_MIN_BLOCK_SIZE_BYTES);
+    double maxRatio = config.getProperty(MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_MAX_RATIO,
+        MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION_MAX_RATIO);
+    return new MailboxCompressionPolicy(compression, minBlockSizeBytes, zstdMinBlockSizeBytes, maxRatio);
+  }
+
+  public boolean isEnabled() {
+    return _adaptive || _compression != null;
+  }
+
+  /// Returns the compression type to use for a data block of the given serialized size, or `null` if the block
+  /// should be sent uncompressed.
+  @Nullable
+  public String selectCompression(int rawSizeInBytes) {
+    if (!isEnabled() || rawSizeInBytes < _minBlockSizeBytes) {
+      return null;
+    }
+    if (_adaptive) {
+      return rawSizeInBytes >= _zstdMinBlockSizeBytes ? ZSTD : LZ4;
+    }
+    return _compression;
+  }
+
+  /// Returns whether a compressed payload saves enough bytes to be sent instead of the raw one.
+  public boolean isWorthSending(int rawSizeInBytes, int compressedSizeInBytes) {
+    return compressedSizeInBytes <= rawSizeInBytes * _maxRatio;
+  }
+
+  @Override
+  public String toString() {
+    return "{\"compression\": \"" + (_adaptive ? MultiStageQueryRunner.MAILBOX_COMPRESSION_ADAPTIVE : _compression)
+        + "\", \"minBlockSizeBytes\": " + _minBlockSizeBytes + ", \"zstdMinBlockSizeBytes\": "
+        + _zstdMinBlockSizeBytes + ", \"maxRatio\": " + _maxRatio + "}";
+  }
+}
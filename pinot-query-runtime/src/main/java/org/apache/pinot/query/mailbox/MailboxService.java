@@ -66,6 +66,7 @@ public class MailboxService {
   private final ChannelManager _channelManager;
   @Nullable private final TlsConfig _tlsConfig;
   private final int _maxByteStringSize;
+  private final MailboxCompressionPolicy _compressionPolicy;
 
   private GrpcMailboxServer _grpcMailboxServer;
 
@@ -91,7 +92,9 @@ public class MailboxService {
     } else {
       _maxByteStringSize = 0;
     }
-    LOGGER.info("Initialized MailboxService with hostname: {}, port: {}", hostname, port);
+    _compressionPolicy = MailboxCompressionPolicy.fromConfig(config);
+    LOGGER.info("Initialized MailboxService with hostname: {}, port: {}, compression: {}", hostname, port,
+        _compressionPolicy);
   }
 
   /**
@@ -130,7 +133,8 @@ public class MailboxService {
       return new InMemorySendingMailbox(mailboxId, this, deadlineMs, statMap);
     } else {
       return new GrpcSendingMailbox(
-          _config, mailboxId, _channelManager, hostname, port, deadlineMs, statMap, _maxByteStringSize);
+          _config, mailboxId, _channelManager, hostname, port, deadlineMs, statMap, _maxByteStringSize,
+          _compressionPolicy);
     }
   }
 
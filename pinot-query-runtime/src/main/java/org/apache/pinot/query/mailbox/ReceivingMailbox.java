@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import com.google.errorprone.annotations.ThreadSafe;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.compression.CompressionFactory;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
@@ -103,15 +105,40 @@ public class ReceivingMailbox {
    */
   public ReceivingMailboxStatus offerRaw(List<ByteBuffer> byteBuffers, long timeoutMs)
       throws IOException {
+    return offerRaw(byteBuffers, null, -1, timeoutMs);
+  }
+
+  /**
+   * Offers a raw block into the mailbox within the timeout specified, returns whether the block is successfully added.
+   * If the block is not added, an error block is added to the mailbox.
+   * <p>
+   * Data blocks are not deserialized (nor decompressed) here. Instead, they are offered as lazy
+   * {@link SerializedDataBlock}s that are deserialized by the reader when an operator actually reads them. Metadata
+   * blocks are deserialized eagerly, as they may be error blocks and carry the stats.
+   *
+   * @param compression the compression used by the sender, or null if the payload is not compressed. Only data blocks
+   *                    are compressed.
+   * @param uncompressedSizeInBytes the size of the payload before compression. Ignored if not compressed.
+   */
+  public ReceivingMailboxStatus offerRaw(List<ByteBuffer> byteBuffers, @Nullable String compression,
+      int uncompressedSizeInBytes, long timeoutMs)
+      throws IOException {
     MseBlock block;
     updateWaitCpuTime();
     int totalBytes = 0;
     for (ByteBuffer bb: byteBuffers) {
       totalBytes += bb.remaining();
     }
-    _stats.merge(StatKey.DESERIALIZED_BYTES, totalBytes);
+    _stats.merge(StatKey.RECEIVED_BYTES, totalBytes);
+    _stats.merge(StatKey.DESERIALIZED_BYTES, compression != null ? uncompressedSizeInBytes : totalBytes);
     _stats.merge(StatKey.DESERIALIZED_MESSAGES, 1);
 
+    if (compression != null || isDataBlock(byteBuffers)) {
+      // Data blocks never carry stats, so there is no need to deserialize them before the reader asks for them
+      return offerPrivate(SerializedDataBlock.lazy(() -> deserializeDataBlock(byteBuffers, compression)), List.of(),
+          timeoutMs);
+    }
+
     long now = System.currentTimeMillis();
     DataBlock dataBlock = DataBlockUtils.deserialize(byteBuffers);
     _stats.merge(StatKey.DESERIALIZATION_TIME_MS, System.currentTimeMillis() - now);
@@ -134,6 +161,50 @@ public class ReceivingMailbox {
     return offerPrivate(block, dataBlock.getStatsByStage(), timeoutMs);
   }
 
+  /// Peeks the type of the serialized block without deserializing it.
+  private static boolean isDataBlock(List<ByteBuffer> byteBuffers) {
+    if (byteBuffers.isEmpty() || byteBuffers.get(0).remaining() < Integer.BYTES) {
+      return false;
+    }
+    int versionType = DataBlockUtils.readVersionType(byteBuffers.get(0).duplicate().order(ByteOrder.BIG_ENDIAN));
+    try {
+      return DataBlockUtils.getType(versionType) != DataBlock.Type.METADATA;
+    } catch (RuntimeException e) {
+      // Let the eager deserialization report the corrupted block
+      return false;
+    }
+  }
+
+  private DataBlock deserializeDataBlock(List<ByteBuffer> byteBuffers, @Nullable String compression)
+      throws IOException {
+    long now = System.currentTimeMillis();
+    try {
+      if (compression == null) {
+        return DataBlockUtils.deserialize(byteBuffers);
+      }
+      int totalBytes = 0;
+      for (ByteBuffer bb: byteBuffers) {
+        totalBytes += bb.remaining();
+      }
+      byte[] compressed = new byte[totalBytes];
+      int offset = 0;
+      for (ByteBuffer bb: byteBuffers) {
+        int remaining = bb.remaining();
+        bb.duplicate().get(compressed, offset, remaining);
+        offset += remaining;
+      }
+      byte[] decompressed;
+      try {
+        decompressed = CompressionFactory.getCompressor(compression).decompress(compressed);
+      } catch (Exception e) {
+        throw new IOException("Failed to decompress data block with compression: " + compression, e);
+      }
+      return DataBlockUtils.deserialize(List.of(ByteBuffer.wrap(decompressed)));
+    } finally {
+      _stats.merge(StatKey.DESERIALIZATION_TIME_MS, System.currentTimeMillis() - now);
+    }
+  }
+
   public ReceivingMailboxStatus offer(MseBlock block, List<DataBuffer> serializedStats, long timeoutMs) {
     updateWaitCpuTime();
     _stats.merge(StatKey.IN_MEMORY_MESSAGES, 1);
@@ -281,7 +352,9 @@ public class ReceivingMailbox {
     },
     IN_MEMORY_MESSAGES(StatMap.Type.INT),
     OFFER_CPU_TIME_MS(StatMap.Type.LONG),
-    WAIT_CPU_TIME_MS(StatMap.Type.LONG);
+    WAIT_CPU_TIME_MS(StatMap.Type.LONG),
+    /// Bytes received from the network, which is lower than DESERIALIZED_BYTES when the sender compresses blocks.
+    RECEIVED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
@@ -27,6 +27,10 @@ public class ChannelUtils {
 
   public static final String MAILBOX_METADATA_BUFFER_SIZE_KEY = "buffer.size";
   public static final String MAILBOX_METADATA_REQUEST_EARLY_TERMINATE = "request.early.terminate";
+  /// Set on the last chunk of a compressed data block. The value is the compression type used to compress the payload.
+  public static final String MAILBOX_METADATA_COMPRESSION_KEY = "compression";
+  /// Set on the last chunk of a compressed data block. The value is the size of the payload before compression.
+  public static final String MAILBOX_METADATA_UNCOMPRESSED_SIZE_KEY = "uncompressed.size";
 
   public static final Metadata.Key<String> MAILBOX_ID_METADATA_KEY =
     Metadata.Key.of("mailboxId", Metadata.ASCII_STRING_MARSHALLER);
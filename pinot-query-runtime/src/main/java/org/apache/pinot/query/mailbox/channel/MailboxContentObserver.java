@@ -74,7 +74,12 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
       long timeoutMs = Context.current().getDeadline().timeRemaining(TimeUnit.MILLISECONDS);
       List<ByteBuffer> buffers = new ArrayList<>(_mailboxBuffers);
       _mailboxBuffers.clear();
-      ReceivingMailbox.ReceivingMailboxStatus status = _mailbox.offerRaw(buffers, timeoutMs);
+      // Compression metadata is only attached to the last chunk of the block
+      String compression = mailboxContent.getMetadataOrDefault(ChannelUtils.MAILBOX_METADATA_COMPRESSION_KEY, null);
+      int uncompressedSize = compression != null ? Integer.parseInt(
+          mailboxContent.getMetadataOrThrow(ChannelUtils.MAILBOX_METADATA_UNCOMPRESSED_SIZE_KEY)) : -1;
+      ReceivingMailbox.ReceivingMailboxStatus status =
+          _mailbox.offerRaw(buffers, compression, uncompressedSize, timeoutMs);
       switch (status) {
         case SUCCESS:
           _responseObserver.onNext(MailboxStatus.newBuilder().setMailboxId(mailboxId)
@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import io.grpc.stub.StreamObserver;
+import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -65,6 +66,7 @@ import org.apache.pinot.query.runtime.operator.LeafOperator;
 import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.utils.DataBlockSpillFile;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.query.runtime.plan.PlanNodeToOpChain;
@@ -136,6 +138,10 @@ public class QueryRunner {
   @Nullable
   private JoinOverFlowMode _joinOverflowMode;
   @Nullable
+  private Long _joinSpillThresholdBytes;
+  @Nullable
+  private Long _sortSpillThresholdBytes;
+  @Nullable
   private Integer _maxRowsInWindow;
   @Nullable
   private WindowOverFlowMode _windowOverflowMode;
@@ -192,6 +198,17 @@ public class QueryRunner {
         serverConf.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_OVERFLOW_MODE);
     _joinOverflowMode = joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
 
+    String joinSpillThresholdBytesStr =
+        serverConf.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_SPILL_THRESHOLD_BYTES);
+    _joinSpillThresholdBytes = joinSpillThresholdBytesStr != null ? Long.parseLong(joinSpillThresholdBytesStr) : null;
+    String sortSpillThresholdBytesStr =
+        serverConf.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SORT_SPILL_THRESHOLD_BYTES);
+    _sortSpillThresholdBytes = sortSpillThresholdBytesStr != null ? Long.parseLong(sortSpillThresholdBytesStr) : null;
+    String spillDir = serverConf.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
+    if (spillDir != null) {
+      DataBlockSpillFile.setSpillDir(new File(spillDir));
+    }
+
     String maxRowsInWindowStr = serverConf.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAX_ROWS_IN_WINDOW);
     _maxRowsInWindow = maxRowsInWindowStr != null ? Integer.parseInt(maxRowsInWindowStr) : null;
 
@@ -503,6 +520,22 @@ public class QueryRunner {
       opChainMetadata.put(QueryOptionKey.JOIN_OVERFLOW_MODE, joinOverflowMode.name());
     }
 
+    Long joinSpillThresholdBytes = QueryOptionsUtils.getJoinSpillThresholdBytes(opChainMetadata);
+    if (joinSpillThresholdBytes == null) {
+      joinSpillThresholdBytes = _joinSpillThresholdBytes;
+    }
+    if (joinSpillThresholdBytes != null) {
+      opChainMetadata.put(QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES, Long.toString(joinSpillThresholdBytes));
+    }
+
+    Long sortSpillThresholdBytes = QueryOptionsUtils.getSortSpillThresholdBytes(opChainMetadata);
+    if (sortSpillThresholdBytes == null) {
+      sortSpillThresholdBytes = _sortSpillThresholdBytes;
+    }
+    if (sortSpillThresholdBytes != null) {
+      opChainMetadata.put(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, Long.toString(sortSpillThresholdBytes));
+    }
+
     Integer maxRowsInWindow = QueryOptionsUtils.getMaxRowsInWindow(opChainMetadata);
     if (maxRowsInWindow == null) {
       maxRowsInWindow = _maxRowsInWindow;
@@ -45,6 +45,7 @@ public interface BlockSplitter {
    *  Split a block into multiple block so that each block size is within maxBlockSize. Currently,
    *  <ul>
    *    <li>For row data block, we split for row type dataBlock.</li>
+   *    <li>For column heap data block, we split by row ranges.</li>
    *    <li>For columnar data block, exceptions are thrown.</li>
    *    <li>For metadata block, split is not supported.</li>
    *  </ul>
@@ -64,12 +65,9 @@ public interface BlockSplitter {
 
     @Override
     public Iterator<MseBlock.Data> visit(RowHeapDataBlock block, Integer maxBlockSize) {
-      // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
       DataSchema dataSchema = block.getDataSchema();
       assert dataSchema != null;
-      int estimatedRowSizeInBytes = Math.max(1, dataSchema.getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES);
-      int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
-      Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
+      int numRowsPerChunk = getNumRowsPerChunk(dataSchema, maxBlockSize);
 
       List<Object[]> rows = block.getRows();
       int numRows = rows.size();
@@ -85,6 +83,28 @@ public interface BlockSplitter {
       return blockChunks.iterator();
     }
 
+    private static int getNumRowsPerChunk(DataSchema dataSchema, int maxBlockSize) {
+      // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
+      int estimatedRowSizeInBytes = Math.max(1, dataSchema.getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES);
+      int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
+      Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
+      return numRowsPerChunk;
+    }
+
+    @Override
+    public Iterator<MseBlock.Data> visit(ColumnHeapDataBlock block, Integer maxBlockSize) {
+      int numRowsPerChunk = getNumRowsPerChunk(block.getDataSchema(), maxBlockSize);
+      int numRows = block.getNumRows();
+      if (numRows <= numRowsPerChunk) {
+        return Iterators.singletonIterator(block);
+      }
+      List<MseBlock.Data> blockChunks = new ArrayList<>((numRows + numRowsPerChunk - 1) / numRowsPerChunk);
+      for (int fromIndex = 0; fromIndex < numRows; fromIndex += numRowsPerChunk) {
+        blockChunks.add(block.slice(fromIndex, Math.min(fromIndex + numRowsPerChunk, numRows)));
+      }
+      return blockChunks.iterator();
+    }
+
     @Override
     public Iterator<MseBlock.Data> visit(SerializedDataBlock block, Integer maxBlockSize
     ) {
@@ -0,0 +1,465 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/// A block that contains data in column heap format.
+///
+/// Each column is stored as a vector on heap: columns whose stored type is `INT`, `LONG`, `FLOAT` or `DOUBLE` are
+/// stored as primitive arrays plus an optional null bitmap, and other columns are stored as `Object[]` where null
+/// values are represented as `null` (the same values that would be stored in a [RowHeapDataBlock]).
+///
+/// Compared to [RowHeapDataBlock], this representation doesn't need to allocate an array per row nor box the
+/// primitive values, and it can be serialized into a columnar [DataBlock] without pivoting the data into rows.
+/// Operators that can work column by column (like [org.apache.pinot.query.runtime.operator.FilterOperator],
+/// [org.apache.pinot.query.runtime.operator.TransformOperator] and
+/// [org.apache.pinot.query.runtime.operator.AggregateOperator]) should prefer this format when enabled.
+///
+/// Columns with `OBJECT` stored type (aggregation intermediate results) are not supported. Use [#isSupported] to check
+/// whether a schema can be represented with this block.
+public class ColumnHeapDataBlock implements MseBlock.Data {
+  private final DataSchema _dataSchema;
+  private final int _numRows;
+  private final Object[] _columns;
+  private final RoaringBitmap[] _nullBitmaps;
+
+  /// Creates a new block with the given column vectors.
+  /// @param columns The column vectors. Once received, the vectors should not be mutated from outside this class.
+  /// @param nullBitmaps The null bitmaps of the primitive columns, where `null` means no null value. Ignored for the
+  ///                    `Object[]` columns.
+  public ColumnHeapDataBlock(DataSchema dataSchema, int numRows, Object[] columns, RoaringBitmap[] nullBitmaps) {
+    _dataSchema = dataSchema;
+    _numRows = numRows;
+    _columns = columns;
+    _nullBitmaps = nullBitmaps;
+  }
+
+  /// Returns whether the given schema can be represented as a [ColumnHeapDataBlock].
+  public static boolean isSupported(DataSchema dataSchema) {
+    for (ColumnDataType columnDataType : dataSchema.getColumnDataTypes()) {
+      if (columnDataType.getStoredType() == ColumnDataType.OBJECT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /// Pivots the given rows into a column heap block.
+  public static ColumnHeapDataBlock fromRows(List<Object[]> rows, DataSchema dataSchema) {
+    int numRows = rows.size();
+    int numColumns = dataSchema.size();
+    ColumnBuilder[] builders = new ColumnBuilder[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      builders[colId] = new ColumnBuilder(dataSchema.getColumnDataType(colId), numRows);
+    }
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] row = rows.get(rowId);
+      for (int colId = 0; colId < numColumns; colId++) {
+        builders[colId].set(rowId, row[colId]);
+      }
+    }
+    return build(dataSchema, numRows, builders);
+  }
+
+  /// Extracts the columns of the given data block into a column heap block.
+  public static ColumnHeapDataBlock fromDataBlock(DataBlock dataBlock) {
+    DataSchema dataSchema = dataBlock.getDataSchema();
+    int numRows = dataBlock.getNumberOfRows();
+    int numColumns = dataSchema.size();
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+      RoaringBitmap nullBitmap = dataBlock.getNullRowIds(colId);
+      if (nullBitmap != null && nullBitmap.isEmpty()) {
+        nullBitmap = null;
+      }
+      switch (columnDataType.getStoredType()) {
+        case INT:
+          columns[colId] = DataBlockExtractUtils.extractIntColumn(DataType.INT, dataBlock, colId, nullBitmap);
+          nullBitmaps[colId] = nullBitmap;
+          break;
+        case LONG:
+          columns[colId] = DataBlockExtractUtils.extractLongColumn(DataType.LONG, dataBlock, colId, nullBitmap);
+          nullBitmaps[colId] = nullBitmap;
+          break;
+        case FLOAT:
+          columns[colId] = DataBlockExtractUtils.extractFloatColumn(DataType.FLOAT, dataBlock, colId, nullBitmap);
+          nullBitmaps[colId] = nullBitmap;
+          break;
+        case DOUBLE:
+          columns[colId] = DataBlockExtractUtils.extractDoubleColumn(DataType.DOUBLE, dataBlock, colId, nullBitmap);
+          nullBitmaps[colId] = nullBitmap;
+          break;
+        default:
+          columns[colId] = DataBlockExtractUtils.extractKey(dataBlock, colId);
+          break;
+      }
+    }
+    return new ColumnHeapDataBlock(dataSchema, numRows, columns, nullBitmaps);
+  }
+
+  private static ColumnHeapDataBlock build(DataSchema dataSchema, int numRows, ColumnBuilder[] builders) {
+    int numColumns = builders.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns[colId] = builders[colId].getVector();
+      nullBitmaps[colId] = builders[colId].getNullBitmap();
+    }
+    return new ColumnHeapDataBlock(dataSchema, numRows, columns, nullBitmaps);
+  }
+
+  @Override
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  /// Returns the vector of the given column, which is an `int[]`, `long[]`, `float[]` or `double[]` for columns with
+  /// primitive stored type, or an `Object[]` otherwise. The returned vector should be considered immutable.
+  public Object getColumn(int colId) {
+    return _columns[colId];
+  }
+
+  /// Returns the null bitmap of the given primitive column, or `null` if there is no null value or the column is not a
+  /// primitive column. The returned bitmap should be considered immutable.
+  @Nullable
+  public RoaringBitmap getNullBitmap(int colId) {
+    return _nullBitmaps[colId];
+  }
+
+  /// Returns the (boxed) value of the given cell, or `null` if the value is null.
+  @Nullable
+  public Object getValue(int rowId, int colId) {
+    Object column = _columns[colId];
+    if (column instanceof Object[]) {
+      return ((Object[]) column)[rowId];
+    }
+    RoaringBitmap nullBitmap = _nullBitmaps[colId];
+    if (nullBitmap != null && nullBitmap.contains(rowId)) {
+      return null;
+    }
+    if (column instanceof int[]) {
+      return ((int[]) column)[rowId];
+    } else if (column instanceof long[]) {
+      return ((long[]) column)[rowId];
+    } else if (column instanceof float[]) {
+      return ((float[]) column)[rowId];
+    } else {
+      return ((double[]) column)[rowId];
+    }
+  }
+
+  /// Returns a reusable row view over this block. The view is positioned on a row with [RowView#setRowId] and the
+  /// values are only read (and boxed) when accessed.
+  public RowView getRowView() {
+    return new RowView();
+  }
+
+  /// Returns a new block with the given rows of this block, in the given order.
+  /// @param rowIds The ids of the rows to keep. Only the first `numRows` ids are used.
+  public ColumnHeapDataBlock select(int[] rowIds, int numRows) {
+    int numColumns = _columns.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns[colId] = selectColumn(colId, rowIds, numRows);
+      nullBitmaps[colId] = selectNullBitmap(colId, rowIds, numRows);
+    }
+    return new ColumnHeapDataBlock(_dataSchema, numRows, columns, nullBitmaps);
+  }
+
+  /// Returns a new vector with the given rows of the given column, in the given order.
+  /// @param rowIds The ids of the rows to keep. Only the first `numRows` ids are used.
+  public Object selectColumn(int colId, int[] rowIds, int numRows) {
+    Object column = _columns[colId];
+    if (column instanceof int[]) {
+      int[] values = (int[]) column;
+      int[] selected = new int[numRows];
+      for (int i = 0; i < numRows; i++) {
+        selected[i] = values[rowIds[i]];
+      }
+      return selected;
+    } else if (column instanceof long[]) {
+      long[] values = (long[]) column;
+      long[] selected = new long[numRows];
+      for (int i = 0; i < numRows; i++) {
+        selected[i] = values[rowIds[i]];
+      }
+      return selected;
+    } else if (column instanceof float[]) {
+      float[] values = (float[]) column;
+      float[] selected = new float[numRows];
+      for (int i = 0; i < numRows; i++) {
+        selected[i] = values[rowIds[i]];
+      }
+      return selected;
+    } else if (column instanceof double[]) {
+      double[] values = (double[]) column;
+      double[] selected = new double[numRows];
+      for (int i = 0; i < numRows; i++) {
+        selected[i] = values[rowIds[i]];
+      }
+      return selected;
+    } else {
+      Object[] values = (Object[]) column;
+      Object[] selected = new Object[numRows];
+      for (int i = 0; i < numRows; i++) {
+        selected[i] = values[rowIds[i]];
+      }
+      return selected;
+    }
+  }
+
+  /// Returns the null bitmap of the given column for the given rows, or `null` if none of the rows is null.
+  /// @param rowIds The ids of the rows to keep. Only the first `numRows` ids are used.
+  @Nullable
+  public RoaringBitmap selectNullBitmap(int colId, int[] rowIds, int numRows) {
+    RoaringBitmap nullBitmap = _nullBitmaps[colId];
+    if (nullBitmap == null) {
+      return null;
+    }
+    RoaringBitmap selectedNullBitmap = new RoaringBitmap();
+    for (int i = 0; i < numRows; i++) {
+      if (nullBitmap.contains(rowIds[i])) {
+        selectedNullBitmap.add(i);
+      }
+    }
+    return selectedNullBitmap.isEmpty() ? null : selectedNullBitmap;
+  }
+
+  /// Returns a new block with the rows in range `[fromRowId, toRowId)` of this block.
+  public ColumnHeapDataBlock slice(int fromRowId, int toRowId) {
+    int numColumns = _columns.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      Object column = _columns[colId];
+      if (column instanceof int[]) {
+        columns[colId] = Arrays.copyOfRange((int[]) column, fromRowId, toRowId);
+      } else if (column instanceof long[]) {
+        columns[colId] = Arrays.copyOfRange((long[]) column, fromRowId, toRowId);
+      } else if (column instanceof float[]) {
+        columns[colId] = Arrays.copyOfRange((float[]) column, fromRowId, toRowId);
+      } else if (column instanceof double[]) {
+        columns[colId] = Arrays.copyOfRange((double[]) column, fromRowId, toRowId);
+      } else {
+        columns[colId] = Arrays.copyOfRange((Object[]) column, fromRowId, toRowId);
+      }
+      RoaringBitmap nullBitmap = _nullBitmaps[colId];
+      if (nullBitmap != null) {
+        RoaringBitmap slicedNullBitmap = new RoaringBitmap();
+        PeekableIntIterator iterator = nullBitmap.getIntIterator();
+        iterator.advanceIfNeeded(fromRowId);
+        while (iterator.hasNext()) {
+          int rowId = iterator.next();
+          if (rowId >= toRowId) {
+            break;
+          }
+          slicedNullBitmap.add(rowId - fromRowId);
+        }
+        nullBitmaps[colId] = slicedNullBitmap.isEmpty() ? null : slicedNullBitmap;
+      }
+    }
+    return new ColumnHeapDataBlock(_dataSchema, toRowId - fromRowId, columns, nullBitmaps);
+  }
+
+  /// Pivots the columns into rows. This is a CPU and memory intensive operation.
+  @Override
+  public RowHeapDataBlock asRowHeap() {
+    int numColumns = _columns.length;
+    List<Object[]> rows = new ArrayList<>(_numRows);
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      rows.add(new Object[numColumns]);
+    }
+    for (int colId = 0; colId < numColumns; colId++) {
+      Object column = _columns[colId];
+      if (column instanceof Object[]) {
+        Object[] values = (Object[]) column;
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          rows.get(rowId)[colId] = values[rowId];
+        }
+      } else {
+        RoaringBitmap nullBitmap = _nullBitmaps[colId];
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          if (nullBitmap == null || !nullBitmap.contains(rowId)) {
+            rows.get(rowId)[colId] = getValue(rowId, colId);
+          }
+        }
+      }
+    }
+    return new RowHeapDataBlock(rows, _dataSchema);
+  }
+
+  /// Serializes the columns into a columnar [DataBlock] without pivoting them into rows.
+  @Override
+  public SerializedDataBlock asSerialized() {
+    try {
+      return new SerializedDataBlock(
+          DataBlockBuilder.buildFromColumnVectors(_columns, _nullBitmaps, _numRows, _dataSchema));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /// Returns this same object.
+  @Override
+  public ColumnHeapDataBlock asColumnHeap() {
+    return this;
+  }
+
+  @Override
+  public boolean isRowHeap() {
+    return false;
+  }
+
+  @Override
+  public boolean isColumnHeap() {
+    return true;
+  }
+
+  @Override
+  public <R, A> R accept(Data.Visitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public String toString() {
+    return "{\"type\": \"columnHeap\", \"numRows\": " + getNumRows() + "}";
+  }
+
+  /// A read-only [List] view over one row of the block, so that row based evaluators (like
+  /// [org.apache.pinot.query.runtime.operator.operands.TransformOperand]) can be applied without materializing the
+  /// row.
+  public class RowView extends AbstractList<Object> {
+    private int _rowId;
+
+    public void setRowId(int rowId) {
+      _rowId = rowId;
+    }
+
+    @Nullable
+    @Override
+    public Object get(int index) {
+      return getValue(_rowId, index);
+    }
+
+    @Override
+    public int size() {
+      return _columns.length;
+    }
+  }
+
+  /// Builds a column vector of fixed size from (boxed) values.
+  public static class ColumnBuilder {
+    private final ColumnDataType _storedType;
+    private final Object _vector;
+    private RoaringBitmap _nullBitmap;
+
+    public ColumnBuilder(ColumnDataType columnDataType, int numRows) {
+      _storedType = columnDataType.getStoredType();
+      switch (_storedType) {
+        case INT:
+          _vector = new int[numRows];
+          break;
+        case LONG:
+          _vector = new long[numRows];
+          break;
+        case FLOAT:
+          _vector = new float[numRows];
+          break;
+        case DOUBLE:
+          _vector = new double[numRows];
+          break;
+        default:
+          Preconditions.checkArgument(_storedType != ColumnDataType.OBJECT,
+              "OBJECT columns are not supported in column heap blocks");
+          _vector = new Object[numRows];
+          break;
+      }
+    }
+
+    public void set(int rowId, @Nullable Object value) {
+      switch (_storedType) {
+        case INT:
+          if (value != null) {
+            ((int[]) _vector)[rowId] = ((Number) value).intValue();
+            return;
+          }
+          break;
+        case LONG:
+          if (value != null) {
+            ((long[]) _vector)[rowId] = ((Number) value).longValue();
+            return;
+          }
+          break;
+        case FLOAT:
+          if (value != null) {
+            ((float[]) _vector)[rowId] = ((Number) value).floatValue();
+            return;
+          }
+          break;
+        case DOUBLE:
+          if (value != null) {
+            ((double[]) _vector)[rowId] = ((Number) value).doubleValue();
+            return;
+          }
+          break;
+        default:
+          ((Object[]) _vector)[rowId] = value;
+          return;
+      }
+      if (_nullBitmap == null) {
+        _nullBitmap = new RoaringBitmap();
+      }
+      _nullBitmap.add(rowId);
+    }
+
+    public Object getVector() {
+      return _vector;
+    }
+
+    @Nullable
+    public RoaringBitmap getNullBitmap() {
+      return _nullBitmap;
+    }
+  }
+}
@@ -77,7 +77,7 @@ public interface MseBlock extends Block {
   <R, A> R accept(Visitor<R, A> visitor, A arg);
 
   /// A block that contains data.
-  /// These blocks can store data as [rows on heap][RowHeapDataBlock] or as
+  /// These blocks can store data as [rows on heap][RowHeapDataBlock], as [columns on heap][ColumnHeapDataBlock] or as
   /// [DataBlocks][SerializedDataBlock].
   interface Data extends MseBlock {
     /// Returns the number of rows in the block.
@@ -95,12 +95,20 @@ public interface MseBlock extends Block {
     /// if the block is a [RowHeapDataBlock].
     /// @throws java.io.UncheckedIOException if the block cannot be serialized.
     SerializedDataBlock asSerialized();
+    /// Returns the data in the block as a [ColumnHeapDataBlock].
+    /// This is a no-op if the block is already a [ColumnHeapDataBlock] but is a CPU and memory intensive operation
+    /// otherwise. The schema of the block must be [supported][ColumnHeapDataBlock#isSupported].
+    ColumnHeapDataBlock asColumnHeap();
 
     /// Returns whether the block is a [RowHeapDataBlock].
     boolean isRowHeap();
+    /// Returns whether the block is a [ColumnHeapDataBlock].
+    default boolean isColumnHeap() {
+      return false;
+    }
     /// Returns whether the block is a [SerializedDataBlock].
     default boolean isSerialized() {
-      return !isRowHeap();
+      return !isRowHeap() && !isColumnHeap();
     }
 
     @Override
@@ -130,6 +138,7 @@ public interface MseBlock extends Block {
     /// @param <A> The argument type of the visitor. Use [Void] if the visitor does not take any arguments.
     interface Visitor<R, A> {
       R visit(RowHeapDataBlock block, A arg);
+      R visit(ColumnHeapDataBlock block, A arg);
       R visit(SerializedDataBlock block, A arg);
     }
   }
@@ -111,6 +111,11 @@ public class RowHeapDataBlock implements MseBlock.Data {
     }
   }
 
+  @Override
+  public ColumnHeapDataBlock asColumnHeap() {
+    return ColumnHeapDataBlock.fromRows(_rows, _dataSchema);
+  }
+
   @Override
   public boolean isRowHeap() {
     return true;
@@ -19,7 +19,10 @@
 package org.apache.pinot.query.runtime.blocks;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.util.DataBlockExtractUtils;
@@ -29,9 +32,15 @@ import org.apache.pinot.core.util.DataBlockExtractUtils;
 /// This class is a subclass of [MseBlock.Data] and is used to store data in serialized format.
 /// This is the most efficient way to store data, but it is also the hardest to work with.
 /// As the day this comment was written, this class is only used when we need to shuffle data through the network.
-/// In all other cases, we use [RowHeapDataBlock].
+/// In all other cases, we use [RowHeapDataBlock] or [ColumnHeapDataBlock].
+///
+/// Blocks received from the network are created [lazily][#lazy(Loader)], so the payload is only decompressed and
+/// deserialized when an operator actually reads it. Like any other block, instances are not thread safe.
 public class SerializedDataBlock implements MseBlock.Data {
-  private final DataBlock _dataBlock;
+  @Nullable
+  private DataBlock _dataBlock;
+  @Nullable
+  private Loader _loader;
 
   /// Creates a new block with the given data block.
   /// @param dataBlock The data block to store in this block. It cannot be a metadata block.
@@ -42,26 +51,56 @@ public class SerializedDataBlock implements MseBlock.Data {
     _dataBlock = dataBlock;
   }
 
-  /// Returns the data block stored in this block.
+  private SerializedDataBlock(Loader loader) {
+    _loader = loader;
+  }
+
+  /// Creates a new block whose data block is only loaded the first time it is accessed.
+  /// @param loader The loader used to deserialize the data block. It must not return a metadata block.
+  public static SerializedDataBlock lazy(Loader loader) {
+    return new SerializedDataBlock(loader);
+  }
+
+  /// Returns the data block stored in this block, loading it if needed.
   /// It is guaranteed that the returned data block is not a metadata block.
+  /// @throws UncheckedIOException If the data block cannot be loaded.
   public DataBlock getDataBlock() {
+    if (_dataBlock == null) {
+      assert _loader != null;
+      DataBlock dataBlock;
+      try {
+        dataBlock = _loader.load();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to load serialized data block", e);
+      }
+      Preconditions.checkState(dataBlock.getDataBlockType() != DataBlock.Type.METADATA,
+          "SerializedDataBlock cannot be used to decorate metadata block");
+      _dataBlock = dataBlock;
+      _loader = null;
+    }
     return _dataBlock;
   }
 
+  /// Returns whether the data block has already been loaded.
+  public boolean isLoaded() {
+    return _dataBlock != null;
+  }
+
   @Override
   public int getNumRows() {
-    return _dataBlock.getNumberOfRows();
+    return getDataBlock().getNumberOfRows();
   }
 
   @Override
   public DataSchema getDataSchema() {
-    return _dataBlock.getDataSchema();
+    return getDataBlock().getDataSchema();
   }
 
   @Override
   public RowHeapDataBlock asRowHeap() {
-    List<Object[]> rows = DataBlockExtractUtils.extractRows(_dataBlock);
-    return new RowHeapDataBlock(rows, _dataBlock.getDataSchema(), null);
+    DataBlock dataBlock = getDataBlock();
+    List<Object[]> rows = DataBlockExtractUtils.extractRows(dataBlock);
+    return new RowHeapDataBlock(rows, dataBlock.getDataSchema(), null);
   }
 
   @Override
@@ -69,6 +108,11 @@ public class SerializedDataBlock implements MseBlock.Data {
     return this;
   }
 
+  @Override
+  public ColumnHeapDataBlock asColumnHeap() {
+    return ColumnHeapDataBlock.fromDataBlock(getDataBlock());
+  }
+
   @Override
   public boolean isRowHeap() {
     return false;
@@ -81,6 +125,17 @@ public class SerializedDataBlock implements MseBlock.Data {
 
   @Override
   public String toString() {
+    // Do not load the block just to log it
+    if (!isLoaded()) {
+      return "{\"type\": \"serialized\", \"loaded\": false}";
+    }
     return "{\"type\": \"serialized\", \"numRows\": " + getNumRows() + "}";
   }
+
+  /// Loads a serialized data block on demand.
+  @FunctionalInterface
+  public interface Loader {
+    DataBlock load()
+        throws IOException;
+  }
 }
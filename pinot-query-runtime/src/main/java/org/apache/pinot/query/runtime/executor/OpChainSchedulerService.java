@@ -28,12 +28,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.query.runtime.operator.utils.BlockingMultiStreamConsumer;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.spi.accounting.ThreadExecutionContext;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -42,6 +46,12 @@ import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Runs each registered {@link OpChain} as a task of the given executor until the root operator returns EOS or an error.
+ * An opchain holds its thread while it waits for data from its receiving mailboxes, so with a thread pool executor the
+ * number of concurrent opchains is bounded by the number of threads. Using the "virtual" executor type decouples both,
+ * as a virtual thread blocked on a mailbox does not hold a carrier thread.
+ */
 public class OpChainSchedulerService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OpChainSchedulerService.class);
 
@@ -72,12 +82,19 @@ public class OpChainSchedulerService {
         .maximumWeight(maxWeight)
         .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
         .build();
+    ServerMetrics serverMetrics = ServerMetrics.get();
+    serverMetrics.setOrUpdateGlobalGauge(ServerGauge.MULTI_STAGE_REGISTERED_OPCHAINS, _submittedOpChainMap::size);
+    serverMetrics.setOrUpdateGlobalGauge(ServerGauge.MULTI_STAGE_BLOCKED_MAILBOX_CONSUMERS,
+        BlockingMultiStreamConsumer::getNumBlockedConsumers);
   }
 
   public void register(OpChain operatorChain) {
+    long registerTimeNs = System.nanoTime();
     Future<?> scheduledFuture = _executorService.submit(new TraceRunnable() {
       @Override
       public void runJob() {
+        ServerMetrics.get().addTimedValue(ServerTimer.MULTI_STAGE_OPCHAIN_SCHEDULING_DELAY_MS,
+            System.nanoTime() - registerTimeNs, TimeUnit.NANOSECONDS);
         ErrorMseBlock errorBlock = null;
         Throwable thrown = null;
         // try-with-resources to ensure that the operator chain is closed
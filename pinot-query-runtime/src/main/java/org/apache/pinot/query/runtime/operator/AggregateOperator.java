@@ -36,6 +36,7 @@ import org.apache.pinot.common.request.context.FunctionContext;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.operator.docvalsets.ColumnVectorBlockValSet;
 import org.apache.pinot.core.operator.docvalsets.DataBlockValSet;
 import org.apache.pinot.core.operator.docvalsets.FilteredDataBlockValSet;
 import org.apache.pinot.core.operator.docvalsets.FilteredRowBasedBlockValSet;
@@ -49,6 +50,7 @@ import org.apache.pinot.query.parser.CalciteRexExpressionParser;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
@@ -352,6 +354,23 @@ public class AggregateOperator extends MultiStageOperator {
           matchedBitmap.add(rowId);
         }
       }
+    } else if (block.isColumnHeap()) {
+      ColumnHeapDataBlock columnHeapBlock = block.asColumnHeap();
+      int numRows = columnHeapBlock.getNumRows();
+      // Read through the block value set so that a filter argument not stored as an int vector is converted
+      BlockValSet blockValSet =
+          new ColumnVectorBlockValSet(columnHeapBlock.getDataSchema().getColumnDataType(filterArgId),
+              columnHeapBlock.getColumn(filterArgId), columnHeapBlock.getNullBitmap(filterArgId), numRows);
+      int[] values = blockValSet.getIntValuesSV();
+      RoaringBitmap nullBitmap = blockValSet.getNullBitmap();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (values[rowId] == 1) {
+          matchedBitmap.add(rowId);
+        }
+      }
+      if (nullBitmap != null) {
+        matchedBitmap.andNot(nullBitmap);
+      }
     } else {
       DataBlock dataBlock = block.asSerialized().getDataBlock();
       int numRows = dataBlock.getNumberOfRows();
@@ -384,6 +403,18 @@ public class AggregateOperator extends MultiStageOperator {
               new RowBasedBlockValSet(dataSchema.getColumnDataType(colId), rows, colId, true));
         }
       }
+    } else if (block.isColumnHeap()) {
+      ColumnHeapDataBlock columnHeapBlock = block.asColumnHeap();
+      int numRows = columnHeapBlock.getNumRows();
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          int colId = fromIdentifierToColId(identifier);
+          blockValSetMap.put(expression,
+              new ColumnVectorBlockValSet(dataSchema.getColumnDataType(colId), columnHeapBlock.getColumn(colId),
+                  columnHeapBlock.getNullBitmap(colId), numRows));
+        }
+      }
     } else {
       DataBlock dataBlock = block.asSerialized().getDataBlock();
       for (ExpressionContext expression : expressions) {
@@ -418,6 +449,18 @@ public class AggregateOperator extends MultiStageOperator {
                   matchedBitmap, true));
         }
       }
+    } else if (block.isColumnHeap()) {
+      ColumnHeapDataBlock columnHeapBlock = block.asColumnHeap();
+      int[] matchedRowIds = matchedBitmap.toArray();
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          int colId = fromIdentifierToColId(identifier);
+          blockValSetMap.put(expression, new ColumnVectorBlockValSet(dataSchema.getColumnDataType(colId),
+              columnHeapBlock.selectColumn(colId, matchedRowIds, numMatchedRows),
+              columnHeapBlock.selectNullBitmap(colId, matchedRowIds, numMatchedRows), numMatchedRows));
+        }
+      }
     } else {
       DataBlock dataBlock = block.asSerialized().getDataBlock();
       for (ExpressionContext expression : expressions) {
@@ -446,6 +489,13 @@ public class AggregateOperator extends MultiStageOperator {
         values[rowId] = rows.get(rowId)[colId];
       }
       return values;
+    } else if (block.isColumnHeap()) {
+      Object[] values = new Object[numRows];
+      ColumnHeapDataBlock columnHeapBlock = block.asColumnHeap();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        values[rowId] = columnHeapBlock.getValue(rowId, colId);
+      }
+      return values;
     } else {
       return DataBlockExtractUtils.extractAggResult(block.asSerialized().getDataBlock(), colId, aggFunction);
     }
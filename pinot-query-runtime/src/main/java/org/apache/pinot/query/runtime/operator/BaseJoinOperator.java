@@ -48,9 +48,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The {@code BaseJoinOperator} implements the basic join algorithm.
- * <p>This algorithm assumes that the right table has to fit in memory since we are not supporting any spilling. It
- * reads the complete right table and materialize the data in memory. Then for each of the left table row, it looks up
- * for the corresponding row(s) from the right table, applies the non-equi evaluators and creates a joint row.
+ * <p>This algorithm assumes that the right table has to fit in memory unless the join operator supports spilling (see
+ * {@link #canSpillRightTable()}). It reads the complete right table and materialize the data in memory. Then for each
+ * of the left table row, it looks up for the corresponding row(s) from the right table, applies the non-equi evaluators
+ * and creates a joint row.
  * <p>For each of the data block received from the left table, it generates a joint data block. The output is in the
  * format of [left_row, right_row].
  */
@@ -87,6 +88,9 @@ public abstract class BaseJoinOperator extends MultiStageOperator {
   protected boolean _isRightTableBuilt;
   @Nullable
   protected MseBlock.Eos _eos;
+  // Schema of the right input, set when the first data block is received from the right input
+  @Nullable
+  protected DataSchema _rightSchema;
 
   public BaseJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
       MultiStageOperator rightInput, JoinNode node) {
@@ -185,9 +189,13 @@ public abstract class BaseJoinOperator extends MultiStageOperator {
     int numRows = 0;
     MseBlock rightBlock = _rightInput.nextBlock();
     while (rightBlock.isData()) {
-      List<Object[]> rows = ((MseBlock.Data) rightBlock).asRowHeap().getRows();
-      // Row based overflow check.
-      if (rows.size() + numRows > _maxRowsInJoin) {
+      MseBlock.Data rightDataBlock = (MseBlock.Data) rightBlock;
+      if (_rightSchema == null) {
+        _rightSchema = rightDataBlock.getDataSchema();
+      }
+      List<Object[]> rows = rightDataBlock.asRowHeap().getRows();
+      // Row based overflow check. Not applied when the right table can be spilled to disk.
+      if (rows.size() + numRows > _maxRowsInJoin && !canSpillRightTable()) {
         if (_joinOverflowMode == JoinOverFlowMode.THROW) {
           throwForJoinRowLimitExceeded(
               "Cannot build in memory hash table for join operator, reached number of rows limit: " + _maxRowsInJoin);
@@ -219,6 +227,14 @@ public abstract class BaseJoinOperator extends MultiStageOperator {
     LOGGER.trace("Finished building right table for join operator");
   }
 
+  /**
+   * Returns {@code true} if the right table can be spilled to disk instead of being fully materialized in memory, in
+   * which case the {@link #_maxRowsInJoin} limit is not applied when building the right table.
+   */
+  protected boolean canSpillRightTable() {
+    return false;
+  }
+
   protected abstract void addRowsToRightTable(List<Object[]> rows);
 
   protected abstract void finishBuildingRightTable();
@@ -367,7 +383,15 @@ public abstract class BaseJoinOperator extends MultiStageOperator {
     /**
      * How long (CPU time) has been spent on building the hash table.
      */
-    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG);
+    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG),
+    /**
+     * Number of partitions spilled to disk when the right table exceeds the spill threshold.
+     */
+    NUM_SPILLED_PARTITIONS(StatMap.Type.INT),
+    /**
+     * Number of bytes (from both sides of the join) written to the spill files.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -153,6 +153,7 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     _statMap.merge(StatKey.IN_MEMORY_MESSAGES, from.getInt(ReceivingMailbox.StatKey.IN_MEMORY_MESSAGES));
     _statMap.merge(StatKey.DOWNSTREAM_WAIT_MS, from.getLong(ReceivingMailbox.StatKey.OFFER_CPU_TIME_MS));
     _statMap.merge(StatKey.UPSTREAM_WAIT_MS, from.getLong(ReceivingMailbox.StatKey.WAIT_CPU_TIME_MS));
+    _statMap.merge(StatKey.RECEIVED_BYTES, from.getLong(ReceivingMailbox.StatKey.RECEIVED_BYTES));
   }
 
   private static class ReadMailboxAsyncStream implements AsyncStream<ReceivingMailbox.MseBlockWithStats> {
@@ -255,7 +256,13 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     /**
      * How long (in CPU time) it took to wait for the messages to be offered to downstream operator.
      */
-    UPSTREAM_WAIT_MS(StatMap.Type.LONG);
+    UPSTREAM_WAIT_MS(StatMap.Type.LONG),
+    /**
+     * How many bytes have been received from the network by this mailbox.
+     * <p>
+     * This is lower than DESERIALIZED_BYTES when the sender compresses the blocks.
+     */
+    RECEIVED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -21,12 +21,16 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.planner.plannode.FilterNode;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
+import org.apache.pinot.query.runtime.operator.operands.ColumnarFilterEvaluator;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
@@ -47,6 +51,10 @@ import org.slf4j.LoggerFactory;
     2) Binary Operand: equals, notEquals, greaterThan, greaterThanOrEqual, lessThan, lessThanOrEqual
     3) All boolean scalar functions we have that take tranformOperand.
     Note: Scalar functions are the ones we have in v1 engine and only do function name and arg # matching.
+   When the useColumnarDataBlocks query option is enabled, non row heap input blocks are filtered as column heap blocks
+   by selecting the matched row ids, without pivoting them into rows. Conjunctions of comparisons between a numeric
+   column and a literal are evaluated directly on the column vectors (see ColumnarFilterEvaluator), other conditions
+   are applied on a row view of the block.
  */
 public class FilterOperator extends MultiStageOperator {
 
@@ -56,6 +64,9 @@ public class FilterOperator extends MultiStageOperator {
   private final MultiStageOperator _input;
   private final TransformOperand _filterOperand;
   private final DataSchema _dataSchema;
+  private final boolean _columnarSupported;
+  @Nullable
+  private final ColumnarFilterEvaluator _columnarFilterEvaluator;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   public FilterOperator(OpChainExecutionContext context, MultiStageOperator input, FilterNode node) {
@@ -65,6 +76,9 @@ public class FilterOperator extends MultiStageOperator {
     _filterOperand = TransformOperandFactory.getTransformOperand(node.getCondition(), _dataSchema);
     Preconditions.checkState(_filterOperand.getResultType() == ColumnDataType.BOOLEAN,
         "Filter operand must return BOOLEAN, got: %s", _filterOperand.getResultType());
+    _columnarSupported = QueryOptionsUtils.isUseColumnarDataBlocks(context.getOpChainMetadata())
+        && ColumnHeapDataBlock.isSupported(_dataSchema);
+    _columnarFilterEvaluator = _columnarSupported ? ColumnarFilterEvaluator.create(_filterOperand) : null;
   }
 
   @Override
@@ -103,6 +117,13 @@ public class FilterOperator extends MultiStageOperator {
         return block;
       }
       MseBlock.Data dataBlock = (MseBlock.Data) block;
+      if (_columnarSupported && !dataBlock.isRowHeap()) {
+        ColumnHeapDataBlock filteredBlock = filterColumns(dataBlock.asColumnHeap());
+        if (filteredBlock != null) {
+          return filteredBlock;
+        }
+        continue;
+      }
       List<Object[]> rows = new ArrayList<>();
       for (Object[] row : dataBlock.asRowHeap().getRows()) {
         Object filterResult = _filterOperand.apply(row);
@@ -116,6 +137,34 @@ public class FilterOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Returns the block with the matched rows, or {@code null} if no row matches.
+   */
+  @Nullable
+  private ColumnHeapDataBlock filterColumns(ColumnHeapDataBlock block) {
+    int numRows = block.getNumRows();
+    int[] matchedRowIds = new int[numRows];
+    int numMatchedRows = 0;
+    if (_columnarFilterEvaluator != null) {
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        matchedRowIds[rowId] = rowId;
+      }
+      numMatchedRows = _columnarFilterEvaluator.filter(block, matchedRowIds, numRows);
+    } else {
+      ColumnHeapDataBlock.RowView rowView = block.getRowView();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        rowView.setRowId(rowId);
+        if (BooleanUtils.isTrueInternalValue(_filterOperand.apply(rowView))) {
+          matchedRowIds[numMatchedRows++] = rowId;
+        }
+      }
+    }
+    if (numMatchedRows == 0) {
+      return null;
+    }
+    return numMatchedRows == numRows ? block : block.select(matchedRowIds, numMatchedRows);
+  }
+
   @Override
   protected StatMap<?> copyStatMaps() {
     return new StatMap<>(_statMap);
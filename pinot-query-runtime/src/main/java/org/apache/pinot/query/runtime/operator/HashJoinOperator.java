@@ -19,32 +19,44 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions.JoinHintOptions;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
+import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
 import org.apache.pinot.query.runtime.operator.join.DoubleLookupTable;
 import org.apache.pinot.query.runtime.operator.join.FloatLookupTable;
 import org.apache.pinot.query.runtime.operator.join.IntLookupTable;
 import org.apache.pinot.query.runtime.operator.join.LongLookupTable;
 import org.apache.pinot.query.runtime.operator.join.LookupTable;
 import org.apache.pinot.query.runtime.operator.join.ObjectLookupTable;
+import org.apache.pinot.query.runtime.operator.utils.DataBlockSpillFile;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 
 
 /**
  * This {@code HashJoinOperator} join algorithm with join keys. Right table is materialized into a hash table.
+ * <p>When a spill threshold is configured (via the {@link JoinHintOptions#JOIN_SPILL_THRESHOLD_BYTES} hint or the
+ * {@code joinSpillThresholdBytes} query option) and the estimated size of the right table exceeds it, the operator
+ * switches to a grace hash join: both sides are hash partitioned by the join keys into local spill files, then each
+ * partition is joined independently. Partitions that still exceed the threshold are recursively re-partitioned up to
+ * {@link #MAX_SPILL_DEPTH} times.
  */
-// TODO: Support memory size based resource limit.
 @SuppressWarnings("unchecked")
 public class HashJoinOperator extends BaseJoinOperator {
   private static final String EXPLAIN_NAME = "HASH_JOIN";
@@ -52,6 +64,13 @@ public class HashJoinOperator extends BaseJoinOperator {
   // Placeholder for BitSet in _matchedRightRows when all keys are unique in the right table.
   private static final BitSet BIT_SET_PLACEHOLDER = new BitSet(0);
 
+  private static final int NUM_SPILL_PARTITION_BITS = 4;
+  private static final int NUM_SPILL_PARTITIONS = 1 << NUM_SPILL_PARTITION_BITS;
+  private static final int MAX_SPILL_DEPTH = 3;
+  private static final int NUM_ROWS_PER_SPILLED_BLOCK = 4096;
+
+  private final DataSchema _leftSchema;
+  private final List<Integer> _leftKeys;
   private final KeySelector<?> _leftKeySelector;
   private final KeySelector<?> _rightKeySelector;
   @Nullable
@@ -65,17 +84,55 @@ public class HashJoinOperator extends BaseJoinOperator {
   @Nullable
   private List<Object[]> _nullKeyRightRows;
 
+  // Spilling related fields
+  private final long _spillThresholdBytes;
+  private long _rightTableSizeInBytes;
+  private final List<DataBlockSpillFile> _spillFiles = new ArrayList<>();
+  // Set when the right table is spilled
+  @Nullable
+  private PartitionWriter _rightPartitionWriter;
+  @Nullable
+  private SpilledPartition[] _rightPartitions;
+  // Set when the left input is fully partitioned
+  @Nullable
+  private MseBlock.Eos _leftEos;
+  @Nullable
+  private ArrayDeque<SpilledPartition> _pendingPartitions;
+  @Nullable
+  private SpilledPartition _currentPartition;
+  @Nullable
+  private Iterator<List<Object[]>> _currentLeftBlocks;
+
   public HashJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
       MultiStageOperator rightInput, JoinNode node) {
     super(context, leftInput, leftSchema, rightInput, node);
     List<Integer> leftKeys = node.getLeftKeys();
     Preconditions.checkState(!leftKeys.isEmpty(), "Hash join operator requires join keys");
+    _leftSchema = leftSchema;
+    _leftKeys = leftKeys;
     _leftKeySelector = KeySelectorFactory.getKeySelector(leftKeys);
     _rightKeySelector = KeySelectorFactory.getKeySelector(node.getRightKeys());
     _rightTable = createLookupTable(leftKeys, leftSchema);
     _matchedRightRows = needUnmatchedRightRows() ? new HashMap<>() : null;
     // Initialize _nullKeyRightRows for both RIGHT and FULL JOINs
     _nullKeyRightRows = needUnmatchedRightRows() ? new ArrayList<>() : null;
+    Long spillThresholdBytes = getSpillThresholdBytes(context.getOpChainMetadata(), node.getNodeHint());
+    _spillThresholdBytes = spillThresholdBytes != null ? spillThresholdBytes : 0;
+  }
+
+  @Nullable
+  private static Long getSpillThresholdBytes(Map<String, String> opChainMetadata,
+      @Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String spillThresholdBytesStr = joinOptions.get(JoinHintOptions.JOIN_SPILL_THRESHOLD_BYTES);
+        if (spillThresholdBytesStr != null) {
+          return Long.parseLong(spillThresholdBytesStr);
+        }
+      }
+    }
+    return QueryOptionsUtils.getJoinSpillThresholdBytes(opChainMetadata);
   }
 
   private static LookupTable createLookupTable(List<Integer> joinKeys, DataSchema schema) {
@@ -101,9 +158,28 @@ public class HashJoinOperator extends BaseJoinOperator {
     return EXPLAIN_NAME;
   }
 
+  @Override
+  protected boolean canSpillRightTable() {
+    return _spillThresholdBytes > 0;
+  }
+
   @Override
   protected void addRowsToRightTable(List<Object[]> rows) {
+    if (_rightPartitionWriter != null) {
+      for (Object[] row : rows) {
+        Object key = _rightKeySelector.getKey(row);
+        if (isNullKey(key)) {
+          if (_nullKeyRightRows != null) {
+            _nullKeyRightRows.add(row);
+          }
+          continue;
+        }
+        _rightPartitionWriter.add(key, row);
+      }
+      return;
+    }
     assert _rightTable != null : "Right table should not be null when adding rows";
+    boolean canSpill = canSpillRightTable();
     for (Object[] row : rows) {
       Object key = _rightKeySelector.getKey(row);
       // Skip rows with null join keys - they should not participate in equi-joins per SQL standard
@@ -115,9 +191,38 @@ public class HashJoinOperator extends BaseJoinOperator {
         continue;
       }
       _rightTable.addRow(key, row);
+      if (canSpill) {
+        _rightTableSizeInBytes += DataBlockSpillFile.estimateRowSizeInBytes(row);
+      }
+    }
+    if (canSpill && _rightTableSizeInBytes > _spillThresholdBytes) {
+      spillRightTable();
     }
   }
 
+  /**
+   * Moves the rows already added to the in-memory right table into the spill partitions. All the following right rows
+   * are directly added to the spill partitions.
+   */
+  private void spillRightTable() {
+    assert _rightTable != null && _rightSchema != null;
+    LOGGER.info("Spilling right table of hash join with estimated size: {} bytes exceeding threshold: {} bytes",
+        _rightTableSizeInBytes, _spillThresholdBytes);
+    _rightPartitionWriter = new PartitionWriter("join-right-", _rightSchema, 0, null);
+    for (Map.Entry<Object, Object> entry : _rightTable.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof Object[]) {
+        _rightPartitionWriter.add(entry.getKey(), (Object[]) value);
+      } else {
+        for (Object[] row : (List<Object[]>) value) {
+          _rightPartitionWriter.add(entry.getKey(), row);
+        }
+      }
+    }
+    _rightTable = null;
+    _rightTableSizeInBytes = 0;
+  }
+
   /**
    * Check if a join key contains null values. In SQL standard, null keys should not match in equi-joins.
    **/
@@ -142,6 +247,10 @@ public class HashJoinOperator extends BaseJoinOperator {
 
   @Override
   protected void finishBuildingRightTable() {
+    if (_rightPartitionWriter != null) {
+      _rightPartitions = _rightPartitionWriter.finish(null);
+      return;
+    }
     assert _rightTable != null : "Right table should not be null when finishing building";
     _rightTable.finish();
   }
@@ -151,6 +260,231 @@ public class HashJoinOperator extends BaseJoinOperator {
     _rightTable = null;
     _matchedRightRows = null;
     _nullKeyRightRows = null;
+    releaseSpillFiles();
+  }
+
+  @Override
+  protected MseBlock buildJoinedDataBlock() {
+    if (_rightPartitions == null) {
+      return super.buildJoinedDataBlock();
+    }
+    if (_pendingPartitions == null) {
+      MseBlock.Eos leftEos = partitionLeftInput();
+      if (leftEos.isError()) {
+        return leftEos;
+      }
+      _leftEos = leftEos;
+    }
+    return buildJoinedDataBlockFromPartitions();
+  }
+
+  /**
+   * Reads the whole left input and writes it into the spill partitions matching the right partitions.
+   */
+  private MseBlock.Eos partitionLeftInput() {
+    assert _rightPartitions != null;
+    PartitionWriter leftPartitionWriter =
+        new PartitionWriter("join-left-", _leftSchema, 0, getSkippedLeftPartitions(_rightPartitions));
+    MseBlock leftBlock = _leftInput.nextBlock();
+    while (leftBlock.isData()) {
+      for (Object[] row : ((MseBlock.Data) leftBlock).asRowHeap().getRows()) {
+        leftPartitionWriter.add(_leftKeySelector.getKey(row), row);
+      }
+      sampleAndCheckInterruption();
+      leftBlock = _leftInput.nextBlock();
+    }
+    MseBlock.Eos eosBlock = (MseBlock.Eos) leftBlock;
+    if (!eosBlock.isError()) {
+      leftPartitionWriter.finish(_rightPartitions);
+      _pendingPartitions = new ArrayDeque<>(NUM_SPILL_PARTITIONS);
+      for (SpilledPartition partition : _rightPartitions) {
+        if (partition._right != null || partition._left != null) {
+          _pendingPartitions.add(partition);
+        }
+      }
+    }
+    return eosBlock;
+  }
+
+  /**
+   * Returns the partitions where the left rows can be skipped because the right partition is empty and unmatched left
+   * rows are not needed in the result, or {@code null} if no partition can be skipped.
+   */
+  @Nullable
+  private boolean[] getSkippedLeftPartitions(SpilledPartition[] rightPartitions) {
+    if (needUnmatchedLeftRows() || _joinType == JoinRelType.ANTI) {
+      return null;
+    }
+    boolean[] skippedPartitions = new boolean[NUM_SPILL_PARTITIONS];
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      skippedPartitions[i] = rightPartitions[i]._right == null;
+    }
+    return skippedPartitions;
+  }
+
+  private MseBlock buildJoinedDataBlockFromPartitions() {
+    assert _pendingPartitions != null && _leftEos != null;
+    while (true) {
+      if (_eos != null) {
+        return _eos;
+      }
+      if (_currentLeftBlocks == null) {
+        SpilledPartition partition = _pendingPartitions.poll();
+        if (partition == null) {
+          releaseSpillFiles();
+          if (_nullKeyRightRows != null && !_nullKeyRightRows.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(_nullKeyRightRows.size());
+            for (Object[] nullKeyRow : _nullKeyRightRows) {
+              rows.add(joinRow(null, nullKeyRow));
+            }
+            _eos = _leftEos;
+            return new RowHeapDataBlock(rows, _resultSchema);
+          }
+          return _leftEos;
+        }
+        loadPartition(partition);
+        continue;
+      }
+      if (_currentLeftBlocks.hasNext()) {
+        List<Object[]> rows = buildJoinedRows(new RowHeapDataBlock(_currentLeftBlocks.next(), _leftSchema));
+        sampleAndCheckInterruption();
+        if (!rows.isEmpty()) {
+          return new RowHeapDataBlock(rows, _resultSchema);
+        }
+      } else {
+        List<Object[]> rows = needUnmatchedRightRows() ? buildNonMatchRightRows(false) : List.of();
+        assert _currentPartition != null;
+        if (_currentPartition._left != null) {
+          closeSpillFile(_currentPartition._left);
+        }
+        _currentPartition = null;
+        _currentLeftBlocks = null;
+        _rightTable = null;
+        _matchedRightRows = null;
+        if (!rows.isEmpty()) {
+          return new RowHeapDataBlock(rows, _resultSchema);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads the right side of the partition into the in-memory right table, or re-partitions the partition when it is
+   * still too large.
+   */
+  private void loadPartition(SpilledPartition partition) {
+    assert _pendingPartitions != null && _rightSchema != null;
+    if (partition._rightSizeInBytes > _spillThresholdBytes && partition._depth < MAX_SPILL_DEPTH) {
+      int depth = partition._depth + 1;
+      PartitionWriter rightPartitionWriter = new PartitionWriter("join-right-", _rightSchema, depth, null);
+      readPartition(partition._right, _rightKeySelector, rightPartitionWriter);
+      SpilledPartition[] subPartitions = rightPartitionWriter.finish(null);
+      PartitionWriter leftPartitionWriter =
+          new PartitionWriter("join-left-", _leftSchema, depth, getSkippedLeftPartitions(subPartitions));
+      readPartition(partition._left, _leftKeySelector, leftPartitionWriter);
+      leftPartitionWriter.finish(subPartitions);
+      for (SpilledPartition subPartition : subPartitions) {
+        if (subPartition._right != null || subPartition._left != null) {
+          _pendingPartitions.push(subPartition);
+        }
+      }
+      return;
+    }
+    LookupTable rightTable = createLookupTable(_leftKeys, _leftSchema);
+    if (partition._right != null) {
+      Iterator<List<Object[]>> rightBlocks = partition._right.read();
+      while (rightBlocks.hasNext()) {
+        for (Object[] row : rightBlocks.next()) {
+          rightTable.addRow(_rightKeySelector.getKey(row), row);
+        }
+        sampleAndCheckInterruption();
+      }
+      closeSpillFile(partition._right);
+    }
+    rightTable.finish();
+    _rightTable = rightTable;
+    _matchedRightRows = needUnmatchedRightRows() ? new HashMap<>() : null;
+    _currentPartition = partition;
+    _currentLeftBlocks = partition._left != null ? partition._left.read() : List.<List<Object[]>>of().iterator();
+  }
+
+  private void readPartition(@Nullable DataBlockSpillFile spillFile, KeySelector<?> keySelector,
+      PartitionWriter partitionWriter) {
+    if (spillFile == null) {
+      return;
+    }
+    Iterator<List<Object[]>> blocks = spillFile.read();
+    while (blocks.hasNext()) {
+      for (Object[] row : blocks.next()) {
+        partitionWriter.add(keySelector.getKey(row), row);
+      }
+      sampleAndCheckInterruption();
+    }
+    closeSpillFile(spillFile);
+  }
+
+  @Override
+  protected void earlyTerminateLeftInput() {
+    if (_leftEos != null) {
+      // The left input has already been fully consumed into the spill partitions
+      _eos = _leftEos;
+      _currentPartition = null;
+      _currentLeftBlocks = null;
+      releaseSpillFiles();
+      return;
+    }
+    super.earlyTerminateLeftInput();
+  }
+
+  private static int getPartition(@Nullable Object key, int depth) {
+    if (key == null) {
+      return 0;
+    }
+    // Apply murmur3 finalizer to spread the bits of the hash code, then use different bits for each depth
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return (hash >>> (depth * NUM_SPILL_PARTITION_BITS)) & (NUM_SPILL_PARTITIONS - 1);
+  }
+
+  private void closeSpillFile(DataBlockSpillFile spillFile) {
+    spillFile.close();
+    _spillFiles.remove(spillFile);
+  }
+
+  private void releaseSpillFiles() {
+    for (DataBlockSpillFile spillFile : _spillFiles) {
+      try {
+        spillFile.close();
+      } catch (Exception e) {
+        LOGGER.warn("Failed to close spill file", e);
+      }
+    }
+    _spillFiles.clear();
+    if (_pendingPartitions != null) {
+      _pendingPartitions.clear();
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      super.close();
+    } finally {
+      releaseSpillFiles();
+    }
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    try {
+      super.cancel(e);
+    } finally {
+      releaseSpillFiles();
+    }
   }
 
   @Override
@@ -301,6 +635,10 @@ public class HashJoinOperator extends BaseJoinOperator {
 
   @Override
   protected List<Object[]> buildNonMatchRightRows() {
+    return buildNonMatchRightRows(true);
+  }
+
+  private List<Object[]> buildNonMatchRightRows(boolean includeNullKeyRows) {
     assert _rightTable != null : "Right table should not be null when building non-matched right rows";
     assert _matchedRightRows != null : "Matched right rows should not be null when building non-matched right rows";
     List<Object[]> rows = new ArrayList<>();
@@ -329,11 +667,114 @@ public class HashJoinOperator extends BaseJoinOperator {
       }
     }
     // Add unmatched null key rows from right side for RIGHT and FULL JOIN
-    if (_nullKeyRightRows != null) {
+    if (includeNullKeyRows && _nullKeyRightRows != null) {
       for (Object[] nullKeyRow : _nullKeyRightRows) {
         rows.add(joinRow(null, nullKeyRow));
       }
     }
     return rows;
   }
+
+  /**
+   * Spilled rows of one partition of both sides of the join.
+   */
+  private static class SpilledPartition {
+    final int _depth;
+    @Nullable
+    DataBlockSpillFile _right;
+    long _rightSizeInBytes;
+    @Nullable
+    DataBlockSpillFile _left;
+
+    SpilledPartition(int depth) {
+      _depth = depth;
+    }
+  }
+
+  /**
+   * Hash partitions rows by their join keys, and writes them into the spill files in blocks.
+   */
+  private class PartitionWriter {
+    final String _prefix;
+    final DataSchema _dataSchema;
+    final int _depth;
+    @Nullable
+    final boolean[] _skippedPartitions;
+    final DataBlockSpillFile[] _partitionFiles = new DataBlockSpillFile[NUM_SPILL_PARTITIONS];
+    final List<Object[]>[] _bufferedRows = new List[NUM_SPILL_PARTITIONS];
+    final long[] _sizesInBytes = new long[NUM_SPILL_PARTITIONS];
+
+    PartitionWriter(String prefix, DataSchema dataSchema, int depth, @Nullable boolean[] skippedPartitions) {
+      _prefix = prefix;
+      _dataSchema = dataSchema;
+      _depth = depth;
+      _skippedPartitions = skippedPartitions;
+    }
+
+    void add(@Nullable Object key, Object[] row) {
+      int partition = getPartition(key, _depth);
+      if (_skippedPartitions != null && _skippedPartitions[partition]) {
+        return;
+      }
+      List<Object[]> bufferedRows = _bufferedRows[partition];
+      if (bufferedRows == null) {
+        bufferedRows = new ArrayList<>(NUM_ROWS_PER_SPILLED_BLOCK);
+        _bufferedRows[partition] = bufferedRows;
+      }
+      bufferedRows.add(row);
+      _sizesInBytes[partition] += DataBlockSpillFile.estimateRowSizeInBytes(row);
+      if (bufferedRows.size() == NUM_ROWS_PER_SPILLED_BLOCK) {
+        flush(partition);
+      }
+    }
+
+    void flush(int partition) {
+      DataBlockSpillFile spillFile = _partitionFiles[partition];
+      if (spillFile == null) {
+        spillFile = new DataBlockSpillFile(_prefix, _dataSchema);
+        _partitionFiles[partition] = spillFile;
+        _spillFiles.add(spillFile);
+      }
+      spillFile.write(_bufferedRows[partition]);
+      _bufferedRows[partition].clear();
+    }
+
+    /**
+     * Finishes writing the spill files. When the partitions of the right side are given, the spill files are attached
+     * to them as the left side, otherwise new partitions are returned with the spill files as the right side.
+     */
+    SpilledPartition[] finish(@Nullable SpilledPartition[] rightPartitions) {
+      SpilledPartition[] partitions = rightPartitions;
+      if (partitions == null) {
+        partitions = new SpilledPartition[NUM_SPILL_PARTITIONS];
+        for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+          partitions[i] = new SpilledPartition(_depth);
+        }
+      }
+      int numSpilledPartitions = 0;
+      long spilledBytes = 0;
+      for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+        if (_bufferedRows[i] != null && !_bufferedRows[i].isEmpty()) {
+          flush(i);
+        }
+        DataBlockSpillFile spillFile = _partitionFiles[i];
+        if (spillFile != null) {
+          spillFile.finishWriting();
+          numSpilledPartitions++;
+          spilledBytes += spillFile.getNumBytes();
+        }
+        if (rightPartitions == null) {
+          partitions[i]._right = spillFile;
+          partitions[i]._rightSizeInBytes = _sizesInBytes[i];
+        } else {
+          partitions[i]._left = spillFile;
+        }
+      }
+      if (rightPartitions == null) {
+        _statMap.merge(StatKey.NUM_SPILLED_PARTITIONS, numSpilledPartitions);
+      }
+      _statMap.merge(StatKey.SPILLED_BYTES, spilledBytes);
+      return partitions;
+    }
+  }
 }
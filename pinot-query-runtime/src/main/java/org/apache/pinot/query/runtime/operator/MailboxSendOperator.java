@@ -387,7 +387,17 @@ public class MailboxSendOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * How many bytes have been sent through the network by this mailbox.
+     * <p>
+     * This is lower than SERIALIZED_BYTES when mailbox compression is enabled.
+     */
+    SENT_BYTES(StatMap.Type.LONG),
+    /**
+     * How many of the raw messages sent by this mailbox have been compressed.
+     */
+    COMPRESSED_MESSAGES(StatMap.Type.INT);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -274,6 +274,10 @@ public abstract class MultiStageOperator
         if (maxRowsInJoinReached) {
           serverMetrics.addMeteredGlobalValue(ServerMeter.HASH_JOIN_TIMES_MAX_ROWS_REACHED, 1);
         }
+        long spilledBytes = stats.getLong(HashJoinOperator.StatKey.SPILLED_BYTES);
+        if (spilledBytes > 0) {
+          serverMetrics.addMeteredGlobalValue(ServerMeter.HASH_JOIN_SPILLED_BYTES, spilledBytes);
+        }
         serverMetrics.addTimedValue(ServerTimer.HASH_JOIN_BUILD_TABLE_CPU_TIME_MS,
             stats.getLong(HashJoinOperator.StatKey.TIME_BUILDING_HASH_TABLE_MS), TimeUnit.MILLISECONDS);
       }
@@ -39,9 +39,14 @@ import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
 import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGeneratorFactory;
+import org.apache.pinot.query.runtime.operator.groupby.OneDoubleKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneFloatKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneIntKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneLongKeyGroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.spi.utils.CommonConstants.Server;
 import org.roaringbitmap.PeekableIntIterator;
@@ -445,9 +450,13 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(MseBlock.Data block) {
-    return block.isRowHeap()
-        ? generateGroupByKeys(block.asRowHeap().getRows())
-        : generateGroupByKeys(block.asSerialized().getDataBlock());
+    if (block.isRowHeap()) {
+      return generateGroupByKeys(block.asRowHeap().getRows());
+    }
+    if (block.isColumnHeap()) {
+      return generateGroupByKeys(block.asColumnHeap());
+    }
+    return generateGroupByKeys(block.asSerialized().getDataBlock());
   }
 
   private int[] generateGroupByKeys(List<Object[]> rows) {
@@ -472,6 +481,30 @@ public class MultistageGroupByExecutor {
     return intKeys;
   }
 
+  private int[] generateGroupByKeys(ColumnHeapDataBlock block) {
+    int numRows = block.getNumRows();
+    int[] intKeys = new int[numRows];
+    int numKeys = _groupKeyIds.length;
+    if (numKeys == 1) {
+      int groupKeyId = _groupKeyIds[0];
+      if (generatePrimitiveGroupByKeys(block, groupKeyId, null, intKeys)) {
+        return intKeys;
+      }
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = _groupIdGenerator.getGroupId(block.getValue(i, groupKeyId));
+      }
+    } else {
+      Object[] key = new Object[numKeys];
+      for (int i = 0; i < numRows; i++) {
+        for (int j = 0; j < numKeys; j++) {
+          key[j] = block.getValue(i, _groupKeyIds[j]);
+        }
+        intKeys[i] = _groupIdGenerator.getGroupId(key);
+      }
+    }
+    return intKeys;
+  }
+
   private int[] generateGroupByKeys(DataBlock dataBlock) {
     Object[] keys;
     if (_groupKeyIds.length == 1) {
@@ -492,9 +525,13 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(MseBlock.Data block, int numMatchedRows, RoaringBitmap matchedBitmap) {
-    return block.isRowHeap()
-        ? generateGroupByKeys(block.asRowHeap().getRows(), numMatchedRows, matchedBitmap)
-        : generateGroupByKeys(block.asSerialized().getDataBlock(), numMatchedRows, matchedBitmap);
+    if (block.isRowHeap()) {
+      return generateGroupByKeys(block.asRowHeap().getRows(), numMatchedRows, matchedBitmap);
+    }
+    if (block.isColumnHeap()) {
+      return generateGroupByKeys(block.asColumnHeap(), numMatchedRows, matchedBitmap);
+    }
+    return generateGroupByKeys(block.asSerialized().getDataBlock(), numMatchedRows, matchedBitmap);
   }
 
   private int[] generateGroupByKeys(List<Object[]> rows, int numMatchedRows, RoaringBitmap matchedBitmap) {
@@ -520,6 +557,80 @@ public class MultistageGroupByExecutor {
     return intKeys;
   }
 
+  private int[] generateGroupByKeys(ColumnHeapDataBlock block, int numMatchedRows, RoaringBitmap matchedBitmap) {
+    int[] intKeys = new int[numMatchedRows];
+    int numKeys = _groupKeyIds.length;
+    PeekableIntIterator iterator = matchedBitmap.getIntIterator();
+    if (numKeys == 1) {
+      int groupKeyId = _groupKeyIds[0];
+      if (generatePrimitiveGroupByKeys(block, groupKeyId, matchedBitmap.toArray(), intKeys)) {
+        return intKeys;
+      }
+      for (int i = 0; i < numMatchedRows; i++) {
+        intKeys[i] = _groupIdGenerator.getGroupId(block.getValue(iterator.next(), groupKeyId));
+      }
+    } else {
+      Object[] key = new Object[numKeys];
+      for (int i = 0; i < numMatchedRows; i++) {
+        int rowId = iterator.next();
+        for (int j = 0; j < numKeys; j++) {
+          key[j] = block.getValue(rowId, _groupKeyIds[j]);
+        }
+        intKeys[i] = _groupIdGenerator.getGroupId(key);
+      }
+    }
+    return intKeys;
+  }
+
+  /**
+   * Fills the group ids for a single key column stored as a primitive vector, reading the primitive values without
+   * boxing them. Returns {@code false} without generating any group id when the key column has null values or is not
+   * handled by a primitive {@link GroupIdGenerator}, in which case the boxed values should be used.
+   *
+   * @param rowIds The ids of the rows to generate group ids for, or {@code null} for all the rows
+   */
+  private boolean generatePrimitiveGroupByKeys(ColumnHeapDataBlock block, int groupKeyId, @Nullable int[] rowIds,
+      int[] intKeys) {
+    if (block.getNullBitmap(groupKeyId) != null) {
+      return false;
+    }
+    Object column = block.getColumn(groupKeyId);
+    int numRows = intKeys.length;
+    if (_groupIdGenerator instanceof OneIntKeyGroupIdGenerator && column instanceof int[]) {
+      OneIntKeyGroupIdGenerator groupIdGenerator = (OneIntKeyGroupIdGenerator) _groupIdGenerator;
+      int[] values = (int[]) column;
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = groupIdGenerator.getGroupId(values[rowIds != null ? rowIds[i] : i]);
+      }
+      return true;
+    }
+    if (_groupIdGenerator instanceof OneLongKeyGroupIdGenerator && column instanceof long[]) {
+      OneLongKeyGroupIdGenerator groupIdGenerator = (OneLongKeyGroupIdGenerator) _groupIdGenerator;
+      long[] values = (long[]) column;
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = groupIdGenerator.getGroupId(values[rowIds != null ? rowIds[i] : i]);
+      }
+      return true;
+    }
+    if (_groupIdGenerator instanceof OneFloatKeyGroupIdGenerator && column instanceof float[]) {
+      OneFloatKeyGroupIdGenerator groupIdGenerator = (OneFloatKeyGroupIdGenerator) _groupIdGenerator;
+      float[] values = (float[]) column;
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = groupIdGenerator.getGroupId(values[rowIds != null ? rowIds[i] : i]);
+      }
+      return true;
+    }
+    if (_groupIdGenerator instanceof OneDoubleKeyGroupIdGenerator && column instanceof double[]) {
+      OneDoubleKeyGroupIdGenerator groupIdGenerator = (OneDoubleKeyGroupIdGenerator) _groupIdGenerator;
+      double[] values = (double[]) column;
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = groupIdGenerator.getGroupId(values[rowIds != null ? rowIds[i] : i]);
+      }
+      return true;
+    }
+    return false;
+  }
+
   private int[] generateGroupByKeys(DataBlock dataBlock, int numMatchedRows, RoaringBitmap matchedBitmap) {
     Object[] keys;
     if (_groupKeyIds.length == 1) {
@@ -22,15 +22,20 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.plannode.SortNode;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
+import org.apache.pinot.query.runtime.operator.utils.DataBlockSpillFile;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
@@ -38,9 +43,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Operator that sorts the input rows based on the collations, and applies the offset and limit.
+ * <p>There are 3 modes of sorting:
+ * <ul>
+ *   <li>No sort: when there is no collation or the input is already sorted, only the offset and limit are applied</li>
+ *   <li>Top-K: the rows are kept in a bounded priority queue of size offset + limit. This is used when spilling is
+ *   disabled or offset + limit is small enough to always fit in memory</li>
+ *   <li>External merge sort: when spilling is enabled (see {@code sortSpillThresholdBytes} query option), the rows are
+ *   buffered in memory until their estimated size exceeds the threshold, then sorted and spilled to local disk as a
+ *   sorted run in the {@code DataBlock} format. At the end, the sorted runs are merged with a k-way merge, and the
+ *   merged rows are streamed in multiple blocks</li>
+ * </ul>
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
+  private static final int NUM_ROWS_PER_SPILLED_BLOCK = 1024;
+  private static final int MAX_ROWS_PER_MERGED_BLOCK = 10_000;
 
   private final MultiStageOperator _input;
   private final DataSchema _dataSchema;
@@ -50,6 +70,18 @@ public class SortOperator extends MultiStageOperator {
   private final ArrayList<Object[]> _rows;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
+  // External merge sort related fields, only set when spilling is enabled
+  @Nullable
+  private final Comparator<Object[]> _comparator;
+  private final long _spillThresholdBytes;
+  @Nullable
+  private final ArrayList<Object[]> _bufferedRows;
+  private long _bufferedBytes;
+  private final List<DataBlockSpillFile> _spilledRuns = new ArrayList<>();
+  @Nullable
+  private PriorityQueue<RunCursor> _mergeQueue;
+  private int _numRowsMerged;
+
   private boolean _hasConstructedSortedBlock;
   private MseBlock.Eos _eosBlock;
 
@@ -73,15 +105,27 @@ public class SortOperator extends MultiStageOperator {
     // - There is no collation
     // - Input is already sorted
     List<RelFieldCollation> collations = node.getCollations();
+    Long spillThresholdBytes = QueryOptionsUtils.getSortSpillThresholdBytes(context.getOpChainMetadata());
+    _spillThresholdBytes = spillThresholdBytes != null ? spillThresholdBytes : 0;
     if (collations.isEmpty() || input instanceof SortedMailboxReceiveOperator) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
+      _comparator = null;
+      _bufferedRows = null;
+    } else if (_spillThresholdBytes > 0 && _numRowsToKeep > defaultHolderCapacity) {
+      // Offset + limit is too large to be kept in a bounded priority queue, use external merge sort
+      _priorityQueue = null;
+      _rows = null;
+      _comparator = new SortUtils.SortComparator(collations, false);
+      _bufferedRows = new ArrayList<>(defaultHolderCapacity);
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
       _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
           new SortUtils.SortComparator(collations, true));
       _rows = null;
+      _comparator = null;
+      _bufferedRows = null;
     }
   }
 
@@ -108,6 +152,16 @@ public class SortOperator extends MultiStageOperator {
 
   @Override
   public void cancel(Throwable e) {
+    releaseSpilledRuns();
+  }
+
+  @Override
+  public void close() {
+    try {
+      super.close();
+    } finally {
+      releaseSpilledRuns();
+    }
   }
 
   @Override
@@ -117,16 +171,23 @@ public class SortOperator extends MultiStageOperator {
 
   @Override
   protected MseBlock getNextBlock() {
+    if (_mergeQueue != null) {
+      return produceMergedBlock();
+    }
     if (_hasConstructedSortedBlock) {
       assert _eosBlock != null;
       return _eosBlock;
     }
     _eosBlock = consumeInputBlocks();
     // returning upstream error block if finalBlock contains error.
-    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null);
+    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null || _bufferedRows != null);
     if (_eosBlock.isError()) {
+      releaseSpilledRuns();
       return _eosBlock;
     }
+    if (_bufferedRows != null) {
+      return produceExternalSortedBlock();
+    }
     return produceSortedBlock();
   }
 
@@ -162,7 +223,16 @@ public class SortOperator extends MultiStageOperator {
     MseBlock block = _input.nextBlock();
     while (block.isData()) {
       List<Object[]> container = ((MseBlock.Data) block).asRowHeap().getRows();
-      if (_priorityQueue == null) {
+      if (_bufferedRows != null) {
+        for (Object[] row : container) {
+          _bufferedRows.add(row);
+          _bufferedBytes += DataBlockSpillFile.estimateRowSizeInBytes(row);
+        }
+        if (_bufferedBytes > _spillThresholdBytes) {
+          spillSortedRun();
+        }
+        sampleAndCheckInterruption();
+      } else if (_priorityQueue == null) {
         // TODO: when push-down properly, we shouldn't get more than _numRowsToKeep
         int numRows = _rows.size();
         if (numRows < _numRowsToKeep) {
@@ -192,6 +262,124 @@ public class SortOperator extends MultiStageOperator {
     return (MseBlock.Eos) block;
   }
 
+  /**
+   * Sorts the buffered rows and writes the first {@link #_numRowsToKeep} rows to a spill file as a sorted run.
+   */
+  private void spillSortedRun() {
+    assert _bufferedRows != null && _comparator != null;
+    _statMap.merge(StatKey.MAX_BUFFERED_BYTES, _bufferedBytes);
+    _bufferedRows.sort(_comparator);
+    int numRows = Math.min(_bufferedRows.size(), _numRowsToKeep);
+    DataBlockSpillFile spillFile = new DataBlockSpillFile("sort-run-", _dataSchema);
+    _spilledRuns.add(spillFile);
+    for (int i = 0; i < numRows; i += NUM_ROWS_PER_SPILLED_BLOCK) {
+      spillFile.write(_bufferedRows.subList(i, Math.min(i + NUM_ROWS_PER_SPILLED_BLOCK, numRows)));
+    }
+    spillFile.finishWriting();
+    _statMap.merge(StatKey.NUM_SPILLED_RUNS, 1);
+    _statMap.merge(StatKey.SPILLED_BYTES, spillFile.getNumBytes());
+    _bufferedRows.clear();
+    _bufferedBytes = 0;
+  }
+
+  private MseBlock produceExternalSortedBlock() {
+    assert _bufferedRows != null && _comparator != null;
+    _hasConstructedSortedBlock = true;
+    _statMap.merge(StatKey.MAX_BUFFERED_BYTES, _bufferedBytes);
+    _bufferedRows.sort(_comparator);
+    if (_spilledRuns.isEmpty()) {
+      // All the rows fit in memory
+      int numRows = Math.min(_bufferedRows.size(), _numRowsToKeep);
+      if (numRows <= _offset) {
+        return _eosBlock;
+      }
+      return new RowHeapDataBlock(_bufferedRows.subList(_offset, numRows), _dataSchema);
+    }
+    // Merge the spilled runs with the remaining buffered rows as the last run
+    _mergeQueue = new PriorityQueue<>(_spilledRuns.size() + 1, (c1, c2) -> _comparator.compare(c1._row, c2._row));
+    for (DataBlockSpillFile spilledRun : _spilledRuns) {
+      addToMergeQueue(new RunCursor(spilledRun.read()));
+    }
+    if (!_bufferedRows.isEmpty()) {
+      int numRows = Math.min(_bufferedRows.size(), _numRowsToKeep);
+      addToMergeQueue(new RunCursor(List.of(_bufferedRows.subList(0, numRows)).iterator()));
+    }
+    return produceMergedBlock();
+  }
+
+  private void addToMergeQueue(RunCursor cursor) {
+    assert _mergeQueue != null;
+    if (cursor.advance()) {
+      _mergeQueue.add(cursor);
+    }
+  }
+
+  /**
+   * Returns the next block of merged rows, or the EOS block when all the rows are merged.
+   */
+  private MseBlock produceMergedBlock() {
+    assert _mergeQueue != null;
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < MAX_ROWS_PER_MERGED_BLOCK && _numRowsMerged < _numRowsToKeep && !_mergeQueue.isEmpty()) {
+      RunCursor cursor = _mergeQueue.poll();
+      if (_numRowsMerged >= _offset) {
+        rows.add(cursor._row);
+      }
+      _numRowsMerged++;
+      addToMergeQueue(cursor);
+    }
+    if (!rows.isEmpty()) {
+      sampleAndCheckInterruption();
+      return new RowHeapDataBlock(rows, _dataSchema);
+    }
+    _mergeQueue = null;
+    releaseSpilledRuns();
+    if (_bufferedRows != null) {
+      _bufferedRows.clear();
+    }
+    return _eosBlock;
+  }
+
+  private void releaseSpilledRuns() {
+    for (DataBlockSpillFile spilledRun : _spilledRuns) {
+      try {
+        spilledRun.close();
+      } catch (Exception e) {
+        LOGGER.warn("Failed to close spill file", e);
+      }
+    }
+    _spilledRuns.clear();
+  }
+
+  /**
+   * Cursor over the rows of a sorted run, used in the k-way merge.
+   */
+  private static class RunCursor {
+    final Iterator<List<Object[]>> _blocks;
+    Iterator<Object[]> _rows;
+    Object[] _row;
+
+    RunCursor(Iterator<List<Object[]>> blocks) {
+      _blocks = blocks;
+      _rows = blocks.hasNext() ? blocks.next().iterator() : null;
+    }
+
+    /**
+     * Moves to the next row, returns {@code false} if the run is exhausted.
+     */
+    boolean advance() {
+      while (_rows != null) {
+        if (_rows.hasNext()) {
+          _row = _rows.next();
+          return true;
+        }
+        _rows = _blocks.hasNext() ? _blocks.next().iterator() : null;
+      }
+      _row = null;
+      return false;
+    }
+  }
+
   public enum StatKey implements StatMap.Key {
     //@formatter:off
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
@@ -205,6 +393,23 @@ public class SortOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
+    },
+    /**
+     * Number of sorted runs spilled to local disk by the external merge sort.
+     */
+    NUM_SPILLED_RUNS(StatMap.Type.INT),
+    /**
+     * Number of bytes spilled to local disk by the external merge sort.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG),
+    /**
+     * Max estimated size in bytes of the rows buffered in memory by the external merge sort.
+     */
+    MAX_BUFFERED_BYTES(StatMap.Type.LONG) {
+      @Override
+      public long merge(long value1, long value2) {
+        return Math.max(value1, value2);
+      }
     };
     //@formatter:on
 
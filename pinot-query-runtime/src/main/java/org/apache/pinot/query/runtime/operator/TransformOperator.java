@@ -22,13 +22,17 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
+import org.apache.pinot.query.runtime.operator.operands.ReferenceOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +46,10 @@ import org.slf4j.LoggerFactory;
  * - Function transform, which runs a function on function operands. Function operands and be any of 3 the transform.
  * Note: Function transform only runs functions from v1 engine scalar function factory, which only does argument count
  * and canonicalized function name matching (lower case).
+ *
+ * When the {@code useColumnarDataBlocks} query option is enabled and the input block is not a row heap block, the
+ * transform is applied column by column and a {@link ColumnHeapDataBlock} is emitted. InputRef transforms then reuse
+ * the input column vectors without copying them.
  */
 public class TransformOperator extends MultiStageOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(TransformOperator.class);
@@ -52,6 +60,7 @@ public class TransformOperator extends MultiStageOperator {
   private final int _resultColumnSize;
   // TODO: Check type matching between resultSchema and the actual result.
   private final DataSchema _resultSchema;
+  private final boolean _columnarResultSupported;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   public TransformOperator(OpChainExecutionContext context, MultiStageOperator input, DataSchema inputSchema,
@@ -65,6 +74,8 @@ public class TransformOperator extends MultiStageOperator {
       _transformOperandsList.add(TransformOperandFactory.getTransformOperand(rexExpression, inputSchema));
     }
     _resultSchema = node.getDataSchema();
+    _columnarResultSupported = QueryOptionsUtils.isUseColumnarDataBlocks(context.getOpChainMetadata())
+        && ColumnHeapDataBlock.isSupported(inputSchema) && ColumnHeapDataBlock.isSupported(_resultSchema);
   }
 
   @Override
@@ -100,6 +111,9 @@ public class TransformOperator extends MultiStageOperator {
       return block;
     }
     MseBlock.Data dataBlock = (MseBlock.Data) block;
+    if (_columnarResultSupported && !dataBlock.isRowHeap()) {
+      return transformColumns(dataBlock.asColumnHeap());
+    }
     List<Object[]> container = dataBlock.asRowHeap().getRows();
     List<Object[]> resultRows = new ArrayList<>(container.size());
     for (Object[] row : container) {
@@ -112,6 +126,35 @@ public class TransformOperator extends MultiStageOperator {
     return new RowHeapDataBlock(resultRows, _resultSchema);
   }
 
+  private ColumnHeapDataBlock transformColumns(ColumnHeapDataBlock inputBlock) {
+    int numRows = inputBlock.getNumRows();
+    Object[] resultColumns = new Object[_resultColumnSize];
+    RoaringBitmap[] resultNullBitmaps = new RoaringBitmap[_resultColumnSize];
+    ColumnHeapDataBlock.RowView rowView = null;
+    for (int i = 0; i < _resultColumnSize; i++) {
+      TransformOperand transformOperand = _transformOperandsList.get(i);
+      if (transformOperand instanceof ReferenceOperand && transformOperand.getResultType().getStoredType()
+          == _resultSchema.getColumnDataType(i).getStoredType()) {
+        int index = ((ReferenceOperand) transformOperand).getIndex();
+        resultColumns[i] = inputBlock.getColumn(index);
+        resultNullBitmaps[i] = inputBlock.getNullBitmap(index);
+        continue;
+      }
+      if (rowView == null) {
+        rowView = inputBlock.getRowView();
+      }
+      ColumnHeapDataBlock.ColumnBuilder columnBuilder =
+          new ColumnHeapDataBlock.ColumnBuilder(_resultSchema.getColumnDataType(i), numRows);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        rowView.setRowId(rowId);
+        columnBuilder.set(rowId, transformOperand.apply(rowView));
+      }
+      resultColumns[i] = columnBuilder.getVector();
+      resultNullBitmaps[i] = columnBuilder.getNullBitmap();
+    }
+    return new ColumnHeapDataBlock(_resultSchema, numRows, resultColumns, resultNullBitmaps);
+  }
+
   @Override
   protected StatMap<?> copyStatMaps() {
     return new StatMap<>(_statMap);
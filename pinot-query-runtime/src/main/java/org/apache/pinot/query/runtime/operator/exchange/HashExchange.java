@@ -29,6 +29,7 @@ import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
 
@@ -62,6 +63,11 @@ class HashExchange extends BlockExchange {
       return;
     }
 
+    if (block.isColumnHeap()) {
+      routeColumns(destinations, block.asColumnHeap());
+      return;
+    }
+
     List<Object[]>[] mailboxIdToRowsMap = new List[numMailboxes];
     for (int i = 0; i < numMailboxes; i++) {
       mailboxIdToRowsMap[i] = new ArrayList<>();
@@ -80,4 +86,53 @@ class HashExchange extends BlockExchange {
       }
     }
   }
+
+  /**
+   * Routes a column heap block without pivoting it into rows: only the key columns are read to compute the hash, and
+   * the rows of each destination are selected from the column vectors.
+   */
+  private void routeColumns(List<SendingMailbox> destinations, ColumnHeapDataBlock block)
+      throws IOException, TimeoutException {
+    int numMailboxes = destinations.size();
+    int numRows = block.getNumRows();
+    int numColumns = block.getDataSchema().size();
+    int[] mailboxIds = new int[numRows];
+    int[] numRowsPerMailbox = new int[numMailboxes];
+    // The key selectors read the key columns from an Object[] row, so reuse a single row buffer where only the key
+    // columns are set
+    int[] keyIds = _keySelector.getKeyIds();
+    if (keyIds == null) {
+      keyIds = new int[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        keyIds[colId] = colId;
+      }
+    }
+    Object[] row = new Object[numColumns];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      for (int keyId : keyIds) {
+        row[keyId] = block.getValue(rowId, keyId);
+      }
+      int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+      mailboxIds[rowId] = mailboxId;
+      numRowsPerMailbox[mailboxId]++;
+    }
+    for (int i = 0; i < numMailboxes; i++) {
+      int numMailboxRows = numRowsPerMailbox[i];
+      if (numMailboxRows == 0) {
+        continue;
+      }
+      if (numMailboxRows == numRows) {
+        sendBlock(destinations.get(i), block);
+        return;
+      }
+      int[] rowIds = new int[numMailboxRows];
+      int index = 0;
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (mailboxIds[rowId] == i) {
+          rowIds[index++] = rowId;
+        }
+      }
+      sendBlock(destinations.get(i), block.select(rowIds, numMailboxRows));
+    }
+  }
 }
@@ -38,23 +38,27 @@ public class OneFloatKeyGroupIdGenerator implements GroupIdGenerator {
 
   @Override
   public int getGroupId(Object key) {
-    if (_numGroups < _numGroupsLimit) {
-      if (key == null) {
-        if (_nullGroupId == INVALID_ID) {
-          _nullGroupId = _numGroups++;
-        }
-        return _nullGroupId;
+    if (key == null) {
+      if (_nullGroupId == INVALID_ID && _numGroups < _numGroupsLimit) {
+        _nullGroupId = _numGroups++;
       }
-      int groupId = _groupIdMap.computeIfAbsent((float) key, k -> _numGroups);
+      return _nullGroupId;
+    }
+    return getGroupId((float) key);
+  }
+
+  /**
+   * Returns the group id for the given non-null primitive key, without boxing it. See {@link #getGroupId(Object)}.
+   */
+  public int getGroupId(float key) {
+    if (_numGroups < _numGroupsLimit) {
+      int groupId = _groupIdMap.computeIfAbsent(key, k -> _numGroups);
       if (groupId == _numGroups) {
         _numGroups++;
       }
       return groupId;
     } else {
-      if (key == null) {
-        return _nullGroupId;
-      }
-      return _groupIdMap.get((float) key);
+      return _groupIdMap.get(key);
     }
   }
 
@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.operands;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Evaluates a filter directly on the column vectors of a {@link ColumnHeapDataBlock} by narrowing a selection vector
+ * of row ids, instead of applying the {@link TransformOperand} on each row.
+ *
+ * Only conjunctions of comparisons between a primitive numeric column and a numeric literal of the same type are
+ * supported, see {@link #create(TransformOperand)}. Rows with null value never match, same as the row based filter.
+ */
+public abstract class ColumnarFilterEvaluator {
+
+  /**
+   * Keeps the ids of the matched rows at the head of {@code rowIds} (preserving their order), and returns the number
+   * of matched rows.
+   *
+   * @param rowIds The ids of the candidate rows. Only the first {@code numRows} ids are used.
+   */
+  public abstract int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows);
+
+  /**
+   * Returns the columnar evaluator for the given filter operand, or {@code null} if the filter is not supported and
+   * should be applied row by row.
+   */
+  @Nullable
+  public static ColumnarFilterEvaluator create(TransformOperand filterOperand) {
+    if (filterOperand instanceof FilterOperand.And) {
+      List<TransformOperand> childOperands = ((FilterOperand.And) filterOperand)._childOperands;
+      int numChildren = childOperands.size();
+      ColumnarFilterEvaluator[] childEvaluators = new ColumnarFilterEvaluator[numChildren];
+      for (int i = 0; i < numChildren; i++) {
+        ColumnarFilterEvaluator childEvaluator = create(childOperands.get(i));
+        if (childEvaluator == null) {
+          return null;
+        }
+        childEvaluators[i] = childEvaluator;
+      }
+      return new And(childEvaluators);
+    }
+    if (filterOperand instanceof FilterOperand.Predicate) {
+      return createPredicateEvaluator((FilterOperand.Predicate) filterOperand);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static ColumnarFilterEvaluator createPredicateEvaluator(FilterOperand.Predicate predicate) {
+    ReferenceOperand column;
+    LiteralOperand literal;
+    IntPredicate comparisonResultPredicate = predicate._comparisonResultPredicate;
+    if (predicate._lhs instanceof ReferenceOperand && predicate._rhs instanceof LiteralOperand) {
+      column = (ReferenceOperand) predicate._lhs;
+      literal = (LiteralOperand) predicate._rhs;
+    } else if (predicate._lhs instanceof LiteralOperand && predicate._rhs instanceof ReferenceOperand) {
+      // Evaluated as column compared to literal, so the comparison result is negated
+      column = (ReferenceOperand) predicate._rhs;
+      literal = (LiteralOperand) predicate._lhs;
+      IntPredicate originalPredicate = comparisonResultPredicate;
+      comparisonResultPredicate = v -> originalPredicate.test(-v);
+    } else {
+      return null;
+    }
+    ColumnDataType columnType = column.getResultType();
+    if (predicate._requireCasting && predicate._commonCastType != columnType) {
+      return null;
+    }
+    Object value = literal.getValue();
+    if (value == null) {
+      return NoMatch.INSTANCE;
+    }
+    if (!(value instanceof Number)) {
+      return null;
+    }
+    Number number = (Number) value;
+    int colId = column.getIndex();
+    switch (columnType) {
+      case INT:
+        return new IntPredicateEvaluator(colId, number.intValue(), comparisonResultPredicate);
+      case LONG:
+        return new LongPredicateEvaluator(colId, number.longValue(), comparisonResultPredicate);
+      case FLOAT:
+        return new FloatPredicateEvaluator(colId, number.floatValue(), comparisonResultPredicate);
+      case DOUBLE:
+        return new DoublePredicateEvaluator(colId, number.doubleValue(), comparisonResultPredicate);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Removes the rows with null value from the selection vector, and returns the number of remaining rows.
+   */
+  private static int removeNullRows(RoaringBitmap nullBitmap, int[] rowIds, int numRows) {
+    int numNonNullRows = 0;
+    for (int i = 0; i < numRows; i++) {
+      int rowId = rowIds[i];
+      if (!nullBitmap.contains(rowId)) {
+        rowIds[numNonNullRows++] = rowId;
+      }
+    }
+    return numNonNullRows;
+  }
+
+  private static class And extends ColumnarFilterEvaluator {
+    final ColumnarFilterEvaluator[] _childEvaluators;
+
+    And(ColumnarFilterEvaluator[] childEvaluators) {
+      _childEvaluators = childEvaluators;
+    }
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      for (ColumnarFilterEvaluator childEvaluator : _childEvaluators) {
+        numRows = childEvaluator.filter(block, rowIds, numRows);
+        if (numRows == 0) {
+          break;
+        }
+      }
+      return numRows;
+    }
+  }
+
+  private static class NoMatch extends ColumnarFilterEvaluator {
+    static final NoMatch INSTANCE = new NoMatch();
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      return 0;
+    }
+  }
+
+  private static class IntPredicateEvaluator extends ColumnarFilterEvaluator {
+    final int _colId;
+    final int _value;
+    final IntPredicate _comparisonResultPredicate;
+
+    IntPredicateEvaluator(int colId, int value, IntPredicate comparisonResultPredicate) {
+      _colId = colId;
+      _value = value;
+      _comparisonResultPredicate = comparisonResultPredicate;
+    }
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      RoaringBitmap nullBitmap = block.getNullBitmap(_colId);
+      if (nullBitmap != null) {
+        numRows = removeNullRows(nullBitmap, rowIds, numRows);
+      }
+      int[] values = (int[]) block.getColumn(_colId);
+      int numMatchedRows = 0;
+      for (int i = 0; i < numRows; i++) {
+        int rowId = rowIds[i];
+        if (_comparisonResultPredicate.test(Integer.compare(values[rowId], _value))) {
+          rowIds[numMatchedRows++] = rowId;
+        }
+      }
+      return numMatchedRows;
+    }
+  }
+
+  private static class LongPredicateEvaluator extends ColumnarFilterEvaluator {
+    final int _colId;
+    final long _value;
+    final IntPredicate _comparisonResultPredicate;
+
+    LongPredicateEvaluator(int colId, long value, IntPredicate comparisonResultPredicate) {
+      _colId = colId;
+      _value = value;
+      _comparisonResultPredicate = comparisonResultPredicate;
+    }
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      RoaringBitmap nullBitmap = block.getNullBitmap(_colId);
+      if (nullBitmap != null) {
+        numRows = removeNullRows(nullBitmap, rowIds, numRows);
+      }
+      long[] values = (long[]) block.getColumn(_colId);
+      int numMatchedRows = 0;
+      for (int i = 0; i < numRows; i++) {
+        int rowId = rowIds[i];
+        if (_comparisonResultPredicate.test(Long.compare(values[rowId], _value))) {
+          rowIds[numMatchedRows++] = rowId;
+        }
+      }
+      return numMatchedRows;
+    }
+  }
+
+  private static class FloatPredicateEvaluator extends ColumnarFilterEvaluator {
+    final int _colId;
+    final float _value;
+    final IntPredicate _comparisonResultPredicate;
+
+    FloatPredicateEvaluator(int colId, float value, IntPredicate comparisonResultPredicate) {
+      _colId = colId;
+      _value = value;
+      _comparisonResultPredicate = comparisonResultPredicate;
+    }
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      RoaringBitmap nullBitmap = block.getNullBitmap(_colId);
+      if (nullBitmap != null) {
+        numRows = removeNullRows(nullBitmap, rowIds, numRows);
+      }
+      float[] values = (float[]) block.getColumn(_colId);
+      int numMatchedRows = 0;
+      for (int i = 0; i < numRows; i++) {
+        int rowId = rowIds[i];
+        // Float.compare() matches Float.compareTo() used by the row based predicate
+        if (_comparisonResultPredicate.test(Float.compare(values[rowId], _value))) {
+          rowIds[numMatchedRows++] = rowId;
+        }
+      }
+      return numMatchedRows;
+    }
+  }
+
+  private static class DoublePredicateEvaluator extends ColumnarFilterEvaluator {
+    final int _colId;
+    final double _value;
+    final IntPredicate _comparisonResultPredicate;
+
+    DoublePredicateEvaluator(int colId, double value, IntPredicate comparisonResultPredicate) {
+      _colId = colId;
+      _value = value;
+      _comparisonResultPredicate = comparisonResultPredicate;
+    }
+
+    @Override
+    public int filter(ColumnHeapDataBlock block, int[] rowIds, int numRows) {
+      RoaringBitmap nullBitmap = block.getNullBitmap(_colId);
+      if (nullBitmap != null) {
+        numRows = removeNullRows(nullBitmap, rowIds, numRows);
+      }
+      double[] values = (double[]) block.getColumn(_colId);
+      int numMatchedRows = 0;
+      for (int i = 0; i < numRows; i++) {
+        int rowId = rowIds[i];
+        // Double.compare() matches Double.compareTo() used by the row based predicate
+        if (_comparisonResultPredicate.test(Double.compare(values[rowId], _value))) {
+          rowIds[numMatchedRows++] = rowId;
+        }
+      }
+      return numMatchedRows;
+    }
+  }
+}
@@ -174,11 +174,11 @@ public abstract class FilterOperand implements TransformOperand {
     private static final Ordering<ColumnDataType> NUMERIC_TYPE_ORDERING =
         Ordering.explicit(ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.FLOAT, ColumnDataType.DOUBLE);
 
-    private final TransformOperand _lhs;
-    private final TransformOperand _rhs;
-    private final IntPredicate _comparisonResultPredicate;
-    private final boolean _requireCasting;
-    private final ColumnDataType _commonCastType;
+    final TransformOperand _lhs;
+    final TransformOperand _rhs;
+    final IntPredicate _comparisonResultPredicate;
+    final boolean _requireCasting;
+    final ColumnDataType _commonCastType;
 
     /**
      * Predicate constructor also resolve data type,
@@ -32,6 +32,10 @@ public class LiteralOperand implements TransformOperand {
     _value = rexExpression.getValue();
   }
 
+  public Object getValue() {
+    return _value;
+  }
+
   @Override
   public ColumnDataType getResultType() {
     return _resultType;
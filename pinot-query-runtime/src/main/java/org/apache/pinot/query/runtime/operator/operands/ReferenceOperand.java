@@ -33,6 +33,10 @@ public class ReferenceOperand implements TransformOperand {
     _resultType = dataSchema.getColumnDataType(index);
   }
 
+  public int getIndex() {
+    return _index;
+  }
+
   @Override
   public ColumnDataType getResultType() {
     return _resultType;
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
@@ -49,6 +50,8 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(BlockingMultiStreamConsumer.class);
+  // Number of consumers currently blocked waiting for new data, across all the opchains
+  private static final AtomicInteger NUM_BLOCKED_CONSUMERS = new AtomicInteger();
   private final Object _id;
   protected final List<? extends AsyncStream<E>> _mailboxes;
   protected final ArrayBlockingQueue<Boolean> _newDataReady = new ArrayBlockingQueue<>(1);
@@ -71,6 +74,13 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
     _lastRead = _mailboxes.size() - 1;
   }
 
+  /**
+   * Returns the number of consumers currently blocked in {@link #readBlockBlocking()} waiting for new data.
+   */
+  public static int getNumBlockedConsumers() {
+    return NUM_BLOCKED_CONSUMERS.get();
+  }
+
   /**
    * Returns whether the element is considered an error element or not.
    *
@@ -217,7 +227,12 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
           LOGGER.debug("==[RECEIVE]== Blocked on : " + _id + ". " + System.identityHashCode(_newDataReady));
         }
         long timeoutMs = _deadlineMs - System.currentTimeMillis();
-        timeout = _newDataReady.poll(timeoutMs, TimeUnit.MILLISECONDS) == null;
+        NUM_BLOCKED_CONSUMERS.incrementAndGet();
+        try {
+          timeout = _newDataReady.poll(timeoutMs, TimeUnit.MILLISECONDS) == null;
+        } finally {
+          NUM_BLOCKED_CONSUMERS.decrementAndGet();
+        }
         if (timeout) {
           if (LOGGER.isDebugEnabled()) {
             LOGGER.warn("==[RECEIVE]== Timeout on: " + _id);
@@ -0,0 +1,258 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * A local file holding blocks of rows spilled by a multi-stage operator.
+ * <p>Rows are written in the {@link DataBlock} binary format (the same format used to exchange blocks between
+ * workers), each block prefixed with its size in bytes. Once all the blocks are written, the file is memory-mapped via
+ * {@link PinotDataBuffer} and the blocks are read back sequentially.
+ * <p>The file is deleted when {@link #close()} is called. This class is not thread-safe.
+ */
+public class DataBlockSpillFile implements Closeable {
+  private static final String SPILL_DIR_NAME = "pinot-mse-spill";
+  // Rough per-row and per-value overhead of rows stored on heap, used to estimate the size of the rows
+  private static final int ROW_OVERHEAD_BYTES = 16;
+  private static final int VALUE_OVERHEAD_BYTES = 24;
+
+  private static volatile File _spillDir = new File(FileUtils.getTempDirectory(), SPILL_DIR_NAME);
+
+  private final File _file;
+  private final DataSchema _dataSchema;
+  @Nullable
+  private DataOutputStream _outputStream;
+  @Nullable
+  private PinotDataBuffer _dataBuffer;
+  private long _numBytes;
+  private long _numRows;
+  private int _numBlocks;
+
+  public DataBlockSpillFile(String prefix, DataSchema dataSchema) {
+    File spillDir = _spillDir;
+    try {
+      FileUtils.forceMkdir(spillDir);
+      _file = File.createTempFile(prefix, ".spill", spillDir);
+      _outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_file)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create spill file in directory: " + spillDir, e);
+    }
+    _dataSchema = dataSchema;
+  }
+
+  /**
+   * Sets the directory where the spill files are created. Should be called on server startup.
+   */
+  public static void setSpillDir(File spillDir) {
+    _spillDir = spillDir;
+  }
+
+  public static File getSpillDir() {
+    return _spillDir;
+  }
+
+  /**
+   * Appends a block with the given rows to the file.
+   */
+  public void write(List<Object[]> rows) {
+    Preconditions.checkState(_outputStream != null, "Cannot write to spill file after it is finished");
+    if (rows.isEmpty()) {
+      return;
+    }
+    try {
+      DataBlock dataBlock = DataBlockBuilder.buildFromRows(rows, _dataSchema);
+      List<ByteBuffer> byteBuffers = dataBlock.serialize();
+      int size = 0;
+      for (ByteBuffer byteBuffer : byteBuffers) {
+        size += byteBuffer.remaining();
+      }
+      _outputStream.writeInt(size);
+      WritableByteChannel channel = Channels.newChannel(_outputStream);
+      for (ByteBuffer byteBuffer : byteBuffers) {
+        channel.write(byteBuffer.duplicate());
+      }
+      _numBytes += Integer.BYTES + size;
+      _numRows += rows.size();
+      _numBlocks++;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write to spill file: " + _file, e);
+    }
+  }
+
+  /**
+   * Finishes writing the file. No more blocks can be written after this method is called.
+   */
+  public void finishWriting() {
+    if (_outputStream != null) {
+      try {
+        _outputStream.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to close spill file: " + _file, e);
+      }
+      _outputStream = null;
+    }
+  }
+
+  /**
+   * Returns an iterator over the blocks of rows in the file, in the order they were written. Finishes writing the file
+   * if not already finished. The rows are copied to the heap so that they remain valid after the file is closed.
+   */
+  public Iterator<List<Object[]>> read() {
+    finishWriting();
+    if (_numBlocks == 0) {
+      return new Iterator<>() {
+        @Override
+        public boolean hasNext() {
+          return false;
+        }
+
+        @Override
+        public List<Object[]> next() {
+          throw new NoSuchElementException();
+        }
+      };
+    }
+    if (_dataBuffer == null) {
+      try {
+        _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(_file);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to map spill file: " + _file, e);
+      }
+    }
+    PinotDataBuffer dataBuffer = _dataBuffer;
+    return new Iterator<>() {
+      private long _offset = 0;
+      private int _blockId = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _blockId < _numBlocks;
+      }
+
+      @Override
+      public List<Object[]> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int size = dataBuffer.getInt(_offset);
+        long start = _offset + Integer.BYTES;
+        _offset = start + size;
+        _blockId++;
+        try {
+          DataBlock dataBlock = DataBlockUtils.deserialize(dataBuffer.view(start, _offset, ByteOrder.BIG_ENDIAN));
+          return DataBlockExtractUtils.extractRows(dataBlock);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read from spill file: " + _file, e);
+        }
+      }
+    };
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  /**
+   * Returns the number of bytes written to the file.
+   */
+  public long getNumBytes() {
+    return _numBytes;
+  }
+
+  public long getNumRows() {
+    return _numRows;
+  }
+
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  /**
+   * Closes and deletes the file.
+   */
+  @Override
+  public void close() {
+    try {
+      if (_outputStream != null) {
+        _outputStream.close();
+        _outputStream = null;
+      }
+      if (_dataBuffer != null) {
+        _dataBuffer.close();
+        _dataBuffer = null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close spill file: " + _file, e);
+    } finally {
+      FileUtils.deleteQuietly(_file);
+    }
+  }
+
+  /**
+   * Returns the estimated size in bytes of the given row when stored on heap.
+   */
+  public static long estimateRowSizeInBytes(Object[] row) {
+    long size = ROW_OVERHEAD_BYTES + (long) Integer.BYTES * row.length;
+    for (Object value : row) {
+      if (value == null) {
+        continue;
+      }
+      size += VALUE_OVERHEAD_BYTES;
+      if (value instanceof String) {
+        size += ((String) value).length();
+      } else if (value instanceof ByteArray) {
+        size += ((ByteArray) value).length();
+      } else if (value instanceof BigDecimal) {
+        size += ((BigDecimal) value).unscaledValue().bitLength() / Byte.SIZE;
+      } else if (value instanceof Object[]) {
+        size += (long) VALUE_OVERHEAD_BYTES * ((Object[]) value).length;
+      } else if (value.getClass().isArray()) {
+        size += (long) Long.BYTES * Array.getLength(value);
+      }
+    }
+    return size;
+  }
+}
@@ -24,8 +24,10 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
@@ -76,6 +78,8 @@ public class ServerPlanRequestUtils {
   }
 
   private static final int DEFAULT_LEAF_NODE_LIMIT = Integer.MAX_VALUE;
+  // Max number of distinct values of a join key to apply the runtime filter as IN filter instead of range filter
+  static final int RUNTIME_FILTER_MAX_IN_LIST_SIZE = 10_000;
   private static final List<String> QUERY_REWRITERS_CLASS_NAMES =
       ImmutableList.of(PredicateComparisonRewriter.class.getName(),
           NonAggregationGroupByToDistinctQueryRewriter.class.getName(), RlsFiltersRewriter.class.getName());
@@ -339,6 +343,63 @@ public class ServerPlanRequestUtils {
         expressions.add(RequestUtils.getFunctionExpression(FilterKind.IN.name(), operands));
       }
     }
+    attachFilterExpressions(pinotQuery, expressions);
+  }
+
+  /**
+   * Attaches the runtime filter computed from the join keys of the build side of a hash join to the given PinotQuery.
+   * Unlike the dynamic filter of a SEMI join, the runtime filter does not need to be exact because the join is still
+   * performed in the intermediate stage. For each join key, the distinct values are applied as an IN filter, or as a
+   * range filter on the min/max value when there are more than {@link #RUNTIME_FILTER_MAX_IN_LIST_SIZE} values.
+   */
+  static void attachRuntimeFilter(PinotQuery pinotQuery, List<Integer> leftKeys, List<Integer> rightKeys,
+      List<Object[]> dataContainer, DataSchema dataSchema) {
+    List<Expression> expressions = new ArrayList<>();
+    for (int i = 0; i < leftKeys.size(); i++) {
+      int rightIdx = rightKeys.get(i);
+      // Null keys never match in the join
+      Set<Object> distinctValues = new HashSet<>();
+      for (Object[] row : dataContainer) {
+        Object value = row[rightIdx];
+        if (value != null) {
+          distinctValues.add(value);
+        }
+      }
+      if (distinctValues.isEmpty()) {
+        // No row can match, put a constant false expression
+        expressions.clear();
+        expressions.add(RequestUtils.getLiteralExpression(false));
+        break;
+      }
+      Object[] values = distinctValues.toArray();
+      Arrays.sort(values);
+      Expression leftExpr = pinotQuery.getSelectList().get(leftKeys.get(i));
+      if (values.length <= RUNTIME_FILTER_MAX_IN_LIST_SIZE) {
+        List<Expression> operands = new ArrayList<>(values.length + 1);
+        operands.add(leftExpr);
+        for (Object value : values) {
+          operands.add(getRuntimeFilterLiteral(value));
+        }
+        expressions.add(RequestUtils.getFunctionExpression(FilterKind.IN.name(), operands));
+      } else if (dataSchema.getColumnDataType(rightIdx).getStoredType() != DataSchema.ColumnDataType.BYTES) {
+        expressions.add(RequestUtils.getFunctionExpression(FilterKind.BETWEEN.name(), leftExpr,
+            getRuntimeFilterLiteral(values[0]), getRuntimeFilterLiteral(values[values.length - 1])));
+      }
+    }
+    if (!expressions.isEmpty()) {
+      attachFilterExpressions(pinotQuery, expressions);
+    }
+  }
+
+  private static Expression getRuntimeFilterLiteral(Object value) {
+    return value instanceof ByteArray ? RequestUtils.getLiteralExpression(((ByteArray) value).getBytes())
+        : RequestUtils.getLiteralExpression(value);
+  }
+
+  /**
+   * Attaches the given filter expressions to the given PinotQuery, AND-ed with the existing filter.
+   */
+  private static void attachFilterExpressions(PinotQuery pinotQuery, List<Expression> expressions) {
     Expression filterExpression = pinotQuery.getFilterExpression();
     if (filterExpression != null) {
       expressions.add(filterExpression);
@@ -22,7 +22,9 @@ import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.Expression;
@@ -145,7 +147,7 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
 
   @Override
   public Void visitJoin(JoinNode node, ServerPlanRequestContext context) {
-    // We can reach here for dynamic broadcast SEMI join and lookup join.
+    // We can reach here for dynamic broadcast SEMI join (including runtime filter of hash join) and lookup join.
     List<PlanNode> inputs = node.getInputs();
     PlanNode left = inputs.get(0);
     PlanNode right = inputs.get(1);
@@ -166,8 +168,15 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
           }
         }
         // TODO: we should keep query stats here as well
-        ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
-            resultDataContainer, dataSchema);
+        Map<String, String> joinOptions = node.getNodeHint().getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+        if (joinOptions != null && Boolean.parseBoolean(
+            joinOptions.get(PinotHintOptions.JoinHintOptions.RUNTIME_FILTER))) {
+          ServerPlanRequestUtils.attachRuntimeFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
+              resultDataContainer, dataSchema);
+        } else {
+          ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
+              resultDataContainer, dataSchema);
+        }
       }
     } else {
       // For lookup join, visit the right child and set it as the leaf boundary.
@@ -32,6 +32,8 @@ import org.apache.pinot.common.datablock.DataBlockEquals;
 import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.query.runtime.blocks.MseBlock;
+import org.apache.pinot.query.runtime.blocks.SerializedDataBlock;
 import org.apache.pinot.segment.spi.memory.CompoundDataBuffer;
 import org.apache.pinot.segment.spi.memory.DataBuffer;
 import org.apache.pinot.segment.spi.memory.PinotByteBuffer;
@@ -39,6 +41,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 
@@ -108,6 +111,78 @@ public class GrpcSendingMailboxTest {
     assertEquals(split1, split2);
   }
 
+  @Test(dataProvider = "compressionProvider")
+  public void testCompressedBlockIsLazilyDeserialized(String compression)
+      throws IOException {
+    DataBlock dataBlock = buildTestDataBlock(1000);
+    List<ByteBuffer> serialized = dataBlock.serialize();
+    int sizeInBytes = serialized.stream().mapToInt(ByteBuffer::remaining).sum();
+    byte[] compressed = GrpcSendingMailbox.compress(serialized, sizeInBytes, compression);
+    assertTrue(compressed.length < sizeInBytes);
+
+    ReceivingMailbox receivingMailbox = new ReceivingMailbox("mailbox");
+    receivingMailbox.registeredReader(() -> {
+    });
+    assertEquals(receivingMailbox.offerRaw(List.of(ByteBuffer.wrap(compressed)), compression, sizeInBytes, 10_000L),
+        ReceivingMailbox.ReceivingMailboxStatus.SUCCESS);
+    assertEquals(receivingMailbox.getStatMap().getLong(ReceivingMailbox.StatKey.RECEIVED_BYTES), compressed.length);
+    assertEquals(receivingMailbox.getStatMap().getLong(ReceivingMailbox.StatKey.DESERIALIZED_BYTES), sizeInBytes);
+
+    MseBlock block = receivingMailbox.poll().getBlock();
+    assertTrue(block instanceof SerializedDataBlock);
+    SerializedDataBlock serializedDataBlock = (SerializedDataBlock) block;
+    assertFalse(serializedDataBlock.isLoaded());
+    DataBlockEquals.checkSameContent(dataBlock, serializedDataBlock.getDataBlock(), "Decompressed block mismatch");
+    assertTrue(serializedDataBlock.isLoaded());
+  }
+
+  @Test
+  public void testUncompressedBlockIsLazilyDeserialized()
+      throws IOException {
+    DataBlock dataBlock = buildTestDataBlock(10);
+    List<ByteBuffer> serialized = dataBlock.serialize();
+    int sizeInBytes = serialized.stream().mapToInt(ByteBuffer::remaining).sum();
+
+    ReceivingMailbox receivingMailbox = new ReceivingMailbox("mailbox");
+    receivingMailbox.registeredReader(() -> {
+    });
+    assertEquals(receivingMailbox.offerRaw(serialized, 10_000L), ReceivingMailbox.ReceivingMailboxStatus.SUCCESS);
+    assertEquals(receivingMailbox.getStatMap().getLong(ReceivingMailbox.StatKey.RECEIVED_BYTES), sizeInBytes);
+    assertEquals(receivingMailbox.getStatMap().getLong(ReceivingMailbox.StatKey.DESERIALIZED_BYTES), sizeInBytes);
+
+    SerializedDataBlock block = (SerializedDataBlock) receivingMailbox.poll().getBlock();
+    assertFalse(block.isLoaded());
+    assertEquals(block.getNumRows(), 10);
+    DataBlockEquals.checkSameContent(dataBlock, block.getDataBlock(), "Deserialized block mismatch");
+  }
+
+  @Test
+  public void testCompressionPolicy() {
+    MailboxCompressionPolicy adaptive = new MailboxCompressionPolicy("adaptive", 1024, 1024 * 1024, 0.9);
+    assertTrue(adaptive.isEnabled());
+    assertEquals(adaptive.selectCompression(1023), null);
+    assertEquals(adaptive.selectCompression(1024), "LZ4");
+    assertEquals(adaptive.selectCompression(1024 * 1024), "ZSTD");
+    assertTrue(adaptive.isWorthSending(1000, 900));
+    assertFalse(adaptive.isWorthSending(1000, 901));
+
+    MailboxCompressionPolicy zstd = new MailboxCompressionPolicy("zstd", 1024, 1024 * 1024, 0.9);
+    assertEquals(zstd.selectCompression(2048), "ZSTD");
+
+    assertFalse(MailboxCompressionPolicy.NONE.isEnabled());
+    assertEquals(MailboxCompressionPolicy.NONE.selectCompression(Integer.MAX_VALUE), null);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testCompressionPolicyRejectsUnknownCompression() {
+    new MailboxCompressionPolicy("unknown", 1024, 1024 * 1024, 0.9);
+  }
+
+  @DataProvider(name = "compressionProvider")
+  public Object[][] compressionProvider() {
+    return new Object[][]{{"LZ4"}, {"ZSTD"}};
+  }
+
   @DataProvider(name = "byteBuffersDataProvider")
   public Object[][] byteBuffersDataProvider() {
     // byteBufferSizes / maxByteStringSize
@@ -136,7 +211,11 @@ public class GrpcSendingMailboxTest {
 
   private static DataBlock buildTestDataBlock()
       throws IOException {
-    int numRows = 1;
+    return buildTestDataBlock(1);
+  }
+
+  private static DataBlock buildTestDataBlock(int numRows)
+      throws IOException {
     DataSchema dataSchema = new DataSchema(
         new String[]{
             "valueInt"
@@ -147,7 +226,8 @@ public class GrpcSendingMailboxTest {
 
     List<Object[]> rows = new ArrayList<>(numRows);
     for (int i = 0; i < numRows; i++) {
-      rows.add(new Object[] {i});
+      // Repeated values so that the serialized block is compressible
+      rows.add(new Object[] {i % 10});
     }
 
     return DataBlockBuilder.buildFromRows(rows, dataSchema);
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.common.datablock.DataBlockTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ColumnHeapDataBlockTest {
+  private static final int NUM_ROWS = 100;
+  private static final int NULL_PERCENTILE = 10;
+  private static final List<ColumnDataType> EXCLUDE_DATA_TYPES =
+      List.of(ColumnDataType.OBJECT, ColumnDataType.JSON, ColumnDataType.BYTES_ARRAY);
+
+  private static DataSchema getDataSchema() {
+    List<String> columnNames = new ArrayList<>();
+    List<ColumnDataType> columnDataTypes = new ArrayList<>();
+    for (ColumnDataType columnDataType : ColumnDataType.values()) {
+      if (!EXCLUDE_DATA_TYPES.contains(columnDataType)) {
+        columnNames.add(columnDataType.name());
+        columnDataTypes.add(columnDataType);
+      }
+    }
+    return new DataSchema(columnNames.toArray(new String[0]), columnDataTypes.toArray(new ColumnDataType[0]));
+  }
+
+  @Test
+  public void testRowsRoundTrip() {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, NUM_ROWS, NULL_PERCENTILE);
+    ColumnHeapDataBlock block = ColumnHeapDataBlock.fromRows(rows, dataSchema);
+    Assert.assertTrue(block.isColumnHeap());
+    Assert.assertFalse(block.isRowHeap());
+    Assert.assertFalse(block.isSerialized());
+    Assert.assertEquals(block.getNumRows(), NUM_ROWS);
+    validateRows(block.asRowHeap().getRows(), rows, dataSchema);
+    Assert.assertSame(new RowHeapDataBlock(rows, dataSchema).asColumnHeap().getDataSchema(), dataSchema);
+  }
+
+  @Test
+  public void testSerializedRoundTrip()
+      throws IOException {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, NUM_ROWS, NULL_PERCENTILE);
+    ColumnHeapDataBlock block = ColumnHeapDataBlock.fromRows(rows, dataSchema);
+
+    // Column heap -> columnar data block
+    DataBlock dataBlock = block.asSerialized().getDataBlock();
+    Assert.assertEquals(dataBlock.getDataBlockType(), DataBlock.Type.COLUMNAR);
+    validateRows(new SerializedDataBlock(dataBlock).asRowHeap().getRows(), rows, dataSchema);
+
+    // Row data block -> column heap
+    SerializedDataBlock serializedBlock = new SerializedDataBlock(DataBlockBuilder.buildFromRows(rows, dataSchema));
+    ColumnHeapDataBlock fromSerialized = serializedBlock.asColumnHeap();
+    validateRows(fromSerialized.asRowHeap().getRows(), rows, dataSchema);
+  }
+
+  @Test
+  public void testRowView() {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, NUM_ROWS, NULL_PERCENTILE);
+    ColumnHeapDataBlock block = ColumnHeapDataBlock.fromRows(rows, dataSchema);
+    ColumnHeapDataBlock.RowView rowView = block.getRowView();
+    List<Object[]> viewedRows = new ArrayList<>(NUM_ROWS);
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      rowView.setRowId(rowId);
+      Assert.assertEquals(rowView.size(), dataSchema.size());
+      viewedRows.add(rowView.toArray());
+    }
+    validateRows(viewedRows, rows, dataSchema);
+  }
+
+  @Test
+  public void testSelectAndSlice() {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, NUM_ROWS, NULL_PERCENTILE);
+    ColumnHeapDataBlock block = ColumnHeapDataBlock.fromRows(rows, dataSchema);
+
+    int[] rowIds = new int[NUM_ROWS];
+    int numSelectedRows = 0;
+    List<Object[]> expectedRows = new ArrayList<>();
+    for (int rowId = NUM_ROWS - 1; rowId >= 0; rowId -= 3) {
+      rowIds[numSelectedRows++] = rowId;
+      expectedRows.add(rows.get(rowId));
+    }
+    ColumnHeapDataBlock selected = block.select(rowIds, numSelectedRows);
+    Assert.assertEquals(selected.getNumRows(), numSelectedRows);
+    validateRows(selected.asRowHeap().getRows(), expectedRows, dataSchema);
+
+    ColumnHeapDataBlock sliced = block.slice(10, 30);
+    Assert.assertEquals(sliced.getNumRows(), 20);
+    validateRows(sliced.asRowHeap().getRows(), rows.subList(10, 30), dataSchema);
+  }
+
+  @Test
+  public void testSplit() {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, NUM_ROWS, NULL_PERCENTILE);
+    ColumnHeapDataBlock block = ColumnHeapDataBlock.fromRows(rows, dataSchema);
+    List<Object[]> splitRows = new ArrayList<>();
+    int numBlocks = 0;
+    Iterator<? extends MseBlock.Data> splitBlocks = BlockSplitter.DEFAULT.split(block, 1024);
+    while (splitBlocks.hasNext()) {
+      MseBlock.Data splitBlock = splitBlocks.next();
+      Assert.assertTrue(splitBlock.isColumnHeap());
+      splitRows.addAll(splitBlock.asRowHeap().getRows());
+      numBlocks++;
+    }
+    Assert.assertTrue(numBlocks > 1);
+    validateRows(splitRows, rows, dataSchema);
+  }
+
+  @Test
+  public void testIsSupported() {
+    Assert.assertTrue(ColumnHeapDataBlock.isSupported(getDataSchema()));
+    DataSchema dataSchemaWithObject =
+        new DataSchema(new String[]{"int", "object"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.OBJECT});
+    Assert.assertFalse(ColumnHeapDataBlock.isSupported(dataSchemaWithObject));
+  }
+
+  private static void validateRows(List<Object[]> actualRows, List<Object[]> expectedRows, DataSchema dataSchema) {
+    Assert.assertEquals(actualRows.size(), expectedRows.size());
+    int numColumns = dataSchema.size();
+    for (int rowId = 0; rowId < actualRows.size(); rowId++) {
+      Object[] actualRow = actualRows.get(rowId);
+      Object[] expectedRow = expectedRows.get(rowId);
+      for (int colId = 0; colId < numColumns; colId++) {
+        Assert.assertEquals(actualRow[colId], expectedRow[colId],
+            "Mismatch at (" + rowId + "," + colId + ") of type: " + dataSchema.getColumnDataType(colId));
+      }
+    }
+  }
+}
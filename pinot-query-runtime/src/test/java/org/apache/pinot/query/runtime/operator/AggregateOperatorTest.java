@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.SuccessMseBlock;
@@ -135,6 +137,35 @@ public class AggregateOperatorTest {
     assertTrue(operator.nextBlock().isSuccess(), "Second block is EOS (done processing)");
   }
 
+  @Test
+  public void testAggregateColumnHeapBlocksWithFilter() {
+    // Given:
+    List<RexExpression.FunctionCall> aggCalls =
+        List.of(getSum(new RexExpression.InputRef(1)), getSum(new RexExpression.InputRef(1)));
+    List<Integer> filterArgs = List.of(-1, 2);
+    List<Integer> groupKeys = List.of(0);
+    DataSchema inSchema =
+        new DataSchema(new String[]{"group", "arg", "filter"}, new ColumnDataType[]{INT, DOUBLE, BOOLEAN});
+    when(_input.nextBlock()).thenReturn(ColumnHeapDataBlock.fromRows(
+            List.of(new Object[]{1, 1.0, 1}, new Object[]{2, 2.0, 0}, new Object[]{1, 3.0, 0}), inSchema))
+        .thenReturn(ColumnHeapDataBlock.fromRows(
+            List.of(new Object[]{2, 4.0, 1}, new Object[]{1, null, 1}, new Object[]{2, 5.0, null}), inSchema))
+        .thenReturn(SuccessMseBlock.INSTANCE);
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "sum", "filteredSum"}, new ColumnDataType[]{INT, DOUBLE, DOUBLE});
+    AggregateOperator operator = getOperator(resultSchema, aggCalls, filterArgs, groupKeys);
+
+    // When:
+    List<Object[]> resultRows = ((MseBlock.Data) operator.nextBlock()).asRowHeap().getRows();
+    resultRows.sort(Comparator.comparingInt(row -> (int) row[0]));
+
+    // Then:
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1, 4.0, 1.0});
+    assertEquals(resultRows.get(1), new Object[]{2, 11.0, 4.0});
+    assertTrue(operator.nextBlock().isSuccess(), "Second block is EOS (done processing)");
+  }
+
   @Test
   public void testAggregateMultipleInputBlocks() {
     // Given:
@@ -19,16 +19,19 @@
 package org.apache.pinot.query.runtime.operator;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.FilterNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.SuccessMseBlock;
 import org.apache.pinot.spi.exception.QueryErrorCode;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -235,6 +238,62 @@ public class FilterOperatorTest {
     getOperator(inputSchema, startsWith);
   }
 
+  @Test
+  public void shouldFilterColumnHeapBlocksWhenColumnarEnabled() {
+    DataSchema inputSchema = new DataSchema(new String[]{"int0", "int1", "str"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.STRING
+    });
+    when(_input.nextBlock()).thenReturn(ColumnHeapDataBlock.fromRows(
+            List.of(new Object[]{1, 2, "a"}, new Object[]{3, 2, null}, new Object[]{null, 1, "c"},
+                new Object[]{5, 1, "d"}), inputSchema))
+        .thenReturn(ColumnHeapDataBlock.fromRows(List.<Object[]>of(new Object[]{1, 1, "e"}), inputSchema))
+        .thenReturn(SuccessMseBlock.INSTANCE);
+    RexExpression.FunctionCall greaterThan =
+        new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.GREATER_THAN.name(),
+            List.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1)));
+    FilterOperator operator = new FilterOperator(
+        OperatorTestUtil.getContext(Map.of(QueryOptionKey.USE_COLUMNAR_DATA_BLOCKS, "true")), _input,
+        new FilterNode(-1, inputSchema, PlanNode.NodeHint.EMPTY, List.of(), greaterThan));
+    MseBlock.Data block = (MseBlock.Data) operator.nextBlock();
+    assertTrue(block.isColumnHeap());
+    List<Object[]> resultRows = block.asRowHeap().getRows();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{3, 2, null});
+    assertEquals(resultRows.get(1), new Object[]{5, 1, "d"});
+    // The second block has no match and should be skipped
+    assertTrue(operator.nextBlock().isSuccess());
+  }
+
+  @Test
+  public void shouldFilterColumnVectorsWithLiteralComparisons() {
+    DataSchema inputSchema = new DataSchema(new String[]{"int", "long", "double"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.DOUBLE
+    });
+    when(_input.nextBlock()).thenReturn(ColumnHeapDataBlock.fromRows(
+            List.of(new Object[]{1, 10L, 1.5}, new Object[]{2, null, 2.5}, new Object[]{3, 30L, 3.0},
+                new Object[]{null, 40L, 4.5}, new Object[]{5, 50L, null}, new Object[]{6, 60L, 6.5},
+                new Object[]{7, 20L, 3.5}, new Object[]{8, 50L, 8.5}), inputSchema))
+        .thenReturn(SuccessMseBlock.INSTANCE);
+    // int > 1 AND 50 >= long AND double <> 3.5, where the INT literal is compared as LONG
+    RexExpression.FunctionCall condition = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.AND.name(),
+        List.of(new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.GREATER_THAN.name(),
+                List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.INT, 1))),
+            new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.GREATER_THAN_OR_EQUAL.name(),
+                List.of(new RexExpression.Literal(ColumnDataType.INT, 50), new RexExpression.InputRef(1))),
+            new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.NOT_EQUALS.name(),
+                List.of(new RexExpression.InputRef(2), new RexExpression.Literal(ColumnDataType.DOUBLE, 3.5)))));
+    FilterOperator operator = new FilterOperator(
+        OperatorTestUtil.getContext(Map.of(QueryOptionKey.USE_COLUMNAR_DATA_BLOCKS, "true")), _input,
+        new FilterNode(-1, inputSchema, PlanNode.NodeHint.EMPTY, List.of(), condition));
+    MseBlock.Data block = (MseBlock.Data) operator.nextBlock();
+    assertTrue(block.isColumnHeap());
+    // Rows with null value in any of the compared columns should not match
+    List<Object[]> resultRows = block.asRowHeap().getRows();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{3, 30L, 3.0});
+    assertEquals(resultRows.get(1), new Object[]{8, 50L, 8.5});
+  }
+
   private FilterOperator getOperator(DataSchema schema, RexExpression condition) {
     return new FilterOperator(OperatorTestUtil.getTracingContext(), _input,
         new FilterNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), condition));
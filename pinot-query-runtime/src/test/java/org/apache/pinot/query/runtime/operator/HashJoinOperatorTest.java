@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -36,6 +39,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.when;
@@ -765,6 +769,77 @@ public class HashJoinOperatorTest {
     assertTrue(containsRow(resultRows, new Object[]{3, "Cc", 3.0}));  // Unmatched preserved
   }
 
+  @Test(dataProvider = "spillJoinTypes")
+  public void shouldProduceSameResultsWhenSpillingRightTable(JoinRelType joinType) {
+    DataSchema resultSchema = joinType == JoinRelType.SEMI || joinType == JoinRelType.ANTI ? DEFAULT_CHILD_SCHEMA
+        : new DataSchema(new String[]{"int_col1", "string_col1", "int_col2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+
+    initSpillInputs();
+    HashJoinOperator operator = getOperator(resultSchema, joinType, List.of(0), List.of(0), List.of());
+    List<String> expectedRows = getSortedRows(operator);
+    StatMap<HashJoinOperator.StatKey> statMap =
+        OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, operator.calculateStats());
+    assertEquals(statMap.getInt(HashJoinOperator.StatKey.NUM_SPILLED_PARTITIONS), 0);
+
+    // Spill the right table as soon as the first block is added
+    initSpillInputs();
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_SPILL_THRESHOLD_BYTES, "1")));
+    operator = getOperator(resultSchema, joinType, List.of(0), List.of(0), List.of(), nodeHint);
+    List<String> actualRows = getSortedRows(operator);
+    assertEquals(actualRows, expectedRows);
+    statMap = OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, operator.calculateStats());
+    assertTrue(statMap.getInt(HashJoinOperator.StatKey.NUM_SPILLED_PARTITIONS) > 0);
+    assertTrue(statMap.getLong(HashJoinOperator.StatKey.SPILLED_BYTES) > 0);
+  }
+
+  @DataProvider(name = "spillJoinTypes")
+  public Object[][] spillJoinTypes() {
+    return new Object[][]{
+        new Object[]{JoinRelType.INNER},
+        new Object[]{JoinRelType.LEFT},
+        new Object[]{JoinRelType.RIGHT},
+        new Object[]{JoinRelType.FULL},
+        new Object[]{JoinRelType.SEMI},
+        new Object[]{JoinRelType.ANTI}
+    };
+  }
+
+  private void initSpillInputs() {
+    BlockListMultiStageOperator.Builder leftBuilder = new BlockListMultiStageOperator.Builder(DEFAULT_CHILD_SCHEMA);
+    for (int i = 0; i < 1000; i++) {
+      leftBuilder.addRow(i % 10 == 0 ? null : i % 300, "left_" + i);
+      if (i % 100 == 99) {
+        leftBuilder.finishBlock();
+      }
+    }
+    _leftInput = leftBuilder.buildWithEos();
+    BlockListMultiStageOperator.Builder rightBuilder = new BlockListMultiStageOperator.Builder(DEFAULT_CHILD_SCHEMA);
+    for (int i = 0; i < 500; i++) {
+      rightBuilder.addRow(i % 25 == 0 ? null : i % 200 + 150, "right_" + i);
+      if (i % 100 == 99) {
+        rightBuilder.finishBlock();
+      }
+    }
+    _rightInput = rightBuilder.buildWithEos();
+  }
+
+  private static List<String> getSortedRows(MultiStageOperator operator) {
+    List<String> rows = new ArrayList<>();
+    MseBlock block = operator.nextBlock();
+    while (block.isData()) {
+      for (Object[] row : ((MseBlock.Data) block).asRowHeap().getRows()) {
+        rows.add(Arrays.toString(row));
+      }
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccess());
+    Collections.sort(rows);
+    return rows;
+  }
+
   private HashJoinOperator getOperator(DataSchema leftSchema, DataSchema resultSchema, JoinRelType joinType,
       List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
       PlanNode.NodeHint nodeHint) {
@@ -18,10 +18,14 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.SortNode;
@@ -30,6 +34,9 @@ import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.SuccessMseBlock;
+import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -499,6 +506,80 @@ public class SortOperatorTest {
     assertTrue(operator.nextBlock().isSuccess(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldSpillSortedRunsAndMerge() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"sort", "value"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    List<Object[]> inputRows = new ArrayList<>();
+    List<MseBlock> inputBlocks = new ArrayList<>();
+    Random random = new Random();
+    for (int i = 0; i < 20; i++) {
+      Object[][] rows = new Object[100][];
+      for (int j = 0; j < 100; j++) {
+        rows[j] = new Object[]{j % 17 == 0 ? null : random.nextInt(1000), "value_" + (i * 100 + j)};
+        inputRows.add(rows[j]);
+      }
+      inputBlocks.add(block(schema, rows));
+    }
+    inputBlocks.add(SuccessMseBlock.INSTANCE);
+    when(_input.nextBlock()).thenReturn(inputBlocks.get(0),
+        inputBlocks.subList(1, inputBlocks.size()).toArray(new MseBlock[0]));
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.DESCENDING, NullDirection.FIRST),
+        new RelFieldCollation(1, Direction.ASCENDING, NullDirection.LAST));
+    // Spill the buffered rows after each input block
+    OpChainExecutionContext context =
+        OperatorTestUtil.getContext(Map.of(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, "1"));
+    SortOperator operator = new SortOperator(context, _input,
+        new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, 1500, 100), 10, 10);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    MseBlock block = operator.nextBlock();
+    while (block.isData()) {
+      resultRows.addAll(((MseBlock.Data) block).asRowHeap().getRows());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    assertTrue(block.isSuccess(), "expected EOS block to propagate");
+    inputRows.sort(new SortUtils.SortComparator(collations, false));
+    assertEquals(resultRows.size(), 1500);
+    for (int i = 0; i < 1500; i++) {
+      assertEquals(resultRows.get(i), inputRows.get(i + 100));
+    }
+    @SuppressWarnings("unchecked")
+    StatMap<SortOperator.StatKey> statMap = (StatMap<SortOperator.StatKey>) operator.copyStatMaps();
+    assertTrue(statMap.getBoolean(SortOperator.StatKey.REQUIRE_SORT));
+    assertEquals(statMap.getInt(SortOperator.StatKey.NUM_SPILLED_RUNS), 20);
+    assertTrue(statMap.getLong(SortOperator.StatKey.SPILLED_BYTES) > 0);
+    assertTrue(statMap.getLong(SortOperator.StatKey.MAX_BUFFERED_BYTES) > 0);
+  }
+
+  @Test
+  public void shouldUseTopKWhenLimitIsSmallWithSpillingEnabled() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    when(_input.nextBlock()).thenReturn(block(schema, new Object[]{2}, new Object[]{1}, new Object[]{3}))
+        .thenReturn(SuccessMseBlock.INSTANCE);
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.ASCENDING, NullDirection.LAST));
+    OpChainExecutionContext context =
+        OperatorTestUtil.getContext(Map.of(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, "1"));
+    SortOperator operator = new SortOperator(context, _input,
+        new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, 2, 0));
+
+    // When:
+    List<Object[]> resultRows = ((MseBlock.Data) operator.nextBlock()).asRowHeap().getRows();
+
+    // Then:
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1});
+    assertEquals(resultRows.get(1), new Object[]{2});
+    assertTrue(operator.nextBlock().isSuccess(), "expected EOS block to propagate");
+    @SuppressWarnings("unchecked")
+    StatMap<SortOperator.StatKey> statMap = (StatMap<SortOperator.StatKey>) operator.copyStatMaps();
+    assertEquals(statMap.getInt(SortOperator.StatKey.NUM_SPILLED_RUNS), 0);
+  }
+
   private SortOperator getOperator(DataSchema schema, List<RelFieldCollation> collations, int fetch, int offset) {
     return new SortOperator(OperatorTestUtil.getTracingContext(), _input,
         new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, fetch, offset));
@@ -23,12 +23,15 @@ import java.util.Map;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
 import org.apache.pinot.query.runtime.blocks.ErrorMseBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
+import org.apache.pinot.query.runtime.blocks.SerializedDataBlock;
 import org.apache.pinot.spi.exception.QueryErrorCode;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -179,6 +182,32 @@ public class TransformOperatorTest {
     assertEquals(resultRows2.get(2), new Object[]{1, "str"});
   }
 
+  @Test
+  public void shouldTransformColumnHeapBlocksWhenColumnarEnabled()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"doubleCol1", "doubleCol2", "strCol"}, new ColumnDataType[]{
+        ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.STRING
+    });
+    List<Object[]> rows = List.of(new Object[]{1.0, 1.0, "a"}, new Object[]{2.0, 3.0, null});
+    when(_input.nextBlock()).thenReturn(
+        new SerializedDataBlock(DataBlockBuilder.buildFromRows(rows, inputSchema)));
+    DataSchema resultSchema = new DataSchema(new String[]{"strCol", "plusR"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.DOUBLE});
+    List<RexExpression> projects = List.of(new RexExpression.InputRef(2),
+        new RexExpression.FunctionCall(ColumnDataType.DOUBLE, SqlKind.PLUS.name(),
+            List.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1))));
+    TransformOperator operator = new TransformOperator(
+        OperatorTestUtil.getContext(Map.of(QueryOptionKey.USE_COLUMNAR_DATA_BLOCKS, "true")), _input, inputSchema,
+        new ProjectNode(-1, resultSchema, PlanNode.NodeHint.EMPTY, List.of(), projects));
+    MseBlock.Data block = (MseBlock.Data) operator.nextBlock();
+    assertTrue(block.isColumnHeap());
+    assertEquals(block.getDataSchema(), resultSchema);
+    List<Object[]> resultRows = block.asRowHeap().getRows();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{"a", 2.0});
+    assertEquals(resultRows.get(1), new Object[]{null, 5.0});
+  }
+
   private TransformOperator getOperator(DataSchema inputSchema, DataSchema resultSchema, List<RexExpression> projects) {
     return new TransformOperator(OperatorTestUtil.getTracingContext(), _input, inputSchema,
         new ProjectNode(-1, resultSchema, PlanNode.NodeHint.EMPTY, List.of(), projects));
@@ -25,12 +25,14 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
+import org.apache.pinot.query.runtime.blocks.ColumnHeapDataBlock;
 import org.apache.pinot.query.runtime.blocks.MseBlock;
 import org.apache.pinot.query.runtime.blocks.RowHeapDataBlock;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.roaringbitmap.RoaringBitmap;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -85,6 +87,50 @@ public class HashExchangeTest {
     Assert.assertEquals(mailbox2DataBlock.asRowHeap().getRows().get(0), new Object[]{2});
   }
 
+  @Test
+  public void shouldOnlyReadKeyColumnsWhenRoutingColumnBlocks()
+      throws Exception {
+    // Given:
+    DataSchema dataSchema = new DataSchema(new String[]{"col1", "col2"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT});
+    ColumnHeapDataBlock block = new ColumnHeapDataBlock(dataSchema, 3,
+        new Object[]{new int[]{10, 11, 12}, new int[]{0, 1, 2}}, new RoaringBitmap[2]);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+
+    // When:
+    new HashExchange(destinations, new SecondColumnSelector(), BlockSplitter.DEFAULT).route(destinations, block);
+
+    // Then:
+    ArgumentCaptor<MseBlock.Data> captor = ArgumentCaptor.forClass(MseBlock.Data.class);
+
+    Mockito.verify(_mailbox1, Mockito.times(1)).send(captor.capture());
+    MseBlock.Data mailbox1DataBlock = captor.getValue();
+    Assert.assertEquals(mailbox1DataBlock.asRowHeap().getRows().get(0), new Object[]{10, 0});
+    Assert.assertEquals(mailbox1DataBlock.asRowHeap().getRows().get(1), new Object[]{12, 2});
+
+    Mockito.verify(_mailbox2, Mockito.times(1)).send(captor.capture());
+    MseBlock.Data mailbox2DataBlock = captor.getValue();
+    Assert.assertEquals(mailbox2DataBlock.asRowHeap().getRows().get(0), new Object[]{11, 1});
+  }
+
+  private static class SecondColumnSelector implements KeySelector<Object> {
+    @Override
+    public Object getKey(Object[] input) {
+      throw new UnsupportedOperationException("Should not be called");
+    }
+
+    @Override
+    public int computeHash(Object[] input) {
+      Assert.assertNull(input[0], "Non key column should not be read");
+      return (Integer) input[1];
+    }
+
+    @Override
+    public int[] getKeyIds() {
+      return new int[]{1};
+    }
+  }
+
   private static class TestSelector implements KeySelector<Object> {
     private final Iterator<Integer> _hashes;
 
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.plan.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.sql.FilterKind;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class ServerPlanRequestUtilsTest {
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"key"}, new ColumnDataType[]{ColumnDataType.INT});
+
+  private static PinotQuery getPinotQuery() {
+    PinotQuery pinotQuery = new PinotQuery();
+    pinotQuery.setSelectList(new ArrayList<>(List.of(RequestUtils.getIdentifierExpression("col"))));
+    return pinotQuery;
+  }
+
+  @Test
+  public void testRuntimeFilterInList() {
+    PinotQuery pinotQuery = getPinotQuery();
+    List<Object[]> rows = List.of(new Object[]{3}, new Object[]{1}, new Object[]{3}, new Object[]{null});
+    ServerPlanRequestUtils.attachRuntimeFilter(pinotQuery, List.of(0), List.of(0), rows, DATA_SCHEMA);
+
+    // Distinct non-null values are sorted
+    Function function = pinotQuery.getFilterExpression().getFunctionCall();
+    assertEquals(function.getOperator(), FilterKind.IN.name());
+    assertEquals(function.getOperands(),
+        List.of(RequestUtils.getIdentifierExpression("col"), RequestUtils.getLiteralExpression(1),
+            RequestUtils.getLiteralExpression(3)));
+  }
+
+  @Test
+  public void testRuntimeFilterRange() {
+    PinotQuery pinotQuery = getPinotQuery();
+    Expression existingFilter = RequestUtils.getFunctionExpression(FilterKind.GREATER_THAN.name(),
+        RequestUtils.getIdentifierExpression("col"), RequestUtils.getLiteralExpression(0));
+    pinotQuery.setFilterExpression(existingFilter);
+    int numValues = ServerPlanRequestUtils.RUNTIME_FILTER_MAX_IN_LIST_SIZE + 1;
+    List<Object[]> rows = new ArrayList<>(numValues);
+    for (int i = numValues; i > 0; i--) {
+      rows.add(new Object[]{i * 2});
+    }
+    ServerPlanRequestUtils.attachRuntimeFilter(pinotQuery, List.of(0), List.of(0), rows, DATA_SCHEMA);
+
+    // Too many distinct values, range filter on the min/max value is AND-ed with the existing filter
+    Function function = pinotQuery.getFilterExpression().getFunctionCall();
+    assertEquals(function.getOperator(), FilterKind.AND.name());
+    assertEquals(function.getOperands(), List.of(
+        RequestUtils.getFunctionExpression(FilterKind.BETWEEN.name(), RequestUtils.getIdentifierExpression("col"),
+            RequestUtils.getLiteralExpression(2), RequestUtils.getLiteralExpression(numValues * 2)), existingFilter));
+  }
+
+  @Test
+  public void testRuntimeFilterWithoutValues() {
+    PinotQuery pinotQuery = getPinotQuery();
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{null});
+    ServerPlanRequestUtils.attachRuntimeFilter(pinotQuery, List.of(0), List.of(0), rows, DATA_SCHEMA);
+    assertEquals(pinotQuery.getFilterExpression(), RequestUtils.getLiteralExpression(false));
+  }
+}
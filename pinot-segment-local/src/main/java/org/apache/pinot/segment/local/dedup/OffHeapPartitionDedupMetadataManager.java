@@ -0,0 +1,417 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.local.utils.SegmentIdRegistry;
+import org.apache.pinot.segment.local.utils.SegmentIdRegistry.PersistedSegment;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKey;
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKeyHigh;
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKeyLow;
+
+
+/**
+ * Implementation of {@link PartitionDedupMetadataManager} that is backed by an {@link OffHeapPrimaryKeyMap}, which
+ * keeps the primary keys (as 128-bit hashes) and dedup times out of the heap.
+ * <p>The map is checkpointed into the table index dir asynchronously whenever a consuming segment is committed
+ * (replaced by an immutable segment), and synchronously when the metadata manager is closed. Checkpoint requests made
+ * while a checkpoint is pending are coalesced into it, so that committing segments is not blocked on writing the map.
+ * On restart, the checkpoint is loaded and the immutable segments with the same name and CRC as in the checkpoint are
+ * bound to it without reading their primary keys, so only the consuming segment needs to be replayed from the stream.
+ * The keys of the other segments in the checkpoint are dropped at the next checkpoint if the segments are not loaded by
+ * then.
+ */
+class OffHeapPartitionDedupMetadataManager extends BasePartitionDedupMetadataManager {
+  private static final String METADATA_HASH_FUNCTION = "hashFunction";
+  private static final String METADATA_PRIMARY_KEY_COLUMNS = "primaryKeyColumns";
+
+  // Checkpoints are disk bound, so they are written one at a time across all the partitions
+  private static final ExecutorService CHECKPOINT_EXECUTOR = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("dedup-checkpoint-%d").setDaemon(true).build());
+
+  private final File _mapFile;
+  private final File _metadataFile;
+  @VisibleForTesting
+  final OffHeapPrimaryKeyMap _primaryKeyToSegmentAndTimeMap;
+
+  // Segments are referenced by id from the off-heap map
+  private final SegmentIdRegistry _segmentIdRegistry;
+
+  // Updates to the map take the read lock, and checkpointing takes the write lock to get a consistent view.
+  private final ReadWriteLock _checkpointLock = new ReentrantReadWriteLock();
+  private final AtomicBoolean _checkpointScheduled = new AtomicBoolean();
+
+  // Segments in the loaded checkpoint which are not bound yet, keyed by segment name, and their segment ids
+  private final Map<String, PersistedSegment> _checkpointedSegments = new ConcurrentHashMap<>();
+  private final Set<Integer> _checkpointedSegmentIds = ConcurrentHashMap.newKeySet();
+
+  protected OffHeapPartitionDedupMetadataManager(String tableNameWithType, int partitionId,
+      DedupContext dedupContext) {
+    super(tableNameWithType, partitionId, dedupContext);
+    _mapFile = new File(_tableIndexDir, V1Constants.DEDUP_PRIMARY_KEY_MAP_TABLE_PARTITION + partitionId);
+    _metadataFile = new File(_tableIndexDir, V1Constants.DEDUP_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION + partitionId);
+
+    String description = tableNameWithType + ".partition" + partitionId + ".dedupPrimaryKeyMap";
+    OffHeapPrimaryKeyMap checkpointedMap = null;
+    int nextSegmentId = 1;
+    if (_tableIndexDir != null && _mapFile.exists() && _metadataFile.exists()) {
+      try {
+        JsonNode metadata = JsonUtils.fileToJsonNode(_metadataFile);
+        if (_hashFunction.name().equals(metadata.path(METADATA_HASH_FUNCTION).asText()) && String.join(",",
+            _primaryKeyColumns).equals(metadata.path(METADATA_PRIMARY_KEY_COLUMNS).asText())) {
+          checkpointedMap = OffHeapPrimaryKeyMap.load(_mapFile, description);
+          nextSegmentId = metadata.get(SegmentIdRegistry.METADATA_NEXT_SEGMENT_ID).asInt();
+          _checkpointedSegments.putAll(
+              SegmentIdRegistry.readPersistedSegments(metadata.get(SegmentIdRegistry.METADATA_SEGMENTS)));
+          for (PersistedSegment checkpointedSegment : _checkpointedSegments.values()) {
+            _checkpointedSegmentIds.add(checkpointedSegment.getId());
+          }
+          // Drop the keys of the segments not in the checkpoint, e.g. the consuming segments
+          long numKeysRemoved =
+              checkpointedMap.removeIf(location -> !_checkpointedSegmentIds.contains(location.getSegmentId()));
+          _logger.info("Loaded checkpointed primary key map with {} primary keys for {} segments, removed {} primary "
+              + "keys of the consuming segments", checkpointedMap.size(), _checkpointedSegments.size(), numKeysRemoved);
+        } else {
+          _logger.info("Skip loading checkpointed primary key map with incompatible metadata: {}", metadata);
+        }
+      } catch (Exception e) {
+        _logger.warn("Caught exception while loading checkpointed primary key map, skipping", e);
+        if (checkpointedMap != null) {
+          checkpointedMap.close();
+          checkpointedMap = null;
+        }
+        _checkpointedSegments.clear();
+        _checkpointedSegmentIds.clear();
+      }
+    }
+    if (checkpointedMap == null) {
+      FileUtils.deleteQuietly(_metadataFile);
+      FileUtils.deleteQuietly(_mapFile);
+    }
+    _primaryKeyToSegmentAndTimeMap = checkpointedMap != null ? checkpointedMap : new OffHeapPrimaryKeyMap(description);
+    _segmentIdRegistry = new SegmentIdRegistry(nextSegmentId);
+  }
+
+  @Override
+  protected void doPreloadSegment(ImmutableSegment segment, Iterator<DedupRecordInfo> dedupRecordInfoIterator) {
+    Lock lock = _checkpointLock.readLock();
+    lock.lock();
+    try {
+      if (bindCheckpointedSegment(segment)) {
+        return;
+      }
+      int segmentId = _segmentIdRegistry.getSegmentId(segment);
+      while (dedupRecordInfoIterator.hasNext()) {
+        DedupRecordInfo dedupRecordInfo = dedupRecordInfoIterator.next();
+        byte[] key = getKey(dedupRecordInfo.getPrimaryKey(), _hashFunction);
+        _primaryKeyToSegmentAndTimeMap.put(getKeyHigh(key), getKeyLow(key),
+            newLocation(segmentId, dedupRecordInfo.getDedupTime()));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  protected void doAddOrReplaceSegment(@Nullable IndexSegment oldSegment, IndexSegment newSegment,
+      Iterator<DedupRecordInfo> dedupRecordInfoIteratorOfNewSegment) {
+    String segmentName = newSegment.getSegmentName();
+    Lock lock = _checkpointLock.readLock();
+    lock.lock();
+    try {
+      if (oldSegment == null && bindCheckpointedSegment(newSegment)) {
+        return;
+      }
+      int segmentId = _segmentIdRegistry.getSegmentId(newSegment);
+      while (dedupRecordInfoIteratorOfNewSegment.hasNext()) {
+        DedupRecordInfo dedupRecordInfo = dedupRecordInfoIteratorOfNewSegment.next();
+        double dedupTime = dedupRecordInfo.getDedupTime();
+        byte[] key = getKey(dedupRecordInfo.getPrimaryKey(), _hashFunction);
+        _primaryKeyToSegmentAndTimeMap.compute(getKeyHigh(key), getKeyLow(key), segmentAndTime -> {
+          // Stale metadata is treated as not existing when checking for deduplicates.
+          IndexSegment currentSegment = getSegment(segmentAndTime);
+          if (currentSegment == null || isOutOfMetadataTTL(getDedupTime(segmentAndTime))) {
+            return newLocation(segmentId, dedupTime);
+          }
+          double currentDedupTime = getDedupTime(segmentAndTime);
+          // when oldSegment is null, it means we are adding a new segment
+          // when oldSegment is not null, it means we are replacing an existing segment
+          if (oldSegment == null) {
+            _logger.warn("When adding a new segment: record in segment: {} with primary key: {} and dedup "
+                    + "time: {} already exists in segment: {} with dedup time: {}", segmentName,
+                dedupRecordInfo.getPrimaryKey(), dedupTime, currentSegment.getSegmentName(), currentDedupTime);
+          } else if (currentSegment != oldSegment) {
+            _logger.warn("When replacing a segment: record in segment: {} with primary key: {} and dedup "
+                    + "time: {} exists in segment: {} with dedup time: {} (but not the segment: {} to replace)",
+                segmentName, dedupRecordInfo.getPrimaryKey(), dedupTime, currentSegment.getSegmentName(),
+                currentDedupTime, oldSegment.getSegmentName());
+          }
+          // When dedup time is the same, we always keep the latest segment
+          // This will handle segment replacement case correctly - a typical case is when a mutable segment is
+          // replaced by an immutable segment
+          if (currentDedupTime <= dedupTime) {
+            return newLocation(segmentId, dedupTime);
+          }
+          return segmentAndTime;
+        });
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void replaceSegment(IndexSegment oldSegment, IndexSegment newSegment) {
+    super.replaceSegment(oldSegment, newSegment);
+    // Align the checkpoints with the segment commits, so that only the consuming segment needs to be replayed from the
+    // stream after restart
+    if (oldSegment instanceof MutableSegment) {
+      scheduleCheckpoint();
+    }
+  }
+
+  /**
+   * Schedules a checkpoint unless one is already pending. The pending checkpoint is tracked as an operation, so that
+   * closing the metadata manager waits for it to finish.
+   */
+  @VisibleForTesting
+  void scheduleCheckpoint() {
+    if (_tableIndexDir == null || !_checkpointScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    if (!startOperation()) {
+      _checkpointScheduled.set(false);
+      return;
+    }
+    try {
+      CHECKPOINT_EXECUTOR.execute(() -> {
+        try {
+          // Reset the flag before checkpointing so that the commits during the checkpoint schedule another one
+          _checkpointScheduled.set(false);
+          checkpoint();
+        } finally {
+          finishOperation();
+        }
+      });
+    } catch (RuntimeException e) {
+      _checkpointScheduled.set(false);
+      finishOperation();
+      throw e;
+    }
+  }
+
+  @Override
+  protected void doRemoveSegment(IndexSegment segment, Iterator<DedupRecordInfo> dedupRecordInfoIterator) {
+    Integer segmentId = _segmentIdRegistry.getBoundSegmentId(segment);
+    if (segmentId == null) {
+      return;
+    }
+    Lock lock = _checkpointLock.readLock();
+    lock.lock();
+    try {
+      while (dedupRecordInfoIterator.hasNext()) {
+        byte[] key = getKey(dedupRecordInfoIterator.next().getPrimaryKey(), _hashFunction);
+        // do not need to compare dedup time because we are removing the segment
+        _primaryKeyToSegmentAndTimeMap.computeIfPresent(getKeyHigh(key), getKeyLow(key),
+            segmentAndTime -> segmentAndTime.getSegmentId() == segmentId ? null : segmentAndTime);
+      }
+      _segmentIdRegistry.unbind(segment);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  protected void doRemoveExpiredPrimaryKeys() {
+    double smallestTimeToKeep = _largestSeenTime.get() - _metadataTTL;
+    Lock lock = _checkpointLock.readLock();
+    lock.lock();
+    try {
+      _primaryKeyToSegmentAndTimeMap.removeIf(
+          segmentAndTime -> getDedupTime(segmentAndTime) < smallestTimeToKeep || isDangling(segmentAndTime));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean checkRecordPresentOrUpdate(DedupRecordInfo dedupRecordInfo, IndexSegment indexSegment) {
+    if (!startOperation()) {
+      _logger.info("Skip adding record to {} because metadata manager is already stopped",
+          indexSegment.getSegmentName());
+      return true;
+    }
+    Lock lock = _checkpointLock.readLock();
+    lock.lock();
+    try {
+      if (_metadataTTL > 0) {
+        _largestSeenTime.getAndUpdate(time -> Math.max(time, dedupRecordInfo.getDedupTime()));
+      }
+      int segmentId = _segmentIdRegistry.getSegmentId(indexSegment);
+      AtomicBoolean present = new AtomicBoolean(false);
+      byte[] key = getKey(dedupRecordInfo.getPrimaryKey(), _hashFunction);
+      _primaryKeyToSegmentAndTimeMap.compute(getKeyHigh(key), getKeyLow(key), segmentAndTime -> {
+        // The dedup metadata out of TTL is cleaned up when starting the next consuming segment, so it's possible
+        // when ingesting records into current segment, some dedup metadata is already becoming stale. The stale
+        // metadata is treated as not existing when checking for deduplicates.
+        if (getSegment(segmentAndTime) == null || isOutOfMetadataTTL(getDedupTime(segmentAndTime))) {
+          return newLocation(segmentId, dedupRecordInfo.getDedupTime());
+        }
+        present.set(true);
+        return segmentAndTime;
+      });
+      if (!present.get()) {
+        updatePrimaryKeyGauge();
+      }
+      return present.get();
+    } finally {
+      lock.unlock();
+      finishOperation();
+    }
+  }
+
+  @Override
+  public long getNumPrimaryKeys() {
+    return _primaryKeyToSegmentAndTimeMap.size();
+  }
+
+  @Override
+  protected void doClose()
+      throws IOException {
+    checkpoint();
+    _primaryKeyToSegmentAndTimeMap.close();
+  }
+
+  /**
+   * Persists the map along with the ids of the immutable segments into the table index dir. The keys of the segments
+   * no longer bound (and of the checkpointed segments not loaded since the last checkpoint) are removed first.
+   */
+  @VisibleForTesting
+  void checkpoint() {
+    if (_tableIndexDir == null) {
+      return;
+    }
+    Lock lock = _checkpointLock.writeLock();
+    lock.lock();
+    try {
+      long startTimeMs = System.currentTimeMillis();
+      FileUtils.deleteQuietly(_metadataFile);
+      // Checkpointed segments loaded after this point need to add their keys again
+      _checkpointedSegments.clear();
+      _checkpointedSegmentIds.clear();
+      _segmentIdRegistry.removeUnboundSegments(_primaryKeyToSegmentAndTimeMap);
+      ArrayNode segments = JsonUtils.newArrayNode();
+      for (Map.Entry<IndexSegment, Integer> entry : _segmentIdRegistry.getBoundSegments().entrySet()) {
+        IndexSegment segment = entry.getKey();
+        String crc = segment instanceof ImmutableSegment ? segment.getSegmentMetadata().getCrc() : null;
+        if (crc != null) {
+          segments.add(SegmentIdRegistry.toJson(entry.getValue(), segment.getSegmentName(), crc));
+        }
+      }
+      ObjectNode metadata = JsonUtils.newObjectNode();
+      metadata.put(METADATA_HASH_FUNCTION, _hashFunction.name());
+      metadata.put(METADATA_PRIMARY_KEY_COLUMNS, String.join(",", _primaryKeyColumns));
+      _primaryKeyToSegmentAndTimeMap.persist(_mapFile);
+      SegmentIdRegistry.writeMetadata(_metadataFile, metadata, _segmentIdRegistry.getNextSegmentId(), segments);
+      _logger.info("Checkpointed primary key map with {} primary keys for {} segments in {}ms",
+          _primaryKeyToSegmentAndTimeMap.size(), segments.size(), System.currentTimeMillis() - startTimeMs);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while checkpointing primary key map", e);
+      FileUtils.deleteQuietly(_metadataFile);
+      FileUtils.deleteQuietly(_mapFile);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Binds the segment to its id in the loaded checkpoint if the segment has the same CRC as checkpointed, and returns
+   * whether the segment is bound.
+   */
+  private boolean bindCheckpointedSegment(IndexSegment segment) {
+    PersistedSegment checkpointedSegment = _checkpointedSegments.remove(segment.getSegmentName());
+    if (checkpointedSegment == null) {
+      return false;
+    }
+    _checkpointedSegmentIds.remove(checkpointedSegment.getId());
+    if (!checkpointedSegment.matches(segment)) {
+      return false;
+    }
+    _segmentIdRegistry.bind(segment, checkpointedSegment.getId());
+    _logger.info("Bound segment: {} to the checkpointed primary key map", segment.getSegmentName());
+    return true;
+  }
+
+  /**
+   * Returns the segment of the given location, or {@code null} if the location is {@code null} or the segment is not
+   * bound to the segment id.
+   */
+  @VisibleForTesting
+  @Nullable
+  IndexSegment getSegment(@Nullable Location segmentAndTime) {
+    return _segmentIdRegistry.getSegment(segmentAndTime);
+  }
+
+  private boolean isDangling(Location segmentAndTime) {
+    return getSegment(segmentAndTime) == null && !_checkpointedSegmentIds.contains(segmentAndTime.getSegmentId());
+  }
+
+  @VisibleForTesting
+  @Nullable
+  Location getSegmentAndTime(PrimaryKey primaryKey) {
+    byte[] key = getKey(primaryKey, _hashFunction);
+    return _primaryKeyToSegmentAndTimeMap.get(getKeyHigh(key), getKeyLow(key));
+  }
+
+  @VisibleForTesting
+  static double getDedupTime(Location segmentAndTime) {
+    return Double.longBitsToDouble(segmentAndTime.getValue());
+  }
+
+  private static Location newLocation(int segmentId, double dedupTime) {
+    return new Location(segmentId, 0, Double.doubleToRawLongBits(dedupTime));
+  }
+}
@@ -51,6 +51,21 @@ public class ChunkCompressorFactory {
    * @return Compressor for the specified type.
    */
   public static ChunkCompressor getCompressor(ChunkCompressionType compressionType, boolean upgradeToLengthPrefixed) {
+    return getCompressor(compressionType, upgradeToLengthPrefixed, -1);
+  }
+
+  /**
+   * Returns the chunk compressor for the specified name.
+   *
+   * @param compressionType Type of compressor.
+   * @param upgradeToLengthPrefixed if true, guarantee the compressed chunk contains metadata about the decompressed
+   *                                size. Most formats do this anyway, but LZ4 requires a length prefix.
+   * @param valueSizeInBytes Size of the fixed width values in the chunk, or -1 if the values are not fixed width. The
+   *                         numeric compression types (FRAME_OF_REFERENCE, DELTA, DELTADELTA) require 4 or 8.
+   * @return Compressor for the specified type.
+   */
+  public static ChunkCompressor getCompressor(ChunkCompressionType compressionType, boolean upgradeToLengthPrefixed,
+      int valueSizeInBytes) {
     switch (compressionType) {
 
       case PASS_THROUGH:
@@ -71,6 +86,11 @@ public class ChunkCompressorFactory {
       case GZIP:
         return new GzipCompressor();
 
+      case FRAME_OF_REFERENCE:
+      case DELTA:
+      case DELTADELTA:
+        return new NumericChunkCompressor(compressionType, valueSizeInBytes);
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -102,6 +122,15 @@ public class ChunkCompressorFactory {
       case GZIP:
         return new GzipDecompressor();
 
+      case FRAME_OF_REFERENCE:
+        return NumericChunkDecompressor.FRAME_OF_REFERENCE;
+
+      case DELTA:
+        return NumericChunkDecompressor.DELTA;
+
+      case DELTADELTA:
+        return NumericChunkDecompressor.DELTADELTA;
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
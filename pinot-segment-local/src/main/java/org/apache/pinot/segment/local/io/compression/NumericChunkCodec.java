@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+
+
+/**
+ * Shared encoding logic for the numeric chunk codecs ({@link ChunkCompressionType#FRAME_OF_REFERENCE},
+ * {@link ChunkCompressionType#DELTA} and {@link ChunkCompressionType#DELTADELTA}).
+ *
+ * <p>Each codec derives a residual per value (the value itself, the delta to the previous value, or the delta of
+ * deltas), subtracts the minimum residual of the chunk, and bit-packs the result with the minimal bit width. All the
+ * arithmetic is modular on the value width, so overflowing deltas round-trip correctly. The compressed chunk is self
+ * describing and has the following layout:
+ * <ul>
+ *   <li>Value size in bytes (byte): 4 for INT, 8 for LONG</li>
+ *   <li>Number of values (int)</li>
+ *   <li>Leading values (long): none for FRAME_OF_REFERENCE, the first value for DELTA, the first value and the first
+ *   delta for DELTADELTA (only the ones present in the chunk)</li>
+ *   <li>Minimum residual (long)</li>
+ *   <li>Bit width (byte)</li>
+ *   <li>Bit-packed residuals relative to the minimum residual, LSB first, padded to a multiple of 8 bytes</li>
+ * </ul>
+ */
+final class NumericChunkCodec {
+  private NumericChunkCodec() {
+  }
+
+  // Value size, number of values, up to 2 leading values, minimum residual, bit width
+  static final int MAX_HEADER_SIZE = Byte.BYTES + Integer.BYTES + 2 * Long.BYTES + Long.BYTES + Byte.BYTES;
+
+  /**
+   * Returns the number of leading values stored as is for the given codec, which is also the order of the differences.
+   */
+  static int getOrder(ChunkCompressionType compressionType) {
+    switch (compressionType) {
+      case FRAME_OF_REFERENCE:
+        return 0;
+      case DELTA:
+        return 1;
+      case DELTADELTA:
+        return 2;
+      default:
+        throw new IllegalArgumentException("Not a numeric compression type: " + compressionType);
+    }
+  }
+
+  static int maxCompressedSize(int uncompressedSize) {
+    // Residuals never need more bits than the value width, plus one long of padding
+    return MAX_HEADER_SIZE + uncompressedSize + Long.BYTES;
+  }
+
+  static void compress(int order, int valueSize, ByteBuffer in, ByteBuffer out) {
+    int startPosition = in.position();
+    int uncompressedSize = in.remaining();
+    Preconditions.checkArgument(uncompressedSize % valueSize == 0,
+        "Uncompressed size: %s is not a multiple of value size: %s", uncompressedSize, valueSize);
+    int numValues = uncompressedSize / valueSize;
+    boolean isInt = valueSize == Integer.BYTES;
+
+    // First pass: leading values and residual range
+    long[] leadingValues = new long[Math.min(order, numValues)];
+    long minResidual = Long.MAX_VALUE;
+    long maxResidual = Long.MIN_VALUE;
+    long previousValue = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < numValues; i++) {
+      long value = isInt ? in.getInt(startPosition + i * Integer.BYTES) : in.getLong(startPosition + i * Long.BYTES);
+      long delta = value - previousValue;
+      if (i < order) {
+        leadingValues[i] = i == 0 ? value : delta;
+      } else {
+        long residual = residual(order, value, delta, previousDelta, isInt);
+        minResidual = Math.min(minResidual, residual);
+        maxResidual = Math.max(maxResidual, residual);
+      }
+      previousValue = value;
+      previousDelta = delta;
+    }
+    int numResiduals = numValues - leadingValues.length;
+    int bitWidth;
+    if (numResiduals == 0) {
+      minResidual = 0;
+      bitWidth = 0;
+    } else {
+      bitWidth = Long.SIZE - Long.numberOfLeadingZeros(maxResidual - minResidual);
+    }
+
+    out.put((byte) valueSize);
+    out.putInt(numValues);
+    for (long leadingValue : leadingValues) {
+      out.putLong(leadingValue);
+    }
+    out.putLong(minResidual);
+    out.put((byte) bitWidth);
+
+    // Second pass: bit-pack the residuals
+    if (bitWidth > 0) {
+      long buffer = 0;
+      int numBitsInBuffer = 0;
+      previousValue = 0;
+      previousDelta = 0;
+      for (int i = 0; i < numValues; i++) {
+        long value = isInt ? in.getInt(startPosition + i * Integer.BYTES) : in.getLong(startPosition + i * Long.BYTES);
+        long delta = value - previousValue;
+        if (i >= order) {
+          long packed = residual(order, value, delta, previousDelta, isInt) - minResidual;
+          buffer |= packed << numBitsInBuffer;
+          numBitsInBuffer += bitWidth;
+          if (numBitsInBuffer >= Long.SIZE) {
+            out.putLong(buffer);
+            numBitsInBuffer -= Long.SIZE;
+            buffer = numBitsInBuffer == 0 ? 0 : packed >>> (bitWidth - numBitsInBuffer);
+          }
+        }
+        previousValue = value;
+        previousDelta = delta;
+      }
+      if (numBitsInBuffer > 0) {
+        out.putLong(buffer);
+      }
+    }
+    in.position(startPosition + uncompressedSize);
+  }
+
+  private static long residual(int order, long value, long delta, long previousDelta, boolean isInt) {
+    long residual;
+    switch (order) {
+      case 0:
+        residual = value;
+        break;
+      case 1:
+        residual = delta;
+        break;
+      default:
+        residual = delta - previousDelta;
+        break;
+    }
+    // Wrap to the value width so that the residual range (and thus the bit width) never exceeds it
+    return isInt ? (int) residual : residual;
+  }
+
+  static int decompressedLength(ByteBuffer in) {
+    int position = in.position();
+    return in.get(position) * in.getInt(position + Byte.BYTES);
+  }
+
+  static void decompress(int order, ByteBuffer in, ByteBuffer out) {
+    int valueSize = in.get();
+    int numValues = in.getInt();
+    boolean isInt = valueSize == Integer.BYTES;
+    int numLeadingValues = Math.min(order, numValues);
+    long firstValue = numLeadingValues > 0 ? in.getLong() : 0;
+    long firstDelta = numLeadingValues > 1 ? in.getLong() : 0;
+    long minResidual = in.getLong();
+    int bitWidth = in.get();
+    long mask = bitWidth == Long.SIZE ? -1L : (1L << bitWidth) - 1;
+
+    long buffer = 0;
+    int numBitsInBuffer = 0;
+    long value = 0;
+    long delta = 0;
+    for (int i = 0; i < numValues; i++) {
+      if (i < order) {
+        if (i == 0) {
+          value = firstValue;
+        } else {
+          delta = firstDelta;
+          value += delta;
+        }
+      } else {
+        long residual;
+        if (bitWidth == 0) {
+          residual = minResidual;
+        } else {
+          long packed;
+          if (numBitsInBuffer >= bitWidth) {
+            packed = buffer & mask;
+            buffer = bitWidth == Long.SIZE ? 0 : buffer >>> bitWidth;
+            numBitsInBuffer -= bitWidth;
+          } else {
+            long next = in.getLong();
+            packed = (buffer | (next << numBitsInBuffer)) & mask;
+            int numBitsConsumed = bitWidth - numBitsInBuffer;
+            buffer = numBitsConsumed == Long.SIZE ? 0 : next >>> numBitsConsumed;
+            numBitsInBuffer = Long.SIZE - numBitsConsumed;
+          }
+          residual = minResidual + packed;
+        }
+        switch (order) {
+          case 0:
+            value = residual;
+            break;
+          case 1:
+            value += residual;
+            break;
+          default:
+            delta += residual;
+            value += delta;
+            break;
+        }
+      }
+      if (isInt) {
+        out.putInt((int) value);
+      } else {
+        out.putLong(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkCompressor;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} for the numeric codecs (frame of reference, delta and delta of delta) on
+ * chunks of fixed width INT or LONG values. See {@link NumericChunkCodec} for the compressed format.
+ */
+class NumericChunkCompressor implements ChunkCompressor {
+  private final ChunkCompressionType _compressionType;
+  private final int _order;
+  private final int _valueSize;
+
+  NumericChunkCompressor(ChunkCompressionType compressionType, int valueSize) {
+    Preconditions.checkArgument(valueSize == Integer.BYTES || valueSize == Long.BYTES,
+        "Compression type: %s only supports 4 or 8 bytes values, got: %s", compressionType, valueSize);
+    _compressionType = compressionType;
+    _order = NumericChunkCodec.getOrder(compressionType);
+    _valueSize = valueSize;
+  }
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed) {
+    NumericChunkCodec.compress(_order, _valueSize, inUncompressed, outCompressed);
+
+    // Make the output ByteBuffer ready for read.
+    outCompressed.flip();
+    return outCompressed.limit();
+  }
+
+  @Override
+  public int maxCompressedSize(int uncompressedSize) {
+    return NumericChunkCodec.maxCompressedSize(uncompressedSize);
+  }
+
+  @Override
+  public ChunkCompressionType compressionType() {
+    return _compressionType;
+  }
+}
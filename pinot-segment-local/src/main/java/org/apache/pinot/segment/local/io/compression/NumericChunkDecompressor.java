@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} for the numeric codecs (frame of reference, delta and delta of delta).
+ * The compressed chunk carries the value width, so the same instance decompresses both INT and LONG chunks.
+ */
+class NumericChunkDecompressor implements ChunkDecompressor {
+  static final NumericChunkDecompressor FRAME_OF_REFERENCE =
+      new NumericChunkDecompressor(ChunkCompressionType.FRAME_OF_REFERENCE);
+  static final NumericChunkDecompressor DELTA = new NumericChunkDecompressor(ChunkCompressionType.DELTA);
+  static final NumericChunkDecompressor DELTADELTA = new NumericChunkDecompressor(ChunkCompressionType.DELTADELTA);
+
+  private final int _order;
+
+  private NumericChunkDecompressor(ChunkCompressionType compressionType) {
+    _order = NumericChunkCodec.getOrder(compressionType);
+  }
+
+  @Override
+  public int decompress(ByteBuffer compressedInput, ByteBuffer decompressedOutput) {
+    NumericChunkCodec.decompress(_order, compressedInput, decompressedOutput);
+
+    // Flip the output ByteBuffer for reading.
+    decompressedOutput.flip();
+    return decompressedOutput.limit();
+  }
+
+  @Override
+  public int decompressedLength(ByteBuffer compressedInput) {
+    return NumericChunkCodec.decompressedLength(compressedInput);
+  }
+}
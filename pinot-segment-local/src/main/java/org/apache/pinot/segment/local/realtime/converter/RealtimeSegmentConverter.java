@@ -21,10 +21,12 @@ package org.apache.pinot.segment.local.realtime.converter;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
 import org.apache.pinot.segment.local.realtime.converter.stats.RealtimeSegmentSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
@@ -123,6 +125,13 @@ public class RealtimeSegmentConverter {
         serverMetrics.addValueToTableGauge(_tableName, ServerGauge.REALTIME_SEGMENT_NUM_PARTITIONS, numPartitions);
       }
     }
+
+    if (_enableColumnMajor && serverMetrics != null) {
+      for (Map.Entry<String, Long> entry : driver.getIndexBuildTimesNs().entrySet()) {
+        serverMetrics.addTimedTableValue(_tableName, entry.getKey(), ServerTimer.REALTIME_SEGMENT_INDEX_BUILD_TIME_MS,
+            TimeUnit.NANOSECONDS.toMillis(entry.getValue()), TimeUnit.MILLISECONDS);
+      }
+    }
   }
 
   /**
@@ -18,69 +18,132 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
-import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
- * <p>This class is thread-safe for single writer multiple readers.
+ * <p>This class is thread-safe for single writer multiple readers, and is lock-free: neither the writer nor the readers
+ * block each other.
+ * <ul>
+ *   <li>
+ *     The posting lists are stored in an array which is copied when it needs to grow, and the number of posting lists
+ *     is published after the posting list is added, so that the readers never see a partially added posting list.
+ *   </li>
+ *   <li>
+ *     Each posting list is an immutable snapshot bitmap (never modified once published), plus a buffer of the doc ids
+ *     added after the snapshot. When the buffer is full, the writer freezes the buffered doc ids into a new snapshot
+ *     and publishes it with a new buffer. Readers always see a consistent prefix of the added doc ids.
+ *   </li>
+ * </ul>
  */
 public class RealtimeInvertedIndex implements MutableInvertedIndex {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private static final int INITIAL_NUM_POSTING_LISTS = 16;
+  // The buffer grows proportionally to the size of the snapshot so that the cost of copying the snapshot when freezing
+  // the buffer is amortized over the added doc ids (O(1) per doc id). Readers already copy the snapshot, so reading a
+  // buffer that is a fraction of the snapshot does not change their complexity.
+  private static final int MIN_BUFFER_SIZE = 4;
+  private static final int SNAPSHOT_TO_BUFFER_SIZE_RATIO = 8;
 
-  public RealtimeInvertedIndex() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  private volatile PostingList[] _postingLists = new PostingList[INITIAL_NUM_POSTING_LISTS];
+  private volatile int _numPostingLists;
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
    */
   @Override
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
-      }
-    } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).add(docId);
+    int numPostingLists = _numPostingLists;
+    if (dictId < numPostingLists) {
+      _postingLists[dictId].add(docId);
+      return;
+    }
+    // Posting list for the dictionary id does not exist, add the missing posting lists. For multi-valued column, the
+    // dictionary ids might not be added in order.
+    PostingList[] postingLists = _postingLists;
+    if (dictId >= postingLists.length) {
+      postingLists = Arrays.copyOf(postingLists, Math.max(postingLists.length * 2, dictId + 1));
     }
+    for (int i = numPostingLists; i <= dictId; i++) {
+      postingLists[i] = new PostingList();
+    }
+    postingLists[dictId].add(docId);
+    _postingLists = postingLists;
+    _numPostingLists = dictId + 1;
   }
 
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
+    // The number of posting lists is read before the posting list array so that all the posting lists within the bound
+    // are visible.
+    if (dictId >= _numPostingLists) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    return _postingLists[dictId].getDocIds();
   }
 
   @Override
   public void close() {
   }
+
+  /**
+   * Posting list of a dictionary id. Only the writer thread modifies it.
+   */
+  private static class PostingList {
+    private volatile Snapshot _snapshot = new Snapshot(null, MIN_BUFFER_SIZE);
+
+    void add(int docId) {
+      Snapshot snapshot = _snapshot;
+      int numBufferedDocs = snapshot._numBufferedDocs;
+      if (numBufferedDocs < snapshot._buffer.length) {
+        snapshot._buffer[numBufferedDocs] = docId;
+        snapshot._numBufferedDocs = numBufferedDocs + 1;
+        return;
+      }
+      // Freeze the buffered doc ids into a new bitmap, and publish it with an empty buffer
+      MutableRoaringBitmap bitmap = snapshot.toBitmap(numBufferedDocs);
+      int bufferSize = Math.max(bitmap.getCardinality() / SNAPSHOT_TO_BUFFER_SIZE_RATIO, MIN_BUFFER_SIZE);
+      Snapshot newSnapshot = new Snapshot(bitmap, bufferSize);
+      newSnapshot._buffer[0] = docId;
+      newSnapshot._numBufferedDocs = 1;
+      _snapshot = newSnapshot;
+    }
+
+    MutableRoaringBitmap getDocIds() {
+      Snapshot snapshot = _snapshot;
+      return snapshot.toBitmap(snapshot._numBufferedDocs);
+    }
+  }
+
+  /**
+   * Immutable bitmap plus the doc ids added after it. Only the buffer slots beyond the number of buffered doc ids are
+   * written after the snapshot is published.
+   */
+  private static class Snapshot {
+    final MutableRoaringBitmap _bitmap;
+    final int[] _buffer;
+    volatile int _numBufferedDocs;
+
+    Snapshot(@Nullable MutableRoaringBitmap bitmap, int bufferSize) {
+      _bitmap = bitmap;
+      _buffer = new int[bufferSize];
+    }
+
+    /**
+     * Returns a new bitmap containing the doc ids of the snapshot bitmap and the first given number of buffered doc
+     * ids. The snapshot bitmap is not modified.
+     */
+    MutableRoaringBitmap toBitmap(int numBufferedDocs) {
+      MutableRoaringBitmap bitmap = _bitmap != null ? _bitmap.clone() : new MutableRoaringBitmap();
+      bitmap.addN(_buffer, 0, numBufferedDocs);
+      return bitmap;
+    }
+  }
 }
@@ -33,6 +33,8 @@ import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 import org.slf4j.Logger;
@@ -66,6 +68,19 @@ public class DataTypeTransformer implements RecordTransformer {
     return _dataTypes.keySet();
   }
 
+  @Override
+  public boolean supportsColumnarBatch() {
+    return true;
+  }
+
+  /**
+   * The {@link ColumnarRecordReader} already converts the values into the stored type of the columns, and marks empty
+   * multi-values as null, so there is nothing to convert.
+   */
+  @Override
+  public void transform(ColumnarBatch batch) {
+  }
+
   @Override
   public void transform(GenericRow record) {
     for (Map.Entry<String, PinotDataType> entry : _dataTypes.entrySet()) {
@@ -27,6 +27,8 @@ import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.DateTimeFormatSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 import org.apache.pinot.spi.utils.TimeUtils;
@@ -92,4 +94,22 @@ public class NullValueTransformer implements RecordTransformer {
       }
     }
   }
+
+  @Override
+  public boolean supportsColumnarBatch() {
+    return true;
+  }
+
+  /**
+   * Fills the default null values while keeping the null masks, which are used to generate the null value vectors.
+   */
+  @Override
+  public void transform(ColumnarBatch batch) {
+    for (ColumnVector columnVector : batch.getColumnVectors().values()) {
+      Object defaultNullValue = _defaultNullValues.get(columnVector.getName());
+      if (defaultNullValue != null) {
+        columnVector.fillNullValues(defaultNullValue);
+      }
+    }
+  }
 }
@@ -26,6 +26,8 @@ import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.FieldSpec.MaxLengthExceedStrategy;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 import org.apache.pinot.spi.utils.StringUtil;
@@ -113,6 +115,51 @@ public class SanitizationTransformer implements RecordTransformer {
     }
   }
 
+  @Override
+  public boolean supportsColumnarBatch() {
+    return true;
+  }
+
+  @Override
+  public void transform(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    for (Map.Entry<String, SanitizedColumnInfo> entry : _columnToColumnInfoMap.entrySet()) {
+      String columnName = entry.getKey();
+      ColumnVector columnVector = batch.getColumnVector(columnName);
+      if (columnVector == null) {
+        continue;
+      }
+      boolean singleValue = columnVector.isSingleValue();
+      Object[] values = columnVector.getObjectValues();
+      for (int i = 0; i < numRows; i++) {
+        if (singleValue) {
+          Pair<?, Boolean> result = sanitize(columnName, values[i], entry.getValue());
+          values[i] = result.getLeft();
+          if (result.getRight()) {
+            batch.markSanitized(i);
+          }
+        } else {
+          Object[] multiValues = (Object[]) values[i];
+          for (int j = 0; j < multiValues.length; j++) {
+            Pair<?, Boolean> result = sanitize(columnName, multiValues[j], entry.getValue());
+            multiValues[j] = result.getLeft();
+            if (result.getRight()) {
+              batch.markSanitized(i);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private Pair<?, Boolean> sanitize(String columnName, Object value, SanitizedColumnInfo sanitizedColumnInfo) {
+    if (value instanceof byte[]) {
+      return sanitizeBytesValue(columnName, (byte[]) value, sanitizedColumnInfo);
+    } else {
+      return sanitizeValue(columnName, value.toString(), sanitizedColumnInfo);
+    }
+  }
+
   /**
    * Sanitize the value for the given column.
    * @param columnName column name
@@ -27,6 +27,8 @@ import javax.annotation.Nullable;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 
@@ -109,6 +111,100 @@ public class SpecialValueTransformer implements RecordTransformer {
     }
   }
 
+  @Override
+  public boolean supportsColumnarBatch() {
+    return true;
+  }
+
+  @Override
+  public void transform(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    for (String column : _columnsToCheck) {
+      ColumnVector columnVector = batch.getColumnVector(column);
+      if (columnVector == null) {
+        continue;
+      }
+      if (!columnVector.isSingleValue()) {
+        Object[] values = columnVector.getObjectValues();
+        for (int i = 0; i < numRows; i++) {
+          if (!columnVector.isNull(i)) {
+            Object[] transformedValues = transformValues((Object[]) values[i]);
+            if (transformedValues == null) {
+              columnVector.setNull(i);
+            } else {
+              values[i] = transformedValues;
+            }
+          }
+        }
+        continue;
+      }
+      switch (columnVector.getStoredType()) {
+        case FLOAT: {
+          float[] values = columnVector.getFloatValues();
+          for (int i = 0; i < numRows; i++) {
+            if (!columnVector.isNull(i)) {
+              float value = values[i];
+              if (Float.isNaN(value)) {
+                columnVector.setNull(i);
+              } else if (Float.floatToRawIntBits(value) == NEGATIVE_ZERO_FLOAT_BITS) {
+                values[i] = 0.0f;
+              }
+            }
+          }
+          break;
+        }
+        case DOUBLE: {
+          double[] values = columnVector.getDoubleValues();
+          for (int i = 0; i < numRows; i++) {
+            if (!columnVector.isNull(i)) {
+              double value = values[i];
+              if (Double.isNaN(value)) {
+                columnVector.setNull(i);
+              } else if (Double.doubleToRawLongBits(value) == NEGATIVE_ZERO_DOUBLE_BITS) {
+                values[i] = 0.0d;
+              }
+            }
+          }
+          break;
+        }
+        default: {
+          Object[] values = columnVector.getObjectValues();
+          for (int i = 0; i < numRows; i++) {
+            if (!columnVector.isNull(i)) {
+              values[i] = transformValue(values[i]);
+            }
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the transformed multi-values, or {@code null} if all the values are transformed to {@code null}.
+   */
+  @Nullable
+  private Object[] transformValues(Object[] values) {
+    List<Object> transformedValues = null;
+    for (int i = 0; i < values.length; i++) {
+      Object value = values[i];
+      Object transformedValue = transformValue(value);
+      if (transformedValue != value && transformedValues == null) {
+        transformedValues = new ArrayList<>(values.length);
+        for (int j = 0; j < i; j++) {
+          transformedValues.add(values[j]);
+        }
+      }
+      if (transformedValues != null && transformedValue != null) {
+        transformedValues.add(transformedValue);
+      }
+    }
+    if (transformedValues == null) {
+      return values;
+    }
+    return !transformedValues.isEmpty() ? transformedValues.toArray() : null;
+  }
+
   @Nullable
   private Object transformValue(Object value) {
     if (value instanceof Float) {
@@ -25,6 +25,8 @@ import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.DateTimeFormatSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 import org.apache.pinot.spi.utils.TimeUtils;
@@ -71,9 +73,39 @@ public class TimeValidationTransformer implements RecordTransformer {
   @Override
   public void transform(GenericRow record) {
     Object timeValue = record.getValue(_timeColumnName);
-    if (timeValue == null) {
+    if (timeValue != null && !isValid(timeValue)) {
+      record.putValue(_timeColumnName, null);
+      record.markIncomplete();
+    }
+  }
+
+  @Override
+  public boolean supportsColumnarBatch() {
+    return true;
+  }
+
+  @Override
+  public void transform(ColumnarBatch batch) {
+    ColumnVector timeVector = batch.getColumnVector(_timeColumnName);
+    if (timeVector == null) {
       return;
     }
+    int numRows = batch.getNumRows();
+    for (int i = 0; i < numRows; i++) {
+      if (timeVector.isNull(i)) {
+        continue;
+      }
+      if (!isValid(timeVector.getValue(i))) {
+        timeVector.setNull(i);
+        batch.markIncomplete(i);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the time value is valid, {@code false} if it is invalid and continue on error is enabled.
+   */
+  private boolean isValid(Object timeValue) {
     long timeValueMs;
     try {
       timeValueMs = _timeFormatSpec.fromFormatToMillis(timeValue.toString());
@@ -84,9 +116,7 @@ public class TimeValidationTransformer implements RecordTransformer {
         throw new IllegalStateException(errorMessage, e);
       }
       LOGGER.debug(errorMessage, e);
-      record.putValue(_timeColumnName, null);
-      record.markIncomplete();
-      return;
+      return false;
     }
     if (!TimeUtils.timeValueInValidRange(timeValueMs)) {
       String errorMessage =
@@ -96,8 +126,8 @@ public class TimeValidationTransformer implements RecordTransformer {
         throw new IllegalStateException(errorMessage);
       }
       LOGGER.debug(errorMessage);
-      record.putValue(_timeColumnName, null);
-      record.markIncomplete();
+      return false;
     }
+    return true;
   }
 }
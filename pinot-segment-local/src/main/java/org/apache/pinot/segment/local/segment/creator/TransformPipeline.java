@@ -26,6 +26,7 @@ import org.apache.pinot.segment.local.recordtransformer.FilterTransformer;
 import org.apache.pinot.segment.local.recordtransformer.RecordTransformerUtils;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.recordtransformer.RecordTransformer;
 import org.slf4j.Logger;
@@ -112,6 +113,27 @@ public class TransformPipeline {
     return new Result(rows, skippedRowCount, incompleteRowCount, sanitizedRowCount);
   }
 
+  /// Returns `true` if all the transformers can transform [ColumnarBatch]es, `false` otherwise.
+  public boolean supportsColumnarBatch() {
+    for (RecordTransformer transformer : _transformers) {
+      if (!transformer.supportsColumnarBatch()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /// Transforms the rows of the batch in-place. Should be called only if [#supportsColumnarBatch()] returns `true`.
+  /// The incomplete and sanitized rows are marked in the batch.
+  public void processBatch(ColumnarBatch batch) {
+    _numRowsProcessed += batch.getNumRows();
+    for (RecordTransformer transformer : _transformers) {
+      transformer.transform(batch);
+    }
+    _numRowsIncomplete += batch.getNumIncompleteRows();
+    _numRowsSanitized += batch.getNumSanitizedRows();
+  }
+
   /// Reports stats after all rows are processed.
   public void reportStats() {
     for (RecordTransformer transformer : _transformers) {
@@ -0,0 +1,407 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.FileUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.BigDecimalUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Buffers transformed {@link GenericRow}s (or {@link ColumnarBatch}es) column by column so that the values of each
+ * column can be read back independently, and concurrently with the other columns.
+ * <p>The values of each column are appended to a separate file under the buffer directory, which is memory mapped
+ * (off-heap) once the buffer is sealed. Only the null doc ids are kept on heap. The files are intermediate data read on
+ * the same host, so there is no version control for the format:
+ * <ul>
+ *   <li>INT/LONG/FLOAT/DOUBLE: fixed size value</li>
+ *   <li>BIG_DECIMAL/STRING/BYTES: length followed by the serialized bytes</li>
+ *   <li>Multi-value: number of values followed by each value</li>
+ * </ul>
+ * <p>Rows are added from a single thread. After {@link #seal()}, each {@link ValueReader} must only be accessed by one
+ * thread, but readers of different columns can be accessed concurrently.
+ */
+public class ColumnarRowBuffer implements Closeable {
+  private final File _bufferDir;
+  // NOTE: Use LinkedHashMap so that the columns are iterated in the order of the field specs
+  private final Map<String, ColumnBuffer> _columnBuffers = new LinkedHashMap<>();
+  private int _numDocs;
+  private boolean _sealed;
+
+  public ColumnarRowBuffer(File bufferDir, Collection<FieldSpec> fieldSpecs)
+      throws IOException {
+    Preconditions.checkState(!bufferDir.exists(), "Buffer directory: %s already exists", bufferDir);
+    org.apache.commons.io.FileUtils.forceMkdir(bufferDir);
+    _bufferDir = bufferDir;
+    try {
+      int columnId = 0;
+      for (FieldSpec fieldSpec : fieldSpecs) {
+        Preconditions.checkArgument(isSupported(fieldSpec), "Unsupported field spec: %s", fieldSpec);
+        _columnBuffers.put(fieldSpec.getName(), new ColumnBuffer(fieldSpec, new File(bufferDir, columnId++ + ".col")));
+      }
+    } catch (Exception e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the values of the given field can be buffered, {@code false} otherwise.
+   */
+  public static boolean isSupported(FieldSpec fieldSpec) {
+    switch (fieldSpec.getDataType().getStoredType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BIG_DECIMAL:
+      case STRING:
+      case BYTES:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Appends the values of the buffered columns in the given row.
+   */
+  public void addRow(GenericRow row)
+      throws IOException {
+    Preconditions.checkState(!_sealed, "Cannot add row to a sealed buffer");
+    for (Map.Entry<String, ColumnBuffer> entry : _columnBuffers.entrySet()) {
+      String column = entry.getKey();
+      Object value = row.getValue(column);
+      if (value == null) {
+        throw new RuntimeException("Null value for column:" + column);
+      }
+      ColumnBuffer columnBuffer = entry.getValue();
+      columnBuffer.write(value);
+      if (row.isNullValue(column)) {
+        columnBuffer._nullDocIds.add(_numDocs);
+      }
+    }
+    _numDocs++;
+  }
+
+  /**
+   * Appends the values of the buffered columns in the given batch. The null values in the batch must be filled.
+   */
+  public void addBatch(ColumnarBatch batch)
+      throws IOException {
+    Preconditions.checkState(!_sealed, "Cannot add batch to a sealed buffer");
+    int numRows = batch.getNumRows();
+    for (Map.Entry<String, ColumnBuffer> entry : _columnBuffers.entrySet()) {
+      String column = entry.getKey();
+      ColumnVector columnVector = batch.getColumnVector(column);
+      Preconditions.checkArgument(columnVector != null, "Column: %s is missing from the batch", column);
+      if (columnVector.hasNull() && !columnVector.isNullValuesFilled()) {
+        throw new RuntimeException("Null value for column:" + column);
+      }
+      entry.getValue().write(columnVector, numRows, _numDocs);
+    }
+    _numDocs += numRows;
+  }
+
+  /**
+   * Flushes the buffered values and memory maps the column files. No more rows can be added afterward.
+   */
+  public void seal()
+      throws IOException {
+    Preconditions.checkState(!_sealed, "Buffer is already sealed");
+    _sealed = true;
+    for (ColumnBuffer columnBuffer : _columnBuffers.values()) {
+      columnBuffer.seal();
+    }
+  }
+
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  public Set<String> getColumns() {
+    return _columnBuffers.keySet();
+  }
+
+  /**
+   * Returns the doc ids with null value for the given column, or {@code null} if there is no null value.
+   */
+  @Nullable
+  public RoaringBitmap getNullDocIds(String column) {
+    RoaringBitmap nullDocIds = getColumnBuffer(column)._nullDocIds;
+    return nullDocIds.isEmpty() ? null : nullDocIds;
+  }
+
+  /**
+   * Returns a new {@link ValueReader} that reads the values of the given column in doc id order.
+   */
+  public ValueReader getValueReader(String column) {
+    Preconditions.checkState(_sealed, "Buffer must be sealed before reading values");
+    return new ValueReader(getColumnBuffer(column));
+  }
+
+  private ColumnBuffer getColumnBuffer(String column) {
+    ColumnBuffer columnBuffer = _columnBuffers.get(column);
+    Preconditions.checkArgument(columnBuffer != null, "Column: %s is not buffered", column);
+    return columnBuffer;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      FileUtils.close(_columnBuffers.values());
+    } finally {
+      org.apache.commons.io.FileUtils.deleteQuietly(_bufferDir);
+    }
+  }
+
+  private static class ColumnBuffer implements Closeable {
+    final DataType _storedType;
+    final boolean _singleValue;
+    final File _file;
+    final RoaringBitmap _nullDocIds = new RoaringBitmap();
+    DataOutputStream _outputStream;
+    PinotDataBuffer _dataBuffer;
+
+    ColumnBuffer(FieldSpec fieldSpec, File file)
+        throws IOException {
+      _storedType = fieldSpec.getDataType().getStoredType();
+      _singleValue = fieldSpec.isSingleValueField();
+      _file = file;
+      _outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+
+    void write(Object value)
+        throws IOException {
+      if (_singleValue) {
+        writeValue(value);
+      } else {
+        Object[] values = (Object[]) value;
+        _outputStream.writeInt(values.length);
+        for (Object singleValue : values) {
+          writeValue(singleValue);
+        }
+      }
+    }
+
+    void write(ColumnVector columnVector, int numRows, int startDocId)
+        throws IOException {
+      if (_singleValue) {
+        switch (_storedType) {
+          case INT: {
+            int[] values = columnVector.getIntValues();
+            for (int i = 0; i < numRows; i++) {
+              _outputStream.writeInt(values[i]);
+            }
+            break;
+          }
+          case LONG: {
+            long[] values = columnVector.getLongValues();
+            for (int i = 0; i < numRows; i++) {
+              _outputStream.writeLong(values[i]);
+            }
+            break;
+          }
+          case FLOAT: {
+            float[] values = columnVector.getFloatValues();
+            for (int i = 0; i < numRows; i++) {
+              _outputStream.writeFloat(values[i]);
+            }
+            break;
+          }
+          case DOUBLE: {
+            double[] values = columnVector.getDoubleValues();
+            for (int i = 0; i < numRows; i++) {
+              _outputStream.writeDouble(values[i]);
+            }
+            break;
+          }
+          default: {
+            Object[] values = columnVector.getObjectValues();
+            for (int i = 0; i < numRows; i++) {
+              writeValue(values[i]);
+            }
+            break;
+          }
+        }
+      } else {
+        Object[] values = columnVector.getObjectValues();
+        for (int i = 0; i < numRows; i++) {
+          write(values[i]);
+        }
+      }
+      if (columnVector.hasNull()) {
+        for (int i = 0; i < numRows; i++) {
+          if (columnVector.isNull(i)) {
+            _nullDocIds.add(startDocId + i);
+          }
+        }
+      }
+    }
+
+    void writeValue(Object value)
+        throws IOException {
+      switch (_storedType) {
+        case INT:
+          _outputStream.writeInt((Integer) value);
+          break;
+        case LONG:
+          _outputStream.writeLong((Long) value);
+          break;
+        case FLOAT:
+          _outputStream.writeFloat((Float) value);
+          break;
+        case DOUBLE:
+          _outputStream.writeDouble((Double) value);
+          break;
+        case BIG_DECIMAL:
+          writeBytes(BigDecimalUtils.serialize((BigDecimal) value));
+          break;
+        case STRING:
+          writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+          break;
+        case BYTES:
+          writeBytes((byte[]) value);
+          break;
+        default:
+          throw new IllegalStateException("Unsupported stored type: " + _storedType);
+      }
+    }
+
+    void writeBytes(byte[] bytes)
+        throws IOException {
+      _outputStream.writeInt(bytes.length);
+      _outputStream.write(bytes);
+    }
+
+    void seal()
+        throws IOException {
+      _outputStream.close();
+      _outputStream = null;
+      _dataBuffer = _file.length() > 0 ? PinotDataBuffer.mapReadOnlyBigEndianFile(_file) : PinotDataBuffer.empty();
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      try {
+        if (_outputStream != null) {
+          _outputStream.close();
+        }
+      } finally {
+        if (_dataBuffer != null) {
+          _dataBuffer.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Sequential reader of the values of a buffered column. The values are returned in the same format as they were
+   * added (boxed single value or {@code Object[]} for multi-value).
+   */
+  public static class ValueReader {
+    private final DataType _storedType;
+    private final boolean _singleValue;
+    private final PinotDataBuffer _dataBuffer;
+    private long _offset;
+
+    private ValueReader(ColumnBuffer columnBuffer) {
+      _storedType = columnBuffer._storedType;
+      _singleValue = columnBuffer._singleValue;
+      _dataBuffer = columnBuffer._dataBuffer;
+    }
+
+    /**
+     * Returns the value of the next doc.
+     */
+    public Object next() {
+      if (_singleValue) {
+        return readValue();
+      }
+      int numValues = _dataBuffer.getInt(_offset);
+      _offset += Integer.BYTES;
+      Object[] values = new Object[numValues];
+      for (int i = 0; i < numValues; i++) {
+        values[i] = readValue();
+      }
+      return values;
+    }
+
+    private Object readValue() {
+      Object value;
+      switch (_storedType) {
+        case INT:
+          value = _dataBuffer.getInt(_offset);
+          _offset += Integer.BYTES;
+          return value;
+        case LONG:
+          value = _dataBuffer.getLong(_offset);
+          _offset += Long.BYTES;
+          return value;
+        case FLOAT:
+          value = _dataBuffer.getFloat(_offset);
+          _offset += Float.BYTES;
+          return value;
+        case DOUBLE:
+          value = _dataBuffer.getDouble(_offset);
+          _offset += Double.BYTES;
+          return value;
+        case BIG_DECIMAL:
+          return BigDecimalUtils.deserialize(readBytes());
+        case STRING:
+          return new String(readBytes(), StandardCharsets.UTF_8);
+        case BYTES:
+          return readBytes();
+        default:
+          throw new IllegalStateException("Unsupported stored type: " + _storedType);
+      }
+    }
+
+    private byte[] readBytes() {
+      int length = _dataBuffer.getInt(_offset);
+      _offset += Integer.BYTES;
+      byte[] bytes = new byte[length];
+      _dataBuffer.copyTo(_offset, bytes);
+      _offset += length;
+      return bytes;
+    }
+  }
+}
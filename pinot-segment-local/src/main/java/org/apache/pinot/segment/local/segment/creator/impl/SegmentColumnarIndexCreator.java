@@ -21,15 +21,21 @@ package org.apache.pinot.segment.local.segment.creator.impl;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -37,6 +43,7 @@ import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.pinot.common.utils.FileUtils;
 import org.apache.pinot.segment.local.io.util.PinotDataBitSet;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.BitmapInvertedIndexWriter;
 import org.apache.pinot.segment.local.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexPlugin;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
@@ -49,6 +56,7 @@ import org.apache.pinot.segment.spi.creator.ColumnIndexCreationInfo;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
 import org.apache.pinot.segment.spi.creator.SegmentCreator;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
 import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
 import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
@@ -59,6 +67,12 @@ import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.TextIndexConfig;
 import org.apache.pinot.segment.spi.index.creator.ForwardIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.SegmentIndexCreationInfo;
+import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.config.table.IndexConfig;
 import org.apache.pinot.spi.config.table.SegmentZKPropsConfig;
@@ -75,6 +89,9 @@ import org.apache.pinot.spi.utils.TimeUtils;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
 import org.joda.time.format.DateTimeFormatter;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,6 +108,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
   // Allow at most 512 characters for the metadata property
   static final int METADATA_PROPERTY_LENGTH_LIMIT = 512;
+  // Key of the time spent remapping the dictionary ids of a mutable segment in the index build times
+  public static final String DICT_ID_REMAP_TIME_KEY = "dictIdRemap";
   private SegmentGeneratorConfig _config;
   private TreeMap<String, ColumnIndexCreationInfo> _indexCreationInfoMap;
   private final Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
@@ -101,6 +120,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
    */
   private Map<String, Map<IndexType<?, ?, ?>, IndexCreator>> _creatorsByColAndIndex = new HashMap<>();
   private final Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
+  // Time (in nanoseconds) spent building each index, keyed by index id (or DICT_ID_REMAP_TIME_KEY) and summed over all
+  // the columns
+  private final Map<String, Long> _indexBuildTimeNsMap = new ConcurrentHashMap<>();
   private String _segmentName;
   private Schema _schema;
   private File _indexDir;
@@ -112,6 +134,19 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       TreeMap<String, ColumnIndexCreationInfo> indexCreationInfoMap, Schema schema, File outDir,
       @Nullable int[] immutableToMutableIdMap)
       throws Exception {
+    init(segmentCreationSpec, segmentIndexCreationInfo, indexCreationInfoMap, schema, outDir, immutableToMutableIdMap,
+        null);
+  }
+
+  /**
+   * Same as {@link #init(SegmentGeneratorConfig, SegmentIndexCreationInfo, TreeMap, Schema, File, int[])}, but builds
+   * the dictionaries and creates the index creators of different columns concurrently on the given executor when it is
+   * provided.
+   */
+  public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
+      TreeMap<String, ColumnIndexCreationInfo> indexCreationInfoMap, Schema schema, File outDir,
+      @Nullable int[] immutableToMutableIdMap, @Nullable ExecutorService executorService)
+      throws Exception {
     _docIdCounter = 0;
     _config = segmentCreationSpec;
     _indexCreationInfoMap = indexCreationInfoMap;
@@ -132,6 +167,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
     _creatorsByColAndIndex = Maps.newHashMapWithExpectedSize(indexConfigs.keySet().size());
 
+    List<String> columnNames = new ArrayList<>();
     for (String columnName : indexConfigs.keySet()) {
       FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
       Preconditions.checkState(fieldSpec != null, "Failed to find column: %s in the schema", columnName);
@@ -139,94 +175,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         LOGGER.warn("Ignoring index creation for virtual column {}", columnName);
         continue;
       }
+      columnNames.add(columnName);
+    }
 
-      FieldIndexConfigs originalConfig = indexConfigs.get(columnName);
-      ColumnIndexCreationInfo columnIndexCreationInfo = indexCreationInfoMap.get(columnName);
-      Preconditions.checkNotNull(columnIndexCreationInfo, "Missing index creation info for column: %s", columnName);
-      boolean dictEnabledColumn = createDictionaryForColumn(columnIndexCreationInfo, segmentCreationSpec, fieldSpec);
-      if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled()) {
-        Preconditions.checkState(dictEnabledColumn,
-            "Cannot create inverted index for raw index column: %s", columnName);
-      }
-
-      IndexType<ForwardIndexConfig, ?, ForwardIndexCreator> forwardIdx = StandardIndexes.forward();
-      boolean forwardIndexDisabled = !originalConfig.getConfig(forwardIdx).isEnabled();
-
-      //@formatter:off
-      IndexCreationContext.Common context = IndexCreationContext.builder()
-          .withIndexDir(_indexDir)
-          .withDictionary(dictEnabledColumn)
-          .withFieldSpec(fieldSpec)
-          .withTotalDocs(segmentIndexCreationInfo.getTotalDocs())
-          .withColumnIndexCreationInfo(columnIndexCreationInfo)
-          .withOptimizedDictionary(_config.isOptimizeDictionary()
-              || _config.isOptimizeDictionaryForMetrics() && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)
-          .onHeap(segmentCreationSpec.isOnHeap())
-          .withForwardIndexDisabled(forwardIndexDisabled)
-          .withTextCommitOnClose(true)
-          .withImmutableToMutableIdMap(immutableToMutableIdMap)
-          .withRealtimeConversion(segmentCreationSpec.isRealtimeConversion())
-          .withConsumerDir(segmentCreationSpec.getConsumerDir())
-          .withTableNameWithType(_config.getTableConfig().getTableName())
-          .withContinueOnError(_config.isContinueOnError())
-          .build();
-      //@formatter:on
-
-      FieldIndexConfigs config = adaptConfig(columnName, originalConfig, columnIndexCreationInfo, segmentCreationSpec);
-
-      if (dictEnabledColumn) {
-        // Create dictionary-encoded index
-        // Initialize dictionary creator
-        // TODO: Dictionary creator holds all unique values on heap. Consider keeping dictionary instead of creator
-        //       which uses off-heap memory.
-
-        DictionaryIndexConfig dictConfig = config.getConfig(StandardIndexes.dictionary());
-        if (!dictConfig.isEnabled()) {
-          LOGGER.info("Creating dictionary index in column {}.{} even when it is disabled in config",
-              segmentCreationSpec.getTableName(), columnName);
-        }
-
-        // override dictionary type if configured to do so
-        if (_config.isOptimizeDictionaryType()) {
-          LOGGER.info("Overriding dictionary type for column: {} using var-length dictionary: {}", columnName,
-              columnIndexCreationInfo.isUseVarLengthDictionary());
-          dictConfig = new DictionaryIndexConfig(dictConfig, columnIndexCreationInfo.isUseVarLengthDictionary());
-        }
-
-        SegmentDictionaryCreator creator =
-            new DictionaryIndexPlugin().getIndexType().createIndexCreator(context, dictConfig);
-
-        try {
-          creator.build(context.getSortedUniqueElementsArray());
-        } catch (Exception e) {
-          LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
-              context.getFieldSpec().getName(), context.getCardinality(), creator.getNumBytesPerEntry());
-          throw e;
-        }
-
-        _dictionaryCreatorMap.put(columnName, creator);
+    if (executorService == null) {
+      for (String columnName : columnNames) {
+        initColumn(columnName, segmentIndexCreationInfo, immutableToMutableIdMap);
       }
-
-      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex =
-          Maps.newHashMapWithExpectedSize(IndexService.getInstance().getAllIndexes().size());
-      for (IndexType<?, ?, ?> index : IndexService.getInstance().getAllIndexes()) {
-        if (index.getIndexBuildLifecycle() != IndexType.BuildLifecycle.DURING_SEGMENT_CREATION) {
-          continue;
-        }
-        tryCreateIndexCreator(creatorsByIndex, index, context, config);
-      }
-      // TODO: Remove this when values stored as ForwardIndex stop depending on TextIndex config
-      IndexCreator oldFwdCreator = creatorsByIndex.get(forwardIdx);
-      if (oldFwdCreator != null) {
-        Object fakeForwardValue = calculateRawValueForTextIndex(dictEnabledColumn, config, fieldSpec);
-        if (fakeForwardValue != null) {
-          ForwardIndexCreator castedOldFwdCreator = (ForwardIndexCreator) oldFwdCreator;
-          SameValueForwardIndexCreator fakeValueFwdCreator =
-              new SameValueForwardIndexCreator(fakeForwardValue, castedOldFwdCreator);
-          creatorsByIndex.put(forwardIdx, fakeValueFwdCreator);
-        }
+    } else {
+      List<Future<?>> futures = new ArrayList<>(columnNames.size());
+      for (String columnName : columnNames) {
+        futures.add(executorService.submit(() -> {
+          initColumn(columnName, segmentIndexCreationInfo, immutableToMutableIdMap);
+          return null;
+        }));
       }
-      _creatorsByColAndIndex.put(columnName, creatorsByIndex);
+      waitForAll(futures);
     }
 
     // Although NullValueVector is implemented as an index, it needs to be treated in a different way than other indexes
@@ -242,6 +206,129 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
   }
 
+  /**
+   * Builds the dictionary and creates the index creators for the given column.
+   * NOTE: This method can be invoked concurrently for different columns.
+   */
+  private void initColumn(String columnName, SegmentIndexCreationInfo segmentIndexCreationInfo,
+      @Nullable int[] immutableToMutableIdMap)
+      throws Exception {
+    FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
+    FieldIndexConfigs originalConfig = _config.getIndexConfigsByColName().get(columnName);
+    ColumnIndexCreationInfo columnIndexCreationInfo = _indexCreationInfoMap.get(columnName);
+    Preconditions.checkNotNull(columnIndexCreationInfo, "Missing index creation info for column: %s", columnName);
+    boolean dictEnabledColumn = createDictionaryForColumn(columnIndexCreationInfo, _config, fieldSpec);
+    if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled()) {
+      Preconditions.checkState(dictEnabledColumn,
+          "Cannot create inverted index for raw index column: %s", columnName);
+    }
+
+    IndexType<ForwardIndexConfig, ?, ForwardIndexCreator> forwardIdx = StandardIndexes.forward();
+    boolean forwardIndexDisabled = !originalConfig.getConfig(forwardIdx).isEnabled();
+
+    //@formatter:off
+    IndexCreationContext.Common context = IndexCreationContext.builder()
+        .withIndexDir(_indexDir)
+        .withDictionary(dictEnabledColumn)
+        .withFieldSpec(fieldSpec)
+        .withTotalDocs(segmentIndexCreationInfo.getTotalDocs())
+        .withColumnIndexCreationInfo(columnIndexCreationInfo)
+        .withOptimizedDictionary(_config.isOptimizeDictionary()
+            || _config.isOptimizeDictionaryForMetrics() && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)
+        .onHeap(_config.isOnHeap())
+        .withForwardIndexDisabled(forwardIndexDisabled)
+        .withTextCommitOnClose(true)
+        .withImmutableToMutableIdMap(immutableToMutableIdMap)
+        .withRealtimeConversion(_config.isRealtimeConversion())
+        .withConsumerDir(_config.getConsumerDir())
+        .withTableNameWithType(_config.getTableConfig().getTableName())
+        .withContinueOnError(_config.isContinueOnError())
+        .build();
+    //@formatter:on
+
+    FieldIndexConfigs config = adaptConfig(columnName, originalConfig, columnIndexCreationInfo, _config);
+
+    if (dictEnabledColumn) {
+      // Create dictionary-encoded index
+      // Initialize dictionary creator
+      // TODO: Dictionary creator holds all unique values on heap. Consider keeping dictionary instead of creator
+      //       which uses off-heap memory.
+
+      DictionaryIndexConfig dictConfig = config.getConfig(StandardIndexes.dictionary());
+      if (!dictConfig.isEnabled()) {
+        LOGGER.info("Creating dictionary index in column {}.{} even when it is disabled in config",
+            _config.getTableName(), columnName);
+      }
+
+      // override dictionary type if configured to do so
+      if (_config.isOptimizeDictionaryType()) {
+        LOGGER.info("Overriding dictionary type for column: {} using var-length dictionary: {}", columnName,
+            columnIndexCreationInfo.isUseVarLengthDictionary());
+        dictConfig = new DictionaryIndexConfig(dictConfig, columnIndexCreationInfo.isUseVarLengthDictionary());
+      }
+
+      SegmentDictionaryCreator creator =
+          new DictionaryIndexPlugin().getIndexType().createIndexCreator(context, dictConfig);
+
+      try {
+        creator.build(context.getSortedUniqueElementsArray());
+      } catch (Exception e) {
+        LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
+            context.getFieldSpec().getName(), context.getCardinality(), creator.getNumBytesPerEntry());
+        throw e;
+      }
+
+      synchronized (this) {
+        _dictionaryCreatorMap.put(columnName, creator);
+      }
+    }
+
+    Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex =
+        Maps.newHashMapWithExpectedSize(IndexService.getInstance().getAllIndexes().size());
+    for (IndexType<?, ?, ?> index : IndexService.getInstance().getAllIndexes()) {
+      if (index.getIndexBuildLifecycle() != IndexType.BuildLifecycle.DURING_SEGMENT_CREATION) {
+        continue;
+      }
+      tryCreateIndexCreator(creatorsByIndex, index, context, config);
+    }
+    // TODO: Remove this when values stored as ForwardIndex stop depending on TextIndex config
+    IndexCreator oldFwdCreator = creatorsByIndex.get(forwardIdx);
+    if (oldFwdCreator != null) {
+      Object fakeForwardValue = calculateRawValueForTextIndex(dictEnabledColumn, config, fieldSpec);
+      if (fakeForwardValue != null) {
+        ForwardIndexCreator castedOldFwdCreator = (ForwardIndexCreator) oldFwdCreator;
+        SameValueForwardIndexCreator fakeValueFwdCreator =
+            new SameValueForwardIndexCreator(fakeForwardValue, castedOldFwdCreator);
+        creatorsByIndex.put(forwardIdx, fakeValueFwdCreator);
+      }
+    }
+    synchronized (this) {
+      _creatorsByColAndIndex.put(columnName, creatorsByIndex);
+    }
+  }
+
+  /**
+   * Waits for all the given futures to finish, and rethrows the first failure if any. The remaining futures are not
+   * cancelled so that no task is still running when the creators are closed.
+   */
+  static void waitForAll(List<Future<?>> futures)
+      throws Exception {
+    Exception exception = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (exception == null) {
+          Throwable cause = e.getCause();
+          exception = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
   private boolean isNullable(FieldSpec fieldSpec) {
     return _schema.isEnableColumnBasedNullHandling() ? fieldSpec.isNullable() : _config.isDefaultNullHandlingEnabled();
   }
@@ -368,6 +455,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       NullValueVectorCreator nullVec = _nullValueVectorCreatorMap.get(columnName);
       FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
       SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+      if (dictionaryCreator != null && indexDictEncodedColumn(columnName, sortedDocIds, segment, creatorsByIndex,
+          dictionaryCreator, nullVec)) {
+        return;
+      }
       if (sortedDocIds != null) {
         int onDiskDocId = 0;
         for (int docId : sortedDocIds) {
@@ -383,6 +474,224 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
   }
 
+  /**
+   * Indexes the given column directly from the dictionary encoded column of the given (mutable) segment, without
+   * reading the values back row by row:
+   * <ul>
+   *   <li>The dictionary ids are remapped in bulk, with one lookup per unique value instead of one per value</li>
+   *   <li>Each index creator is fed in its own pass so that the build time of each index can be tracked</li>
+   *   <li>The bitmaps of the mutable inverted index are converted instead of being rebuilt when the documents are not
+   *   re-ordered (no sorted column)</li>
+   * </ul>
+   * Returns {@code false} without indexing anything if the column is not dictionary encoded in the given segment.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private boolean indexDictEncodedColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment,
+      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex, SegmentDictionaryCreator dictionaryCreator,
+      @Nullable NullValueVectorCreator nullVec)
+      throws IOException {
+    DataSource dataSource = segment.getDataSource(columnName);
+    Dictionary dictionary = dataSource.getDictionary();
+    ForwardIndexReader forwardIndex = dataSource.getForwardIndex();
+    if (dictionary == null || forwardIndex == null || !forwardIndex.isDictionaryEncoded()) {
+      return false;
+    }
+    int numDocs = segment.getSegmentMetadata().getTotalDocs();
+
+    // Map the dictionary ids of the segment to the dictionary ids of the sorted dictionary, and read the remapped
+    // dictionary ids in the order of the new segment
+    long startTimeNs = System.nanoTime();
+    int cardinality = dictionary.length();
+    int[] dictIdMap = new int[cardinality];
+    Object[] sortedValues = new Object[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      Object value = dictionary.get(i);
+      int dictId = dictionaryCreator.indexOfSV(value);
+      dictIdMap[i] = dictId;
+      sortedValues[dictId] = value;
+    }
+    int[] dictIds;
+    // Offsets of the values of each document in the flattened dictionary ids for multi-value column
+    int[] offsets = null;
+    try (ForwardIndexReaderContext context = forwardIndex.createContext()) {
+      if (forwardIndex.isSingleValue()) {
+        dictIds = new int[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+          int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+          dictIds[i] = dictIdMap[forwardIndex.getDictId(docId, context)];
+        }
+      } else {
+        int[] dictIdBuffer = new int[dataSource.getDataSourceMetadata().getMaxNumValuesPerMVEntry()];
+        IntArrayList flattenedDictIds = new IntArrayList(numDocs);
+        offsets = new int[numDocs + 1];
+        for (int i = 0; i < numDocs; i++) {
+          int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+          int numValues = forwardIndex.getDictIdMV(docId, dictIdBuffer, context);
+          for (int j = 0; j < numValues; j++) {
+            flattenedDictIds.add(dictIdMap[dictIdBuffer[j]]);
+          }
+          offsets[i + 1] = flattenedDictIds.size();
+        }
+        dictIds = flattenedDictIds.elements();
+      }
+    }
+    // Slice the values of each document for multi-value column once, and share them across all the index creators
+    int[][] docDictIds = null;
+    Object[][] docValues = null;
+    if (offsets != null && !creatorsByIndex.isEmpty()) {
+      docDictIds = new int[numDocs][];
+      docValues = new Object[numDocs][];
+      for (int i = 0; i < numDocs; i++) {
+        int[] dictIdsOfDoc = Arrays.copyOfRange(dictIds, offsets[i], offsets[i + 1]);
+        int numValues = dictIdsOfDoc.length;
+        Object[] valuesOfDoc = new Object[numValues];
+        for (int j = 0; j < numValues; j++) {
+          valuesOfDoc[j] = sortedValues[dictIdsOfDoc[j]];
+        }
+        docDictIds[i] = dictIdsOfDoc;
+        docValues[i] = valuesOfDoc;
+      }
+    }
+    addIndexBuildTime(DICT_ID_REMAP_TIME_KEY, startTimeNs);
+
+    // Convert the mutable inverted index when the document ids are not changed
+    IndexCreator invertedIndexCreator = creatorsByIndex.get(StandardIndexes.inverted());
+    InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+    if (invertedIndexCreator != null && sortedDocIds == null && invertedIndex instanceof MutableInvertedIndex
+        && _indexCreationInfoMap.get(columnName).getDistinctValueCount() == cardinality) {
+      startTimeNs = System.nanoTime();
+      // Remove the creator so that it does not overwrite the converted index when sealed
+      creatorsByIndex.remove(StandardIndexes.inverted());
+      invertedIndexCreator.close();
+      convertInvertedIndex(columnName, (MutableInvertedIndex) invertedIndex, dictIdMap, numDocs);
+      addIndexBuildTime(StandardIndexes.inverted(), startTimeNs);
+    }
+
+    for (Map.Entry<IndexType<?, ?, ?>, IndexCreator> entry : creatorsByIndex.entrySet()) {
+      IndexCreator creator = entry.getValue();
+      startTimeNs = System.nanoTime();
+      if (offsets == null) {
+        for (int i = 0; i < numDocs; i++) {
+          int dictId = dictIds[i];
+          creator.add(sortedValues[dictId], dictId);
+        }
+      } else {
+        for (int i = 0; i < numDocs; i++) {
+          creator.add(docValues[i], docDictIds[i]);
+        }
+      }
+      addIndexBuildTime(entry.getKey(), startTimeNs);
+    }
+
+    NullValueVectorReader nullValueVector = dataSource.getNullValueVector();
+    if (nullVec != null && nullValueVector != null) {
+      startTimeNs = System.nanoTime();
+      ImmutableRoaringBitmap nullDocIds = nullValueVector.getNullBitmap();
+      if (sortedDocIds != null) {
+        for (int i = 0; i < numDocs; i++) {
+          if (nullDocIds.contains(sortedDocIds[i])) {
+            nullVec.setNull(i);
+          }
+        }
+      } else {
+        PeekableIntIterator nullDocIdIterator = nullDocIds.getIntIterator();
+        while (nullDocIdIterator.hasNext()) {
+          int docId = nullDocIdIterator.next();
+          if (docId >= numDocs) {
+            break;
+          }
+          nullVec.setNull(docId);
+        }
+      }
+      addIndexBuildTime(StandardIndexes.nullValueVector(), startTimeNs);
+    }
+    return true;
+  }
+
+  /**
+   * Writes the bitmap inverted index of the given column from the bitmaps of the mutable inverted index, ordered by
+   * the dictionary ids of the sorted dictionary.
+   */
+  private void convertInvertedIndex(String columnName, MutableInvertedIndex invertedIndex, int[] dictIdMap,
+      int numDocs)
+      throws IOException {
+    int cardinality = dictIdMap.length;
+    int[] mutableDictIds = new int[cardinality];
+    for (int i = 0; i < cardinality; i++) {
+      mutableDictIds[dictIdMap[i]] = i;
+    }
+    File invertedIndexFile = new File(_indexDir, columnName + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+    try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(invertedIndexFile, cardinality)) {
+      for (int mutableDictId : mutableDictIds) {
+        // NOTE: Converting to RoaringBitmap copies the containers, so the mutable inverted index is never modified
+        RoaringBitmap bitmap = invertedIndex.getDocIds(mutableDictId).toRoaringBitmap();
+        if (!bitmap.isEmpty() && bitmap.last() >= numDocs) {
+          bitmap.remove(numDocs, 1L << 32);
+        }
+        bitmap.runOptimize();
+        writer.add(bitmap);
+      }
+    }
+  }
+
+  private void addIndexBuildTime(IndexType<?, ?, ?> indexType, long startTimeNs) {
+    addIndexBuildTime(indexType.getId(), startTimeNs);
+  }
+
+  private void addIndexBuildTime(String key, long startTimeNs) {
+    _indexBuildTimeNsMap.merge(key, System.nanoTime() - startTimeNs, Long::sum);
+  }
+
+  /**
+   * Returns the time (in nanoseconds) spent building each index, keyed by index id and summed over all the columns.
+   * Only the column-major build from an {@link IndexSegment} and the {@link #seal()} are tracked. The time spent
+   * remapping the dictionary ids of the mutable segment is tracked separately under {@link #DICT_ID_REMAP_TIME_KEY}.
+   */
+  public Map<String, Long> getIndexBuildTimesNs() {
+    return _indexBuildTimeNsMap;
+  }
+
+  /**
+   * Indexes all the values of the given column from the {@link ColumnarRowBuffer}, in doc id order.
+   * NOTE: This method can be invoked concurrently for different columns because each column has its own dictionary
+   *       and index creators.
+   */
+  public void indexColumn(String columnName, ColumnarRowBuffer rowBuffer)
+      throws IOException {
+    Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex = _creatorsByColAndIndex.get(columnName);
+    if (creatorsByIndex == null) {
+      return;
+    }
+    FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    ColumnarRowBuffer.ValueReader valueReader = rowBuffer.getValueReader(columnName);
+    int numDocs = rowBuffer.getNumDocs();
+    try {
+      if (fieldSpec.isSingleValueField()) {
+        for (int docId = 0; docId < numDocs; docId++) {
+          indexSingleValueRow(dictionaryCreator, valueReader.next(), creatorsByIndex);
+        }
+      } else {
+        for (int docId = 0; docId < numDocs; docId++) {
+          indexMultiValueRow(dictionaryCreator, (Object[]) valueReader.next(), creatorsByIndex);
+        }
+      }
+    } catch (JsonParseException jpe) {
+      throw new ColumnJsonParserException(columnName, jpe);
+    }
+
+    NullValueVectorCreator nullVec = _nullValueVectorCreatorMap.get(columnName);
+    if (nullVec != null) {
+      RoaringBitmap nullDocIds = rowBuffer.getNullDocIds(columnName);
+      if (nullDocIds != null) {
+        PeekableIntIterator nullDocIdIterator = nullDocIds.getIntIterator();
+        while (nullDocIdIterator.hasNext()) {
+          nullVec.setNull(nullDocIdIterator.next());
+        }
+      }
+    }
+  }
+
   private void indexColumnValue(PinotSegmentColumnReader colReader,
       Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex, String columnName, FieldSpec fieldSpec,
       SegmentDictionaryCreator dictionaryCreator, int sourceDocId, int onDiskDocPos,
@@ -464,14 +773,20 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   public void seal()
       throws ConfigurationException, IOException {
     for (SegmentDictionaryCreator creator : _dictionaryCreatorMap.values()) {
+      long startTimeNs = System.nanoTime();
       creator.seal();
+      addIndexBuildTime(StandardIndexes.dictionary(), startTimeNs);
     }
     for (NullValueVectorCreator creator : _nullValueVectorCreatorMap.values()) {
+      long startTimeNs = System.nanoTime();
       creator.seal();
+      addIndexBuildTime(StandardIndexes.nullValueVector(), startTimeNs);
     }
     for (Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType : _creatorsByColAndIndex.values()) {
-      for (IndexCreator creator : creatorsByType.values()) {
-        creator.seal();
+      for (Map.Entry<IndexType<?, ?, ?>, IndexCreator> entry : creatorsByType.entrySet()) {
+        long startTimeNs = System.nanoTime();
+        entry.getValue().seal();
+        addIndexBuildTime(entry.getKey(), startTimeNs);
       }
     }
     writeMetadata();
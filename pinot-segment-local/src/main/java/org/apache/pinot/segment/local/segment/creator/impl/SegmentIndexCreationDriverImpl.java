@@ -19,10 +19,12 @@
 package org.apache.pinot.segment.local.segment.creator.impl;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +32,9 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -40,6 +45,7 @@ import org.apache.pinot.common.metrics.MinionMetrics;
 import org.apache.pinot.segment.local.realtime.converter.stats.RealtimeSegmentSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.RecordReaderSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.segment.local.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
 import org.apache.pinot.segment.local.segment.index.converter.SegmentFormatConverterFactory;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
@@ -54,7 +60,6 @@ import org.apache.pinot.segment.spi.converter.SegmentFormatConverter;
 import org.apache.pinot.segment.spi.creator.ColumnIndexCreationInfo;
 import org.apache.pinot.segment.spi.creator.ColumnStatistics;
 import org.apache.pinot.segment.spi.creator.SegmentCreationDataSource;
-import org.apache.pinot.segment.spi.creator.SegmentCreator;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsContainer;
@@ -78,6 +83,8 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.IngestionSchemaValidator;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.SchemaValidatorFactory;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.FileFormat;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
@@ -102,7 +109,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   private SegmentPreIndexStatsContainer _segmentStats;
   // NOTE: Use TreeMap so that the columns are ordered alphabetically
   private TreeMap<String, ColumnIndexCreationInfo> _indexCreationInfoMap;
-  private SegmentCreator _indexCreator;
+  private SegmentColumnarIndexCreator _indexCreator;
   private SegmentIndexCreationInfo _segmentIndexCreationInfo;
   private SegmentCreationDataSource _dataSource;
   private Schema _dataSchema;
@@ -235,6 +242,11 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   @Override
   public void build()
       throws Exception {
+    if (shouldBuildInParallel()) {
+      buildInParallel();
+      return;
+    }
+
     // Count the number of documents and gather per-column statistics
     LOGGER.debug("Start building StatsCollector!");
     collectStatsAndIndexCreationInfo();
@@ -299,6 +311,202 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       _recordReader.close();
     }
 
+    reportRowCounts();
+
+    LOGGER.info("Finished records indexing in IndexCreator!");
+
+    handlePostCreation();
+  }
+
+  /**
+   * Returns {@code true} if the segment should be built with {@link #buildInParallel()}, which requires multiple index
+   * creation threads or columnar batch reading, a record reader based data source, and all the physical columns to be
+   * supported by {@link ColumnarRowBuffer}.
+   */
+  private boolean shouldBuildInParallel() {
+    if (_config.getNumIndexCreationThreads() <= 1 && _config.getColumnarBatchSize() == 0) {
+      return false;
+    }
+    if (!(_dataSource instanceof RecordReaderSegmentCreationDataSource)) {
+      LOGGER.info("Data source: {} is not backed by a record reader, building the segment sequentially",
+          _dataSource.getClass().getSimpleName());
+      return false;
+    }
+    for (FieldSpec fieldSpec : _dataSchema.getAllFieldSpecs()) {
+      if (!fieldSpec.isVirtualColumn() && !ColumnarRowBuffer.isSupported(fieldSpec)) {
+        LOGGER.info("Column: {} of type: {} cannot be buffered, building the segment sequentially",
+            fieldSpec.getName(), fieldSpec.getDataType());
+        return false;
+      }
+    }
+    return _config.getNumIndexCreationThreads() > 1 || canReadInBatches(getPhysicalFieldSpecs());
+  }
+
+  /**
+   * Returns {@code true} if the records can be read into {@link ColumnarBatch}es and transformed without materializing
+   * {@link GenericRow}s, which requires a {@link ColumnarRecordReader} that supports all the physical columns, and a
+   * transform pipeline where all the transformers support batches.
+   */
+  private boolean canReadInBatches(List<FieldSpec> physicalFieldSpecs) {
+    if (_config.getColumnarBatchSize() == 0) {
+      return false;
+    }
+    if (!(_recordReader instanceof ColumnarRecordReader) || !((ColumnarRecordReader) _recordReader)
+        .supportsColumnarBatch(physicalFieldSpecs)) {
+      LOGGER.info("Record reader: {} cannot read columnar batches, reading records one by one",
+          _recordReader.getClass().getSimpleName());
+      return false;
+    }
+    if (!_transformPipeline.supportsColumnarBatch()) {
+      LOGGER.info("Transform pipeline cannot transform columnar batches, reading records one by one");
+      return false;
+    }
+    return true;
+  }
+
+  private List<FieldSpec> getPhysicalFieldSpecs() {
+    return _dataSchema.getAllFieldSpecs().stream()
+        .filter(fieldSpec -> !fieldSpec.isVirtualColumn())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Builds the segment by reading the input only once. Stats are collected while the transformed rows are buffered
+   * column by column into a {@link ColumnarRowBuffer}, then the dictionaries and the indexes of different columns are
+   * built concurrently on a pool of {@link SegmentGeneratorConfig#getNumIndexCreationThreads()} threads.
+   * <p>When possible, the records are read and transformed in {@link ColumnarBatch}es of
+   * {@link SegmentGeneratorConfig#getColumnarBatchSize()} records, and the primitive values are buffered without
+   * boxing.
+   */
+  private void buildInParallel()
+      throws Exception {
+    int numThreads = _config.getNumIndexCreationThreads();
+    LOGGER.info("Start building segment in a single pass with {} index creation threads", numThreads);
+    _incompleteRowsFound = 0;
+    _skippedRowsFound = 0;
+    _sanitizedRowsFound = 0;
+
+    List<FieldSpec> physicalFieldSpecs = getPhysicalFieldSpecs();
+    boolean readInBatches = canReadInBatches(physicalFieldSpecs);
+    File bufferDir = new File(_config.getOutDir(), "tmp-buffer-" + UUID.randomUUID());
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setNameFormat("segment-index-creation-%d").setDaemon(true).build());
+    try (ColumnarRowBuffer rowBuffer = new ColumnarRowBuffer(bufferDir, physicalFieldSpecs)) {
+      SegmentPreIndexStatsCollectorImpl statsCollector = new SegmentPreIndexStatsCollectorImpl(
+          new StatsCollectorConfig(_config.getTableConfig(), _dataSchema, _config.getSegmentPartitionConfig()));
+      statsCollector.init();
+
+      // Collect the stats and buffer the rows
+      if (readInBatches) {
+        readInBatches(statsCollector, rowBuffer, physicalFieldSpecs);
+      } else {
+        readRows(statsCollector, rowBuffer);
+      }
+      long statsSealStartTimeNs = System.nanoTime();
+      _transformPipeline.reportStats();
+      statsCollector.build();
+      rowBuffer.seal();
+      _segmentStats = statsCollector;
+      _totalDocs = statsCollector.getTotalDocCount();
+      collectIndexCreationInfo();
+      _totalStatsCollectorTimeNs += System.nanoTime() - statsSealStartTimeNs;
+      LOGGER.info("Collected stats and buffered {} documents", _totalDocs);
+
+      int[] immutableToMutableIdMap = null;
+      if (_recordReader instanceof PinotSegmentRecordReader) {
+        immutableToMutableIdMap =
+            getImmutableToMutableIdMap(((PinotSegmentRecordReader) _recordReader).getSortedDocIds());
+      }
+
+      // Build the dictionaries and the indexes of different columns concurrently
+      long indexStartTimeNs = System.nanoTime();
+      _indexCreator.init(_config, _segmentIndexCreationInfo, _indexCreationInfoMap, _dataSchema, _tempIndexDir,
+          immutableToMutableIdMap, executorService);
+      if (_totalDocs > 0) {
+        List<Future<?>> futures = new ArrayList<>(physicalFieldSpecs.size());
+        for (String column : rowBuffer.getColumns()) {
+          futures.add(executorService.submit(() -> {
+            _indexCreator.indexColumn(column, rowBuffer);
+            return null;
+          }));
+        }
+        SegmentColumnarIndexCreator.waitForAll(futures);
+      }
+      _totalIndexTimeNs += System.nanoTime() - indexStartTimeNs;
+    } catch (Exception e) {
+      _indexCreator.close();
+      throw e;
+    } finally {
+      executorService.shutdownNow();
+      _recordReader.close();
+    }
+
+    reportRowCounts();
+
+    LOGGER.info("Finished records indexing in IndexCreator with {} threads!", numThreads);
+
+    handlePostCreation();
+  }
+
+  private void readRows(SegmentPreIndexStatsCollectorImpl statsCollector, ColumnarRowBuffer rowBuffer)
+      throws Exception {
+    GenericRow reuse = new GenericRow();
+    while (_recordReader.hasNext()) {
+      long recordReadStopTimeNs;
+      reuse.clear();
+
+      TransformPipeline.Result result;
+      try {
+        long recordReadStartTimeNs = System.nanoTime();
+        GenericRow decodedRow = _recordReader.next(reuse);
+        result = _transformPipeline.processRow(decodedRow);
+        recordReadStopTimeNs = System.nanoTime();
+        _totalRecordReadTimeNs += recordReadStopTimeNs - recordReadStartTimeNs;
+      } catch (Exception e) {
+        if (!_continueOnError) {
+          throw new RuntimeException("Error occurred while reading row during indexing", e);
+        } else {
+          _incompleteRowsFound++;
+          LOGGER.debug("Error occurred while reading row during indexing", e);
+          continue;
+        }
+      }
+
+      for (GenericRow row : result.getTransformedRows()) {
+        statsCollector.collectRow(row);
+        rowBuffer.addRow(row);
+      }
+      _totalStatsCollectorTimeNs += System.nanoTime() - recordReadStopTimeNs;
+      _incompleteRowsFound += result.getIncompleteRowCount();
+      _skippedRowsFound += result.getSkippedRowCount();
+      _sanitizedRowsFound += result.getSanitizedRowCount();
+    }
+  }
+
+  private void readInBatches(SegmentPreIndexStatsCollectorImpl statsCollector, ColumnarRowBuffer rowBuffer,
+      List<FieldSpec> physicalFieldSpecs)
+      throws Exception {
+    LOGGER.info("Reading records in columnar batches of size: {}", _config.getColumnarBatchSize());
+    ColumnarRecordReader columnarRecordReader = (ColumnarRecordReader) _recordReader;
+    ColumnarBatch batch = new ColumnarBatch(physicalFieldSpecs, _config.getColumnarBatchSize());
+    while (columnarRecordReader.hasNext()) {
+      long recordReadStartTimeNs = System.nanoTime();
+      // NOTE: Unlike a single record, a batch cannot be skipped on read error, so the error is always propagated.
+      //       Transform errors are handled per row by the transformers when continue on error is enabled.
+      columnarRecordReader.nextBatch(batch);
+      _transformPipeline.processBatch(batch);
+      long recordReadStopTimeNs = System.nanoTime();
+      _totalRecordReadTimeNs += recordReadStopTimeNs - recordReadStartTimeNs;
+
+      statsCollector.collectBatch(batch);
+      rowBuffer.addBatch(batch);
+      _totalStatsCollectorTimeNs += System.nanoTime() - recordReadStopTimeNs;
+      _incompleteRowsFound += batch.getNumIncompleteRows();
+      _sanitizedRowsFound += batch.getNumSanitizedRows();
+    }
+  }
+
+  private void reportRowCounts() {
     if (_incompleteRowsFound > 0) {
       LOGGER.warn("Incomplete data found for {} records. This can be due to error during reader or transformations",
           _incompleteRowsFound);
@@ -321,10 +529,6 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     if (_sanitizedRowsFound > 0) {
       metrics.addMeteredTableValue(tableNameWithType, MinionMeter.CORRUPTED_RECORD_COUNT, _sanitizedRowsFound);
     }
-
-    LOGGER.info("Finished records indexing in IndexCreator!");
-
-    handlePostCreation();
   }
 
   public void buildByColumn(IndexSegment indexSegment)
@@ -369,6 +573,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     LOGGER.info("Finished records indexing by column in IndexCreator!");
 
     handlePostCreation();
+    LOGGER.info("Index build times (ns) by index: {}", getIndexBuildTimesNs());
   }
 
   private void handlePostCreation()
@@ -578,6 +783,14 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     _segmentStats = _dataSource.gatherStats(
         new StatsCollectorConfig(_config.getTableConfig(), _dataSchema, _config.getSegmentPartitionConfig()));
     _totalDocs = _segmentStats.getTotalDocCount();
+    collectIndexCreationInfo();
+    _totalStatsCollectorTimeNs = System.nanoTime() - statsCollectorStartTime;
+  }
+
+  /**
+   * Stores the index creation information of each column in indexCreationInfoMap based on the collected stats.
+   */
+  private void collectIndexCreationInfo() {
     Map<String, FieldIndexConfigs> indexConfigsMap = _config.getIndexConfigsByColName();
 
     for (FieldSpec fieldSpec : _dataSchema.getAllFieldSpecs()) {
@@ -602,7 +815,6 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
               defaultNullValue));
     }
     _segmentIndexCreationInfo.setTotalDocs(_totalDocs);
-    _totalStatsCollectorTimeNs = System.nanoTime() - statsCollectorStartTime;
   }
 
   /**
@@ -657,4 +869,12 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   public int getSanitizedRowsFound() {
     return _sanitizedRowsFound;
   }
+
+  /**
+   * Returns the time (in nanoseconds) spent building each index, keyed by index id and summed over all the columns.
+   * Indexing is only timed for {@link #buildByColumn(IndexSegment)}, while sealing the indexes is timed for all builds.
+   */
+  public Map<String, Long> getIndexBuildTimesNs() {
+    return _indexCreator.getIndexBuildTimesNs();
+  }
 }
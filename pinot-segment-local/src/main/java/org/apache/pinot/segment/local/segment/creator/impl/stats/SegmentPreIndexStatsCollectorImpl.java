@@ -25,6 +25,8 @@ import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -111,6 +113,22 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
     _totalDocCount++;
   }
 
+  /**
+   * Collects the stats for all the rows in the given batch. The null values in the batch must be filled.
+   */
+  public void collectBatch(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    for (ColumnVector columnVector : batch.getColumnVectors().values()) {
+      AbstractColumnStatisticsCollector statsCollector = _columnStatsCollectorMap.get(columnVector.getName());
+      if (statsCollector != null) {
+        for (int i = 0; i < numRows; i++) {
+          statsCollector.collect(columnVector.getValue(i));
+        }
+      }
+    }
+    _totalDocCount += numRows;
+  }
+
   @Override
   public int getTotalDocCount() {
     return _totalDocCount;
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.ZoneMapIndexCreator;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * On-heap creator for the zone map index.
+ * <p>The index file has the following layout:
+ * <ul>
+ *   <li>Header: version (int), number of docs per block (int), number of blocks (int)</li>
+ *   <li>For each block: min value and max value, as longs for INT/LONG columns and as doubles for FLOAT/DOUBLE
+ *   columns</li>
+ * </ul>
+ * <p>Null values are added as the default null value of the column, which only widens the min/max range of the block
+ * and keeps the zone map correct.
+ */
+public class OnHeapZoneMapIndexCreator implements ZoneMapIndexCreator {
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 3 * Integer.BYTES;
+  public static final int BLOCK_ENTRY_SIZE = 2 * Long.BYTES;
+
+  private final File _indexFile;
+  private final int _numDocsPerBlock;
+  private final boolean _floatingPoint;
+  private final long[] _minLongValues;
+  private final long[] _maxLongValues;
+  private final double[] _minDoubleValues;
+  private final double[] _maxDoubleValues;
+
+  private int _nextDocId;
+
+  public OnHeapZoneMapIndexCreator(File indexDir, String columnName, DataType storedType, int numDocs,
+      int numDocsPerBlock) {
+    Preconditions.checkArgument(numDocsPerBlock > 0, "Invalid number of docs per block: %s", numDocsPerBlock);
+    _indexFile = new File(indexDir, columnName + V1Constants.Indexes.ZONE_MAP_INDEX_FILE_EXTENSION);
+    _numDocsPerBlock = numDocsPerBlock;
+    int numBlocks = (int) (((long) numDocs + numDocsPerBlock - 1) / numDocsPerBlock);
+    switch (storedType) {
+      case INT:
+      case LONG:
+        _floatingPoint = false;
+        _minLongValues = new long[numBlocks];
+        _maxLongValues = new long[numBlocks];
+        Arrays.fill(_minLongValues, Long.MAX_VALUE);
+        Arrays.fill(_maxLongValues, Long.MIN_VALUE);
+        _minDoubleValues = null;
+        _maxDoubleValues = null;
+        break;
+      case FLOAT:
+      case DOUBLE:
+        _floatingPoint = true;
+        _minLongValues = null;
+        _maxLongValues = null;
+        _minDoubleValues = new double[numBlocks];
+        _maxDoubleValues = new double[numBlocks];
+        Arrays.fill(_minDoubleValues, Double.POSITIVE_INFINITY);
+        Arrays.fill(_maxDoubleValues, Double.NEGATIVE_INFINITY);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported stored type for zone map index: " + storedType);
+    }
+  }
+
+  @Override
+  public void add(Number value) {
+    int blockId = _nextDocId++ / _numDocsPerBlock;
+    if (_floatingPoint) {
+      double doubleValue = value.doubleValue();
+      // NaN never matches a range or equality predicate, so it is not tracked
+      if (doubleValue < _minDoubleValues[blockId]) {
+        _minDoubleValues[blockId] = doubleValue;
+      }
+      if (doubleValue > _maxDoubleValues[blockId]) {
+        _maxDoubleValues[blockId] = doubleValue;
+      }
+    } else {
+      long longValue = value.longValue();
+      if (longValue < _minLongValues[blockId]) {
+        _minLongValues[blockId] = longValue;
+      }
+      if (longValue > _maxLongValues[blockId]) {
+        _maxLongValues[blockId] = longValue;
+      }
+    }
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(_indexFile))) {
+      out.writeInt(VERSION);
+      out.writeInt(_numDocsPerBlock);
+      if (_floatingPoint) {
+        int numBlocks = _minDoubleValues.length;
+        out.writeInt(numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+          out.writeDouble(_minDoubleValues[i]);
+          out.writeDouble(_maxDoubleValues[i]);
+        }
+      } else {
+        int numBlocks = _minLongValues.length;
+        out.writeInt(numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+          out.writeLong(_minLongValues[i]);
+          out.writeLong(_maxLongValues[i]);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -119,9 +119,17 @@ public class ForwardIndexType extends AbstractIndexType<ForwardIndexConfig, Forw
     } else {
       boolean isCLPCodec = compressionCodec == CompressionCodec.CLP || compressionCodec == CompressionCodec.CLPV2
           || compressionCodec == CompressionCodec.CLPV2_ZSTD || compressionCodec == CompressionCodec.CLPV2_LZ4;
+      boolean isNumericCodec = compressionCodec == CompressionCodec.FRAME_OF_REFERENCE
+          || compressionCodec == CompressionCodec.DELTA || compressionCodec == CompressionCodec.DELTADELTA;
       if (isCLPCodec) {
         Preconditions.checkState(fieldSpec.getDataType().getStoredType() == FieldSpec.DataType.STRING,
             "Cannot apply CLP compression codec to column: %s of stored type other than STRING", column);
+      } else if (isNumericCodec) {
+        FieldSpec.DataType storedType = fieldSpec.getDataType().getStoredType();
+        Preconditions.checkState(fieldSpec.isSingleValueField()
+                && (storedType == FieldSpec.DataType.INT || storedType == FieldSpec.DataType.LONG),
+            "Cannot apply %s compression codec to column: %s which is not single-value INT or LONG", compressionCodec,
+            column);
       } else {
         Preconditions.checkState(compressionCodec == null || compressionCodec.isApplicableToRawIndex(),
             "Compression codec: %s is not applicable to raw column: %s", compressionCodec, column);
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.zonemap;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.OnHeapZoneMapIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Reader for the zone map index written by {@link OnHeapZoneMapIndexCreator}.
+ */
+public class ImmutableZoneMapIndexReader implements ZoneMapIndexReader {
+  private static final int MIN_VALUE_OFFSET = 0;
+  private static final int MAX_VALUE_OFFSET = Long.BYTES;
+
+  private final PinotDataBuffer _dataBuffer;
+  private final DataType _storedType;
+  private final int _numDocsPerBlock;
+  private final int _numBlocks;
+
+  public ImmutableZoneMapIndexReader(PinotDataBuffer dataBuffer, DataType storedType) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == OnHeapZoneMapIndexCreator.VERSION, "Unsupported zone map index version: %s",
+        version);
+    _dataBuffer = dataBuffer;
+    _storedType = storedType;
+    _numDocsPerBlock = dataBuffer.getInt(Integer.BYTES);
+    _numBlocks = dataBuffer.getInt(2 * Integer.BYTES);
+  }
+
+  @Override
+  public DataType getStoredType() {
+    return _storedType;
+  }
+
+  @Override
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  @Override
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  @Override
+  public long getMinLong(int blockId) {
+    return _dataBuffer.getLong(getOffset(blockId) + MIN_VALUE_OFFSET);
+  }
+
+  @Override
+  public long getMaxLong(int blockId) {
+    return _dataBuffer.getLong(getOffset(blockId) + MAX_VALUE_OFFSET);
+  }
+
+  @Override
+  public double getMinDouble(int blockId) {
+    return _dataBuffer.getDouble(getOffset(blockId) + MIN_VALUE_OFFSET);
+  }
+
+  @Override
+  public double getMaxDouble(int blockId) {
+    return _dataBuffer.getDouble(getOffset(blockId) + MAX_VALUE_OFFSET);
+  }
+
+  private static long getOffset(int blockId) {
+    return OnHeapZoneMapIndexCreator.HEADER_SIZE + (long) blockId * OnHeapZoneMapIndexCreator.BLOCK_ENTRY_SIZE;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
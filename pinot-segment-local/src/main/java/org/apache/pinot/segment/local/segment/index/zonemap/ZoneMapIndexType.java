@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.OnHeapZoneMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.loader.zonemap.ZoneMapIndexHandler;
+import org.apache.pinot.segment.local.segment.index.readers.zonemap.ImmutableZoneMapIndexReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.IndexCreationContext;
+import org.apache.pinot.segment.spi.index.AbstractIndexType;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
+import org.apache.pinot.segment.spi.index.IndexHandler;
+import org.apache.pinot.segment.spi.index.IndexReaderFactory;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.ZoneMapIndexConfig;
+import org.apache.pinot.segment.spi.index.creator.ZoneMapIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * The zone map index keeps the min/max value of every block of consecutive documents of a single-value numeric column,
+ * so that the scan based filter can skip the blocks (and the forward index chunks) whose value range cannot match the
+ * predicate. It is most effective on columns whose values are correlated with the document order, e.g. time columns
+ * and monotonically increasing ids.
+ */
+public class ZoneMapIndexType extends AbstractIndexType<ZoneMapIndexConfig, ZoneMapIndexReader, ZoneMapIndexCreator> {
+  public static final String INDEX_DISPLAY_NAME = "zonemap";
+  private static final List<String> EXTENSIONS =
+      Collections.singletonList(V1Constants.Indexes.ZONE_MAP_INDEX_FILE_EXTENSION);
+
+  protected ZoneMapIndexType() {
+    super(StandardIndexes.ZONE_MAP_ID);
+  }
+
+  @Override
+  public Class<ZoneMapIndexConfig> getIndexConfigClass() {
+    return ZoneMapIndexConfig.class;
+  }
+
+  @Override
+  public ZoneMapIndexConfig getDefaultConfig() {
+    return ZoneMapIndexConfig.DISABLED;
+  }
+
+  @Override
+  public void validate(FieldIndexConfigs indexConfigs, FieldSpec fieldSpec, TableConfig tableConfig) {
+    ZoneMapIndexConfig zoneMapIndexConfig = indexConfigs.getConfig(StandardIndexes.zoneMap());
+    if (zoneMapIndexConfig.isEnabled()) {
+      String column = fieldSpec.getName();
+      Preconditions.checkState(fieldSpec.isSingleValueField(), "Cannot create zone map index on multi-value column: %s",
+          column);
+      Preconditions.checkState(isSupported(fieldSpec.getDataType().getStoredType()),
+          "Cannot create zone map index on column: %s of stored type other than INT, LONG, FLOAT or DOUBLE", column);
+    }
+  }
+
+  public static boolean isSupported(FieldSpec.DataType storedType) {
+    return storedType.isNumeric() && storedType != FieldSpec.DataType.BIG_DECIMAL;
+  }
+
+  @Override
+  public String getPrettyName() {
+    return INDEX_DISPLAY_NAME;
+  }
+
+  @Override
+  public ZoneMapIndexCreator createIndexCreator(IndexCreationContext context, ZoneMapIndexConfig indexConfig) {
+    FieldSpec fieldSpec = context.getFieldSpec();
+    Preconditions.checkState(fieldSpec.isSingleValueField(),
+        "Zone map index is currently only supported on single-value columns");
+    FieldSpec.DataType storedType = fieldSpec.getDataType().getStoredType();
+    Preconditions.checkState(isSupported(storedType),
+        "Zone map index is currently only supported on INT, LONG, FLOAT and DOUBLE columns");
+    return new OnHeapZoneMapIndexCreator(context.getIndexDir(), fieldSpec.getName(), storedType,
+        context.getTotalDocs(), indexConfig.getNumDocsPerBlock());
+  }
+
+  @Override
+  protected IndexReaderFactory<ZoneMapIndexReader> createReaderFactory() {
+    return ReaderFactory.INSTANCE;
+  }
+
+  @Override
+  public IndexHandler createIndexHandler(SegmentDirectory segmentDirectory, Map<String, FieldIndexConfigs> configsByCol,
+      Schema schema, TableConfig tableConfig) {
+    return new ZoneMapIndexHandler(segmentDirectory, configsByCol, tableConfig, schema);
+  }
+
+  @Override
+  public List<String> getFileExtensions(@Nullable ColumnMetadata columnMetadata) {
+    return EXTENSIONS;
+  }
+
+  private static class ReaderFactory extends IndexReaderFactory.Default<ZoneMapIndexConfig, ZoneMapIndexReader> {
+    public static final ReaderFactory INSTANCE = new ReaderFactory();
+
+    private ReaderFactory() {
+    }
+
+    @Override
+    protected IndexType<ZoneMapIndexConfig, ZoneMapIndexReader, ?> getIndexType() {
+      return StandardIndexes.zoneMap();
+    }
+
+    @Override
+    protected ZoneMapIndexReader createIndexReader(PinotDataBuffer dataBuffer, ColumnMetadata metadata,
+        ZoneMapIndexConfig indexConfig) {
+      return new ImmutableZoneMapIndexReader(dataBuffer, metadata.getDataType().getStoredType());
+    }
+  }
+}
@@ -53,6 +53,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.apache.pinot.spi.data.FieldSpec.DataType.BYTES;
+import static org.apache.pinot.spi.data.FieldSpec.DataType.INT;
+import static org.apache.pinot.spi.data.FieldSpec.DataType.LONG;
 
 
 /**
@@ -478,6 +480,12 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
       DataType valueType = valueAggregator.getAggregatedValueType();
       AggregationSpec aggregationSpec = _aggregationSpecs[i];
       ChunkCompressionType compressionType = ChunkCompressionType.valueOf(aggregationSpec.getCompressionCodec().name());
+      if (compressionType.isNumeric() && valueType != INT && valueType != LONG) {
+        // Rejected by the table config validation, but the builder config might not be validated
+        LOGGER.warn("Compression codec: {} is not applicable to metric: {} of type: {}, using: {} instead",
+            compressionType, metric, valueType, AggregationSpec.DEFAULT_COMPRESSION_CODEC);
+        compressionType = ChunkCompressionType.valueOf(AggregationSpec.DEFAULT_COMPRESSION_CODEC.name());
+      }
       if (valueType == BYTES) {
         metricIndexCreators[i] =
             new SingleValueVarByteRawIndexCreator(_outputDir, compressionType, metric, _numDocs, BYTES,
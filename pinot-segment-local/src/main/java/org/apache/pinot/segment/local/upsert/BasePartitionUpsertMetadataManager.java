@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AtomicDouble;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,7 +33,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
@@ -123,6 +127,9 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
   // The lock and boolean flag ensure only one thread can start preloading and preloading happens only once.
   private final Lock _preloadLock = new ReentrantLock();
   private volatile boolean _isPreloading;
+  // Segments loaded during preloading without using validDocIds snapshot, whose upsert metadata is bootstrapped in bulk
+  // after all the segments are loaded.
+  private final List<ImmutableSegmentImpl> _segmentsToBootstrap = new ArrayList<>();
 
   // By default, the upsert consistency mode is NONE and upsertViewManager is disabled.
   private final UpsertViewManager _upsertViewManager;
@@ -146,7 +153,7 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
     _hashFunction = context.getHashFunction();
     _partialUpsertHandler = context.getPartialUpsertHandler();
     _enableSnapshot = context.isSnapshotEnabled();
-    _isPreloading = context.isPreloadEnabled();
+    _isPreloading = context.isPreloadEnabled() || context.isParallelBootstrapEnabled();
     _metadataTTL = context.getMetadataTTL();
     _deletedKeysTTL = context.getDeletedKeysTTL();
     _tableIndexDir = context.getTableIndexDir();
@@ -262,15 +269,285 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       HelixManager helixManager, ExecutorService segmentPreloadExecutor)
       throws Exception {
     TableConfig tableConfig = indexLoadingConfig.getTableConfig();
-    SegmentPreloadUtils.preloadSegments(tableDataManager, _partitionId, indexLoadingConfig, helixManager,
-        segmentPreloadExecutor, (segmentName, segmentZKMetadata) -> {
-          String tier = segmentZKMetadata.getTier();
-          if (SegmentPreloadUtils.hasValidDocIdsSnapshot(tableDataManager, tableConfig, segmentName, tier)) {
-            return true;
+    boolean enablePreload = _context.isPreloadEnabled();
+    boolean enableParallelBootstrap = _context.isParallelBootstrapEnabled();
+    try {
+      SegmentPreloadUtils.preloadSegments(tableDataManager, _partitionId, indexLoadingConfig, helixManager,
+          segmentPreloadExecutor, (segmentName, segmentZKMetadata) -> {
+            String tier = segmentZKMetadata.getTier();
+            if (enablePreload && SegmentPreloadUtils.hasValidDocIdsSnapshot(tableDataManager, tableConfig, segmentName,
+                tier)) {
+              return true;
+            }
+            if (enableParallelBootstrap) {
+              // Load the segment without validDocIds snapshot, and bootstrap its upsert metadata in bulk afterwards
+              return true;
+            }
+            _logger.info("Skip segment: {} on tier: {} as it has no validDocIds snapshot", segmentName, tier);
+            return false;
+          });
+    } finally {
+      // Always handle the segments already loaded, so that they won't be left without upsert metadata
+      bootstrapSegments(segmentPreloadExecutor);
+    }
+  }
+
+  /**
+   * Bootstraps the upsert metadata for the segments loaded during preloading without using validDocIds snapshot.
+   * <p>Instead of adding the segments one at a time, the primary keys and comparison values of the segments are read in
+   * parallel, each into a partial map keeping the latest record of each primary key within the segment, and the partial
+   * maps are merged into a map of the winning record of each primary key. The merge result doesn't depend on the order
+   * the segments are read: the larger comparison value wins, and ties are broken by the same rule as
+   * {@link #shouldReplaceOnComparisonTie} and then by segment name. The winning records are then added to the upsert
+   * metadata, also in parallel as they don't conflict with each other.
+   * <p>If anything fails, the segments not bootstrapped yet are added one at a time.
+   */
+  @VisibleForTesting
+  void bootstrapSegments(ExecutorService executor) {
+    List<ImmutableSegmentImpl> segments;
+    synchronized (_segmentsToBootstrap) {
+      segments = new ArrayList<>(_segmentsToBootstrap);
+      _segmentsToBootstrap.clear();
+    }
+    if (segments.isEmpty()) {
+      return;
+    }
+    if (!startOperation()) {
+      _logger.info("Skip bootstrapping {} segments because metadata manager is already stopped", segments.size());
+      return;
+    }
+    Set<ImmutableSegmentImpl> segmentsNotBootstrapped = ConcurrentHashMap.newKeySet();
+    segmentsNotBootstrapped.addAll(segments);
+    try {
+      doBootstrapSegments(segments, segmentsNotBootstrapped, executor);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while bootstrapping segments, adding {} segments not bootstrapped one at a time",
+          segmentsNotBootstrapped.size(), e);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.UPSERT_PRELOAD_FAILURE, 1);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      for (ImmutableSegmentImpl segment : segmentsNotBootstrapped) {
+        try {
+          doAddSegment(segment);
+        } catch (Exception ex) {
+          _logger.error("Caught exception while adding segment: {}", segment.getSegmentName(), ex);
+        }
+      }
+    } finally {
+      for (ImmutableSegmentImpl segment : segments) {
+        _trackedSegments.add(segment);
+        if (_enableSnapshot) {
+          _updatedSegmentsSinceLastSnapshot.add(segment);
+        }
+      }
+      finishOperation();
+    }
+  }
+
+  private void doBootstrapSegments(List<ImmutableSegmentImpl> allSegments,
+      Set<ImmutableSegmentImpl> segmentsNotBootstrapped, ExecutorService executor)
+      throws Exception {
+    long startTimeMs = System.currentTimeMillis();
+    _logger.info("Bootstrapping {} segments, current primary key count: {}", allSegments.size(), getNumPrimaryKeys());
+    List<ImmutableSegmentImpl> segments = allSegments;
+    if (isTTLEnabled()) {
+      for (ImmutableSegmentImpl segment : allSegments) {
+        double maxComparisonValue = getMaxComparisonValue(segment);
+        _largestSeenComparisonValue.getAndUpdate(v -> Math.max(v, maxComparisonValue));
+      }
+      segments = new ArrayList<>(allSegments.size());
+      for (ImmutableSegmentImpl segment : allSegments) {
+        if (isOutOfMetadataTTL(segment) && skipAddSegmentOutOfTTL(segment)) {
+          segmentsNotBootstrapped.remove(segment);
+        } else {
+          segments.add(segment);
+        }
+      }
+    }
+    int numSegments = segments.size();
+    ImmutableSegmentImpl[] segmentArray = segments.toArray(new ImmutableSegmentImpl[0]);
+    String[] segmentNames = new String[numSegments];
+    long[] creationTimes = new long[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      ImmutableSegmentImpl segment = segments.get(i);
+      if (!_enableSnapshot) {
+        segment.deleteValidDocIdsSnapshot();
+      }
+      segmentNames[i] = segment.getSegmentName();
+      creationTimes[i] = getAuthoritativeCreationTime(segment);
+    }
+    BootstrapProgress progress = new BootstrapProgress(numSegments, startTimeMs);
+
+    // Read the records of each segment into a partial map, and merge it into the map of the winning records
+    Map<Object, BootstrapRecord> winningRecords = new ConcurrentHashMap<>();
+    List<Future<?>> futures = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      int segmentIndex = i;
+      futures.add(executor.submit(() -> {
+        ImmutableSegmentImpl segment = segmentArray[segmentIndex];
+        int numDocs = segment.getSegmentMetadata().getTotalDocs();
+        Map<Object, BootstrapRecord> partialRecords = new HashMap<>();
+        try (UpsertUtils.RecordInfoReader recordInfoReader = new UpsertUtils.RecordInfoReader(segment,
+            _primaryKeyColumns, _comparisonColumns, _deleteRecordColumn)) {
+          for (int docId = 0; docId < numDocs; docId++) {
+            RecordInfo recordInfo = recordInfoReader.getRecordInfo(docId);
+            partialRecords.merge(HashUtils.hashPrimaryKey(recordInfo.getPrimaryKey(), _hashFunction),
+                new BootstrapRecord(segmentIndex, docId, recordInfo.getComparisonValue()),
+                (record1, record2) -> getBootstrapWinner(record1, record2, segmentNames, creationTimes));
           }
-          _logger.info("Skip segment: {} on tier: {} as it has no validDocIds snapshot", segmentName, tier);
-          return false;
-        });
+        } catch (IOException e) {
+          throw new RuntimeException(
+              String.format("Caught exception while reading segment: %s, table: %s", segmentNames[segmentIndex],
+                  _tableNameWithType), e);
+        }
+        partialRecords.forEach((primaryKey, record) -> winningRecords.merge(primaryKey, record,
+            (record1, record2) -> getBootstrapWinner(record1, record2, segmentNames, creationTimes)));
+        progress.segmentRead(segmentNames[segmentIndex], numDocs, partialRecords.size());
+      }));
+    }
+    waitForBootstrapTasks(futures);
+    long readTimeMs = System.currentTimeMillis() - startTimeMs;
+
+    MutableRoaringBitmap[] docIdsToAdd = new MutableRoaringBitmap[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      docIdsToAdd[i] = new MutableRoaringBitmap();
+    }
+    for (BootstrapRecord record : winningRecords.values()) {
+      docIdsToAdd[record._segmentIndex].add(record._docId);
+    }
+    int numWinningRecords = winningRecords.size();
+    winningRecords.clear();
+
+    // Add the winning records of each segment, which don't conflict with the records from the other segments
+    futures.clear();
+    for (int i = 0; i < numSegments; i++) {
+      int segmentIndex = i;
+      futures.add(executor.submit(() -> {
+        ImmutableSegmentImpl segment = segmentArray[segmentIndex];
+        segmentsNotBootstrapped.remove(segment);
+        try (UpsertUtils.RecordInfoReader recordInfoReader = new UpsertUtils.RecordInfoReader(segment,
+            _primaryKeyColumns, _comparisonColumns, _deleteRecordColumn)) {
+          addSegment(segment, null, null,
+              UpsertUtils.getRecordInfoIterator(recordInfoReader, docIdsToAdd[segmentIndex]));
+        } catch (IOException e) {
+          throw new RuntimeException(
+              String.format("Caught exception while adding segment: %s, table: %s", segmentNames[segmentIndex],
+                  _tableNameWithType), e);
+        }
+        progress.segmentAdded();
+      }));
+    }
+    waitForBootstrapTasks(futures);
+
+    long numPrimaryKeys = getNumPrimaryKeys();
+    updatePrimaryKeyGauge(numPrimaryKeys);
+    long durationMs = System.currentTimeMillis() - startTimeMs;
+    _logger.info("Bootstrapped {} segments with {} docs and {} winning records in {}ms (reading: {}ms, {} docs/s), "
+            + "current primary key count: {}", numSegments, progress._numDocsRead.get(), numWinningRecords, durationMs,
+        readTimeMs, progress.getDocsPerSecond(), numPrimaryKeys);
+  }
+
+  /**
+   * Returns the winning record between 2 records of the same primary key during bootstrap. The result is the same
+   * regardless of the argument order.
+   */
+  @SuppressWarnings("unchecked")
+  private BootstrapRecord getBootstrapWinner(BootstrapRecord record1, BootstrapRecord record2, String[] segmentNames,
+      long[] creationTimes) {
+    int comparisonResult = record1._comparisonValue.compareTo(record2._comparisonValue);
+    if (comparisonResult != 0) {
+      return comparisonResult > 0 ? record1 : record2;
+    }
+    int segmentIndex1 = record1._segmentIndex;
+    int segmentIndex2 = record2._segmentIndex;
+    if (segmentIndex1 == segmentIndex2) {
+      // Within the same segment, the later record wins
+      return record1._docId > record2._docId ? record1 : record2;
+    }
+    String segmentName1 = segmentNames[segmentIndex1];
+    String segmentName2 = segmentNames[segmentIndex2];
+    if (shouldReplaceOnComparisonTie(segmentName1, segmentName2, creationTimes[segmentIndex1],
+        creationTimes[segmentIndex2])) {
+      return record1;
+    }
+    if (shouldReplaceOnComparisonTie(segmentName2, segmentName1, creationTimes[segmentIndex2],
+        creationTimes[segmentIndex1])) {
+      return record2;
+    }
+    return segmentName1.compareTo(segmentName2) > 0 ? record1 : record2;
+  }
+
+  private static void waitForBootstrapTasks(List<Future<?>> futures)
+      throws Exception {
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      for (Future<?> future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+
+  private static class BootstrapRecord {
+    final int _segmentIndex;
+    final int _docId;
+    final Comparable _comparisonValue;
+
+    BootstrapRecord(int segmentIndex, int docId, Comparable comparisonValue) {
+      _segmentIndex = segmentIndex;
+      _docId = docId;
+      _comparisonValue = comparisonValue;
+    }
+  }
+
+  /**
+   * Tracks the progress of the bootstrap, which has 2 steps for each segment (reading and adding), and reports it with
+   * the read throughput via logs and partition gauges.
+   */
+  private class BootstrapProgress {
+    final int _numSegments;
+    final long _startTimeMs;
+    final AtomicInteger _numSegmentsRead = new AtomicInteger();
+    final AtomicInteger _numSegmentsAdded = new AtomicInteger();
+    final AtomicLong _numDocsRead = new AtomicLong();
+
+    BootstrapProgress(int numSegments, long startTimeMs) {
+      _numSegments = numSegments;
+      _startTimeMs = startTimeMs;
+      updateProgressGauge();
+    }
+
+    void segmentRead(String segmentName, int numDocs, int numPrimaryKeys) {
+      int numSegmentsRead = _numSegmentsRead.incrementAndGet();
+      _numDocsRead.addAndGet(numDocs);
+      long docsPerSecond = getDocsPerSecond();
+      _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId,
+          ServerGauge.UPSERT_BOOTSTRAP_DOCS_PER_SECOND, docsPerSecond);
+      updateProgressGauge();
+      _logger.info("Read {} docs with {} primary keys from segment: {} for bootstrap ({}/{} segments read, {} docs/s)",
+          numDocs, numPrimaryKeys, segmentName, numSegmentsRead, _numSegments, docsPerSecond);
+    }
+
+    void segmentAdded() {
+      _numSegmentsAdded.incrementAndGet();
+      updateProgressGauge();
+    }
+
+    long getDocsPerSecond() {
+      return _numDocsRead.get() * 1000 / Math.max(System.currentTimeMillis() - _startTimeMs, 1);
+    }
+
+    void updateProgressGauge() {
+      long progressPercent =
+          _numSegments > 0 ? 50L * (_numSegmentsRead.get() + _numSegmentsAdded.get()) / _numSegments : 100;
+      _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId,
+          ServerGauge.UPSERT_BOOTSTRAP_PROGRESS_PERCENT, progressPercent);
+    }
   }
 
   @Override
@@ -391,6 +668,22 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
   @Override
   public void preloadSegment(ImmutableSegment segment) {
     String segmentName = segment.getSegmentName();
+    if (_context.isParallelBootstrapEnabled()) {
+      if (segment instanceof EmptyIndexSegment) {
+        _logger.info("Skip preloading empty segment: {}", segmentName);
+        return;
+      }
+      Preconditions.checkArgument(segment instanceof ImmutableSegmentImpl,
+          "Got unsupported segment implementation: %s for segment: %s, table: %s", segment.getClass(), segmentName,
+          _tableNameWithType);
+      if (!_context.isPreloadEnabled() || !((ImmutableSegmentImpl) segment).hasValidDocIdsSnapshotFile()) {
+        _logger.info("Defer segment: {} to be bootstrapped after all segments are loaded", segmentName);
+        synchronized (_segmentsToBootstrap) {
+          _segmentsToBootstrap.add((ImmutableSegmentImpl) segment);
+        }
+        return;
+      }
+    }
     Preconditions.checkArgument(_enableSnapshot, "Snapshot must be enabled to preload segment: %s, table: %s",
         segmentName, _tableNameWithType);
     // Note that EmptyIndexSegment should not reach here either, as it doesn't have validDocIds snapshot.
@@ -1045,6 +1338,11 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
     // it's closed. This was done to make table deletion faster. Since we don't remove the segment, we never decrease
     // the primary key count. So, we set the primary key count to 0 here.
     updatePrimaryKeyGauge(0);
+    // Remove the bootstrap gauges so that they are not left behind after the partition is moved away from the server
+    _serverMetrics.removePartitionGauge(_tableNameWithType, _partitionId,
+        ServerGauge.UPSERT_BOOTSTRAP_PROGRESS_PERCENT);
+    _serverMetrics.removePartitionGauge(_tableNameWithType, _partitionId,
+        ServerGauge.UPSERT_BOOTSTRAP_DOCS_PER_SECOND);
     _logger.info("Closed the metadata manager");
   }
 
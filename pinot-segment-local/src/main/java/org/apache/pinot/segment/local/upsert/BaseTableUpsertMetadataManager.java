@@ -82,6 +82,13 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
       }
     }
 
+    boolean enableParallelBootstrap = instanceUpsertConfig.getProperty(Upsert.DEFAULT_ENABLE_PARALLEL_BOOTSTRAP, false);
+    if (enableParallelBootstrap && tableDataManager.getSegmentPreloadExecutor() == null) {
+      LOGGER.warn("Parallel bootstrap cannot be enabled without segment preload executor for table: {}",
+          _tableNameWithType);
+      enableParallelBootstrap = false;
+    }
+
     double metadataTTL = upsertConfig.getMetadataTTL();
     double deletedKeysTTL = upsertConfig.getDeletedKeysTTL();
     boolean enableDeletedKeysCompactionConsistency = upsertConfig.isEnableDeletedKeysCompactionConsistency();
@@ -96,6 +103,11 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
             _tableNameWithType);
         enableDeletedKeysCompactionConsistency = false;
       }
+      if (enableParallelBootstrap) {
+        LOGGER.warn("Deleted keys compaction consistency cannot be enabled with parallel bootstrap for table: {}",
+            _tableNameWithType);
+        enableDeletedKeysCompactionConsistency = false;
+      }
       if (metadataTTL > 0) {
         LOGGER.warn("Deleted keys compaction consistency cannot be enabled with metadata TTL for table: {}",
             _tableNameWithType);
@@ -128,6 +140,7 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
         .setOutOfOrderRecordColumn(upsertConfig.getOutOfOrderRecordColumn())
         .setEnableSnapshot(enableSnapshot)
         .setEnablePreload(enablePreload)
+        .setEnableParallelBootstrap(enableParallelBootstrap)
         .setMetadataTTL(metadataTTL)
         .setDeletedKeysTTL(deletedKeysTTL)
         .setEnableDeletedKeysCompactionConsistency(enableDeletedKeysCompactionConsistency)
@@ -47,10 +47,13 @@ public class ConcurrentMapTableUpsertMetadataManager extends BaseTableUpsertMeta
 
   @Override
   public BasePartitionUpsertMetadataManager getOrCreatePartitionManager(int partitionId) {
-    return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
-        k -> _context.isEnableDeletedKeysCompactionConsistency()
-            ? new ConcurrentMapPartitionUpsertMetadataManagerForConsistentDeletes(_tableNameWithType, k, _context)
-            : new ConcurrentMapPartitionUpsertMetadataManager(_tableNameWithType, k, _context));
+    return _partitionMetadataManagerMap.computeIfAbsent(partitionId, this::createPartitionManager);
+  }
+
+  protected BasePartitionUpsertMetadataManager createPartitionManager(int partitionId) {
+    return _context.isEnableDeletedKeysCompactionConsistency()
+        ? new ConcurrentMapPartitionUpsertMetadataManagerForConsistentDeletes(_tableNameWithType, partitionId, _context)
+        : new ConcurrentMapPartitionUpsertMetadataManager(_tableNameWithType, partitionId, _context);
   }
 
   @Override
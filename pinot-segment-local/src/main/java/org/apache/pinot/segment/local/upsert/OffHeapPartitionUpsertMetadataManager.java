@@ -0,0 +1,623 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.HelixManager;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.LazyRow;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.local.utils.SegmentIdRegistry;
+import org.apache.pinot.segment.local.utils.SegmentIdRegistry.PersistedSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKey;
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKeyHigh;
+import static org.apache.pinot.segment.local.utils.SegmentIdRegistry.getKeyLow;
+
+
+/**
+ * Implementation of {@link PartitionUpsertMetadataManager} that is backed by an {@link OffHeapPrimaryKeyMap}, which
+ * keeps the primary keys out of the heap to support tables with a large number of primary keys.
+ * <p>The primary keys are stored as 128-bit hashes (the output of the configured hash function if it is 16 bytes long,
+ * or the MURMUR3 hash of it otherwise), and the record locations are stored as segment id, doc id and comparison
+ * value. Only a single comparison column of numeric type (INT, LONG, FLOAT or DOUBLE as the stored type) is supported
+ * so that the comparison value fits into 8 bytes.
+ * <p>When both snapshot and preload are enabled (and TTL is disabled), the map is persisted along with the validDocIds
+ * snapshots, and on restart the preloaded segments are bound to the persisted map instead of replaying their primary
+ * keys. The persisted map is only used when the snapshots of all the immutable segments are taken in the same round.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+@ThreadSafe
+public class OffHeapPartitionUpsertMetadataManager extends BasePartitionUpsertMetadataManager {
+  private static final String METADATA_HASH_FUNCTION = "hashFunction";
+  private static final String METADATA_PRIMARY_KEY_COLUMNS = "primaryKeyColumns";
+  private static final String METADATA_COMPARISON_COLUMN = "comparisonColumn";
+  private static final String METADATA_COMPARISON_VALUE_TYPE = "comparisonValueType";
+
+  // Used to initialize a reference to previous row for merging in partial upsert
+  private final LazyRow _reusePreviousRow = new LazyRow();
+  private final Map<String, Object> _reuseMergeResultHolder = new HashMap<>();
+
+  private final DataType _comparisonValueType;
+  private final boolean _persistEnabled;
+  private final File _mapFile;
+  private final File _metadataFile;
+  @VisibleForTesting
+  final OffHeapPrimaryKeyMap _primaryKeyToRecordLocationMap;
+
+  // Segments are referenced by id from the off-heap map
+  private final SegmentIdRegistry _segmentIdRegistry;
+
+  // Updates to the map take the read lock, and persisting the map along with the validDocIds snapshots takes the
+  // write lock, so that the persisted map is consistent with the snapshots.
+  private final ReadWriteLock _persistLock = new ReentrantReadWriteLock();
+
+  // Segments in the persisted map which are not bound yet, keyed by segment name. Only set before preloading.
+  private volatile Map<String, PersistedSegment> _persistedSegments;
+
+  public OffHeapPartitionUpsertMetadataManager(String tableNameWithType, int partitionId, UpsertContext context) {
+    super(tableNameWithType, partitionId, context);
+    Preconditions.checkState(!context.isEnableDeletedKeysCompactionConsistency(),
+        "Off-heap upsert metadata manager does not support enableDeletedKeysCompactionConsistency for table: %s",
+        tableNameWithType);
+    Preconditions.checkState(_comparisonColumns.size() == 1,
+        "Off-heap upsert metadata manager requires a single comparison column for table: %s", tableNameWithType);
+    String comparisonColumn = _comparisonColumns.get(0);
+    FieldSpec fieldSpec = context.getSchema().getFieldSpecFor(comparisonColumn);
+    Preconditions.checkState(fieldSpec != null, "Failed to find comparison column: %s in schema for table: %s",
+        comparisonColumn, tableNameWithType);
+    _comparisonValueType = fieldSpec.getDataType().getStoredType();
+    Preconditions.checkState(_comparisonValueType == DataType.INT || _comparisonValueType == DataType.LONG
+            || _comparisonValueType == DataType.FLOAT || _comparisonValueType == DataType.DOUBLE,
+        "Off-heap upsert metadata manager requires comparison column of type INT/LONG/FLOAT/DOUBLE, got: %s for "
+            + "column: %s in table: %s", _comparisonValueType, comparisonColumn, tableNameWithType);
+    _persistEnabled = _enableSnapshot && context.isPreloadEnabled() && !isTTLEnabled() && _tableIndexDir != null;
+    _mapFile = new File(_tableIndexDir, V1Constants.UPSERT_PRIMARY_KEY_MAP_TABLE_PARTITION + partitionId);
+    _metadataFile =
+        new File(_tableIndexDir, V1Constants.UPSERT_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION + partitionId);
+
+    String description = tableNameWithType + ".partition" + partitionId + ".upsertPrimaryKeyMap";
+    OffHeapPrimaryKeyMap persistedMap = null;
+    int nextSegmentId = 1;
+    if (_persistEnabled && _mapFile.exists() && _metadataFile.exists()) {
+      try {
+        JsonNode metadata = JsonUtils.fileToJsonNode(_metadataFile);
+        if (isPersistedMapCompatible(metadata)) {
+          Map<String, PersistedSegment> persistedSegments =
+              SegmentIdRegistry.readPersistedSegments(metadata.get(SegmentIdRegistry.METADATA_SEGMENTS));
+          persistedMap = OffHeapPrimaryKeyMap.load(_mapFile, description);
+          nextSegmentId = metadata.get(SegmentIdRegistry.METADATA_NEXT_SEGMENT_ID).asInt();
+          _persistedSegments = persistedSegments;
+          _logger.info("Loaded persisted primary key map with {} primary keys for {} segments", persistedMap.size(),
+              persistedSegments.size());
+        } else {
+          _logger.info("Skip loading persisted primary key map with incompatible metadata: {}", metadata);
+        }
+      } catch (Exception e) {
+        _logger.warn("Caught exception while loading persisted primary key map, skipping", e);
+        if (persistedMap != null) {
+          persistedMap.close();
+          persistedMap = null;
+        }
+      }
+    }
+    if (persistedMap == null) {
+      deletePersistedMap();
+    }
+    _primaryKeyToRecordLocationMap = persistedMap != null ? persistedMap : new OffHeapPrimaryKeyMap(description);
+    _segmentIdRegistry = new SegmentIdRegistry(nextSegmentId);
+  }
+
+  @Override
+  protected long getNumPrimaryKeys() {
+    return _primaryKeyToRecordLocationMap.size();
+  }
+
+  @Override
+  protected void doPreloadSegments(TableDataManager tableDataManager, IndexLoadingConfig indexLoadingConfig,
+      HelixManager helixManager, ExecutorService segmentPreloadExecutor)
+      throws Exception {
+    try {
+      super.doPreloadSegments(tableDataManager, indexLoadingConfig, helixManager, segmentPreloadExecutor);
+    } finally {
+      if (_persistedSegments != null) {
+        _persistedSegments = null;
+        long numKeysRemoved = _primaryKeyToRecordLocationMap.removeIf(location -> getSegment(location) == null);
+        _logger.info("Removed {} primary keys of the segments not preloaded from the persisted primary key map",
+            numKeysRemoved);
+        updatePrimaryKeyGauge();
+      }
+    }
+  }
+
+  @Override
+  protected void doPreloadSegment(ImmutableSegmentImpl segment) {
+    String segmentName = segment.getSegmentName();
+    Map<String, PersistedSegment> persistedSegments = _persistedSegments;
+    PersistedSegment persistedSegment = persistedSegments != null ? persistedSegments.remove(segmentName) : null;
+    if (persistedSegment == null || !persistedSegment.matches(segment)) {
+      super.doPreloadSegment(segment);
+      return;
+    }
+    MutableRoaringBitmap validDocIds = segment.loadValidDocIdsFromSnapshot();
+    Preconditions.checkState(validDocIds != null,
+        "Snapshot of validDocIds is required to preload segment: %s, table: %s", segmentName, _tableNameWithType);
+    MutableRoaringBitmap queryableDocIds = getQueryableDocIds(segment, validDocIds);
+    segment.enableUpsert(this, new ThreadSafeMutableRoaringBitmap(validDocIds),
+        queryableDocIds != null ? new ThreadSafeMutableRoaringBitmap(queryableDocIds) : null);
+    _segmentIdRegistry.bind(segment, persistedSegment.getId());
+    _logger.info("Preloaded segment: {} with {} valid docs from the persisted primary key map", segmentName,
+        validDocIds.getCardinality());
+  }
+
+  @Override
+  protected void doAddOrReplaceSegment(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator,
+      @Nullable IndexSegment oldSegment, @Nullable MutableRoaringBitmap validDocIdsForOldSegment) {
+    String segmentName = segment.getSegmentName();
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = _segmentIdRegistry.getSegmentId(segment);
+
+    AtomicInteger numKeysInWrongSegment = new AtomicInteger();
+    Lock lock = _persistLock.readLock();
+    lock.lock();
+    try {
+      while (recordInfoIterator.hasNext()) {
+        RecordInfo recordInfo = recordInfoIterator.next();
+        int newDocId = recordInfo.getDocId();
+        Comparable newComparisonValue = recordInfo.getComparisonValue();
+        byte[] key = getKey(recordInfo.getPrimaryKey(), _hashFunction);
+        _primaryKeyToRecordLocationMap.compute(getKeyHigh(key), getKeyLow(key), currentRecordLocation -> {
+          IndexSegment currentSegment = getSegment(currentRecordLocation);
+          if (currentSegment != null) {
+            // Existing primary key
+            int currentDocId = currentRecordLocation.getDocId();
+            int comparisonResult = newComparisonValue.compareTo(decodeComparisonValue(currentRecordLocation));
+
+            // The current record is in the same segment
+            // Update the record location when there is a tie to keep the newer record. Note that the record info
+            // iterator will return records with incremental doc ids.
+            if (currentSegment == segment) {
+              if (comparisonResult >= 0) {
+                replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+                return newRecordLocation(segmentId, newDocId, newComparisonValue);
+              } else {
+                return currentRecordLocation;
+              }
+            }
+
+            // The current record is in an old segment being replaced
+            // See ConcurrentMapPartitionUpsertMetadataManager for details.
+            if (currentSegment == oldSegment) {
+              if (comparisonResult >= 0) {
+                if (validDocIdsForOldSegment == null && oldSegment.getValidDocIds() != null) {
+                  // Update the old segment's bitmap in place if a copy of the bitmap was not provided.
+                  replaceDocId(segment, validDocIds, queryableDocIds, oldSegment, currentDocId, newDocId, recordInfo);
+                } else {
+                  addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+                  if (validDocIdsForOldSegment != null) {
+                    validDocIdsForOldSegment.remove(currentDocId);
+                  }
+                }
+                return newRecordLocation(segmentId, newDocId, newComparisonValue);
+              } else {
+                return currentRecordLocation;
+              }
+            }
+
+            // This should not happen because the previously replaced segment should have all keys removed. We still
+            // handle it here, and also track the number of keys not properly replaced previously.
+            String currentSegmentName = currentSegment.getSegmentName();
+            if (currentSegmentName.equals(segmentName)) {
+              numKeysInWrongSegment.getAndIncrement();
+              if (comparisonResult >= 0) {
+                addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+                return newRecordLocation(segmentId, newDocId, newComparisonValue);
+              } else {
+                return currentRecordLocation;
+              }
+            }
+
+            // The current record is in a different segment
+            // Update the record location when getting a newer comparison value, or the value is the same as the
+            // current value, but the segment has a larger sequence number (the segment is newer than the current
+            // segment).
+            if (comparisonResult > 0 || (comparisonResult == 0 && shouldReplaceOnComparisonTie(segmentName,
+                currentSegmentName, getAuthoritativeCreationTime(segment),
+                getAuthoritativeCreationTime(currentSegment)))) {
+              replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+              return newRecordLocation(segmentId, newDocId, newComparisonValue);
+            } else {
+              return currentRecordLocation;
+            }
+          } else {
+            // New primary key
+            addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+            return newRecordLocation(segmentId, newDocId, newComparisonValue);
+          }
+        });
+      }
+    } finally {
+      lock.unlock();
+    }
+    int numKeys = numKeysInWrongSegment.get();
+    if (numKeys > 0) {
+      _logger.warn("Found {} primary keys in the wrong segment when adding segment: {}", numKeys, segmentName);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.UPSERT_KEYS_IN_WRONG_SEGMENT, numKeys);
+    }
+  }
+
+  @Override
+  protected void addSegmentWithoutUpsert(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator) {
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = _segmentIdRegistry.getSegmentId(segment);
+    Lock lock = _persistLock.readLock();
+    lock.lock();
+    try {
+      while (recordInfoIterator.hasNext()) {
+        RecordInfo recordInfo = recordInfoIterator.next();
+        int newDocId = recordInfo.getDocId();
+        addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+        byte[] key = getKey(recordInfo.getPrimaryKey(), _hashFunction);
+        _primaryKeyToRecordLocationMap.put(getKeyHigh(key), getKeyLow(key),
+            newRecordLocation(segmentId, newDocId, recordInfo.getComparisonValue()));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  protected void removeSegment(IndexSegment segment, Iterator<PrimaryKey> primaryKeyIterator) {
+    Integer segmentId = _segmentIdRegistry.getBoundSegmentId(segment);
+    if (segmentId == null) {
+      return;
+    }
+    Lock lock = _persistLock.readLock();
+    lock.lock();
+    try {
+      while (primaryKeyIterator.hasNext()) {
+        byte[] key = getKey(primaryKeyIterator.next(), _hashFunction);
+        _primaryKeyToRecordLocationMap.computeIfPresent(getKeyHigh(key), getKeyLow(key),
+            recordLocation -> recordLocation.getSegmentId() == segmentId ? null : recordLocation);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  protected void doRemoveSegment(IndexSegment segment) {
+    super.doRemoveSegment(segment);
+    // The keys left in the map (if any) are treated as non-existing after the segment is unbound
+    _segmentIdRegistry.unbind(segment);
+  }
+
+  @Override
+  public void doRemoveExpiredPrimaryKeys() {
+    AtomicInteger numMetadataTTLKeysRemoved = new AtomicInteger();
+    AtomicInteger numDeletedTTLKeysRemoved = new AtomicInteger();
+    AtomicInteger numTotalKeysMarkForDeletion = new AtomicInteger();
+    AtomicInteger numDeletedKeysWithinTTLWindow = new AtomicInteger();
+    double largestSeenComparisonValue = _largestSeenComparisonValue.get();
+    double metadataTTLKeysThreshold =
+        _metadataTTL > 0 ? largestSeenComparisonValue - _metadataTTL : Double.NEGATIVE_INFINITY;
+    double deletedKeysThreshold =
+        _deletedKeysTTL > 0 ? largestSeenComparisonValue - _deletedKeysTTL : Double.NEGATIVE_INFINITY;
+    Lock lock = _persistLock.readLock();
+    lock.lock();
+    try {
+      _primaryKeyToRecordLocationMap.removeIf(recordLocation -> {
+        IndexSegment segment = getSegment(recordLocation);
+        if (segment == null) {
+          return true;
+        }
+        double comparisonValue = ((Number) decodeComparisonValue(recordLocation)).doubleValue();
+        if (_metadataTTL > 0 && comparisonValue < metadataTTLKeysThreshold) {
+          numMetadataTTLKeysRemoved.getAndIncrement();
+          return true;
+        }
+        if (_deletedKeysTTL > 0) {
+          ThreadSafeMutableRoaringBitmap currentQueryableDocIds = segment.getQueryableDocIds();
+          // if key not part of queryable doc id, it means it is deleted
+          if (currentQueryableDocIds != null && !currentQueryableDocIds.contains(recordLocation.getDocId())) {
+            numTotalKeysMarkForDeletion.getAndIncrement();
+            if (comparisonValue >= deletedKeysThreshold) {
+              // If key is within the TTL window, do not remove it from the primary hashmap
+              numDeletedKeysWithinTTLWindow.getAndIncrement();
+            } else {
+              // delete key from primary hashmap
+              removeDocId(segment, recordLocation.getDocId());
+              numDeletedTTLKeysRemoved.getAndIncrement();
+              return true;
+            }
+          }
+        }
+        return false;
+      });
+    } finally {
+      lock.unlock();
+    }
+
+    // Update metrics
+    updatePrimaryKeyGauge();
+    int numMetadataTTLKeys = numMetadataTTLKeysRemoved.get();
+    if (numMetadataTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on metadataTTL", numMetadataTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.METADATA_TTL_PRIMARY_KEYS_REMOVED,
+          numMetadataTTLKeys);
+    }
+    int numDeletedTTLKeys = numDeletedTTLKeysRemoved.get();
+    if (numDeletedTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on deletedKeysTTL", numDeletedTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.DELETED_KEYS_TTL_PRIMARY_KEYS_REMOVED,
+          numDeletedTTLKeys);
+    }
+    int numTotalKeysMarkedForDeletion = numTotalKeysMarkForDeletion.get();
+    if (numTotalKeysMarkedForDeletion > 0) {
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.TOTAL_KEYS_MARKED_FOR_DELETION,
+          numTotalKeysMarkedForDeletion);
+    }
+    int numDeletedKeysWithinTTLWindowValue = numDeletedKeysWithinTTLWindow.get();
+    if (numDeletedKeysWithinTTLWindowValue > 0) {
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.DELETED_KEYS_WITHIN_TTL_WINDOW,
+          numDeletedKeysWithinTTLWindowValue);
+    }
+  }
+
+  @Override
+  protected boolean doAddRecord(MutableSegment segment, RecordInfo recordInfo) {
+    AtomicBoolean isOutOfOrderRecord = new AtomicBoolean(false);
+    ThreadSafeMutableRoaringBitmap validDocIds = Objects.requireNonNull(segment.getValidDocIds());
+    ThreadSafeMutableRoaringBitmap queryableDocIds = segment.getQueryableDocIds();
+    int segmentId = _segmentIdRegistry.getSegmentId(segment);
+    int newDocId = recordInfo.getDocId();
+    Comparable newComparisonValue = recordInfo.getComparisonValue();
+
+    // When TTL is enabled, update largestSeenComparisonValue when adding new record
+    if (isTTLEnabled()) {
+      double comparisonValue = ((Number) newComparisonValue).doubleValue();
+      _largestSeenComparisonValue.getAndUpdate(v -> Math.max(v, comparisonValue));
+    }
+
+    byte[] key = getKey(recordInfo.getPrimaryKey(), _hashFunction);
+    Lock lock = _persistLock.readLock();
+    lock.lock();
+    try {
+      _primaryKeyToRecordLocationMap.compute(getKeyHigh(key), getKeyLow(key), currentRecordLocation -> {
+        IndexSegment currentSegment = getSegment(currentRecordLocation);
+        if (currentSegment != null) {
+          // Existing primary key
+
+          // Update the record location when the new comparison value is greater than or equal to the current value.
+          // Update the record location when there is a tie to keep the newer record.
+          Comparable currentComparisonValue = decodeComparisonValue(currentRecordLocation);
+          if (newComparisonValue.compareTo(currentComparisonValue) >= 0) {
+            int currentDocId = currentRecordLocation.getDocId();
+            if (segment == currentSegment) {
+              replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+            } else {
+              replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+            }
+            return newRecordLocation(segmentId, newDocId, newComparisonValue);
+          } else {
+            // Out-of-order record
+            handleOutOfOrderEvent(currentComparisonValue, recordInfo.getComparisonValue());
+            isOutOfOrderRecord.set(true);
+            return currentRecordLocation;
+          }
+        } else {
+          // New primary key
+          addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+          return newRecordLocation(segmentId, newDocId, newComparisonValue);
+        }
+      });
+    } finally {
+      lock.unlock();
+    }
+
+    updatePrimaryKeyGauge();
+    return !isOutOfOrderRecord.get();
+  }
+
+  @Override
+  protected GenericRow doUpdateRecord(GenericRow record, RecordInfo recordInfo) {
+    assert _partialUpsertHandler != null;
+    byte[] key = getKey(recordInfo.getPrimaryKey(), _hashFunction);
+    _primaryKeyToRecordLocationMap.computeIfPresent(getKeyHigh(key), getKeyLow(key), recordLocation -> {
+      // Read the previous record if the following conditions are met:
+      // - New record is not a DELETE record
+      // - New record is not out-of-order
+      // - Previous record is not deleted
+      IndexSegment currentSegment = getSegment(recordLocation);
+      if (currentSegment != null && !recordInfo.isDeleteRecord()
+          && recordInfo.getComparisonValue().compareTo(decodeComparisonValue(recordLocation)) >= 0) {
+        ThreadSafeMutableRoaringBitmap currentQueryableDocIds = currentSegment.getQueryableDocIds();
+        int currentDocId = recordLocation.getDocId();
+        if (currentQueryableDocIds == null || currentQueryableDocIds.contains(currentDocId)) {
+          _reusePreviousRow.init(currentSegment, currentDocId);
+          _partialUpsertHandler.merge(_reusePreviousRow, record, _reuseMergeResultHolder);
+          _reuseMergeResultHolder.clear();
+        }
+      }
+      return recordLocation;
+    });
+    return record;
+  }
+
+  @Override
+  protected void doTakeSnapshot() {
+    if (!_persistEnabled) {
+      super.doTakeSnapshot();
+      return;
+    }
+    Lock lock = _persistLock.writeLock();
+    lock.lock();
+    try {
+      // Delete the metadata file first so that the persisted map is not used with the new validDocIds snapshots if
+      // failing to persist the map
+      FileUtils.deleteQuietly(_metadataFile);
+      super.doTakeSnapshot();
+      persistMap();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void persistMap() {
+    ArrayNode segments = JsonUtils.newArrayNode();
+    for (IndexSegment segment : _trackedSegments) {
+      if (!(segment instanceof ImmutableSegmentImpl)) {
+        continue;
+      }
+      if (_updatedSegmentsSinceLastSnapshot.contains(segment)) {
+        _logger.info("Skip persisting primary key map because snapshot is not taken for segment: {}",
+            segment.getSegmentName());
+        deletePersistedMap();
+        return;
+      }
+      Integer segmentId = _segmentIdRegistry.getBoundSegmentId(segment);
+      if (segmentId != null) {
+        segments.add(
+            SegmentIdRegistry.toJson(segmentId, segment.getSegmentName(), segment.getSegmentMetadata().getCrc()));
+      }
+    }
+    ObjectNode metadata = JsonUtils.newObjectNode();
+    metadata.put(METADATA_HASH_FUNCTION, _hashFunction.name());
+    metadata.put(METADATA_PRIMARY_KEY_COLUMNS, String.join(",", _primaryKeyColumns));
+    metadata.put(METADATA_COMPARISON_COLUMN, _comparisonColumns.get(0));
+    metadata.put(METADATA_COMPARISON_VALUE_TYPE, _comparisonValueType.name());
+    try {
+      long startTimeMs = System.currentTimeMillis();
+      _segmentIdRegistry.removeUnboundSegments(_primaryKeyToRecordLocationMap);
+      _primaryKeyToRecordLocationMap.persist(_mapFile);
+      SegmentIdRegistry.writeMetadata(_metadataFile, metadata, _segmentIdRegistry.getNextSegmentId(), segments);
+      _logger.info("Persisted primary key map with {} primary keys for {} segments in {}ms",
+          _primaryKeyToRecordLocationMap.size(), segments.size(), System.currentTimeMillis() - startTimeMs);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while persisting primary key map", e);
+      deletePersistedMap();
+    }
+  }
+
+  private boolean isPersistedMapCompatible(JsonNode metadata) {
+    return _hashFunction.name().equals(metadata.path(METADATA_HASH_FUNCTION).asText()) && String.join(",",
+        _primaryKeyColumns).equals(metadata.path(METADATA_PRIMARY_KEY_COLUMNS).asText())
+        && _comparisonColumns.get(0).equals(metadata.path(METADATA_COMPARISON_COLUMN).asText())
+        && _comparisonValueType.name().equals(metadata.path(METADATA_COMPARISON_VALUE_TYPE).asText());
+  }
+
+  private void deletePersistedMap() {
+    FileUtils.deleteQuietly(_metadataFile);
+    FileUtils.deleteQuietly(_mapFile);
+  }
+
+  /**
+   * Returns the segment of the given record location, or {@code null} if the record location is {@code null} or the
+   * segment is no longer bound to the segment id.
+   */
+  @VisibleForTesting
+  @Nullable
+  IndexSegment getSegment(@Nullable Location recordLocation) {
+    return _segmentIdRegistry.getSegment(recordLocation);
+  }
+
+  @VisibleForTesting
+  @Nullable
+  Location getRecordLocation(PrimaryKey primaryKey) {
+    byte[] key = getKey(primaryKey, _hashFunction);
+    return _primaryKeyToRecordLocationMap.get(getKeyHigh(key), getKeyLow(key));
+  }
+
+  private Location newRecordLocation(int segmentId, int docId, Comparable comparisonValue) {
+    return new Location(segmentId, docId, encodeComparisonValue(comparisonValue));
+  }
+
+  @VisibleForTesting
+  long encodeComparisonValue(Comparable comparisonValue) {
+    switch (_comparisonValueType) {
+      case INT:
+      case LONG:
+        return ((Number) comparisonValue).longValue();
+      case FLOAT:
+        return Float.floatToRawIntBits(((Number) comparisonValue).floatValue());
+      case DOUBLE:
+        return Double.doubleToRawLongBits(((Number) comparisonValue).doubleValue());
+      default:
+        throw new IllegalStateException("Unsupported comparison value type: " + _comparisonValueType);
+    }
+  }
+
+  @VisibleForTesting
+  Comparable decodeComparisonValue(Location recordLocation) {
+    long value = recordLocation.getValue();
+    switch (_comparisonValueType) {
+      case INT:
+        return (int) value;
+      case LONG:
+        return value;
+      case FLOAT:
+        return Float.intBitsToFloat((int) value);
+      case DOUBLE:
+        return Double.longBitsToDouble(value);
+      default:
+        throw new IllegalStateException("Unsupported comparison value type: " + _comparisonValueType);
+    }
+  }
+
+  @Override
+  protected void doClose()
+      throws IOException {
+    _primaryKeyToRecordLocationMap.close();
+  }
+}
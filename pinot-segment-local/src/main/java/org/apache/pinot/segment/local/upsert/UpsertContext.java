@@ -47,6 +47,7 @@ public class UpsertContext {
   private final String _outOfOrderRecordColumn;
   private final boolean _enableSnapshot;
   private final boolean _enablePreload;
+  private final boolean _enableParallelBootstrap;
   private final double _metadataTTL;
   private final double _deletedKeysTTL;
   private final boolean _enableDeletedKeysCompactionConsistency;
@@ -68,9 +69,9 @@ public class UpsertContext {
   private UpsertContext(TableConfig tableConfig, Schema schema, List<String> primaryKeyColumns,
       HashFunction hashFunction, List<String> comparisonColumns, @Nullable PartialUpsertHandler partialUpsertHandler,
       @Nullable String deleteRecordColumn, boolean dropOutOfOrderRecord, @Nullable String outOfOrderRecordColumn,
-      boolean enableSnapshot, boolean enablePreload, double metadataTTL, double deletedKeysTTL,
-      boolean enableDeletedKeysCompactionConsistency, UpsertConfig.ConsistencyMode consistencyMode,
-      long upsertViewRefreshIntervalMs, long newSegmentTrackingTimeMs,
+      boolean enableSnapshot, boolean enablePreload, boolean enableParallelBootstrap, double metadataTTL,
+      double deletedKeysTTL, boolean enableDeletedKeysCompactionConsistency,
+      UpsertConfig.ConsistencyMode consistencyMode, long upsertViewRefreshIntervalMs, long newSegmentTrackingTimeMs,
       @Nullable Map<String, String> metadataManagerConfigs, boolean allowPartialUpsertConsumptionDuringCommit,
       @Nullable TableDataManager tableDataManager, File tableIndexDir) {
     _tableConfig = tableConfig;
@@ -84,6 +85,7 @@ public class UpsertContext {
     _outOfOrderRecordColumn = outOfOrderRecordColumn;
     _enableSnapshot = enableSnapshot;
     _enablePreload = enablePreload;
+    _enableParallelBootstrap = enableParallelBootstrap;
     _metadataTTL = metadataTTL;
     _deletedKeysTTL = deletedKeysTTL;
     _enableDeletedKeysCompactionConsistency = enableDeletedKeysCompactionConsistency;
@@ -147,6 +149,10 @@ public class UpsertContext {
     return _enablePreload;
   }
 
+  public boolean isParallelBootstrapEnabled() {
+    return _enableParallelBootstrap;
+  }
+
   public double getMetadataTTL() {
     return _metadataTTL;
   }
@@ -202,6 +208,7 @@ public class UpsertContext {
         .append("outOfOrderRecordColumn", _outOfOrderRecordColumn)
         .append("enableSnapshot", _enableSnapshot)
         .append("enablePreload", _enablePreload)
+        .append("enableParallelBootstrap", _enableParallelBootstrap)
         .append("metadataTTL", _metadataTTL)
         .append("deletedKeysTTL", _deletedKeysTTL)
         .append("enableDeletedKeysCompactionConsistency", _enableDeletedKeysCompactionConsistency)
@@ -226,6 +233,7 @@ public class UpsertContext {
     private String _outOfOrderRecordColumn;
     private boolean _enableSnapshot;
     private boolean _enablePreload;
+    private boolean _enableParallelBootstrap;
     private double _metadataTTL;
     private double _deletedKeysTTL;
     private boolean _enableDeletedKeysCompactionConsistency;
@@ -293,6 +301,11 @@ public class UpsertContext {
       return this;
     }
 
+    public Builder setEnableParallelBootstrap(boolean enableParallelBootstrap) {
+      _enableParallelBootstrap = enableParallelBootstrap;
+      return this;
+    }
+
     public Builder setMetadataTTL(double metadataTTL) {
       _metadataTTL = metadataTTL;
       return this;
@@ -357,9 +370,10 @@ public class UpsertContext {
       }
       return new UpsertContext(_tableConfig, _schema, _primaryKeyColumns, _hashFunction, _comparisonColumns,
           _partialUpsertHandler, _deleteRecordColumn, _dropOutOfOrderRecord, _outOfOrderRecordColumn, _enableSnapshot,
-          _enablePreload, _metadataTTL, _deletedKeysTTL, _enableDeletedKeysCompactionConsistency, _consistencyMode,
-          _upsertViewRefreshIntervalMs, _newSegmentTrackingTimeMs, _metadataManagerConfigs,
-          _allowPartialUpsertConsumptionDuringCommit, _tableDataManager, _tableIndexDir);
+          _enablePreload, _enableParallelBootstrap, _metadataTTL, _deletedKeysTTL,
+          _enableDeletedKeysCompactionConsistency, _consistencyMode, _upsertViewRefreshIntervalMs,
+          _newSegmentTrackingTimeMs, _metadataManagerConfigs, _allowPartialUpsertConsumptionDuringCommit,
+          _tableDataManager, _tableIndexDir);
     }
   }
 }
@@ -0,0 +1,491 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Off-heap hash map from 128-bit hashed primary keys to record locations, where a record location is packed as a
+ * segment id, a doc id and a 64-bit value (e.g. the comparison value of the record).
+ * <p>The map is split into a fixed number of shards, each being an open addressing hash table with linear probing
+ * backed by a direct {@link PinotDataBuffer} and guarded by its own lock. Each slot takes {@link #SLOT_SIZE} bytes:
+ * <ul>
+ *   <li>Key: 16 bytes (2 longs)</li>
+ *   <li>Segment id: 4 bytes, where 0 marks an empty slot and -1 marks a removed slot</li>
+ *   <li>Doc id: 4 bytes</li>
+ *   <li>Value: 8 bytes</li>
+ * </ul>
+ * <p>Segment ids must be positive. The map can be persisted into a file and loaded back, so that the map can be
+ * restored without rebuilding it from the primary keys.
+ */
+@ThreadSafe
+public class OffHeapPrimaryKeyMap implements Closeable {
+  public static final int SLOT_SIZE = 32;
+  public static final int NUM_SHARDS = 16;
+
+  private static final int KEY_HIGH_OFFSET = 0;
+  private static final int KEY_LOW_OFFSET = 8;
+  private static final int SEGMENT_ID_OFFSET = 16;
+  private static final int DOC_ID_OFFSET = 20;
+  private static final int VALUE_OFFSET = 24;
+  private static final int EMPTY = 0;
+  private static final int REMOVED = -1;
+
+  private static final int SHARD_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(NUM_SHARDS);
+  private static final int DEFAULT_SHARD_CAPACITY = 1024;
+  private static final int MAX_SHARD_CAPACITY = 1 << 30;
+  private static final double MAX_LOAD_FACTOR = 0.7;
+
+  private static final long MAGIC = 0x50494E4F544B4D50L;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+  private static final int SHARD_HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final String _description;
+  private final Shard[] _shards = new Shard[NUM_SHARDS];
+
+  public OffHeapPrimaryKeyMap(String description) {
+    this(description, DEFAULT_SHARD_CAPACITY);
+  }
+
+  private OffHeapPrimaryKeyMap(String description, int shardCapacity) {
+    _description = description;
+    for (int i = 0; i < NUM_SHARDS; i++) {
+      _shards[i] = new Shard(description + ".shard" + i, shardCapacity);
+    }
+  }
+
+  /**
+   * Returns the location of the given key, or {@code null} if the key does not exist.
+   */
+  @Nullable
+  public Location get(long keyHigh, long keyLow) {
+    long hash = hash(keyHigh, keyLow);
+    return getShard(hash).get(keyHigh, keyLow, hash);
+  }
+
+  /**
+   * Puts the location for the given key, and returns the previous location, or {@code null} if the key did not exist.
+   */
+  @Nullable
+  public Location put(long keyHigh, long keyLow, Location location) {
+    long hash = hash(keyHigh, keyLow);
+    return getShard(hash).put(keyHigh, keyLow, hash, location);
+  }
+
+  /**
+   * Computes the location for the given key with the current location ({@code null} if the key does not exist) while
+   * holding the lock of the key, and returns the new location. Returning {@code null} from the remapping function
+   * removes the key, and returning the current location leaves the map unchanged.
+   * <p>NOTE: The remapping function must not access this map.
+   */
+  @Nullable
+  public Location compute(long keyHigh, long keyLow, Function<Location, Location> remappingFunction) {
+    long hash = hash(keyHigh, keyLow);
+    return getShard(hash).compute(keyHigh, keyLow, hash, remappingFunction, false);
+  }
+
+  /**
+   * Same as {@link #compute(long, long, Function)}, but only invokes the remapping function when the key exists.
+   */
+  @Nullable
+  public Location computeIfPresent(long keyHigh, long keyLow, Function<Location, Location> remappingFunction) {
+    long hash = hash(keyHigh, keyLow);
+    return getShard(hash).compute(keyHigh, keyLow, hash, remappingFunction, true);
+  }
+
+  /**
+   * Removes all the keys whose location matches the given predicate, and returns the number of keys removed. Each
+   * shard is locked while being scanned.
+   * <p>NOTE: The predicate must not access this map.
+   */
+  public long removeIf(Predicate<Location> predicate) {
+    long numRemoved = 0;
+    for (Shard shard : _shards) {
+      numRemoved += shard.removeIf(predicate);
+    }
+    return numRemoved;
+  }
+
+  public long size() {
+    long size = 0;
+    for (Shard shard : _shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the off-heap memory used by the map in bytes.
+   */
+  public long getMemoryUsage() {
+    long memoryUsage = 0;
+    for (Shard shard : _shards) {
+      memoryUsage += shard.getMemoryUsage();
+    }
+    return memoryUsage;
+  }
+
+  /**
+   * Persists the map into the given file in native byte order. The file is first written as a temporary file, then
+   * atomically moved to the destination. Each shard is locked while being written, so the callers should block the
+   * updates to the map if a consistent view across shards is required.
+   */
+  public void persist(File file)
+      throws IOException {
+    File tmpFile = new File(file.getPath() + ".tmp");
+    Files.deleteIfExists(tmpFile.toPath());
+    long size = HEADER_SIZE + (long) NUM_SHARDS * SHARD_HEADER_SIZE;
+    for (Shard shard : _shards) {
+      size += shard.getMemoryUsage();
+    }
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapFile(tmpFile, false, 0, size, ByteOrder.nativeOrder(),
+        _description + ".persist")) {
+      buffer.putLong(0, MAGIC);
+      buffer.putInt(Long.BYTES, VERSION);
+      buffer.putInt(Long.BYTES + Integer.BYTES, NUM_SHARDS);
+      long offset = HEADER_SIZE + (long) NUM_SHARDS * SHARD_HEADER_SIZE;
+      for (int i = 0; i < NUM_SHARDS; i++) {
+        offset += _shards[i].writeTo(buffer, HEADER_SIZE + (long) i * SHARD_HEADER_SIZE, offset);
+      }
+      buffer.flush();
+    }
+    Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Loads a map persisted with {@link #persist(File)}. The slots are copied into direct buffers, so the file is not
+   * referenced after the method returns. A file persisted with a different native byte order is rejected as
+   * invalid.
+   */
+  public static OffHeapPrimaryKeyMap load(File file, String description)
+      throws IOException {
+    OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap(description, 0);
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapFile(file, true, 0, file.length(), ByteOrder.nativeOrder(),
+        description + ".load")) {
+      Preconditions.checkState(buffer.size() >= HEADER_SIZE && buffer.getLong(0) == MAGIC,
+          "Invalid primary key map file: %s", file);
+      int version = buffer.getInt(Long.BYTES);
+      Preconditions.checkState(version == VERSION, "Unsupported version: %s of primary key map file: %s", version,
+          file);
+      int numShards = buffer.getInt(Long.BYTES + Integer.BYTES);
+      Preconditions.checkState(numShards == NUM_SHARDS, "Unsupported number of shards: %s in primary key map file: %s",
+          numShards, file);
+      long offset = HEADER_SIZE + (long) NUM_SHARDS * SHARD_HEADER_SIZE;
+      for (int i = 0; i < NUM_SHARDS; i++) {
+        offset += map._shards[i].readFrom(buffer, HEADER_SIZE + (long) i * SHARD_HEADER_SIZE, offset);
+      }
+      Preconditions.checkState(offset == buffer.size(), "Corrupted primary key map file: %s", file);
+    } catch (RuntimeException e) {
+      map.close();
+      throw e;
+    }
+    return map;
+  }
+
+  @Override
+  public void close() {
+    for (Shard shard : _shards) {
+      shard.close();
+    }
+  }
+
+  private Shard getShard(long hash) {
+    return _shards[(int) (hash >>> SHARD_SHIFT)];
+  }
+
+  /**
+   * Mixes the key bits so that keys not produced by a uniform hash function (e.g. UUIDs) still spread evenly.
+   */
+  private static long hash(long keyHigh, long keyLow) {
+    long hash = keyHigh ^ Long.rotateLeft(keyLow, 32);
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Location of a record. Instances are created on read, so updates must go through the map.
+   */
+  public static final class Location {
+    private final int _segmentId;
+    private final int _docId;
+    private final long _value;
+
+    public Location(int segmentId, int docId, long value) {
+      Preconditions.checkArgument(segmentId > 0, "Segment id must be positive, got: %s", segmentId);
+      _segmentId = segmentId;
+      _docId = docId;
+      _value = value;
+    }
+
+    public int getSegmentId() {
+      return _segmentId;
+    }
+
+    public int getDocId() {
+      return _docId;
+    }
+
+    public long getValue() {
+      return _value;
+    }
+  }
+
+  private static class Shard {
+    final String _description;
+    PinotDataBuffer _buffer;
+    int _capacity;
+    int _size;
+    int _numRemoved;
+
+    Shard(String description, int capacity) {
+      _description = description;
+      if (capacity > 0) {
+        allocate(capacity);
+      }
+    }
+
+    synchronized Location get(long keyHigh, long keyLow, long hash) {
+      int slot = find(keyHigh, keyLow, hash);
+      return slot >= 0 ? read(slot) : null;
+    }
+
+    synchronized Location put(long keyHigh, long keyLow, long hash, Location location) {
+      int slot = find(keyHigh, keyLow, hash);
+      if (slot >= 0) {
+        Location previous = read(slot);
+        write(slot, location);
+        return previous;
+      }
+      insert(keyHigh, keyLow, hash, -slot - 1, location);
+      return null;
+    }
+
+    synchronized Location compute(long keyHigh, long keyLow, long hash,
+        Function<Location, Location> remappingFunction, boolean onlyIfPresent) {
+      int slot = find(keyHigh, keyLow, hash);
+      if (slot < 0 && onlyIfPresent) {
+        return null;
+      }
+      Location current = slot >= 0 ? read(slot) : null;
+      Location updated = remappingFunction.apply(current);
+      if (updated == current) {
+        return current;
+      }
+      if (updated == null) {
+        remove(slot);
+      } else if (slot >= 0) {
+        write(slot, updated);
+      } else {
+        insert(keyHigh, keyLow, hash, -slot - 1, updated);
+      }
+      return updated;
+    }
+
+    synchronized int removeIf(Predicate<Location> predicate) {
+      int numRemoved = 0;
+      for (int slot = 0; slot < _capacity; slot++) {
+        int segmentId = _buffer.getInt(slotOffset(slot) + SEGMENT_ID_OFFSET);
+        if (segmentId > 0 && predicate.test(read(slot))) {
+          remove(slot);
+          numRemoved++;
+        }
+      }
+      return numRemoved;
+    }
+
+    synchronized int size() {
+      return _size;
+    }
+
+    synchronized long getMemoryUsage() {
+      return (long) _capacity * SLOT_SIZE;
+    }
+
+    /**
+     * Returns the slot of the key if it exists, or {@code -(slot to insert the key) - 1} otherwise.
+     */
+    private int find(long keyHigh, long keyLow, long hash) {
+      int mask = _capacity - 1;
+      int slot = (int) hash & mask;
+      int firstRemovedSlot = -1;
+      while (true) {
+        long offset = slotOffset(slot);
+        int segmentId = _buffer.getInt(offset + SEGMENT_ID_OFFSET);
+        if (segmentId == EMPTY) {
+          return -(firstRemovedSlot >= 0 ? firstRemovedSlot : slot) - 1;
+        }
+        if (segmentId == REMOVED) {
+          if (firstRemovedSlot < 0) {
+            firstRemovedSlot = slot;
+          }
+        } else if (_buffer.getLong(offset + KEY_HIGH_OFFSET) == keyHigh
+            && _buffer.getLong(offset + KEY_LOW_OFFSET) == keyLow) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    private void insert(long keyHigh, long keyLow, long hash, int slot, Location location) {
+      if (_size + _numRemoved + 1 > _capacity * MAX_LOAD_FACTOR) {
+        // Double the capacity if the live keys alone exceed half of the load factor, otherwise rehash at the same
+        // capacity to clean up the removed slots
+        int newCapacity = _size + 1 > _capacity * MAX_LOAD_FACTOR / 2 ? _capacity << 1 : _capacity;
+        Preconditions.checkState(newCapacity <= MAX_SHARD_CAPACITY, "Primary key map shard: %s is full with %s keys",
+            _description, _size);
+        rehash(newCapacity);
+        slot = -find(keyHigh, keyLow, hash) - 1;
+      }
+      long offset = slotOffset(slot);
+      if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) == REMOVED) {
+        _numRemoved--;
+      }
+      _buffer.putLong(offset + KEY_HIGH_OFFSET, keyHigh);
+      _buffer.putLong(offset + KEY_LOW_OFFSET, keyLow);
+      write(slot, location);
+      _size++;
+    }
+
+    private void remove(int slot) {
+      _buffer.putInt(slotOffset(slot) + SEGMENT_ID_OFFSET, REMOVED);
+      _size--;
+      _numRemoved++;
+    }
+
+    private Location read(int slot) {
+      long offset = slotOffset(slot);
+      return new Location(_buffer.getInt(offset + SEGMENT_ID_OFFSET), _buffer.getInt(offset + DOC_ID_OFFSET),
+          _buffer.getLong(offset + VALUE_OFFSET));
+    }
+
+    private void write(int slot, Location location) {
+      long offset = slotOffset(slot);
+      _buffer.putInt(offset + SEGMENT_ID_OFFSET, location.getSegmentId());
+      _buffer.putInt(offset + DOC_ID_OFFSET, location.getDocId());
+      _buffer.putLong(offset + VALUE_OFFSET, location.getValue());
+    }
+
+    private void rehash(int newCapacity) {
+      PinotDataBuffer oldBuffer = _buffer;
+      int oldCapacity = _capacity;
+      allocate(newCapacity);
+      int mask = newCapacity - 1;
+      for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+        long oldOffset = slotOffset(oldSlot);
+        if (oldBuffer.getInt(oldOffset + SEGMENT_ID_OFFSET) <= 0) {
+          continue;
+        }
+        long keyHigh = oldBuffer.getLong(oldOffset + KEY_HIGH_OFFSET);
+        long keyLow = oldBuffer.getLong(oldOffset + KEY_LOW_OFFSET);
+        int slot = (int) hash(keyHigh, keyLow) & mask;
+        while (_buffer.getInt(slotOffset(slot) + SEGMENT_ID_OFFSET) != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        oldBuffer.copyTo(oldOffset, _buffer, slotOffset(slot), SLOT_SIZE);
+      }
+      _numRemoved = 0;
+      closeBuffer(oldBuffer);
+    }
+
+    private void allocate(int capacity) {
+      _buffer = PinotDataBuffer.allocateDirect((long) capacity * SLOT_SIZE, ByteOrder.nativeOrder(), _description);
+      // Direct memory is not zeroed, so explicitly mark all the slots as empty
+      for (int slot = 0; slot < capacity; slot++) {
+        _buffer.putInt(slotOffset(slot) + SEGMENT_ID_OFFSET, EMPTY);
+      }
+      _capacity = capacity;
+    }
+
+    /**
+     * Writes the shard header at the given header offset and the slots at the given data offset, and returns the
+     * number of bytes of the slots written.
+     */
+    synchronized long writeTo(PinotDataBuffer buffer, long headerOffset, long dataOffset) {
+      buffer.putInt(headerOffset, _capacity);
+      buffer.putInt(headerOffset + Integer.BYTES, _size);
+      long numBytes = (long) _capacity * SLOT_SIZE;
+      _buffer.copyTo(0, buffer, dataOffset, numBytes);
+      return numBytes;
+    }
+
+    /**
+     * Reads the shard written with {@link #writeTo(PinotDataBuffer, long, long)}, and returns the number of bytes of
+     * the slots read.
+     */
+    synchronized long readFrom(PinotDataBuffer buffer, long headerOffset, long dataOffset) {
+      int capacity = buffer.getInt(headerOffset);
+      Preconditions.checkState(capacity > 0 && (capacity & (capacity - 1)) == 0 && capacity <= MAX_SHARD_CAPACITY,
+          "Invalid capacity: %s for primary key map shard: %s", capacity, _description);
+      long numBytes = (long) capacity * SLOT_SIZE;
+      Preconditions.checkState(dataOffset + numBytes <= buffer.size(), "Truncated primary key map shard: %s",
+          _description);
+      _buffer = PinotDataBuffer.allocateDirect(numBytes, ByteOrder.nativeOrder(), _description);
+      _capacity = capacity;
+      buffer.copyTo(dataOffset, _buffer, 0, numBytes);
+      _size = buffer.getInt(headerOffset + Integer.BYTES);
+      // Removed slots are not tracked in the file, so count them to decide when to rehash
+      _numRemoved = 0;
+      for (int slot = 0; slot < capacity; slot++) {
+        if (_buffer.getInt(slotOffset(slot) + SEGMENT_ID_OFFSET) == REMOVED) {
+          _numRemoved++;
+        }
+      }
+      return numBytes;
+    }
+
+    synchronized void close() {
+      if (_buffer != null) {
+        closeBuffer(_buffer);
+        _buffer = null;
+        _capacity = 0;
+        _size = 0;
+        _numRemoved = 0;
+      }
+    }
+
+    private static void closeBuffer(PinotDataBuffer buffer) {
+      try {
+        buffer.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private static long slotOffset(int slot) {
+      return (long) slot * SLOT_SIZE;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.MapMaker;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * Tracks the ids of the segments referenced from an {@link OffHeapPrimaryKeyMap}, and provides the helpers shared by
+ * the metadata managers backed by the map to hash the primary keys and to persist the segment ids along with the map.
+ * <p>Weak references are used so that the segments not properly removed (e.g. replaced consuming segments) can still
+ * be garbage collected, and the locations pointing to a segment not bound to an id are treated as non-existing.
+ */
+@ThreadSafe
+public class SegmentIdRegistry {
+  public static final String METADATA_NEXT_SEGMENT_ID = "nextSegmentId";
+  public static final String METADATA_SEGMENTS = "segments";
+
+  private static final String METADATA_SEGMENT_ID = "id";
+  private static final String METADATA_SEGMENT_NAME = "name";
+  private static final String METADATA_SEGMENT_CRC = "crc";
+
+  private final ConcurrentMap<IndexSegment, Integer> _segmentToId = new MapMaker().weakKeys().makeMap();
+  private final Map<Integer, WeakReference<IndexSegment>> _idToSegment = new ConcurrentHashMap<>();
+  private final AtomicInteger _nextSegmentId;
+
+  public SegmentIdRegistry(int nextSegmentId) {
+    _nextSegmentId = new AtomicInteger(nextSegmentId);
+  }
+
+  /**
+   * Returns the id of the given segment, and binds a new id to the segment if it is not bound yet.
+   */
+  public int getSegmentId(IndexSegment segment) {
+    return _segmentToId.computeIfAbsent(segment, k -> {
+      int segmentId = _nextSegmentId.getAndIncrement();
+      _idToSegment.put(segmentId, new WeakReference<>(k));
+      return segmentId;
+    });
+  }
+
+  /**
+   * Returns the id of the given segment, or {@code null} if the segment is not bound.
+   */
+  @Nullable
+  public Integer getBoundSegmentId(IndexSegment segment) {
+    return _segmentToId.get(segment);
+  }
+
+  /**
+   * Binds the given segment to a persisted segment id.
+   */
+  public void bind(IndexSegment segment, int segmentId) {
+    _segmentToId.put(segment, segmentId);
+    _idToSegment.put(segmentId, new WeakReference<>(segment));
+  }
+
+  /**
+   * Unbinds the given segment, and returns its id, or {@code null} if the segment is not bound.
+   */
+  @Nullable
+  public Integer unbind(IndexSegment segment) {
+    Integer segmentId = _segmentToId.remove(segment);
+    if (segmentId != null) {
+      _idToSegment.remove(segmentId);
+    }
+    return segmentId;
+  }
+
+  /**
+   * Returns the segment of the given location, or {@code null} if the location is {@code null} or the segment is not
+   * bound to the segment id.
+   */
+  @Nullable
+  public IndexSegment getSegment(@Nullable Location location) {
+    if (location == null) {
+      return null;
+    }
+    WeakReference<IndexSegment> segmentRef = _idToSegment.get(location.getSegmentId());
+    return segmentRef != null ? segmentRef.get() : null;
+  }
+
+  /**
+   * Returns a read-only view of the bound segments and their ids.
+   */
+  public Map<IndexSegment, Integer> getBoundSegments() {
+    return Collections.unmodifiableMap(_segmentToId);
+  }
+
+  public int getNextSegmentId() {
+    return _nextSegmentId.get();
+  }
+
+  /**
+   * Removes the ids of the segments already garbage collected, and then removes the keys of the segments not bound from
+   * the given map. Returns the number of keys removed.
+   */
+  public long removeUnboundSegments(OffHeapPrimaryKeyMap map) {
+    _idToSegment.values().removeIf(segmentRef -> segmentRef.get() == null);
+    return map.removeIf(location -> getSegment(location) == null);
+  }
+
+  /**
+   * Returns the 128-bit key of the given primary key, which is the output of the hash function if it is 16 bytes long,
+   * or the MURMUR3 hash of it otherwise.
+   */
+  public static byte[] getKey(PrimaryKey primaryKey, HashFunction hashFunction) {
+    Object hashedPrimaryKey = HashUtils.hashPrimaryKey(primaryKey, hashFunction);
+    byte[] bytes =
+        hashedPrimaryKey instanceof ByteArray ? ((ByteArray) hashedPrimaryKey).getBytes() : primaryKey.asBytes();
+    return bytes.length == 2 * Long.BYTES ? bytes : HashUtils.hashMurmur3(bytes);
+  }
+
+  public static long getKeyHigh(byte[] key) {
+    return ByteBuffer.wrap(key).getLong(0);
+  }
+
+  public static long getKeyLow(byte[] key) {
+    return ByteBuffer.wrap(key).getLong(Long.BYTES);
+  }
+
+  /**
+   * Returns the JSON node of a persisted segment to be added into the {@link #METADATA_SEGMENTS} array.
+   */
+  public static ObjectNode toJson(int segmentId, String segmentName, String crc) {
+    ObjectNode segmentNode = JsonUtils.newObjectNode();
+    segmentNode.put(METADATA_SEGMENT_ID, segmentId);
+    segmentNode.put(METADATA_SEGMENT_NAME, segmentName);
+    segmentNode.put(METADATA_SEGMENT_CRC, crc);
+    return segmentNode;
+  }
+
+  /**
+   * Reads the persisted segments from the {@link #METADATA_SEGMENTS} array, keyed by segment name.
+   */
+  public static Map<String, PersistedSegment> readPersistedSegments(JsonNode segmentsNode) {
+    Map<String, PersistedSegment> persistedSegments = new ConcurrentHashMap<>();
+    for (JsonNode segmentNode : segmentsNode) {
+      persistedSegments.put(segmentNode.get(METADATA_SEGMENT_NAME).asText(),
+          new PersistedSegment(segmentNode.get(METADATA_SEGMENT_ID).asInt(),
+              segmentNode.get(METADATA_SEGMENT_CRC).asText()));
+    }
+    return persistedSegments;
+  }
+
+  /**
+   * Writes the metadata along with the next segment id and the persisted segments into the given file. The file is
+   * first written as a temporary file, then atomically moved to the destination.
+   */
+  public static void writeMetadata(File metadataFile, ObjectNode metadata, int nextSegmentId, ArrayNode segments)
+      throws IOException {
+    metadata.put(METADATA_NEXT_SEGMENT_ID, nextSegmentId);
+    metadata.set(METADATA_SEGMENTS, segments);
+    File tmpFile = new File(metadataFile.getPath() + ".tmp");
+    FileUtils.writeStringToFile(tmpFile, metadata.toString(), StandardCharsets.UTF_8);
+    Files.move(tmpFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Id and CRC of a segment persisted along with the map.
+   */
+  public static class PersistedSegment {
+    private final int _id;
+    private final String _crc;
+
+    public PersistedSegment(int id, String crc) {
+      _id = id;
+      _crc = crc;
+    }
+
+    public int getId() {
+      return _id;
+    }
+
+    /**
+     * Returns whether the given segment has the same CRC as persisted, so that it can be bound to the persisted id.
+     */
+    public boolean matches(IndexSegment segment) {
+      return _crc.equals(segment.getSegmentMetadata().getCrc());
+    }
+  }
+}
@@ -44,6 +44,7 @@ import org.apache.pinot.common.request.context.FunctionContext;
 import org.apache.pinot.common.request.context.RequestContextUtils;
 import org.apache.pinot.common.tier.TierFactory;
 import org.apache.pinot.common.utils.config.TagNameUtils;
+import org.apache.pinot.segment.local.aggregator.ValueAggregatorFactory;
 import org.apache.pinot.segment.local.function.FunctionEvaluator;
 import org.apache.pinot.segment.local.function.FunctionEvaluatorFactory;
 import org.apache.pinot.segment.local.recordtransformer.SchemaConformingTransformer;
@@ -59,6 +60,7 @@ import org.apache.pinot.segment.spi.index.startree.AggregationFunctionColumnPair
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.DedupConfig;
 import org.apache.pinot.spi.config.table.FieldConfig;
+import org.apache.pinot.spi.config.table.FieldConfig.CompressionCodec;
 import org.apache.pinot.spi.config.table.FieldConfig.EncodingType;
 import org.apache.pinot.spi.config.table.IndexingConfig;
 import org.apache.pinot.spi.config.table.MultiColumnTextIndexConfig;
@@ -1294,6 +1296,14 @@ public final class TableConfigUtils {
             LOGGER.warn("StarTreeIndex config duplication: {} already matches existing function column pair: {}. ",
                 columnPair, storedType);
           }
+          CompressionCodec compressionCodec = aggregationConfig.getCompressionCodec();
+          if (compressionCodec == CompressionCodec.FRAME_OF_REFERENCE || compressionCodec == CompressionCodec.DELTA
+              || compressionCodec == CompressionCodec.DELTADELTA) {
+            DataType aggregatedValueType = ValueAggregatorFactory.getAggregatedValueType(columnPair.getFunctionType());
+            Preconditions.checkState(aggregatedValueType == DataType.INT || aggregatedValueType == DataType.LONG,
+                "Cannot apply %s compression codec to star-tree aggregation: %s with aggregated value type: %s",
+                compressionCodec, columnPair, aggregatedValueType);
+          }
           String column = columnPair.getColumn();
           if (!column.equals(AggregationFunctionColumnPair.STAR)) {
             referencedColumns.add(column);
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.local.segment.readers.PrimaryKeyReader;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.util.TestUtils;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPartitionDedupMetadataManagerTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), OffHeapPartitionDedupMetadataManagerTest.class.getSimpleName());
+  private DedupContext.Builder _dedupContextBuilder;
+
+  @BeforeMethod
+  public void setUpContextBuilder()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+    TableDataManager tableDataManager = mock(TableDataManager.class);
+    when(tableDataManager.getTableDataDir()).thenReturn(TEMP_DIR);
+    _dedupContextBuilder = new DedupContext.Builder()
+        .setTableConfig(mock(TableConfig.class))
+        .setSchema(mock(Schema.class))
+        .setTableDataManager(tableDataManager)
+        .setPrimaryKeyColumns(List.of("primaryKeyColumn"));
+  }
+
+  @AfterMethod
+  public void cleanup() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testAddRemoveSegment()
+      throws IOException {
+    verifyAddRemoveSegment(HashFunction.NONE);
+    verifyAddRemoveSegment(HashFunction.MD5);
+    verifyAddRemoveSegment(HashFunction.MURMUR3);
+  }
+
+  private void verifyAddRemoveSegment(HashFunction hashFunction)
+      throws IOException {
+    _dedupContextBuilder.setHashFunction(hashFunction);
+    OffHeapPartitionDedupMetadataManager metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+
+    // Add the first segment
+    DedupUtils.DedupRecordInfoReader dedupRecordInfoReader = generateDedupRecordInfoReader();
+    Iterator<DedupRecordInfo> dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    ImmutableSegmentImpl segment1 = DedupTestUtils.mockSegment(1, 6);
+    metadataManager.doAddOrReplaceSegment(null, segment1, dedupRecordInfoIterator);
+    assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+    checkRecordLocation(metadataManager, 0, segment1, 5000);
+    checkRecordLocation(metadataManager, 1, segment1, 4000);
+    checkRecordLocation(metadataManager, 2, segment1, 2000);
+
+    // Removing another segment with the same primary keys should not remove the keys
+    dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    metadataManager.doRemoveSegment(DedupTestUtils.mockSegment(1, 6), dedupRecordInfoIterator);
+    assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+
+    dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    metadataManager.doRemoveSegment(segment1, dedupRecordInfoIterator);
+    assertEquals(metadataManager.getNumPrimaryKeys(), 0);
+
+    metadataManager.stop();
+    metadataManager.close();
+  }
+
+  @Test
+  public void testAddRow()
+      throws IOException {
+    verifyAddRow(HashFunction.NONE);
+    verifyAddRow(HashFunction.MD5);
+    verifyAddRow(HashFunction.MURMUR3);
+  }
+
+  private void verifyAddRow(HashFunction hashFunction)
+      throws IOException {
+    _dedupContextBuilder.setHashFunction(hashFunction);
+    OffHeapPartitionDedupMetadataManager metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+
+    // Add the first segment
+    DedupUtils.DedupRecordInfoReader dedupRecordInfoReader = generateDedupRecordInfoReader();
+    Iterator<DedupRecordInfo> dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    ImmutableSegmentImpl segment1 = DedupTestUtils.mockSegment(1, 6);
+    metadataManager.doAddOrReplaceSegment(null, segment1, dedupRecordInfoIterator);
+
+    // Same PK exists
+    dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    ImmutableSegmentImpl segment2 = DedupTestUtils.mockSegment(2, 6);
+    while (dedupRecordInfoIterator.hasNext()) {
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(dedupRecordInfoIterator.next(), segment2));
+    }
+    checkRecordLocation(metadataManager, 0, segment1, 5000);
+    checkRecordLocation(metadataManager, 1, segment1, 4000);
+    checkRecordLocation(metadataManager, 2, segment1, 2000);
+
+    // New PK
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(3), 3000), segment2));
+    checkRecordLocation(metadataManager, 3, segment2, 3000);
+
+    // Same PK as the one recently ingested
+    assertTrue(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(3), 4000), segment2));
+
+    metadataManager.stop();
+    metadataManager.close();
+  }
+
+  @Test
+  public void testCheckpointOnCommit()
+      throws IOException {
+    _dedupContextBuilder.setHashFunction(HashFunction.NONE);
+    OffHeapPartitionDedupMetadataManager metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+
+    // Add the first segment
+    DedupUtils.DedupRecordInfoReader dedupRecordInfoReader = generateDedupRecordInfoReader();
+    Iterator<DedupRecordInfo> dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    ImmutableSegmentImpl segment1 = mockSegmentWithCrc(1, "1");
+    String segmentName1 = segment1.getSegmentName();
+    metadataManager.doAddOrReplaceSegment(null, segment1, dedupRecordInfoIterator);
+
+    // Ingest into the consuming segment, then commit it, which should checkpoint the map
+    MutableSegment mutableSegment = mock(MutableSegment.class);
+    String segmentName2 = DedupTestUtils.getSegmentName(2);
+    when(mutableSegment.getSegmentName()).thenReturn(segmentName2);
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(3), 5000), mutableSegment));
+    ImmutableSegmentImpl segment2 = mockSegmentWithCrc(2, "2");
+    when(segment2.getSegmentName()).thenReturn(segmentName2);
+    metadataManager.doAddOrReplaceSegment(mutableSegment, segment2,
+        List.of(new DedupRecordInfo(DedupTestUtils.getPrimaryKey(3), 5000)).iterator());
+    metadataManager.checkpoint();
+    checkRecordLocation(metadataManager, 3, segment2, 5000);
+
+    // Ingest into the next consuming segment, which should not be in the checkpoint
+    MutableSegment mutableSegment3 = mock(MutableSegment.class);
+    when(mutableSegment3.getSegmentName()).thenReturn(DedupTestUtils.getSegmentName(3));
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(4), 6000), mutableSegment3));
+    assertEquals(metadataManager.getNumPrimaryKeys(), 5);
+    // Simulate a crash by not closing the metadata manager
+    metadataManager._primaryKeyToSegmentAndTimeMap.close();
+
+    // Restart, and the committed segments should be bound without reading the primary keys
+    metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+    assertEquals(metadataManager.getNumPrimaryKeys(), 4);
+    ImmutableSegmentImpl loadedSegment1 = mockSegmentWithCrc(1, "1");
+    when(loadedSegment1.getSegmentName()).thenReturn(segmentName1);
+    metadataManager.doPreloadSegment(loadedSegment1, failingIterator());
+    // Segment with a different CRC should read the primary keys again
+    ImmutableSegmentImpl loadedSegment2 = mockSegmentWithCrc(2, "22");
+    when(loadedSegment2.getSegmentName()).thenReturn(segmentName2);
+    metadataManager.doAddOrReplaceSegment(null, loadedSegment2,
+        List.of(new DedupRecordInfo(DedupTestUtils.getPrimaryKey(3), 5000)).iterator());
+    assertEquals(metadataManager.getNumPrimaryKeys(), 4);
+    checkRecordLocation(metadataManager, 0, loadedSegment1, 5000);
+    checkRecordLocation(metadataManager, 1, loadedSegment1, 4000);
+    checkRecordLocation(metadataManager, 2, loadedSegment1, 2000);
+    checkRecordLocation(metadataManager, 3, loadedSegment2, 5000);
+    assertNull(metadataManager.getSegmentAndTime(DedupTestUtils.getPrimaryKey(4)));
+
+    // Replaying the consuming segment should add the primary key again
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(4), 6000), mutableSegment3));
+    assertTrue(metadataManager.checkRecordPresentOrUpdate(
+        new DedupRecordInfo(DedupTestUtils.getPrimaryKey(0), 7000), mutableSegment3));
+
+    // Closing the metadata manager should checkpoint the map, and keys of the segments not loaded should be dropped
+    metadataManager.stop();
+    metadataManager.close();
+    metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+    assertEquals(metadataManager.getNumPrimaryKeys(), 4);
+    metadataManager.doPreloadSegment(loadedSegment1, failingIterator());
+    metadataManager.checkpoint();
+    assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+    metadataManager.stop();
+    metadataManager.close();
+  }
+
+  @Test
+  public void testScheduleCheckpoint()
+      throws IOException {
+    _dedupContextBuilder.setHashFunction(HashFunction.NONE);
+    OffHeapPartitionDedupMetadataManager metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+    DedupUtils.DedupRecordInfoReader dedupRecordInfoReader = generateDedupRecordInfoReader();
+    Iterator<DedupRecordInfo> dedupRecordInfoIterator = DedupUtils.getDedupRecordInfoIterator(dedupRecordInfoReader, 6);
+    ImmutableSegmentImpl segment1 = mockSegmentWithCrc(1, "1");
+    metadataManager.doAddOrReplaceSegment(null, segment1, dedupRecordInfoIterator);
+
+    // The checkpoint should be written in the background, and requests while it is pending should be coalesced
+    File metadataFile = new File(TEMP_DIR, V1Constants.DEDUP_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION + 0);
+    assertFalse(metadataFile.exists());
+    metadataManager.scheduleCheckpoint();
+    metadataManager.scheduleCheckpoint();
+    TestUtils.waitForCondition(aVoid -> metadataFile.exists(), 10_000L, "Failed to checkpoint the map");
+    // Closing the metadata manager should wait for the pending checkpoint
+    metadataManager.stop();
+    metadataManager.close();
+
+    metadataManager =
+        new OffHeapPartitionDedupMetadataManager(DedupTestUtils.REALTIME_TABLE_NAME, 0, _dedupContextBuilder.build());
+    assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+    ImmutableSegmentImpl loadedSegment1 = mockSegmentWithCrc(1, "1");
+    when(loadedSegment1.getSegmentName()).thenReturn(segment1.getSegmentName());
+    metadataManager.doPreloadSegment(loadedSegment1, failingIterator());
+    checkRecordLocation(metadataManager, 0, loadedSegment1, 5000);
+    checkRecordLocation(metadataManager, 1, loadedSegment1, 4000);
+    checkRecordLocation(metadataManager, 2, loadedSegment1, 2000);
+    metadataManager.stop();
+    metadataManager.close();
+  }
+
+  private static ImmutableSegmentImpl mockSegmentWithCrc(int sequenceNumber, String crc) {
+    ImmutableSegmentImpl segment = DedupTestUtils.mockSegment(sequenceNumber, 6);
+    when(segment.getSegmentMetadata().getCrc()).thenReturn(crc);
+    return segment;
+  }
+
+  private static Iterator<DedupRecordInfo> failingIterator() {
+    Iterator<DedupRecordInfo> iterator = mock(Iterator.class);
+    when(iterator.hasNext()).thenThrow(new AssertionError("Primary keys should not be read"));
+    return iterator;
+  }
+
+  private static DedupUtils.DedupRecordInfoReader generateDedupRecordInfoReader() {
+    PrimaryKeyReader primaryKeyReader = Mockito.mock(PrimaryKeyReader.class);
+    PinotSegmentColumnReader dedupTimeColumnReader = Mockito.mock(PinotSegmentColumnReader.class);
+    Mockito.when(primaryKeyReader.getPrimaryKey(0)).thenReturn(DedupTestUtils.getPrimaryKey(0));
+    Mockito.when(primaryKeyReader.getPrimaryKey(1)).thenReturn(DedupTestUtils.getPrimaryKey(1));
+    Mockito.when(primaryKeyReader.getPrimaryKey(2)).thenReturn(DedupTestUtils.getPrimaryKey(2));
+    Mockito.when(primaryKeyReader.getPrimaryKey(3)).thenReturn(DedupTestUtils.getPrimaryKey(0));
+    Mockito.when(primaryKeyReader.getPrimaryKey(4)).thenReturn(DedupTestUtils.getPrimaryKey(1));
+    Mockito.when(primaryKeyReader.getPrimaryKey(5)).thenReturn(DedupTestUtils.getPrimaryKey(0));
+    for (int i = 0; i < 6; i++) {
+      Mockito.when(dedupTimeColumnReader.getValue(i)).thenReturn(i * 1000);
+    }
+    return new DedupUtils.DedupRecordInfoReader(primaryKeyReader, dedupTimeColumnReader);
+  }
+
+  private static void checkRecordLocation(OffHeapPartitionDedupMetadataManager metadataManager, int keyValue,
+      IndexSegment segment, double dedupTime) {
+    Location segmentAndTime = metadataManager.getSegmentAndTime(DedupTestUtils.getPrimaryKey(keyValue));
+    assertNotNull(segmentAndTime);
+    assertSame(metadataManager.getSegment(segmentAndTime), segment);
+    assertEquals(OffHeapPartitionDedupMetadataManager.getDedupTime(segmentAndTime), dedupTime);
+  }
+}
@@ -37,6 +37,7 @@ import org.testng.annotations.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 
 public class TableDedupMetadataManagerFactoryTest {
@@ -82,6 +83,29 @@ public class TableDedupMetadataManagerFactoryTest {
     instanceDedupConfig.setProperty(Dedup.DEFAULT_ENABLE_PRELOAD, false);
   }
 
+  @Test
+  public void testCreateForOffHeapManagerClass()
+      throws IOException {
+    DedupConfig dedupConfig = new DedupConfig();
+    dedupConfig.setMetadataManagerClass(OffHeapTableDedupMetadataManager.class.getName());
+    Schema schema = new Schema.SchemaBuilder()
+        .setSchemaName("mytable")
+        .addSingleValueDimension("myCol", FieldSpec.DataType.STRING)
+        .setPrimaryKeyColumns(Lists.newArrayList("myCol"))
+        .build();
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.REALTIME).setTableName("mytable").setDedupConfig(dedupConfig).build();
+    TableDataManager tableDataManager = mock(TableDataManager.class);
+    when(tableDataManager.getTableDataDir()).thenReturn(new File("mytable"));
+    try (TableDedupMetadataManager tableDedupMetadataManager = TableDedupMetadataManagerFactory.create(
+        new PinotConfiguration(), tableConfig, schema, tableDataManager, null)) {
+      assertTrue(tableDedupMetadataManager instanceof OffHeapTableDedupMetadataManager);
+      assertTrue(tableDedupMetadataManager.getOrCreatePartitionManager(0)
+          instanceof OffHeapPartitionDedupMetadataManager);
+      tableDedupMetadataManager.stop();
+    }
+  }
+
   private void verifyPreloadEnabled(PinotConfiguration instanceDedupConfig, TableConfig tableConfig, Schema schema,
       TableDataManager tableDataManager, boolean expected)
       throws IOException {
@@ -24,6 +24,9 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -190,6 +193,89 @@ public class TestCompression {
     }
   }
 
+  @DataProvider
+  public Object[][] numericFormats() {
+    List<Object[]> params = new ArrayList<>();
+    for (ChunkCompressionType type : new ChunkCompressionType[]{
+        ChunkCompressionType.FRAME_OF_REFERENCE, ChunkCompressionType.DELTA, ChunkCompressionType.DELTADELTA
+    }) {
+      for (int valueSize : new int[]{Integer.BYTES, Long.BYTES}) {
+        for (int numValues : new int[]{1, 2, 3, 1000}) {
+          for (String distribution : new String[]{"random", "timestamp", "constant", "extremes"}) {
+            params.add(new Object[]{type, valueSize, numValues, distribution});
+          }
+        }
+      }
+    }
+    return params.toArray(new Object[0][]);
+  }
+
+  @Test(dataProvider = "numericFormats")
+  public void testNumericRoundtrip(ChunkCompressionType type, int valueSize, int numValues, String distribution)
+      throws IOException {
+    Random random = new Random();
+    ByteBuffer rawInput = ByteBuffer.allocateDirect(numValues * valueSize);
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < numValues; i++) {
+      long value;
+      switch (distribution) {
+        case "random":
+          value = random.nextLong();
+          break;
+        case "timestamp":
+          value = start + i * 1000L + (random.nextInt(10) == 0 ? random.nextInt(100) : 0);
+          break;
+        case "constant":
+          value = start;
+          break;
+        default:
+          value = i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+          break;
+      }
+      if (valueSize == Integer.BYTES) {
+        rawInput.putInt((int) value);
+      } else {
+        rawInput.putLong(value);
+      }
+    }
+    rawInput.flip();
+    try (ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(type, false, valueSize)) {
+      assertEquals(compressor.compressionType(), type);
+      roundtrip(compressor, rawInput);
+    }
+  }
+
+  @Test
+  public void testNumericCompressionRatio()
+      throws IOException {
+    // Regularly spaced timestamps should collapse to the chunk header with delta of delta encoding
+    int numValues = 1000;
+    ByteBuffer rawInput = ByteBuffer.allocateDirect(numValues * Long.BYTES);
+    for (int i = 0; i < numValues; i++) {
+      rawInput.putLong(1_700_000_000_000L + i * 60_000L);
+    }
+    rawInput.flip();
+    int[] compressedSizes = new int[3];
+    ChunkCompressionType[] types = {
+        ChunkCompressionType.FRAME_OF_REFERENCE, ChunkCompressionType.DELTA, ChunkCompressionType.DELTADELTA
+    };
+    for (int i = 0; i < types.length; i++) {
+      try (ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(types[i], false, Long.BYTES)) {
+        ByteBuffer compressed = ByteBuffer.allocateDirect(compressor.maxCompressedSize(rawInput.limit()));
+        compressedSizes[i] = compressor.compress(rawInput.slice(), compressed);
+      }
+    }
+    // 26 bits per value relative to the minimum, no bits for the constant delta and delta of delta
+    assertTrue(compressedSizes[0] < rawInput.limit() / 2);
+    assertTrue(compressedSizes[1] <= NumericChunkCodec.MAX_HEADER_SIZE);
+    assertTrue(compressedSizes[2] <= NumericChunkCodec.MAX_HEADER_SIZE);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testNumericCompressorRequiresValueSize() {
+    ChunkCompressorFactory.getCompressor(ChunkCompressionType.DELTA, true);
+  }
+
   private static void roundtrip(ChunkCompressor compressor, ByteBuffer rawInput)
       throws IOException {
     ByteBuffer compressedOutput = ByteBuffer.allocateDirect(compressor.maxCompressedSize(rawInput.limit()));
@@ -32,29 +32,36 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.segment.local.PinotBuffersAfterMethodCheckRule;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
 import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
 import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
 import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshManager;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneTextIndexSearcherPool;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentColumnarIndexCreator;
 import org.apache.pinot.segment.local.segment.index.column.PhysicalColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.local.segment.index.text.TextIndexConfigBuilder;
 import org.apache.pinot.segment.local.segment.store.SegmentLocalFSDirectory;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
 import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.TextIndexConfig;
 import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
 import org.apache.pinot.spi.config.table.FieldConfig;
@@ -74,9 +81,14 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -433,6 +445,108 @@ public class RealtimeSegmentConverterTest implements PinotBuffersAfterMethodChec
     }
   }
 
+  @Test
+  public void testColumnMajorConversionFromMutableIndexes()
+      throws Exception {
+    File tmpDir = new File(TMP_DIR, "tmp_" + System.nanoTime());
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName("testTable")
+        .setTimeColumnName(DATE_TIME_COLUMN)
+        .setInvertedIndexColumns(Lists.newArrayList(STRING_COLUMN1, LONG_COLUMN1, MV_INT_COLUMN))
+        .setNoDictionaryColumns(Lists.newArrayList(LONG_COLUMN2))
+        .build();
+    Schema schema = new Schema.SchemaBuilder()
+        .addSingleValueDimension(STRING_COLUMN1, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(LONG_COLUMN1, FieldSpec.DataType.LONG)
+        .addSingleValueDimension(LONG_COLUMN2, FieldSpec.DataType.LONG)
+        .addMultiValueDimension(MV_INT_COLUMN, FieldSpec.DataType.INT)
+        .addDateTime(DATE_TIME_COLUMN, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS")
+        .build();
+    // Index the values in reverse order so that the dictionary ids of the mutable and immutable segments differ
+    List<GenericRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(STRING_COLUMN1, "value" + (99 - i) % 7);
+      row.putValue(LONG_COLUMN1, (long) (99 - i) % 4);
+      row.putValue(LONG_COLUMN2, (long) i);
+      row.putValue(MV_INT_COLUMN, new Object[]{(99 - i) % 5, 10 + i % 3});
+      row.putValue(DATE_TIME_COLUMN, 1697814309L + i);
+      rows.add(row);
+    }
+
+    ServerMetrics serverMetrics = mock(ServerMetrics.class);
+    File rowMajorIndexDir = buildSegment(tmpDir, "rowMajor", tableConfig, schema, rows, false, null);
+    File columnMajorIndexDir = buildSegment(tmpDir, "columnMajor", tableConfig, schema, rows, true, serverMetrics);
+    verify(serverMetrics, atLeastOnce()).addTimedTableValue(eq(tableConfig.getTableName()),
+        eq(StandardIndexes.INVERTED_ID), eq(ServerTimer.REALTIME_SEGMENT_INDEX_BUILD_TIME_MS), anyLong(),
+        eq(TimeUnit.MILLISECONDS));
+    verify(serverMetrics).addTimedTableValue(eq(tableConfig.getTableName()),
+        eq(SegmentColumnarIndexCreator.DICT_ID_REMAP_TIME_KEY), eq(ServerTimer.REALTIME_SEGMENT_INDEX_BUILD_TIME_MS),
+        anyLong(), eq(TimeUnit.MILLISECONDS));
+
+    // Both builders should generate the same values and inverted indexes
+    testSegment(rows, columnMajorIndexDir, tableConfig, new SegmentMetadataImpl(columnMajorIndexDir));
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(tableConfig, schema);
+    ImmutableSegment rowMajorSegment = ImmutableSegmentLoader.load(rowMajorIndexDir, indexLoadingConfig);
+    ImmutableSegment columnMajorSegment = ImmutableSegmentLoader.load(columnMajorIndexDir, indexLoadingConfig);
+    try {
+      for (String column : Arrays.asList(STRING_COLUMN1, LONG_COLUMN1, MV_INT_COLUMN)) {
+        DataSource rowMajorDataSource = rowMajorSegment.getDataSource(column);
+        DataSource columnMajorDataSource = columnMajorSegment.getDataSource(column);
+        InvertedIndexReader<?> rowMajorInvertedIndex = rowMajorDataSource.getInvertedIndex();
+        InvertedIndexReader<?> columnMajorInvertedIndex = columnMajorDataSource.getInvertedIndex();
+        assertNotNull(columnMajorInvertedIndex);
+        int cardinality = rowMajorDataSource.getDictionary().length();
+        assertEquals(columnMajorDataSource.getDictionary().length(), cardinality);
+        for (int dictId = 0; dictId < cardinality; dictId++) {
+          assertEquals(columnMajorDataSource.getDictionary().get(dictId),
+              rowMajorDataSource.getDictionary().get(dictId));
+          assertEquals(columnMajorInvertedIndex.getDocIds(dictId), rowMajorInvertedIndex.getDocIds(dictId));
+        }
+      }
+    } finally {
+      rowMajorSegment.destroy();
+      columnMajorSegment.destroy();
+    }
+  }
+
+  private File buildSegment(File tmpDir, String name, TableConfig tableConfig, Schema schema, List<GenericRow> rows,
+      boolean columnMajorSegmentBuilder, @Nullable ServerMetrics serverMetrics)
+      throws Exception {
+    String tableNameWithType = tableConfig.getTableName();
+    String segmentName = "testTable__0__0__123456";
+    tableConfig.getIndexingConfig().setColumnMajorSegmentBuilderEnabled(columnMajorSegmentBuilder);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType(tableNameWithType).setSegmentName(segmentName)
+            .setStreamName(tableNameWithType).setSchema(schema).setTimeColumnName(DATE_TIME_COLUMN).setCapacity(1000)
+            .setAvgNumMultiValues(2)
+            .setIndex(Sets.newHashSet(LONG_COLUMN2), StandardIndexes.dictionary(), DictionaryIndexConfig.DISABLED)
+            .setIndex(Sets.newHashSet(STRING_COLUMN1, LONG_COLUMN1, MV_INT_COLUMN), StandardIndexes.inverted(),
+                IndexConfig.ENABLED)
+            .setSegmentZKMetadata(getSegmentZKMetadata(segmentName)).setOffHeap(true)
+            .setMemoryManager(new DirectMemoryManager(segmentName))
+            .setStatsHistory(RealtimeSegmentStatsHistory.deserialzeFrom(new File(tmpDir, name + "Stats")))
+            .setConsumerDir(new File(tmpDir, name + "ConsumerDir").getAbsolutePath())
+            .build();
+    MutableSegmentImpl mutableSegmentImpl = new MutableSegmentImpl(realtimeSegmentConfig, null);
+    try {
+      for (GenericRow row : rows) {
+        mutableSegmentImpl.index(row, null);
+      }
+      File outputDir = new File(tmpDir, name);
+      SegmentZKPropsConfig segmentZKPropsConfig = new SegmentZKPropsConfig();
+      segmentZKPropsConfig.setStartOffset("1");
+      segmentZKPropsConfig.setEndOffset("100");
+      RealtimeSegmentConverter converter =
+          new RealtimeSegmentConverter(mutableSegmentImpl, segmentZKPropsConfig, outputDir.getAbsolutePath(), schema,
+              tableNameWithType, tableConfig, segmentName, false);
+      assertEquals(converter.isColumnMajorEnabled(), columnMajorSegmentBuilder);
+      converter.build(SegmentVersion.v3, serverMetrics);
+      return new File(outputDir, segmentName);
+    } finally {
+      mutableSegmentImpl.destroy();
+    }
+  }
+
   private void testSegment(List<GenericRow> rows, File indexDir,
       TableConfig tableConfig, SegmentMetadataImpl segmentMetadata)
       throws IOException {
@@ -18,9 +18,19 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
@@ -103,4 +113,102 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testLargePostingList() {
+    int numDocs = 1_000_000;
+    RealtimeInvertedIndex invertedIndex = new RealtimeInvertedIndex();
+    // All the docs go to dictionary id 0, and every 10th doc also goes to dictionary id 1
+    for (int docId = 0; docId < numDocs; docId++) {
+      invertedIndex.add(0, docId);
+      if (docId % 10 == 0) {
+        invertedIndex.add(1, docId);
+      }
+    }
+
+    MutableRoaringBitmap expected = new MutableRoaringBitmap();
+    expected.add(0L, numDocs);
+    assertEquals(invertedIndex.getDocIds(0), expected);
+
+    MutableRoaringBitmap docIds = invertedIndex.getDocIds(1);
+    assertEquals(docIds.getCardinality(), numDocs / 10);
+    IntIterator iterator = docIds.getIntIterator();
+    for (int docId = 0; docId < numDocs; docId += 10) {
+      assertEquals(iterator.next(), docId);
+    }
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    int numDocs = 200_000;
+    int cardinality = 100;
+    int numReaders = 4;
+    // Skew the values so that both small and large posting lists are covered
+    Random random = new Random();
+    int[] dictIds = new int[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      dictIds[i] = random.nextBoolean() ? random.nextInt(3) : random.nextInt(cardinality);
+    }
+
+    RealtimeInvertedIndex invertedIndex = new RealtimeInvertedIndex();
+    // Number of docs added to the inverted index, published after the doc is added
+    AtomicInteger numDocsAdded = new AtomicInteger();
+    ExecutorService executorService = Executors.newFixedThreadPool(numReaders + 1);
+    try {
+      Future<?> writerFuture = executorService.submit(() -> {
+        for (int docId = 0; docId < numDocs; docId++) {
+          invertedIndex.add(dictIds[docId], docId);
+          numDocsAdded.set(docId + 1);
+        }
+      });
+      List<Future<?>> readerFutures = new ArrayList<>(numReaders);
+      for (int i = 0; i < numReaders; i++) {
+        readerFutures.add(executorService.submit(() -> {
+          Random readerRandom = new Random();
+          while (numDocsAdded.get() < numDocs) {
+            int dictId = readerRandom.nextInt(cardinality);
+            int numDocsAddedBeforeRead = numDocsAdded.get();
+            MutableRoaringBitmap docIds = invertedIndex.getDocIds(dictId);
+            // The reader should see a prefix of the doc ids added for the dictionary id, which includes all the doc
+            // ids added before the read
+            IntIterator iterator = docIds.getIntIterator();
+            int expectedDocId = nextDocId(dictIds, dictId, 0);
+            while (iterator.hasNext()) {
+              assertEquals(iterator.next(), expectedDocId);
+              expectedDocId = nextDocId(dictIds, dictId, expectedDocId + 1);
+            }
+            assertTrue(expectedDocId >= numDocsAddedBeforeRead);
+          }
+        }));
+      }
+      writerFuture.get(60, TimeUnit.SECONDS);
+      for (Future<?> readerFuture : readerFutures) {
+        readerFuture.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      MutableRoaringBitmap docIds = invertedIndex.getDocIds(dictId);
+      int expectedNumDocs = 0;
+      for (int docId = 0; docId < numDocs; docId++) {
+        if (dictIds[docId] == dictId) {
+          assertTrue(docIds.contains(docId));
+          expectedNumDocs++;
+        }
+      }
+      assertEquals(docIds.getCardinality(), expectedNumDocs);
+    }
+  }
+
+  private static int nextDocId(int[] dictIds, int dictId, int fromDocId) {
+    int docId = fromDocId;
+    while (docId < dictIds.length && dictIds[docId] != dictId) {
+      docId++;
+    }
+    return docId;
+  }
 }
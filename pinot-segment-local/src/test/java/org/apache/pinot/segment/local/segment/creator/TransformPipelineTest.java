@@ -21,13 +21,20 @@ package org.apache.pinot.segment.local.segment.creator;
 import java.util.List;
 import java.util.Map;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnVector;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
 
 public class TransformPipelineTest {
@@ -89,6 +96,60 @@ public class TransformPipelineTest {
     pipeline.processRow(multipleRow);
   }
 
+  @Test
+  public void testColumnarBatch() {
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").build();
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension("intCol", DataType.INT)
+        .addSingleValueDimension("stringCol", DataType.STRING)
+        .addMultiValueDimension("stringMVCol", DataType.STRING)
+        .addMetric("floatCol", DataType.FLOAT)
+        .build();
+    TransformPipeline pipeline = new TransformPipeline(tableConfig, schema);
+    assertTrue(pipeline.supportsColumnarBatch());
+
+    ColumnarBatch batch = new ColumnarBatch(schema.getAllFieldSpecs(), 4);
+    ColumnVector intVector = batch.getColumnVector("intCol");
+    ColumnVector stringVector = batch.getColumnVector("stringCol");
+    ColumnVector stringMVVector = batch.getColumnVector("stringMVCol");
+    ColumnVector floatVector = batch.getColumnVector("floatCol");
+    batch.reset();
+    intVector.getIntValues()[0] = 1;
+    intVector.setNull(1);
+    intVector.getIntValues()[2] = 3;
+    stringVector.getObjectValues()[0] = "a";
+    stringVector.getObjectValues()[1] = "b\0c";
+    stringVector.setNull(2);
+    stringMVVector.getObjectValues()[0] = new Object[]{"x", "y"};
+    stringMVVector.setNull(1);
+    stringMVVector.getObjectValues()[2] = new Object[]{"z\0"};
+    floatVector.getFloatValues()[0] = Float.NaN;
+    floatVector.getFloatValues()[1] = -0.0f;
+    floatVector.getFloatValues()[2] = 1.5f;
+    batch.setNumRows(3);
+    pipeline.processBatch(batch);
+
+    assertEquals(intVector.getValue(0), 1);
+    assertTrue(intVector.isNull(1));
+    assertEquals(intVector.getValue(1), Integer.MIN_VALUE);
+    assertEquals(intVector.getValue(2), 3);
+    assertEquals(stringVector.getValue(0), "a");
+    assertEquals(stringVector.getValue(1), "b");
+    assertTrue(stringVector.isNull(2));
+    assertEquals(stringVector.getValue(2), "null");
+    assertEquals((Object[]) stringMVVector.getValue(0), new Object[]{"x", "y"});
+    assertTrue(stringMVVector.isNull(1));
+    assertEquals((Object[]) stringMVVector.getValue(1), new Object[]{"null"});
+    assertEquals((Object[]) stringMVVector.getValue(2), new Object[]{"z"});
+    assertTrue(floatVector.isNull(0));
+    assertEquals(floatVector.getValue(0), 0.0f);
+    assertFalse(floatVector.isNull(1));
+    assertEquals(Float.floatToRawIntBits((Float) floatVector.getValue(1)), Float.floatToRawIntBits(0.0f));
+    assertEquals(floatVector.getValue(2), 1.5f);
+    assertEquals(batch.getNumIncompleteRows(), 0);
+    assertEquals(batch.getNumSanitizedRows(), 2);
+  }
+
   @Test
   public void testUnnestFieldWithTransform()
       throws Exception {
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building a segment with multiple index creation threads generates the same segment as building it
+ * sequentially.
+ */
+public class SegmentGenerationWithParallelIndexCreationTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "SegmentGenerationWithParallelIndexCreationTest");
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String FLOAT_COLUMN = "floatColumn";
+  private static final String DOUBLE_COLUMN = "doubleColumn";
+  private static final String BIG_DECIMAL_COLUMN = "bigDecimalColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String RAW_STRING_COLUMN = "rawStringColumn";
+  private static final String BYTES_COLUMN = "bytesColumn";
+  private static final String INT_MV_COLUMN = "intMVColumn";
+  private static final String STRING_MV_COLUMN = "stringMVColumn";
+  private static final int NUM_ROWS = 1000;
+
+  private final List<GenericRow> _rows = new ArrayList<>(NUM_ROWS);
+  private Schema _schema;
+  private TableConfig _tableConfig;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    _schema = new Schema.SchemaBuilder().setSchemaName("test")
+        .addSingleValueDimension(INT_COLUMN, DataType.INT)
+        .addSingleValueDimension(LONG_COLUMN, DataType.LONG)
+        .addSingleValueDimension(STRING_COLUMN, DataType.STRING)
+        .addSingleValueDimension(RAW_STRING_COLUMN, DataType.STRING)
+        .addSingleValueDimension(BYTES_COLUMN, DataType.BYTES)
+        .addMultiValueDimension(INT_MV_COLUMN, DataType.INT)
+        .addMultiValueDimension(STRING_MV_COLUMN, DataType.STRING)
+        .addMetric(FLOAT_COLUMN, DataType.FLOAT)
+        .addMetric(DOUBLE_COLUMN, DataType.DOUBLE)
+        .addMetric(BIG_DECIMAL_COLUMN, DataType.BIG_DECIMAL)
+        .build();
+    _tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("test")
+        .setNoDictionaryColumns(List.of(RAW_STRING_COLUMN, DOUBLE_COLUMN, BIG_DECIMAL_COLUMN))
+        .setInvertedIndexColumns(List.of(INT_COLUMN, STRING_COLUMN, INT_MV_COLUMN))
+        .setCreateInvertedIndexDuringSegmentGeneration(true)
+        .setNullHandlingEnabled(true)
+        .build();
+
+    Random random = new Random(42);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      // Leave some values empty so that they are filled with the default null value
+      if (i % 7 != 0) {
+        row.putValue(INT_COLUMN, random.nextInt(100));
+      }
+      row.putValue(LONG_COLUMN, random.nextLong());
+      row.putValue(FLOAT_COLUMN, random.nextFloat());
+      row.putValue(DOUBLE_COLUMN, random.nextDouble());
+      row.putValue(BIG_DECIMAL_COLUMN, BigDecimal.valueOf(random.nextInt(), 3));
+      if (i % 11 != 0) {
+        row.putValue(STRING_COLUMN, "value-" + random.nextInt(50));
+      }
+      row.putValue(RAW_STRING_COLUMN, "raw-" + random.nextInt());
+      row.putValue(BYTES_COLUMN, new byte[]{(byte) random.nextInt(), (byte) random.nextInt()});
+      int numValues = random.nextInt(4) + 1;
+      Object[] intValues = new Object[numValues];
+      Object[] stringValues = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        intValues[j] = random.nextInt(20);
+        stringValues[j] = "mv-" + random.nextInt(20);
+      }
+      row.putValue(INT_MV_COLUMN, intValues);
+      row.putValue(STRING_MV_COLUMN, stringValues);
+      _rows.add(row);
+    }
+  }
+
+  @Test
+  public void testParallelIndexCreation()
+      throws Exception {
+    File sequentialSegmentDir = buildSegment("sequential", 1);
+    File parallelSegmentDir = buildSegment("parallel", 4);
+
+    SegmentMetadataImpl sequentialMetadata = new SegmentMetadataImpl(sequentialSegmentDir);
+    SegmentMetadataImpl parallelMetadata = new SegmentMetadataImpl(parallelSegmentDir);
+    assertEquals(parallelMetadata.getTotalDocs(), NUM_ROWS);
+    for (String column : _schema.getPhysicalColumnNames()) {
+      ColumnMetadata sequentialColumnMetadata = sequentialMetadata.getColumnMetadataFor(column);
+      ColumnMetadata parallelColumnMetadata = parallelMetadata.getColumnMetadataFor(column);
+      assertEquals(parallelColumnMetadata.getCardinality(), sequentialColumnMetadata.getCardinality());
+      assertEquals(parallelColumnMetadata.getMinValue(), sequentialColumnMetadata.getMinValue());
+      assertEquals(parallelColumnMetadata.getMaxValue(), sequentialColumnMetadata.getMaxValue());
+      assertEquals(parallelColumnMetadata.hasDictionary(), sequentialColumnMetadata.hasDictionary());
+      assertEquals(parallelColumnMetadata.getTotalNumberOfEntries(),
+          sequentialColumnMetadata.getTotalNumberOfEntries());
+    }
+
+    try (PinotSegmentRecordReader sequentialReader = new PinotSegmentRecordReader(sequentialSegmentDir);
+        PinotSegmentRecordReader parallelReader = new PinotSegmentRecordReader(parallelSegmentDir)) {
+      int numNullValues = 0;
+      while (sequentialReader.hasNext()) {
+        assertTrue(parallelReader.hasNext());
+        GenericRow sequentialRow = sequentialReader.next();
+        GenericRow parallelRow = parallelReader.next();
+        for (String column : _schema.getPhysicalColumnNames()) {
+          Object sequentialValue = sequentialRow.getValue(column);
+          Object parallelValue = parallelRow.getValue(column);
+          if (sequentialValue instanceof Object[]) {
+            assertEquals((Object[]) parallelValue, (Object[]) sequentialValue);
+          } else if (sequentialValue instanceof byte[]) {
+            assertEquals((byte[]) parallelValue, (byte[]) sequentialValue);
+          } else {
+            assertEquals(parallelValue, sequentialValue);
+          }
+        }
+        assertEquals(parallelRow.getNullValueFields(), sequentialRow.getNullValueFields());
+        numNullValues += parallelRow.getNullValueFields().size();
+      }
+      assertFalse(parallelReader.hasNext());
+      assertTrue(numNullValues > 0);
+    }
+  }
+
+  @Test
+  public void testParallelIndexCreationWithNoRecords()
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    config.setOutDir(new File(TEMP_DIR, "empty").getAbsolutePath());
+    config.setSegmentName("emptySegment");
+    config.setNumIndexCreationThreads(4);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(List.of()));
+    driver.build();
+    assertEquals(new SegmentMetadataImpl(driver.getOutputDirectory()).getTotalDocs(), 0);
+  }
+
+  private File buildSegment(String name, int numIndexCreationThreads)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    File outDir = new File(TEMP_DIR, name);
+    config.setOutDir(outDir.getAbsolutePath());
+    config.setSegmentName(name);
+    config.setNumIndexCreationThreads(numIndexCreationThreads);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(_rows));
+    driver.build();
+    // The row buffer should be cleaned up once the segment is built
+    File[] files = outDir.listFiles();
+    assertEquals(files.length, 1);
+    return driver.getOutputDirectory();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.PinotBuffersAfterMethodCheckRule;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.OnHeapZoneMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.zonemap.ImmutableZoneMapIndexReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.ZoneMapIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.util.TestUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class ZoneMapIndexCreatorTest implements PinotBuffersAfterMethodCheckRule {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ZoneMapIndexCreatorTest");
+  private static final int NUM_DOCS = 2500;
+  private static final int NUM_DOCS_PER_BLOCK = 1000;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    TestUtils.ensureDirectoriesExistAndEmpty(TEMP_DIR);
+  }
+
+  @Test
+  public void testLongZoneMap()
+      throws Exception {
+    String columnName = "longColumn";
+    try (ZoneMapIndexCreator creator = new OnHeapZoneMapIndexCreator(TEMP_DIR, columnName, DataType.LONG, NUM_DOCS,
+        NUM_DOCS_PER_BLOCK)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        // Values increase with the doc id, with one out of order value in the second block
+        creator.add(i == 1500 ? -5L : (long) i * 10, -1);
+      }
+      creator.seal();
+    }
+
+    File indexFile = new File(TEMP_DIR, columnName + V1Constants.Indexes.ZONE_MAP_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ZoneMapIndexReader reader = new ImmutableZoneMapIndexReader(dataBuffer, DataType.LONG)) {
+      assertEquals(reader.getStoredType(), DataType.LONG);
+      assertEquals(reader.getNumDocsPerBlock(), NUM_DOCS_PER_BLOCK);
+      assertEquals(reader.getNumBlocks(), 3);
+      assertEquals(reader.getMinLong(0), 0L);
+      assertEquals(reader.getMaxLong(0), 9990L);
+      assertEquals(reader.getMinLong(1), -5L);
+      assertEquals(reader.getMaxLong(1), 19990L);
+      assertEquals(reader.getMinLong(2), 20000L);
+      assertEquals(reader.getMaxLong(2), 24990L);
+    }
+  }
+
+  @Test
+  public void testFloatZoneMap()
+      throws Exception {
+    String columnName = "floatColumn";
+    try (ZoneMapIndexCreator creator = new OnHeapZoneMapIndexCreator(TEMP_DIR, columnName, DataType.FLOAT, NUM_DOCS,
+        NUM_DOCS_PER_BLOCK)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        // NaN values are not tracked in the min/max values
+        creator.add(i % 100 == 0 ? Float.NaN : -i * 0.5f, -1);
+      }
+      creator.seal();
+    }
+
+    File indexFile = new File(TEMP_DIR, columnName + V1Constants.Indexes.ZONE_MAP_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ZoneMapIndexReader reader = new ImmutableZoneMapIndexReader(dataBuffer, DataType.FLOAT)) {
+      assertEquals(reader.getNumBlocks(), 3);
+      assertEquals(reader.getMinDouble(0), -499.5);
+      assertEquals(reader.getMaxDouble(0), -0.5);
+      assertEquals(reader.getMinDouble(1), -999.5);
+      assertEquals(reader.getMaxDouble(1), -500.5);
+      assertEquals(reader.getMinDouble(2), -1249.5);
+      assertEquals(reader.getMaxDouble(2), -1000.5);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
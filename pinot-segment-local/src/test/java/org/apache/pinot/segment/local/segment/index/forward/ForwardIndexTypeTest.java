@@ -50,6 +50,9 @@ public class ForwardIndexTypeTest {
         new Object[] {"SNAPPY", ChunkCompressionType.SNAPPY, null},
         new Object[] {"ZSTANDARD", ChunkCompressionType.ZSTANDARD, null},
         new Object[] {"LZ4", ChunkCompressionType.LZ4, null},
+        new Object[] {"FRAME_OF_REFERENCE", ChunkCompressionType.FRAME_OF_REFERENCE, null},
+        new Object[] {"DELTA", ChunkCompressionType.DELTA, null},
+        new Object[] {"DELTADELTA", ChunkCompressionType.DELTADELTA, null},
         new Object[] {"MV_ENTRY_DICT", null, DictIdCompressionType.MV_ENTRY_DICT},
         new Object[] {null, null, null}
     };
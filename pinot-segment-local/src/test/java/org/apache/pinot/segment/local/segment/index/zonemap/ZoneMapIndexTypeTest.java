@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.zonemap;
+
+import java.io.IOException;
+import org.apache.pinot.segment.local.segment.index.AbstractSerdeIndexContract;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.ZoneMapIndexConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertThrows;
+
+
+public class ZoneMapIndexTypeTest {
+
+  public static class ConfTest extends AbstractSerdeIndexContract {
+
+    protected void assertEquals(ZoneMapIndexConfig expected) {
+      Assert.assertEquals(getActualConfig("dimInt", StandardIndexes.zoneMap()), expected);
+    }
+
+    @Test
+    public void noConf() {
+      assertEquals(ZoneMapIndexConfig.DISABLED);
+    }
+
+    @Test
+    public void newConfDisabled()
+        throws IOException {
+      addFieldIndexConfig("{"
+          + "    \"name\": \"dimInt\",\n"
+          + "    \"indexes\" : {\n"
+          + "      \"zonemap\": {\"disabled\": true}\n"
+          + "    }"
+          + "}");
+
+      assertEquals(ZoneMapIndexConfig.DISABLED);
+    }
+
+    @Test
+    public void newConfDefault()
+        throws IOException {
+      addFieldIndexConfig("{"
+          + "    \"name\": \"dimInt\",\n"
+          + "    \"indexes\" : {\n"
+          + "      \"zonemap\": {}\n"
+          + "    }"
+          + "}");
+
+      assertEquals(ZoneMapIndexConfig.DEFAULT);
+    }
+
+    @Test
+    public void newConfWithNumDocsPerBlock()
+        throws IOException {
+      addFieldIndexConfig("{"
+          + "    \"name\": \"dimInt\",\n"
+          + "    \"indexes\" : {\n"
+          + "      \"zonemap\": {\"numDocsPerBlock\": 4096}\n"
+          + "    }"
+          + "}");
+
+      assertEquals(new ZoneMapIndexConfig(4096));
+    }
+  }
+
+  @Test
+  public void testValidate() {
+    FieldIndexConfigs indexConfigs =
+        new FieldIndexConfigs.Builder().add(StandardIndexes.zoneMap(), ZoneMapIndexConfig.DEFAULT).build();
+    for (DataType dataType : new DataType[]{DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE,
+        DataType.TIMESTAMP}) {
+      StandardIndexes.zoneMap().validate(indexConfigs, new DimensionFieldSpec("col", dataType, true), null);
+    }
+    for (DataType dataType : new DataType[]{DataType.BIG_DECIMAL, DataType.STRING, DataType.BYTES}) {
+      FieldSpec fieldSpec = new DimensionFieldSpec("col", dataType, true);
+      assertThrows(IllegalStateException.class,
+          () -> StandardIndexes.zoneMap().validate(indexConfigs, fieldSpec, null));
+    }
+    FieldSpec multiValueFieldSpec = new DimensionFieldSpec("col", DataType.INT, false);
+    assertThrows(IllegalStateException.class,
+        () -> StandardIndexes.zoneMap().validate(indexConfigs, multiValueFieldSpec, null));
+    // Disabled index is not validated
+    FieldIndexConfigs disabledConfigs =
+        new FieldIndexConfigs.Builder().add(StandardIndexes.zoneMap(), ZoneMapIndexConfig.DISABLED).build();
+    StandardIndexes.zoneMap().validate(disabledConfigs, new DimensionFieldSpec("col", DataType.STRING, true), null);
+  }
+
+  @Test
+  public void testInvalidConfig() {
+    assertThrows(IllegalArgumentException.class, () -> new ZoneMapIndexConfig(0));
+    Assert.assertEquals(new ZoneMapIndexConfig(null, null).getNumDocsPerBlock(),
+        ZoneMapIndexConfig.DEFAULT_NUM_DOCS_PER_BLOCK);
+  }
+}
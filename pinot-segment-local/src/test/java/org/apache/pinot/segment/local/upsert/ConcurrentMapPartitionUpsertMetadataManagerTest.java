@@ -59,6 +59,7 @@ import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.BytesUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.apache.pinot.util.TestUtils;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedConstruction;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.AfterClass;
@@ -69,8 +70,10 @@ import org.testng.annotations.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
 
@@ -1128,6 +1131,104 @@ public class ConcurrentMapPartitionUpsertMetadataManagerTest {
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1, 2});
   }
 
+  @Test
+  public void testBootstrapSegments()
+      throws IOException {
+    _contextBuilder.setEnableParallelBootstrap(true).setDeleteRecordColumn(DELETE_RECORD_COLUMN);
+    verifyBootstrapSegments(HashFunction.NONE, false);
+    verifyBootstrapSegments(HashFunction.MD5, false);
+    verifyBootstrapSegments(HashFunction.MURMUR3, true);
+  }
+
+  private void verifyBootstrapSegments(HashFunction hashFunction, boolean reverseOrder)
+      throws IOException {
+    ConcurrentMapPartitionUpsertMetadataManager upsertMetadataManager =
+        new ConcurrentMapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0,
+            _contextBuilder.setHashFunction(hashFunction).build());
+    Map<Object, RecordLocation> recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
+
+    // segment1: 0 -> {3, 120}, 1 -> {1, 100}, 2 -> {2, 100}
+    // segment2: 0 -> {0, 110}, 1 -> {1, 100}, 3 -> {2, 50, deleted}
+    // segment3: 2 -> {0, 90}
+    List<ImmutableSegmentImpl> segments = new ArrayList<>();
+    segments.add(mockImmutableSegmentWithColumns(1, new int[]{0, 1, 2, 0}, new int[]{100, 100, 100, 120},
+        new int[]{0, 0, 0, 0}));
+    segments.add(mockImmutableSegmentWithColumns(2, new int[]{0, 1, 3}, new int[]{110, 100, 50}, new int[]{0, 0, 1}));
+    segments.add(mockImmutableSegmentWithColumns(3, new int[]{2}, new int[]{90}, new int[]{0}));
+    List<ImmutableSegmentImpl> segmentsToPreload = new ArrayList<>(segments);
+    if (reverseOrder) {
+      Collections.reverse(segmentsToPreload);
+    }
+    // Segments without validDocIds snapshot are deferred until bootstrap
+    for (ImmutableSegmentImpl segment : segmentsToPreload) {
+      upsertMetadataManager.preloadSegment(segment);
+    }
+    assertTrue(recordLocationMap.isEmpty());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      upsertMetadataManager.bootstrapSegments(executor);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // The tie on primary key 1 is broken by the sequence number
+    assertEquals(recordLocationMap.size(), 4);
+    checkRecordLocationForTTL(recordLocationMap, 0, segments.get(0), 3, 120, hashFunction);
+    checkRecordLocationForTTL(recordLocationMap, 1, segments.get(1), 1, 100, hashFunction);
+    checkRecordLocationForTTL(recordLocationMap, 2, segments.get(0), 2, 100, hashFunction);
+    checkRecordLocationForTTL(recordLocationMap, 3, segments.get(1), 2, 50, hashFunction);
+    assertEquals(upsertMetadataManager._trackedSegments, Set.copyOf(segments));
+
+    // Only the winning records should be valid, and the deleted record should not be queryable
+    checkBootstrappedDocIds(upsertMetadataManager, segments.get(0), new int[]{2, 3}, new int[]{2, 3});
+    checkBootstrappedDocIds(upsertMetadataManager, segments.get(1), new int[]{1, 2}, new int[]{1});
+    checkBootstrappedDocIds(upsertMetadataManager, segments.get(2), new int[0], new int[0]);
+
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  private static void checkBootstrappedDocIds(PartitionUpsertMetadataManager upsertMetadataManager,
+      ImmutableSegmentImpl segment, int[] expectedValidDocIds, int[] expectedQueryableDocIds) {
+    ArgumentCaptor<ThreadSafeMutableRoaringBitmap> validDocIdsCaptor =
+        ArgumentCaptor.forClass(ThreadSafeMutableRoaringBitmap.class);
+    ArgumentCaptor<ThreadSafeMutableRoaringBitmap> queryableDocIdsCaptor =
+        ArgumentCaptor.forClass(ThreadSafeMutableRoaringBitmap.class);
+    verify(segment).enableUpsert(eq(upsertMetadataManager), validDocIdsCaptor.capture(),
+        queryableDocIdsCaptor.capture());
+    assertEquals(validDocIdsCaptor.getValue().getMutableRoaringBitmap().toArray(), expectedValidDocIds);
+    assertNotNull(queryableDocIdsCaptor.getValue());
+    assertEquals(queryableDocIdsCaptor.getValue().getMutableRoaringBitmap().toArray(), expectedQueryableDocIds);
+  }
+
+  private static ImmutableSegmentImpl mockImmutableSegmentWithColumns(int sequenceNumber, int[] primaryKeys,
+      int[] timestamps, int[] deleteFlags) {
+    ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
+    when(segment.getSegmentName()).thenReturn(getSegmentName(sequenceNumber));
+    DataSource primaryKeyDataSource = mockIntDataSource(primaryKeys);
+    when(segment.getDataSource(PRIMARY_KEY_COLUMNS.get(0))).thenReturn(primaryKeyDataSource);
+    DataSource comparisonDataSource = mockIntDataSource(timestamps);
+    when(segment.getDataSource(COMPARISON_COLUMNS.get(0))).thenReturn(comparisonDataSource);
+    DataSource deleteRecordDataSource = mockIntDataSource(deleteFlags);
+    when(segment.getDataSource(DELETE_RECORD_COLUMN)).thenReturn(deleteRecordDataSource);
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(primaryKeys.length);
+    when(segmentMetadata.getZkCreationTime()).thenReturn(System.currentTimeMillis());
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+
+  private static DataSource mockIntDataSource(int[] values) {
+    DataSource dataSource = mock(DataSource.class);
+    ForwardIndexReader forwardIndex = mock(ForwardIndexReader.class);
+    when(forwardIndex.isSingleValue()).thenReturn(true);
+    when(forwardIndex.getStoredType()).thenReturn(DataType.INT);
+    when(forwardIndex.getInt(anyInt(), any())).thenAnswer(invocation -> values[(int) invocation.getArgument(0)]);
+    when(dataSource.getForwardIndex()).thenReturn(forwardIndex);
+    return dataSource;
+  }
+
   @Test
   public void testPreloadSegmentOutOfTTL() {
     _contextBuilder.setEnableSnapshot(true).setMetadataTTL(30);
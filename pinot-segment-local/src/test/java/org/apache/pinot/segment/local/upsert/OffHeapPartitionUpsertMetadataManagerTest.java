@@ -0,0 +1,406 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPartitionUpsertMetadataManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = TableNameBuilder.REALTIME.tableNameWithType(RAW_TABLE_NAME);
+  private static final List<String> PRIMARY_KEY_COLUMNS = Collections.singletonList("pk");
+  private static final List<String> COMPARISON_COLUMNS = Collections.singletonList("timeCol");
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension("pk", DataType.INT)
+      .addDateTimeField("timeCol", DataType.INT, "EPOCH|SECONDS", "1:SECONDS")
+      .addSingleValueDimension("stringCol", DataType.STRING)
+      .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS)
+      .build();
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "OffHeapPartitionUpsertMetadataManagerTest");
+
+  private UpsertContext.Builder _contextBuilder;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+    ServerMetrics.register(mock(ServerMetrics.class));
+  }
+
+  @BeforeMethod
+  public void setUpContextBuilder()
+      throws IOException {
+    FileUtils.cleanDirectory(INDEX_DIR);
+    TableDataManager tableDataManager = mock(TableDataManager.class);
+    when(tableDataManager.getTableDataDir()).thenReturn(INDEX_DIR);
+    when(tableDataManager.getSegmentLock(anyString())).thenReturn(new ReentrantLock());
+    _contextBuilder = new UpsertContext.Builder()
+        .setTableConfig(mock(TableConfig.class))
+        .setSchema(SCHEMA)
+        .setTableDataManager(tableDataManager)
+        .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS)
+        .setComparisonColumns(COMPARISON_COLUMNS);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.forceDelete(INDEX_DIR);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testNonNumericComparisonColumn() {
+    new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0,
+        _contextBuilder.setComparisonColumns(Collections.singletonList("stringCol")).build());
+  }
+
+  @Test
+  public void testAddReplaceRemoveSegment()
+      throws IOException {
+    verifyAddReplaceRemoveSegment(HashFunction.NONE);
+    verifyAddReplaceRemoveSegment(HashFunction.MD5);
+    verifyAddReplaceRemoveSegment(HashFunction.MURMUR3);
+  }
+
+  private void verifyAddReplaceRemoveSegment(HashFunction hashFunction)
+      throws IOException {
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0,
+            _contextBuilder.setHashFunction(hashFunction).build());
+
+    // Add the first segment
+    int[] primaryKeys = new int[]{0, 1, 2, 0, 1, 0};
+    int[] timestamps = new int[]{100, 100, 100, 80, 120, 100};
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    String segmentName1 = getSegmentName(1);
+    ImmutableSegmentImpl segment1 = mockImmutableSegment(segmentName1, validDocIds1, primaryKeys);
+    List<RecordInfo> recordInfoList1 = getRecordInfoList(primaryKeys, timestamps);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null, recordInfoList1.iterator());
+    upsertMetadataManager._trackedSegments.add(segment1);
+    // segment1: 0 -> {5, 100}, 1 -> {4, 120}, 2 -> {2, 100}
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 3);
+    checkRecordLocation(upsertMetadataManager, 0, segment1, 5, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment1, 2, 100);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2, 4, 5});
+
+    // Add the second segment
+    primaryKeys = new int[]{0, 1, 2, 3, 0};
+    timestamps = new int[]{100, 100, 120, 80, 80};
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment2 = mockImmutableSegment(getSegmentName(2), validDocIds2, primaryKeys);
+    upsertMetadataManager.addSegment(segment2, validDocIds2, null,
+        getRecordInfoList(primaryKeys, timestamps).iterator());
+    upsertMetadataManager._trackedSegments.add(segment2);
+    // segment1: 1 -> {4, 120}
+    // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 4);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 2, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 3, 80);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
+
+    // Replace (reload) the first segment
+    ThreadSafeMutableRoaringBitmap newValidDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl newSegment1 =
+        mockImmutableSegment(segmentName1, newValidDocIds1, new int[]{0, 1, 2, 0, 1, 0});
+    upsertMetadataManager.replaceSegment(newSegment1, newValidDocIds1, null, recordInfoList1.iterator(), segment1);
+    upsertMetadataManager._trackedSegments.add(newSegment1);
+    upsertMetadataManager._trackedSegments.remove(segment1);
+    // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
+    // new segment1: 1 -> {4, 120}
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 4);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, newSegment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 2, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 3, 80);
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
+    assertEquals(newValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+
+    // Remove segment2
+    upsertMetadataManager.removeSegment(segment2);
+    // new segment1: 1 -> {4, 120}
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 1);
+    checkRecordLocation(upsertMetadataManager, 1, newSegment1, 4, 120);
+    assertNull(upsertMetadataManager.getRecordLocation(makePrimaryKey(0)));
+    assertEquals(upsertMetadataManager._trackedSegments, Collections.singleton(newSegment1));
+
+    // Stop and close the metadata manager
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testAddRecord()
+      throws IOException {
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+
+    // segment1: 0 -> {0, 100}, 1 -> {1, 120}, 2 -> {2, 100}
+    int[] primaryKeys = new int[]{0, 1, 2};
+    int[] timestamps = new int[]{100, 120, 100};
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment1 = mockImmutableSegment(getSegmentName(1), validDocIds1, primaryKeys);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null,
+        getRecordInfoList(primaryKeys, timestamps).iterator());
+
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    MutableSegment segment2 = mockMutableSegment(getSegmentName(2), validDocIds2);
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(3), 0, 100, false)));
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(2), 1, 120, false)));
+    // Out-of-order record
+    assertFalse(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(1), 2, 100, false)));
+    // Same comparison value keeps the newer record
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(0), 3, 100, false)));
+
+    // segment1: 1 -> {1, 120}
+    // segment2: 0 -> {3, 100}, 2 -> {1, 120}, 3 -> {0, 100}
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 4);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 3, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 0, 100);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1, 3});
+
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testEncodeComparisonValue()
+      throws IOException {
+    for (DataType dataType : new DataType[]{DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE}) {
+      Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+          .addSingleValueDimension("pk", DataType.INT)
+          .addMetric("timeCol", dataType)
+          .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS)
+          .build();
+      OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+          new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.setSchema(schema).build());
+      Comparable[] values;
+      switch (dataType) {
+        case INT:
+          values = new Comparable[]{Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE};
+          break;
+        case LONG:
+          values = new Comparable[]{Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE};
+          break;
+        case FLOAT:
+          values = new Comparable[]{Float.NEGATIVE_INFINITY, -1.5f, 0f, Float.MAX_VALUE};
+          break;
+        default:
+          values = new Comparable[]{Double.NEGATIVE_INFINITY, -1.5, 0.0, Double.MAX_VALUE};
+          break;
+      }
+      for (Comparable value : values) {
+        Location location = new Location(1, 0, upsertMetadataManager.encodeComparisonValue(value));
+        assertEquals(upsertMetadataManager.decodeComparisonValue(location), value);
+      }
+      upsertMetadataManager.stop();
+      upsertMetadataManager.close();
+    }
+  }
+
+  @Test
+  public void testPersistAndPreload()
+      throws IOException {
+    _contextBuilder.setEnableSnapshot(true).setEnablePreload(true);
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+
+    // segment1: 1 -> {1, 120}
+    // segment2: 0 -> {0, 100}, 2 -> {1, 120}
+    int[] primaryKeys1 = new int[]{0, 1, 2};
+    int[] timestamps1 = new int[]{100, 120, 100};
+    String segmentName1 = getSegmentName(1);
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment1 = mockImmutableSegment(segmentName1, validDocIds1, primaryKeys1);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null,
+        getRecordInfoList(primaryKeys1, timestamps1).iterator());
+    int[] primaryKeys2 = new int[]{0, 2};
+    int[] timestamps2 = new int[]{100, 120};
+    String segmentName2 = getSegmentName(2);
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment2 = mockImmutableSegment(segmentName2, validDocIds2, primaryKeys2);
+    upsertMetadataManager.addSegment(segment2, validDocIds2, null,
+        getRecordInfoList(primaryKeys2, timestamps2).iterator());
+    for (ImmutableSegmentImpl segment : new ImmutableSegmentImpl[]{segment1, segment2}) {
+      upsertMetadataManager._trackedSegments.add(segment);
+      upsertMetadataManager._updatedSegmentsSinceLastSnapshot.add(segment);
+    }
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+
+    // Take snapshot, which should persist the primary key map
+    upsertMetadataManager._gotFirstConsumingSegment = true;
+    upsertMetadataManager.takeSnapshot();
+    verify(segment1).persistValidDocIdsSnapshot();
+    verify(segment2).persistValidDocIdsSnapshot();
+    File mapFile = new File(INDEX_DIR, V1Constants.UPSERT_PRIMARY_KEY_MAP_TABLE_PARTITION + 0);
+    File metadataFile = new File(INDEX_DIR, V1Constants.UPSERT_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION + 0);
+    assertTrue(mapFile.exists());
+    assertTrue(metadataFile.exists());
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    // Restart and preload segment1 only, which should be bound to the persisted map without reading primary keys
+    upsertMetadataManager = new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 3);
+    ImmutableSegmentImpl preloadedSegment1 = mockImmutableSegment(segmentName1, null, primaryKeys1);
+    when(preloadedSegment1.loadValidDocIdsFromSnapshot()).thenReturn(validDocIds1.getMutableRoaringBitmap());
+    upsertMetadataManager.preloadSegment(preloadedSegment1);
+    verify(preloadedSegment1, never()).getDataSource(anyString());
+    verify(preloadedSegment1).enableUpsert(any(), any(), any());
+    checkRecordLocation(upsertMetadataManager, 1, preloadedSegment1, 1, 120);
+    // Keys of segment2 are treated as non-existing because segment2 is not bound yet
+    Location location = upsertMetadataManager.getRecordLocation(makePrimaryKey(0));
+    assertNotNull(location);
+    assertNull(upsertMetadataManager.getSegment(location));
+
+    // Adding segment2 should add back its keys
+    ThreadSafeMutableRoaringBitmap newValidDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl newSegment2 = mockImmutableSegment(segmentName2, newValidDocIds2, primaryKeys2);
+    upsertMetadataManager.addSegment(newSegment2, newValidDocIds2, null,
+        getRecordInfoList(primaryKeys2, timestamps2).iterator());
+    checkRecordLocation(upsertMetadataManager, 0, newSegment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, preloadedSegment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, newSegment2, 1, 120);
+    assertEquals(newValidDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+
+    // Segment with different CRC should not be bound to the persisted map
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+    upsertMetadataManager = new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+    ImmutableSegmentImpl changedSegment1 = mockImmutableSegment(segmentName1, null, primaryKeys1);
+    when(changedSegment1.getSegmentMetadata().getCrc()).thenReturn("changed");
+    when(changedSegment1.loadValidDocIdsFromSnapshot()).thenReturn(validDocIds1.getMutableRoaringBitmap());
+    upsertMetadataManager.preloadSegment(changedSegment1);
+    verify(changedSegment1, atLeastOnce()).getDataSource(anyString());
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    // Persisted map should be deleted when preload is disabled
+    new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0,
+        _contextBuilder.setEnablePreload(false).build()).stop();
+    assertFalse(mapFile.exists());
+    assertFalse(metadataFile.exists());
+  }
+
+  private static List<RecordInfo> getRecordInfoList(int[] primaryKeys, int[] timestamps) {
+    List<RecordInfo> recordInfoList = new ArrayList<>();
+    for (int i = 0; i < primaryKeys.length; i++) {
+      recordInfoList.add(new RecordInfo(makePrimaryKey(primaryKeys[i]), i, timestamps[i], false));
+    }
+    return recordInfoList;
+  }
+
+  private static ImmutableSegmentImpl mockImmutableSegment(String segmentName,
+      @Nullable ThreadSafeMutableRoaringBitmap validDocIds, int[] primaryKeys) {
+    ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    when(segment.getValidDocIds()).thenReturn(validDocIds);
+    DataSource dataSource = mock(DataSource.class);
+    when(segment.getDataSource(anyString())).thenReturn(dataSource);
+    ForwardIndexReader forwardIndex = mock(ForwardIndexReader.class);
+    when(forwardIndex.isSingleValue()).thenReturn(true);
+    when(forwardIndex.getStoredType()).thenReturn(DataType.INT);
+    when(forwardIndex.getInt(anyInt(), any())).thenAnswer(invocation -> primaryKeys[(int) invocation.getArgument(0)]);
+    when(dataSource.getForwardIndex()).thenReturn(forwardIndex);
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    long creationTimeMs = System.currentTimeMillis();
+    when(segmentMetadata.getIndexCreationTime()).thenReturn(creationTimeMs);
+    when(segmentMetadata.getZkCreationTime()).thenReturn(creationTimeMs);
+    when(segmentMetadata.getCrc()).thenReturn("crc");
+    when(segmentMetadata.getTotalDocs()).thenReturn(primaryKeys.length);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+
+  private static MutableSegment mockMutableSegment(String segmentName, ThreadSafeMutableRoaringBitmap validDocIds) {
+    MutableSegment segment = mock(MutableSegment.class);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    when(segment.getValidDocIds()).thenReturn(validDocIds);
+    return segment;
+  }
+
+  private static String getSegmentName(int sequenceNumber) {
+    return new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, System.currentTimeMillis()).toString();
+  }
+
+  private static PrimaryKey makePrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+
+  private static void checkRecordLocation(OffHeapPartitionUpsertMetadataManager upsertMetadataManager, int keyValue,
+      IndexSegment segment, int docId, int comparisonValue) {
+    Location recordLocation = upsertMetadataManager.getRecordLocation(makePrimaryKey(keyValue));
+    assertNotNull(recordLocation);
+    assertSame(upsertMetadataManager.getSegment(recordLocation), segment);
+    assertEquals(recordLocation.getDocId(), docId);
+    assertEquals(upsertMetadataManager.decodeComparisonValue(recordLocation), comparisonValue);
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPrimaryKeyMapTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "OffHeapPrimaryKeyMapTest");
+  private static final int NUM_KEYS = 100_000;
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testPutGetCompute() {
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap("testPutGetCompute")) {
+      assertNull(map.get(1, 2));
+      assertNull(map.put(1, 2, new Location(1, 10, 100)));
+      checkLocation(map.get(1, 2), 1, 10, 100);
+      // Same high bits but different low bits is a different key
+      assertNull(map.get(1, 3));
+      checkLocation(map.put(1, 2, new Location(2, 20, 200)), 1, 10, 100);
+      checkLocation(map.get(1, 2), 2, 20, 200);
+      assertEquals(map.size(), 1);
+
+      // Returning the current location should leave the map unchanged
+      checkLocation(map.compute(1, 2, location -> location), 2, 20, 200);
+      assertEquals(map.size(), 1);
+
+      // Compute for absent key
+      assertNull(map.computeIfPresent(3, 4, location -> new Location(3, 30, 300)));
+      assertNull(map.get(3, 4));
+      checkLocation(map.compute(3, 4, location -> {
+        assertNull(location);
+        return new Location(3, 30, 300);
+      }), 3, 30, 300);
+      assertEquals(map.size(), 2);
+
+      // Compute for existing key
+      checkLocation(map.computeIfPresent(3, 4, location -> new Location(4, location.getDocId() + 1, -1)), 4, 31, -1);
+      checkLocation(map.get(3, 4), 4, 31, -1);
+
+      // Remove key
+      assertNull(map.compute(3, 4, location -> null));
+      assertNull(map.get(3, 4));
+      assertEquals(map.size(), 1);
+      // Add the key back into the removed slot
+      assertNull(map.put(3, 4, new Location(5, 50, 500)));
+      checkLocation(map.get(3, 4), 5, 50, 500);
+      assertEquals(map.size(), 2);
+    }
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Map<Key, Location> expected = new HashMap<>();
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap("testRandomOperations")) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+        // Use a small key space so that there are both updates and removals
+        Key key = new Key(RANDOM.nextInt(NUM_KEYS / 2), RANDOM.nextInt(4));
+        if (RANDOM.nextInt(4) == 0) {
+          map.compute(key._high, key._low, location -> null);
+          expected.remove(key);
+        } else {
+          Location location = new Location(RANDOM.nextInt(100) + 1, i, RANDOM.nextLong());
+          map.put(key._high, key._low, location);
+          expected.put(key, location);
+        }
+      }
+      assertEquals(map.size(), expected.size(), "Random seed: " + RANDOM_SEED);
+      for (Map.Entry<Key, Location> entry : expected.entrySet()) {
+        Key key = entry.getKey();
+        Location location = entry.getValue();
+        checkLocation(map.get(key._high, key._low), location.getSegmentId(), location.getDocId(), location.getValue());
+      }
+      assertTrue(map.getMemoryUsage() >= expected.size() * OffHeapPrimaryKeyMap.SLOT_SIZE);
+
+      // Remove all the keys of odd segment ids
+      long numRemoved = map.removeIf(location -> location.getSegmentId() % 2 == 1);
+      long numExpectedRemoved = expected.values().stream().filter(location -> location.getSegmentId() % 2 == 1).count();
+      assertEquals(numRemoved, numExpectedRemoved);
+      expected.values().removeIf(location -> location.getSegmentId() % 2 == 1);
+      assertEquals(map.size(), expected.size());
+      for (Map.Entry<Key, Location> entry : expected.entrySet()) {
+        Key key = entry.getKey();
+        assertEquals(map.get(key._high, key._low).getDocId(), entry.getValue().getDocId());
+      }
+    }
+  }
+
+  @Test
+  public void testPersistAndLoad()
+      throws IOException {
+    File file = new File(TEMP_DIR, "testPersistAndLoad");
+    Map<Key, Location> expected = new HashMap<>();
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap("testPersistAndLoad")) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+        Key key = new Key(RANDOM.nextLong(), RANDOM.nextLong());
+        Location location = new Location(i % 10 + 1, i, i * 10L);
+        map.put(key._high, key._low, location);
+        expected.put(key, location);
+      }
+      // Leave some removed slots in the persisted map
+      map.removeIf(location -> location.getSegmentId() == 1);
+      expected.values().removeIf(location -> location.getSegmentId() == 1);
+      map.persist(file);
+    }
+    assertTrue(file.exists());
+    assertFalse(new File(file.getPath() + ".tmp").exists());
+
+    try (OffHeapPrimaryKeyMap map = OffHeapPrimaryKeyMap.load(file, "testPersistAndLoad")) {
+      assertEquals(map.size(), expected.size());
+      for (Map.Entry<Key, Location> entry : expected.entrySet()) {
+        Key key = entry.getKey();
+        Location location = entry.getValue();
+        checkLocation(map.get(key._high, key._low), location.getSegmentId(), location.getDocId(), location.getValue());
+      }
+      // The loaded map should be updatable
+      Key key = expected.keySet().iterator().next();
+      map.compute(key._high, key._low, location -> null);
+      assertNull(map.get(key._high, key._low));
+      assertNull(map.put(1, 1, new Location(1, 1, 1)));
+      checkLocation(map.get(1, 1), 1, 1, 1);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testLoadInvalidFile()
+      throws IOException {
+    File file = new File(TEMP_DIR, "testLoadInvalidFile");
+    FileUtils.writeByteArrayToFile(file, new byte[100]);
+    OffHeapPrimaryKeyMap.load(file, "testLoadInvalidFile");
+  }
+
+  private static void checkLocation(Location location, int segmentId, int docId, long value) {
+    assertNotNull(location);
+    assertEquals(location.getSegmentId(), segmentId);
+    assertEquals(location.getDocId(), docId);
+    assertEquals(location.getValue(), value);
+  }
+
+  private static class Key {
+    final long _high;
+    final long _low;
+
+    Key(long high, long low) {
+      _high = high;
+      _low = low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _high == key._high && _low == key._low;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(_high) * 31 + Long.hashCode(_low);
+    }
+  }
+}
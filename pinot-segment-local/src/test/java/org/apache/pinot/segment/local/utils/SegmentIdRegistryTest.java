@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.local.utils.SegmentIdRegistry.PersistedSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentIdRegistryTest {
+
+  @Test
+  public void testBindSegments() {
+    SegmentIdRegistry registry = new SegmentIdRegistry(5);
+    IndexSegment segment1 = mockSegment("segment1", "1");
+    IndexSegment segment2 = mockSegment("segment2", "2");
+    assertEquals(registry.getSegmentId(segment1), 5);
+    assertEquals(registry.getSegmentId(segment1), 5);
+    assertNull(registry.getBoundSegmentId(segment2));
+    registry.bind(segment2, 3);
+    assertEquals((int) registry.getBoundSegmentId(segment2), 3);
+    assertEquals(registry.getNextSegmentId(), 6);
+    assertSame(registry.getSegment(new Location(5, 0, 0)), segment1);
+    assertSame(registry.getSegment(new Location(3, 0, 0)), segment2);
+    assertNull(registry.getSegment(new Location(4, 0, 0)));
+    assertNull(registry.getSegment(null));
+    assertEquals(registry.getBoundSegments().size(), 2);
+
+    // Keys of the unbound segments should be removed
+    assertEquals((int) registry.unbind(segment1), 5);
+    assertNull(registry.unbind(segment1));
+    assertNull(registry.getSegment(new Location(5, 0, 0)));
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap("test")) {
+      map.put(1, 1, new Location(5, 0, 0));
+      map.put(2, 2, new Location(3, 0, 0));
+      assertEquals(registry.removeUnboundSegments(map), 1);
+      assertNull(map.get(1, 1));
+      assertEquals(map.get(2, 2).getSegmentId(), 3);
+    }
+  }
+
+  @Test
+  public void testPersistedSegments() {
+    Map<String, PersistedSegment> persistedSegments = SegmentIdRegistry.readPersistedSegments(
+        JsonUtils.newArrayNode().add(SegmentIdRegistry.toJson(1, "segment1", "1"))
+            .add(SegmentIdRegistry.toJson(2, "segment2", "2")));
+    assertEquals(persistedSegments.size(), 2);
+    PersistedSegment persistedSegment = persistedSegments.get("segment1");
+    assertEquals(persistedSegment.getId(), 1);
+    assertTrue(persistedSegment.matches(mockSegment("segment1", "1")));
+    assertFalse(persistedSegment.matches(mockSegment("segment1", "11")));
+  }
+
+  @Test
+  public void testGetKey() {
+    PrimaryKey primaryKey = new PrimaryKey(new Object[]{"foo", 123});
+    for (HashFunction hashFunction : new HashFunction[]{HashFunction.NONE, HashFunction.MD5, HashFunction.MURMUR3}) {
+      byte[] key = SegmentIdRegistry.getKey(primaryKey, hashFunction);
+      assertEquals(key.length, 2 * Long.BYTES);
+      assertEquals(SegmentIdRegistry.getKey(primaryKey, hashFunction), key);
+    }
+    byte[] key = SegmentIdRegistry.getKey(primaryKey, HashFunction.MD5);
+    ByteBuffer buffer = ByteBuffer.wrap(key);
+    assertEquals(SegmentIdRegistry.getKeyHigh(key), buffer.getLong());
+    assertEquals(SegmentIdRegistry.getKeyLow(key), buffer.getLong());
+  }
+
+  private static IndexSegment mockSegment(String segmentName, String crc) {
+    IndexSegment segment = mock(IndexSegment.class);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+}
@@ -1201,6 +1201,24 @@ public class TableConfigUtilsTest {
       assertEquals(e.getMessage(), "Compression codec: MV_ENTRY_DICT is not applicable to raw column: intCol");
     }
 
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+    try {
+      FieldConfig fieldConfig = new FieldConfig("myCol1", FieldConfig.EncodingType.RAW, Collections.emptyList(),
+          CompressionCodec.DELTA, null);
+      tableConfig.setFieldConfigList(Arrays.asList(fieldConfig));
+      TableConfigUtils.validate(tableConfig, schema);
+      fail("Should fail since DELTA compression codec does not support STRING column");
+    } catch (Exception e) {
+      assertEquals(e.getMessage(),
+          "Cannot apply DELTA compression codec to column: myCol1 which is not single-value INT or LONG");
+    }
+
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+    FieldConfig deltaDeltaFieldConfig = new FieldConfig(TIME_COLUMN, FieldConfig.EncodingType.RAW,
+        Collections.emptyList(), CompressionCodec.DELTADELTA, null);
+    tableConfig.setFieldConfigList(Arrays.asList(deltaDeltaFieldConfig));
+    TableConfigUtils.validate(tableConfig, schema);
+
     tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
         .setNoDictionaryColumns(Arrays.asList("myCol1"))
         .build();
@@ -1769,6 +1787,45 @@ public class TableConfigUtilsTest {
     assertTrue(e.getMessage().contains("Duplicate function column pair"));
   }
 
+  @Test
+  public void testValidateStarTreeIndexNumericCompressionCodec() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension("myCol", FieldSpec.DataType.STRING)
+        .addMetric("intCol", FieldSpec.DataType.INT)
+        .build();
+
+    // Numeric codecs can be applied to LONG aggregated values (COUNT)
+    StarTreeIndexConfig starTreeIndexConfig = new StarTreeIndexConfig(List.of("myCol"), null, null, List.of(
+        new StarTreeAggregationConfig("*", "COUNT", null, CompressionCodec.DELTA, null, null, null, null)), 1);
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setStarTreeIndexConfigs(List.of(starTreeIndexConfig))
+        .build();
+    TableConfigUtils.validate(tableConfig, schema);
+
+    // Numeric codecs cannot be applied to DOUBLE aggregated values (SUM)
+    starTreeIndexConfig = new StarTreeIndexConfig(List.of("myCol"), null, null, List.of(
+        new StarTreeAggregationConfig("intCol", "SUM", null, CompressionCodec.FRAME_OF_REFERENCE, null, null, null,
+            null)), 1);
+    TableConfig tableConfig2 = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setStarTreeIndexConfigs(List.of(starTreeIndexConfig))
+        .build();
+    IllegalStateException e =
+        expectThrows(IllegalStateException.class, () -> TableConfigUtils.validate(tableConfig2, schema));
+    assertEquals(e.getMessage(), "Cannot apply FRAME_OF_REFERENCE compression codec to star-tree aggregation: "
+        + "sum__intCol with aggregated value type: DOUBLE");
+
+    // Numeric codecs cannot be applied to BYTES aggregated values (DISTINCTCOUNTHLL)
+    starTreeIndexConfig = new StarTreeIndexConfig(List.of("myCol"), null, null, List.of(
+        new StarTreeAggregationConfig("myCol", "DISTINCTCOUNTHLL", null, CompressionCodec.DELTADELTA, null, null, null,
+            null)), 1);
+    TableConfig tableConfig3 = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setStarTreeIndexConfigs(List.of(starTreeIndexConfig))
+        .build();
+    e = expectThrows(IllegalStateException.class, () -> TableConfigUtils.validate(tableConfig3, schema));
+    assertEquals(e.getMessage(), "Cannot apply DELTADELTA compression codec to star-tree aggregation: "
+        + "distinctCountHLL__myCol with aggregated value type: BYTES");
+  }
+
   @Test
   public void testValidateRetentionConfig() {
     Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
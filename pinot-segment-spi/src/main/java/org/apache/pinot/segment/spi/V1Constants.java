@@ -27,6 +27,12 @@ public class V1Constants {
   public static final String INDEX_FILE_NAME = "columns.psf";
   public static final String VALID_DOC_IDS_SNAPSHOT_FILE_NAME = "validdocids.bitmap.snapshot";
   public static final String TTL_WATERMARK_TABLE_PARTITION = "ttl.watermark.partition.";
+  public static final String UPSERT_PRIMARY_KEY_MAP_TABLE_PARTITION = "upsert.primary.key.map.partition.";
+  public static final String UPSERT_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION =
+      "upsert.primary.key.map.metadata.partition.";
+  public static final String DEDUP_PRIMARY_KEY_MAP_TABLE_PARTITION = "dedup.primary.key.map.partition.";
+  public static final String DEDUP_PRIMARY_KEY_MAP_METADATA_TABLE_PARTITION =
+      "dedup.primary.key.map.metadata.partition.";
 
   public static class Str {
     public static final char DEFAULT_STRING_PAD_CHAR = '\0';
@@ -67,6 +73,7 @@ public class V1Constants {
     public static final String VECTOR_V912_INDEX_FILE_EXTENSION = ".vector.v912.index";
     public static final String VECTOR_V912_HNSW_INDEX_FILE_EXTENSION = ".vector.v912.hnsw.index";
     public static final String VECTOR_HNSW_INDEX_DOCID_MAPPING_FILE_EXTENSION = ".vector.hnsw.mapping";
+    public static final String ZONE_MAP_INDEX_FILE_EXTENSION = ".zonemap.idx";
   }
 
   public static class MetadataKeys {
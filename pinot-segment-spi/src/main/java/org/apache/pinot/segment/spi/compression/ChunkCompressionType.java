@@ -19,7 +19,10 @@
 package org.apache.pinot.segment.spi.compression;
 
 public enum ChunkCompressionType {
-  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3), LZ4_LENGTH_PREFIXED(4), GZIP(5);
+  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3), LZ4_LENGTH_PREFIXED(4), GZIP(5),
+  // Numeric codecs for fixed width INT/LONG chunks: bit-packed values relative to the chunk minimum, bit-packed deltas
+  // between consecutive values, and bit-packed deltas of deltas (well suited for regularly spaced timestamps)
+  FRAME_OF_REFERENCE(6), DELTA(7), DELTADELTA(8);
 
   private static final ChunkCompressionType[] VALUES = values();
 
@@ -33,6 +36,13 @@ public enum ChunkCompressionType {
     return _value;
   }
 
+  /**
+   * Returns {@code true} if the compression type only applies to chunks of fixed width INT or LONG values.
+   */
+  public boolean isNumeric() {
+    return this == FRAME_OF_REFERENCE || this == DELTA || this == DELTADELTA;
+  }
+
   public static ChunkCompressionType valueOf(int ordinal) {
     if (ordinal < 0 || ordinal >= VALUES.length) {
       throw new IllegalArgumentException("invalid ordinal " + ordinal);
@@ -120,6 +120,12 @@ public class SegmentGeneratorConfig implements Serializable {
   private boolean _realtimeConversion = false;
   // consumerDir contains data from the consuming segment, and is used during _realtimeConversion optimization
   private File _consumerDir;
+  // Number of threads used to build the dictionaries and indexes of different columns concurrently. When larger than 1,
+  // the input is read only once and the transformed rows are buffered column by column (off-heap) before indexing.
+  private int _numIndexCreationThreads = 1;
+  // Number of records read per batch when the record reader supports columnar batch reading (e.g. Parquet, ORC), which
+  // skips the per-record GenericRow materialization. 0 disables batch reading.
+  private int _columnarBatchSize = 0;
   private final Map<String, FieldIndexConfigs> _indexConfigsByColName;
 
   // constructed from FieldConfig
@@ -693,6 +699,24 @@ public class SegmentGeneratorConfig implements Serializable {
     _consumerDir = consumerDir;
   }
 
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    Preconditions.checkArgument(numIndexCreationThreads > 0, "Number of index creation threads must be positive");
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
+
+  public int getColumnarBatchSize() {
+    return _columnarBatchSize;
+  }
+
+  public void setColumnarBatchSize(int columnarBatchSize) {
+    Preconditions.checkArgument(columnarBatchSize >= 0, "Columnar batch size must be non-negative");
+    _columnarBatchSize = columnarBatchSize;
+  }
+
   public void setNoDictionarySizeRatioThreshold(double noDictionarySizeRatioThreshold) {
     _noDictionarySizeRatioThreshold = noDictionarySizeRatioThreshold;
   }
@@ -141,6 +141,18 @@ public class ForwardIndexConfig extends IndexConfig {
           _chunkCompressionType = ChunkCompressionType.GZIP;
           _dictIdCompressionType = null;
           break;
+        case FRAME_OF_REFERENCE:
+          _chunkCompressionType = ChunkCompressionType.FRAME_OF_REFERENCE;
+          _dictIdCompressionType = null;
+          break;
+        case DELTA:
+          _chunkCompressionType = ChunkCompressionType.DELTA;
+          _dictIdCompressionType = null;
+          break;
+        case DELTADELTA:
+          _chunkCompressionType = ChunkCompressionType.DELTADELTA;
+          _dictIdCompressionType = null;
+          break;
         case MV_ENTRY_DICT:
           _dictIdCompressionType = DictIdCompressionType.MV_ENTRY_DICT;
           _chunkCompressionType = null;
@@ -186,6 +198,12 @@ public class ForwardIndexConfig extends IndexConfig {
           return CompressionCodec.ZSTANDARD;
         case LZ4:
           return CompressionCodec.LZ4;
+        case FRAME_OF_REFERENCE:
+          return CompressionCodec.FRAME_OF_REFERENCE;
+        case DELTA:
+          return CompressionCodec.DELTA;
+        case DELTADELTA:
+          return CompressionCodec.DELTADELTA;
         default:
           throw new IllegalStateException("Unsupported chunk compression type: " + chunkCompressionType);
       }
@@ -333,6 +351,15 @@ public class ForwardIndexConfig extends IndexConfig {
         case ZSTANDARD:
           _compressionCodec = CompressionCodec.ZSTANDARD;
           break;
+        case FRAME_OF_REFERENCE:
+          _compressionCodec = CompressionCodec.FRAME_OF_REFERENCE;
+          break;
+        case DELTA:
+          _compressionCodec = CompressionCodec.DELTA;
+          break;
+        case DELTADELTA:
+          _compressionCodec = CompressionCodec.DELTADELTA;
+          break;
         default:
           throw new IllegalArgumentException("Unsupported chunk compression type: " + chunkCompressionType);
       }
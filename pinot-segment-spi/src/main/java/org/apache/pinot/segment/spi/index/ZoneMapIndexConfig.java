@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.config.table.IndexConfig;
+
+
+/**
+ * Config for the zone map index, which keeps the min/max value of every block of {@code numDocsPerBlock} consecutive
+ * documents so that scan based filters can skip the blocks that cannot match.
+ */
+public class ZoneMapIndexConfig extends IndexConfig {
+  // Same as the default number of docs per chunk of the fixed-width raw forward index, so that blocks line up with the
+  // forward index chunks and skipped blocks are never decompressed
+  public static final int DEFAULT_NUM_DOCS_PER_BLOCK = ForwardIndexConfig.DEFAULT_TARGET_DOCS_PER_CHUNK;
+  public static final ZoneMapIndexConfig DEFAULT = new ZoneMapIndexConfig(false, DEFAULT_NUM_DOCS_PER_BLOCK);
+  public static final ZoneMapIndexConfig DISABLED = new ZoneMapIndexConfig(true, null);
+
+  private final int _numDocsPerBlock;
+
+  public ZoneMapIndexConfig(int numDocsPerBlock) {
+    this(false, numDocsPerBlock);
+  }
+
+  @JsonCreator
+  public ZoneMapIndexConfig(@JsonProperty("disabled") @Nullable Boolean disabled,
+      @JsonProperty("numDocsPerBlock") @Nullable Integer numDocsPerBlock) {
+    super(disabled);
+    _numDocsPerBlock = numDocsPerBlock != null ? numDocsPerBlock : DEFAULT_NUM_DOCS_PER_BLOCK;
+    Preconditions.checkArgument(_numDocsPerBlock > 0, "numDocsPerBlock must be positive, got: %s", _numDocsPerBlock);
+  }
+
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    ZoneMapIndexConfig that = (ZoneMapIndexConfig) o;
+    return _numDocsPerBlock == that._numDocsPerBlock;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), _numDocsPerBlock);
+  }
+}
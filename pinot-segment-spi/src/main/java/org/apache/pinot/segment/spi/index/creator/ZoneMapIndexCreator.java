@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.creator;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.index.IndexCreator;
+
+
+/**
+ * Index creator for the zone map index. Only single-value numeric columns are supported.
+ */
+public interface ZoneMapIndexCreator extends IndexCreator {
+
+  @Override
+  default void add(Object value, int dictId) {
+    add((Number) value);
+  }
+
+  @Override
+  default void add(Object[] values, @Nullable int[] dictIds) {
+    throw new UnsupportedOperationException("Zone map index is not supported on multi-value columns");
+  }
+
+  /**
+   * Adds the value of the next document.
+   */
+  void add(Number value);
+
+  /**
+   * Seals the index and flushes it to disk.
+   */
+  void seal()
+      throws IOException;
+}
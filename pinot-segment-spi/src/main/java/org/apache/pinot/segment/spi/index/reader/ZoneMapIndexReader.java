@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+import org.apache.pinot.segment.spi.index.IndexReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Interface for zone map index reader. The zone map splits the documents of a single-value numeric column into blocks
+ * of {@link #getNumDocsPerBlock()} consecutive documents, and keeps the min/max value of each block.
+ * <p>Values of INT and LONG columns are accessed with {@link #getMinLong(int)} and {@link #getMaxLong(int)}, values of
+ * FLOAT and DOUBLE columns are accessed with {@link #getMinDouble(int)} and {@link #getMaxDouble(int)}.
+ */
+public interface ZoneMapIndexReader extends IndexReader {
+
+  /**
+   * Returns the stored type of the column.
+   */
+  DataType getStoredType();
+
+  /**
+   * Returns the number of documents in each block. Block {@code i} contains documents
+   * {@code [i * numDocsPerBlock, (i + 1) * numDocsPerBlock)}.
+   */
+  int getNumDocsPerBlock();
+
+  /**
+   * Returns the number of blocks.
+   */
+  int getNumBlocks();
+
+  /**
+   * Returns the min value of the given block for INT and LONG columns.
+   */
+  long getMinLong(int blockId);
+
+  /**
+   * Returns the max value of the given block for INT and LONG columns.
+   */
+  long getMaxLong(int blockId);
+
+  /**
+   * Returns the min value of the given block for FLOAT and DOUBLE columns.
+   */
+  double getMinDouble(int blockId);
+
+  /**
+   * Returns the max value of the given block for FLOAT and DOUBLE columns.
+   */
+  double getMaxDouble(int blockId);
+}
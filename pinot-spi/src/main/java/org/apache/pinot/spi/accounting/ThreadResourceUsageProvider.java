@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.spi.accounting;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.lang.reflect.InvocationTargetException;
@@ -29,6 +32,8 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@code ThreadResourceUsageProvider} class providing the functionality of measuring the CPU time
  * and allocateBytes (JVM heap) for the current thread.
+ * <p>The JVM does not measure the CPU time and allocated bytes of virtual threads (Java 21+), so 0 is returned for
+ * virtual threads, i.e. the work done on virtual threads is not accounted.
  */
 public class ThreadResourceUsageProvider {
   private static final Logger LOGGER = LoggerFactory.getLogger(ThreadResourceUsageProvider.class);
@@ -43,6 +48,8 @@ public class ThreadResourceUsageProvider {
       = "setThreadAllocatedMemoryEnabled";
   private static final String SUN_THREAD_MXBEAN_GET_BYTES_ALLOCATED_NAME = "getThreadAllocatedBytes";
   private static final Method SUN_THREAD_MXBEAN_GET_BYTES_ALLOCATED_METHOD;
+  // Thread.isVirtual() is only available since Java 21
+  private static final MethodHandle THREAD_IS_VIRTUAL_METHOD = getThreadIsVirtualMethod();
 
   private static final ThreadMXBean MX_BEAN = ManagementFactory.getThreadMXBean();
   private static final boolean IS_CURRENT_THREAD_CPU_TIME_SUPPORTED = MX_BEAN.isCurrentThreadCpuTimeSupported();
@@ -61,20 +68,50 @@ public class ThreadResourceUsageProvider {
     return 0;
   }
 
+  /**
+   * Returns the CPU time (in nanoseconds) of the current thread, or 0 if the measurement is disabled or the current
+   * thread is a virtual thread (for which the JVM returns -1).
+   */
   public static long getCurrentThreadCpuTime() {
-    return _isThreadCpuTimeMeasurementEnabled ? MX_BEAN.getCurrentThreadCpuTime() : 0;
+    return _isThreadCpuTimeMeasurementEnabled && !isCurrentThreadVirtual() ? MX_BEAN.getCurrentThreadCpuTime() : 0;
   }
 
+  /**
+   * Returns the bytes allocated by the current thread, or 0 if the measurement is disabled or the current thread is a
+   * virtual thread (for which the JVM returns -1).
+   */
   public static long getCurrentThreadAllocatedBytes() {
     try {
-      return _isThreadMemoryMeasurementEnabled ? (long) SUN_THREAD_MXBEAN_GET_BYTES_ALLOCATED_METHOD
-          .invoke(MX_BEAN, Thread.currentThread().getId()) : 0;
+      return _isThreadMemoryMeasurementEnabled && !isCurrentThreadVirtual()
+          ? (long) SUN_THREAD_MXBEAN_GET_BYTES_ALLOCATED_METHOD.invoke(MX_BEAN, Thread.currentThread().getId()) : 0;
     } catch (IllegalAccessException | InvocationTargetException e) {
       LOGGER.error("Exception happened during the invocation of getting current bytes allocated", e);
       return 0;
     }
   }
 
+  /**
+   * Returns whether the current thread is a virtual thread. Always returns {@code false} before Java 21.
+   */
+  public static boolean isCurrentThreadVirtual() {
+    if (THREAD_IS_VIRTUAL_METHOD == null) {
+      return false;
+    }
+    try {
+      return (boolean) THREAD_IS_VIRTUAL_METHOD.invokeExact(Thread.currentThread());
+    } catch (Throwable t) {
+      return false;
+    }
+  }
+
+  private static MethodHandle getThreadIsVirtualMethod() {
+    try {
+      return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
   public static boolean isThreadCpuTimeMeasurementEnabled() {
     return _isThreadCpuTimeMeasurementEnabled;
   }
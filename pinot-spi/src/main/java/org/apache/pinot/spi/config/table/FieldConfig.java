@@ -142,6 +142,13 @@ public class FieldConfig extends BaseJsonConfig {
     LZ4(true, false),
     GZIP(true, false),
 
+    // Numeric codecs only applicable to single-value INT/LONG raw columns. Values within each chunk are bit-packed
+    // relative to the chunk minimum (FRAME_OF_REFERENCE), as deltas between consecutive values (DELTA), or as deltas of
+    // deltas (DELTADELTA, suited for monotonic timestamps)
+    FRAME_OF_REFERENCE(true, false),
+    DELTA(true, false),
+    DELTADELTA(true, false),
+
     // For MV dictionary encoded forward index, add a second level dictionary encoding for the multi-value entries
     MV_ENTRY_DICT(false, true),
 
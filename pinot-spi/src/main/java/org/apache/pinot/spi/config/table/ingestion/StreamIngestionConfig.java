@@ -42,6 +42,11 @@ public class StreamIngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Whether to track offsets of the filtered stream messages during consumption.")
   private boolean _trackFilteredMessageOffsets;
 
+  @JsonPropertyDescription("Number of threads to decode and transform the stream messages of each partition in "
+      + "parallel. The rows are still indexed by the partition consumer thread in offset order. Values less than 2 "
+      + "decode and transform the messages on the partition consumer thread.")
+  private int _decodeParallelism;
+
   @JsonPropertyDescription("Whether pauseless consumption is enabled for the table")
   private boolean _pauselessConsumptionEnabled;
 
@@ -84,6 +89,14 @@ public class StreamIngestionConfig extends BaseJsonConfig {
     return _trackFilteredMessageOffsets;
   }
 
+  public int getDecodeParallelism() {
+    return _decodeParallelism;
+  }
+
+  public void setDecodeParallelism(int decodeParallelism) {
+    _decodeParallelism = decodeParallelism;
+  }
+
   public boolean isPauselessConsumptionEnabled() {
     return _pauselessConsumptionEnabled;
   }
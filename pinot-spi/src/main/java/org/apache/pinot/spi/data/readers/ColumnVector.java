@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The <code>ColumnVector</code> holds the values of one column for the rows of a {@link ColumnarBatch}, in the stored
+ * type of the column.
+ * <ul>
+ *   <li>Single-value INT/LONG/FLOAT/DOUBLE: primitive array of the stored type</li>
+ *   <li>Single-value BIG_DECIMAL/STRING/BYTES: Object array of BigDecimal/String/byte[]</li>
+ *   <li>Multi-value: Object array of Object[] (same value types as the row based {@link GenericRow})</li>
+ * </ul>
+ * <p>The null mask tracks the rows without value. Once the default null values are filled (e.g. by the null value
+ * transformer), the value array holds the default null value for these rows, and the null mask still marks them as
+ * null so that the null value vector can be generated.
+ */
+public class ColumnVector {
+  private final FieldSpec _fieldSpec;
+  private final DataType _storedType;
+  private final boolean _singleValue;
+  private final int _capacity;
+  private final boolean[] _nullMask;
+  private int[] _intValues;
+  private long[] _longValues;
+  private float[] _floatValues;
+  private double[] _doubleValues;
+  private Object[] _objectValues;
+  private boolean _hasNull;
+  private boolean _nullValuesFilled;
+
+  public ColumnVector(FieldSpec fieldSpec, int capacity) {
+    _fieldSpec = fieldSpec;
+    _storedType = fieldSpec.getDataType().getStoredType();
+    _singleValue = fieldSpec.isSingleValueField();
+    _capacity = capacity;
+    _nullMask = new boolean[capacity];
+    if (!_singleValue) {
+      _objectValues = new Object[capacity];
+      return;
+    }
+    switch (_storedType) {
+      case INT:
+        _intValues = new int[capacity];
+        break;
+      case LONG:
+        _longValues = new long[capacity];
+        break;
+      case FLOAT:
+        _floatValues = new float[capacity];
+        break;
+      case DOUBLE:
+        _doubleValues = new double[capacity];
+        break;
+      case BIG_DECIMAL:
+      case STRING:
+      case BYTES:
+        _objectValues = new Object[capacity];
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported stored type: " + _storedType + " for column: " + getName());
+    }
+  }
+
+  /**
+   * Returns {@code true} if the values of the given field can be held in a column vector, {@code false} otherwise.
+   */
+  public static boolean isSupported(FieldSpec fieldSpec) {
+    switch (fieldSpec.getDataType().getStoredType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BIG_DECIMAL:
+      case STRING:
+      case BYTES:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public FieldSpec getFieldSpec() {
+    return _fieldSpec;
+  }
+
+  public String getName() {
+    return _fieldSpec.getName();
+  }
+
+  public DataType getStoredType() {
+    return _storedType;
+  }
+
+  public boolean isSingleValue() {
+    return _singleValue;
+  }
+
+  public int getCapacity() {
+    return _capacity;
+  }
+
+  public int[] getIntValues() {
+    return _intValues;
+  }
+
+  public long[] getLongValues() {
+    return _longValues;
+  }
+
+  public float[] getFloatValues() {
+    return _floatValues;
+  }
+
+  public double[] getDoubleValues() {
+    return _doubleValues;
+  }
+
+  /**
+   * Returns the values of a single-value BIG_DECIMAL/STRING/BYTES column, or of a multi-value column.
+   */
+  public Object[] getObjectValues() {
+    return _objectValues;
+  }
+
+  public boolean isNull(int rowId) {
+    return _nullMask[rowId];
+  }
+
+  public void setNull(int rowId) {
+    _nullMask[rowId] = true;
+    _hasNull = true;
+  }
+
+  /**
+   * Returns {@code true} if any row is marked as null since the last {@link #reset()}, {@code false} otherwise.
+   */
+  public boolean hasNull() {
+    return _hasNull;
+  }
+
+  /**
+   * Fills the rows marked as null with the given default null value (a single value for single-value column, or an
+   * Object[] for multi-value column). The null mask is kept.
+   */
+  public void fillNullValues(Object defaultNullValue) {
+    if (!_hasNull) {
+      _nullValuesFilled = true;
+      return;
+    }
+    for (int i = 0; i < _capacity; i++) {
+      if (!_nullMask[i]) {
+        continue;
+      }
+      if (_objectValues != null) {
+        _objectValues[i] = _singleValue ? defaultNullValue : ((Object[]) defaultNullValue).clone();
+        continue;
+      }
+      switch (_storedType) {
+        case INT:
+          _intValues[i] = (Integer) defaultNullValue;
+          break;
+        case LONG:
+          _longValues[i] = (Long) defaultNullValue;
+          break;
+        case FLOAT:
+          _floatValues[i] = (Float) defaultNullValue;
+          break;
+        case DOUBLE:
+          _doubleValues[i] = (Double) defaultNullValue;
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    _nullValuesFilled = true;
+  }
+
+  /**
+   * Returns {@code true} if the rows marked as null hold the default null value, {@code false} otherwise.
+   */
+  public boolean isNullValuesFilled() {
+    return _nullValuesFilled;
+  }
+
+  /**
+   * Returns the boxed value of the given row, or {@code null} if the row is marked as null and the default null value
+   * is not filled yet. Prefer accessing the value arrays directly to avoid boxing.
+   */
+  @Nullable
+  public Object getValue(int rowId) {
+    if (_objectValues != null) {
+      return _objectValues[rowId];
+    }
+    if (_nullMask[rowId] && !_nullValuesFilled) {
+      return null;
+    }
+    switch (_storedType) {
+      case INT:
+        return _intValues[rowId];
+      case LONG:
+        return _longValues[rowId];
+      case FLOAT:
+        return _floatValues[rowId];
+      case DOUBLE:
+        return _doubleValues[rowId];
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Clears the null mask so that the vector can be reused for the next batch. The values are overwritten by the reader.
+   */
+  public void reset() {
+    _nullValuesFilled = false;
+    if (_hasNull) {
+      Arrays.fill(_nullMask, false);
+      _hasNull = false;
+    }
+    if (_objectValues != null) {
+      Arrays.fill(_objectValues, null);
+    }
+  }
+}
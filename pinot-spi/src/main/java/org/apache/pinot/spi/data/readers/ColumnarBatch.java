@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.FieldSpec;
+
+
+/**
+ * The <code>ColumnarBatch</code> holds a batch of rows as one {@link ColumnVector} per column. It is the columnar
+ * counterpart of {@link GenericRow}, filled by a {@link ColumnarRecordReader} and reused across batches.
+ * <p>Similar to {@link GenericRow}, rows can be marked as incomplete (error during transformation with continue on
+ * error enabled) or sanitized (value modified to comply with the schema).
+ */
+public class ColumnarBatch {
+  private final int _capacity;
+  // NOTE: Use LinkedHashMap so that the columns are iterated in the order of the field specs
+  private final Map<String, ColumnVector> _columnVectors = new LinkedHashMap<>();
+  private final boolean[] _incompleteRows;
+  private final boolean[] _sanitizedRows;
+  private int _numRows;
+  private int _numIncompleteRows;
+  private int _numSanitizedRows;
+
+  public ColumnarBatch(Collection<FieldSpec> fieldSpecs, int capacity) {
+    _capacity = capacity;
+    for (FieldSpec fieldSpec : fieldSpecs) {
+      _columnVectors.put(fieldSpec.getName(), new ColumnVector(fieldSpec, capacity));
+    }
+    _incompleteRows = new boolean[capacity];
+    _sanitizedRows = new boolean[capacity];
+  }
+
+  public int getCapacity() {
+    return _capacity;
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public void setNumRows(int numRows) {
+    _numRows = numRows;
+  }
+
+  public Map<String, ColumnVector> getColumnVectors() {
+    return Collections.unmodifiableMap(_columnVectors);
+  }
+
+  @Nullable
+  public ColumnVector getColumnVector(String column) {
+    return _columnVectors.get(column);
+  }
+
+  public void markIncomplete(int rowId) {
+    if (!_incompleteRows[rowId]) {
+      _incompleteRows[rowId] = true;
+      _numIncompleteRows++;
+    }
+  }
+
+  public void markSanitized(int rowId) {
+    if (!_sanitizedRows[rowId]) {
+      _sanitizedRows[rowId] = true;
+      _numSanitizedRows++;
+    }
+  }
+
+  public int getNumIncompleteRows() {
+    return _numIncompleteRows;
+  }
+
+  public int getNumSanitizedRows() {
+    return _numSanitizedRows;
+  }
+
+  /**
+   * Clears the batch so that it can be filled with the next rows.
+   */
+  public void reset() {
+    for (ColumnVector columnVector : _columnVectors.values()) {
+      columnVector.reset();
+    }
+    if (_numIncompleteRows > 0) {
+      Arrays.fill(_incompleteRows, false);
+      _numIncompleteRows = 0;
+    }
+    if (_numSanitizedRows > 0) {
+      Arrays.fill(_sanitizedRows, false);
+      _numSanitizedRows = 0;
+    }
+    _numRows = 0;
+  }
+}
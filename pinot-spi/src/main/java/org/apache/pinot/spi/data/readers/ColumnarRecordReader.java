@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.io.IOException;
+import java.util.Collection;
+import org.apache.pinot.spi.data.FieldSpec;
+
+
+/**
+ * The <code>ColumnarRecordReader</code> is a {@link RecordReader} for columnar file formats (e.g. Parquet, ORC) that
+ * can also read records in batches into {@link ColumnarBatch}es, without materializing each record into a
+ * {@link GenericRow}.
+ * <p>Unlike {@link RecordReader#next(GenericRow)}, which returns the values in the types of the file format,
+ * {@link #nextBatch(ColumnarBatch)} converts the values into the stored type of each column, so that no data type
+ * transformation is needed afterward. Missing values are marked in the null mask of the {@link ColumnVector}.
+ * <p>Records can be read either with {@link #next(GenericRow)} or with {@link #nextBatch(ColumnarBatch)}, but the two
+ * methods should not be mixed without {@link #rewind()}.
+ */
+public interface ColumnarRecordReader extends RecordReader {
+
+  /**
+   * Returns <code>true</code> if the values of all the given fields can be read with
+   * {@link #nextBatch(ColumnarBatch)}, <code>false</code> otherwise (e.g. nested field, or field type that cannot be
+   * converted to the stored type of the column). Fields that do not exist in the file are read as null.
+   */
+  boolean supportsColumnarBatch(Collection<FieldSpec> fieldSpecs);
+
+  /**
+   * Reads the next records into the given batch, up to the capacity of the batch. The batch is reset before reading,
+   * and must only contain fields accepted by {@link #supportsColumnarBatch(Collection)}.
+   * <p>This method should be called only if {@link #hasNext()} returns <code>true</code>.
+   */
+  void nextBatch(ColumnarBatch batch)
+      throws IOException;
+}
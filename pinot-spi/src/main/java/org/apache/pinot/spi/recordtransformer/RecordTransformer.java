@@ -21,6 +21,7 @@ package org.apache.pinot.spi.recordtransformer;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import org.apache.pinot.spi.data.readers.ColumnarBatch;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
@@ -53,6 +54,18 @@ public interface RecordTransformer extends Serializable {
     throw new UnsupportedOperationException();
   }
 
+  /// Returns `true` if the transformer can transform a [ColumnarBatch] in-place with [#transform(ColumnarBatch)],
+  /// `false` otherwise. Batches are only transformed when all the transformers in the pipeline support it.
+  default boolean supportsColumnarBatch() {
+    return false;
+  }
+
+  /// Transforms a batch of records in-place based on some custom rules. The values in the batch are already in the
+  /// stored type of the columns. Implement this method together with [#supportsColumnarBatch()].
+  default void transform(ColumnarBatch batch) {
+    throw new UnsupportedOperationException();
+  }
+
   /// Can be overridden to report stats after all records are processed.
   default void reportStats() {
   }
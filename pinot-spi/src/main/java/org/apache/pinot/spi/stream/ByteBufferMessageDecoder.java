@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.stream;
+
+import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.annotations.InterfaceAudience;
+import org.apache.pinot.spi.annotations.InterfaceStability;
+import org.apache.pinot.spi.data.readers.GenericRow;
+
+
+/**
+ * Extension of {@link StreamMessageDecoder} for decoders that can read the message content from a {@link ByteBuffer}
+ * slice of the batch fetched from the stream (see {@link BytesStreamMessage#getValueBuffer()}), so that the content
+ * does not need to be copied into a new byte[] for each message.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public interface ByteBufferMessageDecoder extends StreamMessageDecoder<byte[]> {
+
+  /**
+   * Decodes a row from the bytes between the position and the limit of the given buffer. The position of the buffer
+   * might be modified.
+   * <p>The default implementation reads the backing array of a heap buffer in place, and only copies the content of a
+   * direct buffer. Decoders which can read direct buffers should override this method.
+   *
+   * @param payload The buffer from which to read the row
+   * @param destination The {@link GenericRow} to write the decoded row into
+   * @return A new row decoded from the buffer. If the returned value is <code>null</code> the row is dropped from the
+   *         segment.
+   */
+  @Nullable
+  default GenericRow decode(ByteBuffer payload, GenericRow destination) {
+    if (payload.hasArray()) {
+      return decode(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(), destination);
+    }
+    byte[] bytes = new byte[payload.remaining()];
+    payload.get(bytes);
+    return decode(bytes, 0, bytes.length, destination);
+  }
+}
@@ -18,13 +18,19 @@
  */
 package org.apache.pinot.spi.stream;
 
+import java.nio.ByteBuffer;
 import javax.annotation.Nullable;
 
 
 public class BytesStreamMessage extends StreamMessage<byte[]> {
+  // Slice of the fetched batch holding the value, when the message is created without copying the value
+  @Nullable
+  private final ByteBuffer _valueBuffer;
+  private byte[] _copiedValue;
 
   public BytesStreamMessage(@Nullable byte[] key, byte[] value, @Nullable StreamMessageMetadata metadata) {
     super(key, value, value.length, metadata);
+    _valueBuffer = null;
   }
 
   public BytesStreamMessage(byte[] value, @Nullable StreamMessageMetadata metadata) {
@@ -34,4 +40,46 @@ public class BytesStreamMessage extends StreamMessage<byte[]> {
   public BytesStreamMessage(byte[] value) {
     this(value, null);
   }
+
+  /**
+   * Creates a message with the value between the position and the limit of the given buffer, typically a slice of the
+   * batch fetched from the stream. The value is not copied, and the buffer must not be modified afterward.
+   */
+  public BytesStreamMessage(@Nullable byte[] key, ByteBuffer value, @Nullable StreamMessageMetadata metadata) {
+    super(key, null, value.remaining(), metadata);
+    _valueBuffer = value;
+  }
+
+  /**
+   * Returns the content of the message. For message created from a {@link ByteBuffer}, the content is copied into a new
+   * byte[] on the first call, so prefer {@link #getValueBuffer()} when the decoder supports it.
+   */
+  @Override
+  public byte[] getValue() {
+    if (_valueBuffer == null) {
+      return _value;
+    }
+    if (_copiedValue == null) {
+      byte[] value = new byte[_length];
+      _valueBuffer.duplicate().get(value);
+      _copiedValue = value;
+    }
+    return _copiedValue;
+  }
+
+  /**
+   * Returns whether the message is backed by a {@link ByteBuffer}, in which case {@link #getValueBuffer()} does not
+   * copy the content.
+   */
+  public boolean hasValueBuffer() {
+    return _valueBuffer != null;
+  }
+
+  /**
+   * Returns the content of the message between the position and the limit of the returned buffer, without copying it.
+   * The returned buffer can be read without affecting the message.
+   */
+  public ByteBuffer getValueBuffer() {
+    return _valueBuffer != null ? _valueBuffer.duplicate() : ByteBuffer.wrap(_value);
+  }
 }
@@ -70,6 +70,9 @@ public class StreamConfig {
   private final long _flushThresholdSegmentSizeBytes;
   private final double _flushThresholdVarianceFraction;
   private final int _flushAutotuneInitialRows; // initial num rows to use for SegmentSizeBasedFlushThresholdUpdater
+  private final long _flushAutotuneMaxMemoryBytes;
+  private final long _flushAutotuneMaxBuildTimeMillis;
+  private final long _flushAutotuneMinSegmentTimeMillis;
 
   private final String _groupId;
 
@@ -192,6 +195,9 @@ public class StreamConfig {
       }
     }
     _flushAutotuneInitialRows = autotuneInitialRows > 0 ? autotuneInitialRows : DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
+    _flushAutotuneMaxMemoryBytes = extractFlushAutotuneMaxMemory(streamConfigMap);
+    _flushAutotuneMaxBuildTimeMillis = extractFlushAutotuneMaxBuildTimeMillis(streamConfigMap);
+    _flushAutotuneMinSegmentTimeMillis = extractFlushAutotuneMinSegmentTimeMillis(streamConfigMap);
 
     String groupIdKey = StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.GROUP_ID);
     _groupId = streamConfigMap.get(groupIdKey);
@@ -248,6 +254,48 @@ public class StreamConfig {
     }
   }
 
+  public static long extractFlushAutotuneMaxMemory(Map<String, String> streamConfigMap) {
+    String key = StreamConfigProperties.SEGMENT_FLUSH_AUTOTUNE_MAX_MEMORY;
+    String maxMemoryStr = streamConfigMap.get(key);
+    if (maxMemoryStr != null) {
+      try {
+        return DataSizeUtils.toBytes(maxMemoryStr);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid config " + key + ": " + maxMemoryStr);
+      }
+    } else {
+      return -1;
+    }
+  }
+
+  public static long extractFlushAutotuneMaxBuildTimeMillis(Map<String, String> streamConfigMap) {
+    String key = StreamConfigProperties.SEGMENT_FLUSH_AUTOTUNE_MAX_BUILD_TIME;
+    String maxBuildTimeStr = streamConfigMap.get(key);
+    if (maxBuildTimeStr != null) {
+      try {
+        return TimeUtils.convertPeriodToMillis(maxBuildTimeStr);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid config " + key + ": " + maxBuildTimeStr);
+      }
+    } else {
+      return -1;
+    }
+  }
+
+  public static long extractFlushAutotuneMinSegmentTimeMillis(Map<String, String> streamConfigMap) {
+    String key = StreamConfigProperties.SEGMENT_FLUSH_AUTOTUNE_MIN_SEGMENT_TIME;
+    String minSegmentTimeStr = streamConfigMap.get(key);
+    if (minSegmentTimeStr != null) {
+      try {
+        return TimeUtils.convertPeriodToMillis(minSegmentTimeStr);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid config " + key + ": " + minSegmentTimeStr);
+      }
+    } else {
+      return -1;
+    }
+  }
+
   public static int extractFlushThresholdRows(Map<String, String> streamConfigMap) {
     String key = StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_ROWS;
     String flushThresholdRowsStr = streamConfigMap.get(key);
@@ -374,6 +422,30 @@ public class StreamConfig {
     return _flushAutotuneInitialRows;
   }
 
+  /**
+   * Returns the max off-heap memory (in bytes) a consuming segment should use when the segment size is auto tuned, or
+   * -1 if not limited.
+   */
+  public long getFlushAutotuneMaxMemoryBytes() {
+    return _flushAutotuneMaxMemoryBytes;
+  }
+
+  /**
+   * Returns the max time (in milliseconds) to build a committing segment when the segment size is auto tuned, or -1 if
+   * not limited.
+   */
+  public long getFlushAutotuneMaxBuildTimeMillis() {
+    return _flushAutotuneMaxBuildTimeMillis;
+  }
+
+  /**
+   * Returns the min time (in milliseconds) a consuming segment should cover when the segment size is auto tuned, or -1
+   * if not limited.
+   */
+  public long getFlushAutotuneMinSegmentTimeMillis() {
+    return _flushAutotuneMinSegmentTimeMillis;
+  }
+
   public String getGroupId() {
     return _groupId;
   }
@@ -401,7 +473,10 @@ public class StreamConfig {
         + ", _flushThresholdSegmentRows=" + _flushThresholdSegmentRows + ", _flushThresholdTimeMillis="
         + _flushThresholdTimeMillis + ", _flushThresholdSegmentSizeBytes=" + _flushThresholdSegmentSizeBytes
         + ", _flushThresholdVarianceFraction=" + _flushThresholdVarianceFraction
-        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _groupId='" + _groupId + '\''
+        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _flushAutotuneMaxMemoryBytes="
+        + _flushAutotuneMaxMemoryBytes + ", _flushAutotuneMaxBuildTimeMillis=" + _flushAutotuneMaxBuildTimeMillis
+        + ", _flushAutotuneMinSegmentTimeMillis=" + _flushAutotuneMinSegmentTimeMillis + ", _groupId='" + _groupId
+        + '\''
         + ", _topicConsumptionRateLimit=" + _topicConsumptionRateLimit + ", _streamConfigMap=" + _streamConfigMap
         + ", _offsetCriteria=" + _offsetCriteria + ", _serverUploadToDeepStore=" + _serverUploadToDeepStore + '}';
   }
@@ -421,6 +496,9 @@ public class StreamConfig {
         && _flushThresholdTimeMillis == that._flushThresholdTimeMillis
         && _flushThresholdSegmentSizeBytes == that._flushThresholdSegmentSizeBytes
         && _flushAutotuneInitialRows == that._flushAutotuneInitialRows
+        && _flushAutotuneMaxMemoryBytes == that._flushAutotuneMaxMemoryBytes
+        && _flushAutotuneMaxBuildTimeMillis == that._flushAutotuneMaxBuildTimeMillis
+        && _flushAutotuneMinSegmentTimeMillis == that._flushAutotuneMinSegmentTimeMillis
         && Double.compare(_topicConsumptionRateLimit, that._topicConsumptionRateLimit) == 0
         && Objects.equals(_serverUploadToDeepStore, that._serverUploadToDeepStore) && Objects.equals(_type, that._type)
         && Objects.equals(_topicName, that._topicName) && Objects.equals(_tableNameWithType, that._tableNameWithType)
@@ -435,7 +513,8 @@ public class StreamConfig {
     return Objects.hash(_type, _topicName, _tableNameWithType, _consumerFactoryClassName, _decoderClass,
         _decoderProperties, _connectionTimeoutMillis, _fetchTimeoutMillis, _idleTimeoutMillis, _flushThresholdRows,
         _flushThresholdSegmentRows, _flushThresholdTimeMillis, _flushThresholdSegmentSizeBytes,
-        _flushAutotuneInitialRows, _groupId, _topicConsumptionRateLimit, _streamConfigMap, _offsetCriteria,
+        _flushAutotuneInitialRows, _flushAutotuneMaxMemoryBytes, _flushAutotuneMaxBuildTimeMillis,
+        _flushAutotuneMinSegmentTimeMillis, _groupId, _topicConsumptionRateLimit, _streamConfigMap, _offsetCriteria,
         _serverUploadToDeepStore, _flushThresholdVarianceFraction);
   }
 }
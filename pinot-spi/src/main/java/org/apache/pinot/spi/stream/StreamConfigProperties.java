@@ -121,6 +121,29 @@ public class StreamConfigProperties {
    */
   public static final String SEGMENT_FLUSH_AUTOTUNE_INITIAL_ROWS = "realtime.segment.flush.autotune.initialRows";
 
+  /**
+   * The max off-heap memory a consuming segment should use when the segment size is auto tuned, e.g. "500M". The rows
+   * threshold is lowered when the memory used by the previous consuming segments indicates that the next segment would
+   * exceed it. Values are parsed using DataSize class. By default, the memory used is not limited.
+   */
+  public static final String SEGMENT_FLUSH_AUTOTUNE_MAX_MEMORY = "realtime.segment.flush.autotune.maxMemory";
+
+  /**
+   * The max time to build a committing segment when the segment size is auto tuned, e.g. "2m". The rows threshold is
+   * lowered when the build time of the previous segments indicates that the next segment would exceed it. By default,
+   * the build time is not limited.
+   */
+  public static final String SEGMENT_FLUSH_AUTOTUNE_MAX_BUILD_TIME = "realtime.segment.flush.autotune.maxBuildTime";
+
+  /**
+   * The min time a consuming segment should cover when the segment size is auto tuned, e.g. "30m". Each segment adds a
+   * fixed overhead to the queries (planning and fan-out), which the controller cannot observe directly, so this config
+   * bounds the number of segments per partition instead: the rows threshold is raised to at least the rows ingested in
+   * this time at the ingestion rate of the previous segment. The max memory and max build time still take precedence.
+   * By default, only the minimum rows threshold applies.
+   */
+  public static final String SEGMENT_FLUSH_AUTOTUNE_MIN_SEGMENT_TIME = "realtime.segment.flush.autotune.minSegmentTime";
+
   /**
    * Time threshold that controller will wait for the segment to be built by the server.
    */
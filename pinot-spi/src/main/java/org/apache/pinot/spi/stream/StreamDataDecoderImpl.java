@@ -20,6 +20,7 @@ package org.apache.pinot.spi.stream;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +36,11 @@ public class StreamDataDecoderImpl implements StreamDataDecoder {
   public static final String RECORD_SERIALIZED_VALUE_SIZE_KEY = METADATA_KEY_PREFIX + "recordSerializedValueSize";
 
   private final StreamMessageDecoder _valueDecoder;
-  private final GenericRow _reuse = new GenericRow();
+  // Set when the value decoder can read the message content from a ByteBuffer without copying it
+  @Nullable
+  private final ByteBufferMessageDecoder _byteBufferValueDecoder;
+  @Nullable
+  private final GenericRow _reuse;
 
   /**
    * @return Whether the given key is one of the special types of keys (__key, __header$, etc.)
@@ -45,17 +50,41 @@ public class StreamDataDecoderImpl implements StreamDataDecoder {
   }
 
   public StreamDataDecoderImpl(StreamMessageDecoder valueDecoder) {
+    this(valueDecoder, true);
+  }
+
+  /**
+   * @param valueDecoder decoder for the message value
+   * @param reuseRow whether to decode all the messages into the same {@link GenericRow}. It should be disabled when the
+   *                 decoded row is still referenced after the next message is decoded.
+   */
+  public StreamDataDecoderImpl(StreamMessageDecoder valueDecoder, boolean reuseRow) {
     _valueDecoder = valueDecoder;
+    _byteBufferValueDecoder =
+        valueDecoder instanceof ByteBufferMessageDecoder ? (ByteBufferMessageDecoder) valueDecoder : null;
+    _reuse = reuseRow ? new GenericRow() : null;
   }
 
   @Override
   public StreamDataDecoderResult decode(StreamMessage message) {
     try {
-      _reuse.clear();
-      Object value = message.getValue();
-      assert value != null;
+      GenericRow destination;
+      if (_reuse != null) {
+        _reuse.clear();
+        destination = _reuse;
+      } else {
+        destination = new GenericRow();
+      }
       int length = message.getLength();
-      GenericRow row = _valueDecoder.decode(value, 0, length, _reuse);
+      GenericRow row;
+      if (_byteBufferValueDecoder != null && message instanceof BytesStreamMessage
+          && ((BytesStreamMessage) message).hasValueBuffer()) {
+        row = _byteBufferValueDecoder.decode(((BytesStreamMessage) message).getValueBuffer(), destination);
+      } else {
+        Object value = message.getValue();
+        assert value != null;
+        row = _valueDecoder.decode(value, 0, length, destination);
+      }
       if (row != null) {
         if (message.getKey() != null) {
           row.putValue(KEY, new String(message.getKey(), StandardCharsets.UTF_8));
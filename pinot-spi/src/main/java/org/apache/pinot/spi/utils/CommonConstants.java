@@ -541,6 +541,22 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_DEFAULT_HASH_FUNCTION = "pinot.broker.multistage.default.hash.function";
     public static final String DEFAULT_BROKER_DEFAULT_HASH_FUNCTION = "absHashCode";
 
+    // Whether to aggregate the segment ZK metadata into table statistics (number of rows, time range, partitions),
+    // which are used by the multi-stage query planner to pick the join build side and the join distribution
+    public static final String CONFIG_OF_ENABLE_TABLE_STATISTICS = "pinot.broker.multistage.enable.table.statistics";
+    public static final boolean DEFAULT_ENABLE_TABLE_STATISTICS = false;
+    // Max estimated number of rows on the right (build) side of a hash join to broadcast it instead of hash
+    // distributing both sides. Only applied when the table statistics are available. Non-positive value disables it.
+    public static final String CONFIG_OF_JOIN_BROADCAST_ROW_COUNT_THRESHOLD =
+        "pinot.broker.multistage.join.broadcast.row.count.threshold";
+    public static final long DEFAULT_JOIN_BROADCAST_ROW_COUNT_THRESHOLD = 100_000L;
+    // Max estimated number of rows on the right (build) side of an INNER hash join to send its join keys to the left
+    // leaf stage as a runtime filter. Only applied when the table statistics are available, and can be overridden with
+    // the 'runtime_filter' join hint. Non-positive value disables it.
+    public static final String CONFIG_OF_JOIN_RUNTIME_FILTER_ROW_COUNT_THRESHOLD =
+        "pinot.broker.multistage.join.runtime.filter.row.count.threshold";
+    public static final long DEFAULT_JOIN_RUNTIME_FILTER_ROW_COUNT_THRESHOLD = 100_000L;
+
     // When the server instance's pool field is null or the pool contains multi distinguished group value, the broker
     // would set the pool to -1 in the routing table for that server.
     public static final int FALLBACK_POOL_ID = -1;
@@ -634,6 +650,8 @@ public class CommonConstants {
 
         // Reorder scan based predicates based on cardinality and number of selected values
         public static final String AND_SCAN_REORDERING = "AndScanReordering";
+        // Reorder scan based predicates within AND based on their selectivity and cost observed in previous queries
+        public static final String ADAPTIVE_FILTER_REORDER = "adaptiveFilterReorder";
         public static final String SKIP_INDEXES = "skipIndexes";
 
         // Query option key used to skip a given set of rules
@@ -670,6 +688,17 @@ public class CommonConstants {
         // Handle JOIN Overflow
         public static final String MAX_ROWS_IN_JOIN = "maxRowsInJoin";
         public static final String JOIN_OVERFLOW_MODE = "joinOverflowMode";
+        // Estimated size of the right table in bytes after which the hash join spills partitions to local disk.
+        // Spilling is disabled when not set.
+        public static final String JOIN_SPILL_THRESHOLD_BYTES = "joinSpillThresholdBytes";
+
+        // Estimated size of the buffered rows in bytes after which the sort operator spills sorted runs to local disk.
+        // Spilling is disabled when not set.
+        public static final String SORT_SPILL_THRESHOLD_BYTES = "sortSpillThresholdBytes";
+
+        // When enabled, intermediate stage filter, transform, aggregate and hash exchange operators process
+        // non-row-heap blocks column by column instead of pivoting them into rows first.
+        public static final String USE_COLUMNAR_DATA_BLOCKS = "useColumnarDataBlocks";
 
         // Handle WINDOW Overflow
         public static final String MAX_ROWS_IN_WINDOW = "maxRowsInWindow";
@@ -753,6 +782,16 @@ public class CommonConstants {
         // Option denoting the workloadName to which the query belongs. This is used to enforce resource budgets for
         // each workload if "Query Workload Isolation" feature enabled.
         public static final String WORKLOAD_NAME = "workloadName";
+
+        // Skip the server side segment results cache (when enabled on the server) for this query
+        public static final String SKIP_SEGMENT_RESULTS_CACHE = "skipSegmentResultsCache";
+
+        // Skip the broker side result cache (when enabled on the broker) for this query
+        public static final String SKIP_RESULT_CACHE = "skipResultCache";
+
+        // Maximum staleness (in milliseconds) of the cached results allowed for queries on real-time tables. Queries on
+        // real-time tables are not served from the broker side result cache unless this option is set.
+        public static final String RESULT_CACHE_MAX_STALENESS_MS = "resultCacheMaxStalenessMs";
       }
 
       public static class QueryOptionValue {
@@ -805,6 +844,10 @@ public class CommonConstants {
       public static final String PRUNE_EMPTY_CORRELATE_RIGHT = "PruneEmptyCorrelateRight";
       public static final String PRUNE_EMPTY_JOIN_LEFT = "PruneEmptyJoinLeft";
       public static final String PRUNE_EMPTY_JOIN_RIGHT = "PruneEmptyJoinRight";
+      public static final String JOIN_TO_MULTI_JOIN = "JoinToMultiJoin";
+      public static final String PROJECT_MULTI_JOIN_MERGE = "ProjectMultiJoinMerge";
+      public static final String FILTER_MULTI_JOIN_MERGE = "FilterMultiJoinMerge";
+      public static final String MULTI_JOIN_OPTIMIZE = "MultiJoinOptimize";
     }
 
     /**
@@ -952,6 +995,14 @@ public class CommonConstants {
     public static final String USE_MSE_TO_FILL_EMPTY_RESPONSE_SCHEMA =
         "pinot.broker.use.mse.to.fill.empty.response.schema";
     public static final boolean DEFAULT_USE_MSE_TO_FILL_EMPTY_RESPONSE_SCHEMA = false;
+
+    // Broker side cache of the single-stage query results. Cached results are invalidated when the routing of the
+    // queried tables changes. Queries on real-time tables are only served from the cache when the query option
+    // 'resultCacheMaxStalenessMs' is set.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_ENABLED = "pinot.broker.result.cache.enabled";
+    public static final boolean DEFAULT_BROKER_RESULT_CACHE_ENABLED = false;
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE = "pinot.broker.result.cache.max.size";
+    public static final String DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE = "64M";
   }
 
   public static class Server {
@@ -1104,6 +1155,16 @@ public class CommonConstants {
     // Match the value of GroupByUtils.DEFAULT_MIN_NUM_GROUPS
     public static final int DEFAULT_MSE_MIN_GROUP_TRIM_SIZE = 5000;
 
+    // Segment level results cache for the aggregation and group-by queries on immutable segments
+    public static final String SEGMENT_RESULTS_CACHE_ENABLED = "segment.results.cache.enabled";
+    public static final String CONFIG_OF_QUERY_EXECUTOR_SEGMENT_RESULTS_CACHE_ENABLED =
+        QUERY_EXECUTOR_CONFIG_PREFIX + "." + SEGMENT_RESULTS_CACHE_ENABLED;
+    public static final boolean DEFAULT_SEGMENT_RESULTS_CACHE_ENABLED = false;
+    public static final String SEGMENT_RESULTS_CACHE_MAX_SIZE = "segment.results.cache.max.size";
+    public static final String CONFIG_OF_QUERY_EXECUTOR_SEGMENT_RESULTS_CACHE_MAX_SIZE =
+        QUERY_EXECUTOR_CONFIG_PREFIX + "." + SEGMENT_RESULTS_CACHE_MAX_SIZE;
+    public static final String DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE = "64M";
+
     // TODO: Merge this with "mse"
     /**
      * The ExecutorServiceProvider to use for execution threads, which are the ones that execute
@@ -1111,8 +1172,8 @@ public class CommonConstants {
      *
      * It is recommended to use cached. In case fixed is used, it should use a large enough number of threads or
      * parent operators may consume all threads.
-     * In Java 21 or newer, virtual threads are a good solution. Although Apache Pinot doesn't include this option yet,
-     * it is trivial to implement that plugin.
+     * In Java 21 or newer, virtual threads are a good solution: use the "virtual" type so that each opchain runs on its
+     * own virtual thread, and opchains waiting for data do not hold a platform thread.
      *
      * See QueryRunner
      */
@@ -1352,6 +1413,8 @@ public class CommonConstants {
       public static final String DEFAULT_METADATA_MANAGER_CLASS = "default.metadata.manager.class";
       public static final String DEFAULT_ENABLE_SNAPSHOT = "default.enable.snapshot";
       public static final String DEFAULT_ENABLE_PRELOAD = "default.enable.preload";
+      // Bootstrap the upsert metadata of the segments without validDocIds snapshot in bulk when the server starts
+      public static final String DEFAULT_ENABLE_PARALLEL_BOOTSTRAP = "default.enable.parallel.bootstrap";
 
       /// @deprecated use {@link org.apache.pinot.spi.config.table.ingestion.ParallelSegmentConsumptionPolicy)} instead.
       @Deprecated
@@ -1821,6 +1884,39 @@ public class CommonConstants {
         "pinot.query.runner.enable.data.block.payload.split";
     public static final boolean DEFAULT_ENABLE_DATA_BLOCK_PAYLOAD_SPLIT = false;
 
+    /**
+     * Compression applied to data blocks sent through gRPC mailboxes. Supported values are {@code NONE}, any codec
+     * supported by {@code CompressionFactory} (e.g. {@code LZ4}, {@code ZSTD}) and {@code ADAPTIVE}, which picks LZ4
+     * for medium blocks and ZSTD for large ones. Metadata blocks and in-memory exchanges are never compressed.
+     * Receivers must support mailbox compression, so it should only be enabled once all brokers and servers are
+     * upgraded.
+     */
+    public static final String KEY_OF_MAILBOX_COMPRESSION = "pinot.query.runner.mailbox.compression";
+    public static final String DEFAULT_MAILBOX_COMPRESSION = "NONE";
+    public static final String MAILBOX_COMPRESSION_ADAPTIVE = "ADAPTIVE";
+
+    /**
+     * Data blocks smaller than this size are sent uncompressed, as the gain does not pay for the CPU cost.
+     */
+    public static final String KEY_OF_MAILBOX_COMPRESSION_MIN_BLOCK_SIZE_BYTES =
+        "pinot.query.runner.mailbox.compression.min.block.size.bytes";
+    public static final int DEFAULT_MAILBOX_COMPRESSION_MIN_BLOCK_SIZE_BYTES = 64 * 1024;
+
+    /**
+     * When using {@code ADAPTIVE} compression, data blocks of at least this size are compressed with ZSTD instead of
+     * LZ4.
+     */
+    public static final String KEY_OF_MAILBOX_COMPRESSION_ZSTD_MIN_BLOCK_SIZE_BYTES =
+        "pinot.query.runner.mailbox.compression.zstd.min.block.size.bytes";
+    public static final int DEFAULT_MAILBOX_COMPRESSION_ZSTD_MIN_BLOCK_SIZE_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Compressed payloads larger than this ratio of the raw size are discarded and the block is sent uncompressed.
+     */
+    public static final String KEY_OF_MAILBOX_COMPRESSION_MAX_RATIO =
+        "pinot.query.runner.mailbox.compression.max.ratio";
+    public static final double DEFAULT_MAILBOX_COMPRESSION_MAX_RATIO = 0.9;
+
     /**
      * Configuration for server port, port that opens and accepts
      * {@link org.apache.pinot.query.runtime.plan.DistributedStagePlan} and start executing query stages.
@@ -1842,6 +1938,19 @@ public class CommonConstants {
     public static final String KEY_OF_MAX_ROWS_IN_JOIN = "pinot.query.join.max.rows";
     public static final String KEY_OF_JOIN_OVERFLOW_MODE = "pinot.query.join.overflow.mode";
 
+    /**
+     * Configuration for spilling the hash join to local disk once the estimated size of the right table exceeds the
+     * threshold, and the directory where the spill files are written.
+     */
+    public static final String KEY_OF_JOIN_SPILL_THRESHOLD_BYTES = "pinot.query.join.spill.threshold.bytes";
+    public static final String KEY_OF_SPILL_DIR = "pinot.query.runner.spill.dir";
+
+    /**
+     * Configuration for spilling sorted runs of the sort operator to local disk once the estimated size of the buffered
+     * rows exceeds the threshold.
+     */
+    public static final String KEY_OF_SORT_SPILL_THRESHOLD_BYTES = "pinot.query.sort.spill.threshold.bytes";
+
     /// Specifies the send stats mode used in MSE.
     ///
     /// Valid values are (in lower or upper case):
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -139,6 +140,39 @@ public abstract class AbstractRecordReaderTest {
     Assert.assertFalse(recordReader.hasNext());
   }
 
+  /**
+   * Reads all the records in batches of the given size, and checks the values of the given fields against the expected
+   * records. Fields not in the expected records should be read as null.
+   */
+  protected void checkColumnarBatchValues(ColumnarRecordReader recordReader, Collection<FieldSpec> fieldSpecs,
+      List<Map<String, Object>> expectedRecordsMap, int batchSize)
+      throws Exception {
+    ColumnarBatch batch = new ColumnarBatch(fieldSpecs, batchSize);
+    int numRecordsRead = 0;
+    while (recordReader.hasNext()) {
+      recordReader.nextBatch(batch);
+      int numRows = batch.getNumRows();
+      Assert.assertTrue(numRows > 0 && numRows <= batchSize);
+      for (int i = 0; i < numRows; i++) {
+        Map<String, Object> expectedRecord = expectedRecordsMap.get(numRecordsRead + i);
+        for (ColumnVector columnVector : batch.getColumnVectors().values()) {
+          Object expectedValue = expectedRecord.get(columnVector.getName());
+          if (expectedValue == null) {
+            Assert.assertTrue(columnVector.isNull(i));
+          } else if (expectedValue instanceof List) {
+            Assert.assertFalse(columnVector.isNull(i));
+            Assert.assertEquals((Object[]) columnVector.getValue(i), ((List) expectedValue).toArray());
+          } else {
+            Assert.assertFalse(columnVector.isNull(i));
+            Assert.assertEquals(columnVector.getValue(i), expectedValue);
+          }
+        }
+      }
+      numRecordsRead += numRows;
+    }
+    Assert.assertEquals(numRecordsRead, expectedRecordsMap.size());
+  }
+
   protected org.apache.pinot.spi.data.Schema getPinotSchema() {
     return new org.apache.pinot.spi.data.Schema.SchemaBuilder()
         .addSingleValueDimension("dim_sv_int", FieldSpec.DataType.INT)
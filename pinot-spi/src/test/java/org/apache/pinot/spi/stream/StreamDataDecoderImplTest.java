@@ -19,6 +19,7 @@
 package org.apache.pinot.spi.stream;
 
 import com.google.common.collect.ImmutableSet;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
@@ -77,6 +78,31 @@ public class StreamDataDecoderImplTest {
     Assert.assertEquals(row.getValue(StreamDataDecoderImpl.RECORD_SERIALIZED_VALUE_SIZE_KEY), value.length());
   }
 
+  @Test
+  public void testDecodeValueBuffer() {
+    String value = "Alice";
+    byte[] fetchedBytes = ("xx" + value + "yy").getBytes(StandardCharsets.UTF_8);
+    ByteBuffer valueBuffer = ByteBuffer.wrap(fetchedBytes, 2, value.length()).slice();
+    BytesStreamMessage message = new BytesStreamMessage(null, valueBuffer, null);
+    Assert.assertTrue(message.hasValueBuffer());
+    Assert.assertEquals(message.getLength(), value.length());
+
+    // Decoder supporting ByteBuffer should read the fetched bytes in place
+    ByteBufferTestDecoder byteBufferDecoder = new ByteBufferTestDecoder();
+    StreamDataDecoderResult result = new StreamDataDecoderImpl(byteBufferDecoder).decode(message);
+    Assert.assertNull(result.getException());
+    Assert.assertEquals(result.getResult().getValue(NAME_FIELD), value);
+    Assert.assertSame(byteBufferDecoder._lastPayload, fetchedBytes);
+
+    // Other decoders should read a copy of the value
+    TestDecoder messageDecoder = new TestDecoder();
+    result = new StreamDataDecoderImpl(messageDecoder).decode(message);
+    Assert.assertNull(result.getException());
+    Assert.assertEquals(result.getResult().getValue(NAME_FIELD), value);
+    Assert.assertEquals(message.getValue(), value.getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals(message.getValueBuffer().remaining(), value.length());
+  }
+
   @Test
   public void testNoExceptionIsThrown() {
     ThrowingDecoder messageDecoder = new ThrowingDecoder();
@@ -108,6 +134,22 @@ public class StreamDataDecoderImplTest {
     }
   }
 
+  private static class ByteBufferTestDecoder implements ByteBufferMessageDecoder {
+    byte[] _lastPayload;
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      _lastPayload = payload;
+      destination.putValue(NAME_FIELD, new String(payload, offset, length, StandardCharsets.UTF_8));
+      return destination;
+    }
+  }
+
   private static class TestDecoder implements StreamMessageDecoder<byte[]> {
     @Override
     public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName) {